@@ -0,0 +1,70 @@
+package rocks.inspectit.agent.java.hooking.impl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rocks.inspectit.agent.java.config.impl.RegisteredSensorConfig;
+
+/**
+ * Performance test for the dispatching of the method calls in the {@link HookDispatcher} with the
+ * mapping resolved from the dense array and from the map, using JMH framework.
+ *
+ * @author Ivan Senic
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class HookDispatcherPerfTest {
+
+	/**
+	 * Amount of registered methods.
+	 */
+	private static final int METHODS = 1000;
+
+	@Param({ "true", "false" })
+	private boolean dense;
+
+	private HookDispatcher hookDispatcher;
+
+	private long firstId;
+
+	private int counter;
+
+	@Setup(Level.Trial)
+	public void init() {
+		hookDispatcher = new HookDispatcher();
+		// ids outside of the dense array are resolved with the map only
+		firstId = dense ? 0 : HookDispatcher.MAX_DENSE_MAPPINGS;
+		for (int i = 0; i < METHODS; i++) {
+			hookDispatcher.addMapping(firstId + i, new RegisteredSensorConfig());
+		}
+	}
+
+	/**
+	 * Complete dispatch of one method call with no sensors.
+	 */
+	@Benchmark
+	public void dispatch() {
+		long id = firstId + (counter++ % METHODS);
+		hookDispatcher.dispatchMethodBeforeBody(id, null, null);
+		hookDispatcher.dispatchFirstMethodAfterBody(id, null, null, null);
+		hookDispatcher.dispatchSecondMethodAfterBody(id, null, null, null);
+	}
+
+}
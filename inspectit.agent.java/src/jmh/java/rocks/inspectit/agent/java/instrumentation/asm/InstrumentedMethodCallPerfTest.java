@@ -0,0 +1,277 @@
+package rocks.inspectit.agent.java.instrumentation.asm;
+
+import info.novatec.inspectit.org.objectweb.asm.ClassReader;
+import info.novatec.inspectit.org.objectweb.asm.ClassWriter;
+import info.novatec.inspectit.org.objectweb.asm.MethodVisitor;
+import info.novatec.inspectit.org.objectweb.asm.Opcodes;
+import info.novatec.inspectit.org.objectweb.asm.Type;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rocks.inspectit.agent.java.IAgent;
+import rocks.inspectit.agent.java.hooking.IHookDispatcher;
+import rocks.inspectit.agent.java.instrumentation.InstrumenterFactory;
+import rocks.inspectit.shared.all.instrumentation.config.IMethodInstrumentationPoint;
+import rocks.inspectit.shared.all.instrumentation.config.impl.MethodInstrumentationConfig;
+import rocks.inspectit.shared.all.instrumentation.config.impl.SensorInstrumentationPoint;
+
+/**
+ * Performance test for the per-call overhead of the method instrumented with the
+ * {@link MethodInstrumenter}, with and without passing the parameters, object and result to the
+ * dispatcher, using JMH framework. The dispatcher is either loaded directly from a static field
+ * (as the instrumented code does with the Agent.hookDispatcher) or with the interface call to the
+ * {@link IAgent#getHookDispatcher()} as done before.
+ *
+ * @author Ivan Senic
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class InstrumentedMethodCallPerfTest {
+
+	/**
+	 * Dispatcher the instrumented code is calling.
+	 */
+	public static IHookDispatcher dispatcher = new HoldingHookDispatcher();
+
+	/**
+	 * Agent the instrumented code is calling to get the dispatcher when
+	 * {@link #staticDispatcher} is <code>false</code>.
+	 */
+	public static IAgent agent = new DispatcherAgent();
+
+	@Param({ "true", "false" })
+	private boolean dataNeeded;
+
+	@Param({ "true", "false" })
+	private boolean staticDispatcher;
+
+	private Calculator notInstrumented;
+
+	private Calculator instrumented;
+
+	private int counter;
+
+	@Setup(Level.Trial)
+	public void init() throws Exception {
+		notInstrumented = new CalculatorImpl();
+
+		String className = CalculatorImpl.class.getName();
+		SensorInstrumentationPoint sensorInstrumentationPoint = new SensorInstrumentationPoint();
+		sensorInstrumentationPoint.setParametersNeeded(dataNeeded);
+		sensorInstrumentationPoint.setObjectNeeded(dataNeeded);
+		sensorInstrumentationPoint.setResultNeeded(dataNeeded);
+
+		MethodInstrumentationConfig instrumentationConfig = new MethodInstrumentationConfig();
+		instrumentationConfig.setTargetClassFqn(className);
+		instrumentationConfig.setTargetMethodName("calculate");
+		instrumentationConfig.setReturnType("long");
+		instrumentationConfig.setParameterTypes(Arrays.asList("int", "long", "double", "boolean", "char"));
+		instrumentationConfig.setSensorInstrumentationPoint(sensorInstrumentationPoint);
+
+		byte[] bytes = instrument(className, instrumentationConfig);
+		Class<?> instrumentedClass = new InstrumentingClassLoader().define(className, bytes);
+		instrumented = (Calculator) instrumentedClass.newInstance();
+	}
+
+	/**
+	 * Calling the method that is not instrumented as baseline.
+	 */
+	@Benchmark
+	public long notInstrumented() {
+		counter++;
+		return notInstrumented.calculate(counter, counter, counter, (counter & 1) == 0, 'c');
+	}
+
+	/**
+	 * Calling the instrumented method.
+	 */
+	@Benchmark
+	public long instrumented() {
+		counter++;
+		return instrumented.calculate(counter, counter, counter, (counter & 1) == 0, 'c');
+	}
+
+	/**
+	 * Instruments the class with the given config.
+	 */
+	private byte[] instrument(String className, MethodInstrumentationConfig instrumentationConfig) throws IOException {
+		ClassReader classReader = new ClassReader(className);
+		LoaderAwareClassWriter classWriter = new LoaderAwareClassWriter(classReader, ClassWriter.COMPUTE_FRAMES, InstrumentedMethodCallPerfTest.class.getClassLoader());
+		ClassInstrumenter classInstrumenter = new ClassInstrumenter(new BenchmarkInstrumenterFactory(staticDispatcher), classWriter, Collections.singleton(instrumentationConfig), false);
+		classReader.accept(classInstrumenter, ClassReader.SKIP_FRAMES | ClassReader.SKIP_DEBUG);
+		return classWriter.toByteArray();
+	}
+
+	/**
+	 * Interface for the class being instrumented, so that we can call it without reflection.
+	 */
+	public interface Calculator {
+
+		long calculate(int i, long l, double d, boolean b, char c);
+	}
+
+	/**
+	 * Class being instrumented.
+	 */
+	public static class CalculatorImpl implements Calculator {
+
+		@Override
+		public long calculate(int i, long l, double d, boolean b, char c) {
+			return b ? i + l + (long) d + c : i - l;
+		}
+	}
+
+	/**
+	 * Factory that creates method instrumenters loading the {@link #dispatcher} instead of the
+	 * agent one.
+	 */
+	private static class BenchmarkInstrumenterFactory extends InstrumenterFactory {
+
+		private final boolean staticDispatcher;
+
+		BenchmarkInstrumenterFactory(boolean staticDispatcher) {
+			this.staticDispatcher = staticDispatcher;
+		}
+
+		@Override
+		public MethodVisitor getMethodVisitor(IMethodInstrumentationPoint instrumentationPoint, MethodVisitor superMethodVisitor, int access, String name, String desc,
+				boolean enhancedExceptionSensor) {
+			SensorInstrumentationPoint sip = (SensorInstrumentationPoint) instrumentationPoint;
+			return new MethodInstrumenter(superMethodVisitor, access, name, desc, sip.getId(), enhancedExceptionSensor, sip.isParametersNeeded(), sip.isObjectNeeded(), sip.isResultNeeded()) {
+				@Override
+				protected void loadHookDispatcher() {
+					String owner = Type.getInternalName(InstrumentedMethodCallPerfTest.class);
+					if (staticDispatcher) {
+						mv.visitFieldInsn(Opcodes.GETSTATIC, owner, "dispatcher", IInstrumenterConstant.IHOOK_DISPATCHER_DESCRIPTOR);
+					} else {
+						mv.visitFieldInsn(Opcodes.GETSTATIC, owner, "agent", IInstrumenterConstant.IAGENT_DESCRIPTOR);
+						mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, IInstrumenterConstant.IAGENT_INTERNAL_NAME, "getHookDispatcher", IInstrumenterConstant.GET_IHOOK_DISPATCHER_DESCRIPTOR, true);
+					}
+				}
+			};
+		}
+	}
+
+	/**
+	 * Class loader to define the instrumented class.
+	 */
+	private static class InstrumentingClassLoader extends ClassLoader {
+
+		InstrumentingClassLoader() {
+			super(InstrumentedMethodCallPerfTest.class.getClassLoader());
+		}
+
+		Class<?> define(String name, byte[] bytes) {
+			return defineClass(name, bytes, 0, bytes.length);
+		}
+	}
+
+	/**
+	 * Agent only returning the {@link #dispatcher}.
+	 */
+	public static class DispatcherAgent implements IAgent {
+
+		@Override
+		public byte[] inspectByteCode(byte[] byteCode, String className, ClassLoader classLoader) {
+			return null;
+		}
+
+		@Override
+		public IHookDispatcher getHookDispatcher() {
+			return dispatcher;
+		}
+
+		@Override
+		public boolean shouldClassBeIgnored(String className) {
+			return true;
+		}
+	}
+
+	/**
+	 * Dispatcher that holds the last passed values, so that the JIT can not eliminate the
+	 * parameter array allocation and boxing.
+	 */
+	public static class HoldingHookDispatcher implements IHookDispatcher {
+
+		public Object object;
+
+		public Object[] parameters;
+
+		public Object value;
+
+		@Override
+		public void dispatchMethodBeforeBody(long id, Object object, Object[] parameters) {
+			this.object = object;
+			this.parameters = parameters;
+		}
+
+		@Override
+		public void dispatchFirstMethodAfterBody(long id, Object object, Object[] parameters, Object returnValue) {
+			this.object = object;
+			this.parameters = parameters;
+			this.value = returnValue;
+		}
+
+		@Override
+		public void dispatchSecondMethodAfterBody(long id, Object object, Object[] parameters, Object returnValue) {
+			this.object = object;
+			this.parameters = parameters;
+			this.value = returnValue;
+		}
+
+		@Override
+		public void dispatchOnThrowInBody(long id, Object object, Object[] parameters, Object exceptionObject) {
+		}
+
+		@Override
+		public void dispatchBeforeCatch(long id, Object exceptionObject) {
+		}
+
+		@Override
+		public void dispatchConstructorOnThrowInBody(long id, Object object, Object[] parameters, Object exceptionObject) {
+		}
+
+		@Override
+		public void dispatchConstructorBeforeCatch(long id, Object exceptionObject) {
+		}
+
+		@Override
+		public void dispatchConstructorBeforeBody(long id, Object[] parameters) {
+		}
+
+		@Override
+		public void dispatchConstructorAfterBody(long id, Object object, Object[] parameters) {
+		}
+
+		@Override
+		public Object dispatchSpecialMethodBeforeBody(long id, Object object, Object[] parameters) {
+			return null;
+		}
+
+		@Override
+		public Object dispatchSpecialMethodAfterBody(long id, Object object, Object[] parameters, Object returnValue) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package rocks.inspectit.agent.java.sensor.method.timer;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rocks.inspectit.agent.java.config.impl.RegisteredSensorConfig;
+import rocks.inspectit.agent.java.core.impl.CoreService;
+import rocks.inspectit.agent.java.hooking.AgentThreadContext;
+import rocks.inspectit.agent.java.sensor.method.cpu.ThreadCpuTimeProviderFactory;
+import rocks.inspectit.agent.java.sensor.method.cpu.ThreadCpuTimeSampler;
+import rocks.inspectit.agent.java.util.Timer;
+
+/**
+ * Performance test for the overhead of the {@link TimerHook} with the different thread CPU time
+ * providers, using JMH framework. Mode <code>off</code> is the baseline without CPU timing. One
+ * operation is an outer measured call with {@link #NESTED_CALLS} nested measured calls.
+ *
+ * @author Ivan Senic
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class TimerHookCpuTimePerfTest {
+
+	/**
+	 * Amount of nested calls in one operation.
+	 */
+	private static final int NESTED_CALLS = 10;
+
+	private static final long SENSOR_TYPE_ID = 1L;
+
+	private static final long OUTER_METHOD_ID = 1L;
+
+	private static final long NESTED_METHOD_ID = 2L;
+
+	@Param({ ThreadCpuTimeProviderFactory.MODE_OFF, ThreadCpuTimeProviderFactory.MODE_JMX, ThreadCpuTimeProviderFactory.MODE_BOUNDARY, ThreadCpuTimeProviderFactory.MODE_SAMPLED })
+	private String cpuTiming;
+
+	private ScheduledExecutorService executorService;
+
+	private ThreadCpuTimeSampler sampler;
+
+	private TimerHook timerHook;
+
+	private CoreService coreService;
+
+	private RegisteredSensorConfig rsc;
+
+	private AgentThreadContext context;
+
+	@Setup(Level.Trial)
+	public void init() {
+		Map<String, Object> parameters = new HashMap<String, Object>();
+		parameters.put("mode", "optimized");
+		parameters.put(ThreadCpuTimeProviderFactory.CPU_TIMING, cpuTiming);
+
+		executorService = Executors.newSingleThreadScheduledExecutor();
+		sampler = new ThreadCpuTimeSampler(executorService);
+		timerHook = new TimerHook(new Timer(), null, null, parameters, ThreadCpuTimeProviderFactory.createProvider(parameters, ManagementFactory.getThreadMXBean(), sampler));
+
+		// storages exist, so that no platform manager is needed
+		coreService = new CoreService();
+		coreService.addObjectStorage(SENSOR_TYPE_ID, OUTER_METHOD_ID, null, new OptimizedTimerStorage(null, 0L, SENSOR_TYPE_ID, OUTER_METHOD_ID, null, false));
+		coreService.addObjectStorage(SENSOR_TYPE_ID, NESTED_METHOD_ID, null, new OptimizedTimerStorage(null, 0L, SENSOR_TYPE_ID, NESTED_METHOD_ID, null, false));
+
+		rsc = new RegisteredSensorConfig();
+		context = AgentThreadContext.get();
+	}
+
+	@TearDown(Level.Trial)
+	public void destroy() throws Exception {
+		sampler.destroy();
+		executorService.shutdownNow();
+	}
+
+	/**
+	 * Outer call with the nested calls, all measured by the timer hook.
+	 */
+	@Benchmark
+	public void measure() {
+		timerHook.beforeBody(context, OUTER_METHOD_ID, SENSOR_TYPE_ID, null, null, rsc);
+		for (int i = 0; i < NESTED_CALLS; i++) {
+			timerHook.beforeBody(context, NESTED_METHOD_ID, SENSOR_TYPE_ID, null, null, rsc);
+			timerHook.firstAfterBody(context, NESTED_METHOD_ID, SENSOR_TYPE_ID, null, null, null, rsc);
+			timerHook.secondAfterBody(context, coreService, NESTED_METHOD_ID, SENSOR_TYPE_ID, null, null, null, rsc);
+		}
+		timerHook.firstAfterBody(context, OUTER_METHOD_ID, SENSOR_TYPE_ID, null, null, null, rsc);
+		timerHook.secondAfterBody(context, coreService, OUTER_METHOD_ID, SENSOR_TYPE_ID, null, null, null, rsc);
+	}
+
+}
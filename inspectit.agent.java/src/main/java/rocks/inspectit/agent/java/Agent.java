@@ -1,5 +1,7 @@
 package rocks.inspectit.agent.java;
 
+import rocks.inspectit.agent.java.hooking.IHookDispatcher;
+
 /**
  * Another agent which is there for the sole purpose of classloading issues. The JavaAgent class can
  * be loaded via the AppClassLoader (and all of the classes of the fields and method signatures
@@ -17,6 +19,13 @@ public final class Agent {
 	 */
 	public static IAgent agent; // NOPMD NOCHK
 
+	/**
+	 * The hook dispatcher of the real agent. Instrumented methods load the dispatcher directly
+	 * from this field, so that no interface call to the {@link IAgent#getHookDispatcher()} is
+	 * needed on every method enter and exit.
+	 */
+	public static IHookDispatcher hookDispatcher; // NOPMD NOCHK
+
 	/**
 	 * Private constructor to prevent instantiation.
 	 */
@@ -4,13 +4,16 @@ import info.novatec.inspectit.org.objectweb.asm.ClassReader;
 import info.novatec.inspectit.org.objectweb.asm.ClassWriter;
 
 import java.io.IOException;
-import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -24,10 +27,10 @@ import org.slf4j.Logger;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
 import org.springframework.stereotype.Component;
 
-import com.google.common.io.ByteStreams;
-
 import rocks.inspectit.agent.java.analyzer.IByteCodeAnalyzer;
 import rocks.inspectit.agent.java.config.IConfigurationStorage;
 import rocks.inspectit.agent.java.config.StorageException;
@@ -37,12 +40,14 @@ import rocks.inspectit.agent.java.config.impl.SpecialSensorConfig;
 import rocks.inspectit.agent.java.connection.IConnection;
 import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.agent.java.core.IdNotAvailableException;
+import rocks.inspectit.agent.java.event.ConnectionEstablishedEvent;
 import rocks.inspectit.agent.java.hooking.IHookDispatcherMapper;
 import rocks.inspectit.agent.java.instrumentation.InstrumenterFactory;
 import rocks.inspectit.agent.java.instrumentation.asm.ClassAnalyzer;
 import rocks.inspectit.agent.java.instrumentation.asm.ClassInstrumenter;
 import rocks.inspectit.agent.java.instrumentation.asm.LoaderAwareClassWriter;
 import rocks.inspectit.agent.java.sensor.method.IMethodSensor;
+import rocks.inspectit.agent.java.util.ClassLoadingUtil;
 import rocks.inspectit.shared.all.instrumentation.classcache.Type;
 import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
 import rocks.inspectit.shared.all.instrumentation.config.impl.MethodInstrumentationConfig;
@@ -54,18 +59,33 @@ import rocks.inspectit.shared.all.spring.logger.Log;
 /**
  * {@link IByteCodeAnalyzer} that uses {@link IConnection} to connect to the CMR and send the
  * analyzed type. If needed performs instrumentation based on the result of the CMR answer.
+ * <p>
+ * Loaded classes that can not be instrumented based on the {@link ClassPrefilter} are not analyzed
+ * at all. Only classes that could be instrumented are sent to the CMR synchronously, their
+ * depending types that can not be instrumented are sent in batches by the
+ * {@link ClassAnalysisBatcher}.
+ * <p>
+ * Classes loaded with the instrumentation definition from the local cache that could not be
+ * verified with the CMR because of the missing connection are verified once the connection is
+ * established, see {@link ConnectionEstablishedEvent}.
  *
  * @author Ivan Senic
  *
  */
 @Component
-public class ByteCodeAnalyzer implements IByteCodeAnalyzer, InitializingBean {
+public class ByteCodeAnalyzer implements IByteCodeAnalyzer, InitializingBean, ApplicationListener<ApplicationEvent> {
 
 	/**
 	 * Amount of milliseconds to wait for the result of the {@link AnalyzeCallable}.
 	 */
 	private static final int ANALYZE_TIMEOUT_MILLIS = 2000;
 
+	/**
+	 * Reference kept in the {@link #pendingVerifications} for the classes loaded by the bootstrap
+	 * class loader.
+	 */
+	private static final WeakReference<ClassLoader> BOOTSTRAP_CLASS_LOADER_REFERENCE = new WeakReference<ClassLoader>(null);
+
 	/**
 	 * Log for the class.
 	 */
@@ -102,6 +122,18 @@ public class ByteCodeAnalyzer implements IByteCodeAnalyzer, InitializingBean {
 	@Autowired
 	private ClassHashHelper classHashHelper;
 
+	/**
+	 * {@link ClassPrefilter} to decide if class must be analyzed by the CMR during loading.
+	 */
+	@Autowired
+	private ClassPrefilter classPrefilter;
+
+	/**
+	 * {@link ClassAnalysisBatcher} for the classes that can not be instrumented.
+	 */
+	@Autowired
+	private ClassAnalysisBatcher classAnalysisBatcher;
+
 	/**
 	 * Core-service executor service.
 	 */
@@ -126,6 +158,13 @@ public class ByteCodeAnalyzer implements IByteCodeAnalyzer, InitializingBean {
 	 */
 	private Map<Long, IMethodSensor> methodSensorMap;
 
+	/**
+	 * Classes whose verification with the CMR failed, mapped to the class loader that loaded them.
+	 * The class loaders are weakly referenced, classes of the collected class loaders are verified
+	 * on the next load.
+	 */
+	private final ConcurrentHashMap<String, WeakReference<ClassLoader>> pendingVerifications = new ConcurrentHashMap<String, WeakReference<ClassLoader>>();
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -164,6 +203,14 @@ public class ByteCodeAnalyzer implements IByteCodeAnalyzer, InitializingBean {
 				}
 			}
 
+			// loaded classes that can not be instrumented are not hashed nor parsed during the
+			// class loading, the batcher does it in background so that the CMR still knows them,
+			// classes with the definition received from the CMR are never skipped
+			if (performInstrumentation && !classPrefilter.mayBeInstrumented(byteCode, classLoader) && !hasInstrumentationDefinition(className)) {
+				classAnalysisBatcher.addUnparsed(byteCode);
+				return null;
+			}
+
 			// no matter what first register class being analyzed with class loader
 			classHashHelper.registerAnalyzed(className);
 
@@ -173,6 +220,11 @@ public class ByteCodeAnalyzer implements IByteCodeAnalyzer, InitializingBean {
 			if (classHashHelper.isSent(className, hash)) {
 				// if sent load instrumentation result from the class hash helper
 				instrumentationResult = classHashHelper.getInstrumentationDefinition(className);
+
+				// result loaded from the local cache is verified with the CMR in background
+				if (classHashHelper.startVerification(className)) {
+					verifyInBackground(byteCode, className, classLoader, hash, instrumentationResult);
+				}
 			} else {
 				// if not sent we go for the sending
 				if (!connection.isConnected()) {
@@ -192,6 +244,16 @@ public class ByteCodeAnalyzer implements IByteCodeAnalyzer, InitializingBean {
 				// analyze all necessary depending classes before
 				analyzeDependingTypes(type, classLoader);
 
+				// classes that can not be instrumented are sent in batches in background, they are
+				// registered as sent by the batcher once the batch is successfully sent
+				if (!classPrefilter.mayBeInstrumented(type)) {
+					classAnalysisBatcher.add(hash, type);
+					return null;
+				}
+
+				// send pending batch first so that the CMR knows the depending types
+				classAnalysisBatcher.flushAndWait(ANALYZE_TIMEOUT_MILLIS);
+
 				// try connecting to server
 				Callable<InstrumentationDefinition> analyzeCallable = new AnalyzeCallable(connection, platformManager.getPlatformId(), hash, type);
 				try {
@@ -236,6 +298,134 @@ public class ByteCodeAnalyzer implements IByteCodeAnalyzer, InitializingBean {
 		}
 	}
 
+	/**
+	 * Checks if the class has a non-empty instrumentation definition registered. This is the case
+	 * when the class is retransformed after the definition was received from the CMR.
+	 *
+	 * @param className
+	 *            The class name.
+	 * @return <code>true</code> if the class has instrumentation points defined
+	 */
+	private boolean hasInstrumentationDefinition(String className) {
+		InstrumentationDefinition instrumentationDefinition = classHashHelper.getInstrumentationDefinition(className);
+		return (null != instrumentationDefinition) && !instrumentationDefinition.isEmpty();
+	}
+
+	/**
+	 * Sends the class to the CMR without waiting for the result. This way the CMR class cache gets
+	 * populated with the class that was instrumented with the locally persisted definition and the
+	 * received definition is registered for the next loads of the class.
+	 *
+	 * @param byteCode
+	 *            Byte code of the class.
+	 * @param className
+	 *            The class name.
+	 * @param classLoader
+	 *            The class loader.
+	 * @param hash
+	 *            Class hash.
+	 * @param appliedDefinition
+	 *            Definition applied locally.
+	 */
+	private void verifyInBackground(byte[] byteCode, String className, ClassLoader classLoader, String hash, InstrumentationDefinition appliedDefinition) {
+		if (!connection.isConnected()) {
+			registerVerificationFailed(className, classLoader);
+			return;
+		}
+
+		try {
+			ClassReader classReader = new ClassReader(byteCode);
+			ClassAnalyzer classAnalyzer = new ClassAnalyzer(hash);
+			classReader.accept(classAnalyzer, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+			Type type = (Type) classAnalyzer.getType();
+
+			AnalyzeCallable analyzeCallable = new AnalyzeCallable(connection, platformManager.getPlatformId(), hash, type);
+			executorService.submit(new VerificationRunnable(className, classLoader, analyzeCallable, appliedDefinition));
+		} catch (Exception e) {
+			registerVerificationFailed(className, classLoader);
+			if (log.isDebugEnabled()) {
+				log.debug("Verification of the persisted instrumentation definition for the class " + className + " could not be started.", e);
+			}
+		}
+	}
+
+	/**
+	 * Registers that the verification of the class failed, so that it's verified again on the next
+	 * load or once the connection to the CMR is established.
+	 *
+	 * @param className
+	 *            The class name.
+	 * @param classLoader
+	 *            The class loader.
+	 */
+	private void registerVerificationFailed(String className, ClassLoader classLoader) {
+		classHashHelper.registerVerificationFailed(className);
+		if (null == classLoader) {
+			pendingVerifications.put(className, BOOTSTRAP_CLASS_LOADER_REFERENCE);
+		} else {
+			pendingVerifications.put(className, new WeakReference<ClassLoader>(classLoader));
+		}
+	}
+
+	/**
+	 * Verifies all classes whose verification failed with the CMR. The byte code is read from the
+	 * class loader that loaded the class, classes whose byte code can not be read or changed in
+	 * the meantime are verified on the next load.
+	 */
+	void verifyPending() {
+		for (String className : new ArrayList<String>(pendingVerifications.keySet())) {
+			if (!connection.isConnected()) {
+				return;
+			}
+
+			WeakReference<ClassLoader> classLoaderReference = pendingVerifications.remove(className);
+			if (null == classLoaderReference) {
+				continue;
+			}
+			ClassLoader classLoader = classLoaderReference.get();
+			if ((null == classLoader) && (BOOTSTRAP_CLASS_LOADER_REFERENCE != classLoaderReference)) {
+				continue;
+			}
+			if (!classHashHelper.startVerification(className)) {
+				continue;
+			}
+
+			byte[] byteCode = null;
+			try {
+				byteCode = ClassLoadingUtil.getByteCode(className, classLoader);
+			} catch (IOException e) {
+				if (log.isDebugEnabled()) {
+					log.debug("Can not load byte-code for the verification of the class " + className + " and class loader " + classLoader + ".", e);
+				}
+			}
+			String hash = (null != byteCode) ? DigestUtils.sha256Hex(byteCode) : null;
+			if ((null == hash) || !classHashHelper.isSent(className, hash)) {
+				classHashHelper.registerVerificationFailed(className);
+				continue;
+			}
+
+			verifyInBackground(byteCode, className, classLoader, hash, classHashHelper.getInstrumentationDefinition(className));
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Starts the verification of the pending classes once the connection to the CMR is
+	 * established.
+	 */
+	@Override
+	public void onApplicationEvent(ApplicationEvent event) {
+		if ((event instanceof ConnectionEstablishedEvent) && !pendingVerifications.isEmpty()) {
+			executorService.submit(new Runnable() {
+				@Override
+				public void run() {
+					verifyPending();
+				}
+			});
+		}
+	}
+
 	/**
 	 * Analyze the depending types of the given type and sends the results to the server if needed.
 	 *
@@ -287,37 +477,52 @@ public class ByteCodeAnalyzer implements IByteCodeAnalyzer, InitializingBean {
 
 		// return changed byte code if we did actually add some byte code
 		if (classInstrumenter.isByteCodeAdded()) {
-			Map<Long, long[]> methodToSensorMap = new HashMap<Long, long[]>(0);
-
-			// map the instrumentation points if we have them
-			for (MethodInstrumentationConfig config : classInstrumenter.getAppliedInstrumentationConfigs()) {
-				RegisteredSensorConfig registeredSensorConfig = createRegisteredSensorConfig(config);
-				if (null != registeredSensorConfig) {
-					SensorInstrumentationPoint sensorInstrumentationPoint = config.getSensorInstrumentationPoint();
-					hookDispatcherMapper.addMapping(registeredSensorConfig.getId(), registeredSensorConfig);
-					methodToSensorMap.put(Long.valueOf(registeredSensorConfig.getId()), sensorInstrumentationPoint.getSensorIds());
-				}
+			mapInstrumentationPoints(classInstrumenter.getAppliedInstrumentationConfigs());
+			return classWriter.toByteArray();
+		} else {
+			return null;
+		}
+	}
 
-				SpecialSensorConfig specialSensorConfig = createSpecialSensorConfig(config);
-				if (null != specialSensorConfig) {
-					SpecialInstrumentationPoint specialInstrumentationPoint = config.getSpecialInstrumentationPoint();
-					hookDispatcherMapper.addMapping(specialSensorConfig.getId(), specialSensorConfig);
-					methodToSensorMap.put(Long.valueOf(specialSensorConfig.getId()), new long[] { specialInstrumentationPoint.getSensorId() });
-				}
+	/**
+	 * Maps the instrumentation points of the given configurations in the hook dispatcher and
+	 * informs the CMR about the applied instrumentation. Existing mappings for the same method ids
+	 * are replaced.
+	 * <p>
+	 * Can be called for the already instrumented classes when only the sensors or sensor settings
+	 * of the instrumentation points have changed, as such changes don't require changing the byte
+	 * code of the class.
+	 *
+	 * @param instrumentationConfigs
+	 *            Configurations applied to the byte code of the class.
+	 */
+	public void mapInstrumentationPoints(Collection<MethodInstrumentationConfig> instrumentationConfigs) {
+		Map<Long, long[]> methodToSensorMap = new HashMap<Long, long[]>(0);
+
+		// map the instrumentation points if we have them
+		for (MethodInstrumentationConfig config : instrumentationConfigs) {
+			RegisteredSensorConfig registeredSensorConfig = createRegisteredSensorConfig(config);
+			if (null != registeredSensorConfig) {
+				SensorInstrumentationPoint sensorInstrumentationPoint = config.getSensorInstrumentationPoint();
+				hookDispatcherMapper.addMapping(registeredSensorConfig.getId(), registeredSensorConfig);
+				methodToSensorMap.put(Long.valueOf(registeredSensorConfig.getId()), sensorInstrumentationPoint.getSensorIds());
 			}
 
-			// inform CMR of the applied instrumentation ids
-			if (MapUtils.isNotEmpty(methodToSensorMap)) {
-				try {
-					executorService.submit(new InstrumentationAppliedRunnable(connection, platformManager.getPlatformId(), methodToSensorMap));
-				} catch (IdNotAvailableException idNotAvailableException) {
-					log.warn("Error trying to send applied instrumentations to the server.", idNotAvailableException);
-				}
+			SpecialSensorConfig specialSensorConfig = createSpecialSensorConfig(config);
+			if (null != specialSensorConfig) {
+				SpecialInstrumentationPoint specialInstrumentationPoint = config.getSpecialInstrumentationPoint();
+				hookDispatcherMapper.addMapping(specialSensorConfig.getId(), specialSensorConfig);
+				methodToSensorMap.put(Long.valueOf(specialSensorConfig.getId()), new long[] { specialInstrumentationPoint.getSensorId() });
 			}
+		}
 
-			return classWriter.toByteArray();
-		} else {
-			return null;
+		// inform CMR of the applied instrumentation ids
+		if (MapUtils.isNotEmpty(methodToSensorMap)) {
+			try {
+				executorService.submit(new InstrumentationAppliedRunnable(connection, platformManager.getPlatformId(), methodToSensorMap));
+			} catch (IdNotAvailableException idNotAvailableException) {
+				log.warn("Error trying to send applied instrumentations to the server.", idNotAvailableException);
+			}
 		}
 	}
 
@@ -431,20 +636,8 @@ public class ByteCodeAnalyzer implements IByteCodeAnalyzer, InitializingBean {
 	 * @return Byte code or <code>null</code> if reading was not successful
 	 */
 	private byte[] getByteCodeFromClassLoader(String className, ClassLoader classLoader) {
-		InputStream is = null;
 		try {
-			if (null != classLoader) {
-				is = classLoader.getResourceAsStream(className.replace('.', '/') + ".class");
-			} else {
-				is = ClassLoader.getSystemResourceAsStream(className.replace('.', '/') + ".class");
-			}
-
-			if (null == is) {
-				// nothing we can do here
-				return null;
-			}
-
-			return ByteStreams.toByteArray(is);
+			return ClassLoadingUtil.getByteCode(className, classLoader);
 		} catch (IOException e) {
 			if (log.isDebugEnabled()) {
 				log.debug("Can not load byte-code for the class " + className + " and class loader " + classLoader + ". Class will be ignored and not instrumented.", e);
@@ -452,14 +645,6 @@ public class ByteCodeAnalyzer implements IByteCodeAnalyzer, InitializingBean {
 				log.info("Can not load byte-code for the class " + className + " and class loader " + classLoader + ". Class will be ignored and not instrumented.");
 			}
 			return null;
-		} finally {
-			if (null != is) {
-				try {
-					is.close();
-				} catch (IOException e) { // NOPMD //NOCHK
-					// ignore
-				}
-			}
 		}
 	}
 
@@ -474,4 +659,91 @@ public class ByteCodeAnalyzer implements IByteCodeAnalyzer, InitializingBean {
 		}
 	}
 
+	/**
+	 * Runnable that sends the class to the CMR and compares the received instrumentation definition
+	 * with the one applied from the local cache.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	private class VerificationRunnable implements Runnable {
+
+		/**
+		 * The class name.
+		 */
+		private final String className;
+
+		/**
+		 * The class loader.
+		 */
+		private final ClassLoader classLoader;
+
+		/**
+		 * Callable to send the class with.
+		 */
+		private final AnalyzeCallable analyzeCallable;
+
+		/**
+		 * Definition applied locally.
+		 */
+		private final InstrumentationDefinition appliedDefinition;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param className
+		 *            The class name.
+		 * @param classLoader
+		 *            The class loader.
+		 * @param analyzeCallable
+		 *            Callable to send the class with.
+		 * @param appliedDefinition
+		 *            Definition applied locally.
+		 */
+		VerificationRunnable(String className, ClassLoader classLoader, AnalyzeCallable analyzeCallable, InstrumentationDefinition appliedDefinition) {
+			this.className = className;
+			this.classLoader = classLoader;
+			this.analyzeCallable = analyzeCallable;
+			this.appliedDefinition = appliedDefinition;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void run() {
+			InstrumentationDefinition receivedDefinition;
+			try {
+				receivedDefinition = analyzeCallable.call();
+			} catch (Exception e) {
+				registerVerificationFailed(className, classLoader);
+				return;
+			}
+
+			classHashHelper.registerInstrumentationDefinition(className, receivedDefinition);
+			if (!isSameDefinition(appliedDefinition, receivedDefinition) && log.isInfoEnabled()) {
+				log.info("Instrumentation definition for the class " + className + " received from the server differs from the persisted one. Changes will be applied on the next load of the class.");
+			}
+		}
+
+		/**
+		 * Checks if two definitions define the same instrumentation.
+		 *
+		 * @param first
+		 *            First definition.
+		 * @param second
+		 *            Second definition.
+		 * @return <code>true</code> if both are empty or define same method instrumentation
+		 *         configurations.
+		 */
+		private boolean isSameDefinition(InstrumentationDefinition first, InstrumentationDefinition second) {
+			boolean firstEmpty = (null == first) || first.isEmpty();
+			boolean secondEmpty = (null == second) || second.isEmpty();
+			if (firstEmpty || secondEmpty) {
+				return firstEmpty && secondEmpty;
+			}
+			return new HashSet<MethodInstrumentationConfig>(first.getMethodInstrumentationConfigs()).equals(new HashSet<MethodInstrumentationConfig>(second.getMethodInstrumentationConfigs()));
+		}
+	}
+
 }
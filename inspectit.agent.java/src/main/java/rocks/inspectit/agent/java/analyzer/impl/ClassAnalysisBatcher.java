@@ -0,0 +1,330 @@
+package rocks.inspectit.agent.java.analyzer.impl;
+
+import info.novatec.inspectit.org.objectweb.asm.ClassReader;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.collections.MapUtils;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import rocks.inspectit.agent.java.connection.IConnection;
+import rocks.inspectit.agent.java.connection.ServerUnavailableException;
+import rocks.inspectit.agent.java.core.IPlatformManager;
+import rocks.inspectit.agent.java.core.IdNotAvailableException;
+import rocks.inspectit.agent.java.instrumentation.asm.AsmUtil;
+import rocks.inspectit.agent.java.instrumentation.asm.ClassAnalyzer;
+import rocks.inspectit.shared.all.exception.BusinessException;
+import rocks.inspectit.shared.all.instrumentation.classcache.Type;
+import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
+import rocks.inspectit.shared.all.spring.logger.Log;
+
+/**
+ * Collects the parsed types that do not need to be instrumented right away and sends them to the
+ * CMR in batches with {@link IConnection#analyzeBatch(long, Map)}. Batches are sent in background
+ * when enough types are collected and periodically. Before a class that could be instrumented is
+ * analyzed the pending batch is sent with {@link #flushAndWait(long)}, so that the CMR knows the
+ * depending types of the class when analyzing it. The wait is bounded as the class loading thread
+ * is blocked meanwhile, if the batch is not sent in time (for example the large batch collected
+ * while the CMR was not reachable) the class is analyzed without waiting further. Types are
+ * registered as sent in the {@link ClassHashHelper} only after the batch containing them was
+ * successfully sent.
+ * <p>
+ * Classes skipped by the {@link ClassPrefilter} are added as byte code with
+ * {@link #addUnparsed(byte[])}. They are hashed and parsed in background when the batch is sent, so
+ * that the CMR knows them and can instrument them after a configuration change.
+ *
+ * @author Ivan Senic
+ *
+ */
+@Component
+public class ClassAnalysisBatcher implements InitializingBean {
+
+	/**
+	 * Amount of types that triggers the sending of the batch.
+	 */
+	static final int BATCH_SIZE = 250;
+
+	/**
+	 * Maximum amount of types and of unparsed classes to keep while the CMR is not reachable. Types
+	 * over this limit are dropped and will be sent again only after the agent restart.
+	 */
+	static final int MAX_PENDING_TYPES = 10000;
+
+	/**
+	 * Delay between the periodic sending of the collected types.
+	 */
+	private static final long FLUSH_INTERVAL_MILLIS = 500;
+
+	/**
+	 * Log for the class.
+	 */
+	@Log
+	Logger log;
+
+	/**
+	 * Platform manager.
+	 */
+	@Autowired
+	private IPlatformManager platformManager;
+
+	/**
+	 * {@link IConnection}.
+	 */
+	@Autowired
+	private IConnection connection;
+
+	/**
+	 * {@link ClassHashHelper} to register received definitions to.
+	 */
+	@Autowired
+	private ClassHashHelper classHashHelper;
+
+	/**
+	 * Core-service executor service.
+	 */
+	@Autowired
+	@Qualifier("coreServiceExecutorService")
+	private ScheduledExecutorService executorService;
+
+	/**
+	 * Types waiting to be sent mapped by the class hash. Guarded by itself.
+	 */
+	private final Map<String, Type> pendingTypes = new LinkedHashMap<String, Type>();
+
+	/**
+	 * Byte code of the classes waiting to be parsed and sent. Guarded by the {@link #pendingTypes}.
+	 */
+	private final List<byte[]> pendingByteCodes = new ArrayList<byte[]>();
+
+	/**
+	 * Lock ensuring that only one batch is sent at a time, so that the order of the types is
+	 * preserved.
+	 */
+	private final Object sendLock = new Object();
+
+	/**
+	 * Runnable executing the {@link #flush()}.
+	 */
+	private final Runnable flushRunnable = new Runnable() {
+		@Override
+		public void run() {
+			flush();
+		}
+	};
+
+	/**
+	 * Adds the type to the batch. If the batch is full the sending is started asynchronously.
+	 *
+	 * @param hash
+	 *            Class hash.
+	 * @param type
+	 *            Parsed type.
+	 */
+	public void add(String hash, Type type) {
+		boolean batchFull;
+		synchronized (pendingTypes) {
+			if ((pendingTypes.size() >= MAX_PENDING_TYPES) && !pendingTypes.containsKey(hash)) {
+				return;
+			}
+			pendingTypes.put(hash, type);
+			batchFull = (pendingTypes.size() + pendingByteCodes.size()) == BATCH_SIZE;
+		}
+
+		if (batchFull) {
+			executorService.submit(flushRunnable);
+		}
+	}
+
+	/**
+	 * Adds the byte code of the class that was not parsed to the batch. The class is hashed and
+	 * parsed in background before the batch is sent. If the batch is full the sending is started
+	 * asynchronously.
+	 *
+	 * @param byteCode
+	 *            Byte code of the class, must not be changed after passed.
+	 */
+	public void addUnparsed(byte[] byteCode) {
+		boolean batchFull;
+		synchronized (pendingTypes) {
+			if (pendingByteCodes.size() >= MAX_PENDING_TYPES) {
+				return;
+			}
+			pendingByteCodes.add(byteCode);
+			batchFull = (pendingTypes.size() + pendingByteCodes.size()) == BATCH_SIZE;
+		}
+
+		if (batchFull) {
+			executorService.submit(flushRunnable);
+		}
+	}
+
+	/**
+	 * Starts the sending of the collected types in background if there are any and waits at most
+	 * the given time for the sending to finish. If the sending does not finish in time the caller
+	 * continues, while the types are still sent in background.
+	 *
+	 * @param timeoutMillis
+	 *            Maximum time to wait in milliseconds.
+	 */
+	public void flushAndWait(long timeoutMillis) {
+		if (0 == getPendingCount()) {
+			return;
+		}
+
+		Future<?> future = executorService.submit(flushRunnable);
+		try {
+			future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			log.warn("Sending of the batch of types to the CMR failed.", e);
+		} catch (TimeoutException e) {
+			if (log.isDebugEnabled()) {
+				log.debug("Sending of the batch of types to the CMR did not finish in " + timeoutMillis + " ms, continuing in background.");
+			}
+		}
+	}
+
+	/**
+	 * Sends all collected types to the CMR in the calling thread. If sending fails because the
+	 * server is not available the types are kept for the next try.
+	 */
+	public void flush() {
+		synchronized (sendLock) {
+			Map<String, Type> batch;
+			List<byte[]> byteCodes;
+			synchronized (pendingTypes) {
+				if (pendingTypes.isEmpty() && pendingByteCodes.isEmpty()) {
+					return;
+				}
+				batch = new LinkedHashMap<String, Type>(pendingTypes);
+				pendingTypes.clear();
+				byteCodes = new ArrayList<byte[]>(pendingByteCodes);
+				pendingByteCodes.clear();
+			}
+
+			for (byte[] byteCode : byteCodes) {
+				parse(byteCode, batch);
+			}
+			if (batch.isEmpty()) {
+				return;
+			}
+
+			try {
+				if (!connection.isConnected()) {
+					throw new ServerUnavailableException(false);
+				}
+
+				Map<String, InstrumentationDefinition> result = connection.analyzeBatch(platformManager.getPlatformId(), batch);
+				for (Entry<String, Type> entry : batch.entrySet()) {
+					String fqn = entry.getValue().getFQN();
+					InstrumentationDefinition instrumentationDefinition = null;
+					if (MapUtils.isNotEmpty(result)) {
+						instrumentationDefinition = result.get(entry.getKey());
+					}
+
+					classHashHelper.registerSent(fqn, entry.getKey());
+					classHashHelper.registerInstrumentationDefinition(fqn, instrumentationDefinition);
+					if ((null != instrumentationDefinition) && log.isDebugEnabled()) {
+						log.debug("Batch analysis returned instrumentation definition for the class " + fqn + ". Instrumentation will be applied on the next load of the class.");
+					}
+				}
+			} catch (ServerUnavailableException e) {
+				requeue(batch);
+			} catch (IdNotAvailableException e) {
+				requeue(batch);
+			} catch (BusinessException e) {
+				log.warn("Batch of " + batch.size() + " types could not be analyzed on the CMR.", e);
+			}
+		}
+	}
+
+	/**
+	 * Hashes and parses the class with the given byte code and puts the type to the batch if the
+	 * class was not already sent.
+	 *
+	 * @param byteCode
+	 *            Byte code of the class.
+	 * @param batch
+	 *            Batch to add the type to.
+	 */
+	private void parse(byte[] byteCode, Map<String, Type> batch) {
+		try {
+			String hash = DigestUtils.sha256Hex(byteCode);
+			ClassReader classReader = new ClassReader(byteCode);
+			if (classHashHelper.isSent(AsmUtil.getFqn(classReader.getClassName()), hash)) {
+				return;
+			}
+
+			ClassAnalyzer classAnalyzer = new ClassAnalyzer(hash);
+			classReader.accept(classAnalyzer, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+			batch.put(hash, (Type) classAnalyzer.getType());
+		} catch (Exception e) { // NOPMD
+			// class that can not be parsed is not sent
+			if (log.isDebugEnabled()) {
+				log.debug("Class skipped by the prefilter could not be parsed for the batch analysis.", e);
+			}
+		}
+	}
+
+	/**
+	 * Puts the types of the failed batch back to the pending ones, respecting the
+	 * {@link #MAX_PENDING_TYPES}.
+	 *
+	 * @param batch
+	 *            Batch that failed to be sent.
+	 */
+	private void requeue(Map<String, Type> batch) {
+		int dropped = 0;
+		synchronized (pendingTypes) {
+			Map<String, Type> newPending = new LinkedHashMap<String, Type>(batch);
+			newPending.putAll(pendingTypes);
+			pendingTypes.clear();
+			for (Entry<String, Type> entry : newPending.entrySet()) {
+				if (pendingTypes.size() < MAX_PENDING_TYPES) {
+					pendingTypes.put(entry.getKey(), entry.getValue());
+				} else {
+					dropped++;
+				}
+			}
+		}
+
+		if ((dropped > 0) && log.isWarnEnabled()) {
+			log.warn("Server not available, " + dropped + " types waiting for the batch analysis were dropped.");
+		}
+	}
+
+	/**
+	 * Returns the amount of types waiting to be sent.
+	 *
+	 * @return Returns the amount of types waiting to be sent.
+	 */
+	int getPendingCount() {
+		synchronized (pendingTypes) {
+			return pendingTypes.size() + pendingByteCodes.size();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		executorService.scheduleWithFixedDelay(flushRunnable, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+	}
+
+}
@@ -13,6 +13,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.commons.collections.MapUtils;
 import org.slf4j.Logger;
@@ -27,6 +28,7 @@ import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 
 import rocks.inspectit.agent.java.config.IConfigurationStorage;
+import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.agent.java.io.FileResolver;
 import rocks.inspectit.agent.java.spring.PrototypesProvider;
 import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
@@ -38,6 +40,13 @@ import rocks.inspectit.shared.all.spring.logger.Log;
  * Implementation of the {@link IClassHashHelper} that holds all data in one concurrent map. Keys in
  * this map are class FQNs, while entries are {@link ClassEntry}s and they define answers to all the
  * provided questions.
+ * <p>
+ * Next to the sent class hashes the helper persists the received instrumentation definitions
+ * together with the configuration revision reported by the CMR. When the CMR does not have the
+ * class cache for the agent (for example after the CMR restart), but the configuration revision is
+ * not changed, the persisted definitions are used right away and the classes are not sent to the
+ * CMR synchronously during the class loading. Such classes are marked as the ones needing
+ * verification, see {@link #startVerification(String)}.
  *
  * @author Ivan Senic
  *
@@ -60,6 +69,12 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 	@Autowired
 	private IConfigurationStorage configurationStorage;
 
+	/**
+	 * Platform manager to get the platform id the definitions are bound to.
+	 */
+	@Autowired
+	private IPlatformManager platformManager;
+
 	/**
 	 * Core-service executor service.
 	 */
@@ -177,6 +192,36 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 		return entry != null ? entry.getInstrumentationResult() : null;
 	}
 
+	/**
+	 * Starts the verification of the class with the given FQN. Returns <code>true</code> only if
+	 * the instrumentation definition of the class was loaded from the local cache and the
+	 * verification with the CMR was not yet started. The caller is then responsible for sending
+	 * the class to the CMR and registering the received definition.
+	 *
+	 * @param fqn
+	 *            Class fqn
+	 * @return <code>true</code> if the class needs to be verified with the CMR
+	 */
+	public boolean startVerification(String fqn) {
+		ClassEntry entry = fqnToClassEntryMap.get(fqn);
+		return entry != null ? entry.startVerification() : false;
+	}
+
+	/**
+	 * Registers that the verification of the class with the given FQN started with
+	 * {@link #startVerification(String)} failed, so that the class is verified again on the next
+	 * load.
+	 *
+	 * @param fqn
+	 *            Class fqn
+	 */
+	public void registerVerificationFailed(String fqn) {
+		ClassEntry entry = fqnToClassEntryMap.get(fqn);
+		if (null != entry) {
+			entry.setVerificationNeeded();
+		}
+	}
+
 	/**
 	 * Creates new entry in the map in the atomic fashion.
 	 *
@@ -215,10 +260,11 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 	public void afterPropertiesSet() throws Exception {
 		serializationManager = prototypesProvider.createSerializer();
 
-		// only load if configuration says that the class cache exists on the CMR
+		// only load if configuration says that the class cache exists on the CMR or if the
+		// persisted instrumentation definitions are still valid
 		if (configurationStorage.isClassCacheExistsOnCmr()) {
 			loadCacheFromDisk();
-		} else {
+		} else if (!loadInstrumentationDefinitionsFromDisk()) {
 			deleteCacheFromDisk();
 		}
 
@@ -290,28 +336,124 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 	}
 
 	/**
-	 * Deletes the current cache file from disk.
+	 * Loads the instrumentation definitions and sent classes from disk if the definitions were
+	 * persisted with the same platform id and configuration revision as the current ones. All
+	 * loaded classes are marked as needing verification.
+	 *
+	 * @return <code>true</code> if definitions were valid and loaded
+	 */
+	private boolean loadInstrumentationDefinitionsFromDisk() {
+		File file = fileResolver.getInstrumentationDefinitionCacheFile().getAbsoluteFile();
+
+		if (!file.exists()) {
+			return false;
+		}
+
+		FileInputStream fileInputStream = null;
+		try {
+			String configurationRevision = configurationStorage.getConfigurationRevision();
+			if (null == configurationRevision) {
+				return false;
+			}
+
+			fileInputStream = new FileInputStream(file);
+			Input input = new Input(fileInputStream);
+
+			InstrumentationDefinitionCache definitionCache = (InstrumentationDefinitionCache) serializationManager.deserialize(input);
+			if ((null == definitionCache) || !definitionCache.isValidFor(platformManager.getPlatformId(), configurationRevision)) {
+				log.info("Persisted instrumentation definitions are not valid for the current configuration and will not be used.");
+				return false;
+			}
+
+			loadCacheFromDisk();
+			if (MapUtils.isNotEmpty(definitionCache.getInstrumentationDefinitions())) {
+				for (Entry<String, InstrumentationDefinition> entry : definitionCache.getInstrumentationDefinitions().entrySet()) {
+					registerInstrumentationDefinition(entry.getKey(), entry.getValue());
+				}
+			}
+			for (ClassEntry classEntry : fqnToClassEntryMap.values()) {
+				classEntry.setVerificationNeeded();
+			}
+
+			log.info("Persisted instrumentation definitions loaded for " + fqnToClassEntryMap.size() + " classes, classes will be verified with the server in the background.");
+			return true;
+		} catch (Throwable t) { // NOPMD
+			log.warn("Unable to load instrumentation definitions cache from disk.", t);
+			fqnToClassEntryMap.clear();
+			return false;
+		} finally {
+			if (null != fileInputStream) {
+				try {
+					fileInputStream.close();
+				} catch (IOException e) { // NOPMD //NOCHK
+					// ignore
+				}
+			}
+		}
+	}
+
+	/**
+	 * Deletes the current cache files from disk.
 	 */
 	private void deleteCacheFromDisk() {
-		File file = fileResolver.getClassHashCacheFile().getAbsoluteFile();
+		deleteFile(fileResolver.getClassHashCacheFile().getAbsoluteFile());
+		deleteFile(fileResolver.getInstrumentationDefinitionCacheFile().getAbsoluteFile());
+	}
 
+	/**
+	 * Deletes the given cache file if it exists.
+	 *
+	 * @param file
+	 *            File to delete.
+	 */
+	private void deleteFile(File file) {
 		if (file.exists()) {
 			if (!file.delete()) {
-				log.warn("Unable to delete the existing class cache file: " + file.getAbsolutePath());
+				log.warn("Unable to delete the existing cache file: " + file.getAbsolutePath());
 			}
 		}
-
 	}
 
 	/**
-	 * Save cache to disk.
+	 * Save cache to disk. Entries still waiting for the verification are saved unchanged, they
+	 * were loaded from the cache and are marked as needing verification again on the next load.
 	 */
 	private void saveCacheToDisk() {
-		File file = fileResolver.getClassHashCacheFile().getAbsoluteFile();
+		Map<String, Collection<String>> fqnWithHashes = new HashMap<String, Collection<String>>();
+		Map<String, InstrumentationDefinition> instrumentationDefinitions = new HashMap<String, InstrumentationDefinition>();
+		for (Entry<String, ClassEntry> entry : fqnToClassEntryMap.entrySet()) {
+			ClassEntry classEntry = entry.getValue();
+			fqnWithHashes.put(entry.getKey(), classEntry.getHashes());
+			if (null != classEntry.getInstrumentationResult()) {
+				instrumentationDefinitions.put(entry.getKey(), classEntry.getInstrumentationResult());
+			}
+		}
+
+		saveToDisk(fileResolver.getClassHashCacheFile().getAbsoluteFile(), fqnWithHashes);
+
+		try {
+			String configurationRevision = configurationStorage.getConfigurationRevision();
+			if (null != configurationRevision) {
+				saveToDisk(fileResolver.getInstrumentationDefinitionCacheFile().getAbsoluteFile(),
+						new InstrumentationDefinitionCache(platformManager.getPlatformId(), configurationRevision, instrumentationDefinitions));
+			}
+		} catch (Throwable t) { // NOPMD
+			log.warn("Unable to save instrumentation definitions cache to disk.", t);
+		}
+	}
 
+	/**
+	 * Serializes the given object to the given file, replacing the existing file.
+	 *
+	 * @param file
+	 *            File to save to.
+	 * @param object
+	 *            Object to serialize.
+	 */
+	private void saveToDisk(File file, Object object) {
 		if (file.exists()) {
 			if (!file.delete()) {
-				log.warn("Unable to delete the existing class cache file: " + file.getAbsolutePath());
+				log.warn("Unable to delete the existing cache file: " + file.getAbsolutePath());
 			}
 		} else {
 			File parentDir = file.getParentFile();
@@ -327,15 +469,9 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 			fileOutputStream = new FileOutputStream(file);
 			Output output = new Output(fileOutputStream);
 
-			// save only the ones being set to the CMR
-			Map<String, Collection<String>> fqnWithHashes = new HashMap<String, Collection<String>>();
-			for (Entry<String, ClassEntry> entry : fqnToClassEntryMap.entrySet()) {
-				fqnWithHashes.put(entry.getKey(), entry.getValue().getHashes());
-			}
-
-			serializationManager.serialize(fqnWithHashes, output);
+			serializationManager.serialize(object, output);
 		} catch (Throwable t) { // NOPMD
-			log.warn("Unable to save sending classes cache to disk.", t);
+			log.warn("Unable to save cache to disk: " + file.getAbsolutePath(), t);
 		} finally {
 			if (null != fileOutputStream) {
 				try {
@@ -366,6 +502,11 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 		 */
 		private final CopyOnWriteArrayList<String> hashes = new CopyOnWriteArrayList<String>();
 
+		/**
+		 * If the entry was loaded from the local cache and must be verified with the CMR.
+		 */
+		private final AtomicBoolean verificationNeeded = new AtomicBoolean();
+
 		/**
 		 * Gets {@link #instrumentationResult}.
 		 *
@@ -385,6 +526,22 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 			this.instrumentationResult = instrumentationResult;
 		}
 
+		/**
+		 * Marks this entry as needing the verification with the CMR.
+		 */
+		public void setVerificationNeeded() {
+			verificationNeeded.set(true);
+		}
+
+		/**
+		 * Starts the verification if it's needed.
+		 *
+		 * @return <code>true</code> if verification was needed and the caller should perform it.
+		 */
+		public boolean startVerification() {
+			return verificationNeeded.compareAndSet(true, false);
+		}
+
 		/**
 		 * Adds hash to the {@link #hashes} if it does not exist.
 		 *
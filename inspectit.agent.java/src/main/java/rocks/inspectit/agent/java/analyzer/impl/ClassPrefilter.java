@@ -0,0 +1,464 @@
+package rocks.inspectit.agent.java.analyzer.impl;
+
+import info.novatec.inspectit.org.objectweb.asm.AnnotationVisitor;
+import info.novatec.inspectit.org.objectweb.asm.ClassReader;
+import info.novatec.inspectit.org.objectweb.asm.ClassVisitor;
+import info.novatec.inspectit.org.objectweb.asm.Opcodes;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.collections.CollectionUtils;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import rocks.inspectit.agent.java.config.IConfigurationStorage;
+import rocks.inspectit.agent.java.event.AgentMessagesReceivedEvent;
+import rocks.inspectit.agent.java.instrumentation.asm.AsmUtil;
+import rocks.inspectit.agent.java.util.ClassLoadingUtil;
+import rocks.inspectit.shared.all.communication.message.IAgentMessage;
+import rocks.inspectit.shared.all.communication.message.UpdatedClassPrefilterMessage;
+import rocks.inspectit.shared.all.instrumentation.classcache.AnnotationType;
+import rocks.inspectit.shared.all.instrumentation.classcache.Type;
+import rocks.inspectit.shared.all.instrumentation.config.impl.ClassPrefilterConfig;
+import rocks.inspectit.shared.all.pattern.IMatchPattern;
+import rocks.inspectit.shared.all.spring.logger.Log;
+
+/**
+ * Decides locally if a class could be instrumented based on the {@link ClassPrefilterConfig}
+ * received from the CMR. Classes that can not be instrumented don't need to be hashed, parsed and
+ * sent to the CMR during the class loading.
+ * <p>
+ * The prefilter is conservative: class is considered as the one that could be instrumented if its
+ * name matches any of the class name patterns, if it's annotated with any of the annotations or if
+ * any of its direct super-classes or interfaces is relevant for the inheritance. A type is relevant
+ * for the inheritance if its name matches any of the super-class or interface name patterns, if
+ * it's annotated with any of the annotations, if any of its own super-types is relevant or if the
+ * type can not be resolved.
+ * <p>
+ * The configuration is read on start-up and replaced when an {@link UpdatedClassPrefilterMessage}
+ * is received from the CMR. The relevance of the already seen types is then forgotten.
+ *
+ * @author Ivan Senic
+ *
+ */
+@Component
+public class ClassPrefilter implements InitializingBean, DisposableBean, ApplicationListener<AgentMessagesReceivedEvent> {
+
+	/**
+	 * Log for the class.
+	 */
+	@Log
+	Logger log;
+
+	/**
+	 * Configuration storage to read the prefilter configuration from.
+	 */
+	@Autowired
+	private IConfigurationStorage configurationStorage;
+
+	/**
+	 * Prefilter configuration, <code>null</code> means all classes could be instrumented.
+	 */
+	private volatile ClassPrefilterConfig prefilterConfig;
+
+	/**
+	 * Map holding the information if a type with the given FQN is relevant for the inheritance.
+	 */
+	private final ConcurrentHashMap<String, Boolean> inheritanceRelevantMap = new ConcurrentHashMap<String, Boolean>(4096);
+
+	/**
+	 * Amount of loaded classes skipped by the prefilter.
+	 */
+	private final AtomicLong skippedClassesCount = new AtomicLong();
+
+	/**
+	 * Amount of loaded classes passed by the prefilter for the analysis.
+	 */
+	private final AtomicLong analyzedClassesCount = new AtomicLong();
+
+	/**
+	 * Returns if the loaded class with the given byte code could be instrumented. Only the header of
+	 * the class (and the annotations if annotation patterns are defined) is read. Super-types not
+	 * known to the prefilter are resolved with the given class loader.
+	 * <p>
+	 * This method updates the skipped and analyzed classes counters.
+	 *
+	 * @param byteCode
+	 *            Byte code of the loaded class.
+	 * @param classLoader
+	 *            Class loader loading the class.
+	 * @return <code>false</code> if class can not be instrumented and thus does not need to be
+	 *         analyzed, <code>true</code> otherwise.
+	 */
+	public boolean mayBeInstrumented(byte[] byteCode, ClassLoader classLoader) {
+		ClassPrefilterConfig config = prefilterConfig;
+		if (null == config) {
+			analyzedClassesCount.incrementAndGet();
+			return true;
+		}
+
+		boolean result;
+		try {
+			ClassHeader classHeader = readHeader(config, new ClassReader(byteCode));
+			boolean dependingTypeRelevant = isAnyRelevant(config, classHeader.superTypes, true, classLoader);
+			registerRelevance(config, classHeader.fqn, dependingTypeRelevant || classHeader.annotated);
+			result = classHeader.isClass && (dependingTypeRelevant || classHeader.annotated || matchesAny(config.getClassNamePatterns(), classHeader.fqn));
+		} catch (Exception e) { // NOPMD
+			// if anything goes wrong we let the class be analyzed
+			result = true;
+		}
+
+		if (result) {
+			analyzedClassesCount.incrementAndGet();
+		} else {
+			skippedClassesCount.incrementAndGet();
+		}
+		return result;
+	}
+
+	/**
+	 * Returns if the given type could be instrumented. Only class types can be instrumented, but
+	 * every given type is remembered so that the decision for the classes extending or realizing it
+	 * can be made.
+	 * <p>
+	 * The depending types of the given type should be passed to this method before the type itself,
+	 * otherwise they are considered unknown and thus relevant.
+	 *
+	 * @param type
+	 *            Parsed type.
+	 * @return <code>true</code> if the type could be instrumented and must be analyzed by the CMR
+	 *         right away, <code>false</code> otherwise.
+	 */
+	public boolean mayBeInstrumented(Type type) {
+		ClassPrefilterConfig config = prefilterConfig;
+		if (null == config) {
+			return true;
+		}
+
+		String fqn = type.getFQN();
+		Collection<String> superTypes = new ArrayList<String>();
+		for (Type dependingType : type.getDependingTypes()) {
+			superTypes.add(dependingType.getFQN());
+		}
+		boolean dependingTypeRelevant = isAnyRelevant(config, superTypes, false, null);
+		boolean annotated = isAnnotated(config, type);
+		registerRelevance(config, fqn, dependingTypeRelevant || annotated);
+
+		if (!type.isClass()) {
+			return false;
+		}
+
+		return dependingTypeRelevant || annotated || matchesAny(config.getClassNamePatterns(), fqn);
+	}
+
+	/**
+	 * Remembers if the type is relevant for the inheritance.
+	 *
+	 * @param config
+	 *            Prefilter configuration.
+	 * @param fqn
+	 *            FQN of the type.
+	 * @param relevant
+	 *            If the type is already known to be relevant. Otherwise the FQN is checked against
+	 *            the super-class and interface name patterns.
+	 * @return If type is relevant for the inheritance.
+	 */
+	private boolean registerRelevance(ClassPrefilterConfig config, String fqn, boolean relevant) {
+		// relevance is never revoked once set, only forgotten on configuration change
+		if (relevant || matchesAny(config.getSuperClassNamePatterns(), fqn) || matchesAny(config.getInterfaceNamePatterns(), fqn)) {
+			inheritanceRelevantMap.put(fqn, Boolean.TRUE);
+			return true;
+		} else {
+			Boolean existing = inheritanceRelevantMap.putIfAbsent(fqn, Boolean.FALSE);
+			return (null != existing) && existing.booleanValue();
+		}
+	}
+
+	/**
+	 * Checks if any of the given types is relevant for the inheritance.
+	 *
+	 * @param config
+	 *            Prefilter configuration.
+	 * @param fqns
+	 *            FQNs of the types to check.
+	 * @param resolve
+	 *            If types not known to the prefilter should be resolved with the class loader.
+	 *            Otherwise they are considered relevant.
+	 * @param classLoader
+	 *            Class loader to resolve the types not known to the prefilter with.
+	 * @return <code>true</code> if any of the types is relevant or can not be resolved
+	 */
+	private boolean isAnyRelevant(ClassPrefilterConfig config, Collection<String> fqns, boolean resolve, ClassLoader classLoader) {
+		if (CollectionUtils.isNotEmpty(fqns)) {
+			for (String fqn : fqns) {
+				if (isRelevant(config, fqn, resolve, classLoader)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Checks if the type with the given FQN is relevant for the inheritance. If the type is not
+	 * known to the prefilter and resolving is requested the header of the type is read from the
+	 * class loader resources.
+	 *
+	 * @param config
+	 *            Prefilter configuration.
+	 * @param fqn
+	 *            FQN of the type.
+	 * @param resolve
+	 *            If type should be resolved with the class loader if not known to the prefilter.
+	 * @param classLoader
+	 *            Class loader to resolve the type with.
+	 * @return <code>true</code> if the type is relevant or can not be resolved
+	 */
+	private boolean isRelevant(ClassPrefilterConfig config, String fqn, boolean resolve, ClassLoader classLoader) {
+		Boolean relevant = inheritanceRelevantMap.get(fqn);
+		if (null != relevant) {
+			return relevant.booleanValue();
+		}
+
+		if (!resolve) {
+			return true;
+		}
+
+		byte[] byteCode;
+		try {
+			byteCode = ClassLoadingUtil.getByteCode(fqn, classLoader);
+		} catch (IOException e) {
+			return true;
+		}
+
+		if (null == byteCode) {
+			return true;
+		}
+
+		ClassHeader classHeader = readHeader(config, new ClassReader(byteCode));
+		return registerRelevance(config, fqn, classHeader.annotated || isAnyRelevant(config, classHeader.superTypes, true, classLoader));
+	}
+
+	/**
+	 * Reads the header of the class. Annotations are only read if annotation patterns are defined.
+	 *
+	 * @param config
+	 *            Prefilter configuration.
+	 * @param classReader
+	 *            Class reader.
+	 * @return {@link ClassHeader}
+	 */
+	private ClassHeader readHeader(ClassPrefilterConfig config, ClassReader classReader) {
+		ClassHeader classHeader = new ClassHeader();
+		classHeader.fqn = AsmUtil.getFqn(classReader.getClassName());
+		classHeader.isClass = (classReader.getAccess() & (Opcodes.ACC_INTERFACE | Opcodes.ACC_ANNOTATION)) == 0;
+		String superName = classReader.getSuperName();
+		if (null != superName) {
+			classHeader.superTypes.add(AsmUtil.getFqn(superName));
+		}
+		for (String interfaceName : classReader.getInterfaces()) {
+			classHeader.superTypes.add(AsmUtil.getFqn(interfaceName));
+		}
+
+		if (CollectionUtils.isNotEmpty(config.getAnnotationPatterns())) {
+			AnnotationMatchingVisitor visitor = new AnnotationMatchingVisitor(config.getAnnotationPatterns());
+			classReader.accept(visitor, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+			classHeader.annotated = visitor.matched;
+		}
+		return classHeader;
+	}
+
+	/**
+	 * Checks if the parsed type is annotated with any of the annotations from the annotation
+	 * patterns.
+	 *
+	 * @param config
+	 *            Prefilter configuration.
+	 * @param type
+	 *            Parsed type.
+	 * @return <code>true</code> if any of the type annotations matches
+	 */
+	private boolean isAnnotated(ClassPrefilterConfig config, Type type) {
+		if (CollectionUtils.isEmpty(config.getAnnotationPatterns())) {
+			return false;
+		}
+
+		for (AnnotationType annotationType : type.getAnnotations()) {
+			if (matchesAny(config.getAnnotationPatterns(), annotationType.getFQN())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Checks if any of the patterns matches the given FQN.
+	 *
+	 * @param patterns
+	 *            Patterns, can be <code>null</code>.
+	 * @param fqn
+	 *            FQN to match.
+	 * @return <code>true</code> if any pattern matches
+	 */
+	private boolean matchesAny(Collection<IMatchPattern> patterns, String fqn) {
+		if (CollectionUtils.isNotEmpty(patterns)) {
+			for (IMatchPattern pattern : patterns) {
+				if (pattern.match(fqn)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Gets {@link #skippedClassesCount}.
+	 *
+	 * @return {@link #skippedClassesCount}
+	 */
+	public long getSkippedClassesCount() {
+		return skippedClassesCount.get();
+	}
+
+	/**
+	 * Gets {@link #analyzedClassesCount}.
+	 *
+	 * @return {@link #analyzedClassesCount}
+	 */
+	public long getAnalyzedClassesCount() {
+		return analyzedClassesCount.get();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		prefilterConfig = configurationStorage.getClassPrefilterConfig();
+
+		if ((null == prefilterConfig) && log.isDebugEnabled()) {
+			log.debug("Class prefilter configuration not provided by the CMR, all classes will be analyzed during the class loading.");
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Replaces the configuration with the one from the last received
+	 * {@link UpdatedClassPrefilterMessage}.
+	 */
+	@Override
+	public void onApplicationEvent(AgentMessagesReceivedEvent event) {
+		UpdatedClassPrefilterMessage prefilterMessage = null;
+		for (IAgentMessage<?> message : event.getAgentMessages()) {
+			if (message instanceof UpdatedClassPrefilterMessage) {
+				prefilterMessage = (UpdatedClassPrefilterMessage) message;
+			}
+		}
+
+		if (null == prefilterMessage) {
+			return;
+		}
+
+		// relevance of the known types depends on the patterns, thus must be forgotten
+		ClassPrefilterConfig config = prefilterMessage.getMessageContent();
+		prefilterConfig = config;
+		inheritanceRelevantMap.clear();
+
+		if (log.isInfoEnabled()) {
+			log.info("Class prefilter configuration updated" + ((null == config) ? ", all classes will be analyzed during the class loading." : "."));
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void destroy() throws Exception {
+		if (log.isInfoEnabled()) {
+			log.info("Class prefilter analyzed " + analyzedClassesCount.get() + " and skipped " + skippedClassesCount.get() + " loaded classes.");
+		}
+	}
+
+	/**
+	 * Information read from the class header.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	private static class ClassHeader {
+
+		/**
+		 * FQN of the class.
+		 */
+		private String fqn;
+
+		/**
+		 * If type is a class (not interface or annotation).
+		 */
+		private boolean isClass;
+
+		/**
+		 * FQNs of the direct super-class and interfaces.
+		 */
+		private final Collection<String> superTypes = new ArrayList<String>(2);
+
+		/**
+		 * If class is annotated with any of the annotations from the annotation patterns.
+		 */
+		private boolean annotated;
+
+	}
+
+	/**
+	 * Class visitor that only checks the class annotations against the annotation patterns.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	private class AnnotationMatchingVisitor extends ClassVisitor {
+
+		/**
+		 * Annotation patterns to match.
+		 */
+		private final Collection<IMatchPattern> annotationPatterns;
+
+		/**
+		 * If any annotation matched.
+		 */
+		private boolean matched;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param annotationPatterns
+		 *            Annotation patterns to match.
+		 */
+		AnnotationMatchingVisitor(Collection<IMatchPattern> annotationPatterns) {
+			super(Opcodes.ASM5);
+			this.annotationPatterns = annotationPatterns;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+			String internalName = info.novatec.inspectit.org.objectweb.asm.Type.getType(desc).getInternalName();
+			if (matchesAny(annotationPatterns, AsmUtil.getFqn(internalName))) {
+				matched = true;
+			}
+			return null;
+		}
+
+	}
+
+}
@@ -0,0 +1,95 @@
+package rocks.inspectit.agent.java.analyzer.impl;
+
+import java.util.Map;
+
+import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
+
+/**
+ * Instrumentation definitions of the classes persisted to disk by the {@link ClassHashHelper}.
+ * Definitions are bound to the platform id and configuration revision they were received with and
+ * can only be applied locally if both are same in the current agent configuration.
+ *
+ * @author Ivan Senic
+ *
+ */
+public class InstrumentationDefinitionCache {
+
+	/**
+	 * Platform id the definitions were received for.
+	 */
+	private long platformId;
+
+	/**
+	 * Configuration revision the definitions were created with.
+	 */
+	private String configurationRevision;
+
+	/**
+	 * Instrumentation definitions mapped by class FQN.
+	 */
+	private Map<String, InstrumentationDefinition> instrumentationDefinitions;
+
+	/**
+	 * No-arg constructor for serialization.
+	 */
+	public InstrumentationDefinitionCache() {
+	}
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param platformId
+	 *            Platform id the definitions were received for.
+	 * @param configurationRevision
+	 *            Configuration revision the definitions were created with.
+	 * @param instrumentationDefinitions
+	 *            Instrumentation definitions mapped by class FQN.
+	 */
+	public InstrumentationDefinitionCache(long platformId, String configurationRevision, Map<String, InstrumentationDefinition> instrumentationDefinitions) {
+		this.platformId = platformId;
+		this.configurationRevision = configurationRevision;
+		this.instrumentationDefinitions = instrumentationDefinitions;
+	}
+
+	/**
+	 * Returns if the definitions in this cache are valid for the given platform id and
+	 * configuration revision.
+	 *
+	 * @param platformId
+	 *            Current platform id.
+	 * @param configurationRevision
+	 *            Current configuration revision.
+	 * @return <code>true</code> if both platform id and revision match
+	 */
+	public boolean isValidFor(long platformId, String configurationRevision) {
+		return (this.platformId == platformId) && (null != this.configurationRevision) && this.configurationRevision.equals(configurationRevision);
+	}
+
+	/**
+	 * Gets {@link #platformId}.
+	 *
+	 * @return {@link #platformId}
+	 */
+	public long getPlatformId() {
+		return platformId;
+	}
+
+	/**
+	 * Gets {@link #configurationRevision}.
+	 *
+	 * @return {@link #configurationRevision}
+	 */
+	public String getConfigurationRevision() {
+		return configurationRevision;
+	}
+
+	/**
+	 * Gets {@link #instrumentationDefinitions}.
+	 *
+	 * @return {@link #instrumentationDefinitions}
+	 */
+	public Map<String, InstrumentationDefinition> getInstrumentationDefinitions() {
+		return instrumentationDefinitions;
+	}
+
+}
@@ -7,6 +7,7 @@ import java.util.Map;
 import rocks.inspectit.agent.java.config.impl.RepositoryConfig;
 import rocks.inspectit.agent.java.sensor.exception.IExceptionSensor;
 import rocks.inspectit.shared.all.instrumentation.config.impl.AgentConfig;
+import rocks.inspectit.shared.all.instrumentation.config.impl.ClassPrefilterConfig;
 import rocks.inspectit.shared.all.instrumentation.config.impl.ExceptionSensorTypeConfig;
 import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
 import rocks.inspectit.shared.all.instrumentation.config.impl.JmxSensorTypeConfig;
@@ -179,4 +180,27 @@ public interface IConfigurationStorage {
 	 */
 	Map<Collection<String>, InstrumentationDefinition> getInitialInstrumentationResults() throws StorageException;
 
+	/**
+	 * Returns the revision of the configuration the CMR created the agent configuration with. The
+	 * locally persisted instrumentation definitions are valid only if they were created with the
+	 * same revision.
+	 *
+	 * @return Returns the revision of the configuration or <code>null</code> if the CMR did not
+	 *         provide one.
+	 * @throws StorageException
+	 *             If agent configuration is not set.
+	 */
+	String getConfigurationRevision() throws StorageException;
+
+	/**
+	 * Returns the prefilter of the classes that could be instrumented based on the sensor
+	 * assignments in the configuration.
+	 *
+	 * @return Returns the {@link ClassPrefilterConfig} or <code>null</code> if the CMR did not
+	 *         provide one, meaning that all classes could be instrumented.
+	 * @throws StorageException
+	 *             If agent configuration is not set.
+	 */
+	ClassPrefilterConfig getClassPrefilterConfig() throws StorageException;
+
 }
\ No newline at end of file
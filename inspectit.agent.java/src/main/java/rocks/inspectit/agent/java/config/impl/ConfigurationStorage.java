@@ -19,6 +19,7 @@ import rocks.inspectit.agent.java.config.StorageException;
 import rocks.inspectit.agent.java.logback.LogInitializer;
 import rocks.inspectit.agent.java.spring.SpringConfiguration;
 import rocks.inspectit.shared.all.instrumentation.config.impl.AgentConfig;
+import rocks.inspectit.shared.all.instrumentation.config.impl.ClassPrefilterConfig;
 import rocks.inspectit.shared.all.instrumentation.config.impl.ExceptionSensorTypeConfig;
 import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
 import rocks.inspectit.shared.all.instrumentation.config.impl.JmxSensorTypeConfig;
@@ -332,6 +333,26 @@ public class ConfigurationStorage implements IConfigurationStorage, Initializing
 		return agentConfiguration.getInitialInstrumentationResults();
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getConfigurationRevision() throws StorageException {
+		ensureConfigurationExists();
+
+		return agentConfiguration.getConfigurationRevision();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ClassPrefilterConfig getClassPrefilterConfig() throws StorageException {
+		ensureConfigurationExists();
+
+		return agentConfiguration.getClassPrefilterConfig();
+	}
+
 	/**
 	 * Checks if the JVM parameters have the repository and agent information.
 	 */
@@ -126,6 +126,23 @@ public interface IConnection {
 	 */
 	InstrumentationDefinition analyze(long platformIdent, String hash, Type type) throws ServerUnavailableException, BusinessException;
 
+	/**
+	 * Analyzes the batch of types in one call. Returns the {@link InstrumentationDefinition}s only
+	 * for the types that should be instrumented on the Agent.
+	 *
+	 * @param platformIdent
+	 *            Id of the agent.
+	 * @param hashToTypeMap
+	 *            Map of class hashes to the types that have been parsed from the byte-code.
+	 * @return Map of class hashes to instrumentation definitions for the types that should be
+	 *         instrumented.
+	 * @throws ServerUnavailableException
+	 *             If server to send the request to is unavailable.
+	 * @throws BusinessException
+	 *             If {@link BusinessException} is thrown on the server.
+	 */
+	Map<String, InstrumentationDefinition> analyzeBatch(long platformIdent, Map<String, Type> hashToTypeMap) throws ServerUnavailableException, BusinessException;
+
 	/**
 	 * Informs the CMR that the methods have been instrumented on the agent.
 	 *
@@ -0,0 +1,142 @@
+package rocks.inspectit.agent.java.connection.impl;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import rocks.inspectit.agent.java.util.LongStack;
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceChunk;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
+
+/**
+ * Splits the large {@link InvocationSequenceData} into the {@link InvocationSequenceChunk}s of at
+ * most {@link #CHUNK_SIZE} nodes. The tree is walked depth-first and the chunks are created one by
+ * one when requested, thus only the nodes of the current chunk are copied. The original tree is
+ * not changed, so that the sending can be repeated.
+ *
+ * @author Ivan Senic
+ *
+ */
+public class InvocationSequenceChunker implements Iterator<InvocationSequenceChunk> {
+
+	/**
+	 * Max amount of nodes in one chunk. Invocations with less children are sent as they are.
+	 */
+	static final int CHUNK_SIZE = 1000;
+
+	/**
+	 * Id of the sequence.
+	 */
+	private final long sequenceId;
+
+	/**
+	 * Platform ident of the sequence.
+	 */
+	private final long platformIdent;
+
+	/**
+	 * Nodes still to be visited.
+	 */
+	private final List<InvocationSequenceData> stack = new ArrayList<InvocationSequenceData>();
+
+	/**
+	 * Parent index for each node in the {@link #stack}.
+	 */
+	private final LongStack parentIndexStack = new LongStack();
+
+	/**
+	 * Index of the next node in the stream.
+	 */
+	private int nodeIndex;
+
+	/**
+	 * Index of the next chunk.
+	 */
+	private int chunkIndex;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param invocation
+	 *            Invocation to split.
+	 * @param sequenceId
+	 *            Id of the sequence unique in the agent.
+	 */
+	public InvocationSequenceChunker(InvocationSequenceData invocation, long sequenceId) {
+		this.sequenceId = sequenceId;
+		this.platformIdent = invocation.getPlatformIdent();
+		stack.add(invocation);
+		parentIndexStack.push(-1);
+	}
+
+	/**
+	 * Returns if the data object should be sent in chunks.
+	 *
+	 * @param defaultData
+	 *            Data object to send.
+	 * @return <code>true</code> for invocation sequences having at least {@link #CHUNK_SIZE}
+	 *         children.
+	 */
+	public static boolean isChunked(DefaultData defaultData) {
+		return (defaultData instanceof InvocationSequenceData) && (((InvocationSequenceData) defaultData).getChildCount() >= CHUNK_SIZE);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean hasNext() {
+		return !stack.isEmpty();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public InvocationSequenceChunk next() {
+		if (stack.isEmpty()) {
+			throw new NoSuchElementException();
+		}
+
+		List<InvocationSequenceData> nodes = new ArrayList<InvocationSequenceData>(CHUNK_SIZE);
+		int[] parentIndexes = new int[CHUNK_SIZE];
+		while (!stack.isEmpty() && (nodes.size() < CHUNK_SIZE)) {
+			InvocationSequenceData node = stack.remove(stack.size() - 1);
+			int parentIndex = (int) parentIndexStack.pop();
+
+			InvocationSequenceData copy = node.getClonedInvocationSequence();
+			copy.setParentSequence(null);
+			parentIndexes[nodes.size()] = parentIndex;
+			nodes.add(copy);
+
+			// push children in reverse order so that they are streamed in the original order
+			List<InvocationSequenceData> children = node.getNestedSequences();
+			if (null != children) {
+				for (int i = children.size() - 1; i >= 0; i--) {
+					stack.add(children.get(i));
+					parentIndexStack.push(nodeIndex);
+				}
+			}
+			nodeIndex++;
+		}
+
+		if (parentIndexes.length != nodes.size()) {
+			int[] trimmed = new int[nodes.size()];
+			System.arraycopy(parentIndexes, 0, trimmed, 0, nodes.size());
+			parentIndexes = trimmed;
+		}
+
+		return new InvocationSequenceChunk(platformIdent, sequenceId, chunkIndex++, stack.isEmpty(), nodes, parentIndexes);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+}
@@ -10,12 +10,14 @@ import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
 import rocks.inspectit.agent.java.connection.IConnection;
 import rocks.inspectit.agent.java.connection.ServerUnavailableException;
 import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.agent.java.core.IdNotAvailableException;
+import rocks.inspectit.agent.java.event.ConnectionEstablishedEvent;
 import rocks.inspectit.shared.all.cmr.service.IKeepAliveService;
 import rocks.inspectit.shared.all.spring.logger.Log;
 
@@ -70,6 +72,12 @@ public class KeepAliveManager implements InitializingBean, DisposableBean {
 	@Qualifier("coreServiceExecutorService")
 	private ScheduledExecutorService executorService;
 
+	/**
+	 * Spring {@link ApplicationEventPublisher} for publishing the events.
+	 */
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
 	/**
 	 * ScheduledFuture representing pending keep-alive sending task.
 	 */
@@ -88,7 +96,8 @@ public class KeepAliveManager implements InitializingBean, DisposableBean {
 
 	/**
 	 * Sends keep alive signal if connection to the server exists. Otherwise does try to reconnect
-	 * in the exponential waiting manner.
+	 * in the exponential waiting manner. Successful reconnection is published as the
+	 * {@link ConnectionEstablishedEvent}.
 	 */
 	public void sendKeepAlive() {
 		try {
@@ -101,6 +110,9 @@ public class KeepAliveManager implements InitializingBean, DisposableBean {
 					try {
 						connection.reconnect();
 						resetReconnectCount();
+						if (connection.isConnected()) {
+							eventPublisher.publishEvent(new ConnectionEstablishedEvent(this));
+						}
 					} catch (ConnectException e) {
 						increaseNextReconnectAt();
 						if (log.isDebugEnabled()) {
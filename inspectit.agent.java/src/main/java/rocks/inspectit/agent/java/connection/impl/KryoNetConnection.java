@@ -12,6 +12,8 @@ import java.util.Enumeration;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.collections.MapUtils;
 import org.slf4j.Logger;
@@ -29,6 +31,7 @@ import rocks.inspectit.shared.all.cmr.service.IAgentStorageService;
 import rocks.inspectit.shared.all.cmr.service.IKeepAliveService;
 import rocks.inspectit.shared.all.cmr.service.ServiceInterface;
 import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
 import rocks.inspectit.shared.all.communication.message.IAgentMessage;
 import rocks.inspectit.shared.all.exception.BusinessException;
 import rocks.inspectit.shared.all.instrumentation.classcache.Type;
@@ -87,6 +90,14 @@ public class KryoNetConnection implements IConnection {
 	 */
 	private List<String> networkInterfaces;
 
+	/**
+	 * Counter for the ids of the invocation sequences sent in chunks. Starts with the agent start
+	 * time in microseconds, so that the ids are not repeated after the agent restart with the same
+	 * platform ident. The previous run would need to send more than thousand chunked sequences per
+	 * millisecond to reach the start of the next run.
+	 */
+	private final AtomicLong chunkedSequenceIdCounter = new AtomicLong(TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis()));
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -352,8 +363,38 @@ public class KryoNetConnection implements IConnection {
 
 		if ((null != measurements) && !measurements.isEmpty()) {
 			try {
-				AddDataObjects remote = new AddDataObjects(agentStorageService, measurements);
-				remote.makeCall();
+				// large invocations are sent separately in chunks
+				List<? extends DefaultData> dataObjects = measurements;
+				List<InvocationSequenceData> chunked = null;
+				for (DefaultData defaultData : measurements) {
+					if (InvocationSequenceChunker.isChunked(defaultData)) {
+						if (null == chunked) {
+							chunked = new ArrayList<InvocationSequenceData>(1);
+						}
+						chunked.add((InvocationSequenceData) defaultData);
+					}
+				}
+
+				if (null != chunked) {
+					List<DefaultData> notChunked = new ArrayList<DefaultData>(measurements.size());
+					for (DefaultData defaultData : measurements) {
+						if (!InvocationSequenceChunker.isChunked(defaultData)) {
+							notChunked.add(defaultData);
+						}
+					}
+					dataObjects = notChunked;
+				}
+
+				if (!dataObjects.isEmpty()) {
+					AddDataObjects remote = new AddDataObjects(agentStorageService, dataObjects);
+					remote.makeCall();
+				}
+
+				if (null != chunked) {
+					for (InvocationSequenceData invocation : chunked) {
+						sendChunked(invocation);
+					}
+				}
 			} catch (ExecutionException executionException) {
 				// there should be no execution exception
 				log.error("Could not send data objects", executionException);
@@ -366,6 +407,25 @@ public class KryoNetConnection implements IConnection {
 		}
 	}
 
+	/**
+	 * Sends the large invocation sequence in chunks, each chunk with a separate call, so that the
+	 * complete invocation tree never needs to be serialized at once.
+	 *
+	 * @param invocation
+	 *            Invocation to send.
+	 * @throws ServerUnavailableException
+	 *             If the server is not available.
+	 * @throws ExecutionException
+	 *             If execution of the call fails.
+	 */
+	private void sendChunked(InvocationSequenceData invocation) throws ServerUnavailableException, ExecutionException {
+		InvocationSequenceChunker chunker = new InvocationSequenceChunker(invocation, chunkedSequenceIdCounter.incrementAndGet());
+		while (chunker.hasNext()) {
+			AddDataObjects remote = new AddDataObjects(agentStorageService, Collections.singletonList(chunker.next()));
+			remote.makeCall();
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -406,6 +466,46 @@ public class KryoNetConnection implements IConnection {
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Map<String, InstrumentationDefinition> analyzeBatch(final long platformIdent, final Map<String, Type> hashToTypeMap) throws ServerUnavailableException, BusinessException {
+		if (!isConnected()) {
+			throw new ServerUnavailableException();
+		}
+
+		// make call
+		FailFastRemoteMethodCall<IAgentService, Map<String, InstrumentationDefinition>> call = new FailFastRemoteMethodCall<IAgentService, Map<String, InstrumentationDefinition>>(agentService) {
+			@Override
+			protected Map<String, InstrumentationDefinition> performRemoteCall(IAgentService service) throws Exception {
+				return agentService.analyzeBatch(platformIdent, hashToTypeMap);
+			}
+		};
+
+		try {
+			return call.makeCall();
+		} catch (ExecutionException executionException) {
+			if (log.isTraceEnabled()) {
+				log.trace("analyzeBatch(long,Map)", executionException);
+			}
+
+			// check for business exception
+			if (executionException.getCause() instanceof BusinessException) {
+				throw ((BusinessException) executionException.getCause()); // NOPMD
+			}
+
+			// otherwise we log and return empty map as it's unexpected exception for us
+			log.error("Could not get batch instrumentation results", executionException);
+			return Collections.emptyMap();
+		} catch (ServerUnavailableException e) {
+			if (!e.isServerTimeout()) {
+				disconnectClient();
+			}
+			throw e;
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
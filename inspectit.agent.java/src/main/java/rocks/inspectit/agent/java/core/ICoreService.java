@@ -31,14 +31,10 @@ public interface ICoreService {
 	 *
 	 * @param sensorTypeIdent
 	 *            The id of the sensor type.
-	 * @param objectName
-	 *            The name of the mBean
-	 * @param attributeName
-	 *            The attributeName of the Attribute.
 	 * @param jmxSensorValueData
 	 *            Part of the jmx sensor data.
 	 */
-	void addJmxSensorValueData(long sensorTypeIdent, String objectName, String attributeName, JmxSensorValueData jmxSensorValueData);
+	void addJmxSensorValueData(long sensorTypeIdent, JmxSensorValueData jmxSensorValueData);
 
 	/**
 	 * Adds a new measurement from a method sensor to the value storage.
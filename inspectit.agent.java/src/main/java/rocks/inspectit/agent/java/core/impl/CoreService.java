@@ -1,6 +1,7 @@
 package rocks.inspectit.agent.java.core.impl;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -14,6 +15,7 @@ import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.DependsOn;
 import org.springframework.stereotype.Component;
 
@@ -25,8 +27,10 @@ import rocks.inspectit.agent.java.core.ICoreService;
 import rocks.inspectit.agent.java.core.IObjectStorage;
 import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.agent.java.core.ListListener;
+import rocks.inspectit.agent.java.event.DataSentEvent;
 import rocks.inspectit.agent.java.sending.ISendingStrategy;
 import rocks.inspectit.agent.java.sensor.jmx.IJmxSensor;
+import rocks.inspectit.agent.java.sensor.platform.AdaptiveCollectionWindow;
 import rocks.inspectit.agent.java.sensor.platform.IPlatformSensor;
 import rocks.inspectit.agent.java.util.AgentAwareThread;
 import rocks.inspectit.shared.all.communication.DefaultData;
@@ -107,6 +111,12 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 	@Autowired
 	IThreadTransformHelper threadTransformHelper;
 
+	/**
+	 * Spring {@link ApplicationEventPublisher} for publishing the events.
+	 */
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
 	/**
 	 * Already used data objects which can be used directly on the CMR to persist.
 	 */
@@ -233,13 +243,12 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 	 * {@inheritDoc}
 	 */
 	@Override
-	public void addJmxSensorValueData(long sensorTypeIdent, String objectName, String attributeName, JmxSensorValueData jmxSensorValueData) {
+	public void addJmxSensorValueData(long sensorTypeIdent, JmxSensorValueData jmxSensorValueData) {
+		// definition ident is unique per attribute, no need for the object and attribute names
 		StringBuilder builder = new StringBuilder();
 		builder.append(sensorTypeIdent);
 		builder.append('.');
-		builder.append(objectName);
-		builder.append('.');
-		builder.append(attributeName);
+		builder.append(jmxSensorValueData.getJmxSensorDefinitionDataIdentId());
 		builder.append('.');
 		// Added timestamp to be able to send multiple objects to cmr.
 		builder.append(jmxSensorValueData.getTimeStamp().getTime());
@@ -399,16 +408,10 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 	private class SensorRefresher extends AgentAwareThread {
 
 		/**
-		 * Counts the number of iterations from the start. Used to distinguish between reset, gather
-		 * and get phase.
+		 * Collection window per platform sensor. Defines how many iterations are gathered (and
+		 * aggregated within the specific sensors) before the data is retrieved from the sensor.
 		 */
-		private long count = 0;
-
-		/**
-		 * Defines how many iterations are gathered (and aggregated within the specific sensors)
-		 * before the data is retrieved from the sensors.
-		 */
-		private static final int DATA_COLLECT_ITERATION = 5;
+		private final Map<IPlatformSensor, AdaptiveCollectionWindow> collectionWindows = new IdentityHashMap<IPlatformSensor, AdaptiveCollectionWindow>();
 
 		/**
 		 * Creates a new instance of the <code>PlatformSensorRefresher</code> as a daemon thread.
@@ -440,18 +443,19 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 
 				// iterate the platformSensors and update the information
 				if (CollectionUtils.isNotEmpty(platformSensors)) {
-					count++;
-
-					if (count == 1) {
-						for (IPlatformSensor platformSensor : platformSensors) {
-							platformSensor.reset();
-						}
-					}
-
 					Iterator<IPlatformSensor> platformSensorIterator = platformSensors.iterator();
 					while (platformSensorIterator.hasNext()) {
 						IPlatformSensor platformSensor = platformSensorIterator.next();
+						AdaptiveCollectionWindow collectionWindow = collectionWindows.get(platformSensor);
+						if (null == collectionWindow) {
+							collectionWindow = new AdaptiveCollectionWindow();
+							collectionWindows.put(platformSensor, collectionWindow);
+						}
+
 						try {
+							if (collectionWindow.isStart()) {
+								platformSensor.reset();
+							}
 							platformSensor.gather();
 						} catch (Exception e) {
 							// Critical error happend! Logging state and removing the sensor to
@@ -460,19 +464,17 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 
 							// Removing sensor from the sensor list to not gather data anymore.
 							platformSensorIterator.remove();
+							collectionWindows.remove(platformSensor);
+							continue;
 						}
-					}
 
-					if (count == DATA_COLLECT_ITERATION) {
-						for (IPlatformSensor platformSensor : platformSensors) {
+						if (collectionWindow.gathered(platformSensor.hasChanged())) {
 							SystemSensorData systemSensorData = platformSensor.get();
 
 							if (null != systemSensorData) {
 								CoreService.this.addPlatformSensorData(systemSensorData.getSensorTypeIdent(), systemSensorData);
 							}
 						}
-
-						count = 0;
 					}
 				}
 
@@ -570,6 +572,7 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 				List<DefaultData> dataToSend = bufferStrategy.next();
 				connection.sendDataObjects(dataToSend);
 				sendingExceptionNotice = false;
+				eventPublisher.publishEvent(new DataSentEvent(this, dataToSend));
 			}
 		} catch (ServerUnavailableException serverUnavailableException) {
 			if (serverUnavailableException.isServerTimeout()) {
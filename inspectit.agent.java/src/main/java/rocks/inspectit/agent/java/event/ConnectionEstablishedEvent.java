@@ -0,0 +1,29 @@
+package rocks.inspectit.agent.java.event;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Event signaling that the connection to the CMR has been established again after it was lost or
+ * could not be created on the agent start.
+ *
+ * @author Ivan Senic
+ *
+ */
+public class ConnectionEstablishedEvent extends ApplicationEvent {
+
+	/**
+	 * Generated UID.
+	 */
+	private static final long serialVersionUID = 4830726105871842267L;
+
+	/**
+	 * Default constructor for the event.
+	 *
+	 * @param source
+	 *            event source
+	 */
+	public ConnectionEstablishedEvent(Object source) {
+		super(source);
+	}
+
+}
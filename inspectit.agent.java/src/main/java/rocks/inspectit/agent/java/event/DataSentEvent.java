@@ -0,0 +1,50 @@
+package rocks.inspectit.agent.java.event;
+
+import java.util.List;
+
+import org.springframework.context.ApplicationEvent;
+
+import rocks.inspectit.shared.all.communication.DefaultData;
+
+/**
+ * Event signaling that a list of {@link DefaultData} objects has been successfully sent to the
+ * CMR.
+ *
+ * @author Ivan Senic
+ *
+ */
+public class DataSentEvent extends ApplicationEvent {
+
+	/**
+	 * Generated UID.
+	 */
+	private static final long serialVersionUID = -4372117906735184523L;
+
+	/**
+	 * The sent data objects.
+	 */
+	private final List<? extends DefaultData> dataObjects;
+
+	/**
+	 * Default constructor for the event.
+	 *
+	 * @param source
+	 *            event source
+	 * @param dataObjects
+	 *            the sent data objects
+	 */
+	public DataSentEvent(Object source, List<? extends DefaultData> dataObjects) {
+		super(source);
+		this.dataObjects = dataObjects;
+	}
+
+	/**
+	 * Gets {@link #dataObjects}.
+	 *
+	 * @return {@link #dataObjects}
+	 */
+	public List<? extends DefaultData> getDataObjects() {
+		return this.dataObjects;
+	}
+
+}
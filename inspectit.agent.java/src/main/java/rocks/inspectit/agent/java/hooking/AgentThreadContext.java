@@ -0,0 +1,422 @@
+package rocks.inspectit.agent.java.hooking;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import rocks.inspectit.agent.java.util.DoubleStack;
+import rocks.inspectit.agent.java.util.LongStack;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
+import rocks.inspectit.shared.all.communication.data.LoggingData;
+
+/**
+ * Per-thread context of the agent. Holds all the thread related state needed during the
+ * dispatching of the instrumented calls: the re-entrancy flag, invocation sequence nesting counters
+ * and the timing stacks of the hooks. The context is fetched once per dispatch by the hook
+ * dispatcher and passed to the hooks implementing the {@link IContextMethodHook} or
+ * {@link IContextConstructorHook}, thus only one {@link ThreadLocal} lookup is needed per
+ * dispatch.
+ * <p>
+ * Each hook type that keeps timing values in the context uses its own fixed slot to access its
+ * stacks. The slots are per hook type and not per hook instance, so that the stacks of a thread do
+ * not grow when the hooks are re-created.
+ *
+ * @author Ivan Senic
+ *
+ */
+public final class AgentThreadContext {
+
+	/**
+	 * Thread local holding the context for each thread.
+	 */
+	private static final ThreadLocal<AgentThreadContext> CONTEXT = new ThreadLocal<AgentThreadContext>() {
+		@Override
+		protected AgentThreadContext initialValue() {
+			return new AgentThreadContext();
+		}
+	};
+
+	/**
+	 * Slot of the timer hook.
+	 */
+	public static final int TIMER_SLOT = 0;
+
+	/**
+	 * Slot of the average timer hook.
+	 */
+	public static final int AVERAGE_TIMER_SLOT = 1;
+
+	/**
+	 * Slot of the invocation sequence hook.
+	 */
+	public static final int INVOCATION_SEQUENCE_SLOT = 2;
+
+	/**
+	 * Slot of the invocation sequence hook for the start times of the truncated calls.
+	 */
+	public static final int INVOCATION_TRUNCATED_SLOT = 3;
+
+	/**
+	 * Amount of slots.
+	 */
+	static final int SLOT_COUNT = 4;
+
+	/**
+	 * If an execution of the dispatching is already in progress in this thread.
+	 */
+	private boolean executionActive;
+
+	/**
+	 * Count of the started invocation sequences in this thread.
+	 */
+	private long invocationSequenceCount;
+
+	/**
+	 * Invocation sequence hook of the current started invocation sequence.
+	 */
+	private IHook invocationSequenceHook;
+
+	/**
+	 * Current invocation sequence data if an invocation record is started.
+	 */
+	private InvocationSequenceData invocationData;
+
+	/**
+	 * Method ID that started the invocation sequence. Used to identify the correct start and end
+	 * of the record.
+	 */
+	private long invocationStartId;
+
+	/**
+	 * Count of the of the starting method being called in the same invocation sequence so that
+	 * closing is done on the right end.
+	 */
+	private long invocationStartIdCount;
+
+	/**
+	 * If the invocation sequence started in this thread was not sampled, thus nothing should be
+	 * recorded until the starting method ends.
+	 */
+	private boolean invocationSampledOut;
+
+	/**
+	 * Count of the nested invocation sequence nodes created in the current invocation sequence.
+	 */
+	private long invocationNodeCount;
+
+	/**
+	 * Count of the currently open calls that are not recorded as separate nodes because the
+	 * invocation sequence limits are reached.
+	 */
+	private long invocationTruncatedCount;
+
+	/**
+	 * Invocation sequence node holding the summaries of the truncated calls.
+	 */
+	private InvocationSequenceData invocationSummaryParent;
+
+	/**
+	 * Summaries of the truncated calls by method id, belonging to the
+	 * {@link #invocationSummaryParent}.
+	 */
+	private Map<Long, InvocationSequenceData> invocationSummaries;
+
+	/**
+	 * Logging data saved in the current invocation sequence by level and message.
+	 */
+	private Map<String, LoggingData> invocationLoggingData;
+
+	/**
+	 * Time stacks by slot.
+	 */
+	private final DoubleStack[] timeStacks = new DoubleStack[SLOT_COUNT];
+
+	/**
+	 * CPU time stacks by slot.
+	 */
+	private final LongStack[] cpuTimeStacks = new LongStack[SLOT_COUNT];
+
+	/**
+	 * Private constructor, use {@link #get()}.
+	 */
+	private AgentThreadContext() {
+	}
+
+	/**
+	 * Returns the context of the current thread.
+	 *
+	 * @return Returns the context of the current thread.
+	 */
+	public static AgentThreadContext get() {
+		return CONTEXT.get();
+	}
+
+	/**
+	 * Returns the time stack for the given slot.
+	 *
+	 * @param slot
+	 *            Slot of the hook type.
+	 * @return {@link DoubleStack}
+	 */
+	public DoubleStack getTimeStack(int slot) {
+		DoubleStack stack = timeStacks[slot];
+		if (null == stack) {
+			stack = new DoubleStack();
+			timeStacks[slot] = stack;
+		}
+		return stack;
+	}
+
+	/**
+	 * Returns the CPU time stack for the given slot.
+	 *
+	 * @param slot
+	 *            Slot of the hook type.
+	 * @return {@link LongStack}
+	 */
+	public LongStack getCpuTimeStack(int slot) {
+		LongStack stack = cpuTimeStacks[slot];
+		if (null == stack) {
+			stack = new LongStack();
+			cpuTimeStacks[slot] = stack;
+		}
+		return stack;
+	}
+
+	/**
+	 * Increments the count of the started invocation sequences.
+	 *
+	 * @return Count after increment.
+	 */
+	public long incrementInvocationSequenceCount() {
+		return ++invocationSequenceCount;
+	}
+
+	/**
+	 * Decrements the count of the started invocation sequences.
+	 *
+	 * @return Count after decrement.
+	 */
+	public long decrementInvocationSequenceCount() {
+		return --invocationSequenceCount;
+	}
+
+	/**
+	 * Gets {@link #executionActive}.
+	 *
+	 * @return {@link #executionActive}
+	 */
+	public boolean isExecutionActive() {
+		return executionActive;
+	}
+
+	/**
+	 * Sets {@link #executionActive}.
+	 *
+	 * @param executionActive
+	 *            New value for {@link #executionActive}
+	 */
+	public void setExecutionActive(boolean executionActive) {
+		this.executionActive = executionActive;
+	}
+
+	/**
+	 * Gets {@link #invocationSequenceCount}.
+	 *
+	 * @return {@link #invocationSequenceCount}
+	 */
+	public long getInvocationSequenceCount() {
+		return invocationSequenceCount;
+	}
+
+	/**
+	 * Gets {@link #invocationSequenceHook}.
+	 *
+	 * @return {@link #invocationSequenceHook}
+	 */
+	public IHook getInvocationSequenceHook() {
+		return invocationSequenceHook;
+	}
+
+	/**
+	 * Sets {@link #invocationSequenceHook}.
+	 *
+	 * @param invocationSequenceHook
+	 *            New value for {@link #invocationSequenceHook}
+	 */
+	public void setInvocationSequenceHook(IHook invocationSequenceHook) {
+		this.invocationSequenceHook = invocationSequenceHook;
+	}
+
+	/**
+	 * Gets {@link #invocationData}.
+	 *
+	 * @return {@link #invocationData}
+	 */
+	public InvocationSequenceData getInvocationData() {
+		return invocationData;
+	}
+
+	/**
+	 * Sets {@link #invocationData}.
+	 *
+	 * @param invocationData
+	 *            New value for {@link #invocationData}
+	 */
+	public void setInvocationData(InvocationSequenceData invocationData) {
+		this.invocationData = invocationData;
+	}
+
+	/**
+	 * Gets {@link #invocationStartId}.
+	 *
+	 * @return {@link #invocationStartId}
+	 */
+	public long getInvocationStartId() {
+		return invocationStartId;
+	}
+
+	/**
+	 * Sets {@link #invocationStartId}.
+	 *
+	 * @param invocationStartId
+	 *            New value for {@link #invocationStartId}
+	 */
+	public void setInvocationStartId(long invocationStartId) {
+		this.invocationStartId = invocationStartId;
+	}
+
+	/**
+	 * Gets {@link #invocationStartIdCount}.
+	 *
+	 * @return {@link #invocationStartIdCount}
+	 */
+	public long getInvocationStartIdCount() {
+		return invocationStartIdCount;
+	}
+
+	/**
+	 * Sets {@link #invocationStartIdCount}.
+	 *
+	 * @param invocationStartIdCount
+	 *            New value for {@link #invocationStartIdCount}
+	 */
+	public void setInvocationStartIdCount(long invocationStartIdCount) {
+		this.invocationStartIdCount = invocationStartIdCount;
+	}
+
+	/**
+	 * Gets {@link #invocationSampledOut}.
+	 *
+	 * @return {@link #invocationSampledOut}
+	 */
+	public boolean isInvocationSampledOut() {
+		return invocationSampledOut;
+	}
+
+	/**
+	 * Sets {@link #invocationSampledOut}.
+	 *
+	 * @param invocationSampledOut
+	 *            New value for {@link #invocationSampledOut}
+	 */
+	public void setInvocationSampledOut(boolean invocationSampledOut) {
+		this.invocationSampledOut = invocationSampledOut;
+	}
+
+	/**
+	 * Gets {@link #invocationNodeCount}.
+	 *
+	 * @return {@link #invocationNodeCount}
+	 */
+	public long getInvocationNodeCount() {
+		return invocationNodeCount;
+	}
+
+	/**
+	 * Sets {@link #invocationNodeCount}.
+	 *
+	 * @param invocationNodeCount
+	 *            New value for {@link #invocationNodeCount}
+	 */
+	public void setInvocationNodeCount(long invocationNodeCount) {
+		this.invocationNodeCount = invocationNodeCount;
+	}
+
+	/**
+	 * Gets {@link #invocationTruncatedCount}.
+	 *
+	 * @return {@link #invocationTruncatedCount}
+	 */
+	public long getInvocationTruncatedCount() {
+		return invocationTruncatedCount;
+	}
+
+	/**
+	 * Sets {@link #invocationTruncatedCount}.
+	 *
+	 * @param invocationTruncatedCount
+	 *            New value for {@link #invocationTruncatedCount}
+	 */
+	public void setInvocationTruncatedCount(long invocationTruncatedCount) {
+		this.invocationTruncatedCount = invocationTruncatedCount;
+	}
+
+	/**
+	 * Gets {@link #invocationSummaryParent}.
+	 *
+	 * @return {@link #invocationSummaryParent}
+	 */
+	public InvocationSequenceData getInvocationSummaryParent() {
+		return invocationSummaryParent;
+	}
+
+	/**
+	 * Sets {@link #invocationSummaryParent} and clears the summaries if the parent changes.
+	 *
+	 * @param invocationSummaryParent
+	 *            New value for {@link #invocationSummaryParent}
+	 */
+	public void setInvocationSummaryParent(InvocationSequenceData invocationSummaryParent) {
+		if (this.invocationSummaryParent != invocationSummaryParent) { // NOPMD
+			this.invocationSummaryParent = invocationSummaryParent;
+			if (null != invocationSummaries) {
+				invocationSummaries.clear();
+			}
+		}
+	}
+
+	/**
+	 * Returns the summaries of the truncated calls belonging to the
+	 * {@link #invocationSummaryParent}.
+	 *
+	 * @return Map of summaries by method id.
+	 */
+	public Map<Long, InvocationSequenceData> getInvocationSummaries() {
+		if (null == invocationSummaries) {
+			invocationSummaries = new HashMap<Long, InvocationSequenceData>();
+		}
+		return invocationSummaries;
+	}
+
+	/**
+	 * Returns the logging data saved in the current invocation sequence.
+	 *
+	 * @return Map of logging data by level and message.
+	 */
+	public Map<String, LoggingData> getInvocationLoggingData() {
+		if (null == invocationLoggingData) {
+			invocationLoggingData = new HashMap<String, LoggingData>();
+		}
+		return invocationLoggingData;
+	}
+
+	/**
+	 * Clears the logging data saved in the current invocation sequence.
+	 */
+	public void clearInvocationLoggingData() {
+		if (null != invocationLoggingData) {
+			invocationLoggingData.clear();
+		}
+	}
+
+}
@@ -0,0 +1,57 @@
+package rocks.inspectit.agent.java.hooking;
+
+import rocks.inspectit.agent.java.config.impl.RegisteredSensorConfig;
+import rocks.inspectit.agent.java.core.ICoreService;
+
+/**
+ * Constructor hook that accepts the {@link AgentThreadContext} fetched by the dispatcher, so that
+ * the hook does not need to perform own thread local lookups. Dispatcher calls these methods
+ * instead of the ones defined in the {@link IConstructorHook}.
+ *
+ * @author Ivan Senic
+ *
+ */
+public interface IContextConstructorHook extends IConstructorHook {
+
+	/**
+	 * Same as {@link IConstructorHook#beforeConstructor(long, long, Object[], RegisteredSensorConfig)}
+	 * with the thread context.
+	 *
+	 * @param context
+	 *            Context of the current thread.
+	 * @param methodId
+	 *            The unique method id.
+	 * @param sensorTypeId
+	 *            The unique sensor type id.
+	 * @param parameters
+	 *            The array of parameters.
+	 * @param rsc
+	 *            The {@link RegisteredSensorConfig} object which holds all the information of the
+	 *            executed method.
+	 */
+	void beforeConstructor(AgentThreadContext context, long methodId, long sensorTypeId, Object[] parameters, RegisteredSensorConfig rsc);
+
+	/**
+	 * Same as
+	 * {@link IConstructorHook#afterConstructor(ICoreService, long, long, Object, Object[], RegisteredSensorConfig)}
+	 * with the thread context.
+	 *
+	 * @param context
+	 *            Context of the current thread.
+	 * @param coreService
+	 *            The core service.
+	 * @param methodId
+	 *            The unique method id.
+	 * @param sensorTypeId
+	 *            The unique sensor type id.
+	 * @param object
+	 *            The class itself which contains the hook.
+	 * @param parameters
+	 *            The array of parameters.
+	 * @param rsc
+	 *            The {@link RegisteredSensorConfig} object which holds all the information of the
+	 *            executed method.
+	 */
+	void afterConstructor(AgentThreadContext context, ICoreService coreService, long methodId, long sensorTypeId, Object object, Object[] parameters, RegisteredSensorConfig rsc);
+
+}
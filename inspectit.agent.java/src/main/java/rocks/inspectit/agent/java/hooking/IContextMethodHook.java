@@ -0,0 +1,84 @@
+package rocks.inspectit.agent.java.hooking;
+
+import rocks.inspectit.agent.java.config.impl.RegisteredSensorConfig;
+import rocks.inspectit.agent.java.core.ICoreService;
+
+/**
+ * Method hook that accepts the {@link AgentThreadContext} fetched by the dispatcher, so that the
+ * hook does not need to perform own thread local lookups. Dispatcher calls these methods instead
+ * of the ones defined in the {@link IMethodHook}.
+ *
+ * @author Ivan Senic
+ *
+ */
+public interface IContextMethodHook extends IMethodHook {
+
+	/**
+	 * Same as {@link IMethodHook#beforeBody(long, long, Object, Object[], RegisteredSensorConfig)}
+	 * with the thread context.
+	 *
+	 * @param context
+	 *            Context of the current thread.
+	 * @param methodId
+	 *            The unique method id.
+	 * @param sensorTypeId
+	 *            The unique sensor type id.
+	 * @param object
+	 *            The class itself which contains the hook.
+	 * @param parameters
+	 *            The parameters of the method call.
+	 * @param rsc
+	 *            The {@link RegisteredSensorConfig} object which holds all the information of the
+	 *            executed method.
+	 */
+	void beforeBody(AgentThreadContext context, long methodId, long sensorTypeId, Object object, Object[] parameters, RegisteredSensorConfig rsc);
+
+	/**
+	 * Same as
+	 * {@link IMethodHook#firstAfterBody(long, long, Object, Object[], Object, RegisteredSensorConfig)}
+	 * with the thread context.
+	 *
+	 * @param context
+	 *            Context of the current thread.
+	 * @param methodId
+	 *            The unique method id.
+	 * @param sensorTypeId
+	 *            The unique sensor type id.
+	 * @param object
+	 *            The class itself which contains the hook.
+	 * @param parameters
+	 *            The parameters of the method call.
+	 * @param result
+	 *            The return value
+	 * @param rsc
+	 *            The {@link RegisteredSensorConfig} object which holds all the information of the
+	 *            executed method.
+	 */
+	void firstAfterBody(AgentThreadContext context, long methodId, long sensorTypeId, Object object, Object[] parameters, Object result, RegisteredSensorConfig rsc);
+
+	/**
+	 * Same as
+	 * {@link IMethodHook#secondAfterBody(ICoreService, long, long, Object, Object[], Object, RegisteredSensorConfig)}
+	 * with the thread context.
+	 *
+	 * @param context
+	 *            Context of the current thread.
+	 * @param coreService
+	 *            The reference to the core service which holds the data objects etc.
+	 * @param methodId
+	 *            The unique method id.
+	 * @param sensorTypeId
+	 *            The unique sensor type id.
+	 * @param object
+	 *            The class itself which contains the hook.
+	 * @param parameters
+	 *            The parameters of the method call.
+	 * @param result
+	 *            The return value
+	 * @param rsc
+	 *            The {@link RegisteredSensorConfig} object which holds all the information of the
+	 *            executed method.
+	 */
+	void secondAfterBody(AgentThreadContext context, ICoreService coreService, long methodId, long sensorTypeId, Object object, Object[] parameters, Object result, RegisteredSensorConfig rsc);
+
+}
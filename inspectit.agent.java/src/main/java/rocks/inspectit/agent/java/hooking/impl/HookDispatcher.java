@@ -1,5 +1,7 @@
 package rocks.inspectit.agent.java.hooking.impl;
 
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
 import org.cliffc.high_scale_lib.NonBlockingHashMapLong;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,8 +10,10 @@ import org.springframework.stereotype.Component;
 import rocks.inspectit.agent.java.config.impl.RegisteredSensorConfig;
 import rocks.inspectit.agent.java.config.impl.SpecialSensorConfig;
 import rocks.inspectit.agent.java.core.ICoreService;
+import rocks.inspectit.agent.java.hooking.AgentThreadContext;
 import rocks.inspectit.agent.java.hooking.IConstructorHook;
-import rocks.inspectit.agent.java.hooking.IHook;
+import rocks.inspectit.agent.java.hooking.IContextConstructorHook;
+import rocks.inspectit.agent.java.hooking.IContextMethodHook;
 import rocks.inspectit.agent.java.hooking.IHookDispatcher;
 import rocks.inspectit.agent.java.hooking.IHookDispatcherMapper;
 import rocks.inspectit.agent.java.hooking.IMethodHook;
@@ -24,6 +28,9 @@ import rocks.inspectit.shared.all.spring.logger.Log;
 /**
  * The hook dispatching service which is called by all the hooks throughout the instrumented target
  * application.
+ * <p>
+ * All the thread related dispatching state is kept in the {@link AgentThreadContext} which is
+ * fetched only once per dispatch and passed to the context aware hooks.
  *
  * @author Patrice Bouillet
  * @author Eduard Tudenhoefner
@@ -32,6 +39,12 @@ import rocks.inspectit.shared.all.spring.logger.Log;
 @Component
 public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 
+	/**
+	 * Max size of the dense mapping array. Method ids below this value are resolved with an array
+	 * access, all other ids with the {@link #mappings} map.
+	 */
+	static final int MAX_DENSE_MAPPINGS = 1 << 16;
+
 	/**
 	 * The logger of this class.
 	 */
@@ -65,6 +78,14 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	 */
 	private final NonBlockingHashMapLong<RegisteredSensorConfig> mappings = new NonBlockingHashMapLong<RegisteredSensorConfig>();
 
+	/**
+	 * Dense array of the mappings indexed by the method id, used for the ids smaller than
+	 * {@link #MAX_DENSE_MAPPINGS}. Resolving the mapping in the dispatch methods is then a simple
+	 * array access. Array is grown on demand in {@link #addMapping(long, RegisteredSensorConfig)},
+	 * while replacing a mapping is linking the new configuration to the existing slot.
+	 */
+	private volatile AtomicReferenceArray<RegisteredSensorConfig> denseMappings = new AtomicReferenceArray<RegisteredSensorConfig>(0);
+
 	/**
 	 * Contains all special hooks. Using concurrent map as we need to enable thread-safety of
 	 * {@link #addMapping(long, RegisteredSensorConfig)}.
@@ -74,28 +95,31 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	 */
 	private final NonBlockingHashMapLong<SpecialSensorConfig> specialMappings = new NonBlockingHashMapLong<SpecialSensorConfig>();
 
-	/**
-	 * Stores the current Status of the invocation sequence tracer in a {@link ThreadLocal} object.
-	 */
-	private final InvocationSequenceCount invocationSequenceCount = new InvocationSequenceCount();
-
-	/**
-	 * A thread local holder object to save the current started invocation sequence.
-	 */
-	private final ThreadLocal<IHook> invocationSequenceHolder = new ThreadLocal<IHook>();
-
-	/**
-	 * If an execution of the dispatching is already in progress, we don't dispatch anything else
-	 * for this thread.
-	 */
-	private final ExecutionMarker executionMarker = new ExecutionMarker();
-
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
 	public void addMapping(long id, RegisteredSensorConfig rsc) {
+		// map first, so that a concurrent dispatch not seeing the slot falls back to the map
 		mappings.put(id, rsc);
+
+		if ((id >= 0) && (id < MAX_DENSE_MAPPINGS)) {
+			synchronized (mappings) {
+				int slot = (int) id;
+				AtomicReferenceArray<RegisteredSensorConfig> current = denseMappings;
+				if (slot >= current.length()) {
+					int length = Math.min(MAX_DENSE_MAPPINGS, Math.max(slot + 1, current.length() * 2));
+					AtomicReferenceArray<RegisteredSensorConfig> grown = new AtomicReferenceArray<RegisteredSensorConfig>(length);
+					for (int i = 0; i < current.length(); i++) {
+						grown.set(i, current.get(i));
+					}
+					grown.set(slot, rsc);
+					denseMappings = grown;
+				} else {
+					current.set(slot, rsc);
+				}
+			}
+		}
 	}
 
 	/**
@@ -111,12 +135,13 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	 */
 	@Override
 	public void dispatchMethodBeforeBody(long id, Object object, Object[] parameters) {
-		if (!executionMarker.isActive()) {
+		AgentThreadContext context = AgentThreadContext.get();
+		if (!context.isExecutionActive()) {
 			try {
-				executionMarker.active();
+				context.setExecutionActive(true);
 
 				try {
-					RegisteredSensorConfig rsc = mappings.get(id);
+					RegisteredSensorConfig rsc = getMapping(id);
 
 					if (rsc.isStartsInvocation()) {
 						// The sensor configuration contains an invocation sequence
@@ -124,33 +149,33 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 						// access. Additionally, we need to save the count of the called
 						// invocation sensors, as another nested one could be started,
 						// too.
-						invocationSequenceCount.increment();
+						context.incrementInvocationSequenceCount();
 
-						if (null == invocationSequenceHolder.get()) {
-							invocationSequenceHolder.set(invocationSequenceSensor.getHook());
+						if (null == context.getInvocationSequenceHook()) {
+							context.setInvocationSequenceHook(invocationSequenceSensor.getHook());
 						}
-					} else if (null != invocationSequenceHolder.get()) {
+					} else if (null != context.getInvocationSequenceHook()) {
 						// We are executing the following sensor types in an invocation
 						// sequence context, thus we have to execute the before body
 						// method of the invocation sequence hook manually.
-						IMethodHook invocationHook = (IMethodHook) invocationSequenceHolder.get();
+						IMethodHook invocationHook = (IMethodHook) context.getInvocationSequenceHook();
 
 						// The sensor type ID is not important here, thus we are passing
 						// a -1. It is already stored in the data object
-						invocationHook.beforeBody(id, -1, object, parameters, rsc);
+						beforeBody(invocationHook, context, id, -1, object, parameters, rsc);
 					}
 
 					// Now iterate over all registered sensor types and execute them
 					// reverse execution (sensor with lowest priority first)
 					for (IMethodSensor methodSensor : rsc.getMethodSensorsReverse()) {
 						IMethodHook methodHook = (IMethodHook) methodSensor.getHook();
-						methodHook.beforeBody(id, methodSensor.getSensorTypeConfig().getId(), object, parameters, rsc);
+						beforeBody(methodHook, context, id, methodSensor.getSensorTypeConfig().getId(), object, parameters, rsc);
 					}
 				} catch (Throwable throwable) { // NOPMD
 					log.error("An error happened in the Hook Dispatcher! (before body)", throwable);
 				}
 			} finally {
-				executionMarker.deactive();
+				context.setExecutionActive(false);
 			}
 		}
 	}
@@ -160,24 +185,25 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	 */
 	@Override
 	public void dispatchFirstMethodAfterBody(long id, Object object, Object[] parameters, Object returnValue) {
-		if (!executionMarker.isActive()) {
+		AgentThreadContext context = AgentThreadContext.get();
+		if (!context.isExecutionActive()) {
 			try {
-				executionMarker.active();
+				context.setExecutionActive(true);
 
 				try {
-					RegisteredSensorConfig rsc = mappings.get(id);
+					RegisteredSensorConfig rsc = getMapping(id);
 
 					// Now iterate over all registered sensor types and execute them
 					// normal execution (sensor with highest priority first)
 					for (IMethodSensor methodSensor : rsc.getMethodSensors()) {
 						IMethodHook methodHook = (IMethodHook) methodSensor.getHook();
-						methodHook.firstAfterBody(id, methodSensor.getSensorTypeConfig().getId(), object, parameters, returnValue, rsc);
+						firstAfterBody(methodHook, context, id, methodSensor.getSensorTypeConfig().getId(), object, parameters, returnValue, rsc);
 					}
 				} catch (Throwable throwable) { // NOPMD
 					log.error("An error happened in the Hook Dispatcher! (after body)", throwable);
 				}
 			} finally {
-				executionMarker.deactive();
+				context.setExecutionActive(false);
 			}
 		}
 	}
@@ -187,18 +213,19 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	 */
 	@Override
 	public void dispatchSecondMethodAfterBody(long id, Object object, Object[] parameters, Object returnValue) {
-		if (!executionMarker.isActive()) {
+		AgentThreadContext context = AgentThreadContext.get();
+		if (!context.isExecutionActive()) {
 			try {
-				executionMarker.active();
+				context.setExecutionActive(true);
 
 				try {
-					RegisteredSensorConfig rsc = mappings.get(id);
+					RegisteredSensorConfig rsc = getMapping(id);
 
-					if (null != invocationSequenceHolder.get()) {
+					if (null != context.getInvocationSequenceHook()) {
 						// Need to replace the core service with the one from the invocation
 						// sequence so that all data objects can be associated to that invocation
 						// record.
-						ICoreService invocCoreService = (ICoreService) invocationSequenceHolder.get();
+						ICoreService invocCoreService = (ICoreService) context.getInvocationSequenceHook();
 
 						// Now iterate over all registered sensor types and execute them
 						// normal execution (sensor with highest priority first)
@@ -207,38 +234,36 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 							// the invocation sequence sensor needs the original core service!
 							long sensorId = methodSensor.getSensorTypeConfig().getId();
 							if (invocCoreService == methodHook) { // NOPMD
-								methodHook.secondAfterBody(coreService, id, sensorId, object, parameters, returnValue, rsc);
+								secondAfterBody(methodHook, context, coreService, id, sensorId, object, parameters, returnValue, rsc);
 							} else {
-								methodHook.secondAfterBody(invocCoreService, id, sensorId, object, parameters, returnValue, rsc);
+								secondAfterBody(methodHook, context, invocCoreService, id, sensorId, object, parameters, returnValue, rsc);
 							}
 						}
 					} else {
 						for (IMethodSensor methodSensor : rsc.getMethodSensors()) {
 							IMethodHook methodHook = (IMethodHook) methodSensor.getHook();
-							methodHook.secondAfterBody(coreService, id, methodSensor.getSensorTypeConfig().getId(), object, parameters, returnValue, rsc);
+							secondAfterBody(methodHook, context, coreService, id, methodSensor.getSensorTypeConfig().getId(), object, parameters, returnValue, rsc);
 						}
 					}
 
 					if (rsc.isStartsInvocation()) {
-						invocationSequenceCount.decrement();
-
-						if (0 == invocationSequenceCount.getCount()) {
-							invocationSequenceHolder.set(null);
+						if (0 == context.decrementInvocationSequenceCount()) {
+							context.setInvocationSequenceHook(null);
 						}
-					} else if (null != invocationSequenceHolder.get()) {
+					} else if (null != context.getInvocationSequenceHook()) {
 						// We have to execute the after body method of the invocation sequence hook
 						// manually.
-						IMethodHook invocationHook = (IMethodHook) invocationSequenceHolder.get();
+						IMethodHook invocationHook = (IMethodHook) context.getInvocationSequenceHook();
 
 						// The sensor type ID is not important here, thus we are passing a -1. It is
 						// already stored in the data object
-						invocationHook.secondAfterBody(coreService, id, -1, object, parameters, returnValue, rsc);
+						secondAfterBody(invocationHook, context, coreService, id, -1, object, parameters, returnValue, rsc);
 					}
 				} catch (Throwable throwable) { // NOPMD
 					log.error("An error happened in the Hook Dispatcher! (second after body)", throwable);
 				}
 			} finally {
-				executionMarker.deactive();
+				context.setExecutionActive(false);
 			}
 		}
 	}
@@ -248,20 +273,21 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	 */
 	@Override
 	public void dispatchOnThrowInBody(long id, Object object, Object[] parameters, Object exceptionObject) {
-		if (!executionMarker.isActive()) {
+		AgentThreadContext context = AgentThreadContext.get();
+		if (!context.isExecutionActive()) {
 			try {
-				executionMarker.active();
+				context.setExecutionActive(true);
 
 				// rsc contains the settings for the actual method where the exception was thrown.
-				RegisteredSensorConfig rsc = mappings.get(id);
+				RegisteredSensorConfig rsc = getMapping(id);
 				MethodSensorTypeConfig sensorTypeConfig = exceptionSensor.getSensorTypeConfig();
 				long sensorTypeId = sensorTypeConfig.getId();
 
 				ICoreService invocCoreService = null;
-				if (null != invocationSequenceHolder.get()) {
+				if (null != context.getInvocationSequenceHook()) {
 					// Need to replace the core service with the one from the invocation sequence so
 					// that all data objects can be associated to that invocation record.
-					invocCoreService = (ICoreService) invocationSequenceHolder.get();
+					invocCoreService = (ICoreService) context.getInvocationSequenceHook();
 				}
 
 				IExceptionSensorHook exceptionHook = (IExceptionSensorHook) exceptionSensor.getHook();
@@ -271,7 +297,7 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 					exceptionHook.dispatchOnThrowInBody(coreService, id, sensorTypeId, object, exceptionObject, parameters, rsc);
 				}
 			} finally {
-				executionMarker.deactive();
+				context.setExecutionActive(false);
 			}
 		}
 	}
@@ -281,19 +307,20 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	 */
 	@Override
 	public void dispatchBeforeCatch(long id, Object exceptionObject) {
-		if (!executionMarker.isActive()) {
+		AgentThreadContext context = AgentThreadContext.get();
+		if (!context.isExecutionActive()) {
 			try {
-				executionMarker.active();
+				context.setExecutionActive(true);
 
 				// rsc contains the settings of the actual method where the exception is catched.
-				RegisteredSensorConfig rsc = mappings.get(id);
+				RegisteredSensorConfig rsc = getMapping(id);
 				long sensorTypeId = exceptionSensor.getSensorTypeConfig().getId();
 
 				ICoreService invocCoreService = null;
-				if (null != invocationSequenceHolder.get()) {
+				if (null != context.getInvocationSequenceHook()) {
 					// Need to replace the core service with the one from the invocation sequence so
 					// that all data objects can be associated to that invocation record.
-					invocCoreService = (ICoreService) invocationSequenceHolder.get();
+					invocCoreService = (ICoreService) context.getInvocationSequenceHook();
 				}
 
 				IExceptionSensorHook exceptionHook = (IExceptionSensorHook) exceptionSensor.getHook();
@@ -303,7 +330,7 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 					exceptionHook.dispatchBeforeCatchBody(coreService, id, sensorTypeId, exceptionObject, rsc);
 				}
 			} finally {
-				executionMarker.deactive();
+				context.setExecutionActive(false);
 			}
 		}
 	}
@@ -313,20 +340,21 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	 */
 	@Override
 	public void dispatchConstructorOnThrowInBody(long id, Object object, Object[] parameters, Object exceptionObject) {
-		if (!executionMarker.isActive()) {
+		AgentThreadContext context = AgentThreadContext.get();
+		if (!context.isExecutionActive()) {
 			try {
-				executionMarker.active();
+				context.setExecutionActive(true);
 
 				// rsc contains the settings for the actual constructor where the exception was
 				// thrown.
-				RegisteredSensorConfig rsc = mappings.get(id);
+				RegisteredSensorConfig rsc = getMapping(id);
 				long sensorTypeId = exceptionSensor.getSensorTypeConfig().getId();
 
 				ICoreService invocCoreService = null;
-				if (null != invocationSequenceHolder.get()) {
+				if (null != context.getInvocationSequenceHook()) {
 					// Need to replace the core service with the one from the invocation sequence so
 					// that all data objects can be associated to that invocation record.
-					invocCoreService = (ICoreService) invocationSequenceHolder.get();
+					invocCoreService = (ICoreService) context.getInvocationSequenceHook();
 				}
 
 				IExceptionSensorHook exceptionHook = (IExceptionSensorHook) exceptionSensor.getHook();
@@ -336,7 +364,7 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 					exceptionHook.dispatchOnThrowInBody(coreService, id, sensorTypeId, object, exceptionObject, parameters, rsc);
 				}
 			} finally {
-				executionMarker.deactive();
+				context.setExecutionActive(false);
 			}
 		}
 	}
@@ -346,20 +374,21 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	 */
 	@Override
 	public void dispatchConstructorBeforeCatch(long id, Object exceptionObject) {
-		if (!executionMarker.isActive()) {
+		AgentThreadContext context = AgentThreadContext.get();
+		if (!context.isExecutionActive()) {
 			try {
-				executionMarker.active();
+				context.setExecutionActive(true);
 
 				// rsc contains the settings of the actual constructor where the exception is
 				// catched.
-				RegisteredSensorConfig rsc = mappings.get(id);
+				RegisteredSensorConfig rsc = getMapping(id);
 				long sensorTypeId = exceptionSensor.getSensorTypeConfig().getId();
 
 				ICoreService invocCoreService = null;
-				if (null != invocationSequenceHolder.get()) {
+				if (null != context.getInvocationSequenceHook()) {
 					// Need to replace the core service with the one from the invocation sequence so
 					// that all data objects can be associated to that invocation record.
-					invocCoreService = (ICoreService) invocationSequenceHolder.get();
+					invocCoreService = (ICoreService) context.getInvocationSequenceHook();
 				}
 
 				IExceptionSensorHook exceptionHook = (IExceptionSensorHook) exceptionSensor.getHook();
@@ -369,7 +398,7 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 					exceptionHook.dispatchBeforeCatchBody(coreService, id, sensorTypeId, exceptionObject, rsc);
 				}
 			} finally {
-				executionMarker.deactive();
+				context.setExecutionActive(false);
 			}
 		}
 	}
@@ -379,44 +408,45 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	 */
 	@Override
 	public void dispatchConstructorBeforeBody(long id, Object[] parameters) {
-		if (!executionMarker.isActive()) {
+		AgentThreadContext context = AgentThreadContext.get();
+		if (!context.isExecutionActive()) {
 			try {
-				executionMarker.active();
+				context.setExecutionActive(true);
 
 				try {
-					RegisteredSensorConfig rsc = mappings.get(id);
+					RegisteredSensorConfig rsc = getMapping(id);
 
 					if (rsc.isStartsInvocation()) {
 						// The sensor configuration contains an invocation sequence sensor. We have
 						// to set it on the thread local map for later access. Additionally, we need
 						// to save the count of the called invocation sensors, as another nested one
 						// could be started, too.
-						invocationSequenceCount.increment();
-						if (null == invocationSequenceHolder.get()) {
-							invocationSequenceHolder.set(invocationSequenceSensor.getHook());
+						context.incrementInvocationSequenceCount();
+						if (null == context.getInvocationSequenceHook()) {
+							context.setInvocationSequenceHook(invocationSequenceSensor.getHook());
 						}
-					} else if (null != invocationSequenceHolder.get()) {
+					} else if (null != context.getInvocationSequenceHook()) {
 						// We are executing the following sensor types in an invocation sequence
 						// context, thus we have to execute the before body method of the invocation
 						// sequence hook manually.
-						IConstructorHook invocationHook = (IConstructorHook) invocationSequenceHolder.get();
+						IConstructorHook invocationHook = (IConstructorHook) context.getInvocationSequenceHook();
 
 						// The sensor type ID is not important here, thus we are passing a -1. It is
 						// already stored in the data object
-						invocationHook.beforeConstructor(id, -1, parameters, rsc);
+						beforeConstructor(invocationHook, context, id, -1, parameters, rsc);
 					}
 
 					// Now iterate over all registered sensor types and execute them
 					// reverse execution (sensor with lowest priority first)
 					for (IMethodSensor methodSensor : rsc.getMethodSensorsReverse()) {
 						IConstructorHook constructorHook = (IConstructorHook) methodSensor.getHook();
-						constructorHook.beforeConstructor(id, methodSensor.getSensorTypeConfig().getId(), parameters, rsc);
+						beforeConstructor(constructorHook, context, id, methodSensor.getSensorTypeConfig().getId(), parameters, rsc);
 					}
 				} catch (Throwable throwable) { // NOPMD
 					log.error("An error happened in the Hook Dispatcher! (before constructor)", throwable);
 				}
 			} finally {
-				executionMarker.deactive();
+				context.setExecutionActive(false);
 			}
 		}
 	}
@@ -426,18 +456,19 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	 */
 	@Override
 	public void dispatchConstructorAfterBody(long id, Object object, Object[] parameters) {
-		if (!executionMarker.isActive()) {
+		AgentThreadContext context = AgentThreadContext.get();
+		if (!context.isExecutionActive()) {
 			try {
-				executionMarker.active();
+				context.setExecutionActive(true);
 
 				try {
-					RegisteredSensorConfig rsc = mappings.get(id);
+					RegisteredSensorConfig rsc = getMapping(id);
 
-					if (null != invocationSequenceHolder.get()) {
+					if (null != context.getInvocationSequenceHook()) {
 						// Need to replace the core service with the one from the invocation
 						// sequence so that all data objects can be associated to that invocation
 						// record.
-						ICoreService invocCoreService = (ICoreService) invocationSequenceHolder.get();
+						ICoreService invocCoreService = (ICoreService) context.getInvocationSequenceHook();
 
 						for (IMethodSensor methodSensor : rsc.getMethodSensors()) {
 							IConstructorHook constructorHook = (IConstructorHook) methodSensor.getHook();
@@ -445,38 +476,36 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 							// original core service!
 							long sensorId = methodSensor.getSensorTypeConfig().getId();
 							if (invocCoreService == constructorHook) { // NOPMD
-								constructorHook.afterConstructor(coreService, id, sensorId, object, parameters, rsc);
+								afterConstructor(constructorHook, context, coreService, id, sensorId, object, parameters, rsc);
 							} else {
-								constructorHook.afterConstructor(invocCoreService, id, sensorId, object, parameters, rsc);
+								afterConstructor(constructorHook, context, invocCoreService, id, sensorId, object, parameters, rsc);
 							}
 						}
 					} else {
 						for (IMethodSensor methodSensor : rsc.getMethodSensors()) {
 							IConstructorHook constructorHook = (IConstructorHook) methodSensor.getHook();
-							constructorHook.afterConstructor(coreService, id, methodSensor.getSensorTypeConfig().getId(), object, parameters, rsc);
+							afterConstructor(constructorHook, context, coreService, id, methodSensor.getSensorTypeConfig().getId(), object, parameters, rsc);
 						}
 					}
 
 					if (rsc.isStartsInvocation()) {
-						invocationSequenceCount.decrement();
-
-						if (0 == invocationSequenceCount.getCount()) {
-							invocationSequenceHolder.set(null);
+						if (0 == context.decrementInvocationSequenceCount()) {
+							context.setInvocationSequenceHook(null);
 						}
-					} else if (null != invocationSequenceHolder.get()) {
+					} else if (null != context.getInvocationSequenceHook()) {
 						// We have to execute the after body method of the invocation
 						// sequence hook manually.
-						IConstructorHook invocationHook = (IConstructorHook) invocationSequenceHolder.get();
+						IConstructorHook invocationHook = (IConstructorHook) context.getInvocationSequenceHook();
 
 						// The sensor type ID is not important here, thus we are passing
 						// a -1. It is already stored in the data object
-						invocationHook.afterConstructor(coreService, id, -1, object, parameters, rsc);
+						afterConstructor(invocationHook, context, coreService, id, -1, object, parameters, rsc);
 					}
 				} catch (Throwable throwable) { // NOPMD
 					log.error("An error happened in the Hook Dispatcher! (after constructor)", throwable);
 				}
 			} finally {
-				executionMarker.deactive();
+				context.setExecutionActive(false);
 			}
 		}
 	}
@@ -524,88 +553,171 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	}
 
 	/**
-	 * Private inner class used to track the count of the started invocation sequences in one
-	 * thread. Thus it extends {@link ThreadLocal} to provide a unique number for every Thread.
-	 *
-	 * @author Patrice Bouillet
+	 * Returns the {@link RegisteredSensorConfig} for the given method id. Ids that fit in the
+	 * dense mapping array are resolved without the map lookup.
 	 *
+	 * @param id
+	 *            Method id.
+	 * @return {@link RegisteredSensorConfig} or <code>null</code> if mapping does not exist.
 	 */
-	private static class InvocationSequenceCount extends ThreadLocal<Long> {
-
-		/**
-		 * {@inheritDoc}
-		 */
-		@Override
-		protected Long initialValue() {
-			return Long.valueOf(0);
-		}
-
-		/**
-		 * Increments the stored value.
-		 */
-		public void increment() {
-			super.set(Long.valueOf(super.get().longValue() + 1));
-		}
-
-		/**
-		 * Decrements the stored value.
-		 */
-		public void decrement() {
-			super.set(Long.valueOf(super.get().longValue() - 1));
+	private RegisteredSensorConfig getMapping(long id) {
+		AtomicReferenceArray<RegisteredSensorConfig> dense = denseMappings;
+		if ((id >= 0) && (id < dense.length())) {
+			RegisteredSensorConfig rsc = dense.get((int) id);
+			if (null != rsc) {
+				return rsc;
+			}
 		}
+		return mappings.get(id);
+	}
 
-		/**
-		 * Returns the current count.
-		 *
-		 * @return The count.
-		 */
-		public long getCount() {
-			return super.get().longValue();
+	/**
+	 * Executes the before body method of the hook, passing the thread context if the hook is a
+	 * {@link IContextMethodHook}.
+	 *
+	 * @param methodHook
+	 *            Hook to execute.
+	 * @param context
+	 *            Context of the current thread.
+	 * @param methodId
+	 *            The unique identifier of the method.
+	 * @param sensorTypeId
+	 *            The unique identifier of the sensor type.
+	 * @param object
+	 *            The class itself which contains the hook.
+	 * @param parameters
+	 *            The parameters of the method call.
+	 * @param rsc
+	 *            The {@link RegisteredSensorConfig} object which holds all the information of the
+	 *            executed method.
+	 */
+	private static void beforeBody(IMethodHook methodHook, AgentThreadContext context, long methodId, long sensorTypeId, Object object, Object[] parameters, RegisteredSensorConfig rsc) {
+		if (methodHook instanceof IContextMethodHook) {
+			((IContextMethodHook) methodHook).beforeBody(context, methodId, sensorTypeId, object, parameters, rsc);
+		} else {
+			methodHook.beforeBody(methodId, sensorTypeId, object, parameters, rsc);
 		}
-
 	}
 
 	/**
-	 * ThreadLocal execution marker which is used to mark executions as already in progress to not
-	 * dispatch over and over again.
-	 *
-	 * @author Patrice Bouillet
+	 * Executes the first after body method of the hook, passing the thread context if the hook is
+	 * a {@link IContextMethodHook}.
 	 *
+	 * @param methodHook
+	 *            Hook to execute.
+	 * @param context
+	 *            Context of the current thread.
+	 * @param methodId
+	 *            The unique identifier of the method.
+	 * @param sensorTypeId
+	 *            The unique identifier of the sensor type.
+	 * @param object
+	 *            The class itself which contains the hook.
+	 * @param parameters
+	 *            The parameters of the method call.
+	 * @param result
+	 *            The return value.
+	 * @param rsc
+	 *            The {@link RegisteredSensorConfig} object which holds all the information of the
+	 *            executed method.
 	 */
-	private static class ExecutionMarker extends ThreadLocal<Boolean> {
-
-		/**
-		 * {@inheritDoc}
-		 */
-		@Override
-		protected Boolean initialValue() {
-			return Boolean.FALSE;
+	private static void firstAfterBody(IMethodHook methodHook, AgentThreadContext context, long methodId, long sensorTypeId, Object object, Object[] parameters, Object result,
+			RegisteredSensorConfig rsc) {
+		if (methodHook instanceof IContextMethodHook) {
+			((IContextMethodHook) methodHook).firstAfterBody(context, methodId, sensorTypeId, object, parameters, result, rsc);
+		} else {
+			methodHook.firstAfterBody(methodId, sensorTypeId, object, parameters, result, rsc);
 		}
+	}
 
-		/**
-		 * Execution is active.
-		 */
-		public void active() {
-			super.set(Boolean.TRUE);
+	/**
+	 * Executes the second after body method of the hook, passing the thread context if the hook is
+	 * a {@link IContextMethodHook}.
+	 *
+	 * @param methodHook
+	 *            Hook to execute.
+	 * @param context
+	 *            Context of the current thread.
+	 * @param coreService
+	 *            The core service to pass.
+	 * @param methodId
+	 *            The unique identifier of the method.
+	 * @param sensorTypeId
+	 *            The unique identifier of the sensor type.
+	 * @param object
+	 *            The class itself which contains the hook.
+	 * @param parameters
+	 *            The parameters of the method call.
+	 * @param result
+	 *            The return value.
+	 * @param rsc
+	 *            The {@link RegisteredSensorConfig} object which holds all the information of the
+	 *            executed method.
+	 */
+	private static void secondAfterBody(IMethodHook methodHook, AgentThreadContext context, ICoreService coreService, long methodId, long sensorTypeId, Object object, // NOCHK
+			Object[] parameters, Object result, RegisteredSensorConfig rsc) {
+		if (methodHook instanceof IContextMethodHook) {
+			((IContextMethodHook) methodHook).secondAfterBody(context, coreService, methodId, sensorTypeId, object, parameters, result, rsc);
+		} else {
+			methodHook.secondAfterBody(coreService, methodId, sensorTypeId, object, parameters, result, rsc);
 		}
+	}
 
-		/**
-		 * Execution is deactive.
-		 */
-		public void deactive() {
-			super.set(Boolean.FALSE);
+	/**
+	 * Executes the before constructor method of the hook, passing the thread context if the hook
+	 * is a {@link IContextConstructorHook}.
+	 *
+	 * @param constructorHook
+	 *            Hook to execute.
+	 * @param context
+	 *            Context of the current thread.
+	 * @param methodId
+	 *            The unique identifier of the constructor.
+	 * @param sensorTypeId
+	 *            The unique identifier of the sensor type.
+	 * @param parameters
+	 *            The parameters of the constructor call.
+	 * @param rsc
+	 *            The {@link RegisteredSensorConfig} object which holds all the information of the
+	 *            executed constructor.
+	 */
+	private static void beforeConstructor(IConstructorHook constructorHook, AgentThreadContext context, long methodId, long sensorTypeId, Object[] parameters, RegisteredSensorConfig rsc) {
+		if (constructorHook instanceof IContextConstructorHook) {
+			((IContextConstructorHook) constructorHook).beforeConstructor(context, methodId, sensorTypeId, parameters, rsc);
+		} else {
+			constructorHook.beforeConstructor(methodId, sensorTypeId, parameters, rsc);
 		}
+	}
 
-		/**
-		 * Defines if our own execution is active, and thus we have to skip the whole processing
-		 * (because it could happen, that we'll never end then).
-		 *
-		 * @return if own execution is active.
-		 */
-		public boolean isActive() {
-			return super.get().booleanValue();
+	/**
+	 * Executes the after constructor method of the hook, passing the thread context if the hook is
+	 * a {@link IContextConstructorHook}.
+	 *
+	 * @param constructorHook
+	 *            Hook to execute.
+	 * @param context
+	 *            Context of the current thread.
+	 * @param coreService
+	 *            The core service to pass.
+	 * @param methodId
+	 *            The unique identifier of the constructor.
+	 * @param sensorTypeId
+	 *            The unique identifier of the sensor type.
+	 * @param object
+	 *            The created object.
+	 * @param parameters
+	 *            The parameters of the constructor call.
+	 * @param rsc
+	 *            The {@link RegisteredSensorConfig} object which holds all the information of the
+	 *            executed constructor.
+	 */
+	private static void afterConstructor(IConstructorHook constructorHook, AgentThreadContext context, ICoreService coreService, long methodId, long sensorTypeId, Object object,
+			Object[] parameters, RegisteredSensorConfig rsc) {
+		if (constructorHook instanceof IContextConstructorHook) {
+			((IContextConstructorHook) constructorHook).afterConstructor(context, coreService, methodId, sensorTypeId, object, parameters, rsc);
+		} else {
+			constructorHook.afterConstructor(coreService, methodId, sensorTypeId, object, parameters, rsc);
 		}
-
 	}
 
 }
@@ -52,9 +52,11 @@ public class InstrumenterFactory {
 		if (instrumentationPoint instanceof SensorInstrumentationPoint) {
 			SensorInstrumentationPoint sensorInstrumentationPoint = (SensorInstrumentationPoint) instrumentationPoint;
 			if (sensorInstrumentationPoint.isConstructor()) {
-				return new ConstructorInstrumenter(superMethodVisitor, access, name, desc, sensorInstrumentationPoint.getId(), enhancedExceptionSensor);
+				return new ConstructorInstrumenter(superMethodVisitor, access, name, desc, sensorInstrumentationPoint.getId(), enhancedExceptionSensor, sensorInstrumentationPoint.isParametersNeeded(),
+						sensorInstrumentationPoint.isObjectNeeded());
 			} else {
-				return new MethodInstrumenter(superMethodVisitor, access, name, desc, sensorInstrumentationPoint.getId(), enhancedExceptionSensor);
+				return new MethodInstrumenter(superMethodVisitor, access, name, desc, sensorInstrumentationPoint.getId(), enhancedExceptionSensor, sensorInstrumentationPoint.isParametersNeeded(),
+						sensorInstrumentationPoint.isObjectNeeded(), sensorInstrumentationPoint.isResultNeeded());
 			}
 		} else if (instrumentationPoint instanceof SpecialInstrumentationPoint) {
 			SpecialInstrumentationPoint specialInstrumentationPoint = (SpecialInstrumentationPoint) instrumentationPoint;
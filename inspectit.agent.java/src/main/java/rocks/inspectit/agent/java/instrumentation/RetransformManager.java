@@ -4,26 +4,38 @@ import java.lang.instrument.Instrumentation;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang.ObjectUtils;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationListener;
 import org.springframework.stereotype.Component;
 
 import rocks.inspectit.agent.java.IThreadTransformHelper;
+import rocks.inspectit.agent.java.analyzer.impl.ByteCodeAnalyzer;
 import rocks.inspectit.agent.java.analyzer.impl.ClassHashHelper;
 import rocks.inspectit.agent.java.event.AgentMessagesReceivedEvent;
 import rocks.inspectit.shared.all.communication.message.IAgentMessage;
 import rocks.inspectit.shared.all.communication.message.UpdatedInstrumentationMessage;
 import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
+import rocks.inspectit.shared.all.instrumentation.config.impl.MethodInstrumentationConfig;
+import rocks.inspectit.shared.all.instrumentation.config.impl.SensorInstrumentationPoint;
+import rocks.inspectit.shared.all.instrumentation.config.impl.SpecialInstrumentationPoint;
 import rocks.inspectit.shared.all.spring.logger.Log;
 
 /**
  * Handles incoming {@link UpdatedInstrumentationMessage}s and triggers a retransformation if
  * necessary.
+ * <p>
+ * If the new instrumentation definition of a loaded class results in the same byte code as the
+ * currently applied one (only the sensors or their settings have changed), the class is not
+ * retransformed. Instead the instrumentation points of the class are re-mapped in the hook
+ * dispatcher.
  *
  * @author Marius Oehler
  *
@@ -54,6 +66,12 @@ public class RetransformManager implements ApplicationListener<AgentMessagesRece
 	@Autowired
 	private IThreadTransformHelper threadTransformHelper;
 
+	/**
+	 * {@link ByteCodeAnalyzer} for re-mapping the instrumentation points.
+	 */
+	@Autowired
+	private ByteCodeAnalyzer byteCodeAnalyzer;
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -127,39 +145,53 @@ public class RetransformManager implements ApplicationListener<AgentMessagesRece
 	/**
 	 * Process the given [@link {@link InstrumentationDefinition}s. In this case, they are getting
 	 * registered on the respective class, subsequently, the classes are getting retransformed.
+	 * Loaded classes which byte code would not change with the new definition are only re-mapped.
 	 *
 	 * @param instrumentationDefinitions
 	 *            {@link Collection} of {@link InstrumentationDefinition}
 	 */
 	private void processInstrumentationDefinitions(Collection<InstrumentationDefinition> instrumentationDefinitions) {
-		if (log.isInfoEnabled()) {
-			log.info("Retransform {} class(es)", instrumentationDefinitions.size());
-		}
-
 		Collection<Class<?>> classesToRetransform = new ArrayList<Class<?>>();
+		Set<String> mappingOnlyClasses = new HashSet<String>();
+		Set<String> remappedClasses = new HashSet<String>();
 
 		// create map of instrumentation definitions (for fast look-up)
 		Map<String, InstrumentationDefinition> instrumentationDefinitionMap = new HashMap<String, InstrumentationDefinition>();
 		for (InstrumentationDefinition definition : instrumentationDefinitions) {
 			instrumentationDefinitionMap.put(definition.getClassName(), definition);
 
+			// compare with the applied one before registering
+			if (isSameByteCode(classHashHelper.getInstrumentationDefinition(definition.getClassName()), definition)) {
+				mappingOnlyClasses.add(definition.getClassName());
+			}
+
 			// register new implementation
 			classHashHelper.registerInstrumentationDefinition(definition.getClassName(), definition);
 		}
 
 		Class<?>[] loadedClasses = instrumentation.getAllLoadedClasses();
 		for (Class<?> clazz : loadedClasses) {
-			if (instrumentationDefinitionMap.containsKey(clazz.getCanonicalName())) {
-				if (instrumentation.isModifiableClass(clazz)) {
+			String className = clazz.getCanonicalName();
+			if (instrumentationDefinitionMap.containsKey(className)) {
+				if (mappingOnlyClasses.contains(className)) {
+					// same class can be loaded by several class loaders, map only once
+					if (remappedClasses.add(className)) {
+						byteCodeAnalyzer.mapInstrumentationPoints(instrumentationDefinitionMap.get(className).getMethodInstrumentationConfigs());
+					}
+				} else if (instrumentation.isModifiableClass(clazz)) {
 					classesToRetransform.add(clazz);
 				}
 
 				if (log.isDebugEnabled()) {
-					log.debug("|-{} (is instrumented: {})", clazz.getCanonicalName(), !instrumentationDefinitionMap.get(clazz.getCanonicalName()).getMethodInstrumentationConfigs().isEmpty());
+					log.debug("|-{} (is instrumented: {})", className, !instrumentationDefinitionMap.get(className).getMethodInstrumentationConfigs().isEmpty());
 				}
 			}
 		}
 
+		if (log.isInfoEnabled()) {
+			log.info("Retransform {} class(es), re-map {} class(es)", classesToRetransform.size(), remappedClasses.size());
+		}
+
 		if (CollectionUtils.isNotEmpty(classesToRetransform)) {
 			try {
 				threadTransformHelper.setThreadTransformDisabled(false);
@@ -173,4 +205,87 @@ public class RetransformManager implements ApplicationListener<AgentMessagesRece
 			}
 		}
 	}
+
+	/**
+	 * Checks if the byte code of the class instrumented with the applied definition would be the
+	 * same as with the new definition. This is the case when both definitions instrument the same
+	 * methods and the instrumentation points have the same ids and need the same method data
+	 * (parameters, object, result). The sensors, their settings and the property accessors are
+	 * only used by the hook dispatcher mappings.
+	 *
+	 * @param applied
+	 *            Currently applied definition, can be <code>null</code>.
+	 * @param definition
+	 *            New definition.
+	 * @return <code>true</code> if retransformation is not needed
+	 */
+	private boolean isSameByteCode(InstrumentationDefinition applied, InstrumentationDefinition definition) {
+		if ((null == applied) || applied.isEmpty() || definition.isEmpty()) {
+			return false;
+		}
+
+		Collection<MethodInstrumentationConfig> appliedConfigs = applied.getMethodInstrumentationConfigs();
+		Collection<MethodInstrumentationConfig> configs = definition.getMethodInstrumentationConfigs();
+		if (appliedConfigs.size() != configs.size()) {
+			return false;
+		}
+
+		Map<String, MethodInstrumentationConfig> appliedMap = new HashMap<String, MethodInstrumentationConfig>(appliedConfigs.size());
+		for (MethodInstrumentationConfig config : appliedConfigs) {
+			appliedMap.put(getMethodKey(config), config);
+		}
+
+		for (MethodInstrumentationConfig config : configs) {
+			MethodInstrumentationConfig appliedConfig = appliedMap.get(getMethodKey(config));
+			if ((null == appliedConfig) || !isSameByteCode(appliedConfig.getSensorInstrumentationPoint(), config.getSensorInstrumentationPoint())
+					|| !isSameByteCode(appliedConfig.getSpecialInstrumentationPoint(), config.getSpecialInstrumentationPoint())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks if two sensor instrumentation points result in the same byte code.
+	 *
+	 * @param first
+	 *            First point, can be <code>null</code>.
+	 * @param second
+	 *            Second point, can be <code>null</code>.
+	 * @return <code>true</code> if both are <code>null</code> or define same byte code
+	 */
+	private boolean isSameByteCode(SensorInstrumentationPoint first, SensorInstrumentationPoint second) {
+		if ((null == first) || (null == second)) {
+			return first == second;
+		}
+		return (first.getId() == second.getId()) && (first.isConstructor() == second.isConstructor()) && (first.isParametersNeeded() == second.isParametersNeeded())
+				&& (first.isObjectNeeded() == second.isObjectNeeded()) && (first.isResultNeeded() == second.isResultNeeded());
+	}
+
+	/**
+	 * Checks if two special instrumentation points result in the same byte code.
+	 *
+	 * @param first
+	 *            First point, can be <code>null</code>.
+	 * @param second
+	 *            Second point, can be <code>null</code>.
+	 * @return <code>true</code> if both are <code>null</code> or define same byte code
+	 */
+	private boolean isSameByteCode(SpecialInstrumentationPoint first, SpecialInstrumentationPoint second) {
+		if ((null == first) || (null == second)) {
+			return first == second;
+		}
+		return (first.getId() == second.getId()) && ObjectUtils.equals(first.getSubstitutionDescriptor(), second.getSubstitutionDescriptor());
+	}
+
+	/**
+	 * Returns the key identifying the method of the configuration in the class.
+	 *
+	 * @param config
+	 *            {@link MethodInstrumentationConfig}
+	 * @return Key containing method name, parameters and the return type.
+	 */
+	private String getMethodKey(MethodInstrumentationConfig config) {
+		return config.getTargetMethodName() + config.getParameterTypes() + config.getReturnType();
+	}
 }
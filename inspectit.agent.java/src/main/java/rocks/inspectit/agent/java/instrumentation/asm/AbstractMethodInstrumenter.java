@@ -33,6 +33,22 @@ public abstract class AbstractMethodInstrumenter extends AdviceAdapter {
 	 */
 	protected boolean enhancedExceptionSensor;
 
+	/**
+	 * If parameters of the method should be passed to the dispatcher. If not, <code>null</code>
+	 * is passed instead of the parameter array.
+	 */
+	protected boolean parametersNeeded = true;
+
+	/**
+	 * If object the method is executed on should be passed to the dispatcher.
+	 */
+	protected boolean objectNeeded = true;
+
+	/**
+	 * If result of the method should be passed to the dispatcher.
+	 */
+	protected boolean resultNeeded = true;
+
 	/**
 	 * The label for the start of the try/finally or try/catch/finally block that we are adding.
 	 */
@@ -77,6 +93,37 @@ public abstract class AbstractMethodInstrumenter extends AdviceAdapter {
 		this.isStatic = (access & Opcodes.ACC_STATIC) != 0;
 	}
 
+	/**
+	 * Constructor that additionally defines what data of the method should be passed to the
+	 * dispatcher.
+	 *
+	 * @param mv
+	 *            Super method visitor.
+	 * @param access
+	 *            Method access code.
+	 * @param name
+	 *            Method name.
+	 * @param desc
+	 *            Method description.
+	 * @param methodId
+	 *            Method id that will be passed to {@link IHookDispatcher}.
+	 * @param enhancedExceptionSensor
+	 *            Marker declaring if enhanced exception sensor is active.
+	 * @param parametersNeeded
+	 *            If parameters of the method should be passed to the dispatcher.
+	 * @param objectNeeded
+	 *            If object the method is executed on should be passed to the dispatcher.
+	 * @param resultNeeded
+	 *            If result of the method should be passed to the dispatcher.
+	 */
+	protected AbstractMethodInstrumenter(MethodVisitor mv, int access, String name, String desc, long methodId, boolean enhancedExceptionSensor, boolean parametersNeeded, boolean objectNeeded,
+			boolean resultNeeded) {
+		this(mv, access, name, desc, methodId, enhancedExceptionSensor);
+		this.parametersNeeded = parametersNeeded;
+		this.objectNeeded = objectNeeded;
+		this.resultNeeded = resultNeeded;
+	}
+
 	/**
 	 * Generates code for before catch call. Calling this method expects an exception on the stack
 	 * that can be consumed.
@@ -117,16 +164,14 @@ public abstract class AbstractMethodInstrumenter extends AdviceAdapter {
 	}
 
 	/**
-	 * Loads hook dispatcher on the stack so that methods can be executed on it.
+	 * Loads hook dispatcher on the stack so that methods can be executed on it. The dispatcher is
+	 * loaded directly from the Agent.hookDispatcher static field, thus the call site is a single
+	 * static field read followed by the monomorphic dispatcher call that the JIT can inline.
 	 * <p>
 	 * Protected access so we can change in tests.
 	 */
 	protected void loadHookDispatcher() {
-		// load first the Agent.agent static field
-		mv.visitFieldInsn(Opcodes.GETSTATIC, IInstrumenterConstant.AGENT_INTERNAL_NAME, "agent", IInstrumenterConstant.IAGENT_DESCRIPTOR);
-
-		// now invoke getHookDispatcher() method (no parameters here)
-		mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, IInstrumenterConstant.IAGENT_INTERNAL_NAME, "getHookDispatcher", IInstrumenterConstant.GET_IHOOK_DISPATCHER_DESCRIPTOR, true);
+		mv.visitFieldInsn(Opcodes.GETSTATIC, IInstrumenterConstant.AGENT_INTERNAL_NAME, "hookDispatcher", IInstrumenterConstant.IHOOK_DISPATCHER_DESCRIPTOR);
 	}
 
 	/**
@@ -136,6 +181,30 @@ public abstract class AbstractMethodInstrumenter extends AdviceAdapter {
 		mv.visitInsn(Opcodes.ACONST_NULL);
 	}
 
+	/**
+	 * Loads the object the method is executed on to the stack. Pushes <code>null</code> if the
+	 * method is static or the object is not needed.
+	 */
+	protected void loadObjectIfNeeded() {
+		if (isStatic || !objectNeeded) {
+			pushNull();
+		} else {
+			loadThis();
+		}
+	}
+
+	/**
+	 * Loads the parameter array to the stack. Pushes <code>null</code> if the parameters are not
+	 * needed, thus no array is created and no primitive parameter is boxed.
+	 */
+	protected void loadParametersIfNeeded() {
+		if (parametersNeeded) {
+			loadArgArray();
+		} else {
+			pushNull();
+		}
+	}
+
 	/**
 	 * Gets {@link #methodId}.
 	 *
@@ -154,4 +223,31 @@ public abstract class AbstractMethodInstrumenter extends AdviceAdapter {
 		return this.enhancedExceptionSensor;
 	}
 
+	/**
+	 * Gets {@link #parametersNeeded}.
+	 *
+	 * @return {@link #parametersNeeded}
+	 */
+	public boolean isParametersNeeded() {
+		return this.parametersNeeded;
+	}
+
+	/**
+	 * Gets {@link #objectNeeded}.
+	 *
+	 * @return {@link #objectNeeded}
+	 */
+	public boolean isObjectNeeded() {
+		return this.objectNeeded;
+	}
+
+	/**
+	 * Gets {@link #resultNeeded}.
+	 *
+	 * @return {@link #resultNeeded}
+	 */
+	public boolean isResultNeeded() {
+		return this.resultNeeded;
+	}
+
 }
@@ -37,6 +37,33 @@ public class ConstructorInstrumenter extends AbstractMethodInstrumenter {
 		super(mv, access, name, desc, methodId, enhancedExceptionSensor);
 	}
 
+	/**
+	 * Constructor that additionally defines what data of the constructor should be passed to the
+	 * dispatcher.
+	 *
+	 * @param mv
+	 *            Super method visitor.
+	 * @param access
+	 *            Method access code.
+	 * @param name
+	 *            Method name.
+	 * @param desc
+	 *            Method description.
+	 * @param methodId
+	 *            Method id that will be passed to {@link IHookDispatcher}.
+	 * @param enhancedExceptionSensor
+	 *            Marker declaring if enhanced exception sensor is active.
+	 * @param parametersNeeded
+	 *            If parameters of the constructor should be passed to the dispatcher.
+	 * @param objectNeeded
+	 *            If created object should be passed to the dispatcher.
+	 * @see AbstractMethodInstrumenter#AbstractMethodInstrumenter(MethodVisitor, int, String,
+	 *      String, long, boolean, boolean, boolean, boolean)
+	 */
+	public ConstructorInstrumenter(MethodVisitor mv, int access, String name, String desc, long methodId, boolean enhancedExceptionSensor, boolean parametersNeeded, boolean objectNeeded) {
+		super(mv, access, name, desc, methodId, enhancedExceptionSensor, parametersNeeded, objectNeeded, false);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -62,12 +89,8 @@ public class ConstructorInstrumenter extends AbstractMethodInstrumenter {
 
 		// after constructor we can load this object
 		// just load on stack and generate call
-		// this object or null if's static
-		if (isStatic) {
-			pushNull();
-		} else {
-			loadThis();
-		}
+		// this object or null if's static or not needed
+		loadObjectIfNeeded();
 
 		// generate code for calling first and second
 		generateAfterBodyCall();
@@ -98,12 +121,8 @@ public class ConstructorInstrumenter extends AbstractMethodInstrumenter {
 
 		// generate code for calling after
 		// push created object and call
-		// this object or null if's static
-		if (isStatic) {
-			pushNull();
-		} else {
-			loadThis();
-		}
+		// this object or null if's static or not needed
+		loadObjectIfNeeded();
 		generateAfterBodyCall();
 
 		mv.visitInsn(ATHROW);
@@ -123,8 +142,8 @@ public class ConstructorInstrumenter extends AbstractMethodInstrumenter {
 		// first push method id
 		push(methodId);
 
-		// then parameters
-		loadArgArray();
+		// then parameters or null if not needed
+		loadParametersIfNeeded();
 
 		mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, IInstrumenterConstant.IHOOK_DISPATCHER_INTERNAL_NAME, "dispatchConstructorBeforeBody",
 				IInstrumenterConstant.DISPATCH_CONSTRUCTOR_BEFORE_BODY_DESCRIPTOR, true);
@@ -151,8 +170,8 @@ public class ConstructorInstrumenter extends AbstractMethodInstrumenter {
 		pop2();
 		// l-l2-r :)
 
-		// then parameters, no need to swap
-		loadArgArray();
+		// then parameters or null if not needed, no need to swap
+		loadParametersIfNeeded();
 
 		// execute after body
 		mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, IInstrumenterConstant.IHOOK_DISPATCHER_INTERNAL_NAME, "dispatchConstructorAfterBody",
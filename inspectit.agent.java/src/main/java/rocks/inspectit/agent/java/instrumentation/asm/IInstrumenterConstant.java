@@ -37,6 +37,11 @@ public interface IInstrumenterConstant {
 	 */
 	String IAGENT_DESCRIPTOR = "L" + IAGENT_INTERNAL_NAME + ";";
 
+	/**
+	 * Descriptor of our IHookDispatcher.
+	 */
+	String IHOOK_DISPATCHER_DESCRIPTOR = "L" + IHOOK_DISPATCHER_INTERNAL_NAME + ";";
+
 	/**
 	 * Internal name of get IHookDispatcher method.
 	 */
@@ -38,6 +38,36 @@ public class MethodInstrumenter extends AbstractMethodInstrumenter {
 		super(mv, access, name, desc, methodId, enhancedExceptionSensor);
 	}
 
+	/**
+	 * Constructor that additionally defines what data of the method should be passed to the
+	 * dispatcher.
+	 *
+	 * @param mv
+	 *            Super method visitor.
+	 * @param access
+	 *            Method access code.
+	 * @param name
+	 *            Method name.
+	 * @param desc
+	 *            Method description.
+	 * @param methodId
+	 *            Method id that will be passed to {@link IHookDispatcher}.
+	 * @param enhancedExceptionSensor
+	 *            Marker declaring if enhanced exception sensor is active.
+	 * @param parametersNeeded
+	 *            If parameters of the method should be passed to the dispatcher.
+	 * @param objectNeeded
+	 *            If object the method is executed on should be passed to the dispatcher.
+	 * @param resultNeeded
+	 *            If result of the method should be passed to the dispatcher.
+	 * @see AbstractMethodInstrumenter#AbstractMethodInstrumenter(MethodVisitor, int, String,
+	 *      String, long, boolean, boolean, boolean, boolean)
+	 */
+	public MethodInstrumenter(MethodVisitor mv, int access, String name, String desc, long methodId, boolean enhancedExceptionSensor, boolean parametersNeeded, boolean objectNeeded,
+			boolean resultNeeded) {
+		super(mv, access, name, desc, methodId, enhancedExceptionSensor, parametersNeeded, objectNeeded, resultNeeded);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -64,7 +94,8 @@ public class MethodInstrumenter extends AbstractMethodInstrumenter {
 		// just ensure that result is duplicated on the stack
 		// since we are calling two methods, make 2 copies of result on stack
 		// in case of void return or push null since we don't have result
-		if (opcode == RETURN) {
+		// push null as well if result is not needed, so we don't box it
+		if ((opcode == RETURN) || !resultNeeded) {
 			// standard return with no object (void)
 			pushNull();
 			pushNull();
@@ -85,8 +116,8 @@ public class MethodInstrumenter extends AbstractMethodInstrumenter {
 		}
 
 		// generate code for calling first and second
-		generateAfterBodyCall("dispatchFirstMethodAfterBody");
-		generateAfterBodyCall("dispatchSecondMethodAfterBody");
+		generateAfterBodyCall("dispatchFirstMethodAfterBody", false);
+		generateAfterBodyCall("dispatchSecondMethodAfterBody", false);
 	}
 
 	/**
@@ -116,8 +147,8 @@ public class MethodInstrumenter extends AbstractMethodInstrumenter {
 		// push nulls as we don't have a result
 		pushNull();
 		pushNull();
-		generateAfterBodyCall("dispatchFirstMethodAfterBody");
-		generateAfterBodyCall("dispatchSecondMethodAfterBody");
+		generateAfterBodyCall("dispatchFirstMethodAfterBody", false);
+		generateAfterBodyCall("dispatchSecondMethodAfterBody", false);
 
 		mv.visitInsn(ATHROW);
 
@@ -135,15 +166,11 @@ public class MethodInstrumenter extends AbstractMethodInstrumenter {
 		// first push method id
 		push(methodId);
 
-		// then this object or null if's static
-		if (isStatic) {
-			pushNull();
-		} else {
-			loadThis();
-		}
+		// then this object or null if's static or not needed
+		loadObjectIfNeeded();
 
-		// then parameters
-		loadArgArray();
+		// then parameters or null if not needed
+		loadParametersIfNeeded();
 
 		mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, IInstrumenterConstant.IHOOK_DISPATCHER_INTERNAL_NAME, "dispatchMethodBeforeBody", IInstrumenterConstant.DISPATCH_METHOD_BEFORE_BODY_DESCRIPTOR,
 				true);
@@ -158,8 +185,10 @@ public class MethodInstrumenter extends AbstractMethodInstrumenter {
 	 *            {@link IHookDispatcher#dispatchFirstMethodAfterBody(long, Object, Object[], Object)}
 	 *            or
 	 *            {@link IHookDispatcher#dispatchSecondMethodAfterBody(long, Object, Object[], Object)}
+	 * @param loadAll
+	 *            If object and parameters should be passed regardless if they are needed.
 	 */
-	private void generateAfterBodyCall(String method) {
+	private void generateAfterBodyCall(String method, boolean loadAll) {
 		// prepare for calls
 		// we expect result on stack so we must swap as result is last argument in the call
 		loadHookDispatcher();
@@ -175,15 +204,19 @@ public class MethodInstrumenter extends AbstractMethodInstrumenter {
 		// l-l2-r :)
 
 		// then this object or null if's static
-		if (isStatic) {
-			pushNull();
-		} else {
+		if (loadAll && !isStatic) {
 			loadThis();
+		} else {
+			loadObjectIfNeeded();
 		}
 		swap();
 
 		// then parameters
-		loadArgArray();
+		if (loadAll) {
+			loadArgArray();
+		} else {
+			loadParametersIfNeeded();
+		}
 		swap();
 
 		// execute after body
@@ -197,7 +230,8 @@ public class MethodInstrumenter extends AbstractMethodInstrumenter {
 	 */
 	private void generateThrowInBodyCall() {
 		// we can use same code for the after body call since method signature is same
-		generateAfterBodyCall("dispatchOnThrowInBody");
+		// exception sensor always gets object and parameters
+		generateAfterBodyCall("dispatchOnThrowInBody", true);
 	}
 
 	/**
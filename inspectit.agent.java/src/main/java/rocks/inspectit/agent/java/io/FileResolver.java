@@ -40,6 +40,17 @@ public class FileResolver implements InitializingBean {
 		return new File(agentJar.getParent() + File.separator + "cache" + File.separator + configurationStorage.getAgentName() + File.separator + "sendingClasses.cache");
 	}
 
+	/**
+	 * Returns file where instrumentation definitions cache for this agent should be.
+	 * <p>
+	 * Expected path: <i>[PATH_TO_AGENT]/cache/agentName/instrumentationDefinitions.cache</i>
+	 *
+	 * @return Returns file where instrumentation definitions cache for this agent should be.
+	 */
+	public File getInstrumentationDefinitionCacheFile() {
+		return new File(agentJar.getParent() + File.separator + "cache" + File.separator + configurationStorage.getAgentName() + File.separator + "instrumentationDefinitions.cache");
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -100,6 +100,7 @@ public class JavaAgent implements ClassFileTransformer {
 			// we can reference the Agent now here because it should have been added to the
 			// bootclasspath and thus available from anywhere in the application
 			Agent.agent = (IAgent) realAgent;
+			Agent.hookDispatcher = Agent.agent.getHookDispatcher();
 
 			// we need to preload some classes due to the minimal possibility of classcircularity
 			// errors etc.
@@ -22,6 +22,12 @@ public class ExceptionSensor extends AbstractMethodSensor implements IExceptionS
 	@Autowired
 	private IPlatformManager platformManager;
 
+	/**
+	 * Cache of the stack traces already sent to the CMR.
+	 */
+	@Autowired
+	private StackTraceCache stackTraceCache;
+
 	/**
 	 * The used exception sensor hook.
 	 */
@@ -56,7 +62,7 @@ public class ExceptionSensor extends AbstractMethodSensor implements IExceptionS
 	 */
 	@Override
 	protected void initHook(Map<String, Object> parameters) {
-		exceptionSensorHook = new ExceptionSensorHook(platformManager, parameters);
+		exceptionSensorHook = new ExceptionSensorHook(platformManager, stackTraceCache, parameters);
 	}
 
 }
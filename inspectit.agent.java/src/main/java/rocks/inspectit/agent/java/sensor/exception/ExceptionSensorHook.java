@@ -52,16 +52,24 @@ public class ExceptionSensorHook implements IExceptionSensorHook {
 	 */
 	private final StringConstraint strConstraint;
 
+	/**
+	 * Cache of the stack traces already sent to the CMR.
+	 */
+	private final StackTraceCache stackTraceCache;
+
 	/**
 	 * The default constructor which needs one parameter for initialization.
 	 *
 	 * @param platformManager
 	 *            The Platform manager.
+	 * @param stackTraceCache
+	 *            Cache of the stack traces already sent to the CMR.
 	 * @param parameter
 	 *            Additional parameters.
 	 */
-	public ExceptionSensorHook(IPlatformManager platformManager, Map<String, Object> parameter) {
+	public ExceptionSensorHook(IPlatformManager platformManager, StackTraceCache stackTraceCache, Map<String, Object> parameter) {
 		this.platformManager = platformManager;
+		this.stackTraceCache = stackTraceCache;
 		this.strConstraint = new StringConstraint(parameter);
 	}
 
@@ -233,7 +241,8 @@ public class ExceptionSensorHook implements IExceptionSensorHook {
 
 	/**
 	 * Gets static information (class name, stackTrace, cause) from the {@link Throwable} object and
-	 * sets them on the passed data object.
+	 * sets them on the passed data object. The stack trace is only set if the stack trace with the
+	 * same fingerprint was not already sent.
 	 *
 	 * @param exceptionSensorData
 	 *            The {@link ExceptionSensorData} object where to set the information.
@@ -268,7 +277,13 @@ public class ExceptionSensorHook implements IExceptionSensorHook {
 		}
 
 		try {
-			exceptionSensorData.setStackTrace(strConstraint.crop(stackTraceToString(throwable)));
+			// full stack trace is sent until the CMR received it, CMR resolves the rest
+			long fingerprint = stackTraceCache.getFingerprint(throwable);
+			exceptionSensorData.setStackTraceFingerprint(fingerprint);
+			if (!stackTraceCache.isSent(fingerprint)) {
+				exceptionSensorData.setStackTrace(strConstraint.crop(stackTraceToString(throwable)));
+				stackTraceCache.markPending(fingerprint);
+			}
 		} catch (Exception e) {
 			if (LOG.isDebugEnabled()) {
 				LOG.debug("It was not possible to retrieve the stack trace from " + throwable.getClass().getName(), e);
@@ -0,0 +1,233 @@
+package rocks.inspectit.agent.java.sensor.exception;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.collections.CollectionUtils;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import rocks.inspectit.agent.java.event.AgentMessagesReceivedEvent;
+import rocks.inspectit.agent.java.event.DataSentEvent;
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.ExceptionSensorData;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
+import rocks.inspectit.shared.all.communication.message.IAgentMessage;
+import rocks.inspectit.shared.all.communication.message.ResendStackTracesMessage;
+
+/**
+ * Keeps track of the stack traces already sent to the CMR. Stack traces are identified by a
+ * structural fingerprint calculated from the stack trace elements of the throwable and its causes,
+ * thus the expensive rendering of the stack trace to a string is only needed until the CMR
+ * received the first throwable with a given fingerprint.
+ * <p>
+ * A fingerprint is marked as sent only when the data carrying its full stack trace was
+ * successfully sent (see {@link DataSentEvent}). Until then every throwable with the fingerprint
+ * carries the full stack trace. Fingerprints expire after {@link #RESEND_INTERVAL_MINUTES} and
+ * are removed when the CMR requests them with the {@link ResendStackTracesMessage}, so that the
+ * CMR receives the full stack trace again in case it has evicted or lost it.
+ *
+ * @author Ivan Senic
+ *
+ */
+@Component
+public class StackTraceCache implements ApplicationListener<ApplicationEvent> {
+
+	/**
+	 * Maximum amount of fingerprints to keep.
+	 */
+	static final int MAX_SIZE = 1000;
+
+	/**
+	 * Minutes after which the full stack trace of a fingerprint is sent again.
+	 */
+	static final long RESEND_INTERVAL_MINUTES = 10;
+
+	/**
+	 * Maximum amount of causes included in the fingerprint, protection against cause cycles.
+	 */
+	private static final int MAX_CAUSES = 16;
+
+	/**
+	 * 64-bit FNV-1a offset basis.
+	 */
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+	/**
+	 * 64-bit FNV-1a prime.
+	 */
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	/**
+	 * Fingerprints of the sent stack traces.
+	 */
+	private final Cache<Long, Boolean> sentFingerprints = CacheBuilder.newBuilder().maximumSize(MAX_SIZE).expireAfterWrite(RESEND_INTERVAL_MINUTES, TimeUnit.MINUTES).build();
+
+	/**
+	 * Fingerprints which full stack traces are passed to the sending but not yet confirmed as
+	 * sent.
+	 */
+	private final Cache<Long, Boolean> pendingFingerprints = CacheBuilder.newBuilder().maximumSize(MAX_SIZE).build();
+
+	/**
+	 * Calculates the structural fingerprint of the throwable stack trace. The fingerprint includes
+	 * the types of the throwable and its causes and all their stack trace elements, but not the
+	 * messages.
+	 *
+	 * @param throwable
+	 *            Throwable to calculate fingerprint for.
+	 * @return Fingerprint, never <code>0</code>.
+	 */
+	public long getFingerprint(Throwable throwable) {
+		long fingerprint = FNV_OFFSET_BASIS;
+		Throwable current = throwable;
+		int causes = 0;
+		while ((null != current) && (causes < MAX_CAUSES)) {
+			fingerprint = mix(fingerprint, current.getClass().getName().hashCode());
+			for (StackTraceElement element : current.getStackTrace()) {
+				fingerprint = mix(fingerprint, element.hashCode());
+			}
+
+			Throwable cause = current.getCause();
+			if (cause == current) {
+				break;
+			}
+			current = cause;
+			causes++;
+		}
+
+		// zero denotes no fingerprint
+		if (0 == fingerprint) {
+			return 1;
+		}
+		return fingerprint;
+	}
+
+	/**
+	 * Returns if the stack trace with the given fingerprint was already sent.
+	 *
+	 * @param fingerprint
+	 *            Stack trace fingerprint.
+	 * @return <code>true</code> if the full stack trace does not need to be sent.
+	 */
+	public boolean isSent(long fingerprint) {
+		return null != sentFingerprints.getIfPresent(Long.valueOf(fingerprint));
+	}
+
+	/**
+	 * Marks that the full stack trace with the given fingerprint is passed to the sending. The
+	 * fingerprint is marked as sent once the data carrying the stack trace is sent.
+	 *
+	 * @param fingerprint
+	 *            Stack trace fingerprint.
+	 */
+	public void markPending(long fingerprint) {
+		pendingFingerprints.put(Long.valueOf(fingerprint), Boolean.TRUE);
+	}
+
+	/**
+	 * Marks the stack trace with the given fingerprint as sent.
+	 *
+	 * @param fingerprint
+	 *            Stack trace fingerprint.
+	 */
+	void markSent(long fingerprint) {
+		Long key = Long.valueOf(fingerprint);
+		sentFingerprints.put(key, Boolean.TRUE);
+		pendingFingerprints.invalidate(key);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onApplicationEvent(ApplicationEvent event) {
+		if (event instanceof DataSentEvent) {
+			handleDataSentEvent((DataSentEvent) event);
+		} else if (event instanceof AgentMessagesReceivedEvent) {
+			handleAgentMessagesReceivedEvent((AgentMessagesReceivedEvent) event);
+		}
+	}
+
+	/**
+	 * Marks the fingerprints of all full stack traces in the sent data as sent.
+	 *
+	 * @param event
+	 *            the event instance
+	 */
+	private void handleDataSentEvent(DataSentEvent event) {
+		// nothing to confirm, no need to walk the data
+		if (0 == pendingFingerprints.size()) {
+			return;
+		}
+
+		for (DefaultData defaultData : event.getDataObjects()) {
+			confirmSent(defaultData);
+		}
+	}
+
+	/**
+	 * Removes the fingerprints requested by the CMR, so that the full stack traces are sent again.
+	 *
+	 * @param event
+	 *            the event instance
+	 */
+	private void handleAgentMessagesReceivedEvent(AgentMessagesReceivedEvent event) {
+		for (IAgentMessage<?> message : event.getAgentMessages()) {
+			if (message instanceof ResendStackTracesMessage) {
+				sentFingerprints.invalidateAll(((ResendStackTracesMessage) message).getMessageContent());
+			}
+		}
+	}
+
+	/**
+	 * Marks the fingerprints of the full stack traces in the given data as sent. Exception data in
+	 * invocation sequences is included.
+	 *
+	 * @param defaultData
+	 *            Sent data.
+	 */
+	private void confirmSent(DefaultData defaultData) {
+		if (defaultData instanceof ExceptionSensorData) {
+			ExceptionSensorData current = (ExceptionSensorData) defaultData;
+			while (null != current) {
+				if ((0 != current.getStackTraceFingerprint()) && (null != current.getStackTrace())) {
+					markSent(current.getStackTraceFingerprint());
+				}
+				current = current.getChild();
+			}
+		} else if (defaultData instanceof InvocationSequenceData) {
+			InvocationSequenceData invocation = (InvocationSequenceData) defaultData;
+			List<ExceptionSensorData> exceptionSensorDataObjects = invocation.getExceptionSensorDataObjects();
+			if (CollectionUtils.isNotEmpty(exceptionSensorDataObjects)) {
+				for (ExceptionSensorData exceptionSensorData : exceptionSensorDataObjects) {
+					confirmSent(exceptionSensorData);
+				}
+			}
+			List<InvocationSequenceData> nestedSequences = invocation.getNestedSequences();
+			if (CollectionUtils.isNotEmpty(nestedSequences)) {
+				for (InvocationSequenceData nested : nestedSequences) {
+					confirmSent(nested);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Mixes the value into the fingerprint.
+	 *
+	 * @param fingerprint
+	 *            Current fingerprint.
+	 * @param value
+	 *            Value to add.
+	 * @return New fingerprint.
+	 */
+	private long mix(long fingerprint, int value) {
+		return (fingerprint ^ (value & 0xffffffffL)) * FNV_PRIME;
+	}
+
+}
@@ -6,12 +6,15 @@ import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
+import javax.management.Attribute;
+import javax.management.AttributeList;
 import javax.management.AttributeNotFoundException;
 import javax.management.InstanceNotFoundException;
 import javax.management.IntrospectionException;
@@ -24,7 +27,6 @@ import javax.management.NotificationFilter;
 import javax.management.NotificationListener;
 import javax.management.ObjectName;
 import javax.management.ReflectionException;
-import javax.management.RuntimeMBeanException;
 
 import org.apache.commons.collections.MapUtils;
 import org.slf4j.Logger;
@@ -66,6 +68,12 @@ public class JmxSensor implements IJmxSensor, InitializingBean, DisposableBean {
 	 */
 	private static final int DATA_COLLECT_INTERVAL = 5000;
 
+	/**
+	 * Interval in milliseconds after which the value of the attribute is sent even if it did not
+	 * change.
+	 */
+	private static final long UNCHANGED_VALUE_RESEND_INTERVAL = 60000;
+
 	/**
 	 * Notification filter that listeners only to the MBeanServerNotification events.
 	 */
@@ -230,7 +238,10 @@ public class JmxSensor implements IJmxSensor, InitializingBean, DisposableBean {
 	}
 
 	/**
-	 * Collects the data from the MBean server in the holder and sends it to the CMR.
+	 * Collects the data from the MBean server in the holder and sends it to the CMR. Attributes
+	 * are read with one {@link MBeanServer#getAttributes(ObjectName, String[])} call per MBean.
+	 * Values that did not change since the last sending are not sent again until
+	 * {@link #UNCHANGED_VALUE_RESEND_INTERVAL} passes.
 	 *
 	 * @param holder
 	 *            {@link MBeanServerHolder} to collect data from
@@ -241,57 +252,150 @@ public class JmxSensor implements IJmxSensor, InitializingBean, DisposableBean {
 	 */
 	private void collectData(MBeanServerHolder holder, ICoreService coreService, long sensorTypeIdent) {
 		MBeanServer mBeanServer = holder.mBeanServer;
-		Map<JmxAttributeDescriptor, Boolean> activeAttributes = holder.activeAttributes;
+		Map<JmxAttributeDescriptor, AttributeState> activeAttributes = holder.activeAttributes;
 		Map<String, ObjectName> nameStringToObjectName = holder.nameStringToObjectName;
 
+		// group the active attributes per MBean
+		Map<ObjectName, List<JmxAttributeDescriptor>> descriptorsPerName = new HashMap<ObjectName, List<JmxAttributeDescriptor>>();
+		for (JmxAttributeDescriptor descriptor : activeAttributes.keySet()) {
+			ObjectName objectName = nameStringToObjectName.get(descriptor.getmBeanObjectName());
+			if (null == objectName) {
+				continue;
+			}
+			List<JmxAttributeDescriptor> descriptors = descriptorsPerName.get(objectName);
+			if (null == descriptors) {
+				descriptors = new ArrayList<JmxAttributeDescriptor>();
+				descriptorsPerName.put(objectName, descriptors);
+			}
+			descriptors.add(descriptor);
+		}
+
 		Timestamp timestamp = new Timestamp(Calendar.getInstance().getTime().getTime());
-		for (Iterator<JmxAttributeDescriptor> iterator = activeAttributes.keySet().iterator(); iterator.hasNext();) {
-			JmxAttributeDescriptor descriptor = iterator.next();
+		for (Map.Entry<ObjectName, List<JmxAttributeDescriptor>> entry : descriptorsPerName.entrySet()) {
+			ObjectName objectName = entry.getKey();
+			List<JmxAttributeDescriptor> descriptors = entry.getValue();
 
+			String[] attributeNames = new String[descriptors.size()];
+			for (int i = 0; i < attributeNames.length; i++) {
+				attributeNames[i] = descriptors.get(i).getAttributeName();
+			}
+
+			// attributes that can not be read are not included in the returned list
+			Map<String, Object> values = new HashMap<String, Object>(attributeNames.length);
 			try {
-				// Retrieving the value of the, in the JmxAttributeDescriptor specified,
-				// MBeanAttribute
-				ObjectName objectName = nameStringToObjectName.get(descriptor.getmBeanObjectName());
-				Object collectedValue = mBeanServer.getAttribute(objectName, descriptor.getAttributeName());
-
-				String value;
-				if (null == collectedValue) {
-					value = "null";
-				} else if (collectedValue.getClass().isArray()) {
-					value = getArrayValue(collectedValue);
+				AttributeList attributeList = mBeanServer.getAttributes(objectName, attributeNames);
+				if (null != attributeList) {
+					for (Object object : attributeList) {
+						Attribute attribute = (Attribute) object;
+						values.put(attribute.getName(), attribute.getValue());
+					}
+				}
+			} catch (InstanceNotFoundException e) {
+				for (JmxAttributeDescriptor descriptor : descriptors) {
+					activeAttributes.remove(descriptor);
+				}
+				log.warn("JMX::Instance not found. MBean may not be registered on the Server. Attributes removed from the actively read list.", e);
+				continue;
+			} catch (ReflectionException e) { // NOPMD
+				// read each attribute separately
+			} catch (RuntimeException e) { // NOPMD
+				// read each attribute separately
+			}
+
+			for (JmxAttributeDescriptor descriptor : descriptors) {
+				String attributeName = descriptor.getAttributeName();
+				Object collectedValue;
+				if (values.containsKey(attributeName)) {
+					collectedValue = values.get(attributeName);
 				} else {
-					value = collectedValue.toString();
+					// read separately to find out why it failed
+					try {
+						collectedValue = mBeanServer.getAttribute(objectName, attributeName);
+					} catch (Exception e) {
+						activeAttributes.remove(descriptor);
+						logCollectingException(descriptor, e);
+						continue;
+					}
 				}
 
-				// Create a new JmxSensorValueData to be saved into the database
-				long platformid = platformManager.getPlatformId();
-				JmxSensorValueData jsvd = new JmxSensorValueData(descriptor.getId(), value, timestamp, platformid, sensorTypeIdent);
+				AttributeState state = activeAttributes.get(descriptor);
+				if (null == state) {
+					continue;
+				}
 
-				coreService.addJmxSensorValueData(sensorTypeIdent, descriptor.getmBeanObjectName(), descriptor.getAttributeName(), jsvd);
-			} catch (AttributeNotFoundException e) {
-				iterator.remove();
-				log.warn("JMX::AttributeNotFound. Attribute was not found. Maybe currently not available on the server. Attribute removed from the actively read list.", e);
-			} catch (InstanceNotFoundException e) {
-				iterator.remove();
-				log.warn("JMX::Instance not found. MBean may not be registered on the Server. Attribute removed from the actively read list.", e);
-			} catch (MBeanException e) {
-				iterator.remove();
-				log.warn("JMX::MBean. Undefined problem with the MBean. Attribute removed from the actively read list.", e);
-			} catch (ReflectionException e) {
-				iterator.remove();
-				log.warn("JMX::Reflection error. MBean may not be registered on the Server. Attribute removed from the actively read list.", e);
-			} catch (RuntimeMBeanException e) {
-				iterator.remove();
-				log.warn("JMX::Runtime error reading the attribute " + descriptor.getAttributeName() + " from the MBean " + descriptor.getmBeanObjectName()
-				+ ". Attribute removed from the actively read list.", e);
-			} catch (IdNotAvailableException e) {
-				if (log.isDebugEnabled()) {
-					log.debug("JMX::IdNotAvailable. MBean may not be registered on the Server.", e);
+				try {
+					Object value = getTypedValue(collectedValue);
+					if (!state.isSendingNeeded(value, timestamp.getTime())) {
+						continue;
+					}
+
+					long platformId = platformManager.getPlatformId();
+					JmxSensorValueData jsvd;
+					if (value instanceof Long) {
+						jsvd = new JmxSensorValueData(descriptor.getId(), ((Long) value).longValue(), timestamp, platformId, sensorTypeIdent);
+					} else if (value instanceof Double) {
+						jsvd = new JmxSensorValueData(descriptor.getId(), ((Double) value).doubleValue(), timestamp, platformId, sensorTypeIdent);
+					} else {
+						jsvd = new JmxSensorValueData(descriptor.getId(), (String) value, timestamp, platformId, sensorTypeIdent);
+					}
+
+					coreService.addJmxSensorValueData(sensorTypeIdent, jsvd);
+					state.sent(value, timestamp.getTime());
+				} catch (IdNotAvailableException e) {
+					if (log.isDebugEnabled()) {
+						log.debug("JMX::IdNotAvailable. MBean may not be registered on the Server.", e);
+					}
 				}
 			}
 		}
 	}
 
+	/**
+	 * Logs the exception occurred during reading of the attribute.
+	 *
+	 * @param descriptor
+	 *            Descriptor of the attribute that was read.
+	 * @param e
+	 *            Exception thrown while reading.
+	 */
+	private void logCollectingException(JmxAttributeDescriptor descriptor, Exception e) {
+		if (e instanceof AttributeNotFoundException) {
+			log.warn("JMX::AttributeNotFound. Attribute was not found. Maybe currently not available on the server. Attribute removed from the actively read list.", e);
+		} else if (e instanceof InstanceNotFoundException) {
+			log.warn("JMX::Instance not found. MBean may not be registered on the Server. Attribute removed from the actively read list.", e);
+		} else if (e instanceof MBeanException) {
+			log.warn("JMX::MBean. Undefined problem with the MBean. Attribute removed from the actively read list.", e);
+		} else if (e instanceof ReflectionException) {
+			log.warn("JMX::Reflection error. MBean may not be registered on the Server. Attribute removed from the actively read list.", e);
+		} else {
+			log.warn("JMX::Runtime error reading the attribute " + descriptor.getAttributeName() + " from the MBean " + descriptor.getmBeanObjectName()
+			+ ". Attribute removed from the actively read list.", e);
+		}
+	}
+
+	/**
+	 * Returns the value to be sent for the collected attribute value. Integral numbers are
+	 * returned as {@link Long}, floating point numbers as {@link Double} and all other values as
+	 * {@link String}.
+	 *
+	 * @param collectedValue
+	 *            Value read from the MBean server.
+	 * @return {@link Long}, {@link Double} or {@link String} value.
+	 */
+	Object getTypedValue(Object collectedValue) {
+		if (null == collectedValue) {
+			return "null";
+		} else if ((collectedValue instanceof Long) || (collectedValue instanceof Integer) || (collectedValue instanceof Short) || (collectedValue instanceof Byte)) {
+			return Long.valueOf(((Number) collectedValue).longValue());
+		} else if ((collectedValue instanceof Double) || (collectedValue instanceof Float)) {
+			return Double.valueOf(((Number) collectedValue).doubleValue());
+		} else if (collectedValue.getClass().isArray()) {
+			return getArrayValue(collectedValue);
+		} else {
+			return collectedValue.toString();
+		}
+	}
+
 	/**
 	@Override
 	 * Registers all attributes of all object names that are returned as the result of querying with
@@ -304,7 +408,7 @@ public class JmxSensor implements IJmxSensor, InitializingBean, DisposableBean {
 	 */
 	private void registerMBeans(MBeanServerHolder holder, ObjectName mBeanName) {
 		MBeanServer mBeanServer = holder.mBeanServer;
-		Map<JmxAttributeDescriptor, Boolean> activeAttributes = holder.activeAttributes;
+		Map<JmxAttributeDescriptor, AttributeState> activeAttributes = holder.activeAttributes;
 		Map<String, ObjectName> nameStringToObjectName = holder.nameStringToObjectName;
 
 		// do nothing if connection is not there
@@ -345,7 +449,7 @@ public class JmxSensor implements IJmxSensor, InitializingBean, DisposableBean {
 
 			// add to active attributes
 			for (JmxAttributeDescriptor descriptor : toMonitor) {
-				activeAttributes.put(descriptor, Boolean.FALSE);
+				activeAttributes.put(descriptor, new AttributeState());
 			}
 			// if call is working add object names to the map
 			for (ObjectName name : allNames) {
@@ -432,9 +536,9 @@ public class JmxSensor implements IJmxSensor, InitializingBean, DisposableBean {
 		final Map<String, ObjectName> nameStringToObjectName = new ConcurrentHashMap<String, ObjectName>();
 
 		/**
-		 * Set of active attributes (represented as Map).
+		 * Active attributes with the state of the last sent value.
 		 */
-		final Map<JmxAttributeDescriptor, Boolean> activeAttributes = new ConcurrentHashMap<JmxAttributeDescriptor, Boolean>();
+		final Map<JmxAttributeDescriptor, AttributeState> activeAttributes = new ConcurrentHashMap<JmxAttributeDescriptor, AttributeState>();
 
 		/**
 		 * Default constructor.
@@ -478,4 +582,51 @@ public class JmxSensor implements IJmxSensor, InitializingBean, DisposableBean {
 
 	}
 
-}
\ No newline at end of file
+	/**
+	 * State of the active attribute holding the last sent value.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	static final class AttributeState {
+
+		/**
+		 * Last sent value or <code>null</code> if value was never sent.
+		 */
+		private Object lastValue;
+
+		/**
+		 * Time in milliseconds when the last value was sent.
+		 */
+		private long lastSentTime;
+
+		/**
+		 * Returns if the value needs to be sent. Value is sent if it is different than the last
+		 * sent value or if the last value was sent more than
+		 * {@link JmxSensor#UNCHANGED_VALUE_RESEND_INTERVAL} milliseconds ago.
+		 *
+		 * @param value
+		 *            Current value.
+		 * @param time
+		 *            Current time in milliseconds.
+		 * @return <code>true</code> if value should be sent
+		 */
+		boolean isSendingNeeded(Object value, long time) {
+			return !value.equals(lastValue) || ((time - lastSentTime) >= UNCHANGED_VALUE_RESEND_INTERVAL);
+		}
+
+		/**
+		 * Marks the value as sent.
+		 *
+		 * @param value
+		 *            Sent value.
+		 * @param time
+		 *            Time in milliseconds of sending.
+		 */
+		void sent(Object value, long time) {
+			this.lastValue = value;
+			this.lastSentTime = time;
+		}
+	}
+
+}
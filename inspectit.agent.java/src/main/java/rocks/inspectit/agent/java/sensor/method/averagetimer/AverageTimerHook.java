@@ -13,35 +13,31 @@ import rocks.inspectit.agent.java.core.ICoreService;
 import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.agent.java.core.IdNotAvailableException;
 import rocks.inspectit.agent.java.core.impl.CoreService;
-import rocks.inspectit.agent.java.hooking.IConstructorHook;
-import rocks.inspectit.agent.java.hooking.IMethodHook;
+import rocks.inspectit.agent.java.hooking.AgentThreadContext;
+import rocks.inspectit.agent.java.hooking.IContextConstructorHook;
+import rocks.inspectit.agent.java.hooking.IContextMethodHook;
+import rocks.inspectit.agent.java.util.DoubleStack;
 import rocks.inspectit.agent.java.util.StringConstraint;
-import rocks.inspectit.agent.java.util.ThreadLocalStack;
 import rocks.inspectit.agent.java.util.Timer;
 import rocks.inspectit.shared.all.communication.data.ParameterContentData;
 import rocks.inspectit.shared.all.communication.data.TimerData;
 
 /**
- * The hook implementation for the average timer sensor. It uses the {@link ThreadLocalStack} class
- * to save the time when the method was called. After the complete original method was executed, it
+ * The hook implementation for the average timer sensor. It uses the time stack of the
+ * {@link AgentThreadContext} to save the time when the method was called. After the complete original method was executed, it
  * computes the how long the method took to finish. Afterwards, the measurement is added to the
  * {@link CoreService}.
  *
  * @author Patrice Bouillet
  *
  */
-public class AverageTimerHook implements IMethodHook, IConstructorHook {
+public class AverageTimerHook implements IContextMethodHook, IContextConstructorHook {
 
 	/**
 	 * The logger of this class. Initialized manually.
 	 */
 	private static final Logger LOG = LoggerFactory.getLogger(AverageTimerHook.class);
 
-	/**
-	 * The stack containing the start time values.
-	 */
-	private final ThreadLocalStack<Double> timeStack = new ThreadLocalStack<Double>();
-
 	/**
 	 * The timer used for accurate measuring.
 	 */
@@ -86,7 +82,15 @@ public class AverageTimerHook implements IMethodHook, IConstructorHook {
 	 */
 	@Override
 	public void beforeBody(long methodId, long sensorTypeId, Object object, Object[] parameters, RegisteredSensorConfig rsc) {
-		timeStack.push(new Double(timer.getCurrentTime()));
+		beforeBody(AgentThreadContext.get(), methodId, sensorTypeId, object, parameters, rsc);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void beforeBody(AgentThreadContext context, long methodId, long sensorTypeId, Object object, Object[] parameters, RegisteredSensorConfig rsc) {
+		context.getTimeStack(AgentThreadContext.AVERAGE_TIMER_SLOT).push(timer.getCurrentTime());
 	}
 
 	/**
@@ -94,7 +98,15 @@ public class AverageTimerHook implements IMethodHook, IConstructorHook {
 	 */
 	@Override
 	public void firstAfterBody(long methodId, long sensorTypeId, Object object, Object[] parameters, Object result, RegisteredSensorConfig rsc) {
-		timeStack.push(new Double(timer.getCurrentTime()));
+		firstAfterBody(AgentThreadContext.get(), methodId, sensorTypeId, object, parameters, result, rsc);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void firstAfterBody(AgentThreadContext context, long methodId, long sensorTypeId, Object object, Object[] parameters, Object result, RegisteredSensorConfig rsc) {
+		context.getTimeStack(AgentThreadContext.AVERAGE_TIMER_SLOT).push(timer.getCurrentTime());
 	}
 
 	/**
@@ -102,8 +114,18 @@ public class AverageTimerHook implements IMethodHook, IConstructorHook {
 	 */
 	@Override
 	public void secondAfterBody(ICoreService coreService, long methodId, long sensorTypeId, Object object, Object[] parameters, Object result, RegisteredSensorConfig rsc) {
-		double endTime = timeStack.pop().doubleValue();
-		double startTime = timeStack.pop().doubleValue();
+		secondAfterBody(AgentThreadContext.get(), coreService, methodId, sensorTypeId, object, parameters, result, rsc);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void secondAfterBody(AgentThreadContext context, ICoreService coreService, long methodId, long sensorTypeId, Object object, Object[] parameters, Object result,
+			RegisteredSensorConfig rsc) {
+		DoubleStack timeStack = context.getTimeStack(AgentThreadContext.AVERAGE_TIMER_SLOT);
+		double endTime = timeStack.pop();
+		double startTime = timeStack.pop();
 		double duration = endTime - startTime;
 
 		List<ParameterContentData> parameterContentData = null;
@@ -154,7 +176,15 @@ public class AverageTimerHook implements IMethodHook, IConstructorHook {
 	 */
 	@Override
 	public void beforeConstructor(long methodId, long sensorTypeId, Object[] parameters, RegisteredSensorConfig rsc) {
-		timeStack.push(new Double(timer.getCurrentTime()));
+		beforeConstructor(AgentThreadContext.get(), methodId, sensorTypeId, parameters, rsc);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void beforeConstructor(AgentThreadContext context, long methodId, long sensorTypeId, Object[] parameters, RegisteredSensorConfig rsc) {
+		context.getTimeStack(AgentThreadContext.AVERAGE_TIMER_SLOT).push(timer.getCurrentTime());
 	}
 
 	/**
@@ -162,8 +192,16 @@ public class AverageTimerHook implements IMethodHook, IConstructorHook {
 	 */
 	@Override
 	public void afterConstructor(ICoreService coreService, long methodId, long sensorTypeId, Object object, Object[] parameters, RegisteredSensorConfig rsc) {
-		timeStack.push(new Double(timer.getCurrentTime()));
-		secondAfterBody(coreService, methodId, sensorTypeId, object, parameters, null, rsc);
+		afterConstructor(AgentThreadContext.get(), coreService, methodId, sensorTypeId, object, parameters, rsc);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void afterConstructor(AgentThreadContext context, ICoreService coreService, long methodId, long sensorTypeId, Object object, Object[] parameters, RegisteredSensorConfig rsc) {
+		context.getTimeStack(AgentThreadContext.AVERAGE_TIMER_SLOT).push(timer.getCurrentTime());
+		secondAfterBody(context, coreService, methodId, sensorTypeId, object, parameters, null, rsc);
 	}
 
 }
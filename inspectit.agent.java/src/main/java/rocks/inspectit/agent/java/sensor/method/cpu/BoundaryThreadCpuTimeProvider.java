@@ -0,0 +1,36 @@
+package rocks.inspectit.agent.java.sensor.method.cpu;
+
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Reads the CPU time from the {@link ThreadMXBean} only for the outermost measured call on the
+ * thread, which is the entry point where the invocation sequences usually start. The nested calls
+ * are measured without the CPU duration, so the expensive read happens only twice per request.
+ *
+ * @author Ivan Senic
+ *
+ */
+public class BoundaryThreadCpuTimeProvider extends JmxThreadCpuTimeProvider {
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param threadMXBean
+	 *            The bean used to access the cpu time.
+	 */
+	public BoundaryThreadCpuTimeProvider(ThreadMXBean threadMXBean) {
+		super(threadMXBean);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getCurrentThreadCpuTime(int depth) {
+		if (depth > 0) {
+			return -1L;
+		}
+		return super.getCurrentThreadCpuTime(depth);
+	}
+
+}
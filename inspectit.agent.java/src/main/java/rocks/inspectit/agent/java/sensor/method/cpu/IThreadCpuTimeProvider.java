@@ -0,0 +1,32 @@
+package rocks.inspectit.agent.java.sensor.method.cpu;
+
+/**
+ * Provides the CPU time of the current thread to the hooks measuring the CPU duration of the
+ * methods. The implementations differ in how exact the value is and what the reading costs.
+ *
+ * @author Ivan Senic
+ *
+ */
+public interface IThreadCpuTimeProvider {
+
+	/**
+	 * Returns if the CPU time is available at all. Hooks should not ask for the CPU time if this
+	 * returns <code>false</code>.
+	 *
+	 * @return If the CPU time is available.
+	 */
+	boolean isEnabled();
+
+	/**
+	 * Returns the CPU time of the current thread in nanoseconds.
+	 *
+	 * @param depth
+	 *            Amount of the not finished measurements of the calling hook on the current
+	 *            thread, not counting the one this time is read for. Zero denotes the outermost
+	 *            measured call.
+	 * @return CPU time of the current thread in nanoseconds or a negative number if the CPU time
+	 *         is not measured for the call at the given depth.
+	 */
+	long getCurrentThreadCpuTime(int depth);
+
+}
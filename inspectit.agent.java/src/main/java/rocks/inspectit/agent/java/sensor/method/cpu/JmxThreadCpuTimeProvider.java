@@ -0,0 +1,77 @@
+package rocks.inspectit.agent.java.sensor.method.cpu;
+
+import java.lang.management.ThreadMXBean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads the CPU time from the {@link ThreadMXBean} on every request. Most exact, but also the most
+ * expensive provider.
+ *
+ * @author Ivan Senic
+ *
+ */
+public class JmxThreadCpuTimeProvider implements IThreadCpuTimeProvider {
+
+	/**
+	 * The logger of this class. Initialized manually.
+	 */
+	private static final Logger LOG = LoggerFactory.getLogger(JmxThreadCpuTimeProvider.class);
+
+	/**
+	 * The thread MX bean.
+	 */
+	protected final ThreadMXBean threadMXBean;
+
+	/**
+	 * Defines if the thread CPU time is supported and enabled.
+	 */
+	private boolean enabled = false;
+
+	/**
+	 * Default constructor. Tries to enable the thread CPU time if it is supported, but not
+	 * enabled.
+	 *
+	 * @param threadMXBean
+	 *            The bean used to access the cpu time.
+	 */
+	public JmxThreadCpuTimeProvider(ThreadMXBean threadMXBean) {
+		this.threadMXBean = threadMXBean;
+
+		try {
+			// if it is even supported by this JVM
+			if (threadMXBean.isThreadCpuTimeSupported()) {
+				// check if its enabled
+				enabled = threadMXBean.isThreadCpuTimeEnabled();
+				if (!enabled) {
+					// try to enable it
+					threadMXBean.setThreadCpuTimeEnabled(true);
+					// check again now if it is enabled now
+					enabled = threadMXBean.isThreadCpuTimeEnabled();
+				}
+			}
+		} catch (RuntimeException e) {
+			// catching the runtime exceptions which could be thrown by the
+			// above statements.
+			LOG.warn("Your environment does not support to capture CPU timings.", e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getCurrentThreadCpuTime(int depth) {
+		return threadMXBean.getCurrentThreadCpuTime();
+	}
+
+}
@@ -0,0 +1,46 @@
+package rocks.inspectit.agent.java.sensor.method.cpu;
+
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Returns the CPU time of the current thread last sampled by the {@link ThreadCpuTimeSampler}, so
+ * that the measured thread only performs a volatile read. The CPU time consumed between two samples
+ * is thus attributed to the calls running at the sample time, which is correct in the statistical
+ * sense: calls shorter than the period mostly report zero and sometimes one period worth of CPU
+ * time.
+ *
+ * @author Ivan Senic
+ *
+ */
+public class SampledThreadCpuTimeProvider extends JmxThreadCpuTimeProvider {
+
+	/**
+	 * Sampler shared by all sampled providers.
+	 */
+	private final ThreadCpuTimeSampler sampler;
+
+	/**
+	 * Default constructor. Starts the sampling if the CPU time is enabled.
+	 *
+	 * @param threadMXBean
+	 *            The bean used to check if the cpu time is enabled.
+	 * @param sampler
+	 *            Sampler providing the sampled CPU time.
+	 */
+	public SampledThreadCpuTimeProvider(ThreadMXBean threadMXBean, ThreadCpuTimeSampler sampler) {
+		super(threadMXBean);
+		this.sampler = sampler;
+		if (isEnabled()) {
+			sampler.start();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getCurrentThreadCpuTime(int depth) {
+		return sampler.getCurrentThreadCpuTime();
+	}
+
+}
@@ -0,0 +1,100 @@
+package rocks.inspectit.agent.java.sensor.method.cpu;
+
+import java.lang.management.ThreadMXBean;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates the {@link IThreadCpuTimeProvider} based on the sensor parameters.
+ *
+ * @author Ivan Senic
+ *
+ */
+public final class ThreadCpuTimeProviderFactory {
+
+	/**
+	 * Parameter key for the CPU timing mode.
+	 */
+	public static final String CPU_TIMING = "cputiming";
+
+	/**
+	 * No CPU timing.
+	 */
+	public static final String MODE_OFF = "off";
+
+	/**
+	 * CPU time read with JMX on every measured call, default.
+	 */
+	public static final String MODE_JMX = "jmx";
+
+	/**
+	 * CPU time read with JMX only for the outermost measured call.
+	 */
+	public static final String MODE_BOUNDARY = "boundary";
+
+	/**
+	 * CPU time sampled periodically per thread.
+	 */
+	public static final String MODE_SAMPLED = "sampled";
+
+	/**
+	 * The logger of this class. Initialized manually.
+	 */
+	private static final Logger LOG = LoggerFactory.getLogger(ThreadCpuTimeProviderFactory.class);
+
+	/**
+	 * Provider used when the CPU timing is off.
+	 */
+	private static final IThreadCpuTimeProvider DISABLED = new IThreadCpuTimeProvider() {
+
+		@Override
+		public boolean isEnabled() {
+			return false;
+		}
+
+		@Override
+		public long getCurrentThreadCpuTime(int depth) {
+			return -1L;
+		}
+	};
+
+	/**
+	 * Private constructor.
+	 */
+	private ThreadCpuTimeProviderFactory() {
+	}
+
+	/**
+	 * Creates the provider for the mode defined in the parameters with the {@link #CPU_TIMING}
+	 * key. {@link #MODE_JMX} is used if the mode is not defined.
+	 *
+	 * @param parameters
+	 *            Sensor parameters, can be <code>null</code>.
+	 * @param threadMXBean
+	 *            The bean used to access the cpu time.
+	 * @param sampler
+	 *            Sampler for the {@link #MODE_SAMPLED}, if <code>null</code> the
+	 *            {@link #MODE_JMX} is used instead.
+	 * @return {@link IThreadCpuTimeProvider}
+	 */
+	public static IThreadCpuTimeProvider createProvider(Map<String, Object> parameters, ThreadMXBean threadMXBean, ThreadCpuTimeSampler sampler) {
+		Object mode = (null != parameters) ? parameters.get(CPU_TIMING) : null;
+
+		if (MODE_OFF.equals(mode)) {
+			return DISABLED;
+		} else if (MODE_BOUNDARY.equals(mode)) {
+			return new BoundaryThreadCpuTimeProvider(threadMXBean);
+		} else if (MODE_SAMPLED.equals(mode)) {
+			if (null != sampler) {
+				return new SampledThreadCpuTimeProvider(threadMXBean, sampler);
+			}
+			LOG.warn("No sampler available for sampling the thread CPU time, reading the CPU time on every call instead.");
+		} else if ((null != mode) && !MODE_JMX.equals(mode)) {
+			LOG.warn("Unknown CPU timing mode " + mode + ", reading the CPU time on every call instead.");
+		}
+		return new JmxThreadCpuTimeProvider(threadMXBean);
+	}
+
+}
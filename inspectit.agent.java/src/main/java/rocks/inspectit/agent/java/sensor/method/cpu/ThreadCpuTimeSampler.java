@@ -0,0 +1,178 @@
+package rocks.inspectit.agent.java.sensor.method.cpu;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Samples the CPU time of the measured threads periodically in the background for all
+ * {@link SampledThreadCpuTimeProvider}s. The sampling runs on its own executor and is started only
+ * when the first provider needs it, so that one sampling task exists no matter how many sensors use
+ * the sampled CPU timing.
+ *
+ * @author Ivan Senic
+ *
+ */
+@Component
+public class ThreadCpuTimeSampler implements Runnable, DisposableBean {
+
+	/**
+	 * Sampling period in milliseconds.
+	 */
+	static final long PERIOD = 10L;
+
+	/**
+	 * The logger of this class. Initialized manually.
+	 */
+	private static final Logger LOG = LoggerFactory.getLogger(ThreadCpuTimeSampler.class);
+
+	/**
+	 * Executor service running the sampling.
+	 */
+	@Autowired
+	@Qualifier("threadCpuTimeSamplerExecutorService")
+	private ScheduledExecutorService executorService;
+
+	/**
+	 * The thread MX bean.
+	 */
+	ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+	/**
+	 * Sample of the current thread.
+	 */
+	private final ThreadLocal<ThreadSample> threadSample = new ThreadLocal<ThreadSample>();
+
+	/**
+	 * Samples of all threads that requested the CPU time.
+	 */
+	private final Queue<ThreadSample> samples = new ConcurrentLinkedQueue<ThreadSample>();
+
+	/**
+	 * Scheduled sampling task, <code>null</code> if sampling is not started.
+	 */
+	private ScheduledFuture<?> samplingTask;
+
+	/**
+	 * No-arg constructor needed for Spring.
+	 */
+	public ThreadCpuTimeSampler() {
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param executorService
+	 *            Executor service running the sampling.
+	 */
+	public ThreadCpuTimeSampler(ScheduledExecutorService executorService) {
+		this.executorService = executorService;
+	}
+
+	/**
+	 * Starts the sampling if it's not already started.
+	 */
+	public synchronized void start() {
+		if (null == samplingTask) {
+			samplingTask = executorService.scheduleAtFixedRate(this, PERIOD, PERIOD, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Returns the last sampled CPU time of the current thread. The first request of a thread reads
+	 * the exact value and registers the thread for sampling.
+	 *
+	 * @return CPU time in nanoseconds.
+	 */
+	public long getCurrentThreadCpuTime() {
+		ThreadSample sample = threadSample.get();
+		if (null == sample) {
+			sample = new ThreadSample(Thread.currentThread().getId(), threadMXBean.getCurrentThreadCpuTime());
+			threadSample.set(sample);
+			samples.add(sample);
+		}
+		return sample.cpuTime;
+	}
+
+	/**
+	 * Samples the CPU time of all registered threads and removes the terminated ones.
+	 */
+	@Override
+	public void run() {
+		try {
+			Iterator<ThreadSample> iterator = samples.iterator();
+			while (iterator.hasNext()) {
+				ThreadSample sample = iterator.next();
+				long cpuTime = threadMXBean.getThreadCpuTime(sample.threadId);
+				if (cpuTime < 0) {
+					// thread is not alive any more
+					iterator.remove();
+				} else {
+					sample.cpuTime = cpuTime;
+				}
+			}
+		} catch (RuntimeException e) {
+			// don't let the exception cancel the sampling
+			LOG.warn("Error sampling the thread CPU time.", e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Stops the sampling.
+	 */
+	@Override
+	public synchronized void destroy() throws Exception {
+		if (null != samplingTask) {
+			samplingTask.cancel(false);
+			samplingTask = null; // NOPMD
+		}
+		samples.clear();
+	}
+
+	/**
+	 * Last sampled CPU time of one thread.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	private static class ThreadSample {
+
+		/**
+		 * Id of the thread.
+		 */
+		private final long threadId;
+
+		/**
+		 * Last sampled CPU time in nanoseconds.
+		 */
+		private volatile long cpuTime;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param threadId
+		 *            Id of the thread.
+		 * @param cpuTime
+		 *            Initial CPU time.
+		 */
+		ThreadSample(long threadId, long cpuTime) {
+			this.threadId = threadId;
+			this.cpuTime = cpuTime;
+		}
+	}
+
+}
@@ -1,18 +1,21 @@
 package rocks.inspectit.agent.java.sensor.method.http;
 
-import java.lang.management.ThreadMXBean;
 import java.sql.Timestamp;
 import java.util.Map;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentMap;
 
+import org.apache.commons.lang.math.NumberUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.cache.CacheBuilder;
+
 import rocks.inspectit.agent.java.config.impl.RegisteredSensorConfig;
 import rocks.inspectit.agent.java.core.ICoreService;
 import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.agent.java.core.IdNotAvailableException;
 import rocks.inspectit.agent.java.hooking.IMethodHook;
+import rocks.inspectit.agent.java.sensor.method.cpu.IThreadCpuTimeProvider;
 import rocks.inspectit.agent.java.sensor.method.timer.TimerHook;
 import rocks.inspectit.agent.java.util.ClassUtil;
 import rocks.inspectit.agent.java.util.StringConstraint;
@@ -54,19 +57,14 @@ public class HttpHook implements IMethodHook {
 	private final IPlatformManager platformManager;
 
 	/**
-	 * The thread MX bean.
+	 * Provider of the thread CPU time.
 	 */
-	private final ThreadMXBean threadMXBean;
-
-	/**
-	 * Defines if the thread CPU time is supported.
-	 */
-	private boolean threadCPUTimeJMXAvailable = false;
+	private final IThreadCpuTimeProvider cpuTimeProvider;
 
 	/**
 	 * Defines if the thread CPU time is enabled.
 	 */
-	private boolean threadCPUTimeEnabled = false;
+	private final boolean threadCPUTimeEnabled;
 
 	/**
 	 * The stack containing the start time values.
@@ -83,6 +81,13 @@ public class HttpHook implements IMethodHook {
 	 */
 	private final boolean captureSessionData;
 
+	/**
+	 * Duration threshold in milliseconds. The attributes, headers and session attributes are
+	 * captured only for the requests with the duration bigger than the threshold. Zero means that
+	 * they are always captured.
+	 */
+	private final long detailsCaptureThreshold;
+
 	/**
 	 * Expected name of the HttpServletRequest interface.
 	 */
@@ -94,32 +99,18 @@ public class HttpHook implements IMethodHook {
 	private static final String HTTP_SERVLET_RESPONSE_CLASS = "javax.servlet.http.HttpServletResponse";
 
 	/**
-	 * Whitelist that contains all classes that we already checked if they provide
-	 * HttpServletMetrics and do. We are talking about the class of the ServletRequest here. This
-	 * list is extended if a new Class that provides this interface is found.
-	 */
-	private static final CopyOnWriteArrayList<Class<?>> HTTP_REQUEST_WHITE_LIST = new CopyOnWriteArrayList<Class<?>>();
-
-	/**
-	 * Blacklist that contains all classes that we already checked if they provide
-	 * HttpServletMetrics and do not. We are talking about the class of the ServletRequest here.
-	 * This list is extended if a new Class that does not provides this interface is found.
+	 * Cache of the ServletRequest classes that we already checked if they provide
+	 * HttpServletMetrics. Value denotes if the class provides it. Weak keys ensure identity based
+	 * lookup and that classes can be unloaded.
 	 */
-	private static final CopyOnWriteArrayList<Class<?>> HTTP_REQUEST_BLACK_LIST = new CopyOnWriteArrayList<Class<?>>();
+	private static final ConcurrentMap<Class<?>, Boolean> HTTP_REQUEST_CLASSES = CacheBuilder.newBuilder().weakKeys().<Class<?>, Boolean> build().asMap();
 
 	/**
-	 * Whitelist that contains all classes that we already checked if they provide
-	 * HttpServletMetrics and do. We are talking about the class of the ServletResponse here. This
-	 * list is extended if a new Class that provides this interface is found.
+	 * Cache of the ServletResponse classes that we already checked if they provide
+	 * HttpServletMetrics. Value denotes if the class provides it. Weak keys ensure identity based
+	 * lookup and that classes can be unloaded.
 	 */
-	private static final CopyOnWriteArrayList<Class<?>> HTTP_RESPONSE_WHITE_LIST = new CopyOnWriteArrayList<Class<?>>();
-
-	/**
-	 * Blacklist that contains all classes that we already checked if they provide
-	 * HttpServletMetrics and do not. We are talking about the class of the ServletResponse here.
-	 * This list is extended if a new Class that does not provides this interface is found.
-	 */
-	private static final CopyOnWriteArrayList<Class<?>> HTTP_RESPONSE_BLACK_LIST = new CopyOnWriteArrayList<Class<?>>();
+	private static final ConcurrentMap<Class<?>, Boolean> HTTP_RESPONSE_CLASSES = CacheBuilder.newBuilder().weakKeys().<Class<?>, Boolean> build().asMap();
 
 	/**
 	 * Helps us to ensure that we only store on http metric per request.
@@ -133,15 +124,16 @@ public class HttpHook implements IMethodHook {
 	 *            The timer
 	 * @param platformManager
 	 *            The Platform manager
-	 * @param threadMXBean
-	 *            the threadMx Bean for cpu timing
 	 * @param parameters
 	 *            the map containing the configuration parameters
+	 * @param cpuTimeProvider
+	 *            provider of the thread CPU time
 	 */
-	public HttpHook(Timer timer, IPlatformManager platformManager, Map<String, Object> parameters, ThreadMXBean threadMXBean) {
+	public HttpHook(Timer timer, IPlatformManager platformManager, Map<String, Object> parameters, IThreadCpuTimeProvider cpuTimeProvider) {
 		this.timer = timer;
 		this.platformManager = platformManager;
-		this.threadMXBean = threadMXBean;
+		this.cpuTimeProvider = cpuTimeProvider;
+		this.threadCPUTimeEnabled = cpuTimeProvider.isEnabled();
 		this.extractor = new HttpInformationExtractor(new StringConstraint(parameters));
 
 		if ((null != parameters) && "true".equals(parameters.get("sessioncapture"))) {
@@ -153,23 +145,10 @@ public class HttpHook implements IMethodHook {
 			captureSessionData = false;
 		}
 
-		try {
-			// if it is even supported by this JVM
-			threadCPUTimeJMXAvailable = threadMXBean.isThreadCpuTimeSupported();
-			if (threadCPUTimeJMXAvailable) {
-				// check if its enabled
-				threadCPUTimeEnabled = threadMXBean.isThreadCpuTimeEnabled();
-				if (!threadCPUTimeEnabled) {
-					// try to enable it
-					threadMXBean.setThreadCpuTimeEnabled(true);
-					// check again now if it is enabled now
-					threadCPUTimeEnabled = threadMXBean.isThreadCpuTimeEnabled();
-				}
-			}
-		} catch (RuntimeException e) {
-			// catching the runtime exceptions which could be thrown by the
-			// above statements.
-			LOG.warn("Your environment does not support to capture CPU timings.");
+		if (null != parameters) {
+			detailsCaptureThreshold = NumberUtils.toLong(String.valueOf(parameters.get("detailscapturethreshold")), 0L);
+		} else {
+			detailsCaptureThreshold = 0L;
 		}
 	}
 
@@ -203,7 +182,8 @@ public class HttpHook implements IMethodHook {
 					// timer would be off - resulting in very strange results.
 					timeStack.push(new Double(timer.getCurrentTime()));
 					if (threadCPUTimeEnabled) {
-						threadCpuTimeStack.push(Long.valueOf(threadMXBean.getCurrentThreadCpuTime()));
+						// only the first servlet call is measured, thus it's always the outermost
+						threadCpuTimeStack.push(Long.valueOf(cpuTimeProvider.getCurrentThreadCpuTime(0)));
 					}
 
 					// Mark first invocation
@@ -235,7 +215,7 @@ public class HttpHook implements IMethodHook {
 			// Get the timer and store it.
 			timeStack.push(new Double(timer.getCurrentTime()));
 			if (threadCPUTimeEnabled) {
-				threadCpuTimeStack.push(Long.valueOf(threadMXBean.getCurrentThreadCpuTime()));
+				threadCpuTimeStack.push(Long.valueOf(cpuTimeProvider.getCurrentThreadCpuTime(0)));
 			}
 		}
 	}
@@ -272,7 +252,9 @@ public class HttpHook implements IMethodHook {
 						if (threadCPUTimeEnabled) {
 							long cpuEndTime = threadCpuTimeStack.pop().longValue();
 							long cpuStartTime = threadCpuTimeStack.pop().longValue();
-							cpuDuration = (cpuEndTime - cpuStartTime) / 1000000.0d;
+							if ((cpuStartTime >= 0) && (cpuEndTime >= 0)) {
+								cpuDuration = (cpuEndTime - cpuStartTime) / 1000000.0d;
+							}
 						}
 
 						long platformId = platformManager.getPlatformId();
@@ -298,10 +280,13 @@ public class HttpHook implements IMethodHook {
 						data.getHttpInfo().setUri(extractor.getRequestUri(servletRequestClass, httpServletRequest));
 						data.getHttpInfo().setRequestMethod(extractor.getRequestMethod(servletRequestClass, httpServletRequest));
 						data.setParameters(extractor.getParameterMap(servletRequestClass, httpServletRequest));
-						data.setAttributes(extractor.getAttributes(servletRequestClass, httpServletRequest));
-						data.setHeaders(extractor.getHeaders(servletRequestClass, httpServletRequest));
-						if (captureSessionData) {
-							data.setSessionAttributes(extractor.getSessionAttributes(servletRequestClass, httpServletRequest));
+						// details are only needed for slow requests if threshold is set
+						if (duration >= detailsCaptureThreshold) {
+							data.setAttributes(extractor.getAttributes(servletRequestClass, httpServletRequest));
+							data.setHeaders(extractor.getHeaders(servletRequestClass, httpServletRequest));
+							if (captureSessionData) {
+								data.setSessionAttributes(extractor.getSessionAttributes(servletRequestClass, httpServletRequest));
+							}
 						}
 
 						// Include HTTP response information
@@ -331,7 +316,7 @@ public class HttpHook implements IMethodHook {
 	 * @return whether or not the HttpServletRequest interface is realized.
 	 */
 	private boolean providesHttpRequestMetrics(Class<?> c) {
-		return implementsInterface(c, HTTP_SERVLET_REQUEST_CLASS, HTTP_REQUEST_WHITE_LIST, HTTP_REQUEST_BLACK_LIST);
+		return implementsInterface(c, HTTP_SERVLET_REQUEST_CLASS, HTTP_REQUEST_CLASSES);
 	}
 
 	/**
@@ -343,7 +328,7 @@ public class HttpHook implements IMethodHook {
 	 * @return whether or not the HttpServletResponse interface is realized.
 	 */
 	private boolean providesHttpResponseMetrics(Class<?> c) {
-		return implementsInterface(c, HTTP_SERVLET_RESPONSE_CLASS, HTTP_RESPONSE_WHITE_LIST, HTTP_RESPONSE_BLACK_LIST);
+		return implementsInterface(c, HTTP_SERVLET_RESPONSE_CLASS, HTTP_RESPONSE_CLASSES);
 	}
 
 	/**
@@ -353,29 +338,17 @@ public class HttpHook implements IMethodHook {
 	 *            The class to check.
 	 * @param interfaceName
 	 *            The name of the target interface.
-	 * @param whiteList
-	 *            A whitelist (cache) of classes from which we know that they implement the
-	 *            interface.
-	 * @param blackList
-	 *            A blacklist (cache) of classes from which we know that they do not implement the
-	 *            interface.
+	 * @param checkedClasses
+	 *            A cache of classes from which we know if they implement the interface.
 	 * @return True, if the given class implements the given interface.
 	 */
-	private boolean implementsInterface(Class<?> c, String interfaceName, CopyOnWriteArrayList<Class<?>> whiteList, CopyOnWriteArrayList<Class<?>> blackList) {
-		if (whiteList.contains(c)) {
-			return true;
-		}
-		if (blackList.contains(c)) {
-			return false;
-		}
-		Class<?> intf = ClassUtil.searchInterface(c, interfaceName);
-		if (null != intf) {
-			whiteList.addIfAbsent(c);
-			return true;
-		} else {
-			blackList.addIfAbsent(c);
-			return false;
+	private boolean implementsInterface(Class<?> c, String interfaceName, ConcurrentMap<Class<?>, Boolean> checkedClasses) {
+		Boolean implementsInterface = checkedClasses.get(c);
+		if (null == implementsInterface) {
+			implementsInterface = Boolean.valueOf(null != ClassUtil.searchInterface(c, interfaceName));
+			checkedClasses.put(c, implementsInterface);
 		}
+		return implementsInterface.booleanValue();
 	}
 
 }
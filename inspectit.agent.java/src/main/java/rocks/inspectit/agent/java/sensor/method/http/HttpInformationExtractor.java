@@ -5,11 +5,14 @@ import java.lang.reflect.Method;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.cache.CacheBuilder;
+
 import rocks.inspectit.agent.java.util.StringConstraint;
 import rocks.inspectit.shared.all.communication.data.HttpInfo;
 
@@ -32,17 +35,19 @@ class HttpInformationExtractor {
 	private StringConstraint strConstraint;
 
 	/**
-	 * Marker method. This method severs for marking the cache key in {@link #methodCache} as
-	 * unavailable. Since we can not put <code>null</code> to a {@link ConcurrentHashMap} we need to
-	 * put some method to serve as a marker.
+	 * Marker method. This method severs for marking the method in the {@link #methodCache} as
+	 * unavailable. Since <code>null</code> denotes the method that was not looked up yet we need
+	 * to put some method to serve as a marker.
 	 */
 	private Method markerMethod;
 
 	/**
-	 * Keeps track of already looked up <code>Method</code> objects for faster access. Get and Put
-	 * operations are synchronized by the concurrent hash map.
+	 * Keeps track of already looked up <code>Method</code> objects for faster access. Each class
+	 * has the array of methods indexed by the {@link HttpMethods#ordinal()}, thus retrieving the
+	 * method needs only one identity based lookup of the class. Weak keys ensure that classes can
+	 * be unloaded.
 	 */
-	private ConcurrentHashMap<String, Method> methodCache = new ConcurrentHashMap<String, Method>();
+	private ConcurrentMap<Class<?>, AtomicReferenceArray<Method>> methodCache = CacheBuilder.newBuilder().weakKeys().<Class<?>, AtomicReferenceArray<Method>> build().asMap();
 
 	/**
 	 * Structure to store all necessary methods that we can invoke to get http information. These
@@ -390,45 +395,41 @@ class HttpInformationExtractor {
 	 * @return the <code>Method</code> object or <code>null</code> if the method cannot be found.
 	 */
 	private Method retrieveMethod(HttpMethods httpMethod, Class<?> clazzUsedToLookup) {
-		String cacheLookupName = getCacheLookupName(httpMethod, clazzUsedToLookup);
-		Method m = methodCache.get(cacheLookupName);
+		AtomicReferenceArray<Method> methods = methodCache.get(clazzUsedToLookup);
+		if (null == methods) {
+			methods = new AtomicReferenceArray<Method>(HttpMethods.values().length);
+			AtomicReferenceArray<Method> existing = methodCache.putIfAbsent(clazzUsedToLookup, methods);
+			if (null != existing) {
+				methods = existing;
+			}
+		}
+
+		int index = httpMethod.ordinal();
+		Method m = methods.get(index);
 
 		if (null == m) {
 			// We do not yet have the method in the Cache
 			try {
 				m = clazzUsedToLookup.getMethod(httpMethod.methodName, httpMethod.parameters);
 				m.setAccessible(true);
-				Method existing = methodCache.putIfAbsent(cacheLookupName, m);
-				if (null != existing) {
-					m = existing;
+				if (!methods.compareAndSet(index, null, m)) {
+					m = methods.get(index);
 				}
 			} catch (Exception e) {
 				LOG.error("The provided class " + clazzUsedToLookup.getCanonicalName() + " did not provide the desired method.", e);
 
 				// Do not try to look up every time.
-				// Can not place null as value anyway
-				methodCache.putIfAbsent(cacheLookupName, markerMethod);
+				methods.compareAndSet(index, null, markerMethod);
+				return null;
 			}
-		} else if (markerMethod.equals(m)) {
-			return null;
 		}
 
+		if (markerMethod == m) {
+			return null;
+		}
 		return m;
 	}
 
-	/**
-	 * Generates and return a lookup name for the cache.
-	 *
-	 * @param httpMethod
-	 *            the Method to lookup
-	 * @param clazz
-	 *            the concrete class to lookup the method upon.
-	 * @return the generated lookup name.
-	 */
-	private String getCacheLookupName(HttpMethods httpMethod, Class<?> clazz) {
-		return clazz.getCanonicalName() + '#' + httpMethod.methodName;
-	}
-
 	/**
 	 * Utility method that checks if the attribute provided is an Array, and if it so, formats the
 	 * return String in the human-readable form. If the attribute is not an Array, the
@@ -9,6 +9,8 @@ import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.agent.java.hooking.IHook;
 import rocks.inspectit.agent.java.sensor.method.AbstractMethodSensor;
 import rocks.inspectit.agent.java.sensor.method.IMethodSensor;
+import rocks.inspectit.agent.java.sensor.method.cpu.ThreadCpuTimeProviderFactory;
+import rocks.inspectit.agent.java.sensor.method.cpu.ThreadCpuTimeSampler;
 import rocks.inspectit.agent.java.util.Timer;
 
 /**
@@ -35,6 +37,12 @@ public class HttpSensor extends AbstractMethodSensor implements IMethodSensor {
 	@Autowired
 	private IPlatformManager platformManager;
 
+	/**
+	 * Sampler of the thread CPU time.
+	 */
+	@Autowired(required = false)
+	private ThreadCpuTimeSampler threadCpuTimeSampler;
+
 	/**
 	 * No-arg constructor needed for Spring.
 	 */
@@ -59,7 +67,7 @@ public class HttpSensor extends AbstractMethodSensor implements IMethodSensor {
 	 */
 	@Override
 	protected void initHook(Map<String, Object> parameters) {
-		hook = new HttpHook(timer, platformManager, parameters, ManagementFactory.getThreadMXBean());
+		hook = new HttpHook(timer, platformManager, parameters, ThreadCpuTimeProviderFactory.createProvider(parameters, ManagementFactory.getThreadMXBean(), threadCpuTimeSampler));
 	}
 
 	/**
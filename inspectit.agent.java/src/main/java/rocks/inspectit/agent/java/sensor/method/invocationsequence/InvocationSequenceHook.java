@@ -7,6 +7,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang.math.NumberUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -18,8 +19,9 @@ import rocks.inspectit.agent.java.core.IObjectStorage;
 import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.agent.java.core.IdNotAvailableException;
 import rocks.inspectit.agent.java.core.ListListener;
-import rocks.inspectit.agent.java.hooking.IConstructorHook;
-import rocks.inspectit.agent.java.hooking.IMethodHook;
+import rocks.inspectit.agent.java.hooking.AgentThreadContext;
+import rocks.inspectit.agent.java.hooking.IContextConstructorHook;
+import rocks.inspectit.agent.java.hooking.IContextMethodHook;
 import rocks.inspectit.agent.java.sending.ISendingStrategy;
 import rocks.inspectit.agent.java.sensor.exception.ExceptionSensor;
 import rocks.inspectit.agent.java.sensor.method.IMethodSensor;
@@ -27,8 +29,8 @@ import rocks.inspectit.agent.java.sensor.method.jdbc.ConnectionSensor;
 import rocks.inspectit.agent.java.sensor.method.jdbc.PreparedStatementParameterSensor;
 import rocks.inspectit.agent.java.sensor.method.jdbc.PreparedStatementSensor;
 import rocks.inspectit.agent.java.sensor.method.logging.Log4JLoggingSensor;
+import rocks.inspectit.agent.java.util.DoubleStack;
 import rocks.inspectit.agent.java.util.StringConstraint;
-import rocks.inspectit.agent.java.util.ThreadLocalStack;
 import rocks.inspectit.agent.java.util.Timer;
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.communication.MethodSensorData;
@@ -46,18 +48,28 @@ import rocks.inspectit.shared.all.instrumentation.config.impl.MethodSensorTypeCo
 import rocks.inspectit.shared.all.instrumentation.config.impl.PlatformSensorTypeConfig;
 
 /**
- * The invocation sequence hook stores the record of the invocation sequences in a
- * {@link ThreadLocal} object.
+ * The invocation sequence hook stores the record of the invocation sequences in the
+ * {@link AgentThreadContext} of the current thread.
  * <p>
  * This hook implements the {@link ICoreService} interface which simulates the core service to all
  * other hooks which are called during the execution of this invocation. The
  * <code>defaultCoreService</code> field is used to delegate some calls directly to the original
  * core service and later sending of the data to the server.
+ * <p>
+ * If sampling is defined for the starting method, the {@link InvocationSequenceSampler} decides at
+ * the start of the sequence if it is recorded. For the not sampled sequences no data objects are
+ * created and the data of all nested sensors is dropped until the starting method ends.
+ * <p>
+ * The size of the recorded tree can be bounded with the <code>maxchildren</code> and
+ * <code>maxdepth</code> parameters. Calls exceeding the limits are not recorded as separate nodes,
+ * but summarized per method in one node attached to the last recorded node. The summary node holds
+ * the timer with the count and durations of the summarized calls and the aggregated SQL statement
+ * data.
  *
  * @author Patrice Bouillet
  *
  */
-public class InvocationSequenceHook implements IMethodHook, IConstructorHook, ICoreService {
+public class InvocationSequenceHook implements IContextMethodHook, IContextConstructorHook, ICoreService {
 
 	/**
 	 * The logger of this class. Initialized manually.
@@ -75,47 +87,39 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 	private final IPropertyAccessor propertyAccessor;
 
 	/**
-	 * The {@link ThreadLocal} object which holds an {@link InvocationSequenceData} object if an
-	 * invocation record is started.
+	 * The timer used for accurate measuring.
 	 */
-	private final ThreadLocal<InvocationSequenceData> threadLocalInvocationData = new ThreadLocal<InvocationSequenceData>();
+	private final Timer timer;
 
 	/**
-	 * Stores the value of the method ID in the {@link ThreadLocal} object. Used to identify the
-	 * correct start and end of the record.
+	 * Saves the min duration for faster access of the values.
 	 */
-	private final ThreadLocal<Long> invocationStartId = new ThreadLocal<Long>();
+	private final Map<Long, Double> minDurationMap = new HashMap<Long, Double>();
 
 	/**
-	 * Stores the count of the of the starting method being called in the same invocation sequence
-	 * so that closing is done on the right end.
+	 * The StringConstraint to ensure a maximum length of strings.
 	 */
-	private final ThreadLocal<Long> invocationStartIdCount = new ThreadLocal<Long>();
+	private final StringConstraint strConstraint;
 
 	/**
-	 * The timer used for accurate measuring.
+	 * If enhanced exception sensor is ON.
 	 */
-	private final Timer timer;
+	private final boolean enhancedExceptionSensor;
 
 	/**
-	 * The stack containing the start time values.
+	 * Sampler deciding if the started invocation sequence should be recorded.
 	 */
-	private final ThreadLocalStack<Double> timeStack = new ThreadLocalStack<Double>();
+	private final InvocationSequenceSampler sampler = new InvocationSequenceSampler();
 
 	/**
-	 * Saves the min duration for faster access of the values.
+	 * Max amount of nested nodes in one invocation sequence, <code>0</code> for no limit.
 	 */
-	private final Map<Long, Double> minDurationMap = new HashMap<Long, Double>();
+	private final long maxChildren;
 
 	/**
-	 * The StringConstraint to ensure a maximum length of strings.
+	 * Max depth of the nested nodes in one invocation sequence, <code>0</code> for no limit.
 	 */
-	private final StringConstraint strConstraint;
-
-	/**
-	 * If enhanced exception sensor is ON.
-	 */
-	private final boolean enhancedExceptionSensor;
+	private final int maxDepth;
 
 	/**
 	 * The default constructor is initialized with a reference to the original {@link ICoreService}
@@ -138,6 +142,13 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 		this.propertyAccessor = propertyAccessor;
 		this.strConstraint = new StringConstraint(param);
 		this.enhancedExceptionSensor = enhancedExceptionSensor;
+		if (null != param) {
+			this.maxChildren = NumberUtils.toLong(String.valueOf(param.get("maxchildren")), 0L);
+			this.maxDepth = NumberUtils.toInt(String.valueOf(param.get("maxdepth")), 0);
+		} else {
+			this.maxChildren = 0L;
+			this.maxDepth = 0;
+		}
 	}
 
 	/**
@@ -145,35 +156,71 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 	 */
 	@Override
 	public void beforeBody(long methodId, long sensorTypeId, Object object, Object[] parameters, RegisteredSensorConfig rsc) {
+		beforeBody(AgentThreadContext.get(), methodId, sensorTypeId, object, parameters, rsc);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void beforeBody(AgentThreadContext context, long methodId, long sensorTypeId, Object object, Object[] parameters, RegisteredSensorConfig rsc) {
 		if (skip(rsc)) {
 			return;
 		}
 
+		if (context.isInvocationSampledOut()) {
+			// nothing is recorded till the not sampled invocation ends
+			if (methodId == context.getInvocationStartId()) {
+				context.setInvocationStartIdCount(context.getInvocationStartIdCount() + 1);
+			}
+			return;
+		}
+
+		if ((null == context.getInvocationData()) && !sampler.sample(methodId, rsc.getSettings())) {
+			context.setInvocationSampledOut(true);
+			context.setInvocationStartId(methodId);
+			context.setInvocationStartIdCount(1);
+			return;
+		}
+
 		try {
 			long platformId = platformManager.getPlatformId();
 			Timestamp timestamp = new Timestamp(System.currentTimeMillis());
 
-			if (null == threadLocalInvocationData.get()) {
+			InvocationSequenceData invocationSequenceData = context.getInvocationData();
+			if (null == invocationSequenceData) {
 				// the sensor type is only available in the beginning of the
 				// sequence trace
 
 				// save the start time
-				timeStack.push(new Double(timer.getCurrentTime()));
+				context.getTimeStack(AgentThreadContext.INVOCATION_SEQUENCE_SLOT).push(timer.getCurrentTime());
 
 				// no invocation tracer is currently started, so we do that now.
-				InvocationSequenceData invocationSequenceData = new InvocationSequenceData(timestamp, platformId, sensorTypeId, methodId);
-				threadLocalInvocationData.set(invocationSequenceData);
-
-				invocationStartId.set(Long.valueOf(methodId));
-				invocationStartIdCount.set(Long.valueOf(1));
+				invocationSequenceData = new InvocationSequenceData(timestamp, platformId, sensorTypeId, methodId);
+				context.setInvocationData(invocationSequenceData);
+
+				context.setInvocationStartId(methodId);
+				context.setInvocationStartIdCount(1);
+				context.setInvocationNodeCount(0);
+				context.setInvocationTruncatedCount(0);
+				context.setInvocationSummaryParent(null);
+				context.clearInvocationLoggingData();
 			} else {
-				if (methodId == invocationStartId.get().longValue()) {
-					long count = invocationStartIdCount.get().longValue();
-					invocationStartIdCount.set(Long.valueOf(count + 1));
+				if (methodId == context.getInvocationStartId()) {
+					context.setInvocationStartIdCount(context.getInvocationStartIdCount() + 1);
 				}
+
+				if (isTruncated(context, invocationSequenceData)) {
+					// limits reached, only the start time is kept for the summary
+					context.setInvocationSummaryParent(invocationSequenceData);
+					context.setInvocationTruncatedCount(context.getInvocationTruncatedCount() + 1);
+					context.getTimeStack(AgentThreadContext.INVOCATION_TRUNCATED_SLOT).push(timer.getCurrentTime());
+					return;
+				}
+				context.setInvocationNodeCount(context.getInvocationNodeCount() + 1);
+
 				// A subsequent call to the before body method where an
 				// invocation tracer is already started.
-				InvocationSequenceData invocationSequenceData = threadLocalInvocationData.get();
 				invocationSequenceData.setChildCount(invocationSequenceData.getChildCount() + 1L);
 
 				InvocationSequenceData nestedInvocationSequenceData = new InvocationSequenceData(timestamp, platformId, invocationSequenceData.getSensorTypeIdent(), methodId);
@@ -182,7 +229,7 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 
 				invocationSequenceData.getNestedSequences().add(nestedInvocationSequenceData);
 
-				threadLocalInvocationData.set(nestedInvocationSequenceData);
+				context.setInvocationData(nestedInvocationSequenceData);
 			}
 		} catch (IdNotAvailableException idNotAvailableException) {
 			if (LOG.isDebugEnabled()) {
@@ -196,19 +243,29 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 	 */
 	@Override
 	public void firstAfterBody(long methodId, long sensorTypeId, Object object, Object[] parameters, Object result, RegisteredSensorConfig rsc) {
+		firstAfterBody(AgentThreadContext.get(), methodId, sensorTypeId, object, parameters, result, rsc);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void firstAfterBody(AgentThreadContext context, long methodId, long sensorTypeId, Object object, Object[] parameters, Object result, RegisteredSensorConfig rsc) {
 		if (skip(rsc)) {
 			return;
 		}
 
-		InvocationSequenceData invocationSequenceData = threadLocalInvocationData.get();
-
-		if (null != invocationSequenceData) {
-			if (methodId == invocationStartId.get().longValue()) {
-				long count = invocationStartIdCount.get().longValue();
-				invocationStartIdCount.set(Long.valueOf(count - 1));
+		if (context.isInvocationSampledOut()) {
+			if (methodId == context.getInvocationStartId()) {
+				context.setInvocationStartIdCount(context.getInvocationStartIdCount() - 1);
+			}
+		} else if (null != context.getInvocationData()) {
+			if (methodId == context.getInvocationStartId()) {
+				long count = context.getInvocationStartIdCount() - 1;
+				context.setInvocationStartIdCount(count);
 
-				if (0 == (count - 1)) {
-					timeStack.push(new Double(timer.getCurrentTime()));
+				if (0 == count) {
+					context.getTimeStack(AgentThreadContext.INVOCATION_SEQUENCE_SLOT).push(timer.getCurrentTime());
 				}
 			}
 		}
@@ -219,11 +276,27 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 	 */
 	@Override
 	public void secondAfterBody(ICoreService coreService, long methodId, long sensorTypeId, Object object, Object[] parameters, Object result, RegisteredSensorConfig rsc) {
+		secondAfterBody(AgentThreadContext.get(), coreService, methodId, sensorTypeId, object, parameters, result, rsc);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void secondAfterBody(AgentThreadContext context, ICoreService coreService, long methodId, long sensorTypeId, Object object, Object[] parameters, Object result,
+			RegisteredSensorConfig rsc) {
 		if (skip(rsc)) {
 			return;
 		}
 
-		InvocationSequenceData invocationSequenceData = threadLocalInvocationData.get();
+		if (context.isInvocationSampledOut()) {
+			if ((methodId == context.getInvocationStartId()) && (0 == context.getInvocationStartIdCount())) {
+				context.setInvocationSampledOut(false);
+			}
+			return;
+		}
+
+		InvocationSequenceData invocationSequenceData = context.getInvocationData();
 
 		if (null != invocationSequenceData) {
 			// check if some properties need to be accessed and saved
@@ -236,23 +309,25 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 				}
 			}
 
-			if ((methodId == invocationStartId.get().longValue()) && (0 == invocationStartIdCount.get().longValue())) {
-				double endTime = timeStack.pop().doubleValue();
-				double startTime = timeStack.pop().doubleValue();
+			if ((methodId == context.getInvocationStartId()) && (0 == context.getInvocationStartIdCount())) {
+				DoubleStack timeStack = context.getTimeStack(AgentThreadContext.INVOCATION_SEQUENCE_SLOT);
+				double endTime = timeStack.pop();
+				double startTime = timeStack.pop();
 				double duration = endTime - startTime;
+				Long startId = Long.valueOf(context.getInvocationStartId());
 
 				// complete the sequence and store the data object in the 'true'
 				// core service so that it can be transmitted to the server. we
 				// just need an arbitrary prefix so that this sequence will
 				// never be overwritten in the core service!
-				if (minDurationMap.containsKey(invocationStartId.get())) {
-					checkForSavingOrNot(coreService, methodId, sensorTypeId, rsc, invocationSequenceData, startTime, endTime, duration);
+				if (minDurationMap.containsKey(startId)) {
+					checkForSavingOrNot(coreService, methodId, sensorTypeId, rsc, invocationSequenceData, startTime, endTime, duration, startId);
 				} else {
 					// maybe not saved yet in the map
 					if (rsc.getSettings().containsKey("minduration")) {
 						Long minDuration = (Long) rsc.getSettings().get("minduration");
-						minDurationMap.put(invocationStartId.get(), minDuration.doubleValue());
-						checkForSavingOrNot(coreService, methodId, sensorTypeId, rsc, invocationSequenceData, startTime, endTime, duration);
+						minDurationMap.put(startId, minDuration.doubleValue());
+						checkForSavingOrNot(coreService, methodId, sensorTypeId, rsc, invocationSequenceData, startTime, endTime, duration, startId);
 					} else {
 						invocationSequenceData.setDuration(duration);
 						invocationSequenceData.setStart(startTime);
@@ -261,7 +336,11 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 					}
 				}
 
-				threadLocalInvocationData.set(null);
+				context.setInvocationData(null);
+				context.setInvocationSummaryParent(null);
+				context.clearInvocationLoggingData();
+			} else if (context.getInvocationTruncatedCount() > 0) {
+				endTruncatedCall(context, methodId);
 			} else {
 				// check for the correct id we must be sure that
 				// we are closing the right sequence
@@ -290,9 +369,127 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 					invocationSequenceData.setDuration(invocationSequenceData.getEnd() - invocationSequenceData.getStart());
 					parentSequence.setChildCount(parentSequence.getChildCount() + invocationSequenceData.getChildCount());
 				}
-				threadLocalInvocationData.set(parentSequence);
+				context.setInvocationData(parentSequence);
+			}
+		}
+	}
+
+	/**
+	 * Returns if the call nested in the given {@link InvocationSequenceData} should be truncated,
+	 * which is the case if a truncated call is already open or one of the limits is reached.
+	 *
+	 * @param context
+	 *            {@link AgentThreadContext}
+	 * @param invocationSequenceData
+	 *            Current {@link InvocationSequenceData} that would be the parent of the call.
+	 * @return <code>true</code> if call should not be recorded as separate node
+	 */
+	private boolean isTruncated(AgentThreadContext context, InvocationSequenceData invocationSequenceData) {
+		if (context.getInvocationTruncatedCount() > 0) {
+			return true;
+		}
+		if ((maxChildren > 0) && (context.getInvocationNodeCount() >= maxChildren)) {
+			return true;
+		}
+		if (maxDepth > 0) {
+			// walk up at most max depth parents
+			int depth = 0;
+			InvocationSequenceData parent = invocationSequenceData.getParentSequence();
+			while (null != parent) {
+				depth++;
+				if (depth >= maxDepth) {
+					return true;
+				}
+				parent = parent.getParentSequence();
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Ends the truncated call by adding its duration to the summary of the method.
+	 *
+	 * @param context
+	 *            {@link AgentThreadContext}
+	 * @param methodId
+	 *            Id of the method that ended.
+	 */
+	private void endTruncatedCall(AgentThreadContext context, long methodId) {
+		double endTime = timer.getCurrentTime();
+		double startTime = context.getTimeStack(AgentThreadContext.INVOCATION_TRUNCATED_SLOT).pop();
+		double duration = endTime - startTime;
+		context.setInvocationTruncatedCount(context.getInvocationTruncatedCount() - 1);
+
+		InvocationSequenceData summary = getSummary(context, methodId);
+		TimerData timerData = summary.getTimerData();
+		if (0 == timerData.getCount()) {
+			summary.setStart(startTime);
+		}
+		timerData.increaseCount();
+		timerData.addDuration(duration);
+		timerData.calculateMin(duration);
+		timerData.calculateMax(duration);
+		summary.setEnd(endTime);
+		summary.setDuration(timerData.getDuration());
+	}
+
+	/**
+	 * Returns the summary node of the truncated calls of the given method, creating it if needed.
+	 *
+	 * @param context
+	 *            {@link AgentThreadContext}
+	 * @param methodId
+	 *            Id of the summarized method.
+	 * @return Summary {@link InvocationSequenceData}
+	 */
+	private InvocationSequenceData getSummary(AgentThreadContext context, long methodId) {
+		Map<Long, InvocationSequenceData> summaries = context.getInvocationSummaries();
+		Long key = Long.valueOf(methodId);
+		InvocationSequenceData summary = summaries.get(key);
+		if (null == summary) {
+			InvocationSequenceData parent = context.getInvocationSummaryParent();
+			Timestamp timestamp = new Timestamp(System.currentTimeMillis());
+			summary = new InvocationSequenceData(timestamp, parent.getPlatformIdent(), parent.getSensorTypeIdent(), methodId);
+			summary.setTimerData(new TimerData(timestamp, parent.getPlatformIdent(), parent.getSensorTypeIdent(), methodId));
+			summary.setParentSequence(parent);
+			parent.getNestedSequences().add(summary);
+			parent.setChildCount(parent.getChildCount() + 1L);
+			summaries.put(key, summary);
+		}
+		return summary;
+	}
+
+	/**
+	 * Adds the data object created in the truncated call to the summary of the method. Timers are
+	 * ignored as the summary keeps its own timer, SQL statements are aggregated.
+	 *
+	 * @param context
+	 *            {@link AgentThreadContext}
+	 * @param dataObject
+	 *            The data object to summarize.
+	 */
+	private void summarizeDataObject(AgentThreadContext context, DefaultData dataObject) {
+		if (!(dataObject instanceof MethodSensorData)) {
+			return;
+		}
+		InvocationSequenceData summary = getSummary(context, ((MethodSensorData) dataObject).getMethodIdent());
+
+		if (dataObject.getClass().equals(SqlStatementData.class)) {
+			SqlStatementData sqlStatementData = summary.getSqlStatementData();
+			if (null == sqlStatementData) {
+				summary.setSqlStatementData((SqlStatementData) dataObject);
+			} else {
+				sqlStatementData.aggregateTimerData((SqlStatementData) dataObject);
 			}
 		}
+
+		if (dataObject.getClass().equals(ExceptionSensorData.class)) {
+			summary.addExceptionSensorData((ExceptionSensorData) dataObject);
+		}
+
+		if (dataObject.getClass().equals(LoggingData.class)) {
+			summary.setLoggingData((LoggingData) dataObject);
+		}
 	}
 
 	/**
@@ -424,10 +621,12 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 	 *            The end time.
 	 * @param duration
 	 *            The actual duration.
+	 * @param startId
+	 *            The ID of the method that started the invocation.
 	 */
 	private void checkForSavingOrNot(ICoreService coreService, long methodId, long sensorTypeId, RegisteredSensorConfig rsc, InvocationSequenceData invocationSequenceData, double startTime, // NOCHK
-			double endTime, double duration) {
-		double minduration = minDurationMap.get(invocationStartId.get()).doubleValue();
+			double endTime, double duration, Long startId) {
+		double minduration = minDurationMap.get(startId).doubleValue();
 		if (duration >= minduration) {
 			if (LOG.isDebugEnabled()) {
 				LOG.debug("Saving invocation. " + duration + " > " + minduration + " ID(local): " + rsc.getId());
@@ -448,7 +647,15 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 	 */
 	@Override
 	public void beforeConstructor(long methodId, long sensorTypeId, Object[] parameters, RegisteredSensorConfig rsc) {
-		beforeBody(methodId, sensorTypeId, null, parameters, rsc);
+		beforeConstructor(AgentThreadContext.get(), methodId, sensorTypeId, parameters, rsc);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void beforeConstructor(AgentThreadContext context, long methodId, long sensorTypeId, Object[] parameters, RegisteredSensorConfig rsc) {
+		beforeBody(context, methodId, sensorTypeId, null, parameters, rsc);
 	}
 
 	/**
@@ -456,8 +663,16 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 	 */
 	@Override
 	public void afterConstructor(ICoreService coreService, long methodId, long sensorTypeId, Object object, Object[] parameters, RegisteredSensorConfig rsc) {
-		firstAfterBody(methodId, sensorTypeId, object, parameters, null, rsc);
-		secondAfterBody(coreService, methodId, sensorTypeId, object, parameters, null, rsc);
+		afterConstructor(AgentThreadContext.get(), coreService, methodId, sensorTypeId, object, parameters, rsc);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void afterConstructor(AgentThreadContext context, ICoreService coreService, long methodId, long sensorTypeId, Object object, Object[] parameters, RegisteredSensorConfig rsc) {
+		firstAfterBody(context, methodId, sensorTypeId, object, parameters, null, rsc);
+		secondAfterBody(context, coreService, methodId, sensorTypeId, object, parameters, null, rsc);
 	}
 
 	/**
@@ -468,7 +683,17 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 	 *            The data object to save.
 	 */
 	private void saveDataObject(DefaultData dataObject) {
-		InvocationSequenceData invocationSequenceData = threadLocalInvocationData.get();
+		AgentThreadContext context = AgentThreadContext.get();
+		if (dataObject.getClass().equals(LoggingData.class) && aggregateLoggingData(context, (LoggingData) dataObject)) {
+			return;
+		}
+
+		if (context.getInvocationTruncatedCount() > 0) {
+			summarizeDataObject(context, dataObject);
+			return;
+		}
+
+		InvocationSequenceData invocationSequenceData = context.getInvocationData();
 
 		if (dataObject.getClass().equals(SqlStatementData.class)) {
 			// don't overwrite an already existing sql statement data object.
@@ -503,6 +728,29 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 		}
 	}
 
+	/**
+	 * Aggregates the logging data with the one of same level and message already saved in the
+	 * current invocation sequence. If such exists only its count is increased, so that the node of
+	 * the logging call is removed due to the missing logging data.
+	 *
+	 * @param context
+	 *            {@link AgentThreadContext}
+	 * @param loggingData
+	 *            Logging data to aggregate.
+	 * @return <code>true</code> if the data was aggregated and should not be saved
+	 */
+	private boolean aggregateLoggingData(AgentThreadContext context, LoggingData loggingData) {
+		Map<String, LoggingData> loggingDataMap = context.getInvocationLoggingData();
+		String key = loggingData.getLevel() + ' ' + loggingData.getMessage();
+		LoggingData existing = loggingDataMap.get(key);
+		if (null != existing) {
+			existing.increaseCount(loggingData.getCount());
+			return true;
+		}
+		loggingDataMap.put(key, loggingData);
+		return false;
+	}
+
 	// //////////////////////////////////////////////
 	// All methods from the ICoreService are below //
 	// //////////////////////////////////////////////
@@ -512,8 +760,12 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 	 */
 	@Override
 	public void addMethodSensorData(long sensorTypeId, long methodId, String prefix, MethodSensorData methodSensorData) {
-		if (null == threadLocalInvocationData.get()) {
-			LOG.error("thread data NULL!!!!");
+		AgentThreadContext context = AgentThreadContext.get();
+		if (null == context.getInvocationData()) {
+			// data of the not sampled invocations is dropped on purpose
+			if (!context.isInvocationSampledOut()) {
+				LOG.error("thread data NULL!!!!");
+			}
 			return;
 		}
 		saveDataObject(methodSensorData.finalizeData());
@@ -524,8 +776,12 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 	 */
 	@Override
 	public void addObjectStorage(long sensorTypeId, long methodId, String prefix, IObjectStorage objectStorage) {
-		if (null == threadLocalInvocationData.get()) {
-			LOG.error("thread data NULL!!!!");
+		AgentThreadContext context = AgentThreadContext.get();
+		if (null == context.getInvocationData()) {
+			// data of the not sampled invocations is dropped on purpose
+			if (!context.isInvocationSampledOut()) {
+				LOG.error("thread data NULL!!!!");
+			}
 			return;
 		}
 		DefaultData defaultData = objectStorage.finalizeDataObject();
@@ -545,8 +801,12 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 	 */
 	@Override
 	public void addExceptionSensorData(long sensorTypeIdent, long throwableIdentityHashCode, ExceptionSensorData exceptionSensorData) {
-		if (null == threadLocalInvocationData.get()) {
-			LOG.info("thread data NULL!!!!");
+		AgentThreadContext context = AgentThreadContext.get();
+		if (null == context.getInvocationData()) {
+			// data of the not sampled invocations is dropped on purpose
+			if (!context.isInvocationSampledOut()) {
+				LOG.info("thread data NULL!!!!");
+			}
 			return;
 		}
 		saveDataObject(exceptionSensorData.finalizeData());
@@ -670,7 +930,7 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 	 * {@inheritDoc}
 	 */
 	@Override
-	public void addJmxSensorValueData(long sensorTypeIdent, String objectName, String attributeName, JmxSensorValueData jmxSensorValueData) {
+	public void addJmxSensorValueData(long sensorTypeIdent, JmxSensorValueData jmxSensorValueData) {
 		throw new UnsupportedMethodException();
 	}
 
@@ -0,0 +1,217 @@
+package rocks.inspectit.agent.java.sensor.method.invocationsequence;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Head-based sampler of the invocation sequences. The decision if an invocation sequence should be
+ * recorded is made once when the sequence starts, thus for the sequences that are not sampled no
+ * data objects are created at all.
+ * <p>
+ * Two settings of the starting method are supported:
+ * <ul>
+ * <li>{@value #SAMPLING_RATE} - rate between <code>0</code> and <code>1</code> of the sequences
+ * to record. Sampling is deterministic, with rate of <code>0.1</code> exactly every tenth sequence
+ * is recorded.
+ * <li>{@value #SAMPLING_BUDGET} - maximum amount of sequences to record per second.
+ * </ul>
+ * If both are defined the sequence must pass both. If none is defined every sequence is recorded.
+ * When the settings of a method change, its sampling state is started again with the new settings.
+ *
+ * @author Ivan Senic
+ *
+ */
+public class InvocationSequenceSampler {
+
+	/**
+	 * Settings key for the sampling rate.
+	 */
+	static final String SAMPLING_RATE = "samplingrate";
+
+	/**
+	 * Settings key for the sampling budget.
+	 */
+	static final String SAMPLING_BUDGET = "samplingbudget";
+
+	/**
+	 * Length of the budget window in milliseconds.
+	 */
+	private static final long BUDGET_WINDOW = 1000L;
+
+	/**
+	 * Amount of low bits of the budget window state holding the recorded count. Remaining high bits
+	 * hold the start of the window.
+	 */
+	private static final int COUNT_BITS = 24;
+
+	/**
+	 * Mask for the recorded count in the budget window state, also the maximum budget.
+	 */
+	private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+	/**
+	 * Sampling state for each method starting the invocation.
+	 */
+	private final ConcurrentMap<Long, SamplingState> states = new ConcurrentHashMap<Long, SamplingState>();
+
+	/**
+	 * Decides if the invocation sequence started by the given method should be recorded.
+	 *
+	 * @param methodId
+	 *            Id of the method starting the invocation.
+	 * @param settings
+	 *            Settings of the method starting the invocation.
+	 * @return <code>true</code> if sequence should be recorded, <code>false</code> otherwise.
+	 */
+	public boolean sample(long methodId, Map<String, Object> settings) {
+		double rate = getDouble(settings, SAMPLING_RATE, 1.0d);
+		long budget = (long) getDouble(settings, SAMPLING_BUDGET, 0.0d);
+
+		Long key = Long.valueOf(methodId);
+		SamplingState state = states.get(key);
+		if (null == state) {
+			state = new SamplingState(rate, budget);
+			SamplingState existing = states.putIfAbsent(key, state);
+			if (null != existing) {
+				state = existing;
+			}
+		}
+
+		if (!state.hasSettings(rate, budget)) {
+			// settings changed, start with the new state
+			SamplingState newState = new SamplingState(rate, budget);
+			if (states.replace(key, state, newState)) {
+				state = newState;
+			} else {
+				state = states.get(key);
+			}
+		}
+		return state.sample();
+	}
+
+	/**
+	 * Returns the numeric setting value as double.
+	 *
+	 * @param settings
+	 *            Settings, can be <code>null</code>.
+	 * @param key
+	 *            Settings key.
+	 * @param defaultValue
+	 *            Value to return if setting is not defined.
+	 * @return Setting value or default value.
+	 */
+	private double getDouble(Map<String, Object> settings, String key, double defaultValue) {
+		if (null == settings) {
+			return defaultValue;
+		}
+		Object value = settings.get(key);
+		if (value instanceof Number) {
+			return ((Number) value).doubleValue();
+		}
+		return defaultValue;
+	}
+
+	/**
+	 * Sampling state of one method starting the invocation.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	private static class SamplingState {
+
+		/**
+		 * Rate of sequences to record.
+		 */
+		private final double rate;
+
+		/**
+		 * Max sequences to record per second, <code>0</code> for no limit.
+		 */
+		private final long budget;
+
+		/**
+		 * Count of all started sequences, used for the rate.
+		 */
+		private final AtomicLong started = new AtomicLong();
+
+		/**
+		 * Time the state was created, budget window starts are relative to it.
+		 */
+		private final long created = System.currentTimeMillis();
+
+		/**
+		 * Start of the current budget window (relative to {@link #created}) in the high bits and
+		 * count of recorded sequences in the window in the low {@link #COUNT_BITS} bits. Kept in
+		 * one value so that the window can be started again atomically.
+		 */
+		private final AtomicLong budgetWindow = new AtomicLong();
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param rate
+		 *            Rate of sequences to record.
+		 * @param budget
+		 *            Max sequences to record per second, <code>0</code> for no limit.
+		 */
+		SamplingState(double rate, long budget) {
+			this.rate = rate;
+			this.budget = Math.min(budget, COUNT_MASK);
+		}
+
+		/**
+		 * Returns if the state was created with the given settings.
+		 *
+		 * @param otherRate
+		 *            Rate of sequences to record.
+		 * @param otherBudget
+		 *            Max sequences to record per second.
+		 * @return <code>true</code> if rate and budget are equal to the ones of this state
+		 */
+		boolean hasSettings(double otherRate, long otherBudget) {
+			return (Double.compare(rate, otherRate) == 0) && (budget == Math.min(otherBudget, COUNT_MASK));
+		}
+
+		/**
+		 * Decides if the next sequence should be recorded.
+		 *
+		 * @return <code>true</code> if sequence should be recorded
+		 */
+		boolean sample() {
+			if (rate < 1.0d) {
+				if (rate <= 0.0d) {
+					return false;
+				}
+				// sample when the accumulated rate crosses the next integer
+				long n = started.getAndIncrement();
+				if ((long) ((n + 1) * rate) == (long) (n * rate)) {
+					return false;
+				}
+			}
+
+			if (budget > 0) {
+				long now = System.currentTimeMillis() - created;
+				while (true) {
+					long current = budgetWindow.get();
+					long windowStart = current >>> COUNT_BITS;
+					long recorded = current & COUNT_MASK;
+					if ((now - windowStart) >= BUDGET_WINDOW) {
+						// start new window with this sequence recorded
+						if (budgetWindow.compareAndSet(current, (now << COUNT_BITS) | 1L)) {
+							return true;
+						}
+					} else if (recorded >= budget) {
+						return false;
+					} else if (budgetWindow.compareAndSet(current, current + 1)) {
+						return true;
+					}
+				}
+			}
+
+			return true;
+		}
+	}
+
+}
@@ -0,0 +1,330 @@
+package rocks.inspectit.agent.java.sensor.method.jdbc;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Normalizes the SQL strings of the plain statements by replacing the string and numeric literals
+ * with the <code>?</code> placeholder, thus the statements executed with different literals are
+ * aggregated under the same SQL template. Lists of literals after the <code>IN</code> keyword are
+ * replaced with a single placeholder regardless of their length.
+ * <p>
+ * Every call parses the given SQL, the cache does not save any parsing. It only interns the
+ * templates: up to {@link #MAX_SIZE} templates are kept (least recently used are evicted), so that
+ * the statements with the same template share one template string.
+ *
+ * @author Ivan Senic
+ *
+ */
+public class SqlNormalizer {
+
+	/**
+	 * Maximum amount of the templates to keep in the cache.
+	 */
+	static final int MAX_SIZE = 1000;
+
+	/**
+	 * Interned templates with the template as key.
+	 */
+	private final Cache<String, String> templates = CacheBuilder.newBuilder().maximumSize(MAX_SIZE).build();
+
+	/**
+	 * Normalizes the given SQL.
+	 *
+	 * @param sql
+	 *            SQL to normalize.
+	 * @return SQL template with the literals replaced or the given SQL if it has no literals.
+	 */
+	public String normalize(String sql) {
+		String template = parse(sql);
+		if (null == template) {
+			// nothing replaced, the template is the given sql
+			return sql;
+		}
+
+		String interned = templates.getIfPresent(template);
+		if (null == interned) {
+			templates.put(template, template);
+			return template;
+		}
+		return interned;
+	}
+
+	/**
+	 * Parses the SQL and replaces the literals. Quoted identifiers and comments are copied as they
+	 * are. The SQL is not changed if it already contains a <code>?</code> outside of the literals,
+	 * as the literals could not be distinguished from the existing parameters anymore.
+	 *
+	 * @param sql
+	 *            SQL to parse.
+	 * @return SQL template or <code>null</code> if there was nothing to replace.
+	 */
+	String parse(String sql) {
+		int length = sql.length();
+		StringBuilder template = null;
+		// start of the part of sql not yet copied to the template
+		int copied = 0;
+
+		int i = 0;
+		while (i < length) {
+			char c = sql.charAt(i);
+			if (c == '\'') {
+				int end = findStringLiteralEnd(sql, i);
+				template = appendPlaceholder(template, sql, copied, i, "?");
+				copied = end;
+				i = end;
+			} else if ((c == '"') || (c == '`')) {
+				i = findQuotedEnd(sql, i, c);
+			} else if ((c == '-') && ((i + 1) < length) && (sql.charAt(i + 1) == '-')) {
+				i = findLineCommentEnd(sql, i);
+			} else if ((c == '/') && ((i + 1) < length) && (sql.charAt(i + 1) == '*')) {
+				i = findBlockCommentEnd(sql, i);
+			} else if (c == '?') {
+				// already parameterized, can not be mixed with literals
+				return null;
+			} else if (Character.isDigit(c) && ((i == 0) || !isIdentifierPart(sql.charAt(i - 1)))) {
+				int end = findNumberEnd(sql, i);
+				if ((end < length) && isIdentifierPart(sql.charAt(end))) {
+					// part of identifier like 1abc, leave as is
+					i = end;
+					continue;
+				}
+				template = appendPlaceholder(template, sql, copied, i, "?");
+				copied = end;
+				i = end;
+			} else if (isIdentifierPart(c)) {
+				// skip whole identifier so that digits in it are not replaced
+				int start = i;
+				while ((i < length) && isIdentifierPart(sql.charAt(i))) {
+					i++;
+				}
+				if (((i - start) == 2) && sql.regionMatches(true, start, "IN", 0, 2)) {
+					int listStart = skipWhitespace(sql, i);
+					int listEnd = findLiteralListEnd(sql, listStart);
+					if (listEnd > 0) {
+						template = appendPlaceholder(template, sql, copied, listStart, "(?)");
+						copied = listEnd;
+						i = listEnd;
+					}
+				}
+			} else {
+				i++;
+			}
+		}
+
+		if (null == template) {
+			return null;
+		}
+		template.append(sql, copied, length);
+		return template.toString();
+	}
+
+	/**
+	 * Appends the part of the SQL that was not yet copied and the placeholder to the template.
+	 *
+	 * @param template
+	 *            Template to append to, if <code>null</code> new one is created.
+	 * @param sql
+	 *            SQL
+	 * @param from
+	 *            Start of the part not yet copied.
+	 * @param to
+	 *            Start of the replaced literal.
+	 * @param placeholder
+	 *            Placeholder replacing the literal.
+	 * @return Template
+	 */
+	private StringBuilder appendPlaceholder(StringBuilder template, String sql, int from, int to, String placeholder) {
+		StringBuilder builder = (null == template) ? new StringBuilder(sql.length()) : template;
+		return builder.append(sql, from, to).append(placeholder);
+	}
+
+	/**
+	 * Finds the end of the parenthesized list of the string and numeric literals starting at the
+	 * given index.
+	 *
+	 * @param sql
+	 *            SQL
+	 * @param start
+	 *            Index of the opening parenthesis.
+	 * @return Index after the closing parenthesis or <code>-1</code> if there is no list at the
+	 *         given index or the list contains anything else than literals.
+	 */
+	private int findLiteralListEnd(String sql, int start) {
+		int length = sql.length();
+		if ((start >= length) || (sql.charAt(start) != '(')) {
+			return -1;
+		}
+
+		int i = start + 1;
+		while (true) {
+			i = skipWhitespace(sql, i);
+			if (i >= length) {
+				return -1;
+			}
+			char c = sql.charAt(i);
+			if (c == '\'') {
+				i = findStringLiteralEnd(sql, i);
+			} else {
+				if (((c == '-') || (c == '+')) && ((i + 1) < length)) {
+					i++;
+				}
+				if (!Character.isDigit(sql.charAt(i))) {
+					return -1;
+				}
+				i = findNumberEnd(sql, i);
+				if ((i < length) && isIdentifierPart(sql.charAt(i))) {
+					return -1;
+				}
+			}
+
+			i = skipWhitespace(sql, i);
+			if (i >= length) {
+				return -1;
+			} else if (sql.charAt(i) == ')') {
+				return i + 1;
+			} else if (sql.charAt(i) != ',') {
+				return -1;
+			}
+			i++;
+		}
+	}
+
+	/**
+	 * Skips the whitespace starting at the given index.
+	 *
+	 * @param sql
+	 *            SQL
+	 * @param start
+	 *            Index to start from.
+	 * @return Index of the first non-whitespace char or length of the SQL.
+	 */
+	private int skipWhitespace(String sql, int start) {
+		int length = sql.length();
+		int i = start;
+		while ((i < length) && Character.isWhitespace(sql.charAt(i))) {
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * Finds the end of the string literal starting at the given index. Doubled quotes are treated
+	 * as escaped quote.
+	 *
+	 * @param sql
+	 *            SQL
+	 * @param start
+	 *            Index of the opening quote.
+	 * @return Index after the closing quote or length of the SQL if literal is not closed.
+	 */
+	private int findStringLiteralEnd(String sql, int start) {
+		int length = sql.length();
+		int i = start + 1;
+		while (i < length) {
+			if (sql.charAt(i) == '\'') {
+				if (((i + 1) < length) && (sql.charAt(i + 1) == '\'')) {
+					i += 2;
+					continue;
+				}
+				return i + 1;
+			}
+			i++;
+		}
+		return length;
+	}
+
+	/**
+	 * Finds the end of the quoted identifier starting at the given index.
+	 *
+	 * @param sql
+	 *            SQL
+	 * @param start
+	 *            Index of the opening quote.
+	 * @param quote
+	 *            Quote char.
+	 * @return Index after the closing quote or length of the SQL if identifier is not closed.
+	 */
+	private int findQuotedEnd(String sql, int start, char quote) {
+		int end = sql.indexOf(quote, start + 1);
+		return (end < 0) ? sql.length() : end + 1;
+	}
+
+	/**
+	 * Finds the end of the line comment starting at the given index.
+	 *
+	 * @param sql
+	 *            SQL
+	 * @param start
+	 *            Index of the comment start.
+	 * @return Index of the new line or length of the SQL.
+	 */
+	private int findLineCommentEnd(String sql, int start) {
+		int end = sql.indexOf('\n', start + 2);
+		return (end < 0) ? sql.length() : end;
+	}
+
+	/**
+	 * Finds the end of the block comment starting at the given index.
+	 *
+	 * @param sql
+	 *            SQL
+	 * @param start
+	 *            Index of the comment start.
+	 * @return Index after the comment end or length of the SQL if comment is not closed.
+	 */
+	private int findBlockCommentEnd(String sql, int start) {
+		int end = sql.indexOf("*/", start + 2);
+		return (end < 0) ? sql.length() : end + 2;
+	}
+
+	/**
+	 * Finds the end of the numeric literal starting at the given index. Decimal point and exponent
+	 * are included.
+	 *
+	 * @param sql
+	 *            SQL
+	 * @param start
+	 *            Index of the first digit.
+	 * @return Index after the last char of the number.
+	 */
+	private int findNumberEnd(String sql, int start) {
+		int length = sql.length();
+		int i = start;
+		while ((i < length) && Character.isDigit(sql.charAt(i))) {
+			i++;
+		}
+		if ((i < length) && (sql.charAt(i) == '.')) {
+			i++;
+			while ((i < length) && Character.isDigit(sql.charAt(i))) {
+				i++;
+			}
+		}
+		if (((i + 1) < length) && ((sql.charAt(i) == 'e') || (sql.charAt(i) == 'E'))) {
+			int j = i + 1;
+			if ((sql.charAt(j) == '+') || (sql.charAt(j) == '-')) {
+				j++;
+			}
+			if ((j < length) && Character.isDigit(sql.charAt(j))) {
+				i = j;
+				while ((i < length) && Character.isDigit(sql.charAt(i))) {
+					i++;
+				}
+			}
+		}
+		return i;
+	}
+
+	/**
+	 * Returns if the char can be part of the unquoted identifier.
+	 *
+	 * @param c
+	 *            char
+	 * @return <code>true</code> for letters, digits, <code>_</code>, <code>$</code> and
+	 *         <code>#</code>
+	 */
+	private boolean isIdentifierPart(char c) {
+		return Character.isLetterOrDigit(c) || (c == '_') || (c == '$') || (c == '#');
+	}
+
+}
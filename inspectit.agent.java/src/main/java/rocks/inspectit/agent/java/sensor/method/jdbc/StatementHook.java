@@ -23,6 +23,10 @@ import rocks.inspectit.shared.all.communication.data.SqlStatementData;
  * one query. After the complete SQL method was executed, it computes how long the method took to
  * finish and saves the executed SQL Statement String. Afterwards, the measurement is added to the
  * {@link CoreService}.
+ * <p>
+ * The SQL is normalized with the {@link SqlNormalizer} before, so that statements only differing
+ * in the literals are aggregated together. The literals are not kept, as the literals of one
+ * execution do not describe the aggregated statement.
  *
  * @author Christian Herzog
  * @author Patrice Bouillet
@@ -71,6 +75,11 @@ public class StatementHook implements IMethodHook {
 	 */
 	private final StatementReflectionCache statementReflectionCache;
 
+	/**
+	 * Normalizer for the SQL strings.
+	 */
+	private final SqlNormalizer sqlNormalizer = new SqlNormalizer();
+
 	/**
 	 * The only constructor which needs the {@link Timer}.
 	 *
@@ -123,7 +132,7 @@ public class StatementHook implements IMethodHook {
 			threadLast.set(Boolean.FALSE);
 
 			double duration = endTime - startTime;
-			String sql = parameters[0].toString();
+			String sql = sqlNormalizer.normalize(parameters[0].toString());
 			SqlStatementData sqlData = (SqlStatementData) coreService.getMethodSensorData(sensorTypeId, methodId, sql);
 
 			if (null == sqlData) {
@@ -1,18 +1,34 @@
 package rocks.inspectit.agent.java.sensor.method.logging;
 
 import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+
 import rocks.inspectit.agent.java.config.impl.RegisteredSensorConfig;
 import rocks.inspectit.agent.java.core.ICoreService;
 import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.agent.java.core.IdNotAvailableException;
-import rocks.inspectit.agent.java.hooking.IMethodHook;
+import rocks.inspectit.agent.java.hooking.AgentThreadContext;
+import rocks.inspectit.agent.java.hooking.IContextMethodHook;
+import rocks.inspectit.agent.java.sensor.method.logging.LogMessageNormalizer.NormalizedMessage;
 import rocks.inspectit.agent.java.sensor.method.logging.severity.SeverityHelper;
 import rocks.inspectit.agent.java.sensor.method.logging.severity.SeverityHelperFactory;
 import rocks.inspectit.agent.java.sensor.method.logging.severity.SeverityHelperFactory.Framework;
+import rocks.inspectit.agent.java.util.Timer;
 import rocks.inspectit.shared.all.communication.data.LoggingData;
 
 /**
@@ -22,6 +38,26 @@ import rocks.inspectit.shared.all.communication.data.LoggingData;
  *
  * If the minimum logging level is not provided or cannot be found in log4j default levels, the
  * logging hook will not capture any loggings.
+ * <p>
+ * To keep the capturing cost bounded when many messages are logged:
+ * <ul>
+ * <li>the captured messages of each logger are limited with a {@link TokenBucket} to the given
+ * rate per second. The rate is checked before the message is normalized, messages exceeding the
+ * rate are not captured but only counted per logger and level.
+ * <li>the message is captured as the pattern with the variable values replaced by the placeholder
+ * (see {@link LogMessageNormalizer}), thus same messages can be aggregated.
+ * <li>outside of the invocation sequences only the first message with the same level and pattern
+ * in the aggregation window is captured. The count of the messages not captured in one window is
+ * added to the next captured message with the same level and pattern. In the invocation sequences
+ * the messages are aggregated per invocation.
+ * </ul>
+ * The counts of the messages not captured in the aggregation window that are not reported with the
+ * next captured message are periodically reported as the message without arguments once the window
+ * is over. The counts of the messages exceeding the rate are periodically reported as the
+ * {@link #RATE_LIMITED_PATTERN} message with the logger name as the argument. The counts are also
+ * reported when the window or the logger is evicted. As the periodical reporting runs outside of
+ * the thread that logged the messages, the counts are always reported to the agent core service
+ * and never to the invocation sequence.
  *
  * This hook is expected to be placed on the method
  * <code>protected void forcedLog(String fqcn, Priority level, Object message, Throwable
@@ -30,32 +66,138 @@ import rocks.inspectit.shared.all.communication.data.LoggingData;
  *
  * @author Stefan Siegl
  */
-public class Log4JLoggingHook implements IMethodHook {
+public class Log4JLoggingHook implements IContextMethodHook {
 
 	/** The logger of this class. Initialized manually. */
 	private static final Logger LOG = LoggerFactory.getLogger(Log4JLoggingHook.class);
 
+	/**
+	 * Maximum amount of the aggregation windows to keep.
+	 */
+	static final int MAX_WINDOWS = 1000;
+
+	/**
+	 * Period in milliseconds for reporting the counts of the messages not captured when there is
+	 * no aggregation window.
+	 */
+	static final long FLUSH_PERIOD = 1000L;
+
+	/**
+	 * Message pattern used for reporting the counts of the messages exceeding the rate, argument is
+	 * the logger name.
+	 */
+	static final String RATE_LIMITED_PATTERN = "Messages of logger {} exceeding the rate limit";
+
+	/**
+	 * Logger name used for the messages logged without the logger instance.
+	 */
+	static final String UNKNOWN_LOGGER_NAME = "<unknown>";
+
 	/** the platform manager. */
 	private final IPlatformManager platformManager;
 
+	/**
+	 * The agent core service, used for reporting the counts of the messages not captured. Never
+	 * the invocation sequence hook passed to the hook methods.
+	 */
+	private final ICoreService coreService;
+
 	/** the level checker. */
 	private final SeverityHelper checker;
 
-	/** caches whether the hook has a correct minimum level. */
-	// private final boolean correctlyInitialized;
+	/** The timer used for the rate limiting and aggregation. */
+	private final Timer timer;
+
+	/** Normalizes the messages to patterns. */
+	private final LogMessageNormalizer normalizer = new LogMessageNormalizer();
+
+	/** Max messages captured per second and logger, <code>0</code> for no limit. */
+	private final long rateLimit;
+
+	/** Aggregation window in milliseconds, <code>0</code> for no aggregation. */
+	private final long aggregationWindow;
+
+	/** Key used for the messages logged without the logger instance. */
+	private final Object unknownLogger = new Object();
+
+	/**
+	 * Rate limits by the logger instance. Weak keys for not holding the loggers and identity
+	 * comparison.
+	 */
+	private final LoadingCache<Object, RateLimit> rateLimits = CacheBuilder.newBuilder().weakKeys().removalListener(new RemovalListener<Object, RateLimit>() {
+		@Override
+		public void onRemoval(RemovalNotification<Object, RateLimit> notification) {
+			if (notification.wasEvicted()) {
+				notification.getValue().flush();
+			}
+		}
+	}).build(new CacheLoader<Object, RateLimit>() {
+		@Override
+		public RateLimit load(Object key) {
+			String loggerName = (unknownLogger == key) ? UNKNOWN_LOGGER_NAME : getLoggerName(key);
+			return new RateLimit(loggerName, new TokenBucket(rateLimit, timer.getCurrentTime()));
+		}
+	});
+
+	/**
+	 * Aggregation windows by level and message pattern.
+	 */
+	private final LoadingCache<String, AggregationWindow> aggregationWindows = CacheBuilder.newBuilder().maximumSize(MAX_WINDOWS)
+			.removalListener(new RemovalListener<String, AggregationWindow>() {
+				@Override
+				public void onRemoval(RemovalNotification<String, AggregationWindow> notification) {
+					if (notification.wasEvicted()) {
+						notification.getValue().flush();
+					}
+				}
+			}).build(new CacheLoader<String, AggregationWindow>() {
+				@Override
+				public AggregationWindow load(String key) {
+					// level never contains space
+					int index = key.indexOf(' ');
+					return new AggregationWindow(key.substring(0, index), key.substring(index + 1));
+				}
+			});
 
 	/**
 	 * Creates a new instance of the Log4J Logging hook.
 	 *
 	 * @param platformManager
 	 *            the platformManager.
+	 * @param coreService
+	 *            the agent core service for reporting the counts of the messages not captured.
+	 * @param timer
+	 *            the timer.
 	 * @param minimumLevelToCapture
 	 *            the minimum logging level to capture.
+	 * @param rateLimit
+	 *            max messages captured per second and logger, <code>0</code> for no limit.
+	 * @param aggregationWindow
+	 *            aggregation window in milliseconds, <code>0</code> for no aggregation.
+	 * @param executorService
+	 *            executor service for periodically reporting the counts of the messages not
+	 *            captured. Can be <code>null</code>, then counts are only reported with the next
+	 *            captured message of the same pattern or logger or on the eviction.
 	 */
-	public Log4JLoggingHook(IPlatformManager platformManager, String minimumLevelToCapture) {
+	public Log4JLoggingHook(IPlatformManager platformManager, ICoreService coreService, Timer timer, String minimumLevelToCapture, long rateLimit, long aggregationWindow,
+			ScheduledExecutorService executorService) {
 		this.platformManager = platformManager;
+		this.coreService = coreService;
+		this.timer = timer;
+		this.rateLimit = rateLimit;
+		this.aggregationWindow = aggregationWindow;
 
 		checker = SeverityHelperFactory.getForFramework(Framework.LOG4J, minimumLevelToCapture);
+
+		if ((null != executorService) && ((rateLimit > 0) || (aggregationWindow > 0))) {
+			long period = (aggregationWindow > 0) ? aggregationWindow : FLUSH_PERIOD;
+			executorService.scheduleAtFixedRate(new Runnable() {
+				@Override
+				public void run() {
+					flush();
+				}
+			}, period, period, TimeUnit.MILLISECONDS);
+		}
 	}
 
 	/**
@@ -66,6 +208,14 @@ public class Log4JLoggingHook implements IMethodHook {
 		// not needed for this hook
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void beforeBody(AgentThreadContext context, long methodId, long sensorTypeId, Object object, Object[] parameters, RegisteredSensorConfig rsc) {
+		// not needed for this hook
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -74,11 +224,28 @@ public class Log4JLoggingHook implements IMethodHook {
 		// not needed for this hook
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void firstAfterBody(AgentThreadContext context, long methodId, long sensorTypeId, Object object, Object[] parameters, Object result, RegisteredSensorConfig rsc) {
+		// not needed for this hook
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
 	public void secondAfterBody(ICoreService coreService, long methodId, long sensorTypeId, Object object, Object[] parameters, Object result, RegisteredSensorConfig rsc) {
+		secondAfterBody(AgentThreadContext.get(), coreService, methodId, sensorTypeId, object, parameters, result, rsc);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void secondAfterBody(AgentThreadContext context, ICoreService coreService, long methodId, long sensorTypeId, Object object, Object[] parameters, Object result,
+			RegisteredSensorConfig rsc) {
 		if (checker.isValid()) {
 			// get the information from the parameters. We are expecting the
 			// method: Priority.forcedLog (String, Priority, Object, Throwable)
@@ -88,27 +255,307 @@ public class Log4JLoggingHook implements IMethodHook {
 				return;
 			}
 
-			try {
-				long platformId = platformManager.getPlatformId();
-
-				LoggingData data = new LoggingData();
-				data.setLevel(level);
-				data.setMessage(String.valueOf(parameters[2]));
-				data.setPlatformIdent(platformId);
-				data.setSensorTypeIdent(sensorTypeId);
-				data.setMethodIdent(methodId);
-				data.setTimeStamp(new Timestamp(System.currentTimeMillis()));
-
-				// TODO: Note that setting the prefix to null here is only
-				// meaningful for the
-				// current integration version of the logging sensor where
-				// loggings outside of
-				// invocation sequences is not yet supported!
-				coreService.addMethodSensorData(sensorTypeId, methodId, null, data);
-			} catch (IdNotAvailableException e) {
-				if (LOG.isDebugEnabled()) {
-					LOG.debug("Could not save the timer data because of an unavailable id. " + e.getMessage());
+			double currentTime = timer.getCurrentTime();
+			if (rateLimit > 0) {
+				RateLimit loggerRateLimit = rateLimits.getUnchecked((null != object) ? object : unknownLogger);
+				if (!loggerRateLimit.tryAcquire(level, methodId, sensorTypeId, currentTime)) {
+					// message over the rate is only counted, never normalized
+					return;
+				}
+			}
+
+			NormalizedMessage normalizedMessage = normalizer.normalize(String.valueOf(parameters[2]));
+
+			long count = 1L;
+			// in invocation the invocation sequence hook aggregates
+			if ((aggregationWindow > 0) && (null == context.getInvocationSequenceHook())) {
+				AggregationWindow window = aggregationWindows.getUnchecked(level + ' ' + normalizedMessage.getPattern());
+				window.use(methodId, sensorTypeId);
+				count = window.add(currentTime, aggregationWindow);
+				if (0L == count) {
+					return;
+				}
+			}
+
+			sendData(coreService, methodId, sensorTypeId, level, normalizedMessage.getPattern(), normalizedMessage.getArguments(), count);
+		}
+	}
+
+	/**
+	 * Reports the counts of the messages not captured in all aggregation windows that are over and
+	 * the counts of the messages exceeding the rate.
+	 */
+	void flush() {
+		double currentTime = timer.getCurrentTime();
+		for (AggregationWindow window : aggregationWindows.asMap().values()) {
+			window.flush(currentTime, aggregationWindow);
+		}
+		for (RateLimit loggerRateLimit : rateLimits.asMap().values()) {
+			loggerRateLimit.flush();
+		}
+	}
+
+	/**
+	 * Returns the name of the log4j logger. Resolved by reflection as the log4j classes are not
+	 * available to the agent, done only once per logger.
+	 *
+	 * @param logger
+	 *            Logger instance.
+	 * @return Logger name or the class name of the logger if the name can not be resolved.
+	 */
+	private String getLoggerName(Object logger) {
+		try {
+			return String.valueOf(logger.getClass().getMethod("getName").invoke(logger));
+		} catch (Exception e) {
+			if (LOG.isDebugEnabled()) {
+				LOG.debug("It was not possible to retrieve the logger name from " + logger.getClass().getName(), e);
+			}
+			return logger.getClass().getName();
+		}
+	}
+
+	/**
+	 * Creates the logging data and passes it to the core service.
+	 *
+	 * @param coreService
+	 *            Core service.
+	 * @param methodId
+	 *            Method id.
+	 * @param sensorTypeId
+	 *            Sensor type id.
+	 * @param level
+	 *            Logging level.
+	 * @param pattern
+	 *            Message pattern.
+	 * @param arguments
+	 *            Message arguments.
+	 * @param count
+	 *            Count of the messages the data represents.
+	 */
+	private void sendData(ICoreService coreService, long methodId, long sensorTypeId, String level, String pattern, List<String> arguments, long count) {
+		try {
+			long platformId = platformManager.getPlatformId();
+
+			LoggingData data = new LoggingData();
+			data.setLevel(level);
+			data.setMessage(pattern);
+			if (!arguments.isEmpty()) {
+				data.setArguments(arguments);
+			}
+			data.setCount(count);
+			data.setPlatformIdent(platformId);
+			data.setSensorTypeIdent(sensorTypeId);
+			data.setMethodIdent(methodId);
+			data.setTimeStamp(new Timestamp(System.currentTimeMillis()));
+
+			// TODO: Note that setting the prefix to null here is only
+			// meaningful for the
+			// current integration version of the logging sensor where
+			// loggings outside of
+			// invocation sequences is not yet supported!
+			coreService.addMethodSensorData(sensorTypeId, methodId, null, data);
+		} catch (IdNotAvailableException e) {
+			if (LOG.isDebugEnabled()) {
+				LOG.debug("Could not save the timer data because of an unavailable id. " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Aggregation window of the messages with the same level and pattern.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	private class AggregationWindow {
+
+		/**
+		 * Logging level.
+		 */
+		private final String level;
+
+		/**
+		 * Message pattern.
+		 */
+		private final String pattern;
+
+		/**
+		 * Method id of the last message.
+		 */
+		private long methodId;
+
+		/**
+		 * Sensor type id of the last message.
+		 */
+		private long sensorTypeId;
+
+		/**
+		 * Start of the current window in milliseconds, first message always starts a new window.
+		 */
+		private double start = Double.NEGATIVE_INFINITY;
+
+		/**
+		 * Count of the messages not captured since the last captured one.
+		 */
+		private long notCaptured;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param level
+		 *            Logging level.
+		 * @param pattern
+		 *            Message pattern.
+		 */
+		AggregationWindow(String level, String pattern) {
+			this.level = level;
+			this.pattern = pattern;
+		}
+
+		/**
+		 * Sets the ids of the last message, used when reporting the counts.
+		 *
+		 * @param methodId
+		 *            Method id.
+		 * @param sensorTypeId
+		 *            Sensor type id.
+		 */
+		synchronized void use(long methodId, long sensorTypeId) {
+			this.methodId = methodId;
+			this.sensorTypeId = sensorTypeId;
+		}
+
+		/**
+		 * Adds the message to the window.
+		 *
+		 * @param currentTime
+		 *            Current time in milliseconds.
+		 * @param length
+		 *            Length of the window in milliseconds.
+		 * @return Count to report with the message if it starts a new window and should be
+		 *         captured, <code>0</code> if message should not be captured.
+		 */
+		synchronized long add(double currentTime, long length) {
+			if ((currentTime - start) >= length) {
+				long count = notCaptured + 1L;
+				notCaptured = 0L;
+				start = currentTime;
+				return count;
+			}
+			notCaptured++;
+			return 0L;
+		}
+
+		/**
+		 * Reports the count of the messages not captured if the window is over. Start of the
+		 * window is not changed, so the next message is captured.
+		 *
+		 * @param currentTime
+		 *            Current time in milliseconds.
+		 * @param length
+		 *            Length of the window in milliseconds.
+		 */
+		synchronized void flush(double currentTime, long length) {
+			if ((currentTime - start) >= length) {
+				flush();
+			}
+		}
+
+		/**
+		 * Reports the count of the messages not captured.
+		 */
+		synchronized void flush() {
+			if (notCaptured > 0) {
+				sendData(coreService, methodId, sensorTypeId, level, pattern, Collections.<String> emptyList(), notCaptured);
+				notCaptured = 0L;
+			}
+		}
+	}
+
+	/**
+	 * Rate limit of one logger holding the counts of the messages exceeding the rate per level.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	private class RateLimit {
+
+		/**
+		 * Logger name.
+		 */
+		private final String loggerName;
+
+		/**
+		 * Token bucket of the logger.
+		 */
+		private final TokenBucket tokenBucket;
+
+		/**
+		 * Counts of the messages exceeding the rate by the level.
+		 */
+		private final Map<String, Long> notCaptured = new HashMap<String, Long>(4);
+
+		/**
+		 * Method id of the last message.
+		 */
+		private long methodId;
+
+		/**
+		 * Sensor type id of the last message.
+		 */
+		private long sensorTypeId;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param loggerName
+		 *            Logger name.
+		 * @param tokenBucket
+		 *            Token bucket of the logger.
+		 */
+		RateLimit(String loggerName, TokenBucket tokenBucket) {
+			this.loggerName = loggerName;
+			this.tokenBucket = tokenBucket;
+		}
+
+		/**
+		 * Takes one token for the message. If the rate is exceeded the message is counted,
+		 * otherwise the counts of the messages not captured so far are reported.
+		 *
+		 * @param level
+		 *            Logging level.
+		 * @param methodId
+		 *            Method id.
+		 * @param sensorTypeId
+		 *            Sensor type id.
+		 * @param currentTime
+		 *            Current time in milliseconds.
+		 * @return <code>true</code> if message should be captured, <code>false</code> if rate is
+		 *         exceeded
+		 */
+		synchronized boolean tryAcquire(String level, long methodId, long sensorTypeId, double currentTime) {
+			this.methodId = methodId;
+			this.sensorTypeId = sensorTypeId;
+			if (tokenBucket.tryAcquire(currentTime)) {
+				flush();
+				return true;
+			}
+			Long count = notCaptured.get(level);
+			notCaptured.put(level, Long.valueOf((null != count) ? (count.longValue() + 1L) : 1L));
+			return false;
+		}
+
+		/**
+		 * Reports the counts of the messages exceeding the rate.
+		 */
+		synchronized void flush() {
+			if (!notCaptured.isEmpty()) {
+				for (Map.Entry<String, Long> entry : notCaptured.entrySet()) {
+					List<String> arguments = new ArrayList<String>(1);
+					arguments.add(loggerName);
+					sendData(coreService, methodId, sensorTypeId, entry.getKey(), RATE_LIMITED_PATTERN, arguments, entry.getValue().longValue());
 				}
+				notCaptured.clear();
 			}
 		}
 	}
@@ -1,13 +1,18 @@
 package rocks.inspectit.agent.java.sensor.method.logging;
 
 import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
 
+import org.apache.commons.lang.math.NumberUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 
+import rocks.inspectit.agent.java.core.ICoreService;
 import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.agent.java.hooking.IHook;
 import rocks.inspectit.agent.java.sensor.method.AbstractMethodSensor;
 import rocks.inspectit.agent.java.sensor.method.IMethodSensor;
+import rocks.inspectit.agent.java.util.Timer;
 
 /**
  * Logging sensor to capture log4j loggings.
@@ -19,12 +24,43 @@ public class Log4JLoggingSensor extends AbstractMethodSensor implements IMethodS
 	/** Configuration key for the minimum level that should be captured. */
 	public static final String CONFIG_KEY_MINIMUM_LEVEL = "minlevel";
 
+	/** Configuration key for the max messages captured per second and logger. */
+	public static final String CONFIG_KEY_RATE_LIMIT = "ratelimit";
+
+	/** Configuration key for the aggregation window in milliseconds. */
+	public static final String CONFIG_KEY_AGGREGATION_WINDOW = "aggregationwindow";
+
+	/** Default max messages captured per second and logger. */
+	public static final long DEFAULT_RATE_LIMIT = 100L;
+
+	/** Default aggregation window in milliseconds. */
+	public static final long DEFAULT_AGGREGATION_WINDOW = 1000L;
+
 	/**
 	 * Used for creating and resolving ids necessary to communicate with the server.
 	 */
 	@Autowired
 	private IPlatformManager platformManager;
 
+	/**
+	 * The core service for reporting the counts of the messages not captured.
+	 */
+	@Autowired
+	private ICoreService coreService;
+
+	/**
+	 * The timer used for the rate limiting and aggregation.
+	 */
+	@Autowired
+	private Timer timer;
+
+	/**
+	 * Executor service for reporting the counts of the messages not captured.
+	 */
+	@Autowired(required = false)
+	@Qualifier("coreServiceExecutorService")
+	private ScheduledExecutorService executorService;
+
 	/** hook instance. */
 	private Log4JLoggingHook hook;
 
@@ -35,7 +71,9 @@ public class Log4JLoggingSensor extends AbstractMethodSensor implements IMethodS
 	protected void initHook(Map<String, Object> parameters) {
 		// read the desired minimum level and pass it to the hook
 		String minimumLevelToCapture = (String) parameters.get(CONFIG_KEY_MINIMUM_LEVEL);
-		hook = new Log4JLoggingHook(platformManager, minimumLevelToCapture);
+		long rateLimit = NumberUtils.toLong(String.valueOf(parameters.get(CONFIG_KEY_RATE_LIMIT)), DEFAULT_RATE_LIMIT);
+		long aggregationWindow = NumberUtils.toLong(String.valueOf(parameters.get(CONFIG_KEY_AGGREGATION_WINDOW)), DEFAULT_AGGREGATION_WINDOW);
+		hook = new Log4JLoggingHook(platformManager, coreService, timer, minimumLevelToCapture, rateLimit, aggregationWindow, executorService);
 	}
 
 	/**
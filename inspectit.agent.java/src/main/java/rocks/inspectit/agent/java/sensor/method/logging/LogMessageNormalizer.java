@@ -0,0 +1,195 @@
+package rocks.inspectit.agent.java.sensor.method.logging;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import rocks.inspectit.shared.all.communication.data.LoggingData;
+
+/**
+ * Normalizes the logged messages into the message pattern by replacing the numbers, number-like
+ * tokens (ids, addresses, times) and quoted strings with the
+ * {@value LoggingData#ARGUMENT_PLACEHOLDER} placeholder. The replaced values are returned as the
+ * argument list, thus the messages logged with different values have the same pattern.
+ *
+ * @author Ivan Senic
+ *
+ */
+public class LogMessageNormalizer {
+
+	/**
+	 * Normalizes the given message. The message is not changed if it already contains the
+	 * {@value LoggingData#ARGUMENT_PLACEHOLDER} placeholder, as the arguments could not be
+	 * correctly assigned to the placeholders anymore.
+	 *
+	 * @param message
+	 *            Message to normalize.
+	 * @return {@link NormalizedMessage} holding the pattern and the replaced arguments.
+	 */
+	public NormalizedMessage normalize(String message) {
+		if (message.contains(LoggingData.ARGUMENT_PLACEHOLDER)) {
+			return new NormalizedMessage(message, Collections.<String> emptyList());
+		}
+
+		int length = message.length();
+		StringBuilder pattern = null;
+		List<String> arguments = null;
+		// start of the part of message not yet copied to the pattern
+		int copied = 0;
+
+		int i = 0;
+		while (i < length) {
+			char c = message.charAt(i);
+			int end = -1;
+			if (((c == '\'') || (c == '"')) && isTokenStart(message, i)) {
+				end = findQuotedEnd(message, i, c);
+			} else if (Character.isDigit(c) && isTokenStart(message, i)) {
+				end = findNumberTokenEnd(message, i);
+			}
+
+			if (end > 0) {
+				if (null == pattern) {
+					pattern = new StringBuilder(length);
+					arguments = new ArrayList<String>();
+				}
+				pattern.append(message, copied, i).append(LoggingData.ARGUMENT_PLACEHOLDER);
+				arguments.add(message.substring(i, end));
+				copied = end;
+				i = end;
+			} else if (Character.isLetterOrDigit(c)) {
+				// skip whole word so that digits in it are not replaced
+				while ((i < length) && isTokenPart(message.charAt(i))) {
+					i++;
+				}
+			} else {
+				i++;
+			}
+		}
+
+		if (null == pattern) {
+			return new NormalizedMessage(message, Collections.<String> emptyList());
+		}
+		pattern.append(message, copied, length);
+		return new NormalizedMessage(pattern.toString(), arguments);
+	}
+
+	/**
+	 * Returns if the token can start at the given index, meaning it's not preceded by a letter,
+	 * digit or <code>_</code>.
+	 *
+	 * @param message
+	 *            Message
+	 * @param index
+	 *            Index of the token start.
+	 * @return <code>true</code> if index is on the word boundary
+	 */
+	private boolean isTokenStart(String message, int index) {
+		return (index == 0) || !isTokenPart(message.charAt(index - 1));
+	}
+
+	/**
+	 * Finds the end of the quoted string starting at the given index.
+	 *
+	 * @param message
+	 *            Message
+	 * @param start
+	 *            Index of the opening quote.
+	 * @param quote
+	 *            Quote char.
+	 * @return Index after the closing quote or <code>-1</code> if the quote is not closed.
+	 */
+	private int findQuotedEnd(String message, int start, char quote) {
+		int end = message.indexOf(quote, start + 1);
+		return (end < 0) ? -1 : end + 1;
+	}
+
+	/**
+	 * Finds the end of the number-like token starting at the given index. Letters, digits,
+	 * <code>_</code> and the separators <code>. - :</code> followed by a letter or digit are
+	 * included, so that decimals, hex values, UUIDs, IP addresses and times are one token.
+	 *
+	 * @param message
+	 *            Message
+	 * @param start
+	 *            Index of the first digit.
+	 * @return Index after the last char of the token.
+	 */
+	private int findNumberTokenEnd(String message, int start) {
+		int length = message.length();
+		int i = start;
+		while (i < length) {
+			char c = message.charAt(i);
+			if (isTokenPart(c)) {
+				i++;
+			} else if (((c == '.') || (c == '-') || (c == ':')) && ((i + 1) < length) && isTokenPart(message.charAt(i + 1))) {
+				i += 2;
+			} else {
+				break;
+			}
+		}
+		return i;
+	}
+
+	/**
+	 * Returns if the char can be part of the word or number token.
+	 *
+	 * @param c
+	 *            char
+	 * @return <code>true</code> for letters, digits and <code>_</code>
+	 */
+	private boolean isTokenPart(char c) {
+		return Character.isLetterOrDigit(c) || (c == '_');
+	}
+
+	/**
+	 * Normalized message holding the message pattern and the arguments replaced in the pattern.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	public static class NormalizedMessage {
+
+		/**
+		 * Message pattern with the arguments replaced by the placeholder.
+		 */
+		private final String pattern;
+
+		/**
+		 * Replaced arguments in the order of appearance.
+		 */
+		private final List<String> arguments;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param pattern
+		 *            Message pattern with the arguments replaced by the placeholder.
+		 * @param arguments
+		 *            Replaced arguments in the order of appearance.
+		 */
+		NormalizedMessage(String pattern, List<String> arguments) {
+			this.pattern = pattern;
+			this.arguments = arguments;
+		}
+
+		/**
+		 * Gets {@link #pattern}.
+		 *
+		 * @return {@link #pattern}
+		 */
+		public String getPattern() {
+			return pattern;
+		}
+
+		/**
+		 * Gets {@link #arguments}.
+		 *
+		 * @return {@link #arguments}
+		 */
+		public List<String> getArguments() {
+			return arguments;
+		}
+
+	}
+
+}
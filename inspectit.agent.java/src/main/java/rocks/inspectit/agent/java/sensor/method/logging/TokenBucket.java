@@ -0,0 +1,66 @@
+package rocks.inspectit.agent.java.sensor.method.logging;
+
+/**
+ * Token bucket limiting the rate of the captured log messages. The bucket holds at most the
+ * tokens for one second and is refilled continuously with the given rate.
+ *
+ * @author Ivan Senic
+ *
+ */
+public class TokenBucket {
+
+	/**
+	 * Tokens added per millisecond.
+	 */
+	private final double tokensPerMillisecond;
+
+	/**
+	 * Maximum amount of tokens.
+	 */
+	private final double capacity;
+
+	/**
+	 * Currently available tokens.
+	 */
+	private double tokens;
+
+	/**
+	 * Time of the last refill in milliseconds.
+	 */
+	private double lastRefill;
+
+	/**
+	 * Default constructor. The bucket is full when created.
+	 *
+	 * @param ratePerSecond
+	 *            Allowed amount of messages per second, must be positive.
+	 * @param currentTime
+	 *            Current time in milliseconds.
+	 */
+	public TokenBucket(long ratePerSecond, double currentTime) {
+		this.capacity = ratePerSecond;
+		this.tokensPerMillisecond = ratePerSecond / 1000d;
+		this.tokens = capacity;
+		this.lastRefill = currentTime;
+	}
+
+	/**
+	 * Takes one token from the bucket if available.
+	 *
+	 * @param currentTime
+	 *            Current time in milliseconds.
+	 * @return <code>true</code> if token was available, <code>false</code> if rate is exceeded
+	 */
+	public synchronized boolean tryAcquire(double currentTime) {
+		if (currentTime > lastRefill) {
+			tokens = Math.min(capacity, tokens + ((currentTime - lastRefill) * tokensPerMillisecond));
+			lastRefill = currentTime;
+		}
+		if (tokens >= 1d) {
+			tokens -= 1d;
+			return true;
+		}
+		return false;
+	}
+
+}
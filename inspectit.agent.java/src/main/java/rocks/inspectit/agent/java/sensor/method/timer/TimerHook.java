@@ -1,6 +1,5 @@
 package rocks.inspectit.agent.java.sensor.method.timer;
 
-import java.lang.management.ThreadMXBean;
 import java.sql.Timestamp;
 import java.util.List;
 import java.util.Map;
@@ -13,17 +12,20 @@ import rocks.inspectit.agent.java.config.impl.RegisteredSensorConfig;
 import rocks.inspectit.agent.java.core.ICoreService;
 import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.agent.java.core.IdNotAvailableException;
-import rocks.inspectit.agent.java.hooking.IConstructorHook;
-import rocks.inspectit.agent.java.hooking.IMethodHook;
+import rocks.inspectit.agent.java.hooking.AgentThreadContext;
+import rocks.inspectit.agent.java.hooking.IContextConstructorHook;
+import rocks.inspectit.agent.java.hooking.IContextMethodHook;
 import rocks.inspectit.agent.java.sensor.method.averagetimer.AverageTimerHook;
+import rocks.inspectit.agent.java.sensor.method.cpu.IThreadCpuTimeProvider;
+import rocks.inspectit.agent.java.util.DoubleStack;
+import rocks.inspectit.agent.java.util.LongStack;
 import rocks.inspectit.agent.java.util.StringConstraint;
-import rocks.inspectit.agent.java.util.ThreadLocalStack;
 import rocks.inspectit.agent.java.util.Timer;
 import rocks.inspectit.shared.all.communication.data.ParameterContentData;
 
 /**
- * The hook implementation for the timer sensor. It uses the {@link ThreadLocalStack} class to save
- * the time when the method was called.
+ * The hook implementation for the timer sensor. It uses the stacks of the {@link AgentThreadContext}
+ * to save the time when the method was called.
  * <p>
  * The difference to the {@link AverageTimerHook} is that it's using {@link ITimerStorage} objects
  * to save the values. The {@link ITimerStorage} is responsible for the actual data saving, so
@@ -32,18 +34,13 @@ import rocks.inspectit.shared.all.communication.data.ParameterContentData;
  * @author Patrice Bouillet
  *
  */
-public class TimerHook implements IMethodHook, IConstructorHook {
+public class TimerHook implements IContextMethodHook, IContextConstructorHook {
 
 	/**
 	 * The logger of this class. Initialized manually.
 	 */
 	private static final Logger LOG = LoggerFactory.getLogger(TimerHook.class);
 
-	/**
-	 * The stack containing the start time values.
-	 */
-	private final ThreadLocalStack<Double> timeStack = new ThreadLocalStack<Double>();
-
 	/**
 	 * The timer used for accurate measuring.
 	 */
@@ -71,24 +68,14 @@ public class TimerHook implements IMethodHook, IConstructorHook {
 	private final StringConstraint strConstraint;
 
 	/**
-	 * The thread MX bean.
+	 * Provider of the thread CPU time.
 	 */
-	private final ThreadMXBean threadMXBean;
-
-	/**
-	 * Defines if the thread CPU time is supported.
-	 */
-	private boolean supported = false;
+	private final IThreadCpuTimeProvider cpuTimeProvider;
 
 	/**
 	 * Defines if the thread CPU time is enabled.
 	 */
-	private boolean enabled = false;
-
-	/**
-	 * The stack containing the start time values.
-	 */
-	private final ThreadLocalStack<Long> threadCpuTimeStack = new ThreadLocalStack<Long>();
+	private final boolean enabled;
 
 	/**
 	 * The only constructor which needs the used {@link ICoreService} implementation and the used
@@ -103,33 +90,15 @@ public class TimerHook implements IMethodHook, IConstructorHook {
 	 * @param param
 	 *            Additional parameters passed to the {@link TimerStorageFactory} for proper
 	 *            initialization.
-	 * @param threadMXBean
-	 *            The bean used to access the cpu time.
+	 * @param cpuTimeProvider
+	 *            Provider of the thread CPU time.
 	 */
-	public TimerHook(Timer timer, IPlatformManager platformManager, IPropertyAccessor propertyAccessor, Map<String, Object> param, ThreadMXBean threadMXBean) {
+	public TimerHook(Timer timer, IPlatformManager platformManager, IPropertyAccessor propertyAccessor, Map<String, Object> param, IThreadCpuTimeProvider cpuTimeProvider) {
 		this.timer = timer;
 		this.platformManager = platformManager;
 		this.propertyAccessor = propertyAccessor;
-		this.threadMXBean = threadMXBean;
-
-		try {
-			// if it is even supported by this JVM
-			supported = threadMXBean.isThreadCpuTimeSupported();
-			if (supported) {
-				// check if its enabled
-				enabled = threadMXBean.isThreadCpuTimeEnabled();
-				if (!enabled) {
-					// try to enable it
-					threadMXBean.setThreadCpuTimeEnabled(true);
-					// check again now if it is enabled now
-					enabled = threadMXBean.isThreadCpuTimeEnabled();
-				}
-			}
-		} catch (RuntimeException e) {
-			// catching the runtime exceptions which could be thrown by the
-			// above statements.
-			LOG.warn("Exception in the TimerHook.", e);
-		}
+		this.cpuTimeProvider = cpuTimeProvider;
+		this.enabled = cpuTimeProvider.isEnabled();
 
 		timerStorageFactory.setParameters(param);
 		this.strConstraint = new StringConstraint(param);
@@ -140,10 +109,15 @@ public class TimerHook implements IMethodHook, IConstructorHook {
 	 */
 	@Override
 	public void beforeBody(long methodId, long sensorTypeId, Object object, Object[] parameters, RegisteredSensorConfig rsc) {
-		timeStack.push(new Double(timer.getCurrentTime()));
-		if (enabled) {
-			threadCpuTimeStack.push(Long.valueOf(threadMXBean.getCurrentThreadCpuTime()));
-		}
+		beforeBody(AgentThreadContext.get(), methodId, sensorTypeId, object, parameters, rsc);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void beforeBody(AgentThreadContext context, long methodId, long sensorTypeId, Object object, Object[] parameters, RegisteredSensorConfig rsc) {
+		pushTimes(context, true);
 	}
 
 	/**
@@ -151,10 +125,15 @@ public class TimerHook implements IMethodHook, IConstructorHook {
 	 */
 	@Override
 	public void firstAfterBody(long methodId, long sensorTypeId, Object object, Object[] parameters, Object result, RegisteredSensorConfig rsc) {
-		timeStack.push(new Double(timer.getCurrentTime()));
-		if (enabled) {
-			threadCpuTimeStack.push(Long.valueOf(threadMXBean.getCurrentThreadCpuTime()));
-		}
+		firstAfterBody(AgentThreadContext.get(), methodId, sensorTypeId, object, parameters, result, rsc);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void firstAfterBody(AgentThreadContext context, long methodId, long sensorTypeId, Object object, Object[] parameters, Object result, RegisteredSensorConfig rsc) {
+		pushTimes(context, false);
 	}
 
 	/**
@@ -162,16 +141,30 @@ public class TimerHook implements IMethodHook, IConstructorHook {
 	 */
 	@Override
 	public void secondAfterBody(ICoreService coreService, long methodId, long sensorTypeId, Object object, Object[] parameters, Object result, RegisteredSensorConfig rsc) {
-		double endTime = timeStack.pop().doubleValue();
-		double startTime = timeStack.pop().doubleValue();
+		secondAfterBody(AgentThreadContext.get(), coreService, methodId, sensorTypeId, object, parameters, result, rsc);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void secondAfterBody(AgentThreadContext context, ICoreService coreService, long methodId, long sensorTypeId, Object object, Object[] parameters, Object result,
+			RegisteredSensorConfig rsc) {
+		DoubleStack timeStack = context.getTimeStack(AgentThreadContext.TIMER_SLOT);
+		double endTime = timeStack.pop();
+		double startTime = timeStack.pop();
 		double duration = endTime - startTime;
 
 		// default setting to a negative number
 		double cpuDuration = -1.0d;
 		if (enabled) {
-			long cpuEndTime = threadCpuTimeStack.pop().longValue();
-			long cpuStartTime = threadCpuTimeStack.pop().longValue();
-			cpuDuration = (cpuEndTime - cpuStartTime) / 1000000.0d;
+			LongStack threadCpuTimeStack = context.getCpuTimeStack(AgentThreadContext.TIMER_SLOT);
+			long cpuEndTime = threadCpuTimeStack.pop();
+			long cpuStartTime = threadCpuTimeStack.pop();
+			// provider can skip measuring some calls
+			if ((cpuStartTime >= 0) && (cpuEndTime >= 0)) {
+				cpuDuration = (cpuEndTime - cpuStartTime) / 1000000.0d;
+			}
 		}
 
 		List<ParameterContentData> parameterContentData = null;
@@ -216,10 +209,15 @@ public class TimerHook implements IMethodHook, IConstructorHook {
 	 */
 	@Override
 	public void beforeConstructor(long methodId, long sensorTypeId, Object[] parameters, RegisteredSensorConfig rsc) {
-		timeStack.push(new Double(timer.getCurrentTime()));
-		if (enabled) {
-			threadCpuTimeStack.push(Long.valueOf(threadMXBean.getCurrentThreadCpuTime()));
-		}
+		beforeConstructor(AgentThreadContext.get(), methodId, sensorTypeId, parameters, rsc);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void beforeConstructor(AgentThreadContext context, long methodId, long sensorTypeId, Object[] parameters, RegisteredSensorConfig rsc) {
+		pushTimes(context, true);
 	}
 
 	/**
@@ -227,12 +225,36 @@ public class TimerHook implements IMethodHook, IConstructorHook {
 	 */
 	@Override
 	public void afterConstructor(ICoreService coreService, long methodId, long sensorTypeId, Object object, Object[] parameters, RegisteredSensorConfig rsc) {
-		timeStack.push(new Double(timer.getCurrentTime()));
+		afterConstructor(AgentThreadContext.get(), coreService, methodId, sensorTypeId, object, parameters, rsc);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void afterConstructor(AgentThreadContext context, ICoreService coreService, long methodId, long sensorTypeId, Object object, Object[] parameters, RegisteredSensorConfig rsc) {
+		pushTimes(context, false);
+		// just call the second after body method directly
+		secondAfterBody(context, coreService, methodId, sensorTypeId, object, parameters, null, rsc);
+	}
+
+	/**
+	 * Pushes the current time and if enabled the current thread CPU time to the stacks of this
+	 * hook.
+	 *
+	 * @param context
+	 *            Context of the current thread.
+	 * @param start
+	 *            If the start or the end of the call is measured.
+	 */
+	private void pushTimes(AgentThreadContext context, boolean start) {
+		context.getTimeStack(AgentThreadContext.TIMER_SLOT).push(timer.getCurrentTime());
 		if (enabled) {
-			threadCpuTimeStack.push(Long.valueOf(threadMXBean.getCurrentThreadCpuTime()));
+			LongStack cpuTimeStack = context.getCpuTimeStack(AgentThreadContext.TIMER_SLOT);
+			// each not finished call has its start time on the stack
+			int depth = start ? cpuTimeStack.size() : cpuTimeStack.size() - 1;
+			cpuTimeStack.push(cpuTimeProvider.getCurrentThreadCpuTime(depth));
 		}
-		// just call the second after body method directly
-		secondAfterBody(coreService, methodId, sensorTypeId, object, parameters, null, rsc);
 	}
 
 }
@@ -10,6 +10,8 @@ import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.agent.java.hooking.IHook;
 import rocks.inspectit.agent.java.sensor.method.AbstractMethodSensor;
 import rocks.inspectit.agent.java.sensor.method.IMethodSensor;
+import rocks.inspectit.agent.java.sensor.method.cpu.ThreadCpuTimeProviderFactory;
+import rocks.inspectit.agent.java.sensor.method.cpu.ThreadCpuTimeSampler;
 import rocks.inspectit.agent.java.util.Timer;
 
 /**
@@ -38,6 +40,12 @@ public class TimerSensor extends AbstractMethodSensor implements IMethodSensor {
 	@Autowired
 	private IPropertyAccessor propertyAccessor;
 
+	/**
+	 * Sampler of the thread CPU time.
+	 */
+	@Autowired(required = false)
+	private ThreadCpuTimeSampler threadCpuTimeSampler;
+
 	/**
 	 * The used timer hook.
 	 */
@@ -78,7 +86,7 @@ public class TimerSensor extends AbstractMethodSensor implements IMethodSensor {
 	 */
 	@Override
 	public void initHook(Map<String, Object> parameter) {
-		timerHook = new TimerHook(timer, platformManager, propertyAccessor, parameter, ManagementFactory.getThreadMXBean());
+		timerHook = new TimerHook(timer, platformManager, propertyAccessor, parameter, ThreadCpuTimeProviderFactory.createProvider(parameter, ManagementFactory.getThreadMXBean(), threadCpuTimeSampler));
 	}
 
 }
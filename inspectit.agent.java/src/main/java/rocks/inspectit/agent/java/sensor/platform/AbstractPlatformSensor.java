@@ -43,6 +43,18 @@ public abstract class AbstractPlatformSensor implements IPlatformSensor, Initial
 	@Autowired
 	private IPlatformManager platformManager;
 
+	/**
+	 * Values the change detection compares to, read in the last {@link #gather()} that was
+	 * considered as change.
+	 */
+	private long[] lastValues;
+
+	/**
+	 * If the values read in the last {@link #gather()} differ from the ones read before. Sensors
+	 * not reporting the values are always considered as changed.
+	 */
+	private boolean changed = true;
+
 	/**
 	 * Get the corresponding {@link SystemSensorData} of the {@link IPlatformSensor}. Each sensor
 	 * has its own data collector where collected data is put and on the first run each data
@@ -94,6 +106,63 @@ public abstract class AbstractPlatformSensor implements IPlatformSensor, Initial
 		}
 	}
 
+	/**
+	 * Reports the values read in the current {@link #gather()} for the change detection. Values
+	 * that always move, like the uptime, should not be passed. The values are compared to the
+	 * values of the last change, so that a slow drift below the
+	 * {@link #getRelativeChangeThreshold()} is still detected once it sums up.
+	 *
+	 * @param values
+	 *            Values read.
+	 */
+	protected void valuesGathered(long... values) {
+		changed = isChanged(values, getRelativeChangeThreshold());
+		if (changed) {
+			lastValues = values;
+		}
+	}
+
+	/**
+	 * Returns the relative difference to the last values a value must exceed to be considered as
+	 * changed. Sub-classes reporting values that slightly move also when the application is idle
+	 * should override this method.
+	 *
+	 * @return Relative threshold, <code>0</code> to consider any difference as change.
+	 */
+	protected double getRelativeChangeThreshold() {
+		return 0.0d;
+	}
+
+	/**
+	 * Returns if the given values differ from the {@link #lastValues} more than the threshold.
+	 *
+	 * @param values
+	 *            Values read.
+	 * @param relativeThreshold
+	 *            Relative threshold.
+	 * @return <code>true</code> if the values changed
+	 */
+	private boolean isChanged(long[] values, double relativeThreshold) {
+		if ((null == lastValues) || (lastValues.length != values.length)) {
+			return true;
+		}
+		for (int i = 0; i < values.length; i++) {
+			long difference = Math.abs(values[i] - lastValues[i]);
+			if (difference > (relativeThreshold * Math.abs(lastValues[i]))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean hasChanged() {
+		return changed;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -0,0 +1,90 @@
+package rocks.inspectit.agent.java.sensor.platform;
+
+/**
+ * Decides after how many gather iterations the data of one {@link IPlatformSensor} is retrieved
+ * and sent. The data objects of the platform sensors already aggregate all gathered values (count,
+ * min, max and total), so a data object covering a longer window is the run-length form of the
+ * same values that were not moving.
+ * <p>
+ * The window starts with {@link #MIN_ITERATIONS}. Every window in which the sensor values did not
+ * change doubles the next window up to {@link #MAX_ITERATIONS}. As soon as the values move again,
+ * the current window is closed once it reached {@link #MIN_ITERATIONS} and the collection falls
+ * back to the full resolution.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @author Ivan Senic
+ *
+ */
+public class AdaptiveCollectionWindow {
+
+	/**
+	 * Minimum amount of iterations in one window, resolution used while the values are moving.
+	 */
+	public static final int MIN_ITERATIONS = 5;
+
+	/**
+	 * Maximum amount of iterations in one window, resolution used while the values are idle.
+	 */
+	public static final int MAX_ITERATIONS = 60;
+
+	/**
+	 * Amount of iterations of the current window.
+	 */
+	private int windowSize = MIN_ITERATIONS;
+
+	/**
+	 * Iterations gathered in the current window.
+	 */
+	private int count;
+
+	/**
+	 * If the values changed in the current window.
+	 */
+	private boolean changed;
+
+	/**
+	 * Returns if this is the first iteration of the window, meaning that the sensor should be
+	 * reset before gathering.
+	 *
+	 * @return <code>true</code> if no iteration was gathered in the current window
+	 */
+	public boolean isStart() {
+		return 0 == count;
+	}
+
+	/**
+	 * Registers one gather iteration.
+	 *
+	 * @param valuesChanged
+	 *            If the sensor values changed in this iteration.
+	 * @return <code>true</code> if the window is complete and the data should be retrieved from the
+	 *         sensor
+	 */
+	public boolean gathered(boolean valuesChanged) {
+		count++;
+		changed |= valuesChanged;
+
+		if ((count >= windowSize) || (changed && (count >= MIN_ITERATIONS))) {
+			if (changed) {
+				windowSize = MIN_ITERATIONS;
+			} else {
+				windowSize = Math.min(windowSize * 2, MAX_ITERATIONS);
+			}
+			count = 0;
+			changed = false;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Gets {@link #windowSize}.
+	 *
+	 * @return {@link #windowSize}
+	 */
+	public int getWindowSize() {
+		return windowSize;
+	}
+
+}
@@ -35,6 +35,7 @@ public class ClassLoadingInformation extends AbstractPlatformSensor {
 		int loadedClassCount = this.getRuntimeBean().getLoadedClassCount();
 		long totalLoadedClassCount = this.getRuntimeBean().getTotalLoadedClassCount();
 		long unloadedClassCount = this.getRuntimeBean().getUnloadedClassCount();
+		this.valuesGathered(loadedClassCount, totalLoadedClassCount, unloadedClassCount);
 
 		this.classLoadingInformationData.incrementCount();
 		this.classLoadingInformationData.addLoadedClassCount(loadedClassCount);
@@ -16,6 +16,12 @@ import rocks.inspectit.shared.all.communication.data.CompilationInformationData;
  */
 public class CompilationInformation extends AbstractPlatformSensor {
 
+	/**
+	 * Relative change of the total compilation time considered as change. The JIT compiler
+	 * continues to compile now and then, also when the application is idle.
+	 */
+	private static final double RELATIVE_CHANGE_THRESHOLD = 0.05d;
+
 	/** Collector class. */
 	private CompilationInformationData compilationInformationData = new CompilationInformationData();
 
@@ -24,6 +30,14 @@ public class CompilationInformation extends AbstractPlatformSensor {
 	 */
 	private RuntimeInfoProvider runtimeBean;
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected double getRelativeChangeThreshold() {
+		return RELATIVE_CHANGE_THRESHOLD;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -33,6 +47,7 @@ public class CompilationInformation extends AbstractPlatformSensor {
 		// renewal. It will not be set on the first execution of
 		// {@link CompilationInformation#gather()}, but shortly before.
 		long totalCompilationTime = this.getRuntimeBean().getTotalCompilationTime();
+		this.valuesGathered(totalCompilationTime);
 
 		this.compilationInformationData.incrementCount();
 		this.compilationInformationData.addTotalCompilationTime(totalCompilationTime);
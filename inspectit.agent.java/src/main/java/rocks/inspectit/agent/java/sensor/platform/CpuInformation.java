@@ -35,6 +35,8 @@ public class CpuInformation extends AbstractPlatformSensor {
 		// before.
 		float cpuUsage = this.getOsBean().retrieveCpuUsage();
 		long cpuTime = this.getOsBean().getProcessCpuTime();
+		// usage in whole percents, as the usage of an idle process is never exactly the same
+		this.valuesGathered(Math.round(cpuUsage));
 
 		this.cpuInformationData.incrementCount();
 		this.cpuInformationData.updateProcessCpuTime(cpuTime);
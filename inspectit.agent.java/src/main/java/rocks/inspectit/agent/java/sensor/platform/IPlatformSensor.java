@@ -37,4 +37,13 @@ public interface IPlatformSensor extends ISensor {
 	 * @return the collector class.
 	 */
 	SystemSensorData get();
+
+	/**
+	 * Returns if the values read in the last {@link #gather()} differ from the values read in the
+	 * gather before. Used for adapting the collection rate, so that the sensors with the values
+	 * not moving are collected less often.
+	 *
+	 * @return <code>true</code> if the values changed
+	 */
+	boolean hasChanged();
 }
@@ -17,6 +17,12 @@ import rocks.inspectit.shared.all.communication.data.MemoryInformationData;
  */
 public class MemoryInformation extends AbstractPlatformSensor {
 
+	/**
+	 * Relative change of the memory values considered as change. The used memory moves with every
+	 * allocation and collection, also when the application is idle.
+	 */
+	private static final double RELATIVE_CHANGE_THRESHOLD = 0.1d;
+
 	/** Collector class. */
 	private MemoryInformationData memoryInformationData = new MemoryInformationData();
 
@@ -26,6 +32,14 @@ public class MemoryInformation extends AbstractPlatformSensor {
 	/** The {@link OperatingSystemInfoProvider} used to retrieve physical memory information. */
 	private OperatingSystemInfoProvider osBean;
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected double getRelativeChangeThreshold() {
+		return RELATIVE_CHANGE_THRESHOLD;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -41,6 +55,7 @@ public class MemoryInformation extends AbstractPlatformSensor {
 		long comittedHeapMemorySize = this.getMemoryBean().getHeapMemoryUsage().getCommitted();
 		long usedNonHeapMemorySize = this.getMemoryBean().getNonHeapMemoryUsage().getUsed();
 		long comittedNonHeapMemorySize = this.getMemoryBean().getNonHeapMemoryUsage().getCommitted();
+		this.valuesGathered(freePhysMemory, freeSwapSpace, comittedVirtualMemSize, usedHeapMemorySize, comittedHeapMemorySize, usedNonHeapMemorySize, comittedNonHeapMemorySize);
 
 		this.memoryInformationData.incrementCount();
 		this.memoryInformationData.addFreePhysMemory(freePhysMemory);
@@ -31,6 +31,8 @@ public class RuntimeInformation extends AbstractPlatformSensor {
 		// It will not be set on the first execution of {@link RuntimeInformation#gather()}, but
 		// shortly before.
 		long uptime = this.getRuntimeBean().getUptime();
+		// uptime always moves, so no values for the change detection
+		this.valuesGathered();
 
 		this.runtimeInformationData.setUptime(uptime);
 	}
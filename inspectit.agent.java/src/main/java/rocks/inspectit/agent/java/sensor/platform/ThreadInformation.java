@@ -34,6 +34,7 @@ public class ThreadInformation extends AbstractPlatformSensor {
 		int peakThreadCount = this.getThreadBean().getPeakThreadCount();
 		int threadCount = this.getThreadBean().getThreadCount();
 		long totalStartedThreadCount = this.getThreadBean().getTotalStartedThreadCount();
+		this.valuesGathered(daemonThreadCount, peakThreadCount, threadCount, totalStartedThreadCount);
 
 		this.threadInformationData.incrementCount();
 		this.threadInformationData.addDaemonThreadCount(daemonThreadCount);
@@ -123,6 +123,27 @@ public class SpringConfiguration implements BeanDefinitionRegistryPostProcessor
 		return Executors.newScheduledThreadPool(3, threadFactory);
 	}
 
+	/**
+	 * @param threadTransformHelper
+	 *            {@link IThreadTransformHelper}
+	 * @return Returns threadCpuTimeSamplerExecutorService
+	 */
+	@Bean(name = "threadCpuTimeSamplerExecutorService")
+	@Scope(BeanDefinition.SCOPE_SINGLETON)
+	@Autowired
+	public ScheduledExecutorService getThreadCpuTimeSamplerExecutorService(final IThreadTransformHelper threadTransformHelper) {
+		ThreadFactory inspectitThreadFactory = new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				return new AgentAwareThread(r, threadTransformHelper);
+			}
+		};
+
+		// thread is only created when the sampling is started
+		ThreadFactory threadFactory = new ThreadFactoryBuilder().setThreadFactory(inspectitThreadFactory).setNameFormat("inspectit-thread-cpu-time-sampler-thread-%d").setDaemon(true).build();
+		return Executors.newSingleThreadScheduledExecutor(threadFactory);
+	}
+
 	/**
 	 * Creates the client bean.
 	 *
@@ -1,5 +1,10 @@
 package rocks.inspectit.agent.java.util;
 
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.google.common.io.ByteStreams;
+
 /**
  * Small utility class to help us distinguish our classes from the rest.
  *
@@ -29,4 +34,41 @@ public final class ClassLoadingUtil {
 	public static boolean isInspectITClass(String className) {
 		return className.startsWith(CLASS_NAME_PREFIX);
 	}
+
+	/**
+	 * Reads the byte code of the class from the input stream provided by the given class loader.
+	 * If the class loader is <code>null</code>, then
+	 * {@link ClassLoader#getSystemResourceAsStream(String)} will be used to find the byte code.
+	 *
+	 * @param className
+	 *            Class name.
+	 * @param classLoader
+	 *            Class loader loading the class, can be <code>null</code>.
+	 * @return Byte code or <code>null</code> if the class loader does not provide the class file.
+	 * @throws IOException
+	 *             If reading of the class file fails.
+	 */
+	public static byte[] getByteCode(String className, ClassLoader classLoader) throws IOException {
+		String resourceName = className.replace('.', '/') + ".class";
+		InputStream is;
+		if (null != classLoader) {
+			is = classLoader.getResourceAsStream(resourceName);
+		} else {
+			is = ClassLoader.getSystemResourceAsStream(resourceName);
+		}
+
+		if (null == is) {
+			return null;
+		}
+
+		try {
+			return ByteStreams.toByteArray(is);
+		} finally {
+			try {
+				is.close();
+			} catch (IOException e) { // NOPMD //NOCHK
+				// ignore
+			}
+		}
+	}
 }
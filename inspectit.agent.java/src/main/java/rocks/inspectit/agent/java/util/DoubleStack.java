@@ -0,0 +1,82 @@
+package rocks.inspectit.agent.java.util;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Simple array based stack of primitive double values. Values are not boxed and the array is
+ * allocated on the first push, so stacks that are created but never used do not hold any array.
+ * Not thread safe, meant to be used by one thread only.
+ *
+ * @author Ivan Senic
+ *
+ */
+public class DoubleStack {
+
+	/**
+	 * Initial capacity of the stack.
+	 */
+	private static final int INITIAL_CAPACITY = 8;
+
+	/**
+	 * Shared empty array used until the first push.
+	 */
+	private static final double[] EMPTY_VALUES = new double[0];
+
+	/**
+	 * Values.
+	 */
+	private double[] values = EMPTY_VALUES;
+
+	/**
+	 * Current size of the stack.
+	 */
+	private int size;
+
+	/**
+	 * Pushes the specified value onto the stack.
+	 *
+	 * @param value
+	 *            the value to push onto the stack.
+	 */
+	public void push(double value) {
+		if (size == values.length) {
+			double[] grown = new double[Math.max(INITIAL_CAPACITY, values.length << 1)];
+			System.arraycopy(values, 0, grown, 0, size);
+			values = grown;
+		}
+		values[size++] = value;
+	}
+
+	/**
+	 * Returns and removes the last pushed value.
+	 *
+	 * @return The last pushed value.
+	 * @throws NoSuchElementException
+	 *             If stack is empty.
+	 */
+	public double pop() throws NoSuchElementException {
+		if (0 == size) {
+			throw new NoSuchElementException();
+		}
+		return values[--size];
+	}
+
+	/**
+	 * Returns the current size of the stack.
+	 *
+	 * @return Returns the current size of the stack.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns if stack is empty.
+	 *
+	 * @return Returns if stack is empty.
+	 */
+	public boolean isEmpty() {
+		return 0 == size;
+	}
+
+}
@@ -0,0 +1,77 @@
+package rocks.inspectit.agent.java.util;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Simple array based stack of primitive long values. Values are not boxed and the array is
+ * allocated only when the stack needs to grow. Not thread safe, meant to be used by one thread
+ * only.
+ *
+ * @author Ivan Senic
+ *
+ */
+public class LongStack {
+
+	/**
+	 * Initial capacity of the stack.
+	 */
+	private static final int INITIAL_CAPACITY = 8;
+
+	/**
+	 * Values.
+	 */
+	private long[] values = new long[INITIAL_CAPACITY];
+
+	/**
+	 * Current size of the stack.
+	 */
+	private int size;
+
+	/**
+	 * Pushes the specified value onto the stack.
+	 *
+	 * @param value
+	 *            the value to push onto the stack.
+	 */
+	public void push(long value) {
+		if (size == values.length) {
+			long[] grown = new long[values.length << 1];
+			System.arraycopy(values, 0, grown, 0, size);
+			values = grown;
+		}
+		values[size++] = value;
+	}
+
+	/**
+	 * Returns and removes the last pushed value.
+	 *
+	 * @return The last pushed value.
+	 * @throws NoSuchElementException
+	 *             If stack is empty.
+	 */
+	public long pop() throws NoSuchElementException {
+		if (0 == size) {
+			throw new NoSuchElementException();
+		}
+		return values[--size];
+	}
+
+	/**
+	 * Returns the current size of the stack.
+	 *
+	 * @return Returns the current size of the stack.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns if stack is empty.
+	 *
+	 * @return Returns if stack is empty.
+	 */
+	public boolean isEmpty() {
+		return 0 == size;
+	}
+
+}
@@ -14,6 +14,8 @@ import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -36,6 +38,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Matchers;
 import org.mockito.Mock;
@@ -56,10 +59,12 @@ import rocks.inspectit.agent.java.connection.IConnection;
 import rocks.inspectit.agent.java.connection.ServerUnavailableException;
 import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.agent.java.core.IdNotAvailableException;
+import rocks.inspectit.agent.java.event.ConnectionEstablishedEvent;
 import rocks.inspectit.agent.java.hooking.IHookDispatcherMapper;
 import rocks.inspectit.agent.java.instrumentation.InstrumenterFactory;
 import rocks.inspectit.agent.java.sensor.method.IMethodSensor;
 import rocks.inspectit.shared.all.instrumentation.classcache.ClassType;
+import rocks.inspectit.shared.all.instrumentation.classcache.Type;
 import rocks.inspectit.shared.all.instrumentation.config.IMethodInstrumentationPoint;
 import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
 import rocks.inspectit.shared.all.instrumentation.config.impl.MethodInstrumentationConfig;
@@ -105,6 +110,12 @@ public class ByteCodeAnalyzerTest extends TestBase {
 	@Mock
 	ClassHashHelper classHashHelper;
 
+	@Mock
+	ClassPrefilter classPrefilter;
+
+	@Mock
+	ClassAnalysisBatcher classAnalysisBatcher;
+
 	@Mock
 	InstrumenterFactory instrumenterFactory;
 
@@ -131,6 +142,8 @@ public class ByteCodeAnalyzerTest extends TestBase {
 	@BeforeMethod
 	public void setup() throws IdNotAvailableException, ServerUnavailableException {
 		when(platformManager.getPlatformId()).thenReturn(platformId);
+		when(classPrefilter.mayBeInstrumented(Matchers.<Type> any())).thenReturn(true);
+		when(classPrefilter.mayBeInstrumented(Matchers.<byte[]> any(), Matchers.<ClassLoader> any())).thenReturn(true);
 		doAnswer(new Answer<Void>() {
 			@Override
 			public Void answer(InvocationOnMock invocation) throws Throwable {
@@ -362,10 +375,57 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			verify(classHashHelper, times(1)).isSent(fqnCaptor.getValue(), hashCaptor.getValue());
 			// but we asked for the instrumentation result
 			verify(classHashHelper, times(1)).getInstrumentationDefinition(fqnCaptor.getValue());
+			verify(classHashHelper, times(1)).startVerification(fqnCaptor.getValue());
 			verifyNoMoreInteractions(classHashHelper);
 			verifyZeroInteractions(platformManager, connection, hookDispatcherMapper);
 		}
 
+		@Test
+		public void notToBeSentVerification() throws Exception {
+			String className = TestClass.class.getName();
+			ClassLoader classLoader = TestClass.class.getClassLoader();
+			byte[] byteCode = getByteCode(className);
+
+			ArgumentCaptor<String> fqnCaptor = ArgumentCaptor.forClass(String.class);
+			ArgumentCaptor<String> hashCaptor = ArgumentCaptor.forClass(String.class);
+			when(classHashHelper.isSent(fqnCaptor.capture(), hashCaptor.capture())).thenReturn(true);
+			when(classHashHelper.getInstrumentationDefinition(fqnCaptor.capture())).thenReturn(null);
+			ArgumentCaptor<ClassType> classCaptor = ArgumentCaptor.forClass(ClassType.class);
+			when(classHashHelper.startVerification(fqnCaptor.capture())).thenReturn(true);
+			when(connection.isConnected()).thenReturn(true);
+			when(connection.analyze(eq(platformId.longValue()), anyString(), classCaptor.capture())).thenReturn(instrumentationResult);
+
+			byte[] instrumentedByteCode = byteCodeAnalyzer.analyzeAndInstrument(byteCode, className, classLoader);
+
+			// no instrumentation with the persisted definition, but class sent in background
+			assertThat(instrumentedByteCode, is(nullValue()));
+			verify(connection, times(1)).analyze(platformId.longValue(), hashCaptor.getValue(), classCaptor.getValue());
+			assertThat(classCaptor.getValue().getFQN(), is(className));
+			verify(classHashHelper, times(1)).registerInstrumentationDefinition(fqnCaptor.getValue(), instrumentationResult);
+			verify(classHashHelper, times(0)).registerVerificationFailed(anyString());
+		}
+
+		@Test
+		public void notToBeSentVerificationConnectionOffline() throws Exception {
+			String className = TestClass.class.getName();
+			ClassLoader classLoader = TestClass.class.getClassLoader();
+			byte[] byteCode = getByteCode(className);
+
+			ArgumentCaptor<String> fqnCaptor = ArgumentCaptor.forClass(String.class);
+			ArgumentCaptor<String> hashCaptor = ArgumentCaptor.forClass(String.class);
+			when(classHashHelper.isSent(fqnCaptor.capture(), hashCaptor.capture())).thenReturn(true);
+			when(classHashHelper.getInstrumentationDefinition(fqnCaptor.capture())).thenReturn(null);
+			when(classHashHelper.startVerification(fqnCaptor.capture())).thenReturn(true);
+			when(connection.isConnected()).thenReturn(false);
+
+			byte[] instrumentedByteCode = byteCodeAnalyzer.analyzeAndInstrument(byteCode, className, classLoader);
+
+			assertThat(instrumentedByteCode, is(nullValue()));
+			verify(classHashHelper, times(1)).registerVerificationFailed(fqnCaptor.getValue());
+			verify(connection, times(1)).isConnected();
+			verifyNoMoreInteractions(connection);
+		}
+
 		@Test
 		public void notToBeSentCachedInstrumentation() throws Exception {
 			String className = TestClass.class.getName();
@@ -406,6 +466,7 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			verify(classHashHelper, times(1)).registerAnalyzed(fqnCaptor.getValue());
 			// but we asked for the instrumentation result and instrumented
 			verify(classHashHelper, times(1)).getInstrumentationDefinition(fqnCaptor.getValue());
+			verify(classHashHelper, times(1)).startVerification(fqnCaptor.getValue());
 			ArgumentCaptor<RegisteredSensorConfig> rscCaptor = ArgumentCaptor.forClass(RegisteredSensorConfig.class);
 			verify(hookDispatcherMapper, times(1)).addMapping(eq(rscId), rscCaptor.capture());
 			assertThat(rscCaptor.getValue().getId(), is(rscId));
@@ -455,6 +516,90 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			verifyNoMoreInteractions(connection, classHashHelper);
 		}
 
+		@Test
+		public void skippedByPrefilter() throws Exception {
+			String className = TestClass.class.getName();
+			ClassLoader classLoader = TestClass.class.getClassLoader();
+			byte[] byteCode = getByteCode(className);
+			when(classPrefilter.mayBeInstrumented(byteCode, classLoader)).thenReturn(false);
+
+			byte[] instrumentedByteCode = byteCodeAnalyzer.analyzeAndInstrument(byteCode, className, classLoader);
+
+			assertThat(instrumentedByteCode, is(nullValue()));
+			verify(classHashHelper, times(1)).getInstrumentationDefinition(className);
+			verify(classAnalysisBatcher, times(1)).addUnparsed(byteCode);
+			verifyNoMoreInteractions(classHashHelper, classAnalysisBatcher);
+			verifyZeroInteractions(connection, executorService, hookDispatcherMapper);
+		}
+
+		@Test
+		public void skippedByPrefilterWithDefinition() throws Exception {
+			String className = TestClass.class.getName();
+			ClassLoader classLoader = TestClass.class.getClassLoader();
+			byte[] byteCode = getByteCode(className);
+			when(classPrefilter.mayBeInstrumented(byteCode, classLoader)).thenReturn(false);
+			InstrumentationDefinition instrumentationDefinition = new InstrumentationDefinition(className);
+			instrumentationDefinition.setMethodInstrumentationConfigs(Collections.singletonList(new MethodInstrumentationConfig()));
+			when(classHashHelper.getInstrumentationDefinition(className)).thenReturn(instrumentationDefinition);
+
+			byteCodeAnalyzer.analyzeAndInstrument(byteCode, className, classLoader);
+
+			// retransformed class is not skipped
+			verify(classHashHelper, times(1)).registerAnalyzed(className);
+			verify(classHashHelper, times(1)).isSent(eq(className), anyString());
+			verifyZeroInteractions(classAnalysisBatcher);
+		}
+
+		@Test
+		public void notInstrumentableBatched() throws Exception {
+			String className = TestClass.class.getName();
+			ClassLoader classLoader = TestClass.class.getClassLoader();
+			byte[] byteCode = getByteCode(className);
+
+			ArgumentCaptor<String> fqnCaptor = ArgumentCaptor.forClass(String.class);
+			ArgumentCaptor<String> hashCaptor = ArgumentCaptor.forClass(String.class);
+			when(classHashHelper.isSent(fqnCaptor.capture(), hashCaptor.capture())).thenReturn(false);
+			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
+			when(connection.isConnected()).thenReturn(true);
+			when(classPrefilter.mayBeInstrumented(Matchers.<Type> any())).thenReturn(false);
+
+			byte[] instrumentedByteCode = byteCodeAnalyzer.analyzeAndInstrument(byteCode, className, classLoader);
+
+			// as no instrumentation happened, we get a null object
+			assertThat(instrumentedByteCode, is(nullValue()));
+
+			ArgumentCaptor<Type> typeCaptor = ArgumentCaptor.forClass(Type.class);
+			verify(classAnalysisBatcher, times(1)).add(eq(hashCaptor.getValue()), typeCaptor.capture());
+			assertThat(typeCaptor.getValue().getFQN(), is(className));
+			verify(connection, times(1)).isConnected();
+			verify(classHashHelper, atLeastOnce()).isAnalyzed(anyString());
+			verify(classHashHelper, times(1)).isSent(fqnCaptor.getValue(), hashCaptor.getValue());
+			verify(classHashHelper, times(1)).registerAnalyzed(fqnCaptor.getValue());
+			// registered as sent by the batcher only after the batch is sent
+			verify(classHashHelper, never()).registerSent(anyString(), anyString());
+			verifyZeroInteractions(hookDispatcherMapper, executorService);
+			verifyNoMoreInteractions(connection, classHashHelper, classAnalysisBatcher);
+		}
+
+		@Test
+		public void batchFlushedBeforeAnalysis() throws Exception {
+			String className = TestClass.class.getName();
+			ClassLoader classLoader = TestClass.class.getClassLoader();
+			byte[] byteCode = getByteCode(className);
+
+			when(classHashHelper.isSent(anyString(), anyString())).thenReturn(false);
+			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
+			when(connection.isConnected()).thenReturn(true);
+			when(connection.analyze(eq(platformId.longValue()), anyString(), Matchers.<ClassType> any())).thenReturn(null);
+
+			byteCodeAnalyzer.analyzeAndInstrument(byteCode, className, classLoader);
+
+			InOrder inOrder = inOrder(classAnalysisBatcher, connection);
+			inOrder.verify(classAnalysisBatcher, times(1)).flushAndWait(anyLong());
+			inOrder.verify(connection, times(1)).analyze(eq(platformId.longValue()), anyString(), Matchers.<ClassType> any());
+			verifyNoMoreInteractions(classAnalysisBatcher);
+		}
+
 		@Test
 		public void noInstrumentationConnectionOffline() throws Exception {
 			String className = TestClass.class.getName();
@@ -744,4 +889,37 @@ public class ByteCodeAnalyzerTest extends TestBase {
 		}
 
 	}
+
+	public class OnApplicationEvent extends ByteCodeAnalyzerTest {
+
+		@Test
+		public void pendingVerifiedOnConnection() throws Exception {
+			String className = TestClass.class.getName();
+			ClassLoader classLoader = TestClass.class.getClassLoader();
+			byte[] byteCode = getByteCode(className);
+			when(classHashHelper.isSent(eq(className), anyString())).thenReturn(true);
+			when(classHashHelper.getInstrumentationDefinition(className)).thenReturn(null);
+			when(classHashHelper.startVerification(className)).thenReturn(true);
+			when(connection.isConnected()).thenReturn(false);
+			byteCodeAnalyzer.analyzeAndInstrument(byteCode, className, classLoader);
+
+			ArgumentCaptor<ClassType> classCaptor = ArgumentCaptor.forClass(ClassType.class);
+			when(connection.isConnected()).thenReturn(true);
+			when(connection.analyze(eq(platformId.longValue()), anyString(), classCaptor.capture())).thenReturn(instrumentationResult);
+			byteCodeAnalyzer.onApplicationEvent(new ConnectionEstablishedEvent(this));
+
+			verify(classHashHelper, times(1)).registerVerificationFailed(className);
+			verify(connection, times(1)).analyze(eq(platformId.longValue()), anyString(), Matchers.<ClassType> any());
+			assertThat(classCaptor.getValue().getFQN(), is(className));
+			verify(classHashHelper, times(1)).registerInstrumentationDefinition(className, instrumentationResult);
+		}
+
+		@Test
+		public void nothingPending() throws Exception {
+			byteCodeAnalyzer.onApplicationEvent(new ConnectionEstablishedEvent(this));
+
+			verifyZeroInteractions(executorService, connection, classHashHelper);
+		}
+
+	}
 }
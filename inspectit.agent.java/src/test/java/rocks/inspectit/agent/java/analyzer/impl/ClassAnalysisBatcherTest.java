@@ -0,0 +1,245 @@
+package rocks.inspectit.agent.java.analyzer.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.slf4j.Logger;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.agent.java.analyzer.classes.TestClass;
+import rocks.inspectit.agent.java.connection.IConnection;
+import rocks.inspectit.agent.java.connection.ServerUnavailableException;
+import rocks.inspectit.agent.java.core.IPlatformManager;
+import rocks.inspectit.agent.java.util.ClassLoadingUtil;
+import rocks.inspectit.shared.all.exception.BusinessException;
+import rocks.inspectit.shared.all.instrumentation.classcache.ClassType;
+import rocks.inspectit.shared.all.instrumentation.classcache.Type;
+import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
+import rocks.inspectit.shared.all.testbase.TestBase;
+
+@SuppressWarnings({ "PMD", "unchecked" })
+public class ClassAnalysisBatcherTest extends TestBase {
+
+	@InjectMocks
+	ClassAnalysisBatcher batcher;
+
+	@Mock
+	Logger log;
+
+	@Mock
+	IPlatformManager platformManager;
+
+	@Mock
+	IConnection connection;
+
+	@Mock
+	ClassHashHelper classHashHelper;
+
+	@Mock
+	ScheduledExecutorService executorService;
+
+	@Mock
+	InstrumentationDefinition instrumentationDefinition;
+
+	final long platformId = 10L;
+
+	@BeforeMethod
+	public void setup() throws Exception {
+		when(platformManager.getPlatformId()).thenReturn(platformId);
+	}
+
+	public class Flush extends ClassAnalysisBatcherTest {
+
+		@Test
+		public void nothingPending() {
+			batcher.flush();
+
+			verifyZeroInteractions(connection, classHashHelper);
+		}
+
+		@Test
+		public void sent() throws Exception {
+			when(connection.isConnected()).thenReturn(true);
+			Type type = new ClassType("my.Class");
+
+			batcher.add("hash", type);
+			batcher.flush();
+
+			ArgumentCaptor<Map> captor = ArgumentCaptor.forClass(Map.class);
+			verify(connection, times(1)).isConnected();
+			verify(connection, times(1)).analyzeBatch(Matchers.eq(platformId), captor.capture());
+			assertThat((Map<String, Type>) captor.getValue(), hasEntry("hash", type));
+			assertThat(batcher.getPendingCount(), is(0));
+			verify(classHashHelper, times(1)).registerSent("my.Class", "hash");
+			verify(classHashHelper, times(1)).registerInstrumentationDefinition("my.Class", null);
+			verifyNoMoreInteractions(connection, classHashHelper);
+		}
+
+		@Test
+		public void definitionReturned() throws Exception {
+			when(connection.isConnected()).thenReturn(true);
+			when(connection.analyzeBatch(anyLong(), Matchers.<Map<String, Type>> any())).thenReturn(Collections.singletonMap("hash", instrumentationDefinition));
+
+			batcher.add("hash", new ClassType("my.Class"));
+			batcher.flush();
+
+			verify(classHashHelper, times(1)).registerSent("my.Class", "hash");
+			verify(classHashHelper, times(1)).registerInstrumentationDefinition("my.Class", instrumentationDefinition);
+			verifyNoMoreInteractions(classHashHelper);
+		}
+
+		@Test
+		public void serverNotAvailable() throws Exception {
+			when(connection.isConnected()).thenReturn(true);
+			when(connection.analyzeBatch(anyLong(), Matchers.<Map<String, Type>> any())).thenThrow(new ServerUnavailableException(false));
+
+			batcher.add("hash", new ClassType("my.Class"));
+			batcher.flush();
+
+			assertThat(batcher.getPendingCount(), is(1));
+			verifyZeroInteractions(classHashHelper);
+		}
+
+		@Test
+		public void notConnected() throws Exception {
+			when(connection.isConnected()).thenReturn(false);
+
+			batcher.add("hash", new ClassType("my.Class"));
+			batcher.flush();
+
+			assertThat(batcher.getPendingCount(), is(1));
+			verify(connection, times(1)).isConnected();
+			verifyNoMoreInteractions(connection);
+			verifyZeroInteractions(classHashHelper);
+		}
+
+		@Test
+		public void unparsedSent() throws Exception {
+			when(connection.isConnected()).thenReturn(true);
+			byte[] byteCode = ClassLoadingUtil.getByteCode(TestClass.class.getName(), TestClass.class.getClassLoader());
+
+			batcher.addUnparsed(byteCode);
+			batcher.flush();
+
+			ArgumentCaptor<Map> captor = ArgumentCaptor.forClass(Map.class);
+			verify(connection, times(1)).analyzeBatch(Matchers.eq(platformId), captor.capture());
+			Map<String, Type> batch = captor.getValue();
+			assertThat(batch.size(), is(1));
+			assertThat(batch.values().iterator().next().getFQN(), is(TestClass.class.getName()));
+			verify(classHashHelper, times(1)).registerSent(TestClass.class.getName(), batch.keySet().iterator().next());
+			assertThat(batcher.getPendingCount(), is(0));
+		}
+
+		@Test
+		public void unparsedAlreadySent() throws Exception {
+			when(connection.isConnected()).thenReturn(true);
+			when(classHashHelper.isSent(Matchers.eq(TestClass.class.getName()), Matchers.anyString())).thenReturn(true);
+			byte[] byteCode = ClassLoadingUtil.getByteCode(TestClass.class.getName(), TestClass.class.getClassLoader());
+
+			batcher.addUnparsed(byteCode);
+			batcher.flush();
+
+			verifyZeroInteractions(connection);
+			assertThat(batcher.getPendingCount(), is(0));
+		}
+
+		@Test
+		public void businessException() throws Exception {
+			when(connection.isConnected()).thenReturn(true);
+			when(connection.analyzeBatch(anyLong(), Matchers.<Map<String, Type>> any())).thenThrow(new BusinessException(null));
+
+			batcher.add("hash", new ClassType("my.Class"));
+			batcher.flush();
+
+			assertThat(batcher.getPendingCount(), is(0));
+			verifyZeroInteractions(classHashHelper);
+		}
+	}
+
+	public class Add extends ClassAnalysisBatcherTest {
+
+		@Test
+		public void batchFull() {
+			for (int i = 0; i < ClassAnalysisBatcher.BATCH_SIZE; i++) {
+				batcher.add("hash" + i, new ClassType("my.Class" + i));
+			}
+
+			verify(executorService, times(1)).submit(Matchers.<Runnable> any());
+			assertThat(batcher.getPendingCount(), is(ClassAnalysisBatcher.BATCH_SIZE));
+		}
+
+		@Test
+		public void notRegisteredAsSent() {
+			batcher.add("hash", new ClassType("my.Class"));
+
+			verifyZeroInteractions(classHashHelper, connection);
+		}
+
+		@Test
+		public void maxPendingTypes() {
+			for (int i = 0; i <= ClassAnalysisBatcher.MAX_PENDING_TYPES; i++) {
+				batcher.add("hash" + i, new ClassType("my.Class" + i));
+			}
+
+			assertThat(batcher.getPendingCount(), is(ClassAnalysisBatcher.MAX_PENDING_TYPES));
+		}
+	}
+
+	public class FlushAndWait extends ClassAnalysisBatcherTest {
+
+		@Mock
+		Future<Object> future;
+
+		@Test
+		public void pendingTypes() throws Exception {
+			doReturn(future).when(executorService).submit(Matchers.<Runnable> any());
+			batcher.add("hash", new ClassType("my.Class"));
+
+			batcher.flushAndWait(100L);
+
+			verify(executorService, times(1)).submit(Matchers.<Runnable> any());
+			verify(future, times(1)).get(100L, TimeUnit.MILLISECONDS);
+			verifyZeroInteractions(connection);
+		}
+
+		@Test
+		public void timeout() throws Exception {
+			doReturn(future).when(executorService).submit(Matchers.<Runnable> any());
+			when(future.get(anyLong(), Matchers.<TimeUnit> any())).thenThrow(new TimeoutException());
+			batcher.add("hash", new ClassType("my.Class"));
+
+			batcher.flushAndWait(100L);
+
+			assertThat(Thread.currentThread().isInterrupted(), is(false));
+			assertThat(batcher.getPendingCount(), is(1));
+		}
+
+		@Test
+		public void nothingPending() {
+			batcher.flushAndWait(100L);
+
+			verifyZeroInteractions(executorService);
+		}
+	}
+
+}
@@ -1,6 +1,7 @@
 package rocks.inspectit.agent.java.analyzer.impl;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Matchers.anyLong;
@@ -18,6 +19,7 @@ import java.util.Map;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Matchers;
 import org.mockito.Mock;
@@ -27,8 +29,10 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
 
 import rocks.inspectit.agent.java.config.IConfigurationStorage;
+import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.agent.java.io.FileResolver;
 import rocks.inspectit.agent.java.spring.PrototypesProvider;
 import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
@@ -41,6 +45,8 @@ public class ClassHashHelperTest extends TestBase {
 
 	protected static final String TEST_CACHE_FILE = "test.cache";
 
+	protected static final String TEST_DEFINITIONS_CACHE_FILE = "test-definitions.cache";
+
 	@InjectMocks
 	ClassHashHelper helper;
 
@@ -59,21 +65,27 @@ public class ClassHashHelperTest extends TestBase {
 	@Mock
 	ScheduledExecutorService executorService;
 
+	@Mock
+	IPlatformManager platformManager;
+
 	@Mock
 	FileResolver fileResolver;
 
 	@BeforeMethod
 	public void setup() {
 		doReturn(new File(TEST_CACHE_FILE)).when(fileResolver).getClassHashCacheFile();
+		doReturn(new File(TEST_DEFINITIONS_CACHE_FILE)).when(fileResolver).getInstrumentationDefinitionCacheFile();
 
 		when(prototypesProvider.createSerializer()).thenReturn(serializationManager);
 	}
 
 	@AfterMethod
 	public void delete() {
-		File file = new File(TEST_CACHE_FILE);
-		if (file.exists()) {
-			assertThat(file.delete(), is(true));
+		for (String fileName : new String[] { TEST_CACHE_FILE, TEST_DEFINITIONS_CACHE_FILE }) {
+			File file = new File(fileName);
+			if (file.exists()) {
+				assertThat(file.delete(), is(true));
+			}
 		}
 	}
 
@@ -134,6 +146,65 @@ public class ClassHashHelperTest extends TestBase {
 			verifyZeroInteractions(serializationManager);
 		}
 
+		@Test
+		public void definitionsValid() throws Exception {
+			String fqn = "fqn";
+			String hash = "hash";
+			InstrumentationDefinition definition = mock(InstrumentationDefinition.class);
+			when(configurationStorage.isClassCacheExistsOnCmr()).thenReturn(false);
+			when(configurationStorage.getConfigurationRevision()).thenReturn("revision");
+			when(platformManager.getPlatformId()).thenReturn(1L);
+			new File(TEST_CACHE_FILE).createNewFile();
+			new File(TEST_DEFINITIONS_CACHE_FILE).createNewFile();
+			Object definitions = new InstrumentationDefinitionCache(1L, "revision", Collections.singletonMap(fqn, definition));
+			Object hashes = Collections.singletonMap(fqn, Collections.singleton(hash));
+			when(serializationManager.deserialize(Matchers.<Input> any())).thenReturn(definitions, hashes);
+
+			helper.afterPropertiesSet();
+
+			assertThat(helper.isSent(fqn, hash), is(true));
+			assertThat(helper.getInstrumentationDefinition(fqn), is(definition));
+			assertThat(helper.startVerification(fqn), is(true));
+			assertThat(helper.startVerification(fqn), is(false));
+			assertThat(new File(TEST_CACHE_FILE).exists(), is(true));
+		}
+
+		@Test
+		public void definitionsRevisionChanged() throws Exception {
+			String fqn = "fqn";
+			InstrumentationDefinition definition = mock(InstrumentationDefinition.class);
+			when(configurationStorage.isClassCacheExistsOnCmr()).thenReturn(false);
+			when(configurationStorage.getConfigurationRevision()).thenReturn("newRevision");
+			when(platformManager.getPlatformId()).thenReturn(1L);
+			new File(TEST_CACHE_FILE).createNewFile();
+			new File(TEST_DEFINITIONS_CACHE_FILE).createNewFile();
+			Object definitions = new InstrumentationDefinitionCache(1L, "revision", Collections.singletonMap(fqn, definition));
+			when(serializationManager.deserialize(Matchers.<Input> any())).thenReturn(definitions);
+
+			helper.afterPropertiesSet();
+
+			assertThat(helper.isEmpty(), is(true));
+			assertThat(new File(TEST_CACHE_FILE).exists(), is(false));
+			assertThat(new File(TEST_DEFINITIONS_CACHE_FILE).exists(), is(false));
+		}
+
+		@Test
+		public void definitionsPlatformChanged() throws Exception {
+			String fqn = "fqn";
+			InstrumentationDefinition definition = mock(InstrumentationDefinition.class);
+			when(configurationStorage.isClassCacheExistsOnCmr()).thenReturn(false);
+			when(configurationStorage.getConfigurationRevision()).thenReturn("revision");
+			when(platformManager.getPlatformId()).thenReturn(2L);
+			new File(TEST_DEFINITIONS_CACHE_FILE).createNewFile();
+			Object definitions = new InstrumentationDefinitionCache(1L, "revision", Collections.singletonMap(fqn, definition));
+			when(serializationManager.deserialize(Matchers.<Input> any())).thenReturn(definitions);
+
+			helper.afterPropertiesSet();
+
+			assertThat(helper.isEmpty(), is(true));
+			assertThat(new File(TEST_DEFINITIONS_CACHE_FILE).exists(), is(false));
+		}
+
 		@Test
 		public void initialInstrumentationPoints() throws Exception {
 			String fqn = "fqn";
@@ -290,4 +361,46 @@ public class ClassHashHelperTest extends TestBase {
 		}
 	}
 
+	public class StartVerification extends ClassHashHelperTest {
+
+		@Test
+		public void notNeeded() throws Exception {
+			helper.afterPropertiesSet();
+			String fqn = "fqn";
+			helper.registerSent(fqn, "hash");
+
+			boolean verification = helper.startVerification(fqn);
+
+			assertThat(verification, is(false));
+		}
+
+		@Test
+		public void failed() throws Exception {
+			helper.afterPropertiesSet();
+			String fqn = "fqn";
+			helper.registerSent(fqn, "hash");
+			helper.registerVerificationFailed(fqn);
+
+			boolean verification = helper.startVerification(fqn);
+
+			assertThat(verification, is(true));
+		}
+
+		@Test
+		@SuppressWarnings("unchecked")
+		public void failedPersisted() throws Exception {
+			helper.afterPropertiesSet();
+			String fqn = "fqn";
+			helper.registerSent(fqn, "hash");
+			helper.registerVerificationFailed(fqn);
+
+			helper.destroy();
+
+			ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+			verify(serializationManager, times(1)).serialize(captor.capture(), Matchers.<Output> any());
+			Map<String, Collection<String>> fqnWithHashes = (Map<String, Collection<String>>) captor.getValue();
+			assertThat(fqnWithHashes.get(fqn), contains("hash"));
+		}
+	}
+
 }
@@ -0,0 +1,256 @@
+package rocks.inspectit.agent.java.analyzer.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.slf4j.Logger;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.agent.java.analyzer.classes.ITest;
+import rocks.inspectit.agent.java.analyzer.classes.TestClass;
+import rocks.inspectit.agent.java.config.IConfigurationStorage;
+import rocks.inspectit.agent.java.event.AgentMessagesReceivedEvent;
+import rocks.inspectit.agent.java.instrumentation.asm.TestAnnotation;
+import rocks.inspectit.agent.java.util.ClassLoadingUtil;
+import rocks.inspectit.shared.all.communication.message.IAgentMessage;
+import rocks.inspectit.shared.all.communication.message.UpdatedClassPrefilterMessage;
+import rocks.inspectit.shared.all.communication.message.UpdatedInstrumentationMessage;
+import rocks.inspectit.shared.all.instrumentation.classcache.ClassType;
+import rocks.inspectit.shared.all.instrumentation.classcache.InterfaceType;
+import rocks.inspectit.shared.all.instrumentation.config.impl.ClassPrefilterConfig;
+import rocks.inspectit.shared.all.pattern.IMatchPattern;
+import rocks.inspectit.shared.all.pattern.WildcardMatchPattern;
+import rocks.inspectit.shared.all.testbase.TestBase;
+
+@SuppressWarnings("PMD")
+public class ClassPrefilterTest extends TestBase {
+
+	@InjectMocks
+	ClassPrefilter prefilter;
+
+	@Mock
+	Logger log;
+
+	@Mock
+	IConfigurationStorage configurationStorage;
+
+	protected byte[] getByteCode(Class<?> clazz) throws IOException {
+		return ClassLoadingUtil.getByteCode(clazz.getName(), clazz.getClassLoader());
+	}
+
+	public class MayBeInstrumentedByteCode extends ClassPrefilterTest {
+
+		@Test
+		public void noConfig() throws Exception {
+			when(configurationStorage.getClassPrefilterConfig()).thenReturn(null);
+			prefilter.afterPropertiesSet();
+
+			boolean result = prefilter.mayBeInstrumented(getByteCode(TestClass.class), TestClass.class.getClassLoader());
+
+			assertThat(result, is(true));
+			assertThat(prefilter.getAnalyzedClassesCount(), is(1L));
+			assertThat(prefilter.getSkippedClassesCount(), is(0L));
+		}
+
+		@Test
+		public void skipped() throws Exception {
+			ClassPrefilterConfig config = new ClassPrefilterConfig(Collections.<IMatchPattern> singleton(new WildcardMatchPattern("my.*")), Collections.<IMatchPattern> emptyList(),
+					Collections.<IMatchPattern> emptyList(), Collections.<IMatchPattern> emptyList());
+			when(configurationStorage.getClassPrefilterConfig()).thenReturn(config);
+			prefilter.afterPropertiesSet();
+
+			boolean result = prefilter.mayBeInstrumented(getByteCode(TestClass.class), TestClass.class.getClassLoader());
+
+			assertThat(result, is(false));
+			assertThat(prefilter.getAnalyzedClassesCount(), is(0L));
+			assertThat(prefilter.getSkippedClassesCount(), is(1L));
+		}
+
+		@Test
+		public void classNameMatches() throws Exception {
+			ClassPrefilterConfig config = new ClassPrefilterConfig(Collections.<IMatchPattern> singleton(new WildcardMatchPattern(TestClass.class.getName())), Collections.<IMatchPattern> emptyList(),
+					Collections.<IMatchPattern> emptyList(), Collections.<IMatchPattern> emptyList());
+			when(configurationStorage.getClassPrefilterConfig()).thenReturn(config);
+			prefilter.afterPropertiesSet();
+
+			boolean result = prefilter.mayBeInstrumented(getByteCode(TestClass.class), TestClass.class.getClassLoader());
+
+			assertThat(result, is(true));
+			assertThat(prefilter.getAnalyzedClassesCount(), is(1L));
+		}
+
+		@Test
+		public void superInterfaceResolved() throws Exception {
+			// TestClass -> AbstractSubTest -> AbstractTest -> ISubTest -> ITest
+			ClassPrefilterConfig config = new ClassPrefilterConfig(Collections.<IMatchPattern> emptyList(), Collections.<IMatchPattern> emptyList(),
+					Collections.<IMatchPattern> singleton(new WildcardMatchPattern(ITest.class.getName())), Collections.<IMatchPattern> emptyList());
+			when(configurationStorage.getClassPrefilterConfig()).thenReturn(config);
+			prefilter.afterPropertiesSet();
+
+			boolean result = prefilter.mayBeInstrumented(getByteCode(TestClass.class), TestClass.class.getClassLoader());
+
+			assertThat(result, is(true));
+		}
+
+		@Test
+		public void annotatedInterfaceResolved() throws Exception {
+			ClassPrefilterConfig config = new ClassPrefilterConfig(Collections.<IMatchPattern> emptyList(), Collections.<IMatchPattern> emptyList(), Collections.<IMatchPattern> emptyList(),
+					Collections.<IMatchPattern> singleton(new WildcardMatchPattern(TestAnnotation.class.getName())));
+			when(configurationStorage.getClassPrefilterConfig()).thenReturn(config);
+			prefilter.afterPropertiesSet();
+			Class<?> annotatedClass = rocks.inspectit.agent.java.instrumentation.asm.TestClass.class;
+
+			assertThat(prefilter.mayBeInstrumented(getByteCode(annotatedClass), annotatedClass.getClassLoader()), is(true));
+			assertThat(prefilter.mayBeInstrumented(getByteCode(TestClass.class), TestClass.class.getClassLoader()), is(false));
+		}
+	}
+
+	public class MayBeInstrumented extends ClassPrefilterTest {
+
+		@Test
+		public void noConfig() throws Exception {
+			when(configurationStorage.getClassPrefilterConfig()).thenReturn(null);
+			prefilter.afterPropertiesSet();
+
+			boolean result = prefilter.mayBeInstrumented(new ClassType("my.Class"));
+
+			assertThat(result, is(true));
+		}
+
+		@Test
+		public void classNameMatches() throws Exception {
+			ClassPrefilterConfig config = new ClassPrefilterConfig(Collections.<IMatchPattern> singleton(new WildcardMatchPattern("my.*")), Collections.<IMatchPattern> emptyList(),
+					Collections.<IMatchPattern> emptyList(), Collections.<IMatchPattern> emptyList());
+			when(configurationStorage.getClassPrefilterConfig()).thenReturn(config);
+			prefilter.afterPropertiesSet();
+
+			assertThat(prefilter.mayBeInstrumented(new ClassType("my.Class")), is(true));
+			assertThat(prefilter.mayBeInstrumented(new ClassType("other.Class")), is(false));
+		}
+
+		@Test
+		public void interfaceNotInstrumented() throws Exception {
+			ClassPrefilterConfig config = new ClassPrefilterConfig(Collections.<IMatchPattern> singleton(new WildcardMatchPattern("*")), Collections.<IMatchPattern> emptyList(),
+					Collections.<IMatchPattern> emptyList(), Collections.<IMatchPattern> emptyList());
+			when(configurationStorage.getClassPrefilterConfig()).thenReturn(config);
+			prefilter.afterPropertiesSet();
+
+			boolean result = prefilter.mayBeInstrumented(new InterfaceType("my.Interface"));
+
+			assertThat(result, is(false));
+		}
+
+		@Test
+		public void unknownSuperClass() throws Exception {
+			ClassPrefilterConfig config = new ClassPrefilterConfig(Collections.<IMatchPattern> emptyList(), Collections.<IMatchPattern> emptyList(), Collections.<IMatchPattern> emptyList(), Collections.<IMatchPattern> emptyList());
+			when(configurationStorage.getClassPrefilterConfig()).thenReturn(config);
+			prefilter.afterPropertiesSet();
+			ClassType type = new ClassType("my.Class");
+			type.addSuperClass(new ClassType("my.Super"));
+
+			boolean result = prefilter.mayBeInstrumented(type);
+
+			assertThat(result, is(true));
+		}
+
+		@Test
+		public void irrelevantSuperClass() throws Exception {
+			ClassPrefilterConfig config = new ClassPrefilterConfig(Collections.<IMatchPattern> emptyList(), Collections.<IMatchPattern> emptyList(), Collections.<IMatchPattern> emptyList(), Collections.<IMatchPattern> emptyList());
+			when(configurationStorage.getClassPrefilterConfig()).thenReturn(config);
+			prefilter.afterPropertiesSet();
+			ClassType superType = new ClassType("my.Super");
+			ClassType type = new ClassType("my.Class");
+			type.addSuperClass(superType);
+
+			prefilter.mayBeInstrumented(superType);
+			boolean result = prefilter.mayBeInstrumented(type);
+
+			assertThat(result, is(false));
+		}
+
+		@Test
+		public void superClassMatchesIndirectly() throws Exception {
+			ClassPrefilterConfig config = new ClassPrefilterConfig(Collections.<IMatchPattern> emptyList(), Collections.<IMatchPattern> singleton(new WildcardMatchPattern("my.Root")),
+					Collections.<IMatchPattern> emptyList(), Collections.<IMatchPattern> emptyList());
+			when(configurationStorage.getClassPrefilterConfig()).thenReturn(config);
+			prefilter.afterPropertiesSet();
+			ClassType rootType = new ClassType("my.Root");
+			ClassType superType = new ClassType("my.Super");
+			superType.addSuperClass(rootType);
+			ClassType type = new ClassType("my.Class");
+			type.addSuperClass(superType);
+
+			assertThat(prefilter.mayBeInstrumented(rootType), is(false));
+			assertThat(prefilter.mayBeInstrumented(superType), is(true));
+			assertThat(prefilter.mayBeInstrumented(type), is(true));
+		}
+
+		@Test
+		public void interfaceMatchesIndirectly() throws Exception {
+			ClassPrefilterConfig config = new ClassPrefilterConfig(Collections.<IMatchPattern> emptyList(), Collections.<IMatchPattern> emptyList(),
+					Collections.<IMatchPattern> singleton(new WildcardMatchPattern("my.Root")), Collections.<IMatchPattern> emptyList());
+			when(configurationStorage.getClassPrefilterConfig()).thenReturn(config);
+			prefilter.afterPropertiesSet();
+			InterfaceType rootType = new InterfaceType("my.Root");
+			InterfaceType interfaceType = new InterfaceType("my.Interface");
+			interfaceType.addSuperInterface(rootType);
+			ClassType type = new ClassType("my.Class");
+			type.addInterface(interfaceType);
+
+			assertThat(prefilter.mayBeInstrumented(rootType), is(false));
+			assertThat(prefilter.mayBeInstrumented(interfaceType), is(false));
+			assertThat(prefilter.mayBeInstrumented(type), is(true));
+		}
+	}
+
+	public class OnApplicationEvent extends ClassPrefilterTest {
+
+		@Test
+		public void configurationUpdated() throws Exception {
+			ClassPrefilterConfig config = new ClassPrefilterConfig(Collections.<IMatchPattern> emptyList(), Collections.<IMatchPattern> emptyList(), Collections.<IMatchPattern> emptyList(), Collections.<IMatchPattern> emptyList());
+			when(configurationStorage.getClassPrefilterConfig()).thenReturn(config);
+			prefilter.afterPropertiesSet();
+			ClassType superType = new ClassType("my.Super");
+			ClassType type = new ClassType("my.Class");
+			type.addSuperClass(superType);
+			prefilter.mayBeInstrumented(superType);
+			assertThat(prefilter.mayBeInstrumented(type), is(false));
+			ClassPrefilterConfig updatedConfig = new ClassPrefilterConfig(Collections.<IMatchPattern> emptyList(), Collections.<IMatchPattern> singleton(new WildcardMatchPattern("my.Super")),
+					Collections.<IMatchPattern> emptyList(), Collections.<IMatchPattern> emptyList());
+
+			prefilter.onApplicationEvent(new AgentMessagesReceivedEvent(this, Collections.<IAgentMessage<?>> singletonList(new UpdatedClassPrefilterMessage(updatedConfig))));
+
+			prefilter.mayBeInstrumented(superType);
+			assertThat(prefilter.mayBeInstrumented(type), is(true));
+		}
+
+		@Test
+		public void configurationRemoved() throws Exception {
+			ClassPrefilterConfig config = new ClassPrefilterConfig(Collections.<IMatchPattern> emptyList(), Collections.<IMatchPattern> emptyList(), Collections.<IMatchPattern> emptyList(), Collections.<IMatchPattern> emptyList());
+			when(configurationStorage.getClassPrefilterConfig()).thenReturn(config);
+			prefilter.afterPropertiesSet();
+
+			prefilter.onApplicationEvent(new AgentMessagesReceivedEvent(this, Collections.<IAgentMessage<?>> singletonList(new UpdatedClassPrefilterMessage(null))));
+
+			assertThat(prefilter.mayBeInstrumented(new ClassType("my.Class")), is(true));
+		}
+
+		@Test
+		public void otherMessages() throws Exception {
+			ClassPrefilterConfig config = new ClassPrefilterConfig(Collections.<IMatchPattern> emptyList(), Collections.<IMatchPattern> emptyList(), Collections.<IMatchPattern> emptyList(), Collections.<IMatchPattern> emptyList());
+			when(configurationStorage.getClassPrefilterConfig()).thenReturn(config);
+			prefilter.afterPropertiesSet();
+
+			prefilter.onApplicationEvent(new AgentMessagesReceivedEvent(this, Collections.<IAgentMessage<?>> singletonList(new UpdatedInstrumentationMessage())));
+
+			assertThat(prefilter.mayBeInstrumented(new ClassType("my.Class")), is(false));
+		}
+	}
+
+}
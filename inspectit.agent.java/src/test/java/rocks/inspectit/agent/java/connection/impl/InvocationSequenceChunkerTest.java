@@ -0,0 +1,102 @@
+package rocks.inspectit.agent.java.connection.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.ArrayList;
+
+import org.testng.annotations.Test;
+
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceChunk;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
+import rocks.inspectit.shared.all.testbase.TestBase;
+
+/**
+ * @author Ivan Senic
+ *
+ */
+@SuppressWarnings("PMD")
+public class InvocationSequenceChunkerTest extends TestBase {
+
+	static final long PLATFORM_IDENT = 10L;
+
+	static final long SEQUENCE_ID = 7L;
+
+	InvocationSequenceData node(long methodIdent, InvocationSequenceData parent) {
+		InvocationSequenceData node = new InvocationSequenceData(null, PLATFORM_IDENT, 1L, methodIdent);
+		node.setNestedSequences(new ArrayList<InvocationSequenceData>());
+		if (null != parent) {
+			node.setParentSequence(parent);
+			parent.getNestedSequences().add(node);
+			parent.setChildCount(parent.getChildCount() + 1);
+		}
+		return node;
+	}
+
+	public static class Next extends InvocationSequenceChunkerTest {
+
+		@Test
+		public void depthFirst() {
+			InvocationSequenceData root = node(0L, null);
+			InvocationSequenceData first = node(1L, root);
+			node(2L, first);
+			node(3L, root);
+
+			InvocationSequenceChunker chunker = new InvocationSequenceChunker(root, SEQUENCE_ID);
+			InvocationSequenceChunk chunk = chunker.next();
+
+			assertThat(chunker.hasNext(), is(false));
+			assertThat(chunk.getPlatformIdent(), is(PLATFORM_IDENT));
+			assertThat(chunk.getSequenceId(), is(SEQUENCE_ID));
+			assertThat(chunk.getChunkIndex(), is(0));
+			assertThat(chunk.isLastChunk(), is(true));
+			assertThat(chunk.getNodes(), hasSize(4));
+			for (int i = 0; i < 4; i++) {
+				InvocationSequenceData copy = chunk.getNodes().get(i);
+				assertThat(copy.getMethodIdent(), is((long) i));
+				assertThat(copy.getNestedSequences(), is(empty()));
+				assertThat(copy.getParentSequence(), is(nullValue()));
+			}
+			assertThat(chunk.getParentIndexes(), is(new int[] { -1, 0, 1, 0 }));
+			// original not changed
+			assertThat(root.getNestedSequences(), hasSize(2));
+			assertThat(first.getParentSequence(), is(root));
+		}
+
+		@Test
+		public void split() {
+			InvocationSequenceData root = node(0L, null);
+			for (int i = 1; i <= InvocationSequenceChunker.CHUNK_SIZE; i++) {
+				node(i, root);
+			}
+
+			assertThat(InvocationSequenceChunker.isChunked(root), is(true));
+
+			InvocationSequenceChunker chunker = new InvocationSequenceChunker(root, SEQUENCE_ID);
+			InvocationSequenceChunk first = chunker.next();
+			InvocationSequenceChunk second = chunker.next();
+
+			assertThat(chunker.hasNext(), is(false));
+			assertThat(first.getChunkIndex(), is(0));
+			assertThat(first.isLastChunk(), is(false));
+			assertThat(first.getNodes(), hasSize(InvocationSequenceChunker.CHUNK_SIZE));
+			assertThat(second.getChunkIndex(), is(1));
+			assertThat(second.isLastChunk(), is(true));
+			assertThat(second.getNodes(), hasSize(1));
+			assertThat(second.getNodes().get(0).getMethodIdent(), is((long) InvocationSequenceChunker.CHUNK_SIZE));
+			assertThat(second.getParentIndexes(), is(new int[] { 0 }));
+		}
+
+		@Test
+		public void smallNotChunked() {
+			InvocationSequenceData root = node(0L, null);
+			node(1L, root);
+
+			assertThat(InvocationSequenceChunker.isChunked(root), is(false));
+		}
+	}
+
+}
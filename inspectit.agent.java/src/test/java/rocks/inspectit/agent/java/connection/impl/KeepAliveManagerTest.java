@@ -5,17 +5,21 @@ import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import java.net.ConnectException;
 
 import org.mockito.InjectMocks;
+import org.mockito.Matchers;
 import org.mockito.Mock;
 import org.slf4j.Logger;
+import org.springframework.context.ApplicationEventPublisher;
 import org.testng.annotations.Test;
 
 import rocks.inspectit.agent.java.connection.IConnection;
 import rocks.inspectit.agent.java.core.IPlatformManager;
+import rocks.inspectit.agent.java.event.ConnectionEstablishedEvent;
 import rocks.inspectit.shared.all.testbase.TestBase;
 
 /**
@@ -33,6 +37,9 @@ public class KeepAliveManagerTest extends TestBase {
 	@Mock
 	IPlatformManager platformManager;
 
+	@Mock
+	ApplicationEventPublisher eventPublisher;
+
 	@Mock
 	Logger log;
 
@@ -106,6 +113,18 @@ public class KeepAliveManagerTest extends TestBase {
 
 			verify(connection, atLeast(1)).isConnected();
 			verifyNoMoreInteractions(connection);
+			verifyZeroInteractions(eventPublisher);
+		}
+
+		@Test
+		public void reconnectPublishesEvent() throws Exception {
+			when(connection.isConnected()).thenReturn(false, false, true);
+
+			manager.sendKeepAlive();
+			manager.sendKeepAlive();
+
+			verify(connection, times(1)).reconnect();
+			verify(eventPublisher, times(1)).publishEvent(Matchers.<ConnectionEstablishedEvent> any());
 		}
 
 		@Test
@@ -542,6 +542,40 @@ public class KryoNetConnectionTest extends TestBase {
 		}
 	}
 
+	public static class AnalyzeBatch extends KryoNetConnectionTest {
+
+		@Test
+		public void analyzeBatch() throws Exception {
+			Map<String, InstrumentationDefinition> results = Collections.singletonMap("hash", mock(InstrumentationDefinition.class));
+			when(client.isConnected()).thenReturn(true);
+			doReturn(results).when(agentService).analyzeBatch(anyLong(), Matchers.<Map<String, Type>> any());
+			long id = 7;
+			Map<String, Type> batch = Collections.singletonMap("hash", mock(Type.class));
+
+			Map<String, InstrumentationDefinition> receivedResults = connection.analyzeBatch(id, batch);
+			assertThat(receivedResults, is(results));
+
+			verify(agentService, times(1)).analyzeBatch(id, batch);
+			verifyNoMoreInteractions(agentService);
+		}
+
+		@Test(expectedExceptions = { ServerUnavailableException.class })
+		public void notConnected() throws Exception {
+			when(client.isConnected()).thenReturn(false);
+			long id = 7;
+			Map<String, Type> batch = Collections.singletonMap("hash", mock(Type.class));
+
+			try {
+				connection.analyzeBatch(id, batch);
+			} catch (ServerUnavailableException e) {
+				assertThat(e.isServerTimeout(), is(false));
+				throw e;
+			} finally {
+				verifyZeroInteractions(agentService);
+			}
+		}
+	}
+
 	public static class AnalyzeJmxAttributes extends KryoNetConnectionTest {
 
 		@Test
@@ -18,6 +18,7 @@ import java.util.List;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.slf4j.Logger;
+import org.springframework.context.ApplicationEventPublisher;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
@@ -65,6 +66,9 @@ public class CoreServiceTest extends TestBase {
 	@Mock
 	private IPlatformManager platformManager;
 
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+
 	@BeforeMethod
 	public void sendingStrategyMock() {
 		Iterator<ISendingStrategy> itr = mock(Iterator.class);
@@ -0,0 +1,59 @@
+package rocks.inspectit.agent.java.hooking;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.testng.annotations.Test;
+
+@SuppressWarnings("PMD")
+public class AgentThreadContextTest {
+
+	@Test
+	public void sameContextInThread() {
+		assertThat(AgentThreadContext.get(), is(sameInstance(AgentThreadContext.get())));
+	}
+
+	@Test
+	public void differentContextInOtherThread() throws InterruptedException {
+		final AtomicReference<AgentThreadContext> reference = new AtomicReference<AgentThreadContext>();
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				reference.set(AgentThreadContext.get());
+			}
+		});
+		thread.start();
+		thread.join();
+
+		assertThat(reference.get(), is(not(sameInstance(AgentThreadContext.get()))));
+	}
+
+	@Test
+	public void stacksPerSlot() {
+		int slotOne = AgentThreadContext.TIMER_SLOT;
+		int slotTwo = AgentThreadContext.AVERAGE_TIMER_SLOT;
+		AgentThreadContext context = AgentThreadContext.get();
+
+		context.getTimeStack(slotOne).push(1.0d);
+		context.getCpuTimeStack(slotTwo).push(2L);
+
+		assertThat(context.getTimeStack(slotTwo).isEmpty(), is(true));
+		assertThat(context.getCpuTimeStack(slotOne).isEmpty(), is(true));
+		assertThat(context.getTimeStack(slotOne).pop(), is(1.0d));
+		assertThat(context.getCpuTimeStack(slotTwo).pop(), is(2L));
+	}
+
+	@Test
+	public void invocationSequenceCount() {
+		AgentThreadContext context = AgentThreadContext.get();
+		long count = context.getInvocationSequenceCount();
+
+		assertThat(context.incrementInvocationSequenceCount(), is(count + 1));
+		assertThat(context.decrementInvocationSequenceCount(), is(count));
+	}
+
+}
@@ -28,7 +28,9 @@ import rocks.inspectit.agent.java.config.IConfigurationStorage;
 import rocks.inspectit.agent.java.config.impl.RegisteredSensorConfig;
 import rocks.inspectit.agent.java.config.impl.SpecialSensorConfig;
 import rocks.inspectit.agent.java.core.ICoreService;
+import rocks.inspectit.agent.java.hooking.AgentThreadContext;
 import rocks.inspectit.agent.java.hooking.IConstructorHook;
+import rocks.inspectit.agent.java.hooking.IContextConstructorHook;
 import rocks.inspectit.agent.java.hooking.IMethodHook;
 import rocks.inspectit.agent.java.hooking.ISpecialHook;
 import rocks.inspectit.agent.java.sensor.exception.ExceptionSensor;
@@ -60,6 +62,41 @@ public class HookDispatcherTest extends TestBase {
 	@Mock
 	ExceptionSensor exceptionSensor;
 
+	public class Mapping extends HookDispatcherTest {
+
+		@Test
+		public void idOutsideDenseMappings() {
+			long methodId = HookDispatcher.MAX_DENSE_MAPPINGS + 10L;
+			RegisteredSensorConfig registeredSensorConfig = mock(RegisteredSensorConfig.class);
+			when(registeredSensorConfig.getMethodSensorsReverse()).thenReturn(Collections.<IMethodSensor> emptyList());
+
+			hookDispatcher.addMapping(methodId, registeredSensorConfig);
+			hookDispatcher.dispatchMethodBeforeBody(methodId, null, null);
+
+			verify(registeredSensorConfig, times(1)).isStartsInvocation();
+			verify(registeredSensorConfig, times(1)).getMethodSensorsReverse();
+			verifyNoMoreInteractions(registeredSensorConfig);
+		}
+
+		@Test
+		public void mappingReplaced() {
+			long methodId = 100L;
+			RegisteredSensorConfig oldConfig = mock(RegisteredSensorConfig.class);
+			RegisteredSensorConfig newConfig = mock(RegisteredSensorConfig.class);
+			when(newConfig.getMethodSensorsReverse()).thenReturn(Collections.<IMethodSensor> emptyList());
+
+			hookDispatcher.addMapping(methodId, oldConfig);
+			// grow the dense mappings after the first mapping
+			hookDispatcher.addMapping(5000L, mock(RegisteredSensorConfig.class));
+			hookDispatcher.addMapping(methodId, newConfig);
+			hookDispatcher.dispatchMethodBeforeBody(methodId, null, null);
+
+			verify(newConfig, times(1)).isStartsInvocation();
+			verify(newConfig, times(1)).getMethodSensorsReverse();
+			verifyZeroInteractions(oldConfig);
+		}
+	}
+
 	public class MethodHook extends HookDispatcherTest {
 
 		@Test
@@ -246,7 +283,7 @@ public class HookDispatcherTest extends TestBase {
 			verify(registeredSensorConfig, times(1)).getMethodSensorsReverse();
 			verify(methodSensor, times(1)).getHook();
 			verify(methodHook, times(1)).beforeBody(methodId, methodSensorTypeId, object, parameters, registeredSensorConfig);
-			verify(invocHook, times(1)).beforeBody(methodId, invocSensorTypeId, object, parameters, registeredSensorConfig);
+			verify(invocHook, times(1)).beforeBody(AgentThreadContext.get(), methodId, invocSensorTypeId, object, parameters, registeredSensorConfig);
 
 			// ////////////////////////////////////////////////////////
 			// SECOND METHOD DISPATCHER
@@ -257,7 +294,7 @@ public class HookDispatcherTest extends TestBase {
 			verify(registeredSensorConfigTwo, times(1)).getMethodSensorsReverse();
 			verify(methodSensor, times(2)).getHook();
 			verify(methodHook, times(1)).beforeBody(methodIdTwo, methodSensorTypeId, object, parameters, registeredSensorConfigTwo);
-			verify(invocHook, times(1)).beforeBody(eq(methodIdTwo), anyLong(), eq(object), eq(parameters), eq(registeredSensorConfigTwo));
+			verify(invocHook, times(1)).beforeBody(eq(AgentThreadContext.get()), eq(methodIdTwo), anyLong(), eq(object), eq(parameters), eq(registeredSensorConfigTwo));
 
 			// dispatch the second method - first after body
 			hookDispatcher.dispatchFirstMethodAfterBody(methodIdTwo, object, parameters, returnValue);
@@ -271,7 +308,7 @@ public class HookDispatcherTest extends TestBase {
 			verify(registeredSensorConfigTwo, times(2)).getMethodSensors();
 			verify(methodSensor, times(4)).getHook();
 			verify(methodHook, times(1)).secondAfterBody(invocHook, methodIdTwo, methodSensorTypeId, object, parameters, returnValue, registeredSensorConfigTwo);
-			verify(invocHook, times(1)).secondAfterBody(eq(coreService), eq(methodIdTwo), anyLong(), eq(object), eq(parameters), eq(returnValue), eq(registeredSensorConfigTwo));
+			verify(invocHook, times(1)).secondAfterBody(eq(AgentThreadContext.get()), eq(coreService), eq(methodIdTwo), anyLong(), eq(object), eq(parameters), eq(returnValue), eq(registeredSensorConfigTwo));
 
 			// END SECOND METHOD DISPATCHER
 			// ////////////////////////////////////////////////////////
@@ -281,7 +318,7 @@ public class HookDispatcherTest extends TestBase {
 			verify(registeredSensorConfig, times(1)).getMethodSensors();
 			verify(methodSensor, times(5)).getHook();
 			verify(methodHook, times(1)).firstAfterBody(methodId, methodSensorTypeId, object, parameters, returnValue, registeredSensorConfig);
-			verify(invocHook, times(1)).firstAfterBody(methodId, invocSensorTypeId, object, parameters, returnValue, registeredSensorConfig);
+			verify(invocHook, times(1)).firstAfterBody(AgentThreadContext.get(), methodId, invocSensorTypeId, object, parameters, returnValue, registeredSensorConfig);
 
 			// dispatch the first method - second after body
 			hookDispatcher.dispatchSecondMethodAfterBody(methodId, object, parameters, returnValue);
@@ -289,7 +326,7 @@ public class HookDispatcherTest extends TestBase {
 			verify(registeredSensorConfig, times(2)).getMethodSensors();
 			verify(methodSensor, times(6)).getHook();
 			verify(methodHook, times(1)).secondAfterBody(invocHook, methodId, methodSensorTypeId, object, parameters, returnValue, registeredSensorConfig);
-			verify(invocHook, times(1)).secondAfterBody(coreService, methodId, invocSensorTypeId, object, parameters, returnValue, registeredSensorConfig);
+			verify(invocHook, times(1)).secondAfterBody(AgentThreadContext.get(), coreService, methodId, invocSensorTypeId, object, parameters, returnValue, registeredSensorConfig);
 
 			// END FIRST METHOD DISPATCHER
 			// ////////////////////////////////////////////////////////
@@ -462,7 +499,7 @@ public class HookDispatcherTest extends TestBase {
 			hookDispatcher.dispatchMethodBeforeBody(methodId, object, parameters);
 			verify(registeredSensorConfig, times(1)).isStartsInvocation();
 			verify(registeredSensorConfig, times(1)).getMethodSensorsReverse();
-			verify(invocHook, times(1)).beforeBody(methodId, invocSensorTypeId, object, parameters, registeredSensorConfig);
+			verify(invocHook, times(1)).beforeBody(AgentThreadContext.get(), methodId, invocSensorTypeId, object, parameters, registeredSensorConfig);
 
 			// ////////////////////////////////////////////////////////
 			// CONSTRUCTOR DISPATCHER
@@ -473,7 +510,7 @@ public class HookDispatcherTest extends TestBase {
 			verify(registeredSensorConfigTwo, times(1)).getMethodSensorsReverse();
 			verify(methodSensor, times(1)).getHook();
 			verify(constructorHook, times(1)).beforeConstructor(methodIdTwo, methodSensorTypeId, parameters, registeredSensorConfigTwo);
-			verify((IConstructorHook) invocHook, times(1)).beforeConstructor(eq(methodIdTwo), anyLong(), eq(parameters), eq(registeredSensorConfigTwo));
+			verify((IContextConstructorHook) invocHook, times(1)).beforeConstructor(eq(AgentThreadContext.get()), eq(methodIdTwo), anyLong(), eq(parameters), eq(registeredSensorConfigTwo));
 
 			// dispatch the constructor - after constructor
 			hookDispatcher.dispatchConstructorAfterBody(methodIdTwo, object, parameters);
@@ -481,7 +518,7 @@ public class HookDispatcherTest extends TestBase {
 			verify(registeredSensorConfigTwo, times(1)).getMethodSensors();
 			verify(methodSensor, times(2)).getHook();
 			verify(constructorHook, times(1)).afterConstructor(invocHook, methodIdTwo, methodSensorTypeId, object, parameters, registeredSensorConfigTwo);
-			verify((IConstructorHook) invocHook, times(1)).afterConstructor(eq(coreService), eq(methodIdTwo), anyLong(), eq(object), eq(parameters), eq(registeredSensorConfigTwo));
+			verify((IContextConstructorHook) invocHook, times(1)).afterConstructor(eq(AgentThreadContext.get()), eq(coreService), eq(methodIdTwo), anyLong(), eq(object), eq(parameters), eq(registeredSensorConfigTwo));
 
 			// END CONSTRUCTOR DISPATCHER
 			// ////////////////////////////////////////////////////////
@@ -489,13 +526,13 @@ public class HookDispatcherTest extends TestBase {
 			// dispatch the method - first after body
 			hookDispatcher.dispatchFirstMethodAfterBody(methodId, object, parameters, returnValue);
 			verify(registeredSensorConfig, times(1)).getMethodSensors();
-			verify(invocHook, times(1)).firstAfterBody(methodId, invocSensorTypeId, object, parameters, returnValue, registeredSensorConfig);
+			verify(invocHook, times(1)).firstAfterBody(AgentThreadContext.get(), methodId, invocSensorTypeId, object, parameters, returnValue, registeredSensorConfig);
 
 			// dispatch the method - second after body
 			hookDispatcher.dispatchSecondMethodAfterBody(methodId, object, parameters, returnValue);
 			verify(registeredSensorConfig, times(2)).isStartsInvocation();
 			verify(registeredSensorConfig, times(2)).getMethodSensors();
-			verify(invocHook, times(1)).secondAfterBody(coreService, methodId, invocSensorTypeId, object, parameters, returnValue, registeredSensorConfig);
+			verify(invocHook, times(1)).secondAfterBody(AgentThreadContext.get(), coreService, methodId, invocSensorTypeId, object, parameters, returnValue, registeredSensorConfig);
 
 			// END METHOD DISPATCHER
 			// ////////////////////////////////////////////////////////
@@ -755,7 +792,7 @@ public class HookDispatcherTest extends TestBase {
 			verify(registeredSensorConfig, times(1)).isStartsInvocation();
 			verify(registeredSensorConfig, times(1)).getMethodSensorsReverse();
 			verify(methodHook, times(1)).beforeBody(methodId, methodSensorTypeId, object, parameters, registeredSensorConfig);
-			verify(invocHook, times(1)).beforeBody(methodId, invocSensorTypeId, object, parameters, registeredSensorConfig);
+			verify(invocHook, times(1)).beforeBody(AgentThreadContext.get(), methodId, invocSensorTypeId, object, parameters, registeredSensorConfig);
 
 			// ////////////////////////////////////////////////////////
 			// SECOND METHOD DISPATCHER
@@ -765,13 +802,13 @@ public class HookDispatcherTest extends TestBase {
 			verify(registeredSensorConfigTwo, times(1)).isStartsInvocation();
 			verify(registeredSensorConfigTwo, times(1)).getMethodSensorsReverse();
 			verify(methodHook, times(1)).beforeBody(methodIdTwo, methodSensorTypeId, object, parameters, registeredSensorConfigTwo);
-			verify(invocHook, times(1)).beforeBody(eq(methodIdTwo), anyLong(), eq(object), eq(parameters), eq(registeredSensorConfigTwo));
+			verify(invocHook, times(1)).beforeBody(eq(AgentThreadContext.get()), eq(methodIdTwo), anyLong(), eq(object), eq(parameters), eq(registeredSensorConfigTwo));
 
 			hookDispatcher.dispatchConstructorBeforeBody(constructorId, parameters);
 			verify(registeredConstructorSensorConfig, times(1)).isStartsInvocation();
 			verify(registeredConstructorSensorConfig, times(1)).getMethodSensorsReverse();
 			verify(exceptionHook, times(1)).beforeConstructor(constructorId, exceptionSensorTypeId, parameters, registeredConstructorSensorConfig);
-			verify(invocHook, times(1)).beforeConstructor(eq(constructorId), anyLong(), eq(parameters), eq(registeredConstructorSensorConfig));
+			verify(invocHook, times(1)).beforeConstructor(eq(AgentThreadContext.get()), eq(constructorId), anyLong(), eq(parameters), eq(registeredConstructorSensorConfig));
 
 			// /////////////////////////////////////////////////////////
 			// ///////////// EXCEPTION SENSOR STARTS HERE
@@ -781,7 +818,7 @@ public class HookDispatcherTest extends TestBase {
 			verify(registeredConstructorSensorConfig, times(2)).isStartsInvocation();
 			verify(registeredConstructorSensorConfig, times(1)).getMethodSensors();
 			verify(exceptionHook, times(1)).afterConstructor(invocHook, constructorId, exceptionSensorTypeId, exceptionObject, parameters, registeredConstructorSensorConfig);
-			verify(invocHook, times(1)).afterConstructor(eq(coreService), eq(constructorId), anyLong(), eq(exceptionObject), eq(parameters), eq(registeredConstructorSensorConfig));
+			verify(invocHook, times(1)).afterConstructor(eq(AgentThreadContext.get()), eq(coreService), eq(constructorId), anyLong(), eq(exceptionObject), eq(parameters), eq(registeredConstructorSensorConfig));
 
 			// second method of exception sensor
 			hookDispatcher.dispatchOnThrowInBody(methodId, object, parameters, exceptionObject);
@@ -799,7 +836,7 @@ public class HookDispatcherTest extends TestBase {
 			verify(registeredSensorConfigTwo, times(2)).isStartsInvocation();
 			verify(registeredSensorConfigTwo, times(2)).getMethodSensors();
 			verify(methodHook, times(1)).secondAfterBody(invocHook, methodIdTwo, methodSensorTypeId, object, parameters, returnValue, registeredSensorConfigTwo);
-			verify(invocHook, times(1)).secondAfterBody(eq(coreService), eq(methodIdTwo), anyLong(), eq(object), eq(parameters), eq(returnValue), eq(registeredSensorConfigTwo));
+			verify(invocHook, times(1)).secondAfterBody(eq(AgentThreadContext.get()), eq(coreService), eq(methodIdTwo), anyLong(), eq(object), eq(parameters), eq(returnValue), eq(registeredSensorConfigTwo));
 			// END SECOND METHOD DISPATCHER
 			// ////////////////////////////////////////////////////////
 
@@ -811,14 +848,14 @@ public class HookDispatcherTest extends TestBase {
 			hookDispatcher.dispatchFirstMethodAfterBody(methodId, object, parameters, returnValue);
 			verify(registeredSensorConfig, times(1)).getMethodSensors();
 			verify(methodHook, times(1)).firstAfterBody(methodId, methodSensorTypeId, object, parameters, returnValue, registeredSensorConfig);
-			verify(invocHook, times(1)).firstAfterBody(methodId, invocSensorTypeId, object, parameters, returnValue, registeredSensorConfig);
+			verify(invocHook, times(1)).firstAfterBody(AgentThreadContext.get(), methodId, invocSensorTypeId, object, parameters, returnValue, registeredSensorConfig);
 
 			// dispatch the first method - second after body
 			hookDispatcher.dispatchSecondMethodAfterBody(methodId, object, parameters, returnValue);
 			verify(registeredSensorConfig, times(2)).isStartsInvocation();
 			verify(registeredSensorConfig, times(2)).getMethodSensors();
 			verify(methodHook, times(1)).secondAfterBody(invocHook, methodId, methodSensorTypeId, object, parameters, returnValue, registeredSensorConfig);
-			verify(invocHook, times(1)).secondAfterBody(coreService, methodId, invocSensorTypeId, object, parameters, returnValue, registeredSensorConfig);
+			verify(invocHook, times(1)).secondAfterBody(AgentThreadContext.get(), coreService, methodId, invocSensorTypeId, object, parameters, returnValue, registeredSensorConfig);
 
 			// END FIRST METHOD DISPATCHER
 			// ////////////////////////////////////////////////////////
@@ -13,6 +13,7 @@ import static org.mockito.Mockito.when;
 import java.lang.instrument.Instrumentation;
 import java.lang.instrument.UnmodifiableClassException;
 import java.util.Arrays;
+import java.util.Collections;
 
 import org.mockito.InOrder;
 import org.mockito.InjectMocks;
@@ -22,11 +23,15 @@ import org.slf4j.Logger;
 import org.testng.annotations.Test;
 
 import rocks.inspectit.agent.java.IThreadTransformHelper;
+import rocks.inspectit.agent.java.analyzer.impl.ByteCodeAnalyzer;
 import rocks.inspectit.agent.java.analyzer.impl.ClassHashHelper;
 import rocks.inspectit.agent.java.event.AgentMessagesReceivedEvent;
 import rocks.inspectit.shared.all.communication.message.IAgentMessage;
 import rocks.inspectit.shared.all.communication.message.UpdatedInstrumentationMessage;
+import rocks.inspectit.shared.all.instrumentation.config.PriorityEnum;
 import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
+import rocks.inspectit.shared.all.instrumentation.config.impl.MethodInstrumentationConfig;
+import rocks.inspectit.shared.all.instrumentation.config.impl.SensorInstrumentationPoint;
 import rocks.inspectit.shared.all.testbase.TestBase;
 
 /**
@@ -53,6 +58,25 @@ public class RetransformManagerTest extends TestBase {
 	@Mock
 	IThreadTransformHelper threadTransformHelper;
 
+	@Mock
+	ByteCodeAnalyzer byteCodeAnalyzer;
+
+	protected InstrumentationDefinition createDefinition(long sensorId, boolean resultNeeded) {
+		SensorInstrumentationPoint sensorInstrumentationPoint = new SensorInstrumentationPoint();
+		sensorInstrumentationPoint.setId(1L);
+		sensorInstrumentationPoint.addSensorId(sensorId, PriorityEnum.NORMAL);
+		sensorInstrumentationPoint.setResultNeeded(resultNeeded);
+		MethodInstrumentationConfig config = new MethodInstrumentationConfig();
+		config.setTargetClassFqn("java.lang.Object");
+		config.setTargetMethodName("toString");
+		config.setReturnType("java.lang.String");
+		config.setParameterTypes(Collections.<String> emptyList());
+		config.setSensorInstrumentationPoint(sensorInstrumentationPoint);
+		InstrumentationDefinition definition = new InstrumentationDefinition("java.lang.Object");
+		definition.setMethodInstrumentationConfigs(Collections.singletonList(config));
+		return definition;
+	}
+
 	/**
 	 * Tests the {@link RetransformManager#onApplicationEvent(AgentMessagesReceivedEvent)} method.
 	 *
@@ -74,6 +98,7 @@ public class RetransformManagerTest extends TestBase {
 
 			retransformManager.onApplicationEvent(event);
 
+			verify(classHashHelper).getInstrumentationDefinition("java.lang.Object");
 			verify(classHashHelper).registerInstrumentationDefinition(eq("java.lang.Object"), eq(iDefinition));
 			verify(instrumentation).getAllLoadedClasses();
 			verify(instrumentation).retransformClasses(eq(Object.class));
@@ -96,6 +121,7 @@ public class RetransformManagerTest extends TestBase {
 
 			retransformManager.onApplicationEvent(event);
 
+			verify(classHashHelper).getInstrumentationDefinition("java.lang.Object");
 			verify(classHashHelper).registerInstrumentationDefinition(eq("java.lang.Object"), eq(iDefinition));
 			verify(instrumentation).getAllLoadedClasses();
 			verify(instrumentation).isModifiableClass(eq(Object.class));
@@ -114,6 +140,7 @@ public class RetransformManagerTest extends TestBase {
 
 			retransformManager.onApplicationEvent(event);
 
+			verify(classHashHelper).getInstrumentationDefinition("unknown.Class");
 			verify(classHashHelper).registerInstrumentationDefinition(eq("unknown.Class"), eq(iDefinition));
 			verify(instrumentation).getAllLoadedClasses();
 			verifyNoMoreInteractions(instrumentation, classHashHelper);
@@ -144,6 +171,7 @@ public class RetransformManagerTest extends TestBase {
 
 			retransformManager.onApplicationEvent(event);
 
+			verify(classHashHelper).getInstrumentationDefinition("java.lang.Object");
 			verify(classHashHelper).registerInstrumentationDefinition(eq("java.lang.Object"), eq(iDefinition));
 			verify(instrumentation).getAllLoadedClasses();
 			verify(instrumentation).retransformClasses(any(Class.class));
@@ -155,6 +183,61 @@ public class RetransformManagerTest extends TestBase {
 			verifyZeroInteractions(threadTransformHelper);
 		}
 
+		@Test
+		public void sameByteCodeRemapped() throws UnmodifiableClassException {
+			InstrumentationDefinition applied = createDefinition(1L, false);
+			InstrumentationDefinition iDefinition = createDefinition(2L, false);
+			IAgentMessage<?> message = new UpdatedInstrumentationMessage();
+			((UpdatedInstrumentationMessage) message).getMessageContent().add(iDefinition);
+			AgentMessagesReceivedEvent event = new AgentMessagesReceivedEvent(eventSource, Arrays.<IAgentMessage<?>> asList(message));
+			when(classHashHelper.getInstrumentationDefinition("java.lang.Object")).thenReturn(applied);
+			when(instrumentation.getAllLoadedClasses()).thenReturn(new Class[] { Object.class, String.class });
+			when(instrumentation.isModifiableClass(eq(Object.class))).thenReturn(true);
+
+			retransformManager.onApplicationEvent(event);
+
+			verify(classHashHelper).getInstrumentationDefinition("java.lang.Object");
+			verify(classHashHelper).registerInstrumentationDefinition(eq("java.lang.Object"), eq(iDefinition));
+			verify(byteCodeAnalyzer).mapInstrumentationPoints(iDefinition.getMethodInstrumentationConfigs());
+			verify(instrumentation).getAllLoadedClasses();
+			verifyNoMoreInteractions(instrumentation, classHashHelper, byteCodeAnalyzer);
+			verifyZeroInteractions(threadTransformHelper);
+		}
+
+		@Test
+		public void differentByteCodeRetransformed() throws UnmodifiableClassException {
+			InstrumentationDefinition applied = createDefinition(1L, false);
+			InstrumentationDefinition iDefinition = createDefinition(2L, true);
+			IAgentMessage<?> message = new UpdatedInstrumentationMessage();
+			((UpdatedInstrumentationMessage) message).getMessageContent().add(iDefinition);
+			AgentMessagesReceivedEvent event = new AgentMessagesReceivedEvent(eventSource, Arrays.<IAgentMessage<?>> asList(message));
+			when(classHashHelper.getInstrumentationDefinition("java.lang.Object")).thenReturn(applied);
+			when(instrumentation.getAllLoadedClasses()).thenReturn(new Class[] { Object.class, String.class });
+			when(instrumentation.isModifiableClass(eq(Object.class))).thenReturn(true);
+
+			retransformManager.onApplicationEvent(event);
+
+			verify(instrumentation).retransformClasses(eq(Object.class));
+			verifyZeroInteractions(byteCodeAnalyzer);
+		}
+
+		@Test
+		public void emptyDefinitionRetransformed() throws UnmodifiableClassException {
+			InstrumentationDefinition applied = createDefinition(1L, false);
+			InstrumentationDefinition iDefinition = new InstrumentationDefinition("java.lang.Object");
+			IAgentMessage<?> message = new UpdatedInstrumentationMessage();
+			((UpdatedInstrumentationMessage) message).getMessageContent().add(iDefinition);
+			AgentMessagesReceivedEvent event = new AgentMessagesReceivedEvent(eventSource, Arrays.<IAgentMessage<?>> asList(message));
+			when(classHashHelper.getInstrumentationDefinition("java.lang.Object")).thenReturn(applied);
+			when(instrumentation.getAllLoadedClasses()).thenReturn(new Class[] { Object.class, String.class });
+			when(instrumentation.isModifiableClass(eq(Object.class))).thenReturn(true);
+
+			retransformManager.onApplicationEvent(event);
+
+			verify(instrumentation).retransformClasses(eq(Object.class));
+			verifyZeroInteractions(byteCodeAnalyzer);
+		}
+
 		@Test
 		public void nullEvent() throws UnmodifiableClassException {
 			when(instrumentation.getAllLoadedClasses()).thenReturn(new Class[] { Object.class, String.class });
@@ -75,6 +75,27 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 		}
 	};
 
+	protected static final Answer<MethodVisitor> METHOD_INSTRUMENTER_NO_DATA_ANSWER = new Answer<MethodVisitor>() {
+
+		@Override
+		public MethodVisitor answer(InvocationOnMock invocation) throws Throwable {
+			Object[] arguments = invocation.getArguments();
+			SensorInstrumentationPoint sip = (SensorInstrumentationPoint) arguments[0];
+			return getMethodInstrumenter((MethodVisitor) arguments[1], (Integer) arguments[2], (String) arguments[3], (String) arguments[4], sip.getId(), (Boolean) arguments[5], false, false,
+					false);
+		}
+	};
+
+	protected static final Answer<MethodVisitor> CONSTRUCTOR_INSTRUMENTER_NO_DATA_ANSWER = new Answer<MethodVisitor>() {
+
+		@Override
+		public MethodVisitor answer(InvocationOnMock invocation) throws Throwable {
+			Object[] arguments = invocation.getArguments();
+			SensorInstrumentationPoint sip = (SensorInstrumentationPoint) arguments[0];
+			return getConstructorInstrumenter((MethodVisitor) arguments[1], (Integer) arguments[2], (String) arguments[3], (String) arguments[4], sip.getId(), (Boolean) arguments[5], false, false);
+		}
+	};
+
 	public static IHookDispatcher dispatcher;
 
 	public static IAgent a;
@@ -754,6 +775,59 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
+		@Test
+		public void mixedTwoParametersNoDataNeeded() throws Exception {
+			String methodName = "returnBooleanParameter";
+			Object[] parameters = { "int", "boolean" };
+			long methodId = 9L;
+
+			when(sip.getId()).thenReturn(methodId);
+			prepareConfigurationMockMethod(config, InstrumentationTestClass.class, methodName, int.class, boolean.class);
+			doAnswer(METHOD_INSTRUMENTER_NO_DATA_ANSWER).when(instrumenterFactory).getMethodVisitor(eq(sip), Matchers.<MethodVisitor> any(), anyInt(), anyString(), anyString(), anyBoolean());
+			when(config.getAllInstrumentationPoints()).thenReturn(Collections.<IMethodInstrumentationPoint> singleton(sip));
+
+			ClassReader cr = new ClassReader(TEST_CLASS_FQN);
+			prepareWriter(cr, null, false, config);
+			cr.accept(classInstrumenter, ClassReader.SKIP_FRAMES | ClassReader.SKIP_DEBUG);
+			assertThat(classInstrumenter.isByteCodeAdded(), is(true));
+			byte b[] = classWriter.toByteArray();
+
+			// now call this method
+			Object testClass = this.createInstance(TEST_CLASS_FQN, b);
+			Object result = this.callMethod(testClass, methodName, parameters);
+
+			assertThat(result, is((Object) Boolean.FALSE));
+			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, null, null);
+			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, null, null, null);
+			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, null, null, null);
+			verifyNoMoreInteractions(hookDispatcher);
+		}
+
+		@Test
+		public void constructorStringOneParameterNoDataNeeded() throws Exception {
+			Object[] parameters = { "java.lang.String" };
+			long methodId = 9L;
+
+			when(sip.getId()).thenReturn(methodId);
+			prepareConfigurationMockConstructor(config, InstrumentationTestClass.class, false, String.class);
+			doAnswer(CONSTRUCTOR_INSTRUMENTER_NO_DATA_ANSWER).when(instrumenterFactory).getMethodVisitor(eq(sip), Matchers.<MethodVisitor> any(), anyInt(), anyString(), anyString(), anyBoolean());
+			when(config.getAllInstrumentationPoints()).thenReturn(Collections.<IMethodInstrumentationPoint> singleton(sip));
+
+			ClassReader cr = new ClassReader(TEST_CLASS_FQN);
+			prepareWriter(cr, null, false, config);
+			cr.accept(classInstrumenter, ClassReader.SKIP_FRAMES | ClassReader.SKIP_DEBUG);
+			assertThat(classInstrumenter.isByteCodeAdded(), is(true));
+			byte b[] = classWriter.toByteArray();
+
+			Class<?> clazz = createClass(TEST_CLASS_FQN, b);
+			Constructor<?> constructor = clazz.getConstructor(new Class[] { String.class });
+			constructor.newInstance(parameters);
+
+			verify(hookDispatcher).dispatchConstructorBeforeBody(methodId, null);
+			verify(hookDispatcher).dispatchConstructorAfterBody(methodId, null, null);
+			verifyNoMoreInteractions(hookDispatcher);
+		}
+
 		@Test
 		public void constructorStringOneParameter() throws Exception {
 			Object[] parameters = { "java.lang.String" };
@@ -1172,6 +1246,26 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 		};
 	}
 
+	protected static MethodInstrumenter getMethodInstrumenter(MethodVisitor superMethodVisitor, int access, String name, String desc, long id, boolean enhancedExceptionSensor,
+			boolean parametersNeeded, boolean objectNeeded, boolean resultNeeded) {
+		return new MethodInstrumenter(superMethodVisitor, access, name, desc, id, enhancedExceptionSensor, parametersNeeded, objectNeeded, resultNeeded) {
+			@Override
+			protected void loadHookDispatcher() {
+				mv.visitFieldInsn(Opcodes.GETSTATIC, Type.getInternalName(ClassInstrumenterTest.class), "dispatcher", Type.getDescriptor(IHookDispatcher.class));
+			}
+		};
+	}
+
+	protected static ConstructorInstrumenter getConstructorInstrumenter(MethodVisitor superMethodVisitor, int access, String name, String desc, long id, boolean enhancedExceptionSensor,
+			boolean parametersNeeded, boolean objectNeeded) {
+		return new ConstructorInstrumenter(superMethodVisitor, access, name, desc, id, enhancedExceptionSensor, parametersNeeded, objectNeeded) {
+			@Override
+			protected void loadHookDispatcher() {
+				mv.visitFieldInsn(Opcodes.GETSTATIC, Type.getInternalName(ClassInstrumenterTest.class), "dispatcher", Type.getDescriptor(IHookDispatcher.class));
+			}
+		};
+	}
+
 	protected static ConstructorInstrumenter getConstructorInstrumenter(MethodVisitor superMethodVisitor, int access, String name, String desc, long id, boolean enhancedExceptionSensor) {
 		return new ConstructorInstrumenter(superMethodVisitor, access, name, desc, id, enhancedExceptionSensor) {
 			@Override
@@ -48,6 +48,9 @@ public class InstrumenterFactoryTest extends TestBase {
 			boolean enhancedExceptionSensor = false;
 			when(sensorInstrumentationPoint.isConstructor()).thenReturn(false);
 			when(sensorInstrumentationPoint.getId()).thenReturn(id);
+			when(sensorInstrumentationPoint.isParametersNeeded()).thenReturn(true);
+			when(sensorInstrumentationPoint.isObjectNeeded()).thenReturn(false);
+			when(sensorInstrumentationPoint.isResultNeeded()).thenReturn(true);
 
 			MethodVisitor methodVisitor = factory.getMethodVisitor(sensorInstrumentationPoint, superMethodVisitor, 0, name, desc, enhancedExceptionSensor);
 
@@ -55,6 +58,9 @@ public class InstrumenterFactoryTest extends TestBase {
 			MethodInstrumenter methodInstrumenter = (MethodInstrumenter) methodVisitor;
 			assertThat(methodInstrumenter.getMethodId(), is(id));
 			assertThat(methodInstrumenter.isEnhancedExceptionSensor(), is(enhancedExceptionSensor));
+			assertThat(methodInstrumenter.isParametersNeeded(), is(true));
+			assertThat(methodInstrumenter.isObjectNeeded(), is(false));
+			assertThat(methodInstrumenter.isResultNeeded(), is(true));
 		}
 
 		@Test
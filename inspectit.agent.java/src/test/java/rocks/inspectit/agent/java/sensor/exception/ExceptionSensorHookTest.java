@@ -58,7 +58,7 @@ public class ExceptionSensorHookTest extends AbstractLogSupport {
 		stringLength = 1000;
 		parameter = new HashMap<String, Object>();
 		parameter.put("stringLength", String.valueOf(stringLength));
-		exceptionHook = new ExceptionSensorHook(platformManager, parameter);
+		exceptionHook = new ExceptionSensorHook(platformManager, new StackTraceCache(), parameter);
 	}
 
 	@Test
@@ -0,0 +1,173 @@
+package rocks.inspectit.agent.java.sensor.exception;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.agent.java.event.AgentMessagesReceivedEvent;
+import rocks.inspectit.agent.java.event.DataSentEvent;
+import rocks.inspectit.shared.all.communication.data.ExceptionSensorData;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
+import rocks.inspectit.shared.all.communication.message.IAgentMessage;
+import rocks.inspectit.shared.all.communication.message.ResendStackTracesMessage;
+
+/**
+ * Test for the {@link StackTraceCache}.
+ *
+ * @author Ivan Senic
+ *
+ */
+@SuppressWarnings("PMD")
+public class StackTraceCacheTest {
+
+	StackTraceCache cache;
+
+	@BeforeMethod
+	public void init() {
+		cache = new StackTraceCache();
+	}
+
+	public class GetFingerprint extends StackTraceCacheTest {
+
+		@Test
+		public void sameSiteSameFingerprint() {
+			Throwable[] throwables = new Throwable[2];
+			for (int i = 0; i < throwables.length; i++) {
+				throwables[i] = new IllegalStateException("message " + i);
+			}
+
+			assertThat(cache.getFingerprint(throwables[0]), is(cache.getFingerprint(throwables[1])));
+		}
+
+		@Test
+		public void differentSiteDifferentFingerprint() {
+			Throwable first = new IllegalStateException();
+			Throwable second = new IllegalStateException();
+
+			assertThat(cache.getFingerprint(first), is(not(cache.getFingerprint(second))));
+		}
+
+		@Test
+		public void differentTypeDifferentFingerprint() {
+			StackTraceElement[] stackTrace = new IllegalStateException().getStackTrace();
+			Throwable first = new IllegalStateException();
+			first.setStackTrace(stackTrace);
+			Throwable second = new IllegalArgumentException();
+			second.setStackTrace(stackTrace);
+
+			assertThat(cache.getFingerprint(first), is(not(cache.getFingerprint(second))));
+		}
+
+		@Test
+		public void causeIncluded() {
+			StackTraceElement[] stackTrace = new IllegalStateException().getStackTrace();
+			Throwable first = new IllegalStateException();
+			first.setStackTrace(stackTrace);
+			Throwable second = new IllegalStateException(new RuntimeException());
+			second.setStackTrace(stackTrace);
+
+			assertThat(cache.getFingerprint(first), is(not(cache.getFingerprint(second))));
+		}
+
+		@Test
+		public void neverZero() {
+			assertThat(cache.getFingerprint(new IllegalStateException()), is(not(0L)));
+		}
+	}
+
+	public class IsSent extends StackTraceCacheTest {
+
+		@Test
+		public void notSent() {
+			assertThat(cache.isSent(10L), is(false));
+		}
+
+		@Test
+		public void sent() {
+			cache.markSent(10L);
+
+			assertThat(cache.isSent(10L), is(true));
+			assertThat(cache.isSent(11L), is(false));
+		}
+
+		@Test
+		public void pendingNotSent() {
+			cache.markPending(10L);
+
+			assertThat(cache.isSent(10L), is(false));
+		}
+	}
+
+	public class OnApplicationEvent extends StackTraceCacheTest {
+
+		@Test
+		public void dataSent() {
+			cache.markPending(10L);
+			ExceptionSensorData exceptionSensorData = exceptionData(10L, "stackTrace");
+
+			cache.onApplicationEvent(new DataSentEvent(this, Collections.singletonList(exceptionSensorData)));
+
+			assertThat(cache.isSent(10L), is(true));
+		}
+
+		@Test
+		public void dataSentChild() {
+			cache.markPending(10L);
+			ExceptionSensorData exceptionSensorData = exceptionData(10L, null);
+			exceptionSensorData.setChild(exceptionData(10L, "stackTrace"));
+
+			cache.onApplicationEvent(new DataSentEvent(this, Collections.singletonList(exceptionSensorData)));
+
+			assertThat(cache.isSent(10L), is(true));
+		}
+
+		@Test
+		public void dataSentInInvocation() {
+			cache.markPending(10L);
+			InvocationSequenceData invocation = new InvocationSequenceData();
+			InvocationSequenceData nested = new InvocationSequenceData();
+			nested.setExceptionSensorDataObjects(Collections.singletonList(exceptionData(10L, "stackTrace")));
+			invocation.setNestedSequences(Collections.singletonList(nested));
+
+			cache.onApplicationEvent(new DataSentEvent(this, Collections.singletonList(invocation)));
+
+			assertThat(cache.isSent(10L), is(true));
+		}
+
+		@Test
+		public void dataSentWithoutStackTrace() {
+			cache.markPending(10L);
+			ExceptionSensorData exceptionSensorData = exceptionData(10L, null);
+
+			cache.onApplicationEvent(new DataSentEvent(this, Collections.singletonList(exceptionSensorData)));
+
+			assertThat(cache.isSent(10L), is(false));
+		}
+
+		@Test
+		public void resendRequested() {
+			cache.markSent(10L);
+			cache.markSent(11L);
+			List<IAgentMessage<?>> messages = Collections.<IAgentMessage<?>> singletonList(new ResendStackTracesMessage(Collections.singleton(10L)));
+
+			cache.onApplicationEvent(new AgentMessagesReceivedEvent(this, messages));
+
+			assertThat(cache.isSent(10L), is(false));
+			assertThat(cache.isSent(11L), is(true));
+		}
+
+		private ExceptionSensorData exceptionData(long fingerprint, String stackTrace) {
+			ExceptionSensorData exceptionSensorData = new ExceptionSensorData();
+			exceptionSensorData.setStackTraceFingerprint(fingerprint);
+			exceptionSensorData.setStackTrace(stackTrace);
+			return exceptionSensorData;
+		}
+	}
+
+}
@@ -2,10 +2,12 @@ package rocks.inspectit.agent.java.sensor.jmx;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.verifyZeroInteractions;
@@ -15,7 +17,11 @@ import java.lang.management.ManagementFactory;
 import java.lang.reflect.Field;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
+import javax.management.Attribute;
+import javax.management.AttributeList;
 import javax.management.AttributeNotFoundException;
 import javax.management.InstanceNotFoundException;
 import javax.management.MBeanAttributeInfo;
@@ -280,19 +286,19 @@ public class JmxSensorTest extends TestBase {
 					return descriptors;
 				}
 			});
-			when(mBeanServer.getAttribute(objectName, testAttributeName)).thenReturn(value);
+			when(mBeanServer.getAttributes(objectName, new String[] { testAttributeName })).thenReturn(new AttributeList(Collections.singletonList(new Attribute(testAttributeName, value))));
 			jmxSensor.mbeanServerAdded(mBeanServer);
 
 			jmxSensor.update(coreService);
 
 			verify(mBeanServer).queryNames(Matchers.<ObjectName> any(), (QueryExp) eq(null));
 			verify(mBeanServer).getMBeanInfo(objectName);
-			verify(mBeanServer).getAttribute(objectName, testAttributeName);
+			verify(mBeanServer).getAttributes(objectName, new String[] { testAttributeName });
 			verify(mBeanServer).addNotificationListener(Matchers.<ObjectName> any(), Matchers.<NotificationListener> any(), Matchers.<NotificationFilter> any(), eq(null));
 			verifyNoMoreInteractions(mBeanServer);
 
 			ArgumentCaptor<JmxSensorValueData> valueCaptor = ArgumentCaptor.forClass(JmxSensorValueData.class);
-			verify(coreService).addJmxSensorValueData(eq(sensorType), eq(testObjectName), eq(testAttributeName), valueCaptor.capture());
+			verify(coreService).addJmxSensorValueData(eq(sensorType), valueCaptor.capture());
 
 			assertThat(valueCaptor.getValue().getPlatformIdent(), is(equalTo(platformIdent)));
 			assertThat(valueCaptor.getValue().getSensorTypeIdent(), is(equalTo(sensorType)));
@@ -329,7 +335,7 @@ public class JmxSensorTest extends TestBase {
 			when(platformManager.getPlatformId()).thenReturn(platformIdent);
 			when(connection.isConnected()).thenReturn(true);
 			when(connection.analyzeJmxAttributes(eq(platformIdent), Matchers.<Collection<JmxAttributeDescriptor>> any())).thenReturn(Collections.<JmxAttributeDescriptor> emptyList());
-			when(mBeanServer.getAttribute(objectName, testAttributeName)).thenReturn(value);
+			when(mBeanServer.getAttributes(objectName, new String[] { testAttributeName })).thenReturn(new AttributeList(Collections.singletonList(new Attribute(testAttributeName, value))));
 			jmxSensor.mbeanServerAdded(mBeanServer);
 
 			jmxSensor.update(coreService);
@@ -383,6 +389,7 @@ public class JmxSensorTest extends TestBase {
 
 			verify(mBeanServer).queryNames(Matchers.<ObjectName> any(), (QueryExp) eq(null));
 			verify(mBeanServer).getMBeanInfo(objectName);
+			verify(mBeanServer).getAttributes(objectName, new String[] { testAttributeName });
 			verify(mBeanServer).getAttribute(objectName, testAttributeName);
 			verify(mBeanServer).addNotificationListener(Matchers.<ObjectName> any(), Matchers.<NotificationListener> any(), Matchers.<NotificationFilter> any(), eq(null));
 			verifyNoMoreInteractions(mBeanServer);
@@ -420,19 +427,19 @@ public class JmxSensorTest extends TestBase {
 					return descriptors;
 				}
 			});
-			when(mBeanServer.getAttribute(objectName, testAttributeName)).thenReturn(null);
+			when(mBeanServer.getAttributes(objectName, new String[] { testAttributeName })).thenReturn(new AttributeList(Collections.singletonList(new Attribute(testAttributeName, null))));
 			jmxSensor.mbeanServerAdded(mBeanServer);
 
 			jmxSensor.update(coreService);
 
 			verify(mBeanServer).queryNames(Matchers.<ObjectName> any(), (QueryExp) eq(null));
 			verify(mBeanServer).getMBeanInfo(objectName);
-			verify(mBeanServer).getAttribute(objectName, testAttributeName);
+			verify(mBeanServer).getAttributes(objectName, new String[] { testAttributeName });
 			verify(mBeanServer).addNotificationListener(Matchers.<ObjectName> any(), Matchers.<NotificationListener> any(), Matchers.<NotificationFilter> any(), eq(null));
 			verifyNoMoreInteractions(mBeanServer);
 
 			ArgumentCaptor<JmxSensorValueData> valueCaptor = ArgumentCaptor.forClass(JmxSensorValueData.class);
-			verify(coreService).addJmxSensorValueData(eq(sensorType), eq(testObjectName), eq(testAttributeName), valueCaptor.capture());
+			verify(coreService).addJmxSensorValueData(eq(sensorType), valueCaptor.capture());
 
 			assertThat(valueCaptor.getValue().getPlatformIdent(), is(equalTo(platformIdent)));
 			assertThat(valueCaptor.getValue().getSensorTypeIdent(), is(equalTo(sensorType)));
@@ -472,19 +479,19 @@ public class JmxSensorTest extends TestBase {
 					return descriptors;
 				}
 			});
-			when(mBeanServer.getAttribute(objectName, testAttributeName)).thenReturn(new int[] { 1, 2, 3 });
+			when(mBeanServer.getAttributes(objectName, new String[] { testAttributeName })).thenReturn(new AttributeList(Collections.singletonList(new Attribute(testAttributeName, new int[] { 1, 2, 3 }))));
 			jmxSensor.mbeanServerAdded(mBeanServer);
 
 			jmxSensor.update(coreService);
 
 			verify(mBeanServer).queryNames(Matchers.<ObjectName> any(), (QueryExp) eq(null));
 			verify(mBeanServer).getMBeanInfo(objectName);
-			verify(mBeanServer).getAttribute(objectName, testAttributeName);
+			verify(mBeanServer).getAttributes(objectName, new String[] { testAttributeName });
 			verify(mBeanServer).addNotificationListener(Matchers.<ObjectName> any(), Matchers.<NotificationListener> any(), Matchers.<NotificationFilter> any(), eq(null));
 			verifyNoMoreInteractions(mBeanServer);
 
 			ArgumentCaptor<JmxSensorValueData> valueCaptor = ArgumentCaptor.forClass(JmxSensorValueData.class);
-			verify(coreService).addJmxSensorValueData(eq(sensorType), eq(testObjectName), eq(testAttributeName), valueCaptor.capture());
+			verify(coreService).addJmxSensorValueData(eq(sensorType), valueCaptor.capture());
 
 			assertThat(valueCaptor.getValue().getPlatformIdent(), is(equalTo(platformIdent)));
 			assertThat(valueCaptor.getValue().getSensorTypeIdent(), is(equalTo(sensorType)));
@@ -524,19 +531,19 @@ public class JmxSensorTest extends TestBase {
 					return descriptors;
 				}
 			});
-			when(mBeanServer.getAttribute(objectName, testAttributeName)).thenReturn(new String[] { "1", "2", "3" });
+			when(mBeanServer.getAttributes(objectName, new String[] { testAttributeName })).thenReturn(new AttributeList(Collections.singletonList(new Attribute(testAttributeName, new String[] { "1", "2", "3" }))));
 			jmxSensor.mbeanServerAdded(mBeanServer);
 
 			jmxSensor.update(coreService);
 
 			verify(mBeanServer).queryNames(Matchers.<ObjectName> any(), (QueryExp) eq(null));
 			verify(mBeanServer).getMBeanInfo(objectName);
-			verify(mBeanServer).getAttribute(objectName, testAttributeName);
+			verify(mBeanServer).getAttributes(objectName, new String[] { testAttributeName });
 			verify(mBeanServer).addNotificationListener(Matchers.<ObjectName> any(), Matchers.<NotificationListener> any(), Matchers.<NotificationFilter> any(), eq(null));
 			verifyNoMoreInteractions(mBeanServer);
 
 			ArgumentCaptor<JmxSensorValueData> valueCaptor = ArgumentCaptor.forClass(JmxSensorValueData.class);
-			verify(coreService).addJmxSensorValueData(eq(sensorType), eq(testObjectName), eq(testAttributeName), valueCaptor.capture());
+			verify(coreService).addJmxSensorValueData(eq(sensorType), valueCaptor.capture());
 
 			assertThat(valueCaptor.getValue().getPlatformIdent(), is(equalTo(platformIdent)));
 			assertThat(valueCaptor.getValue().getSensorTypeIdent(), is(equalTo(sensorType)));
@@ -544,6 +551,106 @@ public class JmxSensorTest extends TestBase {
 			assertThat(valueCaptor.getValue().getValue(), is("[1, 2, 3]"));
 		}
 
+		@Test
+		public void collectDataNumericValue() throws Exception {
+			long sensorType = 13L;
+			long platformIdent = 11L;
+			final long definitionDataIdentId = 17L;
+			String testObjectName = "Testdomain:Test=TestObjectName,name=test";
+			String testAttributeName = "TestAttributename";
+			String otherAttributeName = "OtherAttributename";
+			MBeanAttributeInfo[] mBeanAttributeInfos = { new MBeanAttributeInfo(testAttributeName, "int", "", true, false, false),
+					new MBeanAttributeInfo(otherAttributeName, "double", "", true, false, false) };
+			ObjectName objectName = new ObjectName(testObjectName);
+
+			when(sensorTypeConfig.getId()).thenReturn(sensorType);
+			when(mBeanServer.queryNames(Matchers.<ObjectName> any(), (QueryExp) eq(null))).thenReturn(Collections.singleton(objectName));
+			when(mBeanServer.getMBeanInfo(Matchers.<ObjectName> any())).thenReturn(mBeanInfo);
+			when(mBeanInfo.getAttributes()).thenReturn(mBeanAttributeInfos);
+			when(platformManager.getPlatformId()).thenReturn(platformIdent);
+			when(connection.isConnected()).thenReturn(true);
+			when(connection.analyzeJmxAttributes(eq(platformIdent), Matchers.<Collection<JmxAttributeDescriptor>> any())).thenAnswer(new Answer<Collection<JmxAttributeDescriptor>>() {
+				@Override
+				public Collection<JmxAttributeDescriptor> answer(InvocationOnMock invocation) throws Throwable {
+					Collection<JmxAttributeDescriptor> descriptors = (Collection<JmxAttributeDescriptor>) invocation.getArguments()[1];
+					for (JmxAttributeDescriptor d : descriptors) {
+						d.setId(definitionDataIdentId);
+					}
+					return descriptors;
+				}
+			});
+			AttributeList attributeList = new AttributeList();
+			attributeList.add(new Attribute(testAttributeName, Integer.valueOf(10)));
+			attributeList.add(new Attribute(otherAttributeName, Double.valueOf(0.5d)));
+			when(mBeanServer.getAttributes(Matchers.eq(objectName), Matchers.<String[]> any())).thenReturn(attributeList);
+			jmxSensor.mbeanServerAdded(mBeanServer);
+
+			jmxSensor.update(coreService);
+
+			// one call for both attributes
+			verify(mBeanServer).getAttributes(Matchers.eq(objectName), Matchers.<String[]> any());
+			verify(mBeanServer).queryNames(Matchers.<ObjectName> any(), (QueryExp) eq(null));
+			verify(mBeanServer).getMBeanInfo(objectName);
+			verify(mBeanServer).addNotificationListener(Matchers.<ObjectName> any(), Matchers.<NotificationListener> any(), Matchers.<NotificationFilter> any(), eq(null));
+			verifyNoMoreInteractions(mBeanServer);
+
+			ArgumentCaptor<JmxSensorValueData> valueCaptor = ArgumentCaptor.forClass(JmxSensorValueData.class);
+			verify(coreService, times(2)).addJmxSensorValueData(eq(sensorType), valueCaptor.capture());
+
+			Map<String, Double> values = new HashMap<String, Double>();
+			for (JmxSensorValueData data : valueCaptor.getAllValues()) {
+				assertThat(data.isBooleanOrNumeric(), is(true));
+				values.put(data.getValue(), data.getValueAsDouble());
+			}
+			assertThat(values, hasEntry("10", 10d));
+			assertThat(values, hasEntry("0.5", 0.5d));
+		}
+
+		@Test
+		public void collectDataUnchangedValueNotResent() throws Exception {
+			long sensorType = 13L;
+			long platformIdent = 11L;
+			final long definitionDataIdentId = 17L;
+			String testObjectName = "Testdomain:Test=TestObjectName,name=test";
+			String testAttributeName = "TestAttributename";
+			MBeanAttributeInfo[] mBeanAttributeInfos = { new MBeanAttributeInfo(testAttributeName, "long", "", true, false, false) };
+			ObjectName objectName = new ObjectName(testObjectName);
+
+			when(sensorTypeConfig.getId()).thenReturn(sensorType);
+			when(mBeanServer.queryNames(Matchers.<ObjectName> any(), (QueryExp) eq(null))).thenReturn(Collections.singleton(objectName));
+			when(mBeanServer.getMBeanInfo(Matchers.<ObjectName> any())).thenReturn(mBeanInfo);
+			when(mBeanInfo.getAttributes()).thenReturn(mBeanAttributeInfos);
+			when(platformManager.getPlatformId()).thenReturn(platformIdent);
+			when(connection.isConnected()).thenReturn(true);
+			when(connection.analyzeJmxAttributes(eq(platformIdent), Matchers.<Collection<JmxAttributeDescriptor>> any())).thenAnswer(new Answer<Collection<JmxAttributeDescriptor>>() {
+				@Override
+				public Collection<JmxAttributeDescriptor> answer(InvocationOnMock invocation) throws Throwable {
+					Collection<JmxAttributeDescriptor> descriptors = (Collection<JmxAttributeDescriptor>) invocation.getArguments()[1];
+					for (JmxAttributeDescriptor d : descriptors) {
+						d.setId(definitionDataIdentId);
+					}
+					return descriptors;
+				}
+			});
+			when(mBeanServer.getAttributes(objectName, new String[] { testAttributeName })).thenReturn(new AttributeList(Collections.singletonList(new Attribute(testAttributeName, Long.valueOf(5L)))))
+					.thenReturn(new AttributeList(Collections.singletonList(new Attribute(testAttributeName, Long.valueOf(5L)))))
+					.thenReturn(new AttributeList(Collections.singletonList(new Attribute(testAttributeName, Long.valueOf(6L)))));
+			jmxSensor.mbeanServerAdded(mBeanServer);
+
+			// update three times
+			jmxSensor.update(coreService);
+			jmxSensor.lastDataCollectionTimestamp = 0;
+			jmxSensor.update(coreService);
+			jmxSensor.lastDataCollectionTimestamp = 0;
+			jmxSensor.update(coreService);
+
+			verify(mBeanServer, times(3)).getAttributes(objectName, new String[] { testAttributeName });
+			ArgumentCaptor<JmxSensorValueData> valueCaptor = ArgumentCaptor.forClass(JmxSensorValueData.class);
+			verify(coreService, times(2)).addJmxSensorValueData(eq(sensorType), valueCaptor.capture());
+			assertThat(valueCaptor.getAllValues().get(0).getValue(), is("5"));
+			assertThat(valueCaptor.getAllValues().get(1).getValue(), is("6"));
+		}
+
 		@DataProvider(name = "throwableProvider")
 		public Object[][] getThrowables() {
 			return new Object[][] { { AttributeNotFoundException.class }, { InstanceNotFoundException.class }, { MBeanException.class }, { ReflectionException.class },
@@ -597,7 +704,7 @@ public class JmxSensorTest extends TestBase {
 					return descriptors;
 				}
 			});
-			when(mBeanServer.getAttribute(objectName, testAttributeName)).thenReturn(value);
+			when(mBeanServer.getAttributes(objectName, new String[] { testAttributeName })).thenReturn(new AttributeList(Collections.singletonList(new Attribute(testAttributeName, value))));
 			MBeanServerNotification notification = new MBeanServerNotification(MBeanServerNotification.REGISTRATION_NOTIFICATION, this, 1, objectName);
 
 			notificationListener.getValue().handleNotification(notification, null);
@@ -615,11 +722,11 @@ public class JmxSensorTest extends TestBase {
 
 			verify(mBeanServer).queryNames(Matchers.<ObjectName> any(), (QueryExp) eq(null));
 			verify(mBeanServer).getMBeanInfo(objectName);
-			verify(mBeanServer).getAttribute(objectName, testAttributeName);
+			verify(mBeanServer).getAttributes(objectName, new String[] { testAttributeName });
 			verifyNoMoreInteractions(mBeanServer);
 
 			ArgumentCaptor<JmxSensorValueData> valueCaptor = ArgumentCaptor.forClass(JmxSensorValueData.class);
-			verify(coreService).addJmxSensorValueData(eq(sensorType), eq(testObjectName), eq(testAttributeName), valueCaptor.capture());
+			verify(coreService).addJmxSensorValueData(eq(sensorType), valueCaptor.capture());
 
 			assertThat(valueCaptor.getValue().getPlatformIdent(), is(equalTo(platformIdent)));
 			assertThat(valueCaptor.getValue().getSensorTypeIdent(), is(equalTo(sensorType)));
@@ -0,0 +1,71 @@
+package rocks.inspectit.agent.java.sensor.method.cpu;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.lang.management.ThreadMXBean;
+
+import org.mockito.Mock;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.shared.all.testbase.TestBase;
+
+/**
+ * Test for the {@link SampledThreadCpuTimeProvider}.
+ *
+ * @author Ivan Senic
+ *
+ */
+@SuppressWarnings("PMD")
+public class SampledThreadCpuTimeProviderTest extends TestBase {
+
+	@Mock
+	ThreadMXBean threadMXBean;
+
+	@Mock
+	ThreadCpuTimeSampler sampler;
+
+	@BeforeMethod
+	public void init() {
+		when(threadMXBean.isThreadCpuTimeSupported()).thenReturn(true);
+		when(threadMXBean.isThreadCpuTimeEnabled()).thenReturn(true);
+	}
+
+	public static class Init extends SampledThreadCpuTimeProviderTest {
+
+		@Test
+		public void samplingStarted() {
+			new SampledThreadCpuTimeProvider(threadMXBean, sampler);
+
+			verify(sampler).start();
+		}
+
+		@Test
+		public void notEnabled() {
+			when(threadMXBean.isThreadCpuTimeSupported()).thenReturn(false);
+
+			SampledThreadCpuTimeProvider notEnabled = new SampledThreadCpuTimeProvider(threadMXBean, sampler);
+
+			assertThat(notEnabled.isEnabled(), is(false));
+			verifyZeroInteractions(sampler);
+		}
+	}
+
+	public static class GetCurrentThreadCpuTime extends SampledThreadCpuTimeProviderTest {
+
+		@Test
+		public void sampledValueReturned() {
+			when(sampler.getCurrentThreadCpuTime()).thenReturn(250L);
+			SampledThreadCpuTimeProvider provider = new SampledThreadCpuTimeProvider(threadMXBean, sampler);
+
+			long cpuTime = provider.getCurrentThreadCpuTime(1);
+
+			assertThat(cpuTime, is(250L));
+		}
+	}
+
+}
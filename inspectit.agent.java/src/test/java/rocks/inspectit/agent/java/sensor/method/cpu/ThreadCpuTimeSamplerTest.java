@@ -0,0 +1,123 @@
+package rocks.inspectit.agent.java.sensor.method.cpu;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.shared.all.testbase.TestBase;
+
+/**
+ * Test for the {@link ThreadCpuTimeSampler}.
+ *
+ * @author Ivan Senic
+ *
+ */
+@SuppressWarnings("PMD")
+public class ThreadCpuTimeSamplerTest extends TestBase {
+
+	ThreadCpuTimeSampler sampler;
+
+	@Mock
+	ThreadMXBean threadMXBean;
+
+	@Mock
+	ScheduledExecutorService executorService;
+
+	@Mock
+	ScheduledFuture<Object> future;
+
+	@BeforeMethod
+	public void init() {
+		sampler = new ThreadCpuTimeSampler(executorService);
+		sampler.threadMXBean = threadMXBean;
+		doReturn(future).when(executorService).scheduleAtFixedRate(Matchers.<Runnable> any(), anyLong(), anyLong(), Matchers.<TimeUnit> any());
+	}
+
+	public static class Start extends ThreadCpuTimeSamplerTest {
+
+		@Test
+		public void samplingScheduledOnce() {
+			sampler.start();
+			sampler.start();
+
+			verify(executorService, times(1)).scheduleAtFixedRate(sampler, ThreadCpuTimeSampler.PERIOD, ThreadCpuTimeSampler.PERIOD, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	public static class Destroy extends ThreadCpuTimeSamplerTest {
+
+		@Test
+		public void samplingCancelled() throws Exception {
+			sampler.start();
+
+			sampler.destroy();
+
+			verify(future).cancel(false);
+		}
+
+		@Test
+		public void restartedAfterDestroy() throws Exception {
+			sampler.start();
+			sampler.destroy();
+			sampler.start();
+
+			verify(executorService, times(2)).scheduleAtFixedRate(sampler, ThreadCpuTimeSampler.PERIOD, ThreadCpuTimeSampler.PERIOD, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	public static class GetCurrentThreadCpuTime extends ThreadCpuTimeSamplerTest {
+
+		@Test
+		public void firstReadExact() {
+			when(threadMXBean.getCurrentThreadCpuTime()).thenReturn(100L);
+
+			long cpuTime = sampler.getCurrentThreadCpuTime();
+
+			assertThat(cpuTime, is(100L));
+		}
+
+		@Test
+		public void sampledValueReturned() {
+			long threadId = Thread.currentThread().getId();
+			when(threadMXBean.getCurrentThreadCpuTime()).thenReturn(100L);
+			when(threadMXBean.getThreadCpuTime(threadId)).thenReturn(250L);
+
+			sampler.getCurrentThreadCpuTime();
+			long beforeSample = sampler.getCurrentThreadCpuTime();
+			sampler.run();
+			long afterSample = sampler.getCurrentThreadCpuTime();
+
+			assertThat(beforeSample, is(100L));
+			assertThat(afterSample, is(250L));
+			verify(threadMXBean, times(1)).getCurrentThreadCpuTime();
+		}
+
+		@Test
+		public void terminatedThreadRemoved() {
+			long threadId = Thread.currentThread().getId();
+			when(threadMXBean.getCurrentThreadCpuTime()).thenReturn(100L);
+			when(threadMXBean.getThreadCpuTime(threadId)).thenReturn(-1L);
+
+			sampler.getCurrentThreadCpuTime();
+			sampler.run();
+			sampler.run();
+
+			verify(threadMXBean, times(1)).getThreadCpuTime(anyLong());
+		}
+	}
+
+}
@@ -31,6 +31,7 @@ import rocks.inspectit.agent.java.config.impl.RegisteredSensorConfig;
 import rocks.inspectit.agent.java.core.ICoreService;
 import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.agent.java.core.IdNotAvailableException;
+import rocks.inspectit.agent.java.sensor.method.cpu.JmxThreadCpuTimeProvider;
 import rocks.inspectit.agent.java.util.Timer;
 import rocks.inspectit.shared.all.communication.MethodSensorData;
 import rocks.inspectit.shared.all.communication.data.HttpTimerData;
@@ -89,7 +90,7 @@ public class HttpHookTest extends AbstractLogSupport {
 
 		Map<String, Object> map = new HashMap<String, Object>();
 		MapUtils.putAll(map, new String[][] { { "sessioncapture", "true" } });
-		httpHook = new HttpHook(timer, platformManager, map, threadMXBean);
+		httpHook = new HttpHook(timer, platformManager, map, new JmxThreadCpuTimeProvider(threadMXBean));
 	}
 
 	@Test
@@ -438,6 +439,49 @@ public class HttpHookTest extends AbstractLogSupport {
 		Mockito.verifyZeroInteractions(result);
 	}
 
+	@Test
+	public void detailsNotCapturedBelowThreshold() throws IdNotAvailableException {
+		Map<String, Object> map = new HashMap<String, Object>();
+		MapUtils.putAll(map, new String[][] { { "sessioncapture", "true" }, { "detailscapturethreshold", "1000" } });
+		httpHook = new HttpHook(timer, platformManager, map, new JmxThreadCpuTimeProvider(threadMXBean));
+
+		when(timer.getCurrentTime()).thenReturn(1000d).thenReturn(1500d);
+		when(platformManager.getPlatformId()).thenReturn(platformId);
+		when(httpServletRequest.getRequestURI()).thenReturn("URI");
+
+		Object[] parameters = new Object[] { httpServletRequest, httpServletResponse };
+
+		httpHook.beforeBody(methodId, sensorTypeId, servlet, parameters, registeredSensorConfig);
+		httpHook.firstAfterBody(methodId, sensorTypeId, servlet, parameters, result, registeredSensorConfig);
+		httpHook.secondAfterBody(coreService, methodId, sensorTypeId, servlet, parameters, result, registeredSensorConfig);
+
+		Mockito.verify(coreService).addMethodSensorData(Matchers.eq(sensorTypeId), Matchers.eq(methodId), (String) Matchers.eq(null), Matchers.any(HttpTimerData.class));
+		Mockito.verify(httpServletRequest).getRequestURI();
+		Mockito.verify(httpServletRequest, Mockito.never()).getHeaderNames();
+		Mockito.verify(httpServletRequest, Mockito.never()).getAttributeNames();
+		Mockito.verify(httpServletRequest, Mockito.never()).getSession(Matchers.anyBoolean());
+	}
+
+	@Test
+	public void detailsCapturedAboveThreshold() throws IdNotAvailableException {
+		Map<String, Object> map = new HashMap<String, Object>();
+		MapUtils.putAll(map, new String[][] { { "detailscapturethreshold", "1000" } });
+		httpHook = new HttpHook(timer, platformManager, map, new JmxThreadCpuTimeProvider(threadMXBean));
+
+		when(timer.getCurrentTime()).thenReturn(1000d).thenReturn(2500d);
+		when(platformManager.getPlatformId()).thenReturn(platformId);
+
+		Object[] parameters = new Object[] { httpServletRequest, httpServletResponse };
+
+		httpHook.beforeBody(methodId, sensorTypeId, servlet, parameters, registeredSensorConfig);
+		httpHook.firstAfterBody(methodId, sensorTypeId, servlet, parameters, result, registeredSensorConfig);
+		httpHook.secondAfterBody(coreService, methodId, sensorTypeId, servlet, parameters, result, registeredSensorConfig);
+
+		Mockito.verify(coreService).addMethodSensorData(Matchers.eq(sensorTypeId), Matchers.eq(methodId), (String) Matchers.eq(null), Matchers.any(HttpTimerData.class));
+		Mockito.verify(httpServletRequest).getHeaderNames();
+		Mockito.verify(httpServletRequest).getAttributeNames();
+	}
+
 	/**
 	 * Inner class used to verify the contents of PlainTimerData objects.
 	 */
@@ -243,6 +243,62 @@ public class InvocationSequenceHookTest extends TestBase {
 		assertThat(child.getChildCount(), is(0L));
 	}
 
+	/**
+	 * Tests that calls above the max children limit are summarized per method.
+	 *
+	 * @throws IdNotAvailableException
+	 */
+	@Test
+	public void maxChildrenSummarized() throws IdNotAvailableException {
+		long platformId = 1L;
+		long methodId1 = 3L;
+		long methodId2 = 23L;
+		long methodId3 = 31L;
+		long sensorTypeId = 11L;
+		Object object = mock(Object.class);
+		Object[] parameters = new Object[0];
+		Object result = mock(Object.class);
+		invocationSequenceHook = new InvocationSequenceHook(timer, platformManager, propertyAccessor, Collections.<String, Object> singletonMap("maxchildren", "1"), false);
+
+		// no test of skipping/removal
+		when(rsc.getMethodSensors()).thenReturn(Collections.<IMethodSensor> emptyList());
+		when(platformManager.getPlatformId()).thenReturn(platformId);
+		when(timer.getCurrentTime()).thenReturn(1000.0d, 1100.0d, 1200.0d, 1300.0d, 1350.0d, 1400.0d, 1500.0d, 2000.0d);
+
+		invocationSequenceHook.beforeBody(methodId1, sensorTypeId, object, parameters, rsc);
+		invocationSequenceHook.beforeBody(methodId2, sensorTypeId, object, parameters, rsc);
+		invocationSequenceHook.firstAfterBody(methodId2, sensorTypeId, object, parameters, result, rsc);
+		invocationSequenceHook.secondAfterBody(coreService, methodId2, sensorTypeId, object, parameters, result, rsc);
+		for (int i = 0; i < 2; i++) {
+			invocationSequenceHook.beforeBody(methodId3, sensorTypeId, object, parameters, rsc);
+			SqlStatementData sqlStatementData = new SqlStatementData(null, platformId, sensorTypeId, methodId3);
+			sqlStatementData.setCount(1L);
+			invocationSequenceHook.addMethodSensorData(sensorTypeId, methodId3, "", sqlStatementData);
+			invocationSequenceHook.firstAfterBody(methodId3, sensorTypeId, object, parameters, result, rsc);
+			invocationSequenceHook.secondAfterBody(coreService, methodId3, sensorTypeId, object, parameters, result, rsc);
+		}
+		invocationSequenceHook.firstAfterBody(methodId1, sensorTypeId, object, parameters, result, rsc);
+		invocationSequenceHook.secondAfterBody(coreService, methodId1, sensorTypeId, object, parameters, result, rsc);
+
+		ArgumentCaptor<InvocationSequenceData> captor = ArgumentCaptor.forClass(InvocationSequenceData.class);
+		verify(coreService, times(1)).addMethodSensorData(eq(sensorTypeId), eq(methodId1), Matchers.<String> anyObject(), captor.capture());
+
+		InvocationSequenceData invocation = captor.getValue();
+		assertThat(invocation.getNestedSequences(), hasSize(2));
+		assertThat(invocation.getChildCount(), is(2L));
+		InvocationSequenceData child = invocation.getNestedSequences().get(0);
+		assertThat(child.getMethodIdent(), is(methodId2));
+		assertThat(child.getDuration(), is(100.0d));
+		InvocationSequenceData summary = invocation.getNestedSequences().get(1);
+		assertThat(summary.getMethodIdent(), is(methodId3));
+		assertThat(summary.getParentSequence(), is(invocation));
+		assertThat(summary.getNestedSequences(), is(empty()));
+		assertThat(summary.getTimerData().getCount(), is(2L));
+		assertThat(summary.getTimerData().getDuration(), is(150.0d));
+		assertThat(summary.getTimerData().getMax(), is(100.0d));
+		assertThat(summary.getSqlStatementData().getCount(), is(2L));
+	}
+
 	/**
 	 * Tests that invocation will not be saved if the duration is below min duration specified in
 	 * the rsc settings.
@@ -288,6 +344,49 @@ public class InvocationSequenceHookTest extends TestBase {
 		verify(coreService, times(1)).addMethodSensorData(eq(sensorTypeId), eq(methodId), Matchers.<String> anyObject(), Matchers.<InvocationSequenceData> anyObject());
 	}
 
+	/**
+	 * Tests that with the sampling rate only the sampled invocations are recorded and that nothing
+	 * is created for the not sampled ones.
+	 *
+	 * @throws IdNotAvailableException
+	 */
+	@Test
+	public void samplingRate() throws IdNotAvailableException {
+		long platformId = 1L;
+		long methodId = 3L;
+		long nestedMethodId = 5L;
+		long sensorTypeId = 11L;
+		Object object = mock(Object.class);
+		Object[] parameters = new Object[0];
+		Object result = mock(Object.class);
+
+		when(platformManager.getPlatformId()).thenReturn(platformId);
+		when(timer.getCurrentTime()).thenReturn(1000.0d);
+		Map<String, Object> map = new HashMap<String, Object>();
+		map.put("samplingrate", Double.valueOf(0.5d));
+		when(rsc.getSettings()).thenReturn(map);
+		when(rsc.getMethodSensors()).thenReturn(Collections.singletonList(methodSensor));
+		when(methodSensor.getSensorTypeConfig()).thenReturn(methodSensorTypeConfig);
+
+		// first not sampled, nested calls and data ignored
+		invocationSequenceHook.beforeBody(methodId, sensorTypeId, object, parameters, rsc);
+		invocationSequenceHook.beforeBody(nestedMethodId, sensorTypeId, object, parameters, rsc);
+		invocationSequenceHook.addMethodSensorData(0, 0, "", new TimerData());
+		invocationSequenceHook.firstAfterBody(nestedMethodId, sensorTypeId, object, parameters, result, rsc);
+		invocationSequenceHook.secondAfterBody(coreService, nestedMethodId, sensorTypeId, object, parameters, result, rsc);
+		invocationSequenceHook.firstAfterBody(methodId, sensorTypeId, object, parameters, result, rsc);
+		invocationSequenceHook.secondAfterBody(coreService, methodId, sensorTypeId, object, parameters, result, rsc);
+
+		verifyZeroInteractions(timer, platformManager, coreService);
+
+		// second sampled
+		invocationSequenceHook.beforeBody(methodId, sensorTypeId, object, parameters, rsc);
+		invocationSequenceHook.firstAfterBody(methodId, sensorTypeId, object, parameters, result, rsc);
+		invocationSequenceHook.secondAfterBody(coreService, methodId, sensorTypeId, object, parameters, result, rsc);
+
+		verify(coreService, times(1)).addMethodSensorData(eq(sensorTypeId), eq(methodId), Matchers.<String> anyObject(), Matchers.<InvocationSequenceData> anyObject());
+	}
+
 	/**
 	 * Tests that when Id is not available (platform) on start of invocation no data will be
 	 * captured.
@@ -705,6 +804,54 @@ public class InvocationSequenceHookTest extends TestBase {
 		assertThat(child.getLoggingData(), is(loggingData));
 	}
 
+	/**
+	 * Same logging in one invocation is aggregated to the first logging node.
+	 */
+	@Test
+	public void aggregateSameLogging() throws IdNotAvailableException {
+		long platformId = 1L;
+		long methodId1 = 3L;
+		long sensorTypeId = 11L;
+		long methodId2 = 23L;
+		Object object = mock(Object.class);
+		Object[] parameters = new Object[0];
+		Object result = mock(Object.class);
+
+		when(platformManager.getPlatformId()).thenReturn(platformId);
+		when(timer.getCurrentTime()).thenReturn(1000.0d, 1323.0d, 1881.0d, 2562.0d, 3000.0d);
+
+		RegisteredSensorConfig logRsc = mock(RegisteredSensorConfig.class);
+		MethodSensorTypeConfig logSensorConfig = mock(MethodSensorTypeConfig.class);
+		when(logSensorConfig.getClassName()).thenReturn(Log4JLoggingSensor.class.getCanonicalName());
+
+		when(rsc.getMethodSensors()).thenReturn(Collections.<IMethodSensor> emptyList());
+		when(logRsc.getMethodSensors()).thenReturn(Collections.singletonList(methodSensor));
+		when(methodSensor.getSensorTypeConfig()).thenReturn(logSensorConfig);
+
+		invocationSequenceHook.beforeBody(methodId1, sensorTypeId, object, parameters, rsc);
+		LoggingData first = new LoggingData("ERROR", "Failed after {} retries");
+		LoggingData second = new LoggingData("ERROR", "Failed after {} retries");
+		second.setCount(2L);
+		for (LoggingData loggingData : new LoggingData[] { first, second }) {
+			invocationSequenceHook.beforeBody(methodId2, sensorTypeId, object, parameters, logRsc);
+			invocationSequenceHook.addMethodSensorData(0, 0, "", loggingData);
+			invocationSequenceHook.firstAfterBody(methodId2, sensorTypeId, object, parameters, result, logRsc);
+			invocationSequenceHook.secondAfterBody(coreService, methodId2, sensorTypeId, object, parameters, result, logRsc);
+		}
+		invocationSequenceHook.firstAfterBody(methodId1, sensorTypeId, object, parameters, result, rsc);
+		invocationSequenceHook.secondAfterBody(coreService, methodId1, sensorTypeId, object, parameters, result, rsc);
+
+		ArgumentCaptor<InvocationSequenceData> captor = ArgumentCaptor.forClass(InvocationSequenceData.class);
+		verify(coreService, times(1)).addMethodSensorData(eq(sensorTypeId), eq(methodId1), Matchers.<String> anyObject(), captor.capture());
+
+		InvocationSequenceData invocation = captor.getValue();
+		assertThat(invocation.getNestedSequences(), hasSize(1));
+		assertThat(invocation.getChildCount(), is(1L));
+		InvocationSequenceData child = invocation.getNestedSequences().iterator().next();
+		assertThat(child.getLoggingData(), is(first));
+		assertThat(first.getCount(), is(3L));
+	}
+
 	/**
 	 * Tests that skip is activated when certain sensor is only defined in the
 	 * {@link RegisteredSensorConfig}.
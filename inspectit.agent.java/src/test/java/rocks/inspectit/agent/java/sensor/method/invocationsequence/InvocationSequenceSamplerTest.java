@@ -0,0 +1,122 @@
+package rocks.inspectit.agent.java.sensor.method.invocationsequence;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Test for the {@link InvocationSequenceSampler}.
+ *
+ * @author Ivan Senic
+ *
+ */
+@SuppressWarnings("PMD")
+public class InvocationSequenceSamplerTest {
+
+	InvocationSequenceSampler sampler;
+
+	@BeforeMethod
+	public void init() {
+		sampler = new InvocationSequenceSampler();
+	}
+
+	public class Sample extends InvocationSequenceSamplerTest {
+
+		@Test
+		public void noSettings() {
+			for (int i = 0; i < 10; i++) {
+				assertThat(sampler.sample(1L, Collections.<String, Object> emptyMap()), is(true));
+			}
+		}
+
+		@Test
+		public void rate() {
+			Map<String, Object> settings = Collections.<String, Object> singletonMap(InvocationSequenceSampler.SAMPLING_RATE, Double.valueOf(0.1d));
+
+			int sampled = 0;
+			for (int i = 0; i < 100; i++) {
+				if (sampler.sample(1L, settings)) {
+					sampled++;
+				}
+			}
+
+			assertThat(sampled, is(10));
+		}
+
+		@Test
+		public void zeroRate() {
+			Map<String, Object> settings = Collections.<String, Object> singletonMap(InvocationSequenceSampler.SAMPLING_RATE, Double.valueOf(0.0d));
+
+			assertThat(sampler.sample(1L, settings), is(false));
+		}
+
+		@Test
+		public void budget() {
+			Map<String, Object> settings = Collections.<String, Object> singletonMap(InvocationSequenceSampler.SAMPLING_BUDGET, Long.valueOf(2L));
+
+			assertThat(sampler.sample(1L, settings), is(true));
+			assertThat(sampler.sample(1L, settings), is(true));
+			assertThat(sampler.sample(1L, settings), is(false));
+		}
+
+		@Test
+		public void budgetConcurrent() throws Exception {
+			final Map<String, Object> settings = Collections.<String, Object> singletonMap(InvocationSequenceSampler.SAMPLING_BUDGET, Long.valueOf(100L));
+			final AtomicInteger sampled = new AtomicInteger();
+			Thread[] threads = new Thread[8];
+			for (int i = 0; i < threads.length; i++) {
+				threads[i] = new Thread(new Runnable() {
+					@Override
+					public void run() {
+						for (int j = 0; j < 1000; j++) {
+							if (sampler.sample(1L, settings)) {
+								sampled.incrementAndGet();
+							}
+						}
+					}
+				});
+			}
+			for (Thread thread : threads) {
+				thread.start();
+			}
+			for (Thread thread : threads) {
+				thread.join();
+			}
+
+			assertThat(sampled.get(), is(100));
+		}
+
+		@Test
+		public void budgetPerMethod() {
+			Map<String, Object> settings = new HashMap<String, Object>();
+			settings.put(InvocationSequenceSampler.SAMPLING_BUDGET, Long.valueOf(1L));
+
+			assertThat(sampler.sample(1L, settings), is(true));
+			assertThat(sampler.sample(1L, settings), is(false));
+			assertThat(sampler.sample(2L, settings), is(true));
+		}
+
+		@Test
+		public void settingsChanged() {
+			Map<String, Object> settings = new HashMap<String, Object>();
+			settings.put(InvocationSequenceSampler.SAMPLING_RATE, Double.valueOf(0.0d));
+			assertThat(sampler.sample(1L, settings), is(false));
+
+			settings.put(InvocationSequenceSampler.SAMPLING_RATE, Double.valueOf(1.0d));
+			assertThat(sampler.sample(1L, settings), is(true));
+
+			settings.remove(InvocationSequenceSampler.SAMPLING_RATE);
+			settings.put(InvocationSequenceSampler.SAMPLING_BUDGET, Long.valueOf(1L));
+			assertThat(sampler.sample(1L, settings), is(true));
+			assertThat(sampler.sample(1L, settings), is(false));
+		}
+	}
+
+}
@@ -0,0 +1,102 @@
+package rocks.inspectit.agent.java.sensor.method.jdbc;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Test for the {@link SqlNormalizer}.
+ *
+ * @author Ivan Senic
+ *
+ */
+@SuppressWarnings("PMD")
+public class SqlNormalizerTest {
+
+	SqlNormalizer normalizer;
+
+	@BeforeMethod
+	public void init() {
+		normalizer = new SqlNormalizer();
+	}
+
+	public class Normalize extends SqlNormalizerTest {
+
+		@Test
+		public void noLiterals() {
+			String sql = "SELECT * FROM TEST";
+
+			String template = normalizer.normalize(sql);
+
+			assertThat(template, is(sameInstance(sql)));
+		}
+
+		@Test
+		public void stringAndNumberLiterals() {
+			String template = normalizer.normalize("SELECT * FROM TEST WHERE NAME = 'it''s' AND AGE > 18 AND RATE < 1.5e3");
+
+			assertThat(template, is("SELECT * FROM TEST WHERE NAME = ? AND AGE > ? AND RATE < ?"));
+		}
+
+		@Test
+		public void sameTemplateForDifferentLiterals() {
+			String first = normalizer.normalize("SELECT * FROM TEST WHERE ID = 1");
+			String second = normalizer.normalize("SELECT * FROM TEST WHERE ID = 2");
+
+			assertThat(first, is(second));
+		}
+
+		@Test
+		public void identifiersNotChanged() {
+			String sql = "SELECT T1.COL_2, \"Table 3\".X FROM T1, \"Table 3\" -- id = 5\n/* 'x' */";
+
+			String template = normalizer.normalize(sql);
+
+			assertThat(template, is(sql));
+		}
+
+		@Test
+		public void alreadyParameterized() {
+			String sql = "SELECT * FROM TEST WHERE ID = ? AND AGE = 18";
+
+			String template = normalizer.normalize(sql);
+
+			assertThat(template, is(sql));
+		}
+
+		@Test
+		public void templateShared() {
+			String first = normalizer.normalize("SELECT * FROM TEST WHERE ID = 1");
+			String second = normalizer.normalize("SELECT * FROM TEST WHERE ID = 2");
+
+			assertThat(second, is(sameInstance(first)));
+		}
+
+		@Test
+		public void inListCollapsed() {
+			String first = normalizer.normalize("SELECT * FROM TEST WHERE ID IN (1, 2, 3) AND NAME in('a','b')");
+			String second = normalizer.normalize("SELECT * FROM TEST WHERE ID IN (-4) AND NAME in('c')");
+
+			assertThat(first, is("SELECT * FROM TEST WHERE ID IN (?) AND NAME in(?)"));
+			assertThat(second, is(first));
+		}
+
+		@Test
+		public void inSubqueryNotCollapsed() {
+			String template = normalizer.normalize("SELECT * FROM TEST WHERE ID IN (SELECT ID FROM OTHER WHERE AGE > 18)");
+
+			assertThat(template, is("SELECT * FROM TEST WHERE ID IN (SELECT ID FROM OTHER WHERE AGE > ?)"));
+		}
+
+		@Test
+		public void inListWithColumnNotCollapsed() {
+			String template = normalizer.normalize("SELECT * FROM TEST WHERE 1 IN (ID, 2)");
+
+			assertThat(template, is("SELECT * FROM TEST WHERE ? IN (ID, ?)"));
+		}
+	}
+
+}
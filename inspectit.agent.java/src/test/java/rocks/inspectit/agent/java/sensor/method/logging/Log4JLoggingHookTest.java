@@ -1,11 +1,26 @@
 package rocks.inspectit.agent.java.sensor.method.logging;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
 import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatcher;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -17,6 +32,11 @@ import rocks.inspectit.agent.java.config.impl.RegisteredSensorConfig;
 import rocks.inspectit.agent.java.core.ICoreService;
 import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.agent.java.core.IdNotAvailableException;
+import rocks.inspectit.agent.java.hooking.AgentThreadContext;
+import rocks.inspectit.agent.java.hooking.IHook;
+import rocks.inspectit.agent.java.sensor.method.invocationsequence.InvocationSequenceHook;
+import rocks.inspectit.agent.java.util.Timer;
+import rocks.inspectit.shared.all.communication.data.MethodSensorData;
 import rocks.inspectit.shared.all.communication.data.LoggingData;
 import rocks.inspectit.shared.all.util.ObjectUtils;
 
@@ -32,6 +52,12 @@ public class Log4JLoggingHookTest extends AbstractLogSupport {
 	@Mock
 	RegisteredSensorConfig rsc;
 
+	@Mock
+	Timer timer;
+
+	@Mock
+	ScheduledExecutorService executorService;
+
 	// FATAL - ERROR - WARN - INFO - TRACE - DEBUG
 
 	private static final Level[] possibleLevels = new Level[] { Level.FATAL, Level.ERROR, Level.WARN, Level.INFO, Level.TRACE, Level.DEBUG };
@@ -55,7 +81,7 @@ public class Log4JLoggingHookTest extends AbstractLogSupport {
 
 	@Test(dataProvider = "allCombinationShouldWeCapture")
 	public void checkForCorrectLogging(Level givenMinimumLevel, Level logThisLevel, Boolean shouldCapture) throws IdNotAvailableException {
-		Log4JLoggingHook hook = new Log4JLoggingHook(platformManager, givenMinimumLevel.toString());
+		Log4JLoggingHook hook = new Log4JLoggingHook(platformManager, coreService, timer, givenMinimumLevel.toString(), 0L, 0L, executorService);
 
 		long methodId = 1l;
 		long sensorTypeId = 3l;
@@ -87,6 +113,233 @@ public class Log4JLoggingHookTest extends AbstractLogSupport {
 		}
 	}
 
+	@Test
+	public void messagePattern() throws IdNotAvailableException {
+		Log4JLoggingHook hook = new Log4JLoggingHook(platformManager, coreService, timer, "WARN", 0L, 0L, executorService);
+
+		hook.secondAfterBody(coreService, 1L, 3L, null, new Object[] { "fqcn", Level.ERROR, "Order 1234 failed after 3.5 s", null }, null, rsc);
+
+		ArgumentCaptor<MethodSensorData> captor = ArgumentCaptor.forClass(MethodSensorData.class);
+		verify(coreService).addMethodSensorData(eq(3L), eq(1L), eq((String) null), captor.capture());
+		LoggingData loggingData = (LoggingData) captor.getValue();
+		assertThat(loggingData.getMessage(), is("Order {} failed after {} s"));
+		assertThat(loggingData.getArguments(), contains("1234", "3.5"));
+		assertThat(loggingData.getMessageWithArguments(), is("Order 1234 failed after 3.5 s"));
+		assertThat(loggingData.getCount(), is(1L));
+	}
+
+	@Test
+	public void rateLimitPerLogger() throws IdNotAvailableException {
+		Log4JLoggingHook hook = new Log4JLoggingHook(platformManager, coreService, timer, "WARN", 2L, 0L, executorService);
+		Object logger1 = mock(Object.class);
+		Object logger2 = mock(Object.class);
+
+		for (int i = 0; i < 5; i++) {
+			hook.secondAfterBody(coreService, 1L, 3L, logger1, new Object[] { "fqcn", Level.ERROR, "message " + i, null }, null, rsc);
+		}
+		hook.secondAfterBody(coreService, 1L, 3L, logger2, new Object[] { "fqcn", Level.ERROR, "other message", null }, null, rsc);
+
+		verify(coreService, times(3)).addMethodSensorData(anyLong(), anyLong(), any(String.class), any(MethodSensorData.class));
+	}
+
+	@Test
+	public void aggregationWindow() throws IdNotAvailableException {
+		Log4JLoggingHook hook = new Log4JLoggingHook(platformManager, coreService, timer, "WARN", 0L, 1000L, executorService);
+		when(timer.getCurrentTime()).thenReturn(0d, 100d, 200d, 1500d);
+
+		for (int i = 0; i < 4; i++) {
+			hook.secondAfterBody(coreService, 1L, 3L, null, new Object[] { "fqcn", Level.ERROR, "Order " + i + " failed", null }, null, rsc);
+		}
+
+		ArgumentCaptor<MethodSensorData> captor = ArgumentCaptor.forClass(MethodSensorData.class);
+		verify(coreService, times(2)).addMethodSensorData(eq(3L), eq(1L), eq((String) null), captor.capture());
+		List<MethodSensorData> captured = captor.getAllValues();
+		assertThat(((LoggingData) captured.get(0)).getCount(), is(1L));
+		assertThat(((LoggingData) captured.get(0)).getArguments(), contains("0"));
+		assertThat(((LoggingData) captured.get(1)).getCount(), is(3L));
+		assertThat(((LoggingData) captured.get(1)).getArguments(), contains("3"));
+	}
+
+	@Test
+	public void noAggregationWindowInInvocation() throws IdNotAvailableException {
+		Log4JLoggingHook hook = new Log4JLoggingHook(platformManager, coreService, timer, "WARN", 0L, 1000L, executorService);
+		AgentThreadContext context = AgentThreadContext.get();
+		context.setInvocationSequenceHook(mock(IHook.class));
+
+		try {
+			for (int i = 0; i < 3; i++) {
+				hook.secondAfterBody(context, coreService, 1L, 3L, null, new Object[] { "fqcn", Level.ERROR, "Order " + i + " failed", null }, null, rsc);
+			}
+		} finally {
+			context.setInvocationSequenceHook(null);
+		}
+
+		ArgumentCaptor<MethodSensorData> captor = ArgumentCaptor.forClass(MethodSensorData.class);
+		verify(coreService, times(3)).addMethodSensorData(eq(3L), eq(1L), eq((String) null), captor.capture());
+		assertThat(((LoggingData) captor.getValue()).getCount(), is(1L));
+	}
+
+	@Test
+	public void noArgumentsKeptAsNull() throws IdNotAvailableException {
+		Log4JLoggingHook hook = new Log4JLoggingHook(platformManager, coreService, timer, "WARN", 0L, 0L, executorService);
+
+		hook.secondAfterBody(coreService, 1L, 3L, null, new Object[] { "fqcn", Level.ERROR, "Connection refused", null }, null, rsc);
+
+		ArgumentCaptor<MethodSensorData> captor = ArgumentCaptor.forClass(MethodSensorData.class);
+		verify(coreService).addMethodSensorData(eq(3L), eq(1L), eq((String) null), captor.capture());
+		assertThat(((LoggingData) captor.getValue()).getArguments(), is(nullValue()));
+	}
+
+	@Test
+	public void rateLimitedCounted() throws IdNotAvailableException {
+		Log4JLoggingHook hook = new Log4JLoggingHook(platformManager, coreService, timer, "WARN", 1L, 0L, executorService);
+		Logger logger = Logger.getLogger("rocks.inspectit.test");
+
+		for (int i = 0; i < 3; i++) {
+			hook.secondAfterBody(coreService, 1L, 3L, logger, new Object[] { "fqcn", Level.ERROR, "Order " + i + " failed", null }, null, rsc);
+		}
+		hook.secondAfterBody(coreService, 1L, 3L, logger, new Object[] { "fqcn", Level.FATAL, "Order 3 failed", null }, null, rsc);
+		hook.flush();
+
+		ArgumentCaptor<MethodSensorData> captor = ArgumentCaptor.forClass(MethodSensorData.class);
+		verify(coreService, times(3)).addMethodSensorData(eq(3L), eq(1L), eq((String) null), captor.capture());
+		List<MethodSensorData> captured = captor.getAllValues();
+		assertThat(((LoggingData) captured.get(0)).getCount(), is(1L));
+		assertThat(((LoggingData) captured.get(0)).getArguments(), contains("0"));
+		for (MethodSensorData data : captured.subList(1, 3)) {
+			LoggingData loggingData = (LoggingData) data;
+			assertThat(loggingData.getMessage(), is(Log4JLoggingHook.RATE_LIMITED_PATTERN));
+			assertThat(loggingData.getArguments(), contains("rocks.inspectit.test"));
+			if (Level.ERROR.toString().equals(loggingData.getLevel())) {
+				assertThat(loggingData.getCount(), is(2L));
+			} else {
+				assertThat(loggingData.getLevel(), is(Level.FATAL.toString()));
+				assertThat(loggingData.getCount(), is(1L));
+			}
+		}
+	}
+
+	@Test
+	public void rateLimitedNotNormalized() throws IdNotAvailableException {
+		Log4JLoggingHook hook = new Log4JLoggingHook(platformManager, coreService, timer, "WARN", 1L, 0L, executorService);
+		final int[] toStringCalls = new int[1];
+		Object message = new Object() {
+			@Override
+			public String toString() {
+				toStringCalls[0]++;
+				return "Order 1 failed";
+			}
+		};
+
+		for (int i = 0; i < 3; i++) {
+			hook.secondAfterBody(coreService, 1L, 3L, null, new Object[] { "fqcn", Level.ERROR, message, null }, null, rsc);
+		}
+
+		assertThat(toStringCalls[0], is(1));
+		verify(coreService, times(1)).addMethodSensorData(eq(3L), eq(1L), eq((String) null), any(MethodSensorData.class));
+	}
+
+	@Test
+	public void rateLimitedReportedWithNextCaptured() throws IdNotAvailableException {
+		Log4JLoggingHook hook = new Log4JLoggingHook(platformManager, coreService, timer, "WARN", 1L, 0L, null);
+		when(timer.getCurrentTime()).thenReturn(0d, 0d, 0d, 1500d);
+
+		for (int i = 0; i < 3; i++) {
+			hook.secondAfterBody(coreService, 1L, 3L, null, new Object[] { "fqcn", Level.ERROR, "Order " + i + " failed", null }, null, rsc);
+		}
+
+		ArgumentCaptor<MethodSensorData> captor = ArgumentCaptor.forClass(MethodSensorData.class);
+		verify(coreService, times(3)).addMethodSensorData(eq(3L), eq(1L), eq((String) null), captor.capture());
+		List<MethodSensorData> captured = captor.getAllValues();
+		assertThat(((LoggingData) captured.get(1)).getMessage(), is(Log4JLoggingHook.RATE_LIMITED_PATTERN));
+		assertThat(((LoggingData) captured.get(1)).getArguments(), contains(Log4JLoggingHook.UNKNOWN_LOGGER_NAME));
+		assertThat(((LoggingData) captured.get(1)).getCount(), is(1L));
+		assertThat(((LoggingData) captured.get(2)).getArguments(), contains("2"));
+	}
+
+	@Test
+	public void rateLimitedCountedInInvocation() throws IdNotAvailableException {
+		Log4JLoggingHook hook = new Log4JLoggingHook(platformManager, coreService, timer, "WARN", 1L, 1000L, executorService);
+		InvocationSequenceHook invocationSequenceHook = mock(InvocationSequenceHook.class);
+		AgentThreadContext context = AgentThreadContext.get();
+		context.setInvocationSequenceHook(invocationSequenceHook);
+
+		try {
+			for (int i = 0; i < 2; i++) {
+				hook.secondAfterBody(context, invocationSequenceHook, 1L, 3L, null, new Object[] { "fqcn", Level.ERROR, "Order " + i + " failed", null }, null, rsc);
+			}
+		} finally {
+			context.setInvocationSequenceHook(null);
+		}
+		hook.flush();
+
+		ArgumentCaptor<MethodSensorData> invocationCaptor = ArgumentCaptor.forClass(MethodSensorData.class);
+		verify(invocationSequenceHook).addMethodSensorData(eq(3L), eq(1L), eq((String) null), invocationCaptor.capture());
+		assertThat(((LoggingData) invocationCaptor.getValue()).getArguments(), contains("0"));
+		// counts reported outside of the invocation go to the agent core service
+		ArgumentCaptor<MethodSensorData> captor = ArgumentCaptor.forClass(MethodSensorData.class);
+		verify(coreService).addMethodSensorData(eq(3L), eq(1L), eq((String) null), captor.capture());
+		assertThat(((LoggingData) captor.getValue()).getMessage(), is(Log4JLoggingHook.RATE_LIMITED_PATTERN));
+		assertThat(((LoggingData) captor.getValue()).getCount(), is(1L));
+	}
+
+	@Test
+	public void aggregationWindowFlushed() throws IdNotAvailableException {
+		Log4JLoggingHook hook = new Log4JLoggingHook(platformManager, coreService, timer, "WARN", 0L, 1000L, executorService);
+		when(timer.getCurrentTime()).thenReturn(0d, 100d, 200d, 500d, 1500d);
+
+		for (int i = 0; i < 3; i++) {
+			hook.secondAfterBody(coreService, 1L, 3L, null, new Object[] { "fqcn", Level.ERROR, "Order " + i + " failed", null }, null, rsc);
+		}
+		// window not over
+		hook.flush();
+		verify(coreService, times(1)).addMethodSensorData(anyLong(), anyLong(), any(String.class), any(MethodSensorData.class));
+		hook.flush();
+
+		ArgumentCaptor<MethodSensorData> captor = ArgumentCaptor.forClass(MethodSensorData.class);
+		verify(coreService, times(2)).addMethodSensorData(eq(3L), eq(1L), eq((String) null), captor.capture());
+		assertThat(((LoggingData) captor.getValue()).getMessage(), is("Order {} failed"));
+		assertThat(((LoggingData) captor.getValue()).getCount(), is(2L));
+		assertThat(((LoggingData) captor.getValue()).getArguments(), is(nullValue()));
+	}
+
+	@Test
+	public void evictedWindowFlushed() throws IdNotAvailableException {
+		Log4JLoggingHook hook = new Log4JLoggingHook(platformManager, coreService, timer, "WARN", 0L, 1000L, executorService);
+
+		hook.secondAfterBody(coreService, 1L, 3L, null, new Object[] { "fqcn", Level.ERROR, "Order 1 failed", null }, null, rsc);
+		hook.secondAfterBody(coreService, 1L, 3L, null, new Object[] { "fqcn", Level.ERROR, "Order 2 failed", null }, null, rsc);
+		for (int i = 0; i < (2 * Log4JLoggingHook.MAX_WINDOWS); i++) {
+			hook.secondAfterBody(coreService, 1L, 3L, null, new Object[] { "fqcn", Level.ERROR, "message m" + i, null }, null, rsc);
+		}
+
+		ArgumentCaptor<MethodSensorData> captor = ArgumentCaptor.forClass(MethodSensorData.class);
+		verify(coreService, times(2 + (2 * Log4JLoggingHook.MAX_WINDOWS))).addMethodSensorData(eq(3L), eq(1L), eq((String) null), captor.capture());
+		int flushed = 0;
+		for (MethodSensorData data : captor.getAllValues()) {
+			LoggingData loggingData = (LoggingData) data;
+			if ("Order {} failed".equals(loggingData.getMessage()) && (null == loggingData.getArguments())) {
+				assertThat(loggingData.getCount(), is(1L));
+				flushed++;
+			}
+		}
+		assertThat(flushed, is(1));
+	}
+
+	@Test
+	public void flushScheduled() {
+		new Log4JLoggingHook(platformManager, coreService, timer, "WARN", 10L, 0L, executorService);
+
+		verify(executorService).scheduleAtFixedRate(any(Runnable.class), eq(Log4JLoggingHook.FLUSH_PERIOD), eq(Log4JLoggingHook.FLUSH_PERIOD), eq(TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void flushScheduledWithAggregationWindow() {
+		new Log4JLoggingHook(platformManager, coreService, timer, "WARN", 10L, 2000L, executorService);
+
+		verify(executorService).scheduleAtFixedRate(any(Runnable.class), eq(2000L), eq(2000L), eq(TimeUnit.MILLISECONDS));
+	}
+
 	/**
 	 * Inner class used to verify the contents of LoggingData objects.
 	 */
@@ -0,0 +1,87 @@
+package rocks.inspectit.agent.java.sensor.method.logging;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.agent.java.sensor.method.logging.LogMessageNormalizer.NormalizedMessage;
+
+/**
+ * Test for the {@link LogMessageNormalizer}.
+ *
+ * @author Ivan Senic
+ *
+ */
+@SuppressWarnings("PMD")
+public class LogMessageNormalizerTest {
+
+	LogMessageNormalizer normalizer;
+
+	@BeforeMethod
+	public void init() {
+		normalizer = new LogMessageNormalizer();
+	}
+
+	public static class Normalize extends LogMessageNormalizerTest {
+
+		@Test
+		public void noArguments() {
+			String message = "Connection refused.";
+
+			NormalizedMessage normalizedMessage = normalizer.normalize(message);
+
+			assertThat(normalizedMessage.getPattern(), is(message));
+			assertThat(normalizedMessage.getArguments(), is(empty()));
+		}
+
+		@Test
+		public void numbersAndQuotedStrings() {
+			NormalizedMessage normalizedMessage = normalizer.normalize("User 'john doe' failed to login 3 times from 10.0.0.1.");
+
+			assertThat(normalizedMessage.getPattern(), is("User {} failed to login {} times from {}."));
+			assertThat(normalizedMessage.getArguments(), contains("'john doe'", "3", "10.0.0.1"));
+		}
+
+		@Test
+		public void idsAsOneArgument() {
+			NormalizedMessage normalizedMessage = normalizer.normalize("Request 550e8400-e29b-41d4-a716-446655440000 timed out after 30s at 12:30:01");
+
+			assertThat(normalizedMessage.getPattern(), is("Request {} timed out after {} at {}"));
+			assertThat(normalizedMessage.getArguments(), contains("550e8400-e29b-41d4-a716-446655440000", "30s", "12:30:01"));
+		}
+
+		@Test
+		public void wordsNotChanged() {
+			String message = "Can't reach node2 of cluster_1, it's down";
+
+			NormalizedMessage normalizedMessage = normalizer.normalize(message);
+
+			assertThat(normalizedMessage.getPattern(), is(message));
+			assertThat(normalizedMessage.getArguments(), is(empty()));
+		}
+
+		@Test
+		public void samePatternForDifferentArguments() {
+			NormalizedMessage first = normalizer.normalize("Order 1 failed");
+			NormalizedMessage second = normalizer.normalize("Order 2 failed");
+
+			assertThat(first.getPattern(), is(second.getPattern()));
+			assertThat(second.getArguments(), contains("2"));
+		}
+
+		@Test
+		public void alreadyContainsPlaceholder() {
+			String message = "Invalid json {} for order 5";
+
+			NormalizedMessage normalizedMessage = normalizer.normalize(message);
+
+			assertThat(normalizedMessage.getPattern(), is(message));
+			assertThat(normalizedMessage.getArguments(), is(empty()));
+		}
+	}
+
+}
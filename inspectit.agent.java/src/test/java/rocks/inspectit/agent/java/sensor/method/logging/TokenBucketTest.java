@@ -0,0 +1,50 @@
+package rocks.inspectit.agent.java.sensor.method.logging;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import org.testng.annotations.Test;
+
+/**
+ * Test for the {@link TokenBucket}.
+ *
+ * @author Ivan Senic
+ *
+ */
+@SuppressWarnings("PMD")
+public class TokenBucketTest {
+
+	public static class TryAcquire extends TokenBucketTest {
+
+		@Test
+		public void burstUpToRate() {
+			TokenBucket tokenBucket = new TokenBucket(3L, 0d);
+
+			assertThat(tokenBucket.tryAcquire(0d), is(true));
+			assertThat(tokenBucket.tryAcquire(0d), is(true));
+			assertThat(tokenBucket.tryAcquire(0d), is(true));
+			assertThat(tokenBucket.tryAcquire(0d), is(false));
+		}
+
+		@Test
+		public void refilled() {
+			TokenBucket tokenBucket = new TokenBucket(2L, 0d);
+			tokenBucket.tryAcquire(0d);
+			tokenBucket.tryAcquire(0d);
+
+			assertThat(tokenBucket.tryAcquire(400d), is(false));
+			assertThat(tokenBucket.tryAcquire(500d), is(true));
+			assertThat(tokenBucket.tryAcquire(500d), is(false));
+		}
+
+		@Test
+		public void notRefilledOverCapacity() {
+			TokenBucket tokenBucket = new TokenBucket(2L, 0d);
+
+			assertThat(tokenBucket.tryAcquire(10000d), is(true));
+			assertThat(tokenBucket.tryAcquire(10000d), is(true));
+			assertThat(tokenBucket.tryAcquire(10000d), is(false));
+		}
+	}
+
+}
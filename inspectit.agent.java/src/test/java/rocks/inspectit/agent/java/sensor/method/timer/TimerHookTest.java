@@ -38,6 +38,8 @@ import rocks.inspectit.agent.java.core.ICoreService;
 import rocks.inspectit.agent.java.core.IObjectStorage;
 import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.agent.java.core.IdNotAvailableException;
+import rocks.inspectit.agent.java.sensor.method.cpu.BoundaryThreadCpuTimeProvider;
+import rocks.inspectit.agent.java.sensor.method.cpu.JmxThreadCpuTimeProvider;
 import rocks.inspectit.agent.java.util.Timer;
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.communication.data.TimerData;
@@ -73,7 +75,7 @@ public class TimerHookTest extends AbstractLogSupport {
 		settings.put("mode", "raw");
 		when(threadMXBean.isThreadCpuTimeEnabled()).thenReturn(true);
 		when(threadMXBean.isThreadCpuTimeSupported()).thenReturn(true);
-		timerHook = new TimerHook(timer, platformManager, propertyAccessor, settings, threadMXBean);
+		timerHook = new TimerHook(timer, platformManager, propertyAccessor, settings, new JmxThreadCpuTimeProvider(threadMXBean));
 	}
 
 	@Test
@@ -249,7 +251,7 @@ public class TimerHookTest extends AbstractLogSupport {
 	public void aggregateStorage() throws IdNotAvailableException {
 		Map<String, Object> settings = new HashMap<String, Object>();
 		settings.put("mode", "aggregate");
-		timerHook = new TimerHook(timer, platformManager, propertyAccessor, settings, ManagementFactory.getThreadMXBean());
+		timerHook = new TimerHook(timer, platformManager, propertyAccessor, settings, new JmxThreadCpuTimeProvider(ManagementFactory.getThreadMXBean()));
 
 		// set up data
 		long platformId = 1L;
@@ -331,7 +333,7 @@ public class TimerHookTest extends AbstractLogSupport {
 	public void optimizedStorage() throws IdNotAvailableException {
 		Map<String, Object> settings = new HashMap<String, Object>();
 		settings.put("mode", "optimized");
-		timerHook = new TimerHook(timer, platformManager, propertyAccessor, settings, ManagementFactory.getThreadMXBean());
+		timerHook = new TimerHook(timer, platformManager, propertyAccessor, settings, new JmxThreadCpuTimeProvider(ManagementFactory.getThreadMXBean()));
 
 		// set up data
 		long platformId = 1L;
@@ -493,4 +495,47 @@ public class TimerHookTest extends AbstractLogSupport {
 		verify(coreService).addObjectStorage(eq(sensorTypeId), eq(methodIdOne), (String) eq(null), argThat(new PlainTimerStorageVerifier(plainTimerStorageOne)));
 	}
 
+	@Test
+	public void twoRecordsWithBoundaryCpuTime() throws IdNotAvailableException {
+		Map<String, Object> settings = new HashMap<String, Object>();
+		settings.put("mode", "raw");
+		timerHook = new TimerHook(timer, platformManager, propertyAccessor, settings, new BoundaryThreadCpuTimeProvider(threadMXBean));
+
+		long platformId = 1L;
+		long methodIdOne = 3L;
+		long methodIdTwo = 9L;
+		long sensorTypeId = 11L;
+		Object object = mock(Object.class);
+		Object[] parameters = new Object[0];
+		Object result = mock(Object.class);
+
+		Double firstTimerValue = 1000.453d;
+		Double secondTimerValue = 1323.675d;
+		Double thirdTimerValue = 1578.92d;
+		Double fourthTimerValue = 2319.712d;
+
+		Long firstCpuTimerValue = 5000L;
+		Long secondCpuTimerValue = 15932L;
+
+		when(timer.getCurrentTime()).thenReturn(firstTimerValue).thenReturn(secondTimerValue).thenReturn(thirdTimerValue).thenReturn(fourthTimerValue);
+		when(threadMXBean.getCurrentThreadCpuTime()).thenReturn(firstCpuTimerValue).thenReturn(secondCpuTimerValue);
+		when(platformManager.getPlatformId()).thenReturn(platformId);
+
+		timerHook.beforeBody(methodIdOne, sensorTypeId, object, parameters, registeredSensorConfig);
+		timerHook.beforeBody(methodIdTwo, sensorTypeId, object, parameters, registeredSensorConfig);
+
+		timerHook.firstAfterBody(methodIdTwo, sensorTypeId, object, parameters, result, registeredSensorConfig);
+		timerHook.secondAfterBody(coreService, methodIdTwo, sensorTypeId, object, parameters, result, registeredSensorConfig);
+		PlainTimerStorage plainTimerStorageTwo = new PlainTimerStorage(null, platformId, sensorTypeId, methodIdTwo, null, true);
+		plainTimerStorageTwo.addData(thirdTimerValue - secondTimerValue, -1.0d);
+		verify(coreService).addObjectStorage(eq(sensorTypeId), eq(methodIdTwo), (String) eq(null), argThat(new PlainTimerStorageVerifier(plainTimerStorageTwo)));
+
+		timerHook.firstAfterBody(methodIdOne, sensorTypeId, object, parameters, result, registeredSensorConfig);
+		timerHook.secondAfterBody(coreService, methodIdOne, sensorTypeId, object, parameters, result, registeredSensorConfig);
+		PlainTimerStorage plainTimerStorageOne = new PlainTimerStorage(null, platformId, sensorTypeId, methodIdOne, null, true);
+		plainTimerStorageOne.addData(fourthTimerValue - firstTimerValue, (secondCpuTimerValue - firstCpuTimerValue) / 1000000.0d);
+		verify(coreService).addObjectStorage(eq(sensorTypeId), eq(methodIdOne), (String) eq(null), argThat(new PlainTimerStorageVerifier(plainTimerStorageOne)));
+		verify(threadMXBean, times(2)).getCurrentThreadCpuTime();
+	}
+
 }
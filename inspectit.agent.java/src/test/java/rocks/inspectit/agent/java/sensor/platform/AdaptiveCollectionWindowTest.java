@@ -0,0 +1,79 @@
+package rocks.inspectit.agent.java.sensor.platform;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.shared.all.testbase.TestBase;
+
+/**
+ * Test for the {@link AdaptiveCollectionWindow}.
+ *
+ * @author Ivan Senic
+ *
+ */
+@SuppressWarnings("PMD")
+public class AdaptiveCollectionWindowTest extends TestBase {
+
+	AdaptiveCollectionWindow window;
+
+	@BeforeMethod
+	public void init() {
+		window = new AdaptiveCollectionWindow();
+	}
+
+	/**
+	 * Gathers until the window is complete.
+	 *
+	 * @return Amount of iterations gathered.
+	 */
+	int gatherWindow(boolean valuesChanged) {
+		int iterations = 0;
+		boolean complete = false;
+		while (!complete) {
+			complete = window.gathered(valuesChanged);
+			iterations++;
+		}
+		return iterations;
+	}
+
+	public static class Gathered extends AdaptiveCollectionWindowTest {
+
+		@Test
+		public void changing() {
+			assertThat(window.isStart(), is(true));
+			assertThat(gatherWindow(true), is(AdaptiveCollectionWindow.MIN_ITERATIONS));
+			assertThat(gatherWindow(true), is(AdaptiveCollectionWindow.MIN_ITERATIONS));
+			assertThat(window.isStart(), is(true));
+		}
+
+		@Test
+		public void idleDoublesUpToMax() {
+			assertThat(gatherWindow(false), is(AdaptiveCollectionWindow.MIN_ITERATIONS));
+			assertThat(gatherWindow(false), is(AdaptiveCollectionWindow.MIN_ITERATIONS * 2));
+			assertThat(gatherWindow(false), is(AdaptiveCollectionWindow.MIN_ITERATIONS * 4));
+			for (int i = 0; i < 5; i++) {
+				gatherWindow(false);
+			}
+			assertThat(window.getWindowSize(), is(AdaptiveCollectionWindow.MAX_ITERATIONS));
+			assertThat(gatherWindow(false), is(AdaptiveCollectionWindow.MAX_ITERATIONS));
+		}
+
+		@Test
+		public void changeClosesLongWindow() {
+			gatherWindow(false);
+			gatherWindow(false);
+			gatherWindow(false);
+			assertThat(window.getWindowSize(), is(AdaptiveCollectionWindow.MIN_ITERATIONS * 8));
+
+			assertThat(window.gathered(false), is(false));
+			assertThat(window.gathered(true), is(false));
+			assertThat(window.isStart(), is(false));
+			assertThat(gatherWindow(false), is(AdaptiveCollectionWindow.MIN_ITERATIONS - 2));
+			assertThat(window.getWindowSize(), is(AdaptiveCollectionWindow.MIN_ITERATIONS));
+		}
+	}
+
+}
@@ -62,6 +62,18 @@ public class CompilationInformationTest extends TestBase {
 
 			assertThat(collector.getCount(), is(2));
 		}
+
+		@Test
+		void slowDriftDetected() {
+			when(this.runtimeBean.getTotalCompilationTime()).thenReturn(1000L).thenReturn(1030L).thenReturn(1060L);
+
+			this.cut.gather();
+			assertThat(this.cut.hasChanged(), is(true));
+			this.cut.gather();
+			assertThat(this.cut.hasChanged(), is(false));
+			this.cut.gather();
+			assertThat(this.cut.hasChanged(), is(true));
+		}
 	}
 
 	/**
@@ -185,6 +185,23 @@ public class MemoryInformationTest extends TestBase {
 
 			assertThat(collector.getCount(), is(2));
 		}
+
+		@Test
+		void smallChangesIgnored() {
+			this.mockCollectorWithDefaults();
+
+			MemoryUsage heapMemoryUsage = this.memoryBean.getHeapMemoryUsage();
+			when(heapMemoryUsage.getUsed()).thenReturn(1000L).thenReturn(1050L).thenReturn(950L).thenReturn(1101L);
+
+			this.cut.gather();
+			assertThat(this.cut.hasChanged(), is(true));
+			this.cut.gather();
+			assertThat(this.cut.hasChanged(), is(false));
+			this.cut.gather();
+			assertThat(this.cut.hasChanged(), is(false));
+			this.cut.gather();
+			assertThat(this.cut.hasChanged(), is(true));
+		}
 	}
 
 	/**
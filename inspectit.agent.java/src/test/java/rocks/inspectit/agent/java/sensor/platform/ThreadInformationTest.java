@@ -110,6 +110,18 @@ public class ThreadInformationTest extends TestBase {
 
 			assertThat(collector.getCount(), is(2));
 		}
+
+		@Test
+		void changeDetected() {
+			when(this.threadBean.getThreadCount()).thenReturn(10).thenReturn(10).thenReturn(11);
+
+			this.cut.gather();
+			assertThat(this.cut.hasChanged(), is(true));
+			this.cut.gather();
+			assertThat(this.cut.hasChanged(), is(false));
+			this.cut.gather();
+			assertThat(this.cut.hasChanged(), is(true));
+		}
 	}
 
 	/**
@@ -0,0 +1,65 @@
+package rocks.inspectit.agent.java.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.NoSuchElementException;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("PMD")
+public class DoubleStackTest {
+
+	private DoubleStack stack;
+
+	@BeforeMethod
+	public void init() {
+		stack = new DoubleStack();
+	}
+
+	@Test
+	public void emptyStack() {
+		assertThat(stack.isEmpty(), is(true));
+		assertThat(stack.size(), is(0));
+	}
+
+	@Test
+	public void pushPop() {
+		stack.push(1.0d);
+		stack.push(2.0d);
+
+		assertThat(stack.size(), is(2));
+		assertThat(stack.pop(), is(2.0d));
+		assertThat(stack.pop(), is(1.0d));
+		assertThat(stack.isEmpty(), is(true));
+	}
+
+	@Test
+	public void grow() {
+		for (int i = 0; i < 100; i++) {
+			stack.push(i);
+		}
+
+		assertThat(stack.size(), is(100));
+		for (int i = 99; i >= 0; i--) {
+			assertThat(stack.pop(), is((double) i));
+		}
+	}
+
+	@Test
+	public void pushAfterEmptied() {
+		stack.push(1.0d);
+		stack.pop();
+		stack.push(2.0d);
+
+		assertThat(stack.size(), is(1));
+		assertThat(stack.pop(), is(2.0d));
+	}
+
+	@Test(expectedExceptions = { NoSuchElementException.class })
+	public void noSuchElement() {
+		stack.pop();
+	}
+
+}
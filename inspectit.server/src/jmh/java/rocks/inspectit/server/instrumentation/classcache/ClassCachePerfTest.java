@@ -0,0 +1,198 @@
+package rocks.inspectit.server.instrumentation.classcache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import rocks.inspectit.server.instrumentation.classcache.index.FqnIndexer;
+import rocks.inspectit.server.instrumentation.classcache.index.HashIndexer;
+import rocks.inspectit.server.instrumentation.config.applier.IInstrumentationApplier;
+import rocks.inspectit.shared.all.instrumentation.classcache.ClassType;
+import rocks.inspectit.shared.all.instrumentation.classcache.MethodType;
+import rocks.inspectit.shared.all.instrumentation.classcache.Type;
+import rocks.inspectit.shared.all.instrumentation.config.impl.AgentConfig;
+import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
+import rocks.inspectit.shared.all.instrumentation.config.impl.MethodInstrumentationConfig;
+import rocks.inspectit.shared.cs.ci.assignment.AbstractClassSensorAssignment;
+
+/**
+ * Performance test for the concurrent access to the {@link ClassCache}.
+ * <p>
+ * Simulates the analyze calls of the agent (merge of a new type and adding the instrumentation
+ * points to it) running in parallel with the profile update that adds the instrumentation points
+ * to all types in the class cache. Class cache is filled with {@link #types} types before each
+ * iteration.
+ *
+ * @author Ivan Senic
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+@SuppressWarnings("PMD")
+public class ClassCachePerfTest {
+
+	/**
+	 * Number of types in the class cache before the iteration.
+	 */
+	@Param({ "5000", "20000" })
+	private int types;
+
+	/**
+	 * Number of methods in each type.
+	 */
+	private static final int METHODS = 10;
+
+	private final AtomicLong typeCounter = new AtomicLong();
+
+	private final AgentConfig agentConfiguration = new AgentConfig();
+
+	private final Collection<IInstrumentationApplier> appliers = Collections.<IInstrumentationApplier> singleton(new GetterApplier());
+
+	private ExecutorService executorService;
+
+	private ClassCache classCache;
+
+	@Setup(Level.Trial)
+	public void initExecutor() {
+		executorService = Executors.newFixedThreadPool(4);
+	}
+
+	@TearDown(Level.Trial)
+	public void shutdownExecutor() {
+		executorService.shutdownNow();
+	}
+
+	@Setup(Level.Iteration)
+	public void init() throws Exception {
+		ClassCacheModification modification = new ClassCacheModification();
+		modification.log = LoggerFactory.getLogger(ClassCacheModification.class);
+
+		ClassCacheLookup lookup = new ClassCacheLookup();
+		lookup.log = LoggerFactory.getLogger(ClassCacheLookup.class);
+		ReflectionTestUtils.setField(lookup, "fqnIndexer", new FqnIndexer<Type>());
+		ReflectionTestUtils.setField(lookup, "hashIndexer", new HashIndexer());
+
+		ClassCacheInstrumentation instrumentation = new ClassCacheInstrumentation();
+		instrumentation.log = LoggerFactory.getLogger(ClassCacheInstrumentation.class);
+		ReflectionTestUtils.setField(instrumentation, "executorService", executorService);
+
+		classCache = new ClassCache();
+		ReflectionTestUtils.setField(classCache, "modificationService", modification);
+		ReflectionTestUtils.setField(classCache, "lookupService", lookup);
+		ReflectionTestUtils.setField(classCache, "instrumentationService", instrumentation);
+		classCache.init();
+
+		for (int i = 0; i < types; i++) {
+			modification.merge(createType());
+		}
+	}
+
+	/**
+	 * Analyze call of an agent loading a new class.
+	 */
+	@Benchmark
+	@Group("concurrent")
+	@GroupThreads(3)
+	public InstrumentationDefinition analyze() throws Exception {
+		ClassType type = createType();
+		classCache.getModificationService().merge(type);
+		return classCache.getInstrumentationService().addAndGetInstrumentationResult(type, agentConfiguration, appliers);
+	}
+
+	/**
+	 * Profile update processing the complete class cache.
+	 */
+	@Benchmark
+	@Group("concurrent")
+	@GroupThreads(1)
+	public Object profileUpdate() {
+		return classCache.getInstrumentationService().addInstrumentationPoints(agentConfiguration, appliers);
+	}
+
+	/**
+	 * Analyze call without any concurrent profile update as baseline.
+	 */
+	@Benchmark
+	@Group("analyzeOnly")
+	@GroupThreads(3)
+	public InstrumentationDefinition analyzeOnly() throws Exception {
+		return analyze();
+	}
+
+	private ClassType createType() {
+		long id = typeCounter.incrementAndGet();
+		ClassType type = new ClassType("rocks.inspectit.perf.Class" + id, "hash" + id, 1);
+		for (int i = 0; i < METHODS; i++) {
+			MethodType methodType = new MethodType();
+			methodType.setName(((i % 2) == 0 ? "get" : "set") + "Property" + i);
+			methodType.setReturnType("java.lang.String");
+			methodType.setParameters(new ArrayList<>(Collections.singletonList("int")));
+			type.addMethod(methodType);
+		}
+		return type;
+	}
+
+	/**
+	 * Applier that instruments all getters without registering any ids.
+	 */
+	private static class GetterApplier implements IInstrumentationApplier {
+
+		@Override
+		public AbstractClassSensorAssignment<?> getSensorAssignment() {
+			return null;
+		}
+
+		@Override
+		public boolean addInstrumentationPoints(AgentConfig agentConfiguration, ClassType classType) {
+			boolean added = false;
+			for (MethodType methodType : classType.getMethods()) {
+				if (methodType.getName().startsWith("get")) {
+					if (null == methodType.getMethodInstrumentationConfig()) {
+						methodType.setMethodInstrumentationConfig(new MethodInstrumentationConfig(methodType));
+					}
+					added = true;
+				}
+			}
+			return added;
+		}
+
+		@Override
+		public boolean removeInstrumentationPoints(ClassType classType) {
+			boolean removed = false;
+			for (MethodType methodType : classType.getMethods()) {
+				if (null != methodType.getMethodInstrumentationConfig()) {
+					methodType.setMethodInstrumentationConfig(null);
+					removed = true;
+				}
+			}
+			return removed;
+		}
+	}
+
+}
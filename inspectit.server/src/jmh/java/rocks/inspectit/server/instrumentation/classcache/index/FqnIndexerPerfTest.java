@@ -19,6 +19,7 @@ import org.openjdk.jmh.annotations.Fork;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -26,14 +27,18 @@ import org.openjdk.jmh.annotations.Warmup;
 
 import rocks.inspectit.shared.all.instrumentation.classcache.ClassType;
 import rocks.inspectit.shared.all.instrumentation.classcache.Type;
+import rocks.inspectit.shared.all.pattern.IMatchPattern;
+import rocks.inspectit.shared.all.pattern.WildcardMatchPattern;
 
 /**
  * Performance test for the {@link FqnIndexer} class.
  * <p>
- * In this test we test two methods {@link FqnIndexer#lookup(String)} and
- * {@link FqnIndexer#findStartsWith(String)}. As the setup for this method we are putting around 5K
- * real class names into the indexer. These classes can be found in the <i>classes</i> file in the
- * same package as this class.
+ * In this test we test methods {@link FqnIndexer#lookup(String)},
+ * {@link FqnIndexer#findStartsWith(String)} and {@link FqnIndexer#findByPattern(IMatchPattern)}
+ * with the suffix and infix patterns. As the setup for this method we are putting around 5K real
+ * class names into the indexer. These classes can be found in the <i>classes</i> file in the same
+ * package as this class. Each class name is indexed {@link #copies} times with a different package
+ * prefix, thus with 20 copies the indexer holds around 100K types.
  *
  * @author Ivan Senic
  *
@@ -51,18 +56,40 @@ public class FqnIndexerPerfTest {
 
 	private List<String> classes;
 
+	private List<String> simpleNames;
+
+	private List<String> packageSegments;
+
+	/**
+	 * How many times each class name is indexed with a different package prefix.
+	 */
+	@Param({ "1", "20" })
+	private int copies;
+
 	@Setup
 	public void init() throws IOException {
 		indexer = new FqnIndexer<>();
 		classes = new ArrayList<>(10000);
+		simpleNames = new ArrayList<>(10000);
+		packageSegments = new ArrayList<>(10000);
 
 		Path p = Paths.get("src", "jmh", "resources", "rocks", "inspectit", "server", "instrumentation", "classcache", "index", "classNamesFqnIndexerPerfTest");
 		try (BufferedReader br = new BufferedReader(new InputStreamReader(Files.newInputStream(p, StandardOpenOption.READ)))) {
 			String line;
 			while ((line = br.readLine()) != null) {
 				String className = line.trim();
-				classes.add(className);
-				indexer.index(new ClassType(className));
+				for (int i = 0; i < copies; i++) {
+					String copyName = (0 == i) ? className : "copy" + i + "." + className;
+					classes.add(copyName);
+					indexer.index(new ClassType(copyName));
+				}
+
+				int lastDot = className.lastIndexOf('.');
+				if (lastDot > 0) {
+					simpleNames.add(className.substring(lastDot + 1));
+					String packageName = className.substring(0, lastDot);
+					packageSegments.add(packageName.substring(packageName.lastIndexOf('.') + 1));
+				}
 			}
 		}
 	}
@@ -97,6 +124,59 @@ public class FqnIndexerPerfTest {
 		}
 	}
 
+	/**
+	 * Find by suffix pattern, like <i>*Service</i>.
+	 */
+	@Benchmark
+	public void findSuffixPattern() {
+		findByPattern("*" + getRandom(simpleNames));
+	}
+
+	/**
+	 * Find by infix package pattern, like <i>*.dao.*</i>.
+	 */
+	@Benchmark
+	public void findInfixSegmentPattern() {
+		findByPattern("*." + getRandom(packageSegments) + ".*");
+	}
+
+	/**
+	 * Find by infix pattern that does not denote the complete segment, like <i>*Controller*</i>.
+	 */
+	@Benchmark
+	public void findInfixPattern() {
+		findByPattern("*" + getRandom(simpleNames) + "*");
+	}
+
+	/**
+	 * Baseline for the pattern finds that checks every type with the pattern as it was done before
+	 * the suffix and segment indexes.
+	 */
+	@Benchmark
+	public int findInfixPatternFullScan() {
+		IMatchPattern pattern = new WildcardMatchPattern("*." + getRandom(packageSegments) + ".*");
+		int count = 0;
+		for (Type type : indexer) {
+			if (pattern.match(type.getFQN())) {
+				count++;
+			}
+		}
+		if (0 == count) {
+			throw new RuntimeException("Performance test not valid, classes not found by pattern in indexer.");
+		}
+		return count;
+	}
+
+	private void findByPattern(String template) {
+		if (CollectionUtils.isEmpty(indexer.findByPattern(new WildcardMatchPattern(template)))) {
+			throw new RuntimeException("Performance test not valid, classes not found by pattern " + template + " in indexer.");
+		}
+	}
+
+	private String getRandom(List<String> list) {
+		return list.get(RandomUtils.nextInt(list.size()));
+	}
+
 	private String getRandomClassName() {
 		return classes.get(RandomUtils.nextInt(classes.size()));
 	}
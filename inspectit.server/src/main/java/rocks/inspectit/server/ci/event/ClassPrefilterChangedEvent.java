@@ -0,0 +1,64 @@
+package rocks.inspectit.server.ci.event;
+
+import org.springframework.context.ApplicationEvent;
+
+import rocks.inspectit.shared.all.instrumentation.config.impl.ClassPrefilterConfig;
+
+/**
+ * Class representing the event when the class prefilter of an agent has been changed.
+ *
+ * @author Ivan Senic
+ *
+ */
+public class ClassPrefilterChangedEvent extends ApplicationEvent {
+
+	/**
+	 * Generated UID.
+	 */
+	private static final long serialVersionUID = 6231962517893402297L;
+
+	/**
+	 * The id of the agent this event belongs to.
+	 */
+	private final long agentId;
+
+	/**
+	 * The new class prefilter, can be <code>null</code>.
+	 */
+	private final ClassPrefilterConfig classPrefilterConfig;
+
+	/**
+	 * Default constructor for the event.
+	 *
+	 * @param source
+	 *            event source
+	 * @param agentId
+	 *            id of the agent this event belongs to
+	 * @param classPrefilterConfig
+	 *            the new class prefilter, <code>null</code> means that all classes could be
+	 *            instrumented
+	 */
+	public ClassPrefilterChangedEvent(Object source, long agentId, ClassPrefilterConfig classPrefilterConfig) {
+		super(source);
+		this.agentId = agentId;
+		this.classPrefilterConfig = classPrefilterConfig;
+	}
+
+	/**
+	 * Gets {@link #agentId}.
+	 *
+	 * @return {@link #agentId}
+	 */
+	public long getAgentId() {
+		return this.agentId;
+	}
+
+	/**
+	 * Gets {@link #classPrefilterConfig}.
+	 *
+	 * @return {@link #classPrefilterConfig}
+	 */
+	public ClassPrefilterConfig getClassPrefilterConfig() {
+		return classPrefilterConfig;
+	}
+}
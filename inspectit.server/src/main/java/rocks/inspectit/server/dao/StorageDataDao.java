@@ -100,9 +100,11 @@ public interface StorageDataDao {
 	List<AbstractStorageLabelType<?>> getAllLabelTypes();
 
 	/**
-	 * Returns all the data that is indexed in the indexing tree for a specific platform ident. Not
-	 * that is possible that some data is contained two times in the return list, ones as a object
-	 * in the list, ones as a part of invocation that is in the list.
+	 * Returns all the data that is indexed in the indexing tree for a specific platform ident,
+	 * sorted by the id. The indexing tree is queried only once, the returned list holds only the
+	 * references to the buffer data, so the caller can walk it in chunks. Note that is possible
+	 * that some data is contained two times in the returned data, ones as a object in the list,
+	 * ones as a part of invocation that is in the list.
 	 *
 	 * @param platformId
 	 *            Id of agent.
@@ -110,9 +112,30 @@ public interface StorageDataDao {
 	 *            Date to search data from. Can be <code>null</code> for no restriction.
 	 * @param toDate
 	 *            Date to search data to. Can be <code>null</code> for no restriction.
-	 * @return List of {@link DefaultData} objects.
+	 * @return List of {@link DefaultData} objects sorted by id.
 	 */
-	List<DefaultData> getAllDefaultDataForAgent(long platformId, Date fromDate, Date toDate);
+	List<DefaultData> getBufferDataForAgent(long platformId, Date fromDate, Date toDate);
+
+	/**
+	 * Returns one chunk of the system sensor data stored in the database for a specific platform
+	 * ident. The chunk contains at most the given amount of elements with the smallest ids that are
+	 * not smaller than the given minimum id, sorted by the id. Thus, all system data of an agent
+	 * can be walked by starting with the minimum id <code>0</code> and continuing with the id after
+	 * the last element of the previous chunk.
+	 *
+	 * @param platformId
+	 *            Id of agent.
+	 * @param fromDate
+	 *            Date to search data from. Can be <code>null</code> for no restriction.
+	 * @param toDate
+	 *            Date to search data to. Can be <code>null</code> for no restriction.
+	 * @param minId
+	 *            Minimum id of the returned elements.
+	 * @param limit
+	 *            Max amount of elements to return.
+	 * @return List of {@link DefaultData} objects sorted by id.
+	 */
+	List<DefaultData> getSystemDataForAgent(long platformId, Date fromDate, Date toDate, long minId, int limit);
 
 	/**
 	 * Returns the fresh data from the buffer which IDs correspond to the given IDs.
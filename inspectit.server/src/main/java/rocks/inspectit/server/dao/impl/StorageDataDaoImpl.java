@@ -24,6 +24,8 @@ import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.support.TransactionCallbackWithoutResult;
 import org.springframework.transaction.support.TransactionTemplate;
 
+import com.google.common.collect.Ordering;
+
 import rocks.inspectit.server.dao.StorageDataDao;
 import rocks.inspectit.server.util.JpaUtil;
 import rocks.inspectit.shared.all.communication.DefaultData;
@@ -53,6 +55,16 @@ import rocks.inspectit.shared.cs.storage.label.type.impl.UseCaseLabelType;
 @Repository
 public class StorageDataDaoImpl implements StorageDataDao {
 
+	/**
+	 * Ordering of the data by the id.
+	 */
+	private static final Ordering<DefaultData> ID_ORDERING = new Ordering<DefaultData>() {
+		@Override
+		public int compare(DefaultData o1, DefaultData o2) {
+			return Long.compare(o1.getId(), o2.getId());
+		}
+	};
+
 	/**
 	 * {@link IndexQueryProvider}.
 	 */
@@ -203,10 +215,7 @@ public class StorageDataDaoImpl implements StorageDataDao {
 	 * {@inheritDoc}
 	 */
 	@Override
-	public List<DefaultData> getAllDefaultDataForAgent(long platformId, Date fromDate, Date toDate) {
-		List<DefaultData> results = new ArrayList<>();
-
-		// first load all from buffer
+	public List<DefaultData> getBufferDataForAgent(long platformId, Date fromDate, Date toDate) {
 		IIndexQuery query = indexQueryProvider.createNewIndexQuery();
 		query.setPlatformIdent(platformId);
 		if (null != fromDate) {
@@ -216,42 +225,36 @@ public class StorageDataDaoImpl implements StorageDataDao {
 			query.setToDate(new Timestamp(toDate.getTime()));
 		}
 		List<DefaultData> bufferData = indexingTree.query(query);
-		if (CollectionUtils.isNotEmpty(bufferData)) {
-			results.addAll(bufferData);
+		if (CollectionUtils.isEmpty(bufferData)) {
+			return Collections.emptyList();
 		}
 
-		// then load all System sensor data from DB
+		// sort in place, the list holds only references to the buffer data
+		Collections.sort(bufferData, ID_ORDERING);
+		return bufferData;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<DefaultData> getSystemDataForAgent(long platformId, Date fromDate, Date toDate, long minId, int limit) {
 		CriteriaBuilder builder = entityManager.getCriteriaBuilder();
 		CriteriaQuery<SystemSensorData> criteria = builder.createQuery(SystemSensorData.class);
 		Root<? extends SystemSensorData> root = criteria.from(SystemSensorData.class);
 
-		Predicate platformIdPredicate = builder.equal(root.get("platformIdent"), platformId);
-		Predicate timestampPredicate = null;
+		List<Predicate> predicates = new ArrayList<>();
+		predicates.add(builder.equal(root.get("platformIdent"), platformId));
+		predicates.add(builder.greaterThanOrEqualTo(root.<Long> get("id"), minId));
 		if ((null != fromDate) && (null != toDate)) {
-			timestampPredicate = builder.between(root.<Timestamp> get("timeStamp"), new Timestamp(fromDate.getTime()), new Timestamp(toDate.getTime()));
+			predicates.add(builder.between(root.<Timestamp> get("timeStamp"), new Timestamp(fromDate.getTime()), new Timestamp(toDate.getTime())));
 		}
 
-		if (null != timestampPredicate) {
-			criteria.where(platformIdPredicate, timestampPredicate);
-		} else {
-			criteria.where(platformIdPredicate);
-		}
-		List<SystemSensorData> sensorDatas = entityManager.createQuery(criteria).getResultList();
-
-		// combine results
-		if (CollectionUtils.isNotEmpty(sensorDatas)) {
-			results.addAll(sensorDatas);
-		}
-
-		// since we only have one system information data per agent connection
-		// we need to manually add it as we can not be sure that the time stamp of the oldest
-		// element in the buffer will include the system data send on the agent connection
-		List<SystemInformationData> systemInformationData = getSystemInformationData(Collections.singletonList(platformId));
-		if (CollectionUtils.isNotEmpty(systemInformationData)) {
-			results.addAll(systemInformationData);
-		}
+		criteria.where(predicates.toArray(new Predicate[predicates.size()]));
+		criteria.orderBy(builder.asc(root.get("id")));
+		List<SystemSensorData> sensorDatas = entityManager.createQuery(criteria).setMaxResults(limit).getResultList();
 
-		return results;
+		return new ArrayList<DefaultData>(sensorDatas);
 	}
 
 	/**
@@ -3,6 +3,7 @@ package rocks.inspectit.server.instrumentation;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -189,6 +190,34 @@ public class NextGenInstrumentationManager implements ApplicationListener<AgentD
 		return classCache.getInstrumentationService().addAndGetInstrumentationResult(classType, configurationHolder.getAgentConfiguration(), configurationHolder.getInstrumentationAppliers());
 	}
 
+	/**
+	 * Analyzes the batch of types. Each type is analyzed in the same way as with
+	 * {@link #analyze(long, String, Type)}.
+	 *
+	 * @param platformIdent
+	 *            Id of the agent.
+	 * @param hashToTypeMap
+	 *            Map of class hashes to the types that have been parsed from the byte-code.
+	 * @return Map of class hashes to the {@link InstrumentationDefinition} only for the types
+	 *         that should be instrumented.
+	 * @throws BusinessException
+	 *             If agent with specified id does not exist.
+	 */
+	public Map<String, InstrumentationDefinition> analyzeBatch(long platformIdent, Map<String, Type> hashToTypeMap) throws BusinessException {
+		if (!agentCacheMap.containsKey(Long.valueOf(platformIdent))) {
+			throw new BusinessException("Instrumenting batch of " + hashToTypeMap.size() + " classes for the agent with id=" + platformIdent, AgentManagementErrorCodeEnum.AGENT_DOES_NOT_EXIST);
+		}
+
+		Map<String, InstrumentationDefinition> result = new HashMap<>(0);
+		for (Entry<String, Type> entry : hashToTypeMap.entrySet()) {
+			InstrumentationDefinition instrumentationDefinition = analyze(platformIdent, entry.getKey(), entry.getValue());
+			if ((null != instrumentationDefinition) && !instrumentationDefinition.isEmpty()) {
+				result.put(entry.getKey(), instrumentationDefinition);
+			}
+		}
+		return result;
+	}
+
 	/**
 	 * Generates {@link RefreshInstrumentationTimestampsJob} for the given method IDs.
 	 *
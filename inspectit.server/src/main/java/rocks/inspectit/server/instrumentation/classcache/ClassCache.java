@@ -14,9 +14,12 @@ import org.springframework.context.annotation.Lazy;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
+import com.google.common.util.concurrent.Striped;
+
 import rocks.inspectit.server.instrumentation.classcache.events.INodeChangeListener;
 import rocks.inspectit.server.instrumentation.classcache.events.NodeEvent;
 import rocks.inspectit.server.instrumentation.classcache.events.ReferenceEvent;
+import rocks.inspectit.shared.all.instrumentation.classcache.ImmutableType;
 
 /**
  * The <code>ClassCache</code> holds the server-side representation of class structures. Each class
@@ -29,6 +32,12 @@ import rocks.inspectit.server.instrumentation.classcache.events.ReferenceEvent;
  * The lookup facility supports parallel reads. Also the returned model elements allow to be read by
  * multiple threads.
  *
+ * <b> Instrumentation points per type. </b> <br />
+ * Adding or removing instrumentation points does not change the structure, thus it's done with
+ * the read lock and additionally the lock of the single type (see
+ * {@link #executeWithTypeLock(ImmutableType, Callable)}). Instrumentation of different types can
+ * run in parallel with each other and with the lookups.
+ *
  * <b> "Simulated" safety by hiding. </b> <br />
  * The <code>ClassCache</code> uses package access methods in order to ensure that only the core
  * classes within the class cache can access modification methods that would leak live instances. We
@@ -42,6 +51,11 @@ import rocks.inspectit.server.instrumentation.classcache.events.ReferenceEvent;
 @Lazy
 public class ClassCache {
 
+	/**
+	 * Amount of stripes for the type locks.
+	 */
+	private static final int TYPE_LOCK_STRIPES = 64;
+
 	/**
 	 * The modification service.
 	 */
@@ -81,6 +95,12 @@ public class ClassCache {
 	 */
 	private final Lock writeLock = rwl.writeLock();
 
+	/**
+	 * Locks guarding the instrumentation points of the single types, striped by the FQN of the
+	 * type.
+	 */
+	private final Striped<Lock> typeLocks = Striped.lock(TYPE_LOCK_STRIPES);
+
 	/**
 	 * Initializes the services to the class cache. It is absolutely necessary to call this method
 	 * before using the class cache.
@@ -144,6 +164,35 @@ public class ClassCache {
 		}
 	}
 
+	/**
+	 * Executes given {@link Callable} with the lock of the given type. The type lock only guards
+	 * the instrumentation points of the type, thus the caller must hold the read lock of the class
+	 * cache (see {@link #executeWithReadLock(Callable)}) so that the structure does not change
+	 * during the call. The read lock can also be held by another thread that waits for this call to
+	 * finish.
+	 * <p>
+	 * Note that this is synchronous operation.
+	 *
+	 * @param <T>
+	 *            type of result
+	 * @param type
+	 *            type being changed or read
+	 * @param callable
+	 *            {@link Callable} to call.
+	 * @return Result of {@link Callable} call.
+	 * @throws Exception
+	 *             If {@link Exception} occurs during call method.
+	 */
+	public <T> T executeWithTypeLock(ImmutableType type, Callable<T> callable) throws Exception {
+		Lock typeLock = typeLocks.get(type.getFQN());
+		typeLock.lock();
+		try {
+			return callable.call();
+		} finally {
+			typeLock.unlock();
+		}
+	}
+
 	/**
 	 * Inform the registered listeners about changes to the class node structure.
 	 *
@@ -4,12 +4,16 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.context.annotation.Scope;
@@ -40,6 +44,12 @@ import rocks.inspectit.shared.cs.ci.assignment.AbstractClassSensorAssignment;
 @Lazy
 public class ClassCacheInstrumentation {
 
+	/**
+	 * Amount of types processed by one task when adding or removing the instrumentation points.
+	 * Collections not bigger than this are processed in the calling thread.
+	 */
+	static final int TYPES_PER_TASK = 250;
+
 	/**
 	 * Log of the class.
 	 */
@@ -57,6 +67,13 @@ public class ClassCacheInstrumentation {
 	@Autowired
 	private ClassCacheSearchNarrower searchNarrower;
 
+	/**
+	 * Executor for processing the types in parallel.
+	 */
+	@Autowired
+	@Qualifier("classCacheExecutorService")
+	private ExecutorService executorService;
+
 	/**
 	 * Init the {@link ClassCacheLookup}.
 	 *
@@ -87,21 +104,26 @@ public class ClassCacheInstrumentation {
 		}
 
 		try {
-			return classCache.executeWithWriteLock(new Callable<InstrumentationDefinition>() {
+			return classCache.executeWithReadLock(new Callable<InstrumentationDefinition>() {
 				@Override
 				public InstrumentationDefinition call() throws Exception {
-					ClassType classType = (ClassType) type;
-					boolean added = false;
+					return classCache.executeWithTypeLock(type, new Callable<InstrumentationDefinition>() {
+						@Override
+						public InstrumentationDefinition call() throws Exception {
+							ClassType classType = (ClassType) type;
+							boolean added = false;
 
-					for (IInstrumentationApplier applier : appliers) {
-						added |= applier.addInstrumentationPoints(agentConfiguration, classType);
-					}
+							for (IInstrumentationApplier applier : appliers) {
+								added |= applier.addInstrumentationPoints(agentConfiguration, classType);
+							}
 
-					if (added) {
-						return createInstrumentationResult(type);
-					} else {
-						return null;
-					}
+							if (added) {
+								return createInstrumentationResult(type);
+							} else {
+								return null;
+							}
+						}
+					});
 				}
 			});
 		} catch (Exception e) {
@@ -258,28 +280,7 @@ public class ClassCacheInstrumentation {
 		}
 
 		try {
-			return classCache.executeWithWriteLock(new Callable<Collection<? extends ImmutableClassType>>() {
-				@Override
-				public Collection<? extends ImmutableClassType> call() throws Exception {
-					Collection<ImmutableClassType> results = new ArrayList<>();
-					for (ImmutableType type : types) {
-						// only initialized class types can have instrumentation points
-						if (type.isClass() && type.isInitialized()) {
-							ClassType classType = (ClassType) type.castToClass();
-							boolean added = false;
-
-							for (IInstrumentationApplier applier : appliers) {
-								added |= applier.addInstrumentationPoints(agentConfiguration, classType);
-							}
-
-							if (added) {
-								results.add(type.castToClass());
-							}
-						}
-					}
-					return results;
-				}
-			});
+			return processInParallel(types, agentConfiguration, appliers, false);
 		} catch (Exception e) {
 			log.error("Error occurred while trying to add instrumentation points from the class cache.", e);
 			return Collections.emptyList();
@@ -322,28 +323,7 @@ public class ClassCacheInstrumentation {
 		}
 
 		try {
-			return classCache.executeWithWriteLock(new Callable<Collection<? extends ImmutableClassType>>() {
-				@Override
-				public Collection<? extends ImmutableClassType> call() throws Exception {
-					Collection<ImmutableClassType> results = new ArrayList<>();
-					for (ImmutableType type : types) {
-						// only initialized class types can have instrumentation points
-						if (type.isClass() && type.isInitialized()) {
-							ClassType classType = (ClassType) type.castToClass();
-							boolean added = false;
-
-							for (IInstrumentationApplier applier : instrumentationAppliers) {
-								added |= applier.removeInstrumentationPoints(classType);
-							}
-
-							if (added) {
-								results.add(type.castToClass());
-							}
-						}
-					}
-					return results;
-				}
-			});
+			return processInParallel(types, null, instrumentationAppliers, true);
 		} catch (Exception e) {
 			log.error("Error occurred while trying to remove specific instrumentation points from the class cache.", e);
 			return Collections.emptyList();
@@ -358,18 +338,119 @@ public class ClassCacheInstrumentation {
 	 *            {@link ImmutableClassType} to create {@link InstrumentationDefinition} for.
 	 * @return {@link InstrumentationDefinition} for this class type or <code>null</code> if class
 	 *         has no instrumentation points.
+	 * @throws Exception
+	 *             If exception occurs during acquiring of the type lock.
 	 */
-	private InstrumentationDefinition createInstrumentationResult(ImmutableClassType classType) {
-		// if there are no instrumentation points return null
-		if (!classType.hasInstrumentationPoints()) {
-			return null;
-		}
+	private InstrumentationDefinition createInstrumentationResult(final ImmutableClassType classType) throws Exception {
+		// instrumentation points can be changed in parallel
+		return classCache.executeWithTypeLock(classType, new Callable<InstrumentationDefinition>() {
+			@Override
+			public InstrumentationDefinition call() throws Exception {
+				// if there are no instrumentation points return null
+				if (!classType.hasInstrumentationPoints()) {
+					return null;
+				}
+
+				InstrumentationDefinition instrumentationResult = new InstrumentationDefinition(classType.getFQN());
+				instrumentationResult.setMethodInstrumentationConfigs(classType.getInstrumentationPoints());
+				return instrumentationResult;
+			}
+		});
+	}
 
-		InstrumentationDefinition instrumentationResult = new InstrumentationDefinition(classType.getFQN());
-		if (classType.hasInstrumentationPoints()) {
-			instrumentationResult.setMethodInstrumentationConfigs(classType.getInstrumentationPoints());
+	/**
+	 * Adds or removes the instrumentation points to/from given types with the read lock of the
+	 * class cache. Types are split in the chunks of {@link #TYPES_PER_TASK} that are processed in
+	 * parallel using the {@link #executorService}. The first chunk is always processed in the
+	 * calling thread.
+	 *
+	 * @param types
+	 *            to add or remove instrumentation points
+	 * @param agentConfiguration
+	 *            configuration to use, can be <code>null</code> when removing
+	 * @param appliers
+	 *            Collection of {@link IInstrumentationApplier}s to process types against.
+	 * @param remove
+	 *            <code>true</code> to remove the instrumentation points, <code>false</code> to add
+	 *            them
+	 * @return Returns collection of class types that have been changed.
+	 * @throws Exception
+	 *             If exception occurs during processing of any type.
+	 */
+	private Collection<? extends ImmutableClassType> processInParallel(final Collection<? extends ImmutableType> types, final AgentConfig agentConfiguration,
+			final Collection<IInstrumentationApplier> appliers, final boolean remove) throws Exception {
+		return classCache.executeWithReadLock(new Callable<Collection<? extends ImmutableClassType>>() {
+			@Override
+			public Collection<? extends ImmutableClassType> call() throws Exception {
+				final List<ImmutableType> typeList = new ArrayList<>(types);
+				int size = typeList.size();
+
+				// the worker threads don't take the read lock, we hold it until all are done
+				List<Future<Collection<ImmutableClassType>>> futures = new ArrayList<>();
+				for (int i = TYPES_PER_TASK; i < size; i += TYPES_PER_TASK) {
+					final List<ImmutableType> chunk = typeList.subList(i, Math.min(size, i + TYPES_PER_TASK));
+					futures.add(executorService.submit(new Callable<Collection<ImmutableClassType>>() {
+						@Override
+						public Collection<ImmutableClassType> call() throws Exception {
+							return process(chunk, agentConfiguration, appliers, remove);
+						}
+					}));
+				}
+
+				Collection<ImmutableClassType> results = process(typeList.subList(0, Math.min(size, TYPES_PER_TASK)), agentConfiguration, appliers, remove);
+				for (Future<Collection<ImmutableClassType>> future : futures) {
+					results.addAll(future.get());
+				}
+				return results;
+			}
+		});
+	}
+
+	/**
+	 * Adds or removes the instrumentation points to/from given types. Each type is processed with
+	 * its type lock. Caller must hold the read lock of the class cache.
+	 *
+	 * @param types
+	 *            to add or remove instrumentation points
+	 * @param agentConfiguration
+	 *            configuration to use, can be <code>null</code> when removing
+	 * @param appliers
+	 *            Collection of {@link IInstrumentationApplier}s to process types against.
+	 * @param remove
+	 *            <code>true</code> to remove the instrumentation points, <code>false</code> to add
+	 *            them
+	 * @return Returns collection of class types that have been changed.
+	 * @throws Exception
+	 *             If exception occurs during processing of any type.
+	 */
+	private Collection<ImmutableClassType> process(Collection<ImmutableType> types, final AgentConfig agentConfiguration, final Collection<IInstrumentationApplier> appliers,
+			final boolean remove) throws Exception {
+		Collection<ImmutableClassType> results = new ArrayList<>();
+		for (ImmutableType type : types) {
+			// only initialized class types can have instrumentation points
+			if (type.isClass() && type.isInitialized()) {
+				final ClassType classType = (ClassType) type.castToClass();
+				boolean changed = classCache.executeWithTypeLock(classType, new Callable<Boolean>() {
+					@Override
+					public Boolean call() throws Exception {
+						boolean result = false;
+						for (IInstrumentationApplier applier : appliers) {
+							if (remove) {
+								result |= applier.removeInstrumentationPoints(classType);
+							} else {
+								result |= applier.addInstrumentationPoints(agentConfiguration, classType);
+							}
+						}
+						return Boolean.valueOf(result);
+					}
+				}).booleanValue();
+
+				if (changed) {
+					results.add(classType);
+				}
+			}
 		}
-		return instrumentationResult;
+		return results;
 	}
 
 }
@@ -3,8 +3,12 @@ package rocks.inspectit.server.instrumentation.classcache.index;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Iterator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
 
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.context.annotation.Lazy;
@@ -22,6 +26,9 @@ import rocks.inspectit.shared.all.pattern.WildcardMatchPattern;
 
 /**
  * Fast type indexer by FQN name. Indexer can locate types by exact name or by startsWith approach.
+ * Additionally the types are indexed by the reversed FQN for locating types by the FQN suffix and by
+ * the FQN segments (package and class name parts) for the infix searches, so that
+ * {@link #findByPattern(IMatchPattern)} does not need to check every type for the most patterns.
  * <p>
  * Note that this indexer should not be used with multiple threads reading and writing. Multiple
  * threads reading is OK.
@@ -36,6 +43,16 @@ import rocks.inspectit.shared.all.pattern.WildcardMatchPattern;
 @Lazy
 public class FqnIndexer<E extends Type> extends TypeSet<E> implements INodeChangeListener {
 
+	/**
+	 * Types sorted by the reversed FQN.
+	 */
+	private final ReversedFqnTypeSet<E> reversedFqnSet = new ReversedFqnTypeSet<>();
+
+	/**
+	 * Types mapped by each segment of the FQN. Segments are separated by the dot or dollar sign.
+	 */
+	private final NavigableMap<String, Set<E>> segmentMap = new TreeMap<>();
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -64,7 +81,40 @@ public class FqnIndexer<E extends Type> extends TypeSet<E> implements INodeChang
 	 *            Type to index.
 	 */
 	void index(E type) {
+		E existing = lookup(type.getFQN());
+		if (null != existing) {
+			removeSegments(existing);
+		}
+
 		addOrUpdate(type);
+		reversedFqnSet.addOrUpdate(type);
+		addSegments(type);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean remove(Object o) {
+		E existing = lookup(((Type) o).getFQN());
+		if (null == existing) {
+			return false;
+		}
+
+		super.remove(existing);
+		reversedFqnSet.remove(existing);
+		removeSegments(existing);
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void clear() {
+		super.clear();
+		reversedFqnSet.clear();
+		segmentMap.clear();
 	}
 
 	/**
@@ -104,6 +154,17 @@ public class FqnIndexer<E extends Type> extends TypeSet<E> implements INodeChang
 		return results;
 	}
 
+	/**
+	 * Finds all types that end with given string.
+	 *
+	 * @param fqnSuffix
+	 *            String that class should end with.
+	 * @return All types ending with the given string.
+	 */
+	public Collection<E> findEndsWith(String fqnSuffix) {
+		return reversedFqnSet.findEndsWith(fqnSuffix);
+	}
+
 	/**
 	 * Finds all indexed types.
 	 *
@@ -115,6 +176,10 @@ public class FqnIndexer<E extends Type> extends TypeSet<E> implements INodeChang
 
 	/**
 	 * Finds types by {@link IMatchPattern}. FQN of each returned type will match the given pattern.
+	 * <p>
+	 * Patterns with the leading text are resolved by {@link #findStartsWith(String)}, patterns with
+	 * only trailing text by {@link #findEndsWith(String)} and all other patterns by the segments
+	 * of the longest text in the pattern.
 	 *
 	 * @param matchPattern
 	 *            {@link IMatchPattern}
@@ -126,30 +191,195 @@ public class FqnIndexer<E extends Type> extends TypeSet<E> implements INodeChang
 			return Collections.emptyList();
 		}
 
-		Collection<E> results;
 		if (WildcardMatchPattern.isPattern(template)) {
-			// for wild card use startsWith method
-			String startsWithCriteria = template.substring(0, template.indexOf('*'));
-			results = findStartsWith(startsWithCriteria);
+			Collection<E> candidates;
+			int firstWildcard = template.indexOf('*');
+			int lastWildcard = template.lastIndexOf('*');
+			if (firstWildcard > 0) {
+				// leading text, use startsWith method
+				candidates = findStartsWith(template.substring(0, firstWildcard));
+			} else if (lastWildcard < (template.length() - 1)) {
+				// trailing text, use endsWith method
+				candidates = findEndsWith(template.substring(lastWildcard + 1));
+			} else {
+				candidates = findContaining(getLongestText(template));
+			}
+
 			// make sure each type it's fitting to the pattern
-			for (Iterator<E> it = results.iterator(); it.hasNext();) {
-				E element = it.next();
-				if (!matchPattern.match(element.getFQN())) {
-					it.remove();
+			List<E> results = new ArrayList<>(candidates.size());
+			for (E element : candidates) {
+				if (matchPattern.match(element.getFQN())) {
+					results.add(element);
 				}
 			}
+			return results;
 		} else {
 			E type = lookup(template);
 			if (null != type) {
-				results = new ArrayList<>(1);
+				List<E> results = new ArrayList<>(1);
 				results.add(type);
+				return results;
 			} else {
-				results = Collections.emptyList();
+				return Collections.emptyList();
+			}
+		}
+	}
+
+	/**
+	 * Finds the candidates that could contain the given text in the FQN by using the segment map.
+	 * Returned collection can contain types that do not contain the text, but never misses the one
+	 * that does.
+	 * <ul>
+	 * <li>if text has a separator followed by more text, the segment following the separator must
+	 * start with this text (or be equal to it if another separator follows)
+	 * <li>if text ends with the separator, the segment must end with text before the separator
+	 * <li>otherwise the segment must contain the text
+	 * </ul>
+	 *
+	 * @param text
+	 *            Text that must be contained in the FQN.
+	 * @return Candidates containing the given text.
+	 */
+	private Collection<E> findContaining(String text) {
+		int separator = indexOfSeparator(text, 0);
+		if ((separator >= 0) && (separator < (text.length() - 1))) {
+			int nextSeparator = indexOfSeparator(text, separator + 1);
+			if (nextSeparator > 0) {
+				String segment = text.substring(separator + 1, nextSeparator);
+				return union(Collections.singleton(segmentMap.get(segment)));
+			} else {
+				String segmentStart = text.substring(separator + 1);
+				return union(segmentMap.subMap(segmentStart, true, segmentStart + Character.MAX_VALUE, false).values());
+			}
+		}
+
+		String segmentPart = (separator >= 0) ? text.substring(0, separator) : text;
+		if (segmentPart.isEmpty()) {
+			return findAll();
+		}
+
+		List<Set<E>> matching = new ArrayList<>();
+		for (Entry<String, Set<E>> entry : segmentMap.entrySet()) {
+			String segment = entry.getKey();
+			if ((separator >= 0) ? segment.endsWith(segmentPart) : segment.contains(segmentPart)) {
+				matching.add(entry.getValue());
+			}
+		}
+		return union(matching);
+	}
+
+	/**
+	 * Unions the given type sets.
+	 *
+	 * @param sets
+	 *            Sets to union, can contain <code>null</code>.
+	 * @return Collection of all types.
+	 */
+	private Collection<E> union(Collection<Set<E>> sets) {
+		Set<E> results = Collections.newSetFromMap(new IdentityHashMap<E, Boolean>());
+		for (Set<E> set : sets) {
+			if (null != set) {
+				results.addAll(set);
 			}
 		}
 		return results;
 	}
 
+	/**
+	 * Adds the type to the segment map.
+	 *
+	 * @param type
+	 *            Type to add.
+	 */
+	private void addSegments(E type) {
+		for (String segment : getSegments(type.getFQN())) {
+			Set<E> set = segmentMap.get(segment);
+			if (null == set) {
+				set = Collections.newSetFromMap(new IdentityHashMap<E, Boolean>());
+				segmentMap.put(segment, set);
+			}
+			set.add(type);
+		}
+	}
+
+	/**
+	 * Removes the type from the segment map.
+	 *
+	 * @param type
+	 *            Type to remove.
+	 */
+	private void removeSegments(E type) {
+		for (String segment : getSegments(type.getFQN())) {
+			Set<E> set = segmentMap.get(segment);
+			if (null != set) {
+				set.remove(type);
+				if (set.isEmpty()) {
+					segmentMap.remove(segment);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Splits the FQN to segments.
+	 *
+	 * @param fqn
+	 *            FQN
+	 * @return Segments of the FQN, without empty ones.
+	 */
+	private static List<String> getSegments(String fqn) {
+		List<String> segments = new ArrayList<>();
+		int start = 0;
+		int separator = indexOfSeparator(fqn, 0);
+		while (separator >= 0) {
+			if (separator > start) {
+				segments.add(fqn.substring(start, separator));
+			}
+			start = separator + 1;
+			separator = indexOfSeparator(fqn, start);
+		}
+		if (start < fqn.length()) {
+			segments.add(fqn.substring(start));
+		}
+		return segments;
+	}
+
+	/**
+	 * Returns index of the first segment separator (dot or dollar sign) starting from given index.
+	 *
+	 * @param text
+	 *            Text to search.
+	 * @param fromIndex
+	 *            Index to start from.
+	 * @return Index of the separator or <code>-1</code> if none exists.
+	 */
+	private static int indexOfSeparator(String text, int fromIndex) {
+		for (int i = fromIndex; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if ((c == '.') || (c == '$')) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the longest text between the wild-cards in the template.
+	 *
+	 * @param template
+	 *            Wild-card template.
+	 * @return Longest text, can be empty string.
+	 */
+	private static String getLongestText(String template) {
+		String longest = "";
+		for (String text : template.split("\\*")) {
+			if (text.length() > longest.length()) {
+				longest = text;
+			}
+		}
+		return longest;
+	}
+
 	/**
 	 * Finds index for a FQN to retrieve.
 	 *
@@ -0,0 +1,105 @@
+package rocks.inspectit.server.instrumentation.classcache.index;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import rocks.inspectit.shared.all.instrumentation.classcache.Type;
+import rocks.inspectit.shared.all.instrumentation.classcache.util.SortedArraySet;
+
+/**
+ * Set of types sorted by the reversed FQN. All types ending with the same string are placed next to
+ * each other, thus types can be located by the suffix of the FQN with the binary search.
+ * <p>
+ * Note that reversed strings are never created, the comparison is done char by char from the end
+ * of the FQN.
+ *
+ * @author Ivan Senic
+ *
+ * @param <E>
+ *            Type being indexed.
+ */
+class ReversedFqnTypeSet<E extends Type> extends SortedArraySet<E> {
+
+	/**
+	 * Comparator comparing the reversed FQNs of the types. Elements are equal only if the FQN is
+	 * equal.
+	 */
+	static final Comparator<Type> REVERSED_FQN_COMPARATOR = new Comparator<Type>() {
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int compare(Type o1, Type o2) {
+			return compareReversed(o1.getFQN(), o2.getFQN());
+		}
+	};
+
+	/**
+	 * Default constructor. Uses {@link #REVERSED_FQN_COMPARATOR} for comparing elements in the set.
+	 */
+	@SuppressWarnings("unchecked")
+	ReversedFqnTypeSet() {
+		super((Comparator<E>) REVERSED_FQN_COMPARATOR);
+	}
+
+	/**
+	 * Finds all types which FQN ends with the given string.
+	 *
+	 * @param suffix
+	 *            String that FQN should end with.
+	 * @return All types ending with given string.
+	 */
+	public Collection<E> findEndsWith(String suffix) {
+		int size = size();
+
+		// lower bound, reversed suffix is smallest of all reversed strings starting with it
+		int min = 0;
+		int max = size;
+		while (min < max) {
+			int mid = midpoint(min, max - 1);
+			if (compareReversed(getAt(mid).getFQN(), suffix) < 0) {
+				min = mid + 1;
+			} else {
+				max = mid;
+			}
+		}
+
+		List<E> results = new ArrayList<>();
+		for (int i = min; i < size; i++) {
+			E element = getAt(i);
+			if (!element.getFQN().endsWith(suffix)) {
+				break;
+			}
+			results.add(element);
+		}
+		return results;
+	}
+
+	/**
+	 * Compares two strings as they would be reversed.
+	 *
+	 * @param s1
+	 *            First string.
+	 * @param s2
+	 *            Second string.
+	 * @return the value <code>0</code> if the strings are equal; a value less than <code>0</code> if
+	 *         the reversed first string is lexicographically less than the reversed second string;
+	 *         and a value greater than <code>0</code> otherwise.
+	 */
+	static int compareReversed(String s1, String s2) {
+		int i = s1.length() - 1;
+		int j = s2.length() - 1;
+		while ((i >= 0) && (j >= 0)) {
+			char c1 = s1.charAt(i--);
+			char c2 = s2.charAt(j--);
+			if (c1 != c2) {
+				return c1 - c2;
+			}
+		}
+		return s1.length() - s2.length();
+	}
+
+}
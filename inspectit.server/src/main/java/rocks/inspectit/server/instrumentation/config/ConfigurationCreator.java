@@ -129,6 +129,7 @@ public class ConfigurationCreator {
 
 		// set configuration info
 		agentConfiguration.setConfigurationInfo(configurationResolver.getConfigurationInfo(environment));
+		agentConfiguration.setConfigurationRevision(configurationResolver.getConfigurationRevision(environment));
 
 		return agentConfiguration;
 	}
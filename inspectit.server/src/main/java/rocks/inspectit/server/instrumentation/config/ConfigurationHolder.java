@@ -11,6 +11,7 @@ import org.springframework.stereotype.Component;
 import rocks.inspectit.server.instrumentation.config.applier.IInstrumentationApplier;
 import rocks.inspectit.server.instrumentation.config.applier.JmxMonitoringApplier;
 import rocks.inspectit.shared.all.instrumentation.config.impl.AgentConfig;
+import rocks.inspectit.shared.all.instrumentation.config.impl.ClassPrefilterConfig;
 import rocks.inspectit.shared.cs.ci.Environment;
 
 /**
@@ -74,7 +75,8 @@ public class ConfigurationHolder {
 	/**
 	 * Updates the defined configuration in the holder with following tasks:<br>
 	 * 1. Creates the new {@link #agentConfiguration} for given environment and platform id<br>
-	 * 2. Resolves all {@link #instrumentationAppliers} for given environment<br>
+	 * 2. Resolves all {@link #instrumentationAppliers} for given environment and sets the class
+	 * prefilter created from them to the {@link #agentConfiguration}<br>
 	 * 3. sets the passes environment to the holder.
 	 * <p>
 	 * If <code>null</code> is passed then everything saved in the holder will be reset to
@@ -90,6 +92,7 @@ public class ConfigurationHolder {
 			this.environment = environment;
 			this.agentConfiguration = configurationCreator.environmentToConfiguration(environment, platformId);
 			this.instrumentationAppliers = configurationResolver.getInstrumentationAppliers(environment);
+			this.agentConfiguration.setClassPrefilterConfig(configurationResolver.getClassPrefilterConfig(instrumentationAppliers));
 			this.jmxMonitoringAppliers = configurationResolver.getJmxMonitoringAppliers(environment);
 		} else {
 			this.environment = null; // NOPMD
@@ -117,6 +120,19 @@ public class ConfigurationHolder {
 		return agentConfiguration;
 	}
 
+	/**
+	 * Returns the class prefilter of the {@link #agentConfiguration}.
+	 *
+	 * @return Returns the class prefilter or <code>null</code> if all classes could be instrumented
+	 *         or the holder is not initialized.
+	 */
+	public ClassPrefilterConfig getClassPrefilterConfig() {
+		if (null == agentConfiguration) {
+			return null;
+		}
+		return agentConfiguration.getClassPrefilterConfig();
+	}
+
 	/**
 	 * Gets {@link #instrumentationAppliers}.
 	 *
@@ -7,6 +7,7 @@ import java.util.Iterator;
 import java.util.List;
 
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -20,6 +21,7 @@ import rocks.inspectit.server.instrumentation.config.applier.SpecialInstrumentat
 import rocks.inspectit.server.instrumentation.config.applier.TimerMethodSensorInstrumentationApplier;
 import rocks.inspectit.shared.all.exception.BusinessException;
 import rocks.inspectit.shared.all.exception.enumeration.ConfigurationInterfaceErrorCodeEnum;
+import rocks.inspectit.shared.all.instrumentation.config.impl.ClassPrefilterConfig;
 import rocks.inspectit.shared.all.pattern.IMatchPattern;
 import rocks.inspectit.shared.all.pattern.PatternFactory;
 import rocks.inspectit.shared.all.spring.logger.Log;
@@ -275,6 +277,85 @@ public class ConfigurationResolver {
 		return stringBuilder.toString();
 	}
 
+	/**
+	 * Creates the {@link ClassPrefilterConfig} that describes all class sensor assignments of the
+	 * given instrumentation appliers.
+	 *
+	 * @param instrumentationAppliers
+	 *            Appliers to create prefilter for.
+	 * @return {@link ClassPrefilterConfig} or <code>null</code> if any applier is not bounded to
+	 *         a class sensor assignment, as then prefilter can not be created.
+	 */
+	public ClassPrefilterConfig getClassPrefilterConfig(Collection<IInstrumentationApplier> instrumentationAppliers) {
+		if (null == instrumentationAppliers) {
+			return null;
+		}
+
+		Collection<IMatchPattern> classNamePatterns = new ArrayList<>();
+		Collection<IMatchPattern> superClassNamePatterns = new ArrayList<>();
+		Collection<IMatchPattern> interfaceNamePatterns = new ArrayList<>();
+		Collection<IMatchPattern> annotationPatterns = new ArrayList<>();
+		for (IInstrumentationApplier applier : instrumentationAppliers) {
+			AbstractClassSensorAssignment<?> assignment = applier.getSensorAssignment();
+			if (null == assignment) {
+				return null;
+			}
+
+			String className = StringUtils.defaultIfEmpty(assignment.getClassName(), "*");
+			IMatchPattern pattern = PatternFactory.getPattern(className);
+			if ("*".equals(className) && !assignment.isSuperclass() && !assignment.isInterf() && StringUtils.isNotEmpty(assignment.getAnnotation())) {
+				// any class with the annotation, the annotation is the only restriction
+				annotationPatterns.add(PatternFactory.getPattern(assignment.getAnnotation()));
+			} else if (assignment.isSuperclass()) {
+				superClassNamePatterns.add(pattern);
+			} else if (assignment.isInterf()) {
+				interfaceNamePatterns.add(pattern);
+			} else {
+				classNamePatterns.add(pattern);
+			}
+		}
+
+		return new ClassPrefilterConfig(classNamePatterns, superClassNamePatterns, interfaceNamePatterns, annotationPatterns);
+	}
+
+	/**
+	 * Returns the configuration revision based on the given {@link Environment}. Revision
+	 * includes the id and revision of the environment and of all active profiles, thus it changes
+	 * every time any of the configuration used by the agent changes. Agent can use the revision to
+	 * check if the locally persisted instrumentation definitions are still valid.
+	 *
+	 * @param environment
+	 *            {@link Environment}.
+	 * @return Configuration revision or <code>null</code> if environment is <code>null</code>.
+	 */
+	public String getConfigurationRevision(Environment environment) {
+		if (null == environment) {
+			return null;
+		}
+
+		StringBuilder stringBuilder = new StringBuilder();
+		stringBuilder.append(environment.getId()).append(':').append(environment.getRevision());
+
+		for (String profileId : environment.getProfileIds()) {
+			try {
+				Profile profile = configurationInterfaceManager.getProfile(profileId);
+				// don't include inactive profiles
+				if (!profile.isActive()) {
+					continue;
+				}
+
+				stringBuilder.append(';').append(profile.getId()).append(':').append(profile.getRevision());
+			} catch (Exception e) {
+				if (log.isDebugEnabled()) {
+					log.debug("Profile with id " + profileId + " ignored during configuration revision creation due to the exception.", e);
+				}
+				continue;
+			}
+		}
+
+		return stringBuilder.toString();
+	}
+
 	/**
 	 * Tries to locate one {@link Environment} for the given agent name and IPs. If only one
 	 * {@link Environment} fits the agent by current mappings this one will be returned. Otherwise
@@ -66,6 +66,10 @@ public abstract class AbstractSensorInstrumentationApplier extends AbstractInstr
 			if (Character.CONSTRUCTOR.equals(methodType.getMethodCharacter())) {
 				sensorInstrumentationPoint.setConstructor(true);
 			}
+			// nothing is needed from the instrumented method until a sensor declares so
+			sensorInstrumentationPoint.setParametersNeeded(false);
+			sensorInstrumentationPoint.setObjectNeeded(false);
+			sensorInstrumentationPoint.setResultNeeded(false);
 
 			// set to method instrumentation
 			methodInstrumentationConfig.setSensorInstrumentationPoint(sensorInstrumentationPoint);
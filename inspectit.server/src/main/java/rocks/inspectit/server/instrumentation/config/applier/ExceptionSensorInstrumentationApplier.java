@@ -86,6 +86,9 @@ public class ExceptionSensorInstrumentationApplier extends AbstractSensorInstrum
 
 		// add all settings
 		sensorInstrumentationPoint.addSettings(exceptionSensorAssignment.getSettings());
+
+		// exception sensor needs the created exception object
+		sensorInstrumentationPoint.markAllNeeded(sensorId);
 	}
 
 }
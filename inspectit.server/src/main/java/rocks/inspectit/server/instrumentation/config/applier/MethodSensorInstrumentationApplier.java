@@ -10,6 +10,8 @@ import rocks.inspectit.shared.cs.ci.Environment;
 import rocks.inspectit.shared.cs.ci.assignment.AbstractClassSensorAssignment;
 import rocks.inspectit.shared.cs.ci.assignment.impl.MethodSensorAssignment;
 import rocks.inspectit.shared.cs.ci.sensor.method.IMethodSensorConfig;
+import rocks.inspectit.shared.cs.ci.sensor.method.impl.InvocationSequenceSensorConfig;
+import rocks.inspectit.shared.cs.ci.sensor.method.impl.TimerSensorConfig;
 import rocks.inspectit.shared.cs.cmr.service.IRegistrationService;
 
 /**
@@ -86,6 +88,24 @@ public class MethodSensorInstrumentationApplier extends AbstractSensorInstrument
 
 		// add all settings
 		sensorInstrumentationPoint.addSettings(methodSensorAssignment.getSettings());
+
+		// timing sensors only need the method parameters, object and result for the property
+		// accessors, which mark what they need themselves
+		if (!isTimingSensor(methodSensorAssignment.getSensorConfigClass())) {
+			sensorInstrumentationPoint.markAllNeeded(sensorId);
+		}
+	}
+
+	/**
+	 * Defines if the sensor config class denotes a sensor that only measures the timing of the
+	 * method and thus does not need the parameters, object or result of the method.
+	 *
+	 * @param sensorConfigClass
+	 *            Sensor config class.
+	 * @return <code>true</code> for the timer and invocation sequence sensors.
+	 */
+	private boolean isTimingSensor(Class<? extends IMethodSensorConfig> sensorConfigClass) {
+		return TimerSensorConfig.class.equals(sensorConfigClass) || InvocationSequenceSensorConfig.class.equals(sensorConfigClass);
 	}
 
 	/**
@@ -3,14 +3,21 @@ package rocks.inspectit.server.instrumentation.config.job;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang.ObjectUtils;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationEventPublisher;
 
 import rocks.inspectit.server.ci.event.ClassInstrumentationChangedEvent;
+import rocks.inspectit.server.ci.event.ClassPrefilterChangedEvent;
 import rocks.inspectit.server.instrumentation.classcache.ClassCache;
 import rocks.inspectit.server.instrumentation.config.AgentCacheEntry;
 import rocks.inspectit.server.instrumentation.config.ClassCacheSearchNarrower;
@@ -20,7 +27,9 @@ import rocks.inspectit.server.instrumentation.config.applier.IInstrumentationApp
 import rocks.inspectit.shared.all.instrumentation.classcache.ImmutableClassType;
 import rocks.inspectit.shared.all.instrumentation.classcache.ImmutableType;
 import rocks.inspectit.shared.all.instrumentation.config.impl.AgentConfig;
+import rocks.inspectit.shared.all.instrumentation.config.impl.ClassPrefilterConfig;
 import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
+import rocks.inspectit.shared.all.instrumentation.config.impl.MethodInstrumentationConfig;
 import rocks.inspectit.shared.all.spring.logger.Log;
 import rocks.inspectit.shared.cs.ci.Environment;
 import rocks.inspectit.shared.cs.ci.assignment.AbstractClassSensorAssignment;
@@ -30,6 +39,12 @@ import rocks.inspectit.shared.cs.ci.assignment.AbstractClassSensorAssignment;
  * instrumentation points on the given class cache, environment and agent configuration. Note that
  * {@link #environment}, {@link #classCache} and {@link #agentConfiguration} must be set using
  * setters before running the {@link #run()} method.
+ * <p>
+ * Before changing the instrumentation points of the types, the jobs take the snapshot of the
+ * current instrumentation with {@link #snapshot(Collection)}. Types which instrumentation
+ * definition is at the end equal to the snapshot are not reported as changed, thus agents don't
+ * retransform classes that ended up with the same instrumentation (for example when all points of
+ * a class are removed and then re-added).
  *
  * @author Ivan Senic
  * @author Marius Oehler
@@ -66,6 +81,12 @@ public abstract class AbstractConfigurationChangeJob implements Runnable {
 	 */
 	private AgentCacheEntry agentCacheEntry;
 
+	/**
+	 * Copies of the method instrumentation configurations of the types before they were changed by
+	 * this job, mapped by the FQN of the type.
+	 */
+	private final Map<String, Set<MethodInstrumentationConfig>> snapshots = new HashMap<>();
+
 	/**
 	 * Concrete implementation of the job.
 	 *
@@ -79,10 +100,26 @@ public abstract class AbstractConfigurationChangeJob implements Runnable {
 	 */
 	@Override
 	public void run() {
+		ClassPrefilterConfig classPrefilterBefore = getConfigurationHolder().getClassPrefilterConfig();
 		Collection<ImmutableType> changedClassTypes = execute();
+		createClassPrefilterChangedEvent(classPrefilterBefore);
 		createInstrumentationChangedEvent(changedClassTypes);
 	}
 
+	/**
+	 * Creates and publishes an {@link ClassPrefilterChangedEvent} if the class prefilter of the
+	 * agent configuration was changed by the job.
+	 *
+	 * @param classPrefilterBefore
+	 *            Class prefilter before the job was executed.
+	 */
+	private void createClassPrefilterChangedEvent(ClassPrefilterConfig classPrefilterBefore) {
+		ClassPrefilterConfig classPrefilter = getConfigurationHolder().getClassPrefilterConfig();
+		if (!ObjectUtils.equals(classPrefilterBefore, classPrefilter)) {
+			eventPublisher.publishEvent(new ClassPrefilterChangedEvent(this, getAgentId(), classPrefilter));
+		}
+	}
+
 	/**
 	 * Creates and publishes an {@link ClassInstrumentationChangedEvent} notifying listeners that
 	 * the instrumentation of certain classes have been changed.
@@ -92,10 +129,6 @@ public abstract class AbstractConfigurationChangeJob implements Runnable {
 	 */
 	private void createInstrumentationChangedEvent(Collection<ImmutableType> changedTypes) {
 		if (CollectionUtils.isNotEmpty(changedTypes)) {
-			if (log.isInfoEnabled()) {
-				log.info("Updated instrumentation definition of {} class(es) for the agent [ID: {}]", changedTypes.size(), getAgentId());
-			}
-
 			// existing InstrumentationDefinitions
 			List<InstrumentationDefinition> instrumentationDefinitions = new ArrayList<>(getClassCache().getInstrumentationService().getInstrumentationResults(changedTypes));
 
@@ -115,9 +148,73 @@ public abstract class AbstractConfigurationChangeJob implements Runnable {
 				}
 			}
 
-			ClassInstrumentationChangedEvent event = new ClassInstrumentationChangedEvent(this, getAgentId(), instrumentationDefinitions);
-			eventPublisher.publishEvent(event);
+			// don't send the definitions that are same as before the job
+			int unchanged = 0;
+			for (Iterator<InstrumentationDefinition> it = instrumentationDefinitions.iterator(); it.hasNext();) {
+				if (isUnchanged(it.next())) {
+					it.remove();
+					unchanged++;
+				}
+			}
+
+			if (log.isInfoEnabled()) {
+				log.info("Updated instrumentation definition of {} class(es) for the agent [ID: {}], {} class(es) with unchanged definition skipped", instrumentationDefinitions.size(), getAgentId(),
+						unchanged);
+			}
+
+			if (CollectionUtils.isNotEmpty(instrumentationDefinitions)) {
+				ClassInstrumentationChangedEvent event = new ClassInstrumentationChangedEvent(this, getAgentId(), instrumentationDefinitions);
+				eventPublisher.publishEvent(event);
+			}
+		}
+	}
+
+	/**
+	 * Takes the snapshot of the current instrumentation of the given types. Must be called before
+	 * the instrumentation points of the types are changed. Only the first snapshot of a type is
+	 * kept, thus the types can be passed to this method several times during one job.
+	 *
+	 * @param types
+	 *            Types which instrumentation points are about to be changed.
+	 */
+	protected void snapshot(Collection<? extends ImmutableType> types) {
+		Collection<ImmutableType> newTypes = new ArrayList<>();
+		for (ImmutableType type : types) {
+			if (type.isClass() && !snapshots.containsKey(type.getFQN())) {
+				snapshots.put(type.getFQN(), Collections.<MethodInstrumentationConfig> emptySet());
+				newTypes.add(type);
+			}
+		}
+
+		if (newTypes.isEmpty()) {
+			return;
+		}
+
+		// configurations are changed in place, thus we need copies
+		for (InstrumentationDefinition definition : getClassCache().getInstrumentationService().getInstrumentationResults(newTypes)) {
+			Set<MethodInstrumentationConfig> configs = new HashSet<>();
+			for (MethodInstrumentationConfig config : definition.getMethodInstrumentationConfigs()) {
+				configs.add(new MethodInstrumentationConfig(config));
+			}
+			snapshots.put(definition.getClassName(), configs);
+		}
+	}
+
+	/**
+	 * Checks if the given definition defines the same instrumentation as the snapshot of the type
+	 * taken before the job. Types without snapshot are always considered as changed.
+	 *
+	 * @param definition
+	 *            New instrumentation definition of a type.
+	 * @return <code>true</code> if the snapshot of the type exists and it's equal to the given
+	 *         definition
+	 */
+	private boolean isUnchanged(InstrumentationDefinition definition) {
+		Set<MethodInstrumentationConfig> snapshot = snapshots.get(definition.getClassName());
+		if (null == snapshot) {
+			return false;
 		}
+		return snapshot.equals(new HashSet<>(definition.getMethodInstrumentationConfigs()));
 	}
 
 	/**
@@ -140,6 +237,7 @@ public abstract class AbstractConfigurationChangeJob implements Runnable {
 
 			// get the applier
 			IInstrumentationApplier instrumentationApplier = configurationResolver.getInstrumentationApplier(assignment, getEnvironment());
+			snapshot(classTypes);
 			changedClassTypes.addAll(getClassCache().getInstrumentationService().removeInstrumentationPoints(classTypes, Collections.singleton(instrumentationApplier)));
 		}
 
@@ -174,6 +272,7 @@ public abstract class AbstractConfigurationChangeJob implements Runnable {
 			IInstrumentationApplier instrumentationApplier = configurationResolver.getInstrumentationApplier(assignment, getEnvironment());
 
 			// execute
+			snapshot(classTypes);
 			Collection<? extends ImmutableClassType> instrumentedClassTypes = getClassCache().getInstrumentationService().addInstrumentationPoints(classTypes, getAgentConfiguration(),
 					Collections.singleton(instrumentationApplier));
 
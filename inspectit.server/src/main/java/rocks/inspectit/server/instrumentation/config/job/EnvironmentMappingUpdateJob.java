@@ -42,6 +42,7 @@ public class EnvironmentMappingUpdateJob extends AbstractConfigurationChangeJob
 
 		// add current instrumentation
 		changedClassTypes.addAll(getClassCache().getLookupService().findInstrumentedTypes());
+		snapshot(changedClassTypes);
 
 		// first remove all existing instrumentation points
 		getClassCache().getInstrumentationService().removeInstrumentationPoints();
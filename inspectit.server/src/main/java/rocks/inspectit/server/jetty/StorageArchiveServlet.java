@@ -0,0 +1,113 @@
+package rocks.inspectit.server.jetty;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.lang.StringUtils;
+
+import rocks.inspectit.server.storage.CmrStorageManager;
+import rocks.inspectit.shared.all.exception.BusinessException;
+import rocks.inspectit.shared.all.serializer.SerializationException;
+import rocks.inspectit.shared.cs.storage.StorageData;
+import rocks.inspectit.shared.cs.storage.StorageFileType;
+
+/**
+ * Servlet for streaming the complete storage as a zip archive from and to the CMR.
+ * <p>
+ * A GET request with the {@value #STORAGE_ID_PARAMETER} parameter streams the zipped storage
+ * directly to the response, without creating a zip file on the CMR. A POST request with the zip
+ * archive as body imports the storage while the body is read, so the uploaded archive is never
+ * saved to the disk. This servlet should not be mapped to the multi-part filter.
+ *
+ * @author Ivan Senic
+ *
+ */
+public class StorageArchiveServlet extends HttpServlet {
+
+	/**
+	 * Generated UID.
+	 */
+	private static final long serialVersionUID = -2960467374128587218L;
+
+	/**
+	 * Name of the request parameter that holds the storage id to export.
+	 */
+	private static final String STORAGE_ID_PARAMETER = "storageId";
+
+	/**
+	 * Content type of the response.
+	 */
+	private static final String ZIP_CONTENT_TYPE = "application/zip";
+
+	/**
+	 * Storage manager.
+	 */
+	private transient CmrStorageManager storageManager;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+		String storageId = req.getParameter(STORAGE_ID_PARAMETER);
+		if (StringUtils.isEmpty(storageId)) {
+			resp.sendError(HttpServletResponse.SC_BAD_REQUEST, "Parameter " + STORAGE_ID_PARAMETER + " must be provided.");
+			return;
+		}
+
+		StorageData storageData = storageManager.getStorageData(storageId);
+		if (null == storageData) {
+			resp.sendError(HttpServletResponse.SC_NOT_FOUND, "Storage with id " + storageId + " does not exist.");
+			return;
+		}
+		if (!storageData.isStorageClosed()) {
+			resp.sendError(HttpServletResponse.SC_CONFLICT, "Storage with id " + storageId + " is not closed.");
+			return;
+		}
+
+		resp.setContentType(ZIP_CONTENT_TYPE);
+		resp.setHeader("Content-Disposition", "attachment; filename=\"" + storageId + StorageFileType.ZIP_STORAGE_FILE.getExtension() + "\"");
+		OutputStream outputStream = resp.getOutputStream();
+		try {
+			storageManager.exportStorage(storageData, outputStream);
+			outputStream.flush();
+		} catch (BusinessException | SerializationException e) {
+			throw new ServletException("Exporting the storage " + storageData + " failed.", e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+		InputStream inputStream = req.getInputStream();
+		try {
+			StorageData storageData = storageManager.importStorage(inputStream);
+			if (null == storageData) {
+				resp.setStatus(HttpServletResponse.SC_OK);
+			} else {
+				resp.setStatus(HttpServletResponse.SC_CREATED);
+			}
+		} catch (BusinessException | SerializationException e) {
+			throw new ServletException("Importing the storage failed.", e);
+		}
+	}
+
+	/**
+	 * Sets {@link #storageManager}.
+	 *
+	 * @param storageManager
+	 *            New value for {@link #storageManager}
+	 */
+	public void setStorageManager(CmrStorageManager storageManager) {
+		this.storageManager = storageManager;
+	}
+
+}
@@ -11,18 +11,23 @@ import org.springframework.context.ApplicationListener;
 import org.springframework.stereotype.Component;
 
 import rocks.inspectit.server.ci.event.ClassInstrumentationChangedEvent;
+import rocks.inspectit.server.ci.event.ClassPrefilterChangedEvent;
 import rocks.inspectit.server.event.AgentDeletedEvent;
 import rocks.inspectit.server.event.AgentRegisteredEvent;
 import rocks.inspectit.server.util.AgentStatusDataProvider;
 import rocks.inspectit.shared.all.communication.data.cmr.AgentStatusData;
 import rocks.inspectit.shared.all.communication.data.cmr.AgentStatusData.InstrumentationStatus;
+import rocks.inspectit.shared.all.communication.message.UpdatedClassPrefilterMessage;
 import rocks.inspectit.shared.all.communication.message.UpdatedInstrumentationMessage;
+import rocks.inspectit.shared.all.instrumentation.config.impl.ClassPrefilterConfig;
 import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
 import rocks.inspectit.shared.all.spring.logger.Log;
 
 /**
  * This class stores the changed, updated, removed or added {@link InstrumentationDefinition} which
- * should be send to the agent in the future.
+ * should be send to the agent in the future. The latest {@link ClassPrefilterConfig} of the agent is
+ * stored as well and sent before the definitions, so that the agent does not skip the classes it
+ * should retransform.
  *
  * @author Marius Oehler
  *
@@ -54,6 +59,13 @@ public class AgentInstrumentationMessageGate implements ApplicationListener<Appl
 	 */
 	private final Map<Long, Map<String, InstrumentationDefinition>> definitionBuffer = new HashMap<>();
 
+	/**
+	 * Map which maps agent IDs to the latest {@link ClassPrefilterConfig}. Values can be
+	 * <code>null</code>, as <code>null</code> prefilter means that all classes could be
+	 * instrumented.
+	 */
+	private final Map<Long, ClassPrefilterConfig> prefilterBuffer = new HashMap<>();
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -61,6 +73,8 @@ public class AgentInstrumentationMessageGate implements ApplicationListener<Appl
 	public synchronized void onApplicationEvent(ApplicationEvent event) {
 		if (event instanceof ClassInstrumentationChangedEvent) {
 			handleClassInstrumentationChangedEvent((ClassInstrumentationChangedEvent) event);
+		} else if (event instanceof ClassPrefilterChangedEvent) {
+			handleClassPrefilterChangedEvent((ClassPrefilterChangedEvent) event);
 		} else if (event instanceof AgentDeletedEvent) {
 			handleAgentDeletedEvent((AgentDeletedEvent) event);
 		} else if (event instanceof AgentRegisteredEvent) {
@@ -118,10 +132,21 @@ public class AgentInstrumentationMessageGate implements ApplicationListener<Appl
 		}
 	}
 
+	/**
+	 * Handles an event of type {@link ClassPrefilterChangedEvent}.
+	 *
+	 * @param event
+	 *            the event instance
+	 */
+	private void handleClassPrefilterChangedEvent(ClassPrefilterChangedEvent event) {
+		prefilterBuffer.put(event.getAgentId(), event.getClassPrefilterConfig());
+	}
+
 	/**
 	 * Creates an {@link UpdatedInstrumentationMessage} which contains all stored
-	 * {@link InstrumentationDefinition}. The created message is put in the message provider for the
-	 * agent to fetch.
+	 * {@link InstrumentationDefinition}. If the class prefilter of the agent was changed, an
+	 * {@link UpdatedClassPrefilterMessage} is created before. The created messages are put in the
+	 * message provider for the agent to fetch.
 	 *
 	 * @param platformId
 	 *            the id of the platform which {@link InstrumentationDefinition}s should be provided
@@ -132,6 +157,10 @@ public class AgentInstrumentationMessageGate implements ApplicationListener<Appl
 			log.debug("Flushing new instrumentations for agent {}.", platformId);
 		}
 
+		if (prefilterBuffer.containsKey(platformId)) {
+			messageProvider.provideMessage(platformId, new UpdatedClassPrefilterMessage(prefilterBuffer.remove(platformId)));
+		}
+
 		Map<String, InstrumentationDefinition> pendingDefinitions = definitionBuffer.put(platformId, new HashMap<String, InstrumentationDefinition>());
 
 		if (MapUtils.isNotEmpty(pendingDefinitions)) {
@@ -155,6 +184,8 @@ public class AgentInstrumentationMessageGate implements ApplicationListener<Appl
 	 *            the id of the platform which {@link InstrumentationDefinition}s should be removed
 	 */
 	public synchronized void clear(long platformId) {
+		prefilterBuffer.remove(platformId);
+
 		Map<String, InstrumentationDefinition> pendingDefinitions = definitionBuffer.get(platformId);
 		if (MapUtils.isNotEmpty(pendingDefinitions)) {
 			if (log.isDebugEnabled()) {
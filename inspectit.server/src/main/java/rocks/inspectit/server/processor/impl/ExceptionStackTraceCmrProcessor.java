@@ -0,0 +1,195 @@
+package rocks.inspectit.server.processor.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import rocks.inspectit.server.messaging.AgentMessageProvider;
+import rocks.inspectit.server.processor.AbstractCmrDataProcessor;
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.ExceptionSensorData;
+import rocks.inspectit.shared.all.communication.message.ResendStackTracesMessage;
+
+/**
+ * Processor that resolves the stack traces of the {@link ExceptionSensorData} by the stack trace
+ * fingerprint. Agents send the full stack trace only with the first exception data of a
+ * fingerprint, thus the processor caches received stack traces per agent and sets them to the
+ * data that only carries the fingerprint.
+ * <p>
+ * If the stack trace of a fingerprint is not known (evicted or lost on restart), the agent is
+ * requested to send the full stack trace again with the next exception of this fingerprint.
+ * <p>
+ * Must be executed before the data is inserted in the buffer or passed to any other processor.
+ *
+ * @author Ivan Senic
+ *
+ */
+public class ExceptionStackTraceCmrProcessor extends AbstractCmrDataProcessor {
+
+	/**
+	 * Maximum amount of cached stack traces.
+	 */
+	static final int MAX_SIZE = 10000;
+
+	/**
+	 * Hours after which not used stack trace is evicted. Agents resend the stack traces much more
+	 * often, so the evicted stack traces are learned again.
+	 */
+	static final long EXPIRE_AFTER_ACCESS_HOURS = 1;
+
+	/**
+	 * Minutes after which the stack trace of the same fingerprint can be requested again from the
+	 * agent.
+	 */
+	static final long REQUEST_INTERVAL_MINUTES = 1;
+
+	/**
+	 * Message provider for requesting the stack traces from the agents.
+	 */
+	@Autowired
+	AgentMessageProvider messageProvider;
+
+	/**
+	 * Stack traces mapped by the agent and fingerprint.
+	 */
+	private final Cache<StackTraceKey, String> stackTraces = CacheBuilder.newBuilder().maximumSize(MAX_SIZE).expireAfterAccess(EXPIRE_AFTER_ACCESS_HOURS, TimeUnit.HOURS).build();
+
+	/**
+	 * Stack traces requested from the agents, so that one stack trace is not requested with every
+	 * exception data.
+	 */
+	private final Cache<StackTraceKey, Boolean> requestedStackTraces = CacheBuilder.newBuilder().maximumSize(MAX_SIZE).expireAfterWrite(REQUEST_INTERVAL_MINUTES, TimeUnit.MINUTES).build();
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void processData(DefaultData defaultData, EntityManager entityManager) {
+		resolveStackTraces((ExceptionSensorData) defaultData);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean canBeProcessed(DefaultData defaultData) {
+		return defaultData instanceof ExceptionSensorData;
+	}
+
+	/**
+	 * Caches or resolves the stack trace of the given exception data and all of its children.
+	 * Stack traces that can not be resolved are requested from the agent.
+	 *
+	 * @param exceptionSensorData
+	 *            Exception data.
+	 */
+	private void resolveStackTraces(ExceptionSensorData exceptionSensorData) {
+		long platformIdent = exceptionSensorData.getPlatformIdent();
+		List<Long> unknownFingerprints = null;
+
+		ExceptionSensorData current = exceptionSensorData;
+		while (null != current) {
+			long fingerprint = current.getStackTraceFingerprint();
+			if (0 != fingerprint) {
+				StackTraceKey key = new StackTraceKey(platformIdent, fingerprint);
+				if (null != current.getStackTrace()) {
+					stackTraces.put(key, current.getStackTrace());
+					requestedStackTraces.invalidate(key);
+				} else {
+					String stackTrace = stackTraces.getIfPresent(key);
+					if (null != stackTrace) {
+						current.setStackTrace(stackTrace);
+					} else if (null == requestedStackTraces.getIfPresent(key)) {
+						requestedStackTraces.put(key, Boolean.TRUE);
+						if (null == unknownFingerprints) {
+							unknownFingerprints = new ArrayList<>(1);
+						}
+						unknownFingerprints.add(Long.valueOf(fingerprint));
+					}
+				}
+			}
+			current = current.getChild();
+		}
+
+		if (null != unknownFingerprints) {
+			messageProvider.provideMessage(platformIdent, new ResendStackTracesMessage(unknownFingerprints));
+		}
+	}
+
+	/**
+	 * Key of the cached stack trace, the fingerprints are only unique in one agent.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	private static final class StackTraceKey {
+
+		/**
+		 * Platform ident.
+		 */
+		private final long platformIdent;
+
+		/**
+		 * Stack trace fingerprint.
+		 */
+		private final long fingerprint;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param platformIdent
+		 *            Platform ident.
+		 * @param fingerprint
+		 *            Stack trace fingerprint.
+		 */
+		StackTraceKey(long platformIdent, long fingerprint) {
+			this.platformIdent = platformIdent;
+			this.fingerprint = fingerprint;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = (prime * result) + (int) (fingerprint ^ (fingerprint >>> 32));
+			result = (prime * result) + (int) (platformIdent ^ (platformIdent >>> 32));
+			return result;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (obj == null) {
+				return false;
+			}
+			if (getClass() != obj.getClass()) {
+				return false;
+			}
+			StackTraceKey other = (StackTraceKey) obj;
+			if (fingerprint != other.fingerprint) {
+				return false;
+			}
+			if (platformIdent != other.platformIdent) {
+				return false;
+			}
+			return true;
+		}
+
+	}
+
+}
@@ -49,6 +49,12 @@ public class AgentService implements IAgentService {
 	@Autowired
 	AgentMessageProvider messageProvider;
 
+	/**
+	 * {@link InvocationSequenceReassembler} for the invocations sent in chunks.
+	 */
+	@Autowired
+	InvocationSequenceReassembler invocationSequenceReassembler;
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -65,6 +71,7 @@ public class AgentService implements IAgentService {
 	@MethodLog
 	public void unregister(long platformIdent) throws BusinessException {
 		nextGenInstrumentationManager.unregister(platformIdent);
+		invocationSequenceReassembler.removePlatform(platformIdent);
 	}
 
 	/**
@@ -76,6 +83,15 @@ public class AgentService implements IAgentService {
 		return nextGenInstrumentationManager.analyze(platformIdent, hash, sentType);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@MethodLog
+	public Map<String, InstrumentationDefinition> analyzeBatch(long platformIdent, Map<String, Type> hashToTypeMap) throws BusinessException {
+		return nextGenInstrumentationManager.analyzeBatch(platformIdent, hashToTypeMap);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -2,6 +2,7 @@ package rocks.inspectit.server.service;
 
 import java.lang.ref.SoftReference;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.TimeUnit;
@@ -20,6 +21,8 @@ import rocks.inspectit.server.util.Converter;
 import rocks.inspectit.shared.all.cmr.property.spring.PropertyUpdate;
 import rocks.inspectit.shared.all.cmr.service.IAgentStorageService;
 import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceChunk;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
 import rocks.inspectit.shared.all.spring.logger.Log;
 import rocks.inspectit.shared.cs.cmr.service.ICmrManagementService;
 
@@ -65,6 +68,12 @@ public class AgentStorageService implements IAgentStorageService {
 	@Autowired
 	ICmrManagementService cmrManagementService;
 
+	/**
+	 * {@link InvocationSequenceReassembler} for the invocations sent in chunks.
+	 */
+	@Autowired
+	InvocationSequenceReassembler invocationSequenceReassembler;
+
 	/**
 	 * Queue to store and remove list of data that has to be processed.
 	 */
@@ -103,10 +112,31 @@ public class AgentStorageService implements IAgentStorageService {
 	@Override
 	@MethodLog
 	public void addDataObjects(final List<? extends DefaultData> dataObjects) {
-		SoftReference<List<? extends DefaultData>> softReference = new SoftReference<List<? extends DefaultData>>(dataObjects);
 		if (!dataObjects.isEmpty()) {
 			platformIdentDateSaver.registerDataSent(dataObjects.get(0).getPlatformIdent());
+
+			// chunks are always sent one per call
+			if (dataObjects.get(0) instanceof InvocationSequenceChunk) {
+				InvocationSequenceData invocation = invocationSequenceReassembler.addChunk((InvocationSequenceChunk) dataObjects.get(0));
+				if (null != invocation) {
+					queueDataObjects(Collections.singletonList(invocation));
+				}
+				return;
+			}
 		}
+
+		queueDataObjects(dataObjects);
+	}
+
+	/**
+	 * Adds the data objects to the processing queue. The data is dropped if there is no place in
+	 * the queue after {@link #DATA_THROW_TIMEOUT_MILLIS}.
+	 *
+	 * @param dataObjects
+	 *            The list containing all the data objects.
+	 */
+	private void queueDataObjects(List<? extends DefaultData> dataObjects) {
+		SoftReference<List<? extends DefaultData>> softReference = new SoftReference<List<? extends DefaultData>>(dataObjects);
 		try {
 			boolean added = dataObjectsBlockingQueue.offer(softReference, DATA_THROW_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
 			if (!added) {
@@ -0,0 +1,400 @@
+package rocks.inspectit.server.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import rocks.inspectit.server.event.AgentDeletedEvent;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceChunk;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
+import rocks.inspectit.shared.all.spring.logger.Log;
+import rocks.inspectit.shared.cs.cmr.service.ICmrManagementService;
+
+/**
+ * Reassembles the {@link InvocationSequenceData} sent by the agent in
+ * {@link InvocationSequenceChunk}s. The nodes of each chunk are connected to the tree as soon as
+ * the chunk arrives, so only the path from the root to the last received node needs to be tracked
+ * for resolving the parent indexes.
+ * <p>
+ * The amount of nodes kept for the not completed sequences is bounded per agent with
+ * {@link #MAX_PENDING_NODES}. If the limit would be exceeded, the sequences with the oldest
+ * received chunk are dropped first. Sequences not receiving a chunk for
+ * {@link #MAX_PENDING_AGE_MILLIS} are dropped as well, as are all sequences of the agent that is
+ * unregistered or deleted. Dropped counts are reported to the {@link ICmrManagementService}.
+ *
+ * @author Ivan Senic
+ *
+ */
+@Component
+public class InvocationSequenceReassembler implements ApplicationListener<AgentDeletedEvent> {
+
+	/**
+	 * Max amount of nodes of the not completed sequences kept per agent.
+	 */
+	static final int MAX_PENDING_NODES = 200000;
+
+	/**
+	 * Max time in milliseconds a not completed sequence is kept without receiving a chunk. The
+	 * agent sends all chunks of a sequence one after another, so a sequence waiting that long will
+	 * never be completed.
+	 */
+	static final long MAX_PENDING_AGE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+	/**
+	 * Rate of the removal of the expired sequences in milliseconds.
+	 */
+	private static final long REMOVE_EXPIRED_RATE = 60000L;
+
+	/**
+	 * The logger of this class.
+	 */
+	@Log
+	Logger log;
+
+	/**
+	 * {@link ICmrManagementService} for reporting the dropped data.
+	 */
+	@Autowired
+	ICmrManagementService cmrManagementService;
+
+	/**
+	 * Max amount of nodes of the not completed sequences kept per agent.
+	 */
+	int maxPendingNodes = MAX_PENDING_NODES;
+
+	/**
+	 * Reassembly buffers per platform ident.
+	 */
+	private final ConcurrentHashMap<Long, PlatformBuffer> buffers = new ConcurrentHashMap<>();
+
+	/**
+	 * Adds the chunk to the sequence it belongs to.
+	 *
+	 * @param chunk
+	 *            Received chunk.
+	 * @return Complete invocation sequence if this was the last chunk, otherwise <code>null</code>.
+	 */
+	public InvocationSequenceData addChunk(InvocationSequenceChunk chunk) {
+		Long platformIdent = Long.valueOf(chunk.getPlatformIdent());
+		PlatformBuffer buffer = buffers.get(platformIdent);
+		if (null == buffer) {
+			buffer = new PlatformBuffer(chunk.getPlatformIdent());
+			PlatformBuffer existing = buffers.putIfAbsent(platformIdent, buffer);
+			if (null != existing) {
+				buffer = existing;
+			}
+		}
+		return buffer.addChunk(chunk);
+	}
+
+	/**
+	 * Drops all not completed sequences of the given agent.
+	 *
+	 * @param platformIdent
+	 *            Platform ident of the agent.
+	 */
+	public void removePlatform(long platformIdent) {
+		PlatformBuffer buffer = buffers.remove(Long.valueOf(platformIdent));
+		if (null != buffer) {
+			buffer.removeAll();
+		}
+	}
+
+	/**
+	 * Drops the sequences not receiving a chunk for {@link #MAX_PENDING_AGE_MILLIS}.
+	 */
+	@Scheduled(fixedRate = REMOVE_EXPIRED_RATE)
+	public void removeExpired() {
+		removeExpired(System.currentTimeMillis());
+	}
+
+	/**
+	 * Drops the sequences not receiving a chunk for {@link #MAX_PENDING_AGE_MILLIS} before the
+	 * given time.
+	 *
+	 * @param currentTime
+	 *            Current time in milliseconds.
+	 */
+	void removeExpired(long currentTime) {
+		for (PlatformBuffer buffer : buffers.values()) {
+			buffer.removeOlderThan(currentTime - MAX_PENDING_AGE_MILLIS);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onApplicationEvent(AgentDeletedEvent event) {
+		removePlatform(event.getPlatformId());
+	}
+
+	/**
+	 * Reports the dropped nodes.
+	 *
+	 * @param platformIdent
+	 *            Platform ident of the sequence.
+	 * @param sequenceId
+	 *            Id of the dropped sequence.
+	 * @param droppedNodes
+	 *            Amount of dropped nodes.
+	 * @param reason
+	 *            Reason for logging.
+	 */
+	private void reportDropped(long platformIdent, long sequenceId, int droppedNodes, String reason) {
+		if (log.isDebugEnabled()) {
+			log.debug("Invocation sequence " + sequenceId + " of platform " + platformIdent + " dropped (" + reason + "). Dropped nodes count: " + droppedNodes);
+		}
+		cmrManagementService.addDroppedDataCount(droppedNodes);
+	}
+
+	/**
+	 * Reassembly buffer of one agent.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	private class PlatformBuffer {
+
+		/**
+		 * Platform ident of the agent.
+		 */
+		private final long platformIdent;
+
+		/**
+		 * Not completed sequences by sequence id, in the order of the last received chunk.
+		 */
+		private final Map<Long, PendingSequence> pending = new LinkedHashMap<>(16, 0.75f, true);
+
+		/**
+		 * Amount of nodes in all not completed sequences.
+		 */
+		private int pendingNodes;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param platformIdent
+		 *            Platform ident of the agent.
+		 */
+		PlatformBuffer(long platformIdent) {
+			this.platformIdent = platformIdent;
+		}
+
+		/**
+		 * Adds the chunk to the sequence it belongs to.
+		 *
+		 * @param chunk
+		 *            Received chunk.
+		 * @return Complete invocation sequence if this was the last chunk, otherwise
+		 *         <code>null</code>.
+		 */
+		synchronized InvocationSequenceData addChunk(InvocationSequenceChunk chunk) {
+			List<InvocationSequenceData> nodes = chunk.getNodes();
+			int chunkSize = (null != nodes) ? nodes.size() : 0;
+			long sequenceId = chunk.getSequenceId();
+			Long key = Long.valueOf(sequenceId);
+
+			PendingSequence sequence = pending.get(key);
+			if (null == sequence) {
+				if (0 != chunk.getChunkIndex()) {
+					// start of the sequence was dropped
+					reportDropped(platformIdent, sequenceId, chunkSize, "missing start");
+					return null;
+				}
+				sequence = new PendingSequence();
+				pending.put(key, sequence);
+			} else if (sequence.nextChunkIndex != chunk.getChunkIndex()) {
+				remove(key, sequence);
+				reportDropped(platformIdent, sequenceId, sequence.nodeCount + chunkSize, "missing chunk");
+				return null;
+			}
+			sequence.lastUpdate = System.currentTimeMillis();
+
+			// make space by dropping the sequences with the oldest received chunk first
+			while ((pendingNodes + chunkSize) > maxPendingNodes) {
+				if (!evictOldest(sequence)) {
+					remove(key, sequence);
+					reportDropped(platformIdent, sequenceId, sequence.nodeCount + chunkSize, "reassembly buffer full");
+					return null;
+				}
+			}
+
+			if (!sequence.add(chunk)) {
+				remove(key, sequence);
+				reportDropped(platformIdent, sequenceId, sequence.nodeCount + chunkSize, "invalid parent index");
+				return null;
+			}
+			pendingNodes += chunkSize;
+
+			if (chunk.isLastChunk()) {
+				remove(key, sequence);
+				return sequence.root;
+			}
+			return null;
+		}
+
+		/**
+		 * Drops the sequences which last chunk was received before the given time.
+		 *
+		 * @param time
+		 *            Time in milliseconds.
+		 */
+		synchronized void removeOlderThan(long time) {
+			Iterator<Map.Entry<Long, PendingSequence>> iterator = pending.entrySet().iterator();
+			while (iterator.hasNext()) {
+				Map.Entry<Long, PendingSequence> entry = iterator.next();
+				PendingSequence sequence = entry.getValue();
+				if (sequence.lastUpdate >= time) {
+					// rest received chunks later
+					return;
+				}
+				iterator.remove();
+				pendingNodes -= sequence.nodeCount;
+				reportDropped(platformIdent, entry.getKey().longValue(), sequence.nodeCount, "expired");
+			}
+		}
+
+		/**
+		 * Drops all not completed sequences.
+		 */
+		synchronized void removeAll() {
+			for (Map.Entry<Long, PendingSequence> entry : pending.entrySet()) {
+				reportDropped(platformIdent, entry.getKey().longValue(), entry.getValue().nodeCount, "agent removed");
+			}
+			pending.clear();
+			pendingNodes = 0;
+		}
+
+		/**
+		 * Removes the pending sequence.
+		 *
+		 * @param key
+		 *            Sequence id.
+		 * @param sequence
+		 *            Sequence.
+		 */
+		private void remove(Long key, PendingSequence sequence) {
+			pending.remove(key);
+			pendingNodes -= sequence.nodeCount;
+		}
+
+		/**
+		 * Drops the not completed sequence with the oldest received chunk.
+		 *
+		 * @param keep
+		 *            Sequence not to drop.
+		 * @return <code>false</code> if there is no other sequence to drop
+		 */
+		private boolean evictOldest(PendingSequence keep) {
+			Iterator<Map.Entry<Long, PendingSequence>> iterator = pending.entrySet().iterator();
+			while (iterator.hasNext()) {
+				Map.Entry<Long, PendingSequence> entry = iterator.next();
+				PendingSequence oldest = entry.getValue();
+				if (oldest != keep) {
+					iterator.remove();
+					pendingNodes -= oldest.nodeCount;
+					reportDropped(platformIdent, entry.getKey().longValue(), oldest.nodeCount, "reassembly buffer full");
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Invocation sequence being reassembled.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	private static class PendingSequence {
+
+		/**
+		 * Root of the sequence.
+		 */
+		private InvocationSequenceData root;
+
+		/**
+		 * Nodes on the path from the root to the last added node.
+		 */
+		private final List<InvocationSequenceData> path = new ArrayList<>();
+
+		/**
+		 * Stream indexes of the nodes in the {@link #path}.
+		 */
+		private final List<Integer> pathIndexes = new ArrayList<>();
+
+		/**
+		 * Amount of successfully added nodes, equal to the stream index of the first node in the
+		 * next chunk.
+		 */
+		private int nodeCount;
+
+		/**
+		 * Index of the next expected chunk.
+		 */
+		private int nextChunkIndex;
+
+		/**
+		 * Time in milliseconds the last chunk was received.
+		 */
+		private long lastUpdate;
+
+		/**
+		 * Connects the nodes of the chunk to the tree. In the depth-first stream the parent of
+		 * each node is always on the path to the previous node.
+		 *
+		 * @param chunk
+		 *            Chunk to add.
+		 * @return <code>false</code> if the chunk contained an invalid parent index
+		 */
+		boolean add(InvocationSequenceChunk chunk) {
+			nextChunkIndex++;
+			List<InvocationSequenceData> nodes = chunk.getNodes();
+			if (null == nodes) {
+				return true;
+			}
+			int[] parentIndexes = chunk.getParentIndexes();
+			for (int i = 0; i < nodes.size(); i++) {
+				InvocationSequenceData node = nodes.get(i);
+				node.setNestedSequences(new ArrayList<InvocationSequenceData>(0));
+				int parentIndex = parentIndexes[i];
+
+				if (parentIndex < 0) {
+					if (null != root) {
+						return false;
+					}
+					root = node;
+				} else {
+					while (!path.isEmpty() && (pathIndexes.get(pathIndexes.size() - 1).intValue() != parentIndex)) {
+						path.remove(path.size() - 1);
+						pathIndexes.remove(pathIndexes.size() - 1);
+					}
+					if (path.isEmpty()) {
+						return false;
+					}
+					InvocationSequenceData parent = path.get(path.size() - 1);
+					node.setParentSequence(parent);
+					parent.getNestedSequences().add(node);
+				}
+
+				path.add(node);
+				pathIndexes.add(Integer.valueOf(nodeCount + i));
+			}
+			nodeCount += nodes.size();
+			return true;
+		}
+	}
+
+}
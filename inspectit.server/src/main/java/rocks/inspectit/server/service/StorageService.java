@@ -3,6 +3,7 @@ package rocks.inspectit.server.service;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -145,6 +146,21 @@ public class StorageService implements IStorageService {
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@MethodLog
+	public int deleteExpiredSegments(StorageData storageData, Date before) throws BusinessException {
+		try {
+			return storageManager.deleteExpiredSegments(storageData, before);
+		} catch (SerializationException e) {
+			throw new TechnicalException("Delete expired segments of the storage " + storageData + ".", StorageErrorCodeEnum.SERIALIZATION_FAILED, e);
+		} catch (IOException e) {
+			throw new TechnicalException("Delete expired segments of the storage " + storageData + ".", StorageErrorCodeEnum.INPUT_OUTPUT_OPERATION_FAILED, e);
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
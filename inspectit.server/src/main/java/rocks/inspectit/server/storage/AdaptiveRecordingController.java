@@ -0,0 +1,497 @@
+package rocks.inspectit.server.storage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Resource;
+
+import org.apache.commons.collections.CollectionUtils;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
+import rocks.inspectit.shared.all.communication.data.SqlStatementData;
+import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.all.spring.logger.Log;
+import rocks.inspectit.shared.cs.indexing.aggregation.impl.SqlStatementDataAggregator;
+import rocks.inspectit.shared.cs.indexing.aggregation.impl.TimerDataAggregator;
+import rocks.inspectit.shared.cs.storage.StorageData;
+import rocks.inspectit.shared.cs.storage.StorageWriter;
+import rocks.inspectit.shared.cs.storage.processor.AbstractDataProcessor;
+import rocks.inspectit.shared.cs.storage.processor.impl.DataAggregatorProcessor;
+
+/**
+ * Controller that adapts the fidelity of the recording to the state of the storage writing.
+ * <p>
+ * The controller periodically checks the amount of queued write tasks, the average write latency
+ * and the free hard drive space. When the writer can not keep up, the recorded timer and SQL data
+ * is aggregated and the invocation children with the small duration are not recorded. Under the
+ * high pressure the invocation sequences are additionally sampled. The fidelity is restored step
+ * by step when the pressure is gone. Every change of the fidelity is passed to the
+ * {@link RecordingCallback} of the recording, that documents it on the recorded storage.
+ *
+ * @author Ivan Senic
+ *
+ */
+@Component
+public class AdaptiveRecordingController {
+
+	/**
+	 * Period of the writing state checks in milliseconds.
+	 */
+	private static final long CHECK_PERIOD = 5000;
+
+	/**
+	 * Aggregation period for the timer and SQL data when fidelity is reduced.
+	 */
+	private static final long AGGREGATION_PERIOD = 5000;
+
+	/**
+	 * Amount of consecutive checks without pressure needed to increase the fidelity by one level.
+	 */
+	private static final int RELAX_CHECKS = 3;
+
+	/**
+	 * The log of this class.
+	 */
+	@Log
+	Logger log;
+
+	/**
+	 * {@link ScheduledExecutorService} for the periodic checks.
+	 */
+	@Resource(name = "scheduledExecutorService")
+	ScheduledExecutorService executorService;
+
+	/**
+	 * If adaptive recording is active.
+	 */
+	@Value("${storage.adaptiveRecordingActive}")
+	boolean active;
+
+	/**
+	 * Amount of queued write tasks above which fidelity is reduced.
+	 */
+	@Value("${storage.adaptiveQueueDepthLimit}")
+	long queueDepthLimit;
+
+	/**
+	 * Average write latency in milliseconds above which fidelity is reduced.
+	 */
+	@Value("${storage.adaptiveWriteLatencyLimit}")
+	long writeLatencyLimit;
+
+	/**
+	 * Min duration in milliseconds of the invocation child to be recorded when fidelity is reduced.
+	 */
+	@Value("${storage.adaptiveMinInvocationChildDuration}")
+	long minInvocationChildDuration;
+
+	/**
+	 * Only every n-th invocation is recorded when invocations are sampled.
+	 */
+	@Value("${storage.adaptiveInvocationSamplingRate}")
+	long invocationSamplingRate;
+
+	/**
+	 * Current fidelity level.
+	 */
+	private volatile FidelityLevel fidelityLevel = FidelityLevel.FULL;
+
+	/**
+	 * Writer of the current recording.
+	 */
+	private StorageWriter storageWriter;
+
+	/**
+	 * Callback of the current recording.
+	 */
+	private RecordingCallback recordingCallback;
+
+	/**
+	 * Data processors of the current recording.
+	 */
+	private volatile Collection<AbstractDataProcessor> recordingDataProcessors = Collections.emptyList();
+
+	/**
+	 * Processors that aggregate the data when fidelity is reduced.
+	 */
+	private volatile List<AbstractDataProcessor> aggregationProcessors = Collections.emptyList();
+
+	/**
+	 * Future of the periodic check.
+	 */
+	private ScheduledFuture<?> checkFuture;
+
+	/**
+	 * Amount of consecutive checks that would allow higher fidelity.
+	 */
+	private int relaxedChecks;
+
+	/**
+	 * Counter of the invocations for sampling.
+	 */
+	private final AtomicLong invocationCounter = new AtomicLong();
+
+	/**
+	 * Starts controlling the recording that writes with the given writer and processors.
+	 *
+	 * @param stWriter
+	 *            Writer of the recording.
+	 * @param processors
+	 *            Data processors of the recording.
+	 * @param callback
+	 *            Callback of the recording that provides the hard drive space state and is informed
+	 *            about the fidelity changes.
+	 */
+	public synchronized void start(StorageWriter stWriter, Collection<AbstractDataProcessor> processors, RecordingCallback callback) {
+		stop();
+		storageWriter = stWriter;
+		recordingCallback = callback;
+		if (null != processors) {
+			recordingDataProcessors = processors;
+		} else {
+			recordingDataProcessors = Collections.emptyList();
+		}
+		fidelityLevel = FidelityLevel.FULL;
+		relaxedChecks = 0;
+		invocationCounter.set(0);
+
+		if (!active) {
+			return;
+		}
+
+		List<AbstractDataProcessor> aggregators = new ArrayList<>(2);
+		aggregators.add(new DataAggregatorProcessor<>(TimerData.class, AGGREGATION_PERIOD, new TimerDataAggregator(), true));
+		aggregators.add(new DataAggregatorProcessor<>(SqlStatementData.class, AGGREGATION_PERIOD, new SqlStatementDataAggregator(true), true));
+		for (AbstractDataProcessor aggregator : aggregators) {
+			aggregator.setStorageWriter(storageWriter);
+		}
+		aggregationProcessors = aggregators;
+
+		Runnable checkRunnable = new Runnable() {
+			@Override
+			public void run() {
+				try {
+					check();
+				} catch (Exception e) { // NOPMD
+					log.warn("Exception occurred during the check of the storage writing state.", e);
+				}
+			}
+		};
+		checkFuture = executorService.scheduleWithFixedDelay(checkRunnable, CHECK_PERIOD, CHECK_PERIOD, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stops controlling the recording and flushes the aggregated data.
+	 */
+	public synchronized void stop() {
+		if (null != checkFuture) {
+			checkFuture.cancel(false);
+			checkFuture = null; // NOPMD
+		}
+		for (AbstractDataProcessor aggregator : aggregationProcessors) {
+			aggregator.flush();
+			aggregator.setStorageWriter(null);
+		}
+		aggregationProcessors = Collections.emptyList();
+		fidelityLevel = FidelityLevel.FULL;
+		storageWriter = null; // NOPMD
+		recordingCallback = null; // NOPMD
+	}
+
+	/**
+	 * Adapts the data to the current fidelity level before it's passed to the recording processors.
+	 *
+	 * @param defaultData
+	 *            Data to record.
+	 * @return Data that should be passed to the recording processors or <code>null</code> if the
+	 *         data should not be processed any more.
+	 */
+	public DefaultData adapt(DefaultData defaultData) {
+		FidelityLevel level = fidelityLevel;
+		if (FidelityLevel.FULL == level) {
+			return defaultData;
+		}
+
+		Class<?> dataClass = defaultData.getClass();
+		if (TimerData.class.equals(dataClass) || SqlStatementData.class.equals(dataClass)) {
+			return aggregate(defaultData);
+		} else if (defaultData instanceof InvocationSequenceData) {
+			if ((FidelityLevel.SAMPLED == level) && ((invocationCounter.getAndIncrement() % Math.max(1, invocationSamplingRate)) != 0)) {
+				return null;
+			}
+			return prune((InvocationSequenceData) defaultData);
+		}
+		return defaultData;
+	}
+
+	/**
+	 * Passes the data to the aggregation processors if data would be recorded, but is not already
+	 * aggregated by the recording processors.
+	 *
+	 * @param defaultData
+	 *            Timer or SQL data.
+	 * @return Data to pass to recording processors or <code>null</code> if data is aggregated.
+	 */
+	private DefaultData aggregate(DefaultData defaultData) {
+		boolean recorded = false;
+		for (AbstractDataProcessor processor : recordingDataProcessors) {
+			if (processor.canBeProcessed(defaultData)) {
+				if (processor instanceof DataAggregatorProcessor) {
+					return defaultData;
+				}
+				recorded = true;
+			}
+		}
+
+		if (recorded) {
+			for (AbstractDataProcessor aggregator : aggregationProcessors) {
+				if (aggregator.canBeProcessed(defaultData)) {
+					aggregator.process(defaultData);
+					return null;
+				}
+			}
+		}
+		return defaultData;
+	}
+
+	/**
+	 * Returns the invocation without the children which duration is below the
+	 * {@link #minInvocationChildDuration}. The children that hold SQL, exception or logging data
+	 * and the parents of the kept children are always kept. The original invocation is never
+	 * changed, if any child is removed a copy of the invocation tree is returned.
+	 *
+	 * @param invocation
+	 *            Invocation to prune.
+	 * @return Pruned invocation.
+	 */
+	InvocationSequenceData prune(InvocationSequenceData invocation) {
+		if (CollectionUtils.isEmpty(invocation.getNestedSequences())) {
+			return invocation;
+		}
+
+		InvocationSequenceData clone = invocation.getClonedInvocationSequence();
+		long childCount = pruneChildren(invocation, clone);
+		if (childCount == invocation.getChildCount()) {
+			return invocation;
+		}
+		return clone;
+	}
+
+	/**
+	 * Adds the clones of the children that should be kept to the clone of the parent.
+	 *
+	 * @param original
+	 *            Original parent.
+	 * @param clone
+	 *            Clone of the parent.
+	 * @return Number of all kept children in the tree below the parent.
+	 */
+	private long pruneChildren(InvocationSequenceData original, InvocationSequenceData clone) {
+		List<InvocationSequenceData> kept = new ArrayList<>();
+		long childCount = 0;
+		for (InvocationSequenceData child : original.getNestedSequences()) {
+			InvocationSequenceData childClone = child.getClonedInvocationSequence();
+			long nestedCount = 0;
+			if (CollectionUtils.isNotEmpty(child.getNestedSequences())) {
+				nestedCount = pruneChildren(child, childClone);
+			} else {
+				childClone.setChildCount(0);
+			}
+
+			if ((nestedCount > 0) || isAlwaysKept(child)) {
+				childClone.setParentSequence(clone);
+				kept.add(childClone);
+				childCount += 1 + nestedCount;
+			}
+		}
+		clone.setNestedSequences(kept);
+		clone.setChildCount(childCount);
+		return childCount;
+	}
+
+	/**
+	 * If the invocation child must be kept regardless of its children.
+	 *
+	 * @param child
+	 *            Child.
+	 * @return <code>true</code> if child is long enough or holds SQL, exception or logging data.
+	 */
+	private boolean isAlwaysKept(InvocationSequenceData child) {
+		return (child.getDuration() >= minInvocationChildDuration) || (null != child.getSqlStatementData()) || CollectionUtils.isNotEmpty(child.getExceptionSensorDataObjects())
+				|| (null != child.getLoggingData());
+	}
+
+	/**
+	 * Checks the state of the writing and changes the fidelity level if needed.
+	 */
+	synchronized void check() {
+		if ((null == storageWriter) || (null == recordingCallback)) {
+			return;
+		}
+
+		long queuedTasks = storageWriter.getQueuedTaskCount();
+		long writeLatency = storageWriter.getAverageWriteLatencyMillis();
+		boolean canWriteMore = recordingCallback.canWriteMore();
+		boolean spaceWarn = recordingCallback.isSpaceWarnActive();
+
+		FidelityLevel target = getTargetLevel(queuedTasks, writeLatency, canWriteMore, spaceWarn);
+		FidelityLevel current = fidelityLevel;
+		FidelityLevel next = current;
+		if (target.ordinal() > current.ordinal()) {
+			// reduce right away
+			next = target;
+			relaxedChecks = 0;
+		} else if (target.ordinal() < current.ordinal()) {
+			// restore one level after enough relaxed checks
+			relaxedChecks++;
+			if (relaxedChecks >= RELAX_CHECKS) {
+				next = FidelityLevel.values()[current.ordinal() - 1];
+				relaxedChecks = 0;
+			}
+		} else {
+			relaxedChecks = 0;
+		}
+
+		if (next != current) {
+			if (next.ordinal() < current.ordinal()) {
+				// write the already aggregated data when fidelity is increased
+				for (AbstractDataProcessor aggregator : aggregationProcessors) {
+					aggregator.flush();
+				}
+			}
+			fidelityLevel = next;
+			String description = next.getDescription() + " from " + new Date() + " (queued writes: " + queuedTasks + ", average write latency: " + writeLatency + " ms, disk space: "
+					+ (canWriteMore ? (spaceWarn ? "low" : "ok") : "exhausted") + ")";
+			log.info("Recording fidelity for the storage " + storageWriter.getStorageData() + " changed to: " + description);
+			recordingCallback.fidelityChanged(storageWriter.getStorageData(), next, description);
+		}
+	}
+
+	/**
+	 * Returns the fidelity level the recording should have for the given writing state.
+	 *
+	 * @param queuedTasks
+	 *            Amount of queued write tasks.
+	 * @param writeLatency
+	 *            Average write latency in milliseconds.
+	 * @param canWriteMore
+	 *            If storage manager allows more writing.
+	 * @param spaceWarn
+	 *            If hard drive space is low.
+	 * @return Target {@link FidelityLevel}.
+	 */
+	FidelityLevel getTargetLevel(long queuedTasks, long writeLatency, boolean canWriteMore, boolean spaceWarn) {
+		if (!canWriteMore || (queuedTasks >= (2 * queueDepthLimit)) || (writeLatency >= (2 * writeLatencyLimit))) {
+			return FidelityLevel.SAMPLED;
+		} else if (spaceWarn || (queuedTasks >= queueDepthLimit) || (writeLatency >= writeLatencyLimit)) {
+			return FidelityLevel.REDUCED;
+		} else {
+			return FidelityLevel.FULL;
+		}
+	}
+
+	/**
+	 * Gets {@link #fidelityLevel}.
+	 *
+	 * @return {@link #fidelityLevel}
+	 */
+	public FidelityLevel getFidelityLevel() {
+		return fidelityLevel;
+	}
+
+	/**
+	 * Callback of the recording controlled by the {@link AdaptiveRecordingController}. Passed on
+	 * the start of the recording, so that the controller does not depend on the storage manager.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	public interface RecordingCallback {
+
+		/**
+		 * If storage manager allows more writing.
+		 *
+		 * @return If storage manager allows more writing.
+		 */
+		boolean canWriteMore();
+
+		/**
+		 * If hard drive space is low.
+		 *
+		 * @return If hard drive space is low.
+		 */
+		boolean isSpaceWarnActive();
+
+		/**
+		 * Informs that the fidelity of the recording has changed.
+		 *
+		 * @param storageData
+		 *            Storage being recorded.
+		 * @param fidelityLevel
+		 *            New fidelity level.
+		 * @param description
+		 *            Description of the change to document on the storage.
+		 */
+		void fidelityChanged(StorageData storageData, FidelityLevel fidelityLevel, String description);
+	}
+
+	/**
+	 * Fidelity levels of the recording. Levels are ordered from the highest to the lowest fidelity.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	public enum FidelityLevel {
+
+		/**
+		 * All data is recorded as defined by the recording properties.
+		 */
+		FULL("Full fidelity"),
+
+		/**
+		 * Timer and SQL data is aggregated and short invocation children are not recorded.
+		 */
+		REDUCED("Reduced fidelity (timer and SQL data aggregated, short invocation children skipped)"),
+
+		/**
+		 * Additionally to the {@link #REDUCED}, only part of the invocations is recorded.
+		 */
+		SAMPLED("Sampled fidelity (timer and SQL data aggregated, short invocation children skipped, invocations sampled)");
+
+		/**
+		 * Description used in the storage label.
+		 */
+		private String description;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param description
+		 *            Description used in the storage label.
+		 */
+		FidelityLevel(String description) {
+			this.description = description;
+		}
+
+		/**
+		 * Gets {@link #description}.
+		 *
+		 * @return {@link #description}
+		 */
+		public String getDescription() {
+			return description;
+		}
+	}
+
+}
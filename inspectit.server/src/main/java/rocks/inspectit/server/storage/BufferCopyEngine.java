@@ -0,0 +1,380 @@
+package rocks.inspectit.server.storage;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Resource;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import rocks.inspectit.server.dao.StorageDataDao;
+import rocks.inspectit.shared.all.cmr.cache.IObjectSizes;
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.spring.logger.Log;
+import rocks.inspectit.shared.cs.storage.StorageData;
+import rocks.inspectit.shared.cs.storage.StorageWriter;
+import rocks.inspectit.shared.cs.storage.processor.AbstractDataProcessor;
+
+/**
+ * Engine that copies larger amount of data (like the complete buffer content) to a storage.
+ * <p>
+ * The buffer of an agent is queried once and the result sorted by id is walked in chunks of
+ * {@link #chunkSize} elements. The system data of the agent is copied after the buffer data in
+ * the chunks of the same size, each chunk loaded from the database starting after the last id of
+ * the previous one. The last system information data of the agent is copied at the end. In each
+ * chunk the top-level processors are executed in parallel, one task per
+ * processor, so that a processor (and its chained processors) is never used by two threads at the
+ * same time. The engine waits for the chunk to be written before loading the next one and pauses
+ * between the chunks if needed to respect the configured bytes per second and CPU share, so that
+ * copying does not degrade the ingest of the live data.
+ *
+ * @author Ivan Senic
+ *
+ */
+@Component
+public class BufferCopyEngine {
+
+	/**
+	 * The log of this class.
+	 */
+	@Log
+	Logger log;
+
+	/**
+	 * Object sizes for estimating the amount of bytes copied.
+	 */
+	@Autowired
+	IObjectSizes objectSizes;
+
+	/**
+	 * Storage data DAO for loading the chunks.
+	 */
+	@Autowired
+	StorageDataDao storageDataDao;
+
+	/**
+	 * Executor for parallel processing of the chunks.
+	 */
+	@Resource(name = "storageCopyExecutorService")
+	ExecutorService executorService;
+
+	/**
+	 * Amount of elements in one chunk.
+	 */
+	@Value("${storage.copyChunkSize}")
+	int chunkSize;
+
+	/**
+	 * Max bytes per second the copy can process. Zero means no limit.
+	 */
+	@Value("${storage.copyMaxBytesPerSecond}")
+	long maxBytesPerSecond;
+
+	/**
+	 * Max share of total CPU time the copy can use.
+	 */
+	@Value("${storage.copyMaxCpuShare}")
+	float maxCpuShare;
+
+	/**
+	 * Copies the data of one agent to the storage writer by using the given processors.
+	 *
+	 * @param storageData
+	 *            Storage being written, used only for reporting.
+	 * @param storageWriter
+	 *            Writer to write to.
+	 * @param platformId
+	 *            Id of the agent to copy data for.
+	 * @param fromDate
+	 *            Date to copy data from. Can be <code>null</code> for no restriction.
+	 * @param toDate
+	 *            Date to copy data to. Can be <code>null</code> for no restriction.
+	 * @param processors
+	 *            Processors to process data with. Can be <code>null</code> or empty, and in this
+	 *            case direct write will be executed.
+	 * @return Amount of elements copied.
+	 */
+	public long copy(StorageData storageData, StorageWriter storageWriter, long platformId, Date fromDate, Date toDate, Collection<AbstractDataProcessor> processors) {
+		List<AbstractDataProcessor> processorList = new ArrayList<>();
+		if (null != processors) {
+			processorList.addAll(processors);
+		}
+
+		CopyThrottle throttle = new CopyThrottle(maxBytesPerSecond, maxCpuShare, Runtime.getRuntime().availableProcessors());
+		int size = Math.max(1, chunkSize);
+		int chunks = 0;
+		long copied = 0;
+
+		for (AbstractDataProcessor processor : processorList) {
+			processor.setStorageWriter(storageWriter);
+		}
+
+		try {
+			boolean interrupted = false;
+
+			// first the buffer chunk by chunk
+			List<DefaultData> bufferData = storageDataDao.getBufferDataForAgent(platformId, fromDate, toDate);
+			for (int i = 0; (i < bufferData.size()) && !interrupted; i += size) {
+				List<DefaultData> chunkData = bufferData.subList(i, Math.min(bufferData.size(), i + size));
+
+				chunks++;
+				copied += chunkData.size();
+				interrupted = !copyChunk(storageData, storageWriter, processorList, chunkData, throttle, chunks, copied);
+			}
+
+			// then the system data from the database
+			long minId = 0;
+			while (!interrupted) {
+				List<DefaultData> chunkData = storageDataDao.getSystemDataForAgent(platformId, fromDate, toDate, minId, size);
+				if (chunkData.isEmpty()) {
+					break;
+				}
+
+				chunks++;
+				copied += chunkData.size();
+				interrupted = !copyChunk(storageData, storageWriter, processorList, chunkData, throttle, chunks, copied);
+
+				if (chunkData.size() < size) {
+					break;
+				}
+				minId = chunkData.get(chunkData.size() - 1).getId() + 1;
+			}
+
+			// since we only have one system information data per agent connection
+			// we need to manually add it as we can not be sure that the time stamp of the oldest
+			// element in the buffer will include the system data send on the agent connection
+			if (!interrupted) {
+				List<DefaultData> chunkData = new ArrayList<DefaultData>(storageDataDao.getSystemInformationData(Collections.singletonList(platformId)));
+				if (!chunkData.isEmpty()) {
+					chunks++;
+					copied += chunkData.size();
+					interrupted = !copyChunk(storageData, storageWriter, processorList, chunkData, throttle, chunks, copied);
+				}
+			}
+
+			if (interrupted) {
+				log.warn("Copy to storage " + storageData + " interrupted after " + chunks + " chunks and " + copied + " elements.");
+			}
+		} finally {
+			// at the end flush the data from processors and reset its storage writer
+			for (AbstractDataProcessor processor : processorList) {
+				waitForWrites(processor.flush());
+				processor.setStorageWriter(null);
+			}
+		}
+
+		log.info("Copy of " + copied + " elements of the agent " + platformId + " in " + chunks + " chunks to the storage " + storageData + " done.");
+		return copied;
+	}
+
+	/**
+	 * Processes one chunk, waits for it to be written and pauses if needed by the throttle.
+	 *
+	 * @param storageData
+	 *            Storage being written, used only for reporting.
+	 * @param storageWriter
+	 *            Writer to write to.
+	 * @param processorList
+	 *            Processors to process data with, if empty direct write will be executed.
+	 * @param chunkData
+	 *            Data of the chunk.
+	 * @param throttle
+	 *            Throttle of the copy.
+	 * @param chunk
+	 *            Number of the chunk, used only for reporting.
+	 * @param copied
+	 *            Amount of elements copied including this chunk, used only for reporting.
+	 * @return <code>false</code> if the copy was interrupted while pausing, <code>true</code>
+	 *         otherwise.
+	 */
+	private boolean copyChunk(StorageData storageData, StorageWriter storageWriter, List<AbstractDataProcessor> processorList, List<DefaultData> chunkData, CopyThrottle throttle, int chunk,
+			long copied) {
+		long start = System.nanoTime();
+
+		List<Future<ChunkResult>> taskFutures = new ArrayList<>();
+		if (processorList.isEmpty()) {
+			taskFutures.add(executorService.submit(new ChunkTask(storageWriter, null, chunkData)));
+		} else {
+			for (AbstractDataProcessor processor : processorList) {
+				taskFutures.add(executorService.submit(new ChunkTask(storageWriter, processor, chunkData)));
+			}
+		}
+
+		long cpuNanos = 0;
+		for (Future<ChunkResult> taskFuture : taskFutures) {
+			ChunkResult result = get(taskFuture);
+			if (null != result) {
+				cpuNanos += result.cpuNanos;
+				waitForWrites(result.writeFutures);
+			}
+		}
+
+		long bytes = 0;
+		if (maxBytesPerSecond > 0) {
+			for (DefaultData defaultData : chunkData) {
+				bytes += defaultData.getObjectSize(objectSizes);
+			}
+		}
+
+		long pauseNanos = throttle.getPauseNanos(bytes, cpuNanos, System.nanoTime() - start);
+
+		if (log.isDebugEnabled()) {
+			log.debug("Copy to storage " + storageData + ": chunk " + chunk + " processed (" + chunkData.size() + " elements, " + copied + " in total, "
+					+ TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms, pausing " + TimeUnit.NANOSECONDS.toMillis(pauseNanos) + " ms).");
+		}
+
+		if (pauseNanos > 0) {
+			try {
+				TimeUnit.NANOSECONDS.sleep(pauseNanos);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Waits for the given writing futures.
+	 *
+	 * @param futures
+	 *            Futures to wait for.
+	 */
+	private void waitForWrites(Collection<Future<Void>> futures) {
+		for (Future<Void> future : futures) {
+			get(future);
+		}
+	}
+
+	/**
+	 * Waits for the future and returns its result. Logs the exception if one occurs.
+	 *
+	 * @param <T>
+	 *            Type of result.
+	 * @param future
+	 *            Future.
+	 * @return Result or <code>null</code> if execution failed or waiting was interrupted.
+	 */
+	private <T> T get(Future<T> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (ExecutionException e) {
+			log.warn("Exception occurred during the copy of data to storage.", e.getCause());
+			return null;
+		}
+	}
+
+	/**
+	 * Task that processes one chunk with one processor.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	private static class ChunkTask implements Callable<ChunkResult> {
+
+		/**
+		 * Writer to use when no processor is given.
+		 */
+		private final StorageWriter storageWriter;
+
+		/**
+		 * Processor, can be <code>null</code> for direct write.
+		 */
+		private final AbstractDataProcessor processor;
+
+		/**
+		 * Data to process.
+		 */
+		private final List<DefaultData> chunkData;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param storageWriter
+		 *            Writer to use when no processor is given.
+		 * @param processor
+		 *            Processor, can be <code>null</code> for direct write.
+		 * @param chunkData
+		 *            Data to process.
+		 */
+		ChunkTask(StorageWriter storageWriter, AbstractDataProcessor processor, List<DefaultData> chunkData) {
+			this.storageWriter = storageWriter;
+			this.processor = processor;
+			this.chunkData = chunkData;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public ChunkResult call() throws Exception {
+			ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+			boolean cpuTimeSupported = threadMXBean.isCurrentThreadCpuTimeSupported() && threadMXBean.isThreadCpuTimeEnabled();
+			long startCpu = cpuTimeSupported ? threadMXBean.getCurrentThreadCpuTime() : System.nanoTime();
+
+			List<Future<Void>> writeFutures = new ArrayList<>();
+			for (DefaultData defaultData : chunkData) {
+				if (null != processor) {
+					writeFutures.addAll(processor.process(defaultData));
+				} else {
+					Future<Void> future = storageWriter.write(defaultData);
+					if (null != future) {
+						writeFutures.add(future);
+					}
+				}
+			}
+
+			long endCpu = cpuTimeSupported ? threadMXBean.getCurrentThreadCpuTime() : System.nanoTime();
+			return new ChunkResult(writeFutures, endCpu - startCpu);
+		}
+	}
+
+	/**
+	 * Result of the {@link ChunkTask}.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	private static class ChunkResult {
+
+		/**
+		 * Futures of the submitted writes.
+		 */
+		private final Collection<Future<Void>> writeFutures;
+
+		/**
+		 * CPU time used in nanoseconds.
+		 */
+		private final long cpuNanos;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param writeFutures
+		 *            Futures of the submitted writes.
+		 * @param cpuNanos
+		 *            CPU time used in nanoseconds.
+		 */
+		ChunkResult(Collection<Future<Void>> writeFutures, long cpuNanos) {
+			this.writeFutures = writeFutures;
+			this.cpuNanos = cpuNanos;
+		}
+	}
+
+}
@@ -2,11 +2,14 @@ package rocks.inspectit.server.storage;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
@@ -14,12 +17,15 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import javax.annotation.PostConstruct;
 
@@ -34,6 +40,7 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
 
 import rocks.inspectit.server.cache.IBuffer;
 import rocks.inspectit.server.dao.StorageDataDao;
@@ -47,7 +54,10 @@ import rocks.inspectit.shared.all.spring.logger.Log;
 import rocks.inspectit.shared.all.version.VersionService;
 import rocks.inspectit.shared.cs.cmr.service.IServerStatusService;
 import rocks.inspectit.shared.cs.communication.data.cmr.WritingStatus;
+import rocks.inspectit.shared.cs.indexing.storage.IStorageTreeComponent;
+import rocks.inspectit.shared.cs.indexing.storage.impl.StorageTimeSegments;
 import rocks.inspectit.shared.cs.storage.IStorageData;
+import rocks.inspectit.shared.cs.storage.LocalStorageData;
 import rocks.inspectit.shared.cs.storage.StorageData;
 import rocks.inspectit.shared.cs.storage.StorageData.StorageState;
 import rocks.inspectit.shared.cs.storage.StorageFileType;
@@ -121,6 +131,12 @@ public class CmrStorageManager extends StorageManager implements ApplicationList
 	@Autowired
 	CmrStorageRecorder storageRecorder;
 
+	/**
+	 * {@link BufferCopyEngine} for copying the buffer data.
+	 */
+	@Autowired
+	BufferCopyEngine bufferCopyEngine;
+
 	/**
 	 * {@link IServerStatusService}.
 	 */
@@ -252,6 +268,81 @@ public class CmrStorageManager extends StorageManager implements ApplicationList
 		}
 	}
 
+	/**
+	 * Deletes the time segments of the storage that hold only data older than the given date. Only
+	 * storages written with the time partitioned channels have segments, for other storages nothing
+	 * is deleted. The index files are rewritten without the expired segments and the channel files
+	 * that are not referenced any more are deleted.
+	 *
+	 * @param storageData
+	 *            Storage to delete segments from.
+	 * @param before
+	 *            Segments which newest data is older than this date are deleted.
+	 * @return Number of deleted channel files.
+	 * @throws BusinessException
+	 *             If storage does not exist or is not closed.
+	 * @throws IOException
+	 *             If {@link IOException} occurs.
+	 * @throws SerializationException
+	 *             If index files can not be de-serialized or serialized.
+	 */
+	public int deleteExpiredSegments(StorageData storageData, Date before) throws BusinessException, IOException, SerializationException {
+		StorageData local = getLocalStorageDataObject(storageData);
+		synchronized (local) {
+			if (!local.isStorageClosed()) {
+				throw new BusinessException("Delete expired segments of the storage " + local + ".", StorageErrorCodeEnum.STORAGE_IS_NOT_CLOSED);
+			}
+
+			ISerializer serializer = getSerializationManagerProvider().createSerializer();
+			Set<Integer> expiredChannels = new HashSet<>();
+			Set<Integer> usedChannels = new HashSet<>();
+			try (DirectoryStream<Path> indexFiles = Files.newDirectoryStream(getStoragePath(local), "*" + StorageFileType.INDEX_FILE.getExtension())) {
+				for (Path indexFile : indexFiles) {
+					Object deserialized;
+					try (Input input = new Input(Files.newInputStream(indexFile, StandardOpenOption.READ))) {
+						deserialized = serializer.deserialize(input);
+					}
+					if (!(deserialized instanceof IStorageTreeComponent)) {
+						continue;
+					}
+
+					IStorageTreeComponent<?> indexingTree = (IStorageTreeComponent<?>) deserialized;
+					Set<Integer> removedChannels = StorageTimeSegments.removeSegmentsBefore(indexingTree, before.getTime());
+					if (!removedChannels.isEmpty()) {
+						expiredChannels.addAll(removedChannels);
+						if (StorageTimeSegments.getSegments(indexingTree).isEmpty()) {
+							Files.delete(indexFile);
+						} else {
+							// write to temporary file first so that index is never left half written
+							Path tmpFile = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+							try (Output output = new Output(Files.newOutputStream(tmpFile))) {
+								serializer.serialize(indexingTree, output);
+							}
+							Files.move(tmpFile, indexFile, StandardCopyOption.REPLACE_EXISTING);
+						}
+					}
+					StorageTimeSegments.collectChannelIds(indexingTree, usedChannels);
+				}
+			}
+
+			expiredChannels.removeAll(usedChannels);
+			if (!expiredChannels.isEmpty()) {
+				for (Integer channelId : expiredChannels) {
+					Files.deleteIfExists(getChannelPath(local, channelId.intValue()));
+				}
+
+				// cached query results could contain the deleted data
+				Path cacheDir = getCachedDataPath(local, 0).getParent();
+				if (Files.exists(cacheDir)) {
+					Files.walkFileTree(cacheDir, new DeleteFileVisitor());
+				}
+				updateExistingStorageSize(local);
+				log.info("Deleted " + expiredChannels.size() + " channel files of the time segments older than " + before + " from the storage " + local + ".");
+			}
+			return expiredChannels.size();
+		}
+	}
+
 	/**
 	 * If the recording is active, returns the storage that is used for storing recording data.
 	 *
@@ -464,8 +555,7 @@ public class CmrStorageManager extends StorageManager implements ApplicationList
 			}
 
 			for (Long platformId : platformIdents) {
-				List<DefaultData> toWriteList = storageDataDao.getAllDefaultDataForAgent(platformId.longValue(), fromDate, toDate);
-				this.writeToStorage(local, toWriteList, dataProcessors, true);
+				this.copyToStorage(local, platformId.longValue(), fromDate, toDate, dataProcessors);
 			}
 		}
 
@@ -475,6 +565,34 @@ public class CmrStorageManager extends StorageManager implements ApplicationList
 		updateExistingStorageSize(local);
 	}
 
+	/**
+	 * Copies the data of the agent to the storage with the {@link BufferCopyEngine}, thus in
+	 * chunks, in parallel and throttled.
+	 *
+	 * @param storageData
+	 *            Storage to copy data to, must be opened.
+	 * @param platformId
+	 *            Id of the agent to copy data for.
+	 * @param fromDate
+	 *            Date to copy data from. Can be <code>null</code> for no restriction.
+	 * @param toDate
+	 *            Date to copy data to. Can be <code>null</code> for no restriction.
+	 * @param dataProcessors
+	 *            Processors that will be used for data writing.
+	 * @throws BusinessException
+	 *             If storage is used as a recording storage or it's closed.
+	 */
+	private void copyToStorage(StorageData storageData, long platformId, Date fromDate, Date toDate, Collection<AbstractDataProcessor> dataProcessors) throws BusinessException {
+		StorageWriter writer = openedStoragesMap.get(storageData);
+		if (writer != null) {
+			bufferCopyEngine.copy(storageData, writer, platformId, fromDate, toDate, dataProcessors);
+		} else if (Objects.equals(storageData, recorderStorageData)) {
+			throw new BusinessException("Write data to storage " + storageData + ".", StorageErrorCodeEnum.WRITE_FAILED);
+		} else {
+			throw new BusinessException("Write data to storage " + storageData + ".", StorageErrorCodeEnum.STORAGE_ALREADY_CLOSED);
+		}
+	}
+
 	/**
 	 * Copies set of template data to storage. The storage does not have to be opened before action
 	 * can be executed (storage will be created/opened first in this case)
@@ -976,23 +1094,150 @@ public class CmrStorageManager extends StorageManager implements ApplicationList
 			Path parentDir = (Path) storageUploadPath.getValue();
 			StorageData storageData = (StorageData) uploadedStorageData.getValue();
 			if ((null != storageData) && (null != parentDir)) {
-				Path storageDir = getStoragePath(storageData);
-				if (existingStoragesSet.add(storageData)) {
-					if (Files.notExists(storageDir)) {
-						printStorageCmrVersionWarn(storageData);
-
-						Files.walkFileTree(parentDir, new CopyMoveFileVisitor(parentDir, storageDir, true));
-						Path localInformation = getStoragePath(storageData).resolve(storageData.getId() + StorageFileType.LOCAL_STORAGE_FILE.getExtension());
-						Files.deleteIfExists(localInformation);
-						writeStorageDataToDisk(storageData);
-					} else {
-						throw new IOException("Directory to place uploaded storage already exists.");
+				moveUploadedStorageDir(parentDir, storageData);
+			}
+		}
+	}
+
+	/**
+	 * Writes the given closed storage as a zip to the given output stream. The storage files are
+	 * compressed in parallel and streamed directly, thus no temporary zip file is created. The
+	 * written zip has the same format as the storage export of the UI and can be imported with
+	 * {@link #importStorage(InputStream)} or via the UI. The output stream will not be closed.
+	 *
+	 * @param storageData
+	 *            Storage to export.
+	 * @param outputStream
+	 *            Stream to write the zip to.
+	 * @throws BusinessException
+	 *             If storage does not exist or is not closed.
+	 * @throws IOException
+	 *             If {@link IOException} occurs.
+	 * @throws SerializationException
+	 *             If serialization of the storage information fails.
+	 */
+	public void exportStorage(StorageData storageData, OutputStream outputStream) throws BusinessException, IOException, SerializationException {
+		StorageData local = getLocalStorageDataObject(storageData);
+		if (!local.isStorageClosed()) {
+			throw new BusinessException("Export the storage " + local + ".", StorageErrorCodeEnum.STORAGE_IS_NOT_CLOSED);
+		}
+
+		ZipOutputStream zos = new ZipOutputStream(outputStream);
+		zipFiles(getStoragePath(local), zos);
+
+		// add local storage data info so that the zip can be imported
+		LocalStorageData localStorageData = new LocalStorageData(local);
+		localStorageData.setFullyDownloaded(true);
+		zos.putNextEntry(new ZipEntry(localStorageData.getId() + StorageFileType.LOCAL_STORAGE_FILE.getExtension()));
+		serializeDataToOutputStream(localStorageData, zos, false);
+		zos.closeEntry();
+		zos.finish();
+	}
+
+	/**
+	 * Imports the storage from the zip provided via the input stream. The zip is unpacked while
+	 * being read to the temporary directory in the upload folder, that is then moved to the
+	 * storage location. Thus, no temporary zip file is needed. The input stream will not be
+	 * closed.
+	 *
+	 * @param inputStream
+	 *            Stream providing the zipped storage.
+	 * @return Imported storage or <code>null</code> if the storage already exists on the CMR.
+	 * @throws IOException
+	 *             If {@link IOException} occurs.
+	 * @throws BusinessException
+	 *             If there is not enough space for the import or zip does not contain the storage.
+	 * @throws SerializationException
+	 *             If serialization fails.
+	 */
+	public StorageData importStorage(InputStream inputStream) throws IOException, BusinessException, SerializationException {
+		if (!canWriteMore()) {
+			throw new BusinessException("Import the storage.", StorageErrorCodeEnum.LOW_DISK_SPACE);
+		}
+
+		Path importDir = Paths.get(this.getStorageUploadsFolder()).resolve(getRandomUUIDString());
+		try {
+			unzipStorageData(inputStream, importDir);
+
+			final MutableObject localStorageData = new MutableObject();
+			final ISerializer serializer = getSerializationManagerProvider().createSerializer();
+			Files.walkFileTree(importDir, new SimpleFileVisitor<Path>() {
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+					if (!file.toString().endsWith(StorageFileType.LOCAL_STORAGE_FILE.getExtension())) {
+						return FileVisitResult.CONTINUE;
 					}
-				} else {
-					log.info("Uploaded storage on path " + parentDir.toString() + " contains the storage that is already available on the CMR. Dir will be deleted.");
-					Files.walkFileTree(parentDir, new DeleteFileVisitor());
+
+					try (Input input = new Input(Files.newInputStream(file, StandardOpenOption.READ))) {
+						Object deserialized = serializer.deserialize(input);
+						if (deserialized instanceof IStorageData) {
+							localStorageData.setValue(deserialized);
+							return FileVisitResult.TERMINATE;
+						}
+					} catch (SerializationException e) {
+						log.warn("Error de-serializing local storage file.", e);
+					}
+					return FileVisitResult.CONTINUE;
+				}
+			});
+
+			if (null == localStorageData.getValue()) {
+				throw new BusinessException("Import the storage.", StorageErrorCodeEnum.FILE_DOES_NOT_EXIST);
+			}
+
+			StorageData storageData = new StorageData((IStorageData) localStorageData.getValue());
+			if (moveUploadedStorageDir(importDir, storageData)) {
+				return storageData;
+			} else {
+				return null;
+			}
+		} finally {
+			if (Files.exists(importDir)) {
+				Files.walkFileTree(importDir, new DeleteFileVisitor());
+			}
+		}
+	}
+
+	/**
+	 * Moves the directory holding the uploaded storage files to the storage location and
+	 * registers the storage as existing. If the storage is already existing on the CMR, the
+	 * uploaded directory is deleted.
+	 *
+	 * @param parentDir
+	 *            Directory holding uploaded storage files.
+	 * @param storageData
+	 *            Uploaded storage.
+	 * @return <code>true</code> if the storage was added, <code>false</code> if it already
+	 *         existed on the CMR.
+	 * @throws IOException
+	 *             If {@link IOException} occurs or storage directory already exists.
+	 * @throws SerializationException
+	 *             If serialization fails.
+	 */
+	private boolean moveUploadedStorageDir(Path parentDir, StorageData storageData) throws IOException, SerializationException {
+		Path storageDir = getStoragePath(storageData);
+		if (existingStoragesSet.add(storageData)) {
+			if (Files.notExists(storageDir)) {
+				printStorageCmrVersionWarn(storageData);
+
+				try {
+					// rename is enough if upload folder is on the same file store
+					Files.move(parentDir, storageDir, StandardCopyOption.ATOMIC_MOVE);
+				} catch (IOException e) {
+					Files.walkFileTree(parentDir, new CopyMoveFileVisitor(parentDir, storageDir, true));
 				}
+				Path localInformation = getStoragePath(storageData).resolve(storageData.getId() + StorageFileType.LOCAL_STORAGE_FILE.getExtension());
+				Files.deleteIfExists(localInformation);
+				writeStorageDataToDisk(storageData);
+				return true;
+			} else {
+				existingStoragesSet.remove(storageData);
+				throw new IOException("Directory to place uploaded storage already exists.");
 			}
+		} else {
+			log.info("Uploaded storage on path " + parentDir.toString() + " contains the storage that is already available on the CMR. Dir will be deleted.");
+			Files.walkFileTree(parentDir, new DeleteFileVisitor());
+			return false;
 		}
 	}
 
@@ -1095,6 +1340,7 @@ public class CmrStorageManager extends StorageManager implements ApplicationList
 		}
 
 		final ISerializer serializer = getSerializationManagerProvider().createSerializer();
+		final List<StorageData> storagesToRecover = new ArrayList<>();
 		try {
 			Files.walkFileTree(defaultDirectory, new SimpleFileVisitor<Path>() {
 				@Override
@@ -1113,6 +1359,9 @@ public class CmrStorageManager extends StorageManager implements ApplicationList
 								if (storageData.getState() == StorageState.CLOSED) {
 									printStorageCmrVersionWarn(storageData);
 									existingStoragesSet.add(storageData);
+								} else if (Files.exists(file.resolveSibling(StorageFileType.JOURNAL_FILE.getDefaultFileName() + StorageFileType.JOURNAL_FILE.getExtension()))) {
+									// not finalized storage with the journal can be recovered
+									storagesToRecover.add(storageData);
 								}
 							}
 						} catch (IOException e) {
@@ -1131,6 +1380,34 @@ public class CmrStorageManager extends StorageManager implements ApplicationList
 		} catch (IOException e) {
 			log.error("Error exploring default storage directory. Directory path: " + defaultDirectory.toString() + ".", e);
 		}
+
+		for (StorageData storageData : storagesToRecover) {
+			recoverStorage(storageData);
+		}
+	}
+
+	/**
+	 * Recovers the storage that was not finalized because the CMR was stopped during the writing
+	 * or recording. The indexing trees of the storage are rebuilt from the write journal and the
+	 * storage is closed and registered as existing.
+	 *
+	 * @param storageData
+	 *            Storage to recover.
+	 */
+	private void recoverStorage(StorageData storageData) {
+		log.info("Storage " + storageData + " was not finalized. Trying to recover the storage from the write journal.");
+		try {
+			CmrStorageWriter storageWriter = storageWriterProvider.getCmrStorageWriter();
+			if (storageWriter.recoverFromJournal(storageData)) {
+				storageData.markClosed();
+				writeStorageDataToDisk(storageData);
+				printStorageCmrVersionWarn(storageData);
+				existingStoragesSet.add(storageData);
+				log.info("Storage " + storageData + " successfully recovered.");
+			}
+		} catch (IOException | SerializationException e) {
+			log.error("Storage " + storageData + " could not be recovered.", e);
+		}
 	}
 
 	/**
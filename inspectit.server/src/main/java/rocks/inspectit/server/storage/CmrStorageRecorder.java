@@ -18,11 +18,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import rocks.inspectit.server.dao.StorageDataDao;
+import rocks.inspectit.server.storage.AdaptiveRecordingController.FidelityLevel;
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.communication.data.SystemInformationData;
 import rocks.inspectit.shared.all.spring.logger.Log;
 import rocks.inspectit.shared.cs.storage.StorageData;
 import rocks.inspectit.shared.cs.storage.StorageWriter;
+import rocks.inspectit.shared.cs.storage.label.StringStorageLabel;
+import rocks.inspectit.shared.cs.storage.label.type.impl.RecordingFidelityLabelType;
 import rocks.inspectit.shared.cs.storage.processor.AbstractDataProcessor;
 import rocks.inspectit.shared.cs.storage.recording.RecordingProperties;
 import rocks.inspectit.shared.cs.storage.recording.RecordingState;
@@ -55,6 +58,12 @@ public class CmrStorageRecorder {
 	@Autowired
 	StorageDataDao storageDataDao;
 
+	/**
+	 * Controller of the recording fidelity.
+	 */
+	@Autowired
+	AdaptiveRecordingController adaptiveRecordingController;
+
 	/**
 	 * {@link ExecutorService} for tasks of the tree handling.
 	 */
@@ -97,17 +106,19 @@ public class CmrStorageRecorder {
 	 * {@link AbstractDataProcessor}s that are defined in the {@link RecordingProperties} for this
 	 * {@link StorageWriter}. Processor define which data will be stored, when and in which format.
 	 * <p>
-	 * If the processors are not set, then the normal write will be executed.
+	 * If the processors are not set, then the normal write will be executed. Before processing the
+	 * data is adapted to the current recording fidelity by the {@link AdaptiveRecordingController}.
 	 *
 	 * @param defaultData
 	 *            Object to be processed.
 	 */
 	public void record(DefaultData defaultData) {
 		if (isRecordingOn() && storageWriter.isWritingOn()) {
+			DefaultData toRecord = adaptiveRecordingController.adapt(defaultData);
 			Collection<AbstractDataProcessor> recordingDataProcessors = recordingProperties.getRecordingDataProcessors();
-			if (CollectionUtils.isNotEmpty(recordingDataProcessors)) {
+			if ((null != toRecord) && CollectionUtils.isNotEmpty(recordingDataProcessors)) {
 				for (AbstractDataProcessor dataProcessor : recordingDataProcessors) {
-					dataProcessor.process(defaultData);
+					dataProcessor.process(toRecord);
 				}
 			}
 			involvedAgentsSet.add(defaultData.getPlatformIdent());
@@ -181,6 +192,7 @@ public class CmrStorageRecorder {
 					abstractDataProcessor.setStorageWriter(storageWriter);
 				}
 			}
+			adaptiveRecordingController.start(storageWriter, recordingDataProcessors, new FidelityRecordingCallback());
 
 			// update state
 			recordingState = RecordingState.ON;
@@ -225,6 +237,8 @@ public class CmrStorageRecorder {
 				stopRecordingFuture = null; // NOPMD
 			}
 
+			adaptiveRecordingController.stop();
+
 			Collection<AbstractDataProcessor> recordingDataProcessors = recordingProperties.getRecordingDataProcessors();
 			if (null != recordingDataProcessors) {
 				for (AbstractDataProcessor abstractDataProcessor : recordingDataProcessors) {
@@ -309,4 +323,43 @@ public class CmrStorageRecorder {
 		return recordingProperties;
 	}
 
+	/**
+	 * Callback for the {@link AdaptiveRecordingController} that checks the hard drive space and
+	 * documents the fidelity changes with the {@link RecordingFidelityLabelType} label on the
+	 * recorded storage.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	private class FidelityRecordingCallback implements AdaptiveRecordingController.RecordingCallback {
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean canWriteMore() {
+			return cmrStorageManager.canWriteMore();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean isSpaceWarnActive() {
+			return cmrStorageManager.isSpaceWarnActive();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void fidelityChanged(StorageData storageData, FidelityLevel fidelityLevel, String description) {
+			try {
+				cmrStorageManager.addLabelToStorage(storageData, new StringStorageLabel(description, new RecordingFidelityLabelType()), false);
+			} catch (Exception e) { // NOPMD
+				log.warn("Recording fidelity label could not be added to the storage " + storageData + ".", e);
+			}
+		}
+	}
+
 }
@@ -118,6 +118,14 @@ public class CmrStorageWriter extends StorageWriter {
 		super.writeNonDefaultDataObject(businessTransactions, StorageFileType.BUSINESS_CONTEXT_FILE.getDefaultFileName() + StorageFileType.BUSINESS_CONTEXT_FILE.getExtension());
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void onRecoveredData(DefaultData defaultData) {
+		postWriteOperations(defaultData);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
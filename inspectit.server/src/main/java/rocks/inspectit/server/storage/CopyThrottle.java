@@ -0,0 +1,84 @@
+package rocks.inspectit.server.storage;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throttle used when copying data to the storage. Calculates how long the copy should pause after
+ * processing a chunk so that the defined amount of bytes per second and the defined share of the
+ * CPU time are not exceeded.
+ * <p>
+ * This class is not thread-safe, it's intended to be used by one copy action.
+ *
+ * @author Ivan Senic
+ *
+ */
+public class CopyThrottle {
+
+	/**
+	 * Max bytes per second, zero or negative means no limit.
+	 */
+	private final long maxBytesPerSecond;
+
+	/**
+	 * Max share of the total CPU time that copy can use, in range (0, 1]. Values out of range mean
+	 * no limit.
+	 */
+	private final float maxCpuShare;
+
+	/**
+	 * Number of available processors.
+	 */
+	private final int availableProcessors;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param maxBytesPerSecond
+	 *            Max bytes per second, zero or negative means no limit.
+	 * @param maxCpuShare
+	 *            Max share of the total CPU time that copy can use, in range (0, 1]. Values out of
+	 *            range mean no limit.
+	 * @param availableProcessors
+	 *            Number of available processors.
+	 */
+	public CopyThrottle(long maxBytesPerSecond, float maxCpuShare, int availableProcessors) {
+		this.maxBytesPerSecond = maxBytesPerSecond;
+		this.maxCpuShare = maxCpuShare;
+		this.availableProcessors = Math.max(1, availableProcessors);
+	}
+
+	/**
+	 * Returns the time in nanoseconds the copy should pause after processing one chunk.
+	 *
+	 * @param bytes
+	 *            Bytes processed in the chunk.
+	 * @param cpuNanos
+	 *            CPU time in nanoseconds used to process the chunk summed over all threads.
+	 * @param elapsedNanos
+	 *            Wall clock time in nanoseconds the chunk processing took.
+	 * @return Pause in nanoseconds, never negative.
+	 */
+	public long getPauseNanos(long bytes, long cpuNanos, long elapsedNanos) {
+		long requiredNanos = 0;
+
+		if ((maxBytesPerSecond > 0) && (bytes > 0)) {
+			requiredNanos = Math.max(requiredNanos, (long) ((bytes * (double) TimeUnit.SECONDS.toNanos(1)) / maxBytesPerSecond));
+		}
+
+		if ((maxCpuShare > 0) && (maxCpuShare < 1) && (cpuNanos > 0)) {
+			requiredNanos = Math.max(requiredNanos, (long) (cpuNanos / (maxCpuShare * availableProcessors)));
+		}
+
+		return Math.max(0, requiredNanos - elapsedNanos);
+	}
+
+	/**
+	 * Returns if this throttle limits anything.
+	 *
+	 * @return Returns if this throttle limits anything.
+	 */
+	public boolean isActive() {
+		return (maxBytesPerSecond > 0) || ((maxCpuShare > 0) && (maxCpuShare < 1));
+	}
+
+}
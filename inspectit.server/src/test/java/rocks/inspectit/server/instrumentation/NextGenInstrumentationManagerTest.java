@@ -18,6 +18,7 @@ import static org.mockito.Mockito.when;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
@@ -390,6 +391,63 @@ public class NextGenInstrumentationManagerTest extends TestBase {
 
 	}
 
+	public class AnalyzeBatch extends NextGenInstrumentationManagerTest {
+
+		@Mock
+		private Type type;
+
+		@Mock
+		private Type otherType;
+
+		private final static String HASH = "hash";
+
+		private final static String OTHER_HASH = "otherHash";
+
+		private final static long ID = 10;
+
+		@Test(expectedExceptions = BusinessException.class)
+		public void agentNotRegistered() throws BusinessException {
+			manager.analyzeBatch(ID, Collections.singletonMap(HASH, type));
+		}
+
+		@Test
+		public void onlyInstrumentedReturned() throws BusinessException, ClassCacheModificationException {
+			List<String> definedIPs = mock(List.class);
+			String agentName = "agentName";
+			String version = "v1";
+			when(registrationService.registerPlatformIdent(definedIPs, agentName, version)).thenReturn(ID);
+
+			manager.register(definedIPs, agentName, version);
+
+			ClassType classType = mock(ClassType.class);
+			when(classType.isClass()).thenReturn(true);
+			when(classType.castToClass()).thenReturn(classType);
+			ImmutableType otherTypeFromClassCache = mock(ImmutableType.class);
+			when(otherTypeFromClassCache.isClass()).thenReturn(false);
+			when(lookupService.findByHash(HASH)).thenReturn(classType);
+			when(lookupService.findByHash(OTHER_HASH)).thenReturn(otherTypeFromClassCache);
+			when(configurationHolder.isInitialized()).thenReturn(true);
+			AgentConfig configuration = mock(AgentConfig.class);
+			Collection<IInstrumentationApplier> appliers = mock(Collection.class);
+			InstrumentationDefinition instrumentationResult = mock(InstrumentationDefinition.class);
+			when(configurationHolder.getAgentConfiguration()).thenReturn(configuration);
+			when(configurationHolder.getInstrumentationAppliers()).thenReturn(appliers);
+			when(instrumentationService.addAndGetInstrumentationResult(classType, configuration, appliers)).thenReturn(instrumentationResult);
+			Map<String, Type> batch = new HashMap<>();
+			batch.put(HASH, type);
+			batch.put(OTHER_HASH, otherType);
+
+			Map<String, InstrumentationDefinition> result = manager.analyzeBatch(ID, batch);
+
+			assertThat(result.size(), is(1));
+			assertThat(result.get(HASH), is(instrumentationResult));
+			verify(instrumentationService).addAndGetInstrumentationResult(classType, configuration, appliers);
+			verifyNoMoreInteractions(instrumentationService);
+			verifyZeroInteractions(modificationService);
+		}
+
+	}
+
 	public class AnalyzeJmxAttributes extends NextGenInstrumentationManagerTest {
 
 		private final static long ID = 10;
@@ -24,6 +24,8 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
 
 import org.mockito.InjectMocks;
 import org.mockito.Matchers;
@@ -39,6 +41,7 @@ import rocks.inspectit.server.instrumentation.config.applier.IInstrumentationApp
 import rocks.inspectit.shared.all.instrumentation.classcache.AnnotationType;
 import rocks.inspectit.shared.all.instrumentation.classcache.ClassType;
 import rocks.inspectit.shared.all.instrumentation.classcache.ImmutableClassType;
+import rocks.inspectit.shared.all.instrumentation.classcache.ImmutableType;
 import rocks.inspectit.shared.all.instrumentation.classcache.InterfaceType;
 import rocks.inspectit.shared.all.instrumentation.classcache.MethodType;
 import rocks.inspectit.shared.all.instrumentation.classcache.Type;
@@ -80,6 +83,9 @@ public class ClassCacheInstrumentationTest extends TestBase {
 	@Mock
 	AbstractClassSensorAssignment<?> assignment;
 
+	@Mock
+	ExecutorService executorService;
+
 	@BeforeMethod
 	public void setup() throws Exception {
 		when(classCache.getLookupService()).thenReturn(lookup);
@@ -93,6 +99,13 @@ public class ClassCacheInstrumentationTest extends TestBase {
 		};
 		doAnswer(callableAnswer).when(classCache).executeWithReadLock(Matchers.<Callable<?>> anyObject());
 		doAnswer(callableAnswer).when(classCache).executeWithWriteLock(Matchers.<Callable<?>> anyObject());
+		doAnswer(new Answer<Object>() {
+			@Override
+			public Object answer(InvocationOnMock invocation) throws Throwable {
+				Callable<?> callable = (Callable<?>) invocation.getArguments()[1];
+				return callable.call();
+			}
+		}).when(classCache).executeWithTypeLock(Matchers.<ImmutableType> anyObject(), Matchers.<Callable<?>> anyObject());
 
 		instrumentation.init(classCache);
 	}
@@ -150,8 +163,8 @@ public class ClassCacheInstrumentationTest extends TestBase {
 
 			instrumentation.removeInstrumentationPoints();
 
-			// must be write lock
-			verify(classCache, times(1)).executeWithWriteLock(Matchers.<Callable<?>> any());
+			// must be read lock, structure is not changed
+			verify(classCache, times(1)).executeWithReadLock(Matchers.<Callable<?>> any());
 			verify(methodType, times(1)).setMethodInstrumentationConfig(null);
 		}
 
@@ -162,7 +175,7 @@ public class ClassCacheInstrumentationTest extends TestBase {
 			instrumentation.removeInstrumentationPoints();
 
 			// not touching the write lock
-			verify(classCache, times(0)).executeWithWriteLock(Matchers.<Callable<?>> any());
+			verify(classCache, times(0)).executeWithReadLock(Matchers.<Callable<?>> any());
 		}
 
 		@Test
@@ -171,8 +184,8 @@ public class ClassCacheInstrumentationTest extends TestBase {
 
 			instrumentation.removeInstrumentationPoints(Collections.singleton(annotationType), Collections.singleton(instrumentationApplier));
 
-			// must be write lock
-			verify(classCache, times(1)).executeWithWriteLock(Matchers.<Callable<?>> any());
+			// must be read lock, structure is not changed
+			verify(classCache, times(1)).executeWithReadLock(Matchers.<Callable<?>> any());
 			verifyZeroInteractions(instrumentationApplier);
 		}
 
@@ -182,8 +195,8 @@ public class ClassCacheInstrumentationTest extends TestBase {
 
 			instrumentation.removeInstrumentationPoints(Collections.singleton(interfaceType), Collections.singleton(instrumentationApplier));
 
-			// must be write lock
-			verify(classCache, times(1)).executeWithWriteLock(Matchers.<Callable<?>> any());
+			// must be read lock, structure is not changed
+			verify(classCache, times(1)).executeWithReadLock(Matchers.<Callable<?>> any());
 			verifyZeroInteractions(instrumentationApplier);
 		}
 
@@ -204,13 +217,45 @@ public class ClassCacheInstrumentationTest extends TestBase {
 			// assert result
 			assertThat((Collection<ClassType>) result, hasItem(classType));
 
-			// must be write lock
-			verify(classCache, times(1)).executeWithWriteLock(Matchers.<Callable<?>> any());
+			// must be read lock, structure is not changed
+			verify(classCache, times(1)).executeWithReadLock(Matchers.<Callable<?>> any());
 			verify(instrumentationApplier, times(1)).addInstrumentationPoints(agentConfiguration, classType);
 			verify(instrumentationApplier, times(1)).getSensorAssignment();
 			verifyNoMoreInteractions(instrumentationApplier);
 		}
 
+		@Test
+		public void addInParallel() throws Exception {
+			doAnswer(new Answer<Object>() {
+				@Override
+				public Object answer(InvocationOnMock invocation) throws Throwable {
+					FutureTask<?> futureTask = new FutureTask<>((Callable<?>) invocation.getArguments()[0]);
+					futureTask.run();
+					return futureTask;
+				}
+			}).when(executorService).submit(Matchers.<Callable<?>> any());
+			List<ClassType> types = new ArrayList<>();
+			for (int i = 0; i < ((ClassCacheInstrumentation.TYPES_PER_TASK * 2) + 1); i++) {
+				ClassType type = mock(ClassType.class);
+				when(type.isClass()).thenReturn(true);
+				when(type.castToClass()).thenReturn(type);
+				when(type.isInitialized()).thenReturn(true);
+				when(instrumentationApplier.addInstrumentationPoints(agentConfiguration, type)).thenReturn(true);
+				types.add(type);
+			}
+
+			Collection<? extends ImmutableClassType> result = instrumentation.addInstrumentationPoints(types, agentConfiguration, Collections.singletonList(instrumentationApplier));
+
+			// assert result in same order
+			assertThat((Collection<ClassType>) result, is((Collection<ClassType>) types));
+
+			// first chunk in calling thread, two others submitted
+			verify(executorService, times(2)).submit(Matchers.<Callable<?>> any());
+			verify(classCache, times(1)).executeWithReadLock(Matchers.<Callable<?>> any());
+			verify(classCache, times(types.size())).executeWithTypeLock(Matchers.<ImmutableType> any(), Matchers.<Callable<?>> any());
+			verify(classCache, times(0)).executeWithWriteLock(Matchers.<Callable<?>> any());
+		}
+
 		@Test
 		public void searchNarrowAdd() throws Exception {
 			when(classType.isClass()).thenReturn(true);
@@ -225,8 +270,8 @@ public class ClassCacheInstrumentationTest extends TestBase {
 			// assert result
 			assertThat((Collection<ClassType>) result, hasItem(classType));
 
-			// must be write lock
-			verify(classCache, times(1)).executeWithWriteLock(Matchers.<Callable<?>> any());
+			// must be read lock, structure is not changed
+			verify(classCache, times(1)).executeWithReadLock(Matchers.<Callable<?>> any());
 			verify(instrumentationApplier, times(1)).addInstrumentationPoints(agentConfiguration, classType);
 			verify(instrumentationApplier, times(1)).getSensorAssignment();
 			verifyNoMoreInteractions(instrumentationApplier);
@@ -245,8 +290,8 @@ public class ClassCacheInstrumentationTest extends TestBase {
 			// assert result
 			assertThat((Collection<ClassType>) result, is(empty()));
 
-			// must be write lock
-			verify(classCache, times(1)).executeWithWriteLock(Matchers.<Callable<?>> any());
+			// must be read lock, structure is not changed
+			verify(classCache, times(1)).executeWithReadLock(Matchers.<Callable<?>> any());
 			verify(instrumentationApplier, times(1)).addInstrumentationPoints(agentConfiguration, classType);
 			verify(instrumentationApplier, times(1)).getSensorAssignment();
 			verifyNoMoreInteractions(instrumentationApplier);
@@ -266,8 +311,8 @@ public class ClassCacheInstrumentationTest extends TestBase {
 			// assert result
 			assertThat((Collection<ClassType>) result, is(empty()));
 
-			// must be write lock
-			verify(classCache, times(1)).executeWithWriteLock(Matchers.<Callable<?>> any());
+			// must be read lock, structure is not changed
+			verify(classCache, times(1)).executeWithReadLock(Matchers.<Callable<?>> any());
 			verify(instrumentationApplier, times(1)).addInstrumentationPoints(agentConfiguration, classType);
 			verify(instrumentationApplier, times(1)).getSensorAssignment();
 			verifyNoMoreInteractions(instrumentationApplier);
@@ -283,8 +328,8 @@ public class ClassCacheInstrumentationTest extends TestBase {
 			// assert result
 			assertThat(result, is(empty()));
 
-			// must be write lock
-			verify(classCache, times(1)).executeWithWriteLock(Matchers.<Callable<?>> any());
+			// must be read lock, structure is not changed
+			verify(classCache, times(1)).executeWithReadLock(Matchers.<Callable<?>> any());
 			verify(instrumentationApplier, times(1)).getSensorAssignment();
 			verifyNoMoreInteractions(instrumentationApplier);
 
@@ -301,8 +346,8 @@ public class ClassCacheInstrumentationTest extends TestBase {
 			// assert result
 			assertThat(result, is(empty()));
 
-			// must be write lock
-			verify(classCache, times(1)).executeWithWriteLock(Matchers.<Callable<?>> any());
+			// must be read lock, structure is not changed
+			verify(classCache, times(1)).executeWithReadLock(Matchers.<Callable<?>> any());
 			verify(instrumentationApplier, times(1)).getSensorAssignment();
 			verifyNoMoreInteractions(instrumentationApplier);
 
@@ -318,7 +363,7 @@ public class ClassCacheInstrumentationTest extends TestBase {
 			assertThat(result, is(empty()));
 
 			// not touching the write lock
-			verify(classCache, times(0)).executeWithWriteLock(Matchers.<Callable<?>> any());
+			verify(classCache, times(0)).executeWithReadLock(Matchers.<Callable<?>> any());
 			verify(instrumentationApplier, times(1)).getSensorAssignment();
 			verifyNoMoreInteractions(instrumentationApplier);
 		}
@@ -334,7 +379,7 @@ public class ClassCacheInstrumentationTest extends TestBase {
 			assertThat(result, is(empty()));
 
 			// not touching the write lock
-			verify(classCache, times(0)).executeWithWriteLock(Matchers.<Callable<?>> any());
+			verify(classCache, times(0)).executeWithReadLock(Matchers.<Callable<?>> any());
 			verify(instrumentationApplier, times(1)).getSensorAssignment();
 			verifyNoMoreInteractions(instrumentationApplier);
 		}
@@ -353,8 +398,8 @@ public class ClassCacheInstrumentationTest extends TestBase {
 			// assert result
 			assertThat(result, is(empty()));
 
-			// must be write lock
-			verify(classCache, times(1)).executeWithWriteLock(Matchers.<Callable<?>> any());
+			// must be read lock, structure is not changed
+			verify(classCache, times(1)).executeWithReadLock(Matchers.<Callable<?>> any());
 			verify(instrumentationApplier, times(1)).getSensorAssignment();
 			verifyNoMoreInteractions(instrumentationApplier);
 		}
@@ -374,8 +419,8 @@ public class ClassCacheInstrumentationTest extends TestBase {
 			// assert result
 			assertThat(result, is(empty()));
 
-			// must be write lock
-			verify(classCache, times(1)).executeWithWriteLock(Matchers.<Callable<?>> any());
+			// must be read lock, structure is not changed
+			verify(classCache, times(1)).executeWithReadLock(Matchers.<Callable<?>> any());
 			verify(instrumentationApplier, times(1)).getSensorAssignment();
 			verifyNoMoreInteractions(instrumentationApplier);
 		}
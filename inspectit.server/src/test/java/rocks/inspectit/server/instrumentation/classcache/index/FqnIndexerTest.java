@@ -170,6 +170,47 @@ public class FqnIndexerTest extends TestBase {
 		}
 	}
 
+	public class FindEndsWith extends FqnIndexerTest {
+
+		@Test
+		public void found() {
+			indexer.index(new ClassType("my.dao.UserService"));
+			indexer.index(new ClassType("my.dao.Service"));
+			indexer.index(new ClassType("my.Service$Inner"));
+			indexer.index(new ClassType("my.web.UserController"));
+			indexer.index(new ClassType("Service"));
+
+			Collection<ClassType> results = indexer.findEndsWith("Service");
+			assertThat(results, hasSize(3));
+			for (ClassType classType : results) {
+				assertThat(classType.getFQN().endsWith("Service"), is(true));
+			}
+
+			results = indexer.findEndsWith("Controller");
+			assertThat(results, hasSize(1));
+		}
+
+		@Test
+		public void notFound() {
+			indexer.index(new ClassType("my.dao.UserService"));
+			indexer.index(new ClassType("my.web.UserController"));
+
+			assertThat(indexer.findEndsWith("Dao"), is(empty()));
+			assertThat(indexer.findEndsWith("a.my.dao.UserService"), is(empty()));
+		}
+
+		@Test
+		public void removed() {
+			ClassType type = new ClassType("my.dao.UserService");
+			indexer.index(type);
+			indexer.remove(new ClassType("my.dao.UserService"));
+
+			assertThat(indexer, hasSize(0));
+			assertThat(indexer.findEndsWith("Service"), is(empty()));
+			assertThat(indexer.findByPattern(new WildcardMatchPattern("*.dao.*")), is(empty()));
+		}
+	}
+
 	public class FindByPattern extends FqnIndexerTest {
 
 		@Test
@@ -212,6 +253,72 @@ public class FqnIndexerTest extends TestBase {
 			}
 		}
 
+		@Test
+		public void wildcardPatternSuffix() {
+			indexer.index(new ClassType("my.dao.UserService"));
+			indexer.index(new ClassType("my.dao.UserServiceImpl"));
+			indexer.index(new ClassType("my.web.UserController"));
+			indexer.index(new ClassType("other.Service"));
+			WildcardMatchPattern wildcardMatchPattern = new WildcardMatchPattern("*.dao.*Service");
+
+			Collection<ClassType> results = indexer.findByPattern(wildcardMatchPattern);
+
+			assertThat(results, hasSize(1));
+			assertThat(results.iterator().next().getFQN(), is("my.dao.UserService"));
+		}
+
+		@Test
+		public void wildcardPatternInfixSegment() {
+			indexer.index(new ClassType("my.dao.UserService"));
+			indexer.index(new ClassType("my.daos.UserService"));
+			indexer.index(new ClassType("my.dao.impl.UserServiceImpl"));
+			indexer.index(new ClassType("dao.UserService"));
+			WildcardMatchPattern wildcardMatchPattern = new WildcardMatchPattern("*.dao.*");
+
+			Collection<ClassType> results = indexer.findByPattern(wildcardMatchPattern);
+
+			assertThat(results, hasSize(2));
+			for (ClassType classType : results) {
+				assertThat(wildcardMatchPattern.match(classType.getFQN()), is(true));
+			}
+		}
+
+		@Test
+		public void wildcardPatternInfixSegmentStartAndEnd() {
+			indexer.index(new ClassType("my.dao.UserService"));
+			indexer.index(new ClassType("my.daos.UserService"));
+			indexer.index(new ClassType("my.mydao.UserService"));
+			indexer.index(new ClassType("my.web.UserController"));
+
+			Collection<ClassType> startResults = indexer.findByPattern(new WildcardMatchPattern("*.dao*"));
+			Collection<ClassType> endResults = indexer.findByPattern(new WildcardMatchPattern("*dao.*"));
+
+			assertThat(startResults, hasSize(2));
+			assertThat(endResults, hasSize(2));
+		}
+
+		@Test
+		public void wildcardPatternInfixInnerClass() {
+			indexer.index(new ClassType("my.Service$Controller"));
+			indexer.index(new ClassType("my.UserController"));
+			indexer.index(new ClassType("my.Service"));
+			WildcardMatchPattern wildcardMatchPattern = new WildcardMatchPattern("*Controller*");
+
+			Collection<ClassType> results = indexer.findByPattern(wildcardMatchPattern);
+
+			assertThat(results, hasSize(2));
+		}
+
+		@Test
+		public void wildcardPatternEverything() {
+			indexer.index(new ClassType("my.Service"));
+			indexer.index(new ClassType("my.UserController"));
+
+			Collection<ClassType> results = indexer.findByPattern(new WildcardMatchPattern("*"));
+
+			assertThat(results, hasSize(2));
+		}
+
 		@Test
 		public void equalsPattern() {
 			ClassType stringType = new ClassType(String.class.getName());
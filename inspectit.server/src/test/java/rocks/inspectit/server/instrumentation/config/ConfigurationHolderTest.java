@@ -72,6 +72,7 @@ public class ConfigurationHolderTest extends TestBase {
 
 			verify(configurationCreator).environmentToConfiguration(environment, platformId);
 			verify(configurationResolver).getInstrumentationAppliers(environment);
+			verify(configurationResolver).getClassPrefilterConfig(holder.getInstrumentationAppliers());
 			verify(configurationResolver).getJmxMonitoringAppliers(environment);
 			verifyNoMoreInteractions(configurationCreator, configurationResolver);
 		}
@@ -95,6 +96,7 @@ public class ConfigurationHolderTest extends TestBase {
 			// only one time verifications
 			verify(configurationCreator).environmentToConfiguration(environment, platformId);
 			verify(configurationResolver).getInstrumentationAppliers(environment);
+			verify(configurationResolver).getClassPrefilterConfig(Collections.singleton(applier));
 			verify(configurationResolver).getJmxMonitoringAppliers(environment);
 			verifyNoMoreInteractions(configurationCreator, configurationResolver);
 		}
@@ -6,6 +6,8 @@ import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -31,6 +33,7 @@ import rocks.inspectit.server.instrumentation.config.applier.MethodSensorInstrum
 import rocks.inspectit.server.instrumentation.config.applier.SpecialInstrumentationApplier;
 import rocks.inspectit.server.instrumentation.config.applier.TimerMethodSensorInstrumentationApplier;
 import rocks.inspectit.shared.all.exception.BusinessException;
+import rocks.inspectit.shared.all.instrumentation.config.impl.ClassPrefilterConfig;
 import rocks.inspectit.shared.all.testbase.TestBase;
 import rocks.inspectit.shared.cs.ci.AgentMapping;
 import rocks.inspectit.shared.cs.ci.AgentMappings;
@@ -565,4 +568,131 @@ public class ConfigurationResolverTest extends TestBase {
 
 	}
 
+	public static class GetConfigurationRevision extends ConfigurationResolverTest {
+
+		@Test
+		public void nullEnvironment() {
+			String revision = configurationResolver.getConfigurationRevision(null);
+
+			assertThat(revision, is(nullValue()));
+		}
+
+		@Test
+		public void environmentAndProfile() throws BusinessException {
+			when(environment.getId()).thenReturn("env");
+			when(environment.getRevision()).thenReturn(2);
+			when(environment.getProfileIds()).thenReturn(Collections.singleton(PROFILE_ID));
+			when(configurationInterfaceManager.getProfile(PROFILE_ID)).thenReturn(profile);
+			when(profile.getId()).thenReturn(PROFILE_ID);
+			when(profile.getRevision()).thenReturn(3);
+			when(profile.isActive()).thenReturn(true);
+
+			String revision = configurationResolver.getConfigurationRevision(environment);
+
+			assertThat(revision, is("env:2;" + PROFILE_ID + ":3"));
+		}
+
+		@Test
+		public void profileChanged() throws BusinessException {
+			when(environment.getId()).thenReturn("env");
+			when(environment.getRevision()).thenReturn(2);
+			when(environment.getProfileIds()).thenReturn(Collections.singleton(PROFILE_ID));
+			when(configurationInterfaceManager.getProfile(PROFILE_ID)).thenReturn(profile);
+			when(profile.getId()).thenReturn(PROFILE_ID);
+			when(profile.getRevision()).thenReturn(3);
+			when(profile.isActive()).thenReturn(true);
+			String revision = configurationResolver.getConfigurationRevision(environment);
+			when(profile.getRevision()).thenReturn(4);
+
+			String changedRevision = configurationResolver.getConfigurationRevision(environment);
+
+			assertThat(changedRevision, is(not(revision)));
+		}
+
+		@Test
+		public void inactiveProfile() throws BusinessException {
+			when(environment.getId()).thenReturn("env");
+			when(environment.getRevision()).thenReturn(2);
+			when(environment.getProfileIds()).thenReturn(Collections.singleton(PROFILE_ID));
+			when(configurationInterfaceManager.getProfile(PROFILE_ID)).thenReturn(profile);
+			when(profile.isActive()).thenReturn(false);
+
+			String revision = configurationResolver.getConfigurationRevision(environment);
+
+			assertThat(revision, is("env:2"));
+		}
+	}
+
+	public static class GetClassPrefilterConfig extends ConfigurationResolverTest {
+
+		@Test
+		public void nullAppliers() {
+			ClassPrefilterConfig prefilterConfig = configurationResolver.getClassPrefilterConfig(null);
+
+			assertThat(prefilterConfig, is(nullValue()));
+		}
+
+		@Test
+		public void applierWithoutAssignment() {
+			IInstrumentationApplier applier = mock(IInstrumentationApplier.class);
+
+			ClassPrefilterConfig prefilterConfig = configurationResolver.getClassPrefilterConfig(Collections.singleton(applier));
+
+			assertThat(prefilterConfig, is(nullValue()));
+		}
+
+		@Test
+		public void patterns() {
+			MethodSensorAssignment classAssignment = new MethodSensorAssignment();
+			classAssignment.setClassName("my.Class");
+			MethodSensorAssignment superClassAssignment = new MethodSensorAssignment();
+			superClassAssignment.setClassName("my.SuperClass");
+			superClassAssignment.setSuperclass(true);
+			MethodSensorAssignment interfaceAssignment = new MethodSensorAssignment();
+			interfaceAssignment.setClassName("my.Interface");
+			interfaceAssignment.setInterf(true);
+			List<IInstrumentationApplier> appliers = new ArrayList<>();
+			for (MethodSensorAssignment assignment : new MethodSensorAssignment[] { classAssignment, superClassAssignment, interfaceAssignment }) {
+				IInstrumentationApplier applier = mock(IInstrumentationApplier.class);
+				doReturn(assignment).when(applier).getSensorAssignment();
+				appliers.add(applier);
+			}
+
+			ClassPrefilterConfig prefilterConfig = configurationResolver.getClassPrefilterConfig(appliers);
+
+			assertThat(prefilterConfig.getClassNamePatterns(), hasSize(1));
+			assertThat(prefilterConfig.getClassNamePatterns().iterator().next().match("my.Class"), is(true));
+			assertThat(prefilterConfig.getSuperClassNamePatterns(), hasSize(1));
+			assertThat(prefilterConfig.getSuperClassNamePatterns().iterator().next().match("my.SuperClass"), is(true));
+			assertThat(prefilterConfig.getInterfaceNamePatterns(), hasSize(1));
+			assertThat(prefilterConfig.getInterfaceNamePatterns().iterator().next().match("my.Interface"), is(true));
+			assertThat(prefilterConfig.getAnnotationPatterns(), is(empty()));
+		}
+
+		@Test
+		public void annotationPatterns() {
+			MethodSensorAssignment anyClassAssignment = new MethodSensorAssignment();
+			anyClassAssignment.setClassName("*");
+			anyClassAssignment.setAnnotation("my.Annotation");
+			MethodSensorAssignment classAssignment = new MethodSensorAssignment();
+			classAssignment.setClassName("my.Class");
+			classAssignment.setAnnotation("my.OtherAnnotation");
+			List<IInstrumentationApplier> appliers = new ArrayList<>();
+			for (MethodSensorAssignment assignment : new MethodSensorAssignment[] { anyClassAssignment, classAssignment }) {
+				IInstrumentationApplier applier = mock(IInstrumentationApplier.class);
+				doReturn(assignment).when(applier).getSensorAssignment();
+				appliers.add(applier);
+			}
+
+			ClassPrefilterConfig prefilterConfig = configurationResolver.getClassPrefilterConfig(appliers);
+
+			assertThat(prefilterConfig.getAnnotationPatterns(), hasSize(1));
+			assertThat(prefilterConfig.getAnnotationPatterns().iterator().next().match("my.Annotation"), is(true));
+			assertThat(prefilterConfig.getClassNamePatterns(), hasSize(1));
+			assertThat(prefilterConfig.getClassNamePatterns().iterator().next().match("my.Class"), is(true));
+			assertThat(prefilterConfig.getSuperClassNamePatterns(), is(empty()));
+			assertThat(prefilterConfig.getInterfaceNamePatterns(), is(empty()));
+		}
+	}
+
 }
@@ -154,6 +154,9 @@ public class MethodSensorInstrumentationApplierTest extends TestBase {
 			assertThat(rsc.getSensorIds().length, is(1));
 			assertThat(rsc.getSensorIds()[0], is(sensorId));
 			assertThat(rsc.getSettings(), is(settings));
+			assertThat(rsc.isParametersNeeded(), is(true));
+			assertThat(rsc.isObjectNeeded(), is(true));
+			assertThat(rsc.isResultNeeded(), is(true));
 			assertThat(instrumentationConfig.getSpecialInstrumentationPoint(), is(nullValue()));
 		}
 
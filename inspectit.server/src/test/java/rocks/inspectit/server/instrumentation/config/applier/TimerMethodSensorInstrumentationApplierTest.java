@@ -6,6 +6,7 @@ import static org.hamcrest.Matchers.is;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -25,6 +26,7 @@ import org.testng.annotations.Test;
 import rocks.inspectit.server.instrumentation.config.filter.AssignmentFilterProvider;
 import rocks.inspectit.server.instrumentation.config.filter.ClassSensorAssignmentFilter;
 import rocks.inspectit.server.instrumentation.config.filter.MethodSensorAssignmentFilter;
+import rocks.inspectit.shared.all.communication.data.ParameterContentType;
 import rocks.inspectit.shared.all.instrumentation.classcache.ClassType;
 import rocks.inspectit.shared.all.instrumentation.classcache.MethodType;
 import rocks.inspectit.shared.all.instrumentation.classcache.MethodType.Character;
@@ -42,6 +44,7 @@ import rocks.inspectit.shared.cs.ci.assignment.impl.TimerMethodSensorAssignment;
 import rocks.inspectit.shared.cs.ci.context.AbstractContextCapture;
 import rocks.inspectit.shared.cs.ci.sensor.method.IMethodSensorConfig;
 import rocks.inspectit.shared.cs.ci.sensor.method.impl.InvocationSequenceSensorConfig;
+import rocks.inspectit.shared.cs.ci.sensor.method.impl.TimerSensorConfig;
 import rocks.inspectit.shared.cs.cmr.service.IRegistrationService;
 
 /**
@@ -120,11 +123,13 @@ public class TimerMethodSensorInstrumentationApplierTest extends TestBase {
 			when(assignment.isStartsInvocation()).thenReturn(true);
 			AbstractContextCapture contextCapture = mock(AbstractContextCapture.class);
 			PropertyPathStart propertyPathStart = mock(PropertyPathStart.class);
+			when(propertyPathStart.getContentType()).thenReturn(ParameterContentType.PARAM);
 			when(contextCapture.getPropertyPathStart()).thenReturn(propertyPathStart);
 			when(assignment.getContextCaptures()).thenReturn(Collections.singletonList(contextCapture));
 
 			IMethodSensorConfig methodSensorConfig = mock(IMethodSensorConfig.class);
 			when(methodSensorConfig.getClassName()).thenReturn(sensorClassName);
+			doReturn(TimerSensorConfig.class).when(assignment).getSensorConfigClass();
 			when(environment.getMethodSensorTypeConfig(Matchers.<Class<? extends IMethodSensorConfig>> any())).thenReturn(methodSensorConfig);
 
 			IMethodSensorConfig invocSensorConfig = mock(IMethodSensorConfig.class);
@@ -169,6 +174,10 @@ public class TimerMethodSensorInstrumentationApplierTest extends TestBase {
 			assertThat(rsc.isStartsInvocation(), is(true));
 			assertThat(rsc.isPropertyAccess(), is(true));
 			assertThat(rsc.getPropertyAccessorList(), hasItem(propertyPathStart));
+			// only parameters needed by the property accessor
+			assertThat(rsc.isParametersNeeded(), is(true));
+			assertThat(rsc.isObjectNeeded(), is(false));
+			assertThat(rsc.isResultNeeded(), is(false));
 		}
 	}
 }
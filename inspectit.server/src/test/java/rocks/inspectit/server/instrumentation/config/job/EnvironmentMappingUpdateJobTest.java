@@ -2,11 +2,13 @@ package rocks.inspectit.server.instrumentation.config.job;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.is;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import java.util.Collection;
@@ -23,6 +25,7 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import rocks.inspectit.server.ci.event.ClassInstrumentationChangedEvent;
+import rocks.inspectit.server.ci.event.ClassPrefilterChangedEvent;
 import rocks.inspectit.server.instrumentation.classcache.ClassCache;
 import rocks.inspectit.server.instrumentation.classcache.ClassCacheInstrumentation;
 import rocks.inspectit.server.instrumentation.classcache.ClassCacheLookup;
@@ -33,6 +36,9 @@ import rocks.inspectit.shared.all.instrumentation.classcache.ClassType;
 import rocks.inspectit.shared.all.instrumentation.classcache.ImmutableClassType;
 import rocks.inspectit.shared.all.instrumentation.classcache.Type;
 import rocks.inspectit.shared.all.instrumentation.config.impl.AgentConfig;
+import rocks.inspectit.shared.all.instrumentation.config.impl.ClassPrefilterConfig;
+import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
+import rocks.inspectit.shared.all.instrumentation.config.impl.MethodInstrumentationConfig;
 import rocks.inspectit.shared.cs.ci.Environment;
 
 @SuppressWarnings({ "PMD" })
@@ -140,4 +146,48 @@ public class EnvironmentMappingUpdateJobTest {
 
 		verifyNoMoreInteractions(instrumentationService, updateConfiguration, updateEnvironment, eventPublisher);
 	}
+
+	@Test
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public void sameInstrumentation() {
+		when(configurationHolder.isInitialized()).thenReturn(true);
+		when(configurationHolder.getAgentConfiguration()).thenReturn(updateConfiguration);
+		when(classType.getFQN()).thenReturn("fqn");
+		when(immutableClassType.hasInstrumentationPoints()).thenReturn(true);
+		doReturn(Collections.singletonList(classType)).when(lookupService).findInstrumentedTypes();
+		doReturn(Collections.singletonList(classType)).when(instrumentationService).addInstrumentationPoints(any(AgentConfig.class), any(Collection.class));
+		doReturn(Collections.singletonList(createDefinition())).doReturn(Collections.singletonList(createDefinition())).when(instrumentationService).getInstrumentationResults(any(Collection.class));
+
+		job.setEnvironment(updateEnvironment);
+		job.run();
+
+		verify(instrumentationService, times(1)).removeInstrumentationPoints();
+		verify(instrumentationService, times(2)).getInstrumentationResults(any(Collection.class));
+		verifyZeroInteractions(eventPublisher);
+	}
+
+	@Test
+	public void classPrefilterChanged() {
+		ClassPrefilterConfig classPrefilterConfig = new ClassPrefilterConfig();
+		when(configurationHolder.isInitialized()).thenReturn(false);
+		when(configurationHolder.getClassPrefilterConfig()).thenReturn(null, classPrefilterConfig);
+
+		job.setEnvironment(null);
+		job.run();
+
+		ArgumentCaptor<ClassPrefilterChangedEvent> eventCaptor = ArgumentCaptor.forClass(ClassPrefilterChangedEvent.class);
+		verify(eventPublisher).publishEvent(eventCaptor.capture());
+		assertThat(eventCaptor.getValue().getAgentId(), is(PLATFORM_ID));
+		assertThat(eventCaptor.getValue().getClassPrefilterConfig(), is(classPrefilterConfig));
+		verifyNoMoreInteractions(eventPublisher);
+	}
+
+	private InstrumentationDefinition createDefinition() {
+		MethodInstrumentationConfig config = new MethodInstrumentationConfig();
+		config.setTargetClassFqn("fqn");
+		config.setTargetMethodName("method");
+		InstrumentationDefinition definition = new InstrumentationDefinition("fqn");
+		definition.setMethodInstrumentationConfigs(Collections.singletonList(config));
+		return definition;
+	}
 }
@@ -5,6 +5,7 @@ import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.times;
@@ -40,6 +41,7 @@ import rocks.inspectit.shared.all.instrumentation.classcache.ClassType;
 import rocks.inspectit.shared.all.instrumentation.classcache.ImmutableClassType;
 import rocks.inspectit.shared.all.instrumentation.config.impl.AgentConfig;
 import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
+import rocks.inspectit.shared.all.instrumentation.config.impl.MethodInstrumentationConfig;
 import rocks.inspectit.shared.all.testbase.TestBase;
 import rocks.inspectit.shared.cs.ci.Environment;
 import rocks.inspectit.shared.cs.ci.assignment.impl.MethodSensorAssignment;
@@ -128,6 +130,12 @@ public class EnvironmentUpdateJobTest extends TestBase {
 		when(event.getAfter()).thenReturn(updateEnvironment);
 	}
 
+	protected InstrumentationDefinition createDefinition() {
+		InstrumentationDefinition definition = new InstrumentationDefinition("fqn");
+		definition.setMethodInstrumentationConfigs(Collections.singletonList(new MethodInstrumentationConfig()));
+		return definition;
+	}
+
 	public class Run extends EnvironmentUpdateJobTest {
 
 		@Test
@@ -151,6 +159,8 @@ public class EnvironmentUpdateJobTest extends TestBase {
 			doReturn(instrumentationApplier).when(configurationResolver).getInstrumentationApplier(sensorAssignment, environment);
 			doReturn(types).when(classCacheSearchNarrower).narrowByClassSensorAssignment(classCache, sensorAssignment);
 			doReturn(types).when(instrumentationService).addInstrumentationPoints(eq(types), eq(agentConfiguration), Matchers.<Collection<IInstrumentationApplier>> any());
+			doReturn(Collections.emptyList()).doReturn(Collections.singletonList(createDefinition())).when(instrumentationService).getInstrumentationResults(any(Collection.class));
+			when(immutableClassType.hasInstrumentationPoints()).thenReturn(true);
 			doReturn(Collections.singletonList(sensorAssignment)).when(event).getAddedSensorAssignments(functionalAssignmentFactory);
 			job.setEnvironmentUpdateEvent(event);
 
@@ -180,6 +190,7 @@ public class EnvironmentUpdateJobTest extends TestBase {
 			doReturn(instrumentationApplier).when(configurationResolver).getInstrumentationApplier(sensorAssignment, environment);
 			doReturn(types).when(classCacheSearchNarrower).narrowByClassSensorAssignment(classCache, sensorAssignment);
 			doReturn(types).when(instrumentationService).removeInstrumentationPoints(eq(types), Matchers.<Collection<IInstrumentationApplier>> any());
+			doReturn(Collections.singletonList(createDefinition())).doReturn(Collections.emptyList()).when(instrumentationService).getInstrumentationResults(any(Collection.class));
 			doReturn(Collections.singletonList(sensorAssignment)).when(event).getRemovedSensorAssignments(functionalAssignmentFactory);
 			job.setEnvironmentUpdateEvent(event);
 
@@ -220,6 +231,7 @@ public class EnvironmentUpdateJobTest extends TestBase {
 
 			ArgumentCaptor<Collection> captor = ArgumentCaptor.forClass(Collection.class);
 			verify(instrumentationService, times(1)).removeInstrumentationPoints(types, Collections.singleton(instrumentationApplier));
+			verify(instrumentationService).getInstrumentationResults(any(Collection.class));
 
 			verifyNoMoreInteractions(instrumentationService);
 			verifyZeroInteractions(environment, agentConfiguration, eventPublisher);
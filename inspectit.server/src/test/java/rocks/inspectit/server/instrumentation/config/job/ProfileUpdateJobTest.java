@@ -5,6 +5,7 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.times;
@@ -15,6 +16,7 @@ import static org.mockito.Mockito.when;
 
 import java.rmi.RemoteException;
 import java.util.Collection;
+import java.util.Arrays;
 import java.util.Collections;
 
 import org.hamcrest.Matcher;
@@ -40,8 +42,11 @@ import rocks.inspectit.server.instrumentation.config.ConfigurationResolver;
 import rocks.inspectit.server.instrumentation.config.applier.IInstrumentationApplier;
 import rocks.inspectit.shared.all.instrumentation.classcache.ClassType;
 import rocks.inspectit.shared.all.instrumentation.classcache.ImmutableClassType;
+import rocks.inspectit.shared.all.instrumentation.config.PriorityEnum;
 import rocks.inspectit.shared.all.instrumentation.config.impl.AgentConfig;
 import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
+import rocks.inspectit.shared.all.instrumentation.config.impl.MethodInstrumentationConfig;
+import rocks.inspectit.shared.all.instrumentation.config.impl.SensorInstrumentationPoint;
 import rocks.inspectit.shared.all.testbase.TestBase;
 import rocks.inspectit.shared.cs.ci.Environment;
 import rocks.inspectit.shared.cs.ci.assignment.AbstractClassSensorAssignment;
@@ -129,6 +134,19 @@ public class ProfileUpdateJobTest extends TestBase {
 		when(classTypeTwo.getFQN()).thenReturn("fqnTwo");
 	}
 
+	protected InstrumentationDefinition createDefinition(String fqn, long sensorId) {
+		SensorInstrumentationPoint sensorInstrumentationPoint = new SensorInstrumentationPoint();
+		sensorInstrumentationPoint.setId(1L);
+		sensorInstrumentationPoint.addSensorId(sensorId, PriorityEnum.NORMAL);
+		MethodInstrumentationConfig config = new MethodInstrumentationConfig();
+		config.setTargetClassFqn(fqn);
+		config.setTargetMethodName("method");
+		config.setSensorInstrumentationPoint(sensorInstrumentationPoint);
+		InstrumentationDefinition definition = new InstrumentationDefinition(fqn);
+		definition.setMethodInstrumentationConfigs(Collections.singletonList(config));
+		return definition;
+	}
+
 	public class Run extends ProfileUpdateJobTest {
 
 		@Test
@@ -147,6 +165,10 @@ public class ProfileUpdateJobTest extends TestBase {
 			doReturn(instrumentationApplier).when(configurationResolver).getInstrumentationApplier(sensorAssignment, environment);
 			doReturn(types).when(classCacheSearchNarrower).narrowByClassSensorAssignment(classCache, sensorAssignment);
 			doReturn(types).when(instrumentationService).addInstrumentationPoints(eq(types), eq(agentConfiguration), Matchers.<Collection<IInstrumentationApplier>> any());
+			doReturn(Collections.emptyList()).doReturn(Arrays.asList(createDefinition("fqnOne", 1L), createDefinition("fqnTwo", 1L))).when(instrumentationService)
+					.getInstrumentationResults(any(Collection.class));
+			when(immutableClassTypeOne.hasInstrumentationPoints()).thenReturn(true);
+			when(immutableClassTypeTwo.hasInstrumentationPoints()).thenReturn(true);
 			doReturn(Collections.singleton(sensorAssignment)).when(event).getAddedSensorAssignments();
 			job.setProfileUpdateEvent(event);
 
@@ -157,9 +179,11 @@ public class ProfileUpdateJobTest extends TestBase {
 			assertThat((Collection<IInstrumentationApplier>) captor.getValue(), hasSize(1));
 			assertThat(((Collection<IInstrumentationApplier>) captor.getValue()).iterator().next(), is(instrumentationApplier));
 
+			// snapshot and the changed types
 			ArgumentCaptor<Collection> typeCaptor = ArgumentCaptor.forClass(Collection.class);
-			verify(instrumentationService).getInstrumentationResults(typeCaptor.capture());
-			assertThat((Collection<ClassType>) typeCaptor.getValue(), hasItems(classTypeOne, classTypeTwo));
+			verify(instrumentationService, times(2)).getInstrumentationResults(typeCaptor.capture());
+			assertThat((Collection<ClassType>) typeCaptor.getAllValues().get(0), hasItems(classTypeOne, classTypeTwo));
+			assertThat((Collection<ClassType>) typeCaptor.getAllValues().get(1), hasItems(classTypeOne, classTypeTwo));
 
 			ArgumentCaptor<ClassInstrumentationChangedEvent> eventCaptor = ArgumentCaptor.forClass(ClassInstrumentationChangedEvent.class);
 			verify(eventPublisher).publishEvent(eventCaptor.capture());
@@ -179,6 +203,8 @@ public class ProfileUpdateJobTest extends TestBase {
 			doReturn(instrumentationApplier).when(configurationResolver).getInstrumentationApplier(sensorAssignment, environment);
 			doReturn(types).when(classCacheSearchNarrower).narrowByClassSensorAssignment(classCache, sensorAssignment);
 			doReturn(types).when(instrumentationService).removeInstrumentationPoints(eq(types), Matchers.<Collection<IInstrumentationApplier>> any());
+			doReturn(Arrays.asList(createDefinition("fqnOne", 1L), createDefinition("fqnTwo", 1L))).doReturn(Collections.emptyList()).when(instrumentationService)
+					.getInstrumentationResults(any(Collection.class));
 			doReturn(Collections.singleton(sensorAssignment)).when(event).getRemovedSensorAssignments();
 			job.setProfileUpdateEvent(event);
 
@@ -189,9 +215,11 @@ public class ProfileUpdateJobTest extends TestBase {
 			assertThat((Collection<IInstrumentationApplier>) captor.getValue(), hasSize(1));
 			assertThat(((Collection<IInstrumentationApplier>) captor.getValue()).iterator().next(), is(instrumentationApplier));
 
+			// snapshot and the changed types
 			ArgumentCaptor<Collection> typeCaptor = ArgumentCaptor.forClass(Collection.class);
-			verify(instrumentationService).getInstrumentationResults(typeCaptor.capture());
-			assertThat((Collection<ClassType>) typeCaptor.getValue(), hasItems(classTypeOne, classTypeTwo));
+			verify(instrumentationService, times(2)).getInstrumentationResults(typeCaptor.capture());
+			assertThat((Collection<ClassType>) typeCaptor.getAllValues().get(0), hasItems(classTypeOne, classTypeTwo));
+			assertThat((Collection<ClassType>) typeCaptor.getAllValues().get(1), hasItems(classTypeOne, classTypeTwo));
 
 			Collection<IInstrumentationApplier> appliers = configurationHolder.getInstrumentationAppliers();
 			verify(instrumentationService, times(1)).addInstrumentationPoints(captor.capture(), eq(agentConfiguration), eq(appliers));
@@ -227,9 +255,52 @@ public class ProfileUpdateJobTest extends TestBase {
 			assertThat((Collection<IInstrumentationApplier>) captor.getValue(), hasSize(1));
 			assertThat(((Collection<IInstrumentationApplier>) captor.getValue()).iterator().next(), is(instrumentationApplier));
 
+			verify(instrumentationService).getInstrumentationResults(any(Collection.class));
 			verifyNoMoreInteractions(instrumentationService);
 			verifyZeroInteractions(environment, eventPublisher);
 		}
+
+		@Test
+		public void removedAssignmentSameDefinition() throws RemoteException {
+			Collection<ClassType> types = ImmutableList.of(classTypeOne);
+
+			doReturn(instrumentationApplier).when(configurationResolver).getInstrumentationApplier(sensorAssignment, environment);
+			doReturn(types).when(classCacheSearchNarrower).narrowByClassSensorAssignment(classCache, sensorAssignment);
+			doReturn(types).when(instrumentationService).removeInstrumentationPoints(eq(types), Matchers.<Collection<IInstrumentationApplier>> any());
+			// points are removed and re-added by the other assignments
+			doReturn(Collections.singletonList(createDefinition("fqnOne", 1L))).doReturn(Collections.singletonList(createDefinition("fqnOne", 1L))).when(instrumentationService)
+					.getInstrumentationResults(any(Collection.class));
+			when(immutableClassTypeOne.hasInstrumentationPoints()).thenReturn(true);
+			doReturn(Collections.singleton(sensorAssignment)).when(event).getRemovedSensorAssignments();
+			job.setProfileUpdateEvent(event);
+
+			job.run();
+
+			verify(instrumentationService, times(1)).removeInstrumentationPoints(eq(types), Matchers.<Collection<IInstrumentationApplier>> any());
+			verify(instrumentationService, times(2)).getInstrumentationResults(any(Collection.class));
+			verifyZeroInteractions(eventPublisher);
+		}
+
+		@Test
+		public void removedAssignmentChangedSensor() throws RemoteException {
+			Collection<ClassType> types = ImmutableList.of(classTypeOne);
+
+			doReturn(instrumentationApplier).when(configurationResolver).getInstrumentationApplier(sensorAssignment, environment);
+			doReturn(types).when(classCacheSearchNarrower).narrowByClassSensorAssignment(classCache, sensorAssignment);
+			doReturn(types).when(instrumentationService).removeInstrumentationPoints(eq(types), Matchers.<Collection<IInstrumentationApplier>> any());
+			doReturn(Collections.singletonList(createDefinition("fqnOne", 1L))).doReturn(Collections.singletonList(createDefinition("fqnOne", 2L))).when(instrumentationService)
+					.getInstrumentationResults(any(Collection.class));
+			when(immutableClassTypeOne.hasInstrumentationPoints()).thenReturn(true);
+			doReturn(Collections.singleton(sensorAssignment)).when(event).getRemovedSensorAssignments();
+			job.setProfileUpdateEvent(event);
+
+			job.run();
+
+			ArgumentCaptor<ClassInstrumentationChangedEvent> eventCaptor = ArgumentCaptor.forClass(ClassInstrumentationChangedEvent.class);
+			verify(eventPublisher).publishEvent(eventCaptor.capture());
+			assertThat(eventCaptor.getValue().getInstrumentationDefinitions(), hasSize(1));
+			assertThat(eventCaptor.getValue().getInstrumentationDefinitions().iterator().next().getClassName(), is("fqnOne"));
+		}
 	}
 
 }
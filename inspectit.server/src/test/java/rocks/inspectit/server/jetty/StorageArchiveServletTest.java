@@ -0,0 +1,136 @@
+package rocks.inspectit.server.jetty;
+
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.server.storage.CmrStorageManager;
+import rocks.inspectit.shared.all.exception.BusinessException;
+import rocks.inspectit.shared.all.exception.enumeration.StorageErrorCodeEnum;
+import rocks.inspectit.shared.all.testbase.TestBase;
+import rocks.inspectit.shared.cs.storage.StorageData;
+
+/**
+ * Tests the {@link StorageArchiveServlet}.
+ *
+ * @author Ivan Senic
+ *
+ */
+@SuppressWarnings("PMD")
+public class StorageArchiveServletTest extends TestBase {
+
+	private static final String STORAGE_ID = "storageId";
+
+	@InjectMocks
+	StorageArchiveServlet servlet;
+
+	@Mock
+	CmrStorageManager storageManager;
+
+	@Mock
+	HttpServletRequest request;
+
+	@Mock
+	HttpServletResponse response;
+
+	@Mock
+	StorageData storageData;
+
+	@Mock
+	ServletOutputStream outputStream;
+
+	@Mock
+	ServletInputStream inputStream;
+
+	public class DoGet extends StorageArchiveServletTest {
+
+		@Test
+		public void export() throws Exception {
+			when(request.getParameter("storageId")).thenReturn(STORAGE_ID);
+			when(storageManager.getStorageData(STORAGE_ID)).thenReturn(storageData);
+			when(storageData.isStorageClosed()).thenReturn(true);
+			when(response.getOutputStream()).thenReturn(outputStream);
+
+			servlet.doGet(request, response);
+
+			verify(response).setContentType("application/zip");
+			verify(storageManager).exportStorage(storageData, outputStream);
+		}
+
+		@Test
+		public void noStorageId() throws Exception {
+			servlet.doGet(request, response);
+
+			verify(response).sendError(eq(HttpServletResponse.SC_BAD_REQUEST), anyString());
+			verifyZeroInteractions(storageManager);
+		}
+
+		@Test
+		public void storageDoesNotExist() throws Exception {
+			when(request.getParameter("storageId")).thenReturn(STORAGE_ID);
+
+			servlet.doGet(request, response);
+
+			verify(response).sendError(eq(HttpServletResponse.SC_NOT_FOUND), anyString());
+		}
+
+		@Test
+		public void storageNotClosed() throws Exception {
+			when(request.getParameter("storageId")).thenReturn(STORAGE_ID);
+			when(storageManager.getStorageData(STORAGE_ID)).thenReturn(storageData);
+
+			servlet.doGet(request, response);
+
+			verify(response).sendError(eq(HttpServletResponse.SC_CONFLICT), anyString());
+			verifyZeroInteractions(outputStream);
+		}
+
+		@Test(expectedExceptions = ServletException.class)
+		public void exportFails() throws Exception {
+			when(request.getParameter("storageId")).thenReturn(STORAGE_ID);
+			when(storageManager.getStorageData(STORAGE_ID)).thenReturn(storageData);
+			when(storageData.isStorageClosed()).thenReturn(true);
+			when(response.getOutputStream()).thenReturn(outputStream);
+			doThrow(new BusinessException("Export the storage.", StorageErrorCodeEnum.STORAGE_DOES_NOT_EXIST)).when(storageManager).exportStorage(storageData, outputStream);
+
+			servlet.doGet(request, response);
+		}
+	}
+
+	public class DoPost extends StorageArchiveServletTest {
+
+		@Test
+		public void imported() throws Exception {
+			when(request.getInputStream()).thenReturn(inputStream);
+			when(storageManager.importStorage(inputStream)).thenReturn(storageData);
+
+			servlet.doPost(request, response);
+
+			verify(response).setStatus(HttpServletResponse.SC_CREATED);
+		}
+
+		@Test
+		public void alreadyExisting() throws Exception {
+			when(request.getInputStream()).thenReturn(inputStream);
+
+			servlet.doPost(request, response);
+
+			verify(storageManager).importStorage(inputStream);
+			verify(response).setStatus(HttpServletResponse.SC_OK);
+		}
+	}
+
+}
@@ -5,6 +5,8 @@ import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -28,6 +30,7 @@ import org.testng.annotations.Test;
 import com.google.common.collect.ImmutableMap;
 
 import rocks.inspectit.server.ci.event.ClassInstrumentationChangedEvent;
+import rocks.inspectit.server.ci.event.ClassPrefilterChangedEvent;
 import rocks.inspectit.server.event.AgentDeletedEvent;
 import rocks.inspectit.server.event.AgentRegisteredEvent;
 import rocks.inspectit.server.util.AgentStatusDataProvider;
@@ -35,7 +38,9 @@ import rocks.inspectit.shared.all.cmr.model.PlatformIdent;
 import rocks.inspectit.shared.all.communication.data.cmr.AgentStatusData;
 import rocks.inspectit.shared.all.communication.data.cmr.AgentStatusData.InstrumentationStatus;
 import rocks.inspectit.shared.all.communication.message.IAgentMessage;
+import rocks.inspectit.shared.all.communication.message.UpdatedClassPrefilterMessage;
 import rocks.inspectit.shared.all.communication.message.UpdatedInstrumentationMessage;
+import rocks.inspectit.shared.all.instrumentation.config.impl.ClassPrefilterConfig;
 import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
 import rocks.inspectit.shared.all.testbase.TestBase;
 
@@ -244,12 +249,46 @@ public class AgentInstrumentationMessageGateTest extends TestBase {
 			assertThat(getDefinitionBuffer().get(10L).entrySet(), hasSize(0));
 		}
 
+		@Test
+		@SuppressWarnings("rawtypes")
+		public void classPrefilterBeforeDefinitions() throws Exception {
+			ClassPrefilterConfig classPrefilterConfig = new ClassPrefilterConfig();
+			when(definition.getClassName()).thenReturn("class.one");
+			messageGate.onApplicationEvent(new ClassInstrumentationChangedEvent(this, 10L, Arrays.asList(definition)));
+			messageGate.onApplicationEvent(new ClassPrefilterChangedEvent(this, 10L, classPrefilterConfig));
+			when(agentStatusDataProvider.getAgentStatusDataMap()).thenReturn(ImmutableMap.of(10L, statusData));
+
+			messageGate.flush(10L);
+
+			ArgumentCaptor<IAgentMessage> messageCaptor = ArgumentCaptor.forClass(IAgentMessage.class);
+			verify(messageProvider, times(2)).provideMessage(eq(10L), messageCaptor.capture());
+			verifyNoMoreInteractions(messageProvider);
+			assertThat(((UpdatedClassPrefilterMessage) messageCaptor.getAllValues().get(0)).getMessageContent(), is(classPrefilterConfig));
+			assertThat(((UpdatedInstrumentationMessage) messageCaptor.getAllValues().get(1)).getMessageContent(), contains(definition));
+		}
+
+		@Test
+		@SuppressWarnings("rawtypes")
+		public void classPrefilterRemoved() throws Exception {
+			messageGate.onApplicationEvent(new ClassPrefilterChangedEvent(this, 10L, null));
+			when(agentStatusDataProvider.getAgentStatusDataMap()).thenReturn(ImmutableMap.of(10L, statusData));
+
+			messageGate.flush(10L);
+			messageGate.flush(10L);
+
+			ArgumentCaptor<IAgentMessage> messageCaptor = ArgumentCaptor.forClass(IAgentMessage.class);
+			verify(messageProvider, times(1)).provideMessage(eq(10L), messageCaptor.capture());
+			verifyNoMoreInteractions(messageProvider);
+			assertThat(((UpdatedClassPrefilterMessage) messageCaptor.getValue()).getMessageContent(), is(nullValue()));
+		}
+
 		@Test
 		@SuppressWarnings("unchecked")
 		public void unknownPlatformId() throws Exception {
 			when(definition.getClassName()).thenReturn("class.one");
 			ClassInstrumentationChangedEvent event = new ClassInstrumentationChangedEvent(this, 10L, Arrays.asList(definition));
 			messageGate.onApplicationEvent(event);
+			messageGate.onApplicationEvent(new ClassPrefilterChangedEvent(this, 10L, new ClassPrefilterConfig()));
 			when(agentStatusDataProvider.getAgentStatusDataMap()).thenReturn(Collections.EMPTY_MAP);
 			assertThat(getDefinitionBuffer().get(10L).entrySet(), hasSize(1));
 
@@ -1,6 +1,7 @@
 package rocks.inspectit.server.processor.impl;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasItem;
@@ -34,6 +35,7 @@ import org.testng.annotations.Test;
 import rocks.inspectit.server.cache.IBuffer;
 import rocks.inspectit.server.cache.IBufferElement;
 import rocks.inspectit.server.dao.impl.TimerDataAggregator;
+import rocks.inspectit.server.messaging.AgentMessageProvider;
 import rocks.inspectit.server.processor.AbstractCmrDataProcessor;
 import rocks.inspectit.server.storage.CmrStorageManager;
 import rocks.inspectit.server.util.CacheIdGenerator;
@@ -49,6 +51,7 @@ import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
 import rocks.inspectit.shared.all.communication.data.SqlStatementData;
 import rocks.inspectit.shared.all.communication.data.SystemInformationData;
 import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.all.communication.message.ResendStackTracesMessage;
 import rocks.inspectit.shared.all.serializer.SerializationException;
 import rocks.inspectit.shared.all.serializer.impl.SerializationManager;
 import rocks.inspectit.shared.cs.indexing.buffer.IBufferTreeComponent;
@@ -91,6 +94,9 @@ public class CmrDataProcessorsTest {
 	@Mock
 	private EntityManager entityManager;
 
+	@Mock
+	private AgentMessageProvider messageProvider;
+
 	@BeforeMethod
 	public void init() {
 		MockitoAnnotations.initMocks(this);
@@ -181,6 +187,74 @@ public class CmrDataProcessorsTest {
 		assertThat(child.getErrorMessage(), is("parentMsg"));
 	}
 
+	/**
+	 * Tests the {@link ExceptionStackTraceCmrProcessor}.
+	 */
+	@Test
+	public void exceptionStackTraceProcessor() {
+		ExceptionStackTraceCmrProcessor processor = new ExceptionStackTraceCmrProcessor();
+		processor.messageProvider = messageProvider;
+
+		// only exceptions
+		assertThat(processor.canBeProcessed(new TimerData()), is(false));
+
+		// don't fail on null
+		processor.process((DefaultData) null, entityManager);
+		verifyZeroInteractions(entityManager);
+
+		// first one carries the stack trace
+		ExceptionSensorData first = new ExceptionSensorData();
+		first.setPlatformIdent(1L);
+		first.setStackTraceFingerprint(10L);
+		first.setStackTrace("stackTrace");
+		processor.process(first, entityManager);
+
+		// later only the fingerprint, also in the child
+		ExceptionSensorData second = new ExceptionSensorData();
+		second.setPlatformIdent(1L);
+		second.setStackTraceFingerprint(10L);
+		ExceptionSensorData child = new ExceptionSensorData();
+		child.setPlatformIdent(1L);
+		child.setStackTraceFingerprint(10L);
+		second.setChild(child);
+		processor.process(second, entityManager);
+
+		assertThat(second.getStackTrace(), is("stackTrace"));
+		assertThat(child.getStackTrace(), is("stackTrace"));
+		verifyZeroInteractions(messageProvider);
+
+		// same fingerprint of other agent is not resolved
+		ExceptionSensorData otherAgent = new ExceptionSensorData();
+		otherAgent.setPlatformIdent(2L);
+		otherAgent.setStackTraceFingerprint(10L);
+		processor.process(otherAgent, entityManager);
+
+		assertThat(otherAgent.getStackTrace(), is(nullValue()));
+		ArgumentCaptor<ResendStackTracesMessage> messageCaptor = ArgumentCaptor.forClass(ResendStackTracesMessage.class);
+		verify(messageProvider).provideMessage(Matchers.eq(2L), messageCaptor.capture());
+		assertThat(messageCaptor.getValue().getMessageContent(), contains(10L));
+
+		// unknown fingerprint is requested only once, no fingerprint is not resolved
+		ExceptionSensorData unknown = new ExceptionSensorData();
+		unknown.setPlatformIdent(1L);
+		unknown.setStackTraceFingerprint(20L);
+		ExceptionSensorData unknownAgain = new ExceptionSensorData();
+		unknownAgain.setPlatformIdent(1L);
+		unknownAgain.setStackTraceFingerprint(20L);
+		ExceptionSensorData noFingerprint = new ExceptionSensorData();
+		noFingerprint.setPlatformIdent(1L);
+		processor.process(unknown, entityManager);
+		processor.process(unknownAgain, entityManager);
+		processor.process(noFingerprint, entityManager);
+
+		assertThat(unknown.getStackTrace(), is(nullValue()));
+		assertThat(unknownAgain.getStackTrace(), is(nullValue()));
+		assertThat(noFingerprint.getStackTrace(), is(nullValue()));
+		verify(messageProvider).provideMessage(Matchers.eq(1L), messageCaptor.capture());
+		assertThat(messageCaptor.getValue().getMessageContent(), contains(20L));
+		verifyNoMoreInteractions(messageProvider);
+	}
+
 	/**
 	 * Tests the {@link IndexerCmrProcessor}.
 	 */
@@ -8,6 +8,7 @@ import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -39,6 +40,9 @@ public class AgentServiceTest extends TestBase {
 	@Mock
 	AgentMessageProvider messageProvider;
 
+	@Mock
+	InvocationSequenceReassembler invocationSequenceReassembler;
+
 	/**
 	 * Tests the {@link AgentService#analyze(long, String, Type)} method.
 	 */
@@ -56,6 +60,24 @@ public class AgentServiceTest extends TestBase {
 		}
 	}
 
+	/**
+	 * Tests the {@link AgentService#analyzeBatch(long, java.util.Map)} method.
+	 */
+	public static class AnalyzeBatch extends AgentServiceTest {
+
+		@Test
+		public void successful() throws Exception {
+			Type type = mock(Type.class);
+			Map<String, Type> batch = Collections.singletonMap("hash", type);
+
+			agentService.analyzeBatch(10, batch);
+
+			verify(instrumentationManager).analyzeBatch(10L, batch);
+			verifyNoMoreInteractions(instrumentationManager);
+			verifyZeroInteractions(messageProvider);
+		}
+	}
+
 	/**
 	 * Tests the {@link AgentService#analyzeJmxAttributes(long, Collection)} method.
 	 */
@@ -140,7 +162,8 @@ public class AgentServiceTest extends TestBase {
 			agentService.unregister(10L);
 
 			verify(instrumentationManager).unregister(10L);
-			verifyNoMoreInteractions(instrumentationManager);
+			verify(invocationSequenceReassembler).removePlatform(10L);
+			verifyNoMoreInteractions(instrumentationManager, invocationSequenceReassembler);
 			verifyZeroInteractions(messageProvider);
 		}
 	}
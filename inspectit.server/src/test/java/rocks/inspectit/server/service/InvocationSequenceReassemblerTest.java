@@ -0,0 +1,202 @@
+package rocks.inspectit.server.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasProperty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hamcrest.Matcher;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.slf4j.Logger;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.server.event.AgentDeletedEvent;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceChunk;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
+import rocks.inspectit.shared.all.testbase.TestBase;
+import rocks.inspectit.shared.cs.cmr.service.ICmrManagementService;
+
+/**
+ * Tests the {@link InvocationSequenceReassembler}.
+ *
+ * @author Ivan Senic
+ *
+ */
+@SuppressWarnings("PMD")
+public class InvocationSequenceReassemblerTest extends TestBase {
+
+	private static final long PLATFORM_IDENT = 10L;
+
+	@InjectMocks
+	InvocationSequenceReassembler reassembler;
+
+	@Mock
+	Logger log;
+
+	@Mock
+	ICmrManagementService cmrManagementService;
+
+	/**
+	 * Creates chunk with nodes having the method idents same as their stream index.
+	 */
+	InvocationSequenceChunk chunk(long sequenceId, int chunkIndex, boolean last, int firstNodeIndex, int... parentIndexes) {
+		List<InvocationSequenceData> nodes = new ArrayList<>();
+		for (int i = 0; i < parentIndexes.length; i++) {
+			nodes.add(new InvocationSequenceData(null, PLATFORM_IDENT, 1L, firstNodeIndex + i));
+		}
+		return new InvocationSequenceChunk(PLATFORM_IDENT, sequenceId, chunkIndex, last, nodes, parentIndexes);
+	}
+
+	public static class AddChunk extends InvocationSequenceReassemblerTest {
+
+		@Test
+		public void singleChunk() {
+			InvocationSequenceData root = reassembler.addChunk(chunk(1L, 0, true, 0, -1, 0, 1, 0));
+
+			assertThat(root.getMethodIdent(), is(0L));
+			assertThat(root.getNestedSequences(), contains(hasMethod(1L), hasMethod(3L)));
+			InvocationSequenceData first = root.getNestedSequences().get(0);
+			assertThat(first.getParentSequence(), is(root));
+			assertThat(first.getNestedSequences(), contains(hasMethod(2L)));
+			assertThat(first.getNestedSequences().get(0).getParentSequence(), is(first));
+			assertThat(root.getNestedSequences().get(1).getNestedSequences(), is(empty()));
+			verifyZeroInteractions(cmrManagementService);
+		}
+
+		@Test
+		public void multipleChunks() {
+			assertThat(reassembler.addChunk(chunk(1L, 0, false, 0, -1, 0)), is(nullValue()));
+			assertThat(reassembler.addChunk(chunk(1L, 1, false, 2, 1, 0)), is(nullValue()));
+			InvocationSequenceData root = reassembler.addChunk(chunk(1L, 2, true, 4, 3));
+
+			assertThat(root.getNestedSequences(), contains(hasMethod(1L), hasMethod(3L)));
+			assertThat(root.getNestedSequences().get(0).getNestedSequences(), contains(hasMethod(2L)));
+			assertThat(root.getNestedSequences().get(1).getNestedSequences(), contains(hasMethod(4L)));
+			verifyZeroInteractions(cmrManagementService);
+		}
+
+		@Test
+		public void interleavedSequences() {
+			assertThat(reassembler.addChunk(chunk(1L, 0, false, 0, -1)), is(nullValue()));
+			assertThat(reassembler.addChunk(chunk(2L, 0, false, 0, -1)), is(nullValue()));
+			InvocationSequenceData second = reassembler.addChunk(chunk(2L, 1, true, 1, 0));
+			InvocationSequenceData first = reassembler.addChunk(chunk(1L, 1, true, 1, 0, 1));
+
+			assertThat(second.getNestedSequences(), contains(hasMethod(1L)));
+			assertThat(first.getNestedSequences(), contains(hasMethod(1L)));
+			assertThat(first.getNestedSequences().get(0).getNestedSequences(), contains(hasMethod(2L)));
+		}
+
+		@Test
+		public void missingChunk() {
+			reassembler.addChunk(chunk(1L, 0, false, 0, -1, 0));
+			InvocationSequenceData root = reassembler.addChunk(chunk(1L, 2, true, 4, 0));
+
+			assertThat(root, is(nullValue()));
+			verify(cmrManagementService).addDroppedDataCount(3);
+		}
+
+		@Test
+		public void missingStart() {
+			InvocationSequenceData root = reassembler.addChunk(chunk(1L, 1, true, 2, 0, 0));
+
+			assertThat(root, is(nullValue()));
+			verify(cmrManagementService).addDroppedDataCount(2);
+		}
+
+		@Test
+		public void invalidParentIndex() {
+			InvocationSequenceData root = reassembler.addChunk(chunk(1L, 0, true, 0, -1, 5));
+
+			assertThat(root, is(nullValue()));
+			verify(cmrManagementService).addDroppedDataCount(2);
+		}
+
+		@Test
+		public void bufferFullOldestDropped() {
+			reassembler.maxPendingNodes = 4;
+			reassembler.addChunk(chunk(1L, 0, false, 0, -1, 0));
+			reassembler.addChunk(chunk(2L, 0, false, 0, -1));
+
+			assertThat(reassembler.addChunk(chunk(3L, 0, false, 0, -1, 0)), is(nullValue()));
+			verify(cmrManagementService).addDroppedDataCount(2);
+
+			// first sequence was dropped, second and third can be completed
+			assertThat(reassembler.addChunk(chunk(1L, 1, true, 2, 0)), is(nullValue()));
+			assertThat(reassembler.addChunk(chunk(2L, 1, true, 1, 0)), is(notNullValue()));
+			assertThat(reassembler.addChunk(chunk(3L, 1, true, 2, 0)), is(notNullValue()));
+		}
+
+		@Test
+		public void bufferFullSequenceTooLarge() {
+			reassembler.maxPendingNodes = 2;
+			reassembler.addChunk(chunk(1L, 0, false, 0, -1));
+
+			InvocationSequenceData root = reassembler.addChunk(chunk(2L, 0, true, 0, -1, 0, 0));
+
+			assertThat(root, is(nullValue()));
+			verify(cmrManagementService).addDroppedDataCount(1);
+			verify(cmrManagementService).addDroppedDataCount(3);
+		}
+
+		private Matcher<InvocationSequenceData> hasMethod(long methodIdent) {
+			return hasProperty("methodIdent", is(methodIdent));
+		}
+	}
+
+	public static class RemoveExpired extends InvocationSequenceReassemblerTest {
+
+		@Test
+		public void expired() {
+			reassembler.addChunk(chunk(1L, 0, false, 0, -1, 0));
+
+			reassembler.removeExpired(System.currentTimeMillis() + InvocationSequenceReassembler.MAX_PENDING_AGE_MILLIS + 1);
+
+			verify(cmrManagementService).addDroppedDataCount(2);
+			assertThat(reassembler.addChunk(chunk(1L, 1, true, 2, 0)), is(nullValue()));
+		}
+
+		@Test
+		public void notExpired() {
+			reassembler.addChunk(chunk(1L, 0, false, 0, -1, 0));
+
+			reassembler.removeExpired(System.currentTimeMillis());
+
+			verifyZeroInteractions(cmrManagementService);
+			assertThat(reassembler.addChunk(chunk(1L, 1, true, 2, 0)), is(notNullValue()));
+		}
+	}
+
+	public static class OnApplicationEvent extends InvocationSequenceReassemblerTest {
+
+		@Test
+		public void agentDeleted() {
+			reassembler.addChunk(chunk(1L, 0, false, 0, -1, 0));
+
+			reassembler.onApplicationEvent(new AgentDeletedEvent(this, PLATFORM_IDENT));
+
+			verify(cmrManagementService).addDroppedDataCount(2);
+			assertThat(reassembler.addChunk(chunk(1L, 1, true, 2, 0)), is(nullValue()));
+		}
+
+		@Test
+		public void otherAgentDeleted() {
+			reassembler.addChunk(chunk(1L, 0, false, 0, -1, 0));
+
+			reassembler.onApplicationEvent(new AgentDeletedEvent(this, PLATFORM_IDENT + 1));
+
+			verifyZeroInteractions(cmrManagementService);
+			assertThat(reassembler.addChunk(chunk(1L, 1, true, 2, 0)), is(notNullValue()));
+		}
+	}
+
+}
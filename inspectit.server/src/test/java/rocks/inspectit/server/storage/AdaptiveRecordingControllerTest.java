@@ -0,0 +1,202 @@
+package rocks.inspectit.server.storage;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.server.storage.AdaptiveRecordingController.FidelityLevel;
+import rocks.inspectit.server.storage.AdaptiveRecordingController.RecordingCallback;
+import rocks.inspectit.server.test.AbstractTestNGLogSupport;
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
+import rocks.inspectit.shared.all.communication.data.SqlStatementData;
+import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.cs.storage.StorageData;
+import rocks.inspectit.shared.cs.storage.StorageWriter;
+import rocks.inspectit.shared.cs.storage.processor.AbstractDataProcessor;
+import rocks.inspectit.shared.cs.storage.processor.impl.DataSaverProcessor;
+
+/**
+ * Test for the {@link AdaptiveRecordingController}.
+ *
+ * @author Ivan Senic
+ *
+ */
+@SuppressWarnings("PMD")
+public class AdaptiveRecordingControllerTest extends AbstractTestNGLogSupport {
+
+	/**
+	 * Class under test.
+	 */
+	private AdaptiveRecordingController controller;
+
+	@Mock
+	private RecordingCallback recordingCallback;
+
+	@Mock
+	private ScheduledExecutorService executorService;
+
+	@Mock
+	private StorageWriter storageWriter;
+
+	@Mock
+	private StorageData storageData;
+
+	@BeforeMethod
+	public void init() {
+		MockitoAnnotations.initMocks(this);
+		controller = new AdaptiveRecordingController();
+		controller.executorService = executorService;
+		controller.log = LoggerFactory.getLogger(AdaptiveRecordingController.class);
+		controller.active = true;
+		controller.queueDepthLimit = 100;
+		controller.writeLatencyLimit = 100;
+		controller.minInvocationChildDuration = 1;
+		controller.invocationSamplingRate = 2;
+		when(storageWriter.getStorageData()).thenReturn(storageData);
+		when(recordingCallback.canWriteMore()).thenReturn(true);
+	}
+
+	@Test
+	public void targetLevel() {
+		assertThat(controller.getTargetLevel(0, 0, true, false), is(FidelityLevel.FULL));
+		assertThat(controller.getTargetLevel(100, 0, true, false), is(FidelityLevel.REDUCED));
+		assertThat(controller.getTargetLevel(0, 100, true, false), is(FidelityLevel.REDUCED));
+		assertThat(controller.getTargetLevel(0, 0, true, true), is(FidelityLevel.REDUCED));
+		assertThat(controller.getTargetLevel(200, 0, true, false), is(FidelityLevel.SAMPLED));
+		assertThat(controller.getTargetLevel(0, 200, true, false), is(FidelityLevel.SAMPLED));
+		assertThat(controller.getTargetLevel(0, 0, false, false), is(FidelityLevel.SAMPLED));
+	}
+
+	@Test
+	public void reduceAndRestoreWithCallback() {
+		controller.start(storageWriter, Collections.<AbstractDataProcessor> emptyList(), recordingCallback);
+
+		when(storageWriter.getQueuedTaskCount()).thenReturn(500L);
+		controller.check();
+		assertThat(controller.getFidelityLevel(), is(FidelityLevel.SAMPLED));
+
+		// no pressure, level restored one by one after relaxed checks
+		when(storageWriter.getQueuedTaskCount()).thenReturn(0L);
+		controller.check();
+		controller.check();
+		assertThat(controller.getFidelityLevel(), is(FidelityLevel.SAMPLED));
+		controller.check();
+		assertThat(controller.getFidelityLevel(), is(FidelityLevel.REDUCED));
+		controller.check();
+		controller.check();
+		controller.check();
+		assertThat(controller.getFidelityLevel(), is(FidelityLevel.FULL));
+
+		verify(recordingCallback).fidelityChanged(eq(storageData), eq(FidelityLevel.SAMPLED), anyString());
+		verify(recordingCallback).fidelityChanged(eq(storageData), eq(FidelityLevel.REDUCED), anyString());
+		verify(recordingCallback).fidelityChanged(eq(storageData), eq(FidelityLevel.FULL), anyString());
+	}
+
+	@Test
+	public void notActive() {
+		controller.active = false;
+		controller.start(storageWriter, Collections.<AbstractDataProcessor> emptyList(), recordingCallback);
+
+		TimerData timerData = new TimerData();
+		assertThat(controller.adapt(timerData), is(sameInstance((DefaultData) timerData)));
+	}
+
+	@Test
+	public void timerDataAggregated() {
+		List<Class<? extends DefaultData>> classes = new ArrayList<>();
+		classes.add(TimerData.class);
+		AbstractDataProcessor saver = new DataSaverProcessor(classes, true);
+		controller.start(storageWriter, Collections.singletonList(saver), recordingCallback);
+		when(storageWriter.getQueuedTaskCount()).thenReturn(100L);
+		controller.check();
+
+		TimerData timerData = new TimerData(new Timestamp(System.currentTimeMillis()), 1L, 1L, 1L);
+		assertThat(controller.adapt(timerData), is(nullValue()));
+
+		// not recorded data is not touched
+		SqlStatementData sqlData = new SqlStatementData(new Timestamp(System.currentTimeMillis()), 1L, 1L, 1L);
+		assertThat(controller.adapt(sqlData), is(sameInstance((DefaultData) sqlData)));
+	}
+
+	@Test
+	public void invocationPruned() {
+		InvocationSequenceData root = new InvocationSequenceData();
+		root.setDuration(100d);
+		InvocationSequenceData shortChild = child(root, 0.5d);
+		InvocationSequenceData longChild = child(root, 10d);
+		InvocationSequenceData sqlChild = child(shortChild, 0.1d);
+		sqlChild.setSqlStatementData(new SqlStatementData());
+		child(longChild, 0.1d);
+		root.setChildCount(4);
+
+		InvocationSequenceData pruned = controller.prune(root);
+
+		assertThat(pruned, is(not(sameInstance(root))));
+		assertThat(pruned.getChildCount(), is(3L));
+		assertThat(pruned.getNestedSequences(), hasSize(2));
+		assertThat(pruned.getNestedSequences().get(0).getNestedSequences(), hasSize(1));
+		assertThat(pruned.getNestedSequences().get(0).getNestedSequences().get(0).getSqlStatementData(), is(sameInstance(sqlChild.getSqlStatementData())));
+		assertThat(pruned.getNestedSequences().get(1).getNestedSequences(), hasSize(0));
+		// original not changed
+		assertThat(root.getChildCount(), is(4L));
+		assertThat(longChild.getNestedSequences(), hasSize(1));
+	}
+
+	@Test
+	public void invocationNotPrunedReturnsSame() {
+		InvocationSequenceData root = new InvocationSequenceData();
+		child(root, 10d);
+		root.setChildCount(1);
+
+		assertThat(controller.prune(root), is(sameInstance(root)));
+	}
+
+	@Test
+	public void invocationSampled() {
+		controller.start(storageWriter, Collections.<AbstractDataProcessor> emptyList(), recordingCallback);
+		when(storageWriter.getQueuedTaskCount()).thenReturn(500L);
+		controller.check();
+
+		InvocationSequenceData invocation = new InvocationSequenceData();
+		assertThat(controller.adapt(invocation), is(sameInstance((DefaultData) invocation)));
+		assertThat(controller.adapt(invocation), is(nullValue()));
+		assertThat(controller.adapt(invocation), is(sameInstance((DefaultData) invocation)));
+	}
+
+	/**
+	 * Creates child with given duration.
+	 *
+	 * @param parent
+	 *            Parent.
+	 * @param duration
+	 *            Duration.
+	 * @return Child.
+	 */
+	private InvocationSequenceData child(InvocationSequenceData parent, double duration) {
+		InvocationSequenceData child = new InvocationSequenceData();
+		child.setDuration(duration);
+		child.setParentSequence(parent);
+		parent.getNestedSequences().add(child);
+		return child;
+	}
+}
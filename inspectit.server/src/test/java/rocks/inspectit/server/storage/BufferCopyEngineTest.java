@@ -0,0 +1,203 @@
+package rocks.inspectit.server.storage;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.slf4j.Logger;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.server.dao.StorageDataDao;
+import rocks.inspectit.shared.all.cmr.cache.IObjectSizes;
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.SystemInformationData;
+import rocks.inspectit.shared.all.testbase.TestBase;
+import rocks.inspectit.shared.cs.storage.StorageData;
+import rocks.inspectit.shared.cs.storage.StorageWriter;
+import rocks.inspectit.shared.cs.storage.processor.AbstractDataProcessor;
+
+/**
+ * Test for the {@link BufferCopyEngine}.
+ *
+ * @author Ivan Senic
+ *
+ */
+@SuppressWarnings("PMD")
+public class BufferCopyEngineTest extends TestBase {
+
+	private static final long PLATFORM_ID = 10L;
+
+	@InjectMocks
+	BufferCopyEngine bufferCopyEngine;
+
+	@Mock
+	Logger log;
+
+	@Mock
+	IObjectSizes objectSizes;
+
+	@Mock
+	StorageDataDao storageDataDao;
+
+	@Mock
+	StorageData storageData;
+
+	@Mock
+	StorageWriter storageWriter;
+
+	@Mock
+	AbstractDataProcessor processor;
+
+	ExecutorService executorService;
+
+	@BeforeMethod
+	public void init() {
+		executorService = Executors.newFixedThreadPool(2);
+		bufferCopyEngine.executorService = executorService;
+		bufferCopyEngine.chunkSize = 2;
+		bufferCopyEngine.maxBytesPerSecond = 0;
+		bufferCopyEngine.maxCpuShare = 1f;
+		when(storageDataDao.getBufferDataForAgent(anyLong(), Matchers.<Date> any(), Matchers.<Date> any())).thenReturn(Collections.<DefaultData> emptyList());
+		when(storageDataDao.getSystemDataForAgent(anyLong(), Matchers.<Date> any(), Matchers.<Date> any(), anyLong(), eq(2))).thenReturn(Collections.<DefaultData> emptyList());
+		when(storageDataDao.getSystemInformationData(Matchers.<Collection<Long>> any())).thenReturn(Collections.<SystemInformationData> emptyList());
+	}
+
+	@AfterMethod
+	public void shutdown() {
+		executorService.shutdownNow();
+	}
+
+	private DefaultData data(long id) {
+		DefaultData defaultData = mock(DefaultData.class);
+		when(defaultData.getId()).thenReturn(id);
+		return defaultData;
+	}
+
+	public class Copy extends BufferCopyEngineTest {
+
+		@Test
+		public void bufferWalkedInChunks() {
+			DefaultData first = data(1L);
+			DefaultData second = data(3L);
+			DefaultData third = data(7L);
+			when(storageDataDao.getBufferDataForAgent(PLATFORM_ID, null, null)).thenReturn(Arrays.asList(first, second, third));
+
+			long copied = bufferCopyEngine.copy(storageData, storageWriter, PLATFORM_ID, null, null, null);
+
+			assertThat(copied, is(3L));
+			InOrder inOrder = inOrder(storageWriter);
+			inOrder.verify(storageWriter).write(first);
+			inOrder.verify(storageWriter).write(second);
+			inOrder.verify(storageWriter).write(third);
+			// buffer is queried only once
+			verify(storageDataDao).getBufferDataForAgent(PLATFORM_ID, null, null);
+		}
+
+		@Test
+		public void systemDataWalkedInChunks() {
+			DefaultData first = data(1L);
+			DefaultData second = data(3L);
+			DefaultData third = data(7L);
+			when(storageDataDao.getSystemDataForAgent(PLATFORM_ID, null, null, 0L, 2)).thenReturn(Arrays.asList(first, second));
+			when(storageDataDao.getSystemDataForAgent(PLATFORM_ID, null, null, 4L, 2)).thenReturn(Collections.singletonList(third));
+
+			long copied = bufferCopyEngine.copy(storageData, storageWriter, PLATFORM_ID, null, null, null);
+
+			assertThat(copied, is(3L));
+			InOrder inOrder = inOrder(storageDataDao, storageWriter);
+			inOrder.verify(storageDataDao).getSystemDataForAgent(PLATFORM_ID, null, null, 0L, 2);
+			inOrder.verify(storageWriter).write(first);
+			inOrder.verify(storageWriter).write(second);
+			inOrder.verify(storageDataDao).getSystemDataForAgent(PLATFORM_ID, null, null, 4L, 2);
+			inOrder.verify(storageWriter).write(third);
+			// last chunk was not full, no more system data queries
+			verify(storageDataDao, never()).getSystemDataForAgent(PLATFORM_ID, null, null, 8L, 2);
+		}
+
+		@Test
+		public void fullLastSystemDataChunk() {
+			DefaultData first = data(1L);
+			DefaultData second = data(2L);
+			when(storageDataDao.getSystemDataForAgent(PLATFORM_ID, null, null, 0L, 2)).thenReturn(Arrays.asList(first, second));
+
+			long copied = bufferCopyEngine.copy(storageData, storageWriter, PLATFORM_ID, null, null, null);
+
+			assertThat(copied, is(2L));
+			verify(storageDataDao).getSystemDataForAgent(PLATFORM_ID, null, null, 3L, 2);
+		}
+
+		@Test
+		public void systemDataAfterBuffer() {
+			DefaultData bufferData = data(5L);
+			DefaultData firstSystem = data(1L);
+			DefaultData secondSystem = data(2L);
+			SystemInformationData systemInformationData = mock(SystemInformationData.class);
+			Date fromDate = new Date(1000L);
+			Date toDate = new Date(2000L);
+			when(storageDataDao.getBufferDataForAgent(PLATFORM_ID, fromDate, toDate)).thenReturn(Collections.singletonList(bufferData));
+			when(storageDataDao.getSystemDataForAgent(PLATFORM_ID, fromDate, toDate, 0L, 2)).thenReturn(Arrays.asList(firstSystem, secondSystem));
+			when(storageDataDao.getSystemInformationData(Collections.singletonList(PLATFORM_ID))).thenReturn(Collections.singletonList(systemInformationData));
+
+			long copied = bufferCopyEngine.copy(storageData, storageWriter, PLATFORM_ID, fromDate, toDate, null);
+
+			assertThat(copied, is(4L));
+			InOrder inOrder = inOrder(storageWriter);
+			inOrder.verify(storageWriter).write(bufferData);
+			inOrder.verify(storageWriter).write(firstSystem);
+			inOrder.verify(storageWriter).write(secondSystem);
+			inOrder.verify(storageWriter).write(systemInformationData);
+		}
+
+		@Test
+		public void processors() {
+			DefaultData first = data(1L);
+			DefaultData second = data(2L);
+			when(storageDataDao.getBufferDataForAgent(PLATFORM_ID, null, null)).thenReturn(Arrays.asList(first, second));
+			Collection<AbstractDataProcessor> processors = Collections.singletonList(processor);
+
+			bufferCopyEngine.copy(storageData, storageWriter, PLATFORM_ID, null, null, processors);
+
+			InOrder inOrder = inOrder(processor);
+			inOrder.verify(processor).setStorageWriter(storageWriter);
+			inOrder.verify(processor).process(first);
+			inOrder.verify(processor).process(second);
+			inOrder.verify(processor).flush();
+			inOrder.verify(processor).setStorageWriter(null);
+			verify(storageWriter, never()).write(any(DefaultData.class));
+		}
+
+		@Test
+		public void nothingToCopy() {
+			List<AbstractDataProcessor> processors = Collections.singletonList(processor);
+
+			long copied = bufferCopyEngine.copy(storageData, storageWriter, PLATFORM_ID, null, null, processors);
+
+			assertThat(copied, is(0L));
+			verify(processor, never()).process(any(DefaultData.class));
+			verifyZeroInteractions(storageWriter);
+		}
+	}
+
+}
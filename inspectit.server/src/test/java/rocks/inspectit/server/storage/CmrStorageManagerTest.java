@@ -2,6 +2,7 @@ package rocks.inspectit.server.storage;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
@@ -13,15 +14,21 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 import org.mockito.Matchers;
 import org.mockito.Mock;
@@ -35,6 +42,8 @@ import org.testng.annotations.AfterTest;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import com.esotericsoftware.kryo.io.Input;
+
 import rocks.inspectit.server.cache.IBuffer;
 import rocks.inspectit.server.dao.StorageDataDao;
 import rocks.inspectit.server.test.AbstractTestNGLogSupport;
@@ -46,7 +55,9 @@ import rocks.inspectit.shared.all.serializer.provider.SerializationManagerProvid
 import rocks.inspectit.shared.all.version.VersionService;
 import rocks.inspectit.shared.cs.cmr.service.IServerStatusService;
 import rocks.inspectit.shared.cs.communication.data.cmr.WritingStatus;
+import rocks.inspectit.shared.cs.storage.LocalStorageData;
 import rocks.inspectit.shared.cs.storage.StorageData;
+import rocks.inspectit.shared.cs.storage.StorageFileType;
 import rocks.inspectit.shared.cs.storage.StorageManager;
 import rocks.inspectit.shared.cs.storage.processor.AbstractDataProcessor;
 import rocks.inspectit.shared.cs.storage.recording.RecordingProperties;
@@ -95,6 +106,9 @@ public class CmrStorageManagerTest extends AbstractTestNGLogSupport {
 	@Mock
 	IBuffer<DefaultData> buffer;
 
+	@Mock
+	BufferCopyEngine bufferCopyEngine;
+
 	private StorageData storageData;
 
 	/**
@@ -111,6 +125,7 @@ public class CmrStorageManagerTest extends AbstractTestNGLogSupport {
 		storageManager.storageWriterProvider = storageWriterProvider;
 		storageManager.storageRecorder = storageRecorder;
 		storageManager.buffer = buffer;
+		storageManager.bufferCopyEngine = bufferCopyEngine;
 		storageManager.setSerializationManagerProvider(serializationManagerProvider);
 		storageManager.serverStatusService = serverStatusService;
 		storageManager.log = LoggerFactory.getLogger(CmrStorageManager.class);
@@ -388,22 +403,18 @@ public class CmrStorageManagerTest extends AbstractTestNGLogSupport {
 		when(defaultData.getTimeStamp()).thenReturn(timestamp);
 		when(buffer.getOldestElement()).thenReturn(defaultData);
 
-		List<DefaultData> data = Collections.singletonList(mock(DefaultData.class));
 		Collection<AbstractDataProcessor> processors = Collections.singleton(mock(AbstractDataProcessor.class));
 		Long platformId = 10L;
 		List<Long> platformIdents = Collections.singletonList(platformId);
 		storageManager = spy(storageManager);
-		when(storageDataDao.getAllDefaultDataForAgent(eq(platformId), Matchers.<Date> any(), Matchers.<Date> any())).thenReturn(data);
 
 		// first with no auto-finalize
 		storageManager.copyBufferToStorage(storageData, platformIdents, processors, false);
-		verify(storageDataDao, times(1)).getAllDefaultDataForAgent(eq(platformId), Matchers.<Date> any(), Matchers.<Date> any());
-		verify(storageManager, times(1)).writeToStorage(storageData, data, processors, true);
+		verify(bufferCopyEngine, times(1)).copy(eq(storageData), eq(storageWriter), eq(platformId.longValue()), Matchers.<Date> any(), Matchers.<Date> any(), eq(processors));
 
 		// first with auto-finalize
 		storageManager.copyBufferToStorage(storageData, platformIdents, processors, true);
-		verify(storageDataDao, times(2)).getAllDefaultDataForAgent(eq(platformId), Matchers.<Date> any(), Matchers.<Date> any());
-		verify(storageManager, times(2)).writeToStorage(storageData, data, processors, true);
+		verify(bufferCopyEngine, times(2)).copy(eq(storageData), eq(storageWriter), eq(platformId.longValue()), Matchers.<Date> any(), Matchers.<Date> any(), eq(processors));
 		assertThat(storageManager.isStorageClosed(storageData), is(true));
 	}
 
@@ -434,6 +445,58 @@ public class CmrStorageManagerTest extends AbstractTestNGLogSupport {
 		assertThat(storageManager.isStorageClosed(storageData), is(true));
 	}
 
+	/**
+	 * Tests that the exported storage archive can be imported again.
+	 */
+	@Test
+	public void exportAndImportStorage() throws BusinessException, IOException, SerializationException {
+		storageData = new StorageData();
+		storageData.setName("Test");
+		storageManager.createStorage(storageData);
+		storageManager.openStorage(storageData);
+		storageManager.closeStorage(storageData);
+		byte[] content = "storage data".getBytes(StandardCharsets.UTF_8);
+		Files.write(storageManager.getStoragePath(storageData).resolve("1" + StorageFileType.DATA_FILE.getExtension()), content);
+
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		storageManager.exportStorage(storageData, outputStream);
+
+		List<String> entries = new ArrayList<>();
+		try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(outputStream.toByteArray()))) {
+			ZipEntry zipEntry = zis.getNextEntry();
+			while (null != zipEntry) {
+				entries.add(zipEntry.getName());
+				zipEntry = zis.getNextEntry();
+			}
+		}
+		assertThat(entries, hasItems("1" + StorageFileType.DATA_FILE.getExtension(), storageData.getId() + StorageFileType.LOCAL_STORAGE_FILE.getExtension()));
+
+		LocalStorageData localStorageData = new LocalStorageData(storageData);
+		storageManager.deleteStorage(storageData);
+		when(serializer.deserialize(Matchers.<Input> any())).thenReturn(localStorageData);
+
+		StorageData imported = storageManager.importStorage(new ByteArrayInputStream(outputStream.toByteArray()));
+
+		assertThat(imported, is(notNullValue()));
+		assertThat(imported.getId(), is(storageData.getId()));
+		assertThat(storageManager.isStorageExisting(imported), is(true));
+		assertThat(Files.readAllBytes(storageManager.getStoragePath(imported).resolve("1" + StorageFileType.DATA_FILE.getExtension())), is(content));
+		storageData = imported;
+	}
+
+	/**
+	 * Proves that storage that is not closed can not be exported.
+	 */
+	@Test(expectedExceptions = { BusinessException.class })
+	public void canNotExportNotClosedStorage() throws BusinessException, IOException, SerializationException {
+		storageData = new StorageData();
+		storageData.setName("Test");
+		storageManager.createStorage(storageData);
+		storageManager.openStorage(storageData);
+
+		storageManager.exportStorage(storageData, new ByteArrayOutputStream());
+	}
+
 	/**
 	 * After processing to delete storage that might be created in the test.
 	 */
@@ -1,7 +1,9 @@
 package rocks.inspectit.server.storage;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
@@ -18,17 +20,24 @@ import java.util.concurrent.TimeUnit;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.slf4j.LoggerFactory;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import rocks.inspectit.server.dao.StorageDataDao;
+import rocks.inspectit.server.storage.AdaptiveRecordingController.FidelityLevel;
+import rocks.inspectit.server.storage.AdaptiveRecordingController.RecordingCallback;
 import rocks.inspectit.server.test.AbstractTestNGLogSupport;
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.communication.data.SystemInformationData;
 import rocks.inspectit.shared.all.exception.BusinessException;
 import rocks.inspectit.shared.all.serializer.SerializationException;
+import rocks.inspectit.shared.cs.storage.StorageData;
 import rocks.inspectit.shared.cs.storage.StorageWriter;
+import rocks.inspectit.shared.cs.storage.label.AbstractStorageLabel;
+import rocks.inspectit.shared.cs.storage.label.type.impl.RecordingFidelityLabelType;
 import rocks.inspectit.shared.cs.storage.processor.AbstractDataProcessor;
 import rocks.inspectit.shared.cs.storage.recording.RecordingProperties;
 
@@ -64,6 +73,9 @@ public class CmrStorageRecorderTest extends AbstractTestNGLogSupport {
 	@Mock
 	private RecordingProperties recordingProperties;
 
+	@Mock
+	private AdaptiveRecordingController adaptiveRecordingController;
+
 	/**
 	 * Init method.
 	 */
@@ -74,8 +86,15 @@ public class CmrStorageRecorderTest extends AbstractTestNGLogSupport {
 		cmrStorageRecorder.storageDataDao = storageDataDao;
 		cmrStorageRecorder.cmrStorageManager = cmrStorageManager;
 		cmrStorageRecorder.executorService = executorService;
+		cmrStorageRecorder.adaptiveRecordingController = adaptiveRecordingController;
 		cmrStorageRecorder.log = LoggerFactory.getLogger(CmrStorageRecorder.class);
 		when(storageWriter.isWritingOn()).thenReturn(true);
+		when(adaptiveRecordingController.adapt(any(DefaultData.class))).thenAnswer(new Answer<DefaultData>() {
+			@Override
+			public DefaultData answer(InvocationOnMock invocation) throws Throwable {
+				return (DefaultData) invocation.getArguments()[0];
+			}
+		});
 	}
 
 	/**
@@ -95,6 +114,30 @@ public class CmrStorageRecorderTest extends AbstractTestNGLogSupport {
 		verifyNoMoreInteractions(dataProcessor);
 	}
 
+	/**
+	 * Tests that the fidelity changes of the adaptive recording are documented with the label on
+	 * the recorded storage.
+	 */
+	@Test
+	@SuppressWarnings("rawtypes")
+	public void fidelityChangeLabeled() throws Exception {
+		StorageData storageData = mock(StorageData.class);
+		when(recordingProperties.getRecordingDataProcessors()).thenReturn(Collections.singleton(dataProcessor));
+		when(cmrStorageManager.canWriteMore()).thenReturn(true);
+		cmrStorageRecorder.startOrScheduleRecording(storageWriter, recordingProperties);
+
+		ArgumentCaptor<RecordingCallback> captor = ArgumentCaptor.forClass(RecordingCallback.class);
+		verify(adaptiveRecordingController, times(1)).start(eq(storageWriter), eq(Collections.singleton(dataProcessor)), captor.capture());
+		RecordingCallback callback = captor.getValue();
+		assertThat(callback.canWriteMore(), is(true));
+		callback.fidelityChanged(storageData, FidelityLevel.REDUCED, "Reduced");
+
+		ArgumentCaptor<AbstractStorageLabel> labelCaptor = ArgumentCaptor.forClass(AbstractStorageLabel.class);
+		verify(cmrStorageManager, times(1)).addLabelToStorage(eq(storageData), labelCaptor.capture(), eq(false));
+		assertThat(labelCaptor.getValue().getStorageLabelType(), is(instanceOf(RecordingFidelityLabelType.class)));
+		assertThat((String) labelCaptor.getValue().getValue(), is("Reduced"));
+	}
+
 	/**
 	 * Tests that no data will be processed if recording is off and storage writer is turned off.
 	 */
@@ -0,0 +1,58 @@
+package rocks.inspectit.server.storage;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+/**
+ * Test for the {@link CopyThrottle}.
+ *
+ * @author Ivan Senic
+ *
+ */
+@SuppressWarnings("PMD")
+public class CopyThrottleTest {
+
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	@Test
+	public void noLimits() {
+		CopyThrottle throttle = new CopyThrottle(0, 1f, 4);
+
+		assertThat(throttle.isActive(), is(false));
+		assertThat(throttle.getPauseNanos(Long.MAX_VALUE / SECOND, SECOND, 1), is(0L));
+	}
+
+	@Test
+	public void bytesPerSecondLimit() {
+		CopyThrottle throttle = new CopyThrottle(1000, 1f, 4);
+
+		assertThat(throttle.isActive(), is(true));
+		// 2000 bytes need 2 seconds, one already elapsed
+		assertThat(throttle.getPauseNanos(2000, 0, SECOND), is(SECOND));
+		// slower than limit, no pause
+		assertThat(throttle.getPauseNanos(500, 0, SECOND), is(0L));
+	}
+
+	@Test
+	public void cpuShareLimit() {
+		CopyThrottle throttle = new CopyThrottle(0, 0.5f, 2);
+
+		assertThat(throttle.isActive(), is(true));
+		// 2 seconds of CPU time with half of 2 cores allowed requires 2 seconds
+		assertThat(throttle.getPauseNanos(0, 2 * SECOND, SECOND), is(SECOND));
+		assertThat(throttle.getPauseNanos(0, SECOND, SECOND), is(0L));
+	}
+
+	@Test
+	public void biggerLimitWins() {
+		CopyThrottle throttle = new CopyThrottle(1000, 0.5f, 1);
+
+		// bytes require 1 second, cpu requires 4 seconds
+		assertThat(throttle.getPauseNanos(1000, 2 * SECOND, 0), is(4 * SECOND));
+	}
+
+}
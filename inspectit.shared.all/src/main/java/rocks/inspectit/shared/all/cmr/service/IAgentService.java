@@ -64,6 +64,22 @@ public interface IAgentService {
 	 */
 	InstrumentationDefinition analyze(long platformIdent, String hash, Type type) throws BusinessException;
 
+	/**
+	 * Analyzes the batch of types. Works same as the {@link #analyze(long, String, Type)} for each
+	 * type in the batch, but needs only one call for the complete batch. Intended for the types
+	 * that agent does not expect to be instrumented.
+	 *
+	 * @param platformIdent
+	 *            Id of the agent.
+	 * @param hashToTypeMap
+	 *            Map of class hashes to the types that have been parsed from the byte-code.
+	 * @return Map of class hashes to the {@link InstrumentationDefinition} only for the types
+	 *         that should be instrumented. Empty map if none of the types should be instrumented.
+	 * @throws BusinessException
+	 *             If agent with specified id does not exist.
+	 */
+	Map<String, InstrumentationDefinition> analyzeBatch(long platformIdent, Map<String, Type> hashToTypeMap) throws BusinessException;
+
 	/**
 	 * Informs the CMR that the methods have been instrumented on the agent.
 	 *
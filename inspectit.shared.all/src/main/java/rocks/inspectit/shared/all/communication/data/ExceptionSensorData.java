@@ -55,6 +55,13 @@ public class ExceptionSensorData extends InvocationAwareData {
 	 */
 	private long throwableIdentityHashCode;
 
+	/**
+	 * Structural fingerprint of the stack trace, <code>0</code> if not calculated. Agents send the
+	 * {@link #stackTrace} only with the first data object of a fingerprint, the CMR resolves the
+	 * missing stack traces by the fingerprint.
+	 */
+	private long stackTraceFingerprint;
+
 	/**
 	 * Default no-args constructor.
 	 */
@@ -210,6 +217,25 @@ public class ExceptionSensorData extends InvocationAwareData {
 		this.throwableIdentityHashCode = throwableIdentityHashCode;
 	}
 
+	/**
+	 * Gets {@link #stackTraceFingerprint}.
+	 *
+	 * @return {@link #stackTraceFingerprint}
+	 */
+	public long getStackTraceFingerprint() {
+		return stackTraceFingerprint;
+	}
+
+	/**
+	 * Sets {@link #stackTraceFingerprint}.
+	 *
+	 * @param stackTraceFingerprint
+	 *            New value for {@link #stackTraceFingerprint}
+	 */
+	public void setStackTraceFingerprint(long stackTraceFingerprint) {
+		this.stackTraceFingerprint = stackTraceFingerprint;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -224,7 +250,7 @@ public class ExceptionSensorData extends InvocationAwareData {
 	@Override
 	public long getObjectSize(IObjectSizes objectSizes, boolean doAlign) {
 		long size = super.getObjectSize(objectSizes, doAlign);
-		size += objectSizes.getPrimitiveTypesSize(6, 0, 0, 0, 1, 0);
+		size += objectSizes.getPrimitiveTypesSize(6, 0, 0, 0, 2, 0);
 		size += objectSizes.getSizeOf(errorMessage);
 		size += objectSizes.getSizeOf(cause);
 		size += objectSizes.getSizeOf(stackTrace);
@@ -249,6 +275,7 @@ public class ExceptionSensorData extends InvocationAwareData {
 		result = (prime * result) + ((child == null) ? 0 : child.hashCode());
 		result = (prime * result) + ((exceptionEvent == null) ? 0 : exceptionEvent.hashCode());
 		result = (prime * result) + ((stackTrace == null) ? 0 : stackTrace.hashCode());
+		result = (prime * result) + (int) (stackTraceFingerprint ^ (stackTraceFingerprint >>> 32));
 		result = (prime * result) + (int) (throwableIdentityHashCode ^ (throwableIdentityHashCode >>> 32));
 		result = (prime * result) + ((throwableType == null) ? 0 : throwableType.hashCode());
 		return result;
@@ -297,6 +324,9 @@ public class ExceptionSensorData extends InvocationAwareData {
 		} else if (!stackTrace.equals(other.stackTrace)) {
 			return false;
 		}
+		if (stackTraceFingerprint != other.stackTraceFingerprint) {
+			return false;
+		}
 		if (throwableIdentityHashCode != other.throwableIdentityHashCode) {
 			return false;
 		}
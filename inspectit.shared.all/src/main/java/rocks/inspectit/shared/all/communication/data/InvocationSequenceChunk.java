@@ -0,0 +1,165 @@
+package rocks.inspectit.shared.all.communication.data;
+
+import java.util.List;
+
+import rocks.inspectit.shared.all.cmr.cache.IObjectSizes;
+import rocks.inspectit.shared.all.communication.DefaultData;
+
+/**
+ * One chunk of a large {@link InvocationSequenceData} sent from the agent to the CMR. The
+ * invocation tree is transferred as a depth-first stream of nodes without nested sequences, where
+ * each node carries the index of its parent in the stream. This way the agent does not need to
+ * serialize and the CMR does not need to de-serialize the complete tree at once.
+ * <p>
+ * Chunks of one sequence share the same {@link #sequenceId} and are sent in order. The first node
+ * of the first chunk is the root of the invocation.
+ *
+ * @author Ivan Senic
+ *
+ */
+public class InvocationSequenceChunk extends DefaultData {
+
+	/**
+	 * Generated UID.
+	 */
+	private static final long serialVersionUID = -3518402962331875513L;
+
+	/**
+	 * Size of int in bytes.
+	 */
+	private static final long INT_SIZE = 4;
+
+	/**
+	 * Id of the sequence unique in the agent.
+	 */
+	private long sequenceId;
+
+	/**
+	 * Index of this chunk in the sequence, starting with 0.
+	 */
+	private int chunkIndex;
+
+	/**
+	 * If this is the last chunk of the sequence.
+	 */
+	private boolean lastChunk;
+
+	/**
+	 * Nodes of this chunk in depth-first order, without nested sequences.
+	 */
+	private List<InvocationSequenceData> nodes;
+
+	/**
+	 * Index of the parent in the complete stream for each node in {@link #nodes}. Root has index
+	 * <code>-1</code>.
+	 */
+	private int[] parentIndexes;
+
+	/**
+	 * No-arg constructor.
+	 */
+	public InvocationSequenceChunk() {
+	}
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param platformIdent
+	 *            Platform ident.
+	 * @param sequenceId
+	 *            Id of the sequence unique in the agent.
+	 * @param chunkIndex
+	 *            Index of this chunk in the sequence.
+	 * @param lastChunk
+	 *            If this is the last chunk of the sequence.
+	 * @param nodes
+	 *            Nodes in depth-first order, without nested sequences.
+	 * @param parentIndexes
+	 *            Index of the parent in the complete stream for each node.
+	 */
+	public InvocationSequenceChunk(long platformIdent, long sequenceId, int chunkIndex, boolean lastChunk, List<InvocationSequenceData> nodes, int[] parentIndexes) {
+		setPlatformIdent(platformIdent);
+		this.sequenceId = sequenceId;
+		this.chunkIndex = chunkIndex;
+		this.lastChunk = lastChunk;
+		this.nodes = nodes;
+		this.parentIndexes = parentIndexes; // NOPMD
+	}
+
+	/**
+	 * Gets {@link #sequenceId}.
+	 *
+	 * @return {@link #sequenceId}
+	 */
+	public long getSequenceId() {
+		return sequenceId;
+	}
+
+	/**
+	 * Gets {@link #chunkIndex}.
+	 *
+	 * @return {@link #chunkIndex}
+	 */
+	public int getChunkIndex() {
+		return chunkIndex;
+	}
+
+	/**
+	 * Gets {@link #lastChunk}.
+	 *
+	 * @return {@link #lastChunk}
+	 */
+	public boolean isLastChunk() {
+		return lastChunk;
+	}
+
+	/**
+	 * Gets {@link #nodes}.
+	 *
+	 * @return {@link #nodes}
+	 */
+	public List<InvocationSequenceData> getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * Gets {@link #parentIndexes}.
+	 *
+	 * @return {@link #parentIndexes}
+	 */
+	public int[] getParentIndexes() {
+		return parentIndexes; // NOPMD
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getObjectSize(IObjectSizes objectSizes, boolean doAlign) {
+		long size = super.getObjectSize(objectSizes, doAlign);
+		size += objectSizes.getPrimitiveTypesSize(2, 1, 1, 0, 1, 0);
+		if (null != nodes) {
+			size += objectSizes.getSizeOf(nodes);
+			for (InvocationSequenceData node : nodes) {
+				size += node.getObjectSize(objectSizes, doAlign);
+			}
+		}
+		if (null != parentIndexes) {
+			size += objectSizes.getSizeOfPrimitiveArray(parentIndexes.length, INT_SIZE);
+		}
+		if (doAlign) {
+			return objectSizes.alignTo8Bytes(size);
+		} else {
+			return size;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return "InvocationSequenceChunk [sequenceId=" + sequenceId + ", chunkIndex=" + chunkIndex + ", lastChunk=" + lastChunk + ", nodes=" + ((null != nodes) ? nodes.size() : 0) + "]";
+	}
+
+}
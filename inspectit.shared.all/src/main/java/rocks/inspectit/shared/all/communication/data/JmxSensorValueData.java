@@ -5,6 +5,7 @@ import java.sql.Timestamp;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.PrePersist;
+import javax.persistence.Transient;
 
 import org.apache.commons.lang.BooleanUtils;
 import org.apache.commons.lang.math.NumberUtils;
@@ -35,6 +36,21 @@ public class JmxSensorValueData extends SystemSensorData implements IAggregatedD
 	 */
 	private static final long serialVersionUID = 1064800467325690317L;
 
+	/**
+	 * Value type denoting that the value is carried as string in the {@link #value}.
+	 */
+	private static final byte STRING_VALUE = 0;
+
+	/**
+	 * Value type denoting that the value is carried as long in the {@link #longValue}.
+	 */
+	private static final byte LONG_VALUE = 1;
+
+	/**
+	 * Value type denoting that the value is carried as double in the {@link #doubleValue}.
+	 */
+	private static final byte DOUBLE_VALUE = 2;
+
 	/**
 	 * The ID of the DefinitionData.
 	 */
@@ -46,6 +62,26 @@ public class JmxSensorValueData extends SystemSensorData implements IAggregatedD
 	@Column(length = MAX_VALUE_LENGTH)
 	private String value;
 
+	/**
+	 * Type of the value, one of {@link #STRING_VALUE}, {@link #LONG_VALUE} or
+	 * {@link #DOUBLE_VALUE}. Numeric values are transfered without the string representation,
+	 * the string is created only when needed.
+	 */
+	@Transient
+	private byte valueType = STRING_VALUE;
+
+	/**
+	 * Value if the value type is {@link #LONG_VALUE}.
+	 */
+	@Transient
+	private long longValue;
+
+	/**
+	 * Value if the value type is {@link #DOUBLE_VALUE}.
+	 */
+	@Transient
+	private double doubleValue;
+
 	/**
 	 * The count of aggregated values, represented by this object.
 	 */
@@ -96,6 +132,50 @@ public class JmxSensorValueData extends SystemSensorData implements IAggregatedD
 		super.setId(jmxDefinitionDataIdentId);
 	}
 
+	/**
+	 * Constructor for the integral numeric values.
+	 *
+	 * @param jmxDefinitionDataIdentId
+	 *            the id of the related {@link JmxDefinitionDataIdent} of this
+	 *            {@link JmxSensorValueData}
+	 * @param value
+	 *            the value
+	 * @param timestamp
+	 *            the timestamp when this value was captured
+	 * @param platformIdent
+	 *            the id of the related {@link PlatformIdent}
+	 * @param sensorTypeIdent
+	 *            the id of the related {@link SensorTypeIdent}
+	 */
+	public JmxSensorValueData(long jmxDefinitionDataIdentId, long value, Timestamp timestamp, long platformIdent, long sensorTypeIdent) {
+		this(jmxDefinitionDataIdentId, (String) null, timestamp, platformIdent, sensorTypeIdent);
+		this.valueType = LONG_VALUE;
+		this.longValue = value;
+		initAggregation(value);
+	}
+
+	/**
+	 * Constructor for the floating point numeric values.
+	 *
+	 * @param jmxDefinitionDataIdentId
+	 *            the id of the related {@link JmxDefinitionDataIdent} of this
+	 *            {@link JmxSensorValueData}
+	 * @param value
+	 *            the value
+	 * @param timestamp
+	 *            the timestamp when this value was captured
+	 * @param platformIdent
+	 *            the id of the related {@link PlatformIdent}
+	 * @param sensorTypeIdent
+	 *            the id of the related {@link SensorTypeIdent}
+	 */
+	public JmxSensorValueData(long jmxDefinitionDataIdentId, double value, Timestamp timestamp, long platformIdent, long sensorTypeIdent) {
+		this(jmxDefinitionDataIdentId, (String) null, timestamp, platformIdent, sensorTypeIdent);
+		this.valueType = DOUBLE_VALUE;
+		this.doubleValue = value;
+		initAggregation(value);
+	}
+
 	/**
 	 * Copy constructor. Copies all values (except the aggregation values) of the given
 	 * {@link JmxSensorValueData} object into the newly created.
@@ -109,7 +189,15 @@ public class JmxSensorValueData extends SystemSensorData implements IAggregatedD
 		setTimeStamp(new Timestamp(origin.getTimeStamp().getTime()));
 		setSensorTypeIdent(origin.getSensorTypeIdent());
 		setJmxSensorDefinitionDataIdentId(origin.jmxSensorDefinitionDataIdentId);
-		setValue(origin.value);
+		if (origin.valueType == STRING_VALUE) {
+			setValue(origin.value);
+		} else {
+			value = origin.value;
+			valueType = origin.valueType;
+			longValue = origin.longValue;
+			doubleValue = origin.doubleValue;
+			initAggregation(origin.getValueAsDouble());
+		}
 	}
 
 	/**
@@ -133,6 +221,12 @@ public class JmxSensorValueData extends SystemSensorData implements IAggregatedD
 	 * @return {@link #value}
 	 */
 	public String getValue() {
+		if (valueType == LONG_VALUE) {
+			return String.valueOf(longValue);
+		}
+		if (valueType == DOUBLE_VALUE) {
+			return String.valueOf(doubleValue);
+		}
 		return value;
 	}
 
@@ -144,9 +238,21 @@ public class JmxSensorValueData extends SystemSensorData implements IAggregatedD
 	 */
 	public void setValue(String value) {
 		this.value = value;
+		this.valueType = STRING_VALUE;
 
-		if ((aggregationCount <= 0) && isBooleanOrNumeric()) {
-			double currentValue = getValueAsDouble();
+		if ((null != value) && isBooleanOrNumeric()) {
+			initAggregation(getValueAsDouble());
+		}
+	}
+
+	/**
+	 * Initializes the aggregation values with the given value if no aggregation was done.
+	 *
+	 * @param currentValue
+	 *            Value of this object.
+	 */
+	private void initAggregation(double currentValue) {
+		if (aggregationCount <= 0) {
 			aggregationCount = 1;
 			minValue = currentValue;
 			maxValue = currentValue;
@@ -224,6 +330,12 @@ public class JmxSensorValueData extends SystemSensorData implements IAggregatedD
 	 * @return {@link #value} as {@link Double}
 	 */
 	public double getValueAsDouble() {
+		if (valueType == LONG_VALUE) {
+			return longValue;
+		}
+		if (valueType == DOUBLE_VALUE) {
+			return doubleValue;
+		}
 		if (NumberUtils.isNumber(value)) {
 			return NumberUtils.createDouble(value);
 		}
@@ -239,6 +351,9 @@ public class JmxSensorValueData extends SystemSensorData implements IAggregatedD
 	 * @return <code>true</code> if the value is a boolean or number, otherwise <code>false</code>
 	 */
 	public boolean isBooleanOrNumeric() {
+		if (valueType != STRING_VALUE) {
+			return true;
+		}
 		return isBooleanValue(value) || NumberUtils.isNumber(value);
 	}
 
@@ -276,6 +391,8 @@ public class JmxSensorValueData extends SystemSensorData implements IAggregatedD
 	 */
 	@PrePersist
 	protected void prePersist() {
+		// numeric values are persisted as strings
+		value = getValue();
 		if ((null != value) && (value.length() > MAX_VALUE_LENGTH)) {
 			value = value.substring(0, MAX_VALUE_LENGTH);
 		}
@@ -286,7 +403,7 @@ public class JmxSensorValueData extends SystemSensorData implements IAggregatedD
 	 */
 	@Override
 	public String toString() {
-		return "JmxSensorValueData [jmxSensorDefinitionDataIdent=" + jmxSensorDefinitionDataIdentId + ", value=" + value + ", getId()=" + getId() + ", getPlatformIdent()=" + getPlatformIdent()
+		return "JmxSensorValueData [jmxSensorDefinitionDataIdent=" + jmxSensorDefinitionDataIdentId + ", value=" + getValue() + ", getId()=" + getId() + ", getPlatformIdent()=" + getPlatformIdent()
 				+ ", getSensorTypeIdent()=" + getSensorTypeIdent() + ", getTimeStamp()=" + getTimeStamp() + "]";
 	}
 
@@ -307,6 +424,10 @@ public class JmxSensorValueData extends SystemSensorData implements IAggregatedD
 		temp = Double.doubleToLongBits(totalValue);
 		result = (prime * result) + (int) (temp ^ (temp >>> 32));
 		result = (prime * result) + ((value == null) ? 0 : value.hashCode());
+		result = (prime * result) + valueType;
+		result = (prime * result) + (int) (longValue ^ (longValue >>> 32));
+		temp = Double.doubleToLongBits(doubleValue);
+		result = (prime * result) + (int) (temp ^ (temp >>> 32));
 		return result;
 	}
 
@@ -347,6 +468,15 @@ public class JmxSensorValueData extends SystemSensorData implements IAggregatedD
 		} else if (!value.equals(other.value)) {
 			return false;
 		}
+		if (valueType != other.valueType) {
+			return false;
+		}
+		if (longValue != other.longValue) {
+			return false;
+		}
+		if (Double.doubleToLongBits(doubleValue) != Double.doubleToLongBits(other.doubleValue)) {
+			return false;
+		}
 		return true;
 	}
 
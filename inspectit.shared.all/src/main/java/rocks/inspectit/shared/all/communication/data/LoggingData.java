@@ -1,9 +1,14 @@
 package rocks.inspectit.shared.all.communication.data;
 
+import java.util.List;
+
 import rocks.inspectit.shared.all.cmr.cache.IObjectSizes;
 
 /**
- * Data class for logging data capturing.
+ * Data class for logging data capturing. The {@link #message} can be the message pattern with the
+ * variable parts replaced by the {@value #ARGUMENT_PLACEHOLDER} placeholder, in which case
+ * {@link #arguments} hold the values of the first logged message. The {@link #count} defines how
+ * many times the message was logged.
  *
  * @author Stefan Siegl
  */
@@ -12,12 +17,33 @@ public class LoggingData extends InvocationAwareData {
 	/** Serial version id. */
 	private static final long serialVersionUID = 6428356462914363539L;
 
+	/**
+	 * Placeholder for the arguments in the message pattern.
+	 */
+	public static final String ARGUMENT_PLACEHOLDER = "{}";
+
 	/** The logging level. */
 	private String level;
 
 	/** The message that was logged. */
 	private String message;
 
+	/**
+	 * Arguments replaced in the message with the {@value #ARGUMENT_PLACEHOLDER} placeholder.
+	 */
+	private List<String> arguments;
+
+	/**
+	 * How many times the message was logged.
+	 */
+	private long count = 1L;
+
+	/**
+	 * Message with the placeholders replaced with the {@link #arguments}. Calculated only on first
+	 * request.
+	 */
+	private transient String messageWithArguments;
+
 	/**
 	 * Default constructor.
 	 */
@@ -85,12 +111,89 @@ public class LoggingData extends InvocationAwareData {
 		this.message = message;
 	}
 
+	/**
+	 * Gets {@link #arguments}.
+	 *
+	 * @return {@link #arguments}
+	 */
+	public List<String> getArguments() {
+		return arguments;
+	}
+
+	/**
+	 * Sets {@link #arguments}.
+	 *
+	 * @param arguments
+	 *            New value for {@link #arguments}
+	 */
+	public void setArguments(List<String> arguments) {
+		this.arguments = arguments;
+	}
+
+	/**
+	 * Gets {@link #count}.
+	 *
+	 * @return {@link #count}
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Sets {@link #count}.
+	 *
+	 * @param count
+	 *            New value for {@link #count}
+	 */
+	public void setCount(long count) {
+		this.count = count;
+	}
+
+	/**
+	 * Increases the {@link #count} by the given amount.
+	 *
+	 * @param amount
+	 *            Amount to add.
+	 */
+	public void increaseCount(long amount) {
+		this.count += amount;
+	}
+
+	/**
+	 * @return Message with the {@value #ARGUMENT_PLACEHOLDER} placeholders in {@link #message}
+	 *         replaced with the values in the {@link #arguments} list. Calculated only on first
+	 *         request.
+	 */
+	public String getMessageWithArguments() {
+		if ((null == arguments) || arguments.isEmpty() || (null == message)) {
+			return message;
+		} else {
+			if (null == messageWithArguments) {
+				StringBuilder stringBuilder = new StringBuilder(message.length());
+				int index = 0;
+				int copied = 0;
+				int placeholder = message.indexOf(ARGUMENT_PLACEHOLDER);
+				while ((placeholder >= 0) && (index < arguments.size())) {
+					stringBuilder.append(message, copied, placeholder).append(arguments.get(index));
+					index++;
+					copied = placeholder + ARGUMENT_PLACEHOLDER.length();
+					placeholder = message.indexOf(ARGUMENT_PLACEHOLDER, copied);
+				}
+				stringBuilder.append(message, copied, message.length());
+				messageWithArguments = stringBuilder.toString();
+			}
+			return messageWithArguments;
+		}
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
 		int result = super.hashCode();
 		result = (prime * result) + ((level == null) ? 0 : level.hashCode());
 		result = (prime * result) + ((message == null) ? 0 : message.hashCode());
+		result = (prime * result) + ((arguments == null) ? 0 : arguments.hashCode());
+		result = (prime * result) + (int) (count ^ (count >>> 32));
 		return result;
 	}
 
@@ -123,6 +226,16 @@ public class LoggingData extends InvocationAwareData {
 		} else if (!message.equals(other.message)) {
 			return false;
 		}
+		if (arguments == null) {
+			if (other.arguments != null) {
+				return false;
+			}
+		} else if (!arguments.equals(other.arguments)) {
+			return false;
+		}
+		if (count != other.count) {
+			return false;
+		}
 		return true;
 	}
 
@@ -131,7 +244,7 @@ public class LoggingData extends InvocationAwareData {
 	 */
 	@Override
 	public String toString() {
-		return "LoggingData [level=" + level + ", message=" + message + "]";
+		return "LoggingData [level=" + level + ", message=" + message + ", arguments=" + arguments + ", count=" + count + "]";
 	}
 
 	/**
@@ -140,9 +253,18 @@ public class LoggingData extends InvocationAwareData {
 	@Override
 	public long getObjectSize(IObjectSizes objectSizes, boolean doAlign) {
 		long size = super.getObjectSize(objectSizes, doAlign);
-		size += objectSizes.getPrimitiveTypesSize(3, 0, 0, 0, 0, 1);
+		size += objectSizes.getPrimitiveTypesSize(5, 0, 0, 0, 1, 1);
 		size += objectSizes.getSizeOf(message);
 		size += objectSizes.getSizeOf(level);
+		if (null != arguments) {
+			size += objectSizes.getSizeOf(arguments);
+			for (String str : arguments) {
+				size += objectSizes.getSizeOf(str);
+			}
+		}
+		if (null != messageWithArguments) {
+			size += objectSizes.getSizeOf(messageWithArguments);
+		}
 
 		if (doAlign) {
 			return objectSizes.alignTo8Bytes(size);
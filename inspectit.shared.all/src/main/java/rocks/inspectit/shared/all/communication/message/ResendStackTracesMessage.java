@@ -0,0 +1,45 @@
+package rocks.inspectit.shared.all.communication.message;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Message to request the full stack traces of the given stack trace fingerprints from the agent.
+ * Sent when the CMR receives exception data with a fingerprint it does not know the stack trace
+ * of.
+ *
+ * @author Ivan Senic
+ *
+ */
+public class ResendStackTracesMessage implements IAgentMessage<List<Long>> {
+
+	/**
+	 * Fingerprints of the stack traces to resend.
+	 */
+	private final List<Long> fingerprints = new ArrayList<Long>();
+
+	/**
+	 * No-arg constructor for serialization.
+	 */
+	public ResendStackTracesMessage() {
+	}
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param fingerprints
+	 *            Fingerprints of the stack traces to resend.
+	 */
+	public ResendStackTracesMessage(Collection<Long> fingerprints) {
+		this.fingerprints.addAll(fingerprints);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<Long> getMessageContent() {
+		return fingerprints;
+	}
+}
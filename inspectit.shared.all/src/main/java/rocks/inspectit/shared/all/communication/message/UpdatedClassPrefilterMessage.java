@@ -0,0 +1,42 @@
+package rocks.inspectit.shared.all.communication.message;
+
+import rocks.inspectit.shared.all.instrumentation.config.impl.ClassPrefilterConfig;
+
+/**
+ * Message to notify the agent about the changed {@link ClassPrefilterConfig}. The content of the
+ * message can be <code>null</code>, meaning that all classes could be instrumented.
+ *
+ * @author Ivan Senic
+ *
+ */
+public class UpdatedClassPrefilterMessage implements IAgentMessage<ClassPrefilterConfig> {
+
+	/**
+	 * The updated {@link ClassPrefilterConfig}.
+	 */
+	private ClassPrefilterConfig classPrefilterConfig;
+
+	/**
+	 * No-arg constructor for serialization.
+	 */
+	public UpdatedClassPrefilterMessage() {
+	}
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param classPrefilterConfig
+	 *            The updated {@link ClassPrefilterConfig}, can be <code>null</code>.
+	 */
+	public UpdatedClassPrefilterMessage(ClassPrefilterConfig classPrefilterConfig) {
+		this.classPrefilterConfig = classPrefilterConfig;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ClassPrefilterConfig getMessageContent() {
+		return classPrefilterConfig;
+	}
+}
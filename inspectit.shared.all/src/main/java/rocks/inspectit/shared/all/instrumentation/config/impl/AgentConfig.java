@@ -80,6 +80,18 @@ public class AgentConfig {
 	 */
 	private String configurationInfo;
 
+	/**
+	 * Revision of the configuration (environment and profiles) used to create this agent
+	 * configuration. Agent uses it to validate the locally persisted instrumentation definitions.
+	 */
+	private String configurationRevision;
+
+	/**
+	 * Prefilter of the classes that could be instrumented based on the class sensor assignments.
+	 * Can be <code>null</code> if all classes should be considered as possibly instrumented.
+	 */
+	private ClassPrefilterConfig classPrefilterConfig;
+
 	/**
 	 * Gets {@link #platformId}.
 	 *
@@ -348,6 +360,44 @@ public class AgentConfig {
 		this.configurationInfo = configurationInfo;
 	}
 
+	/**
+	 * Gets {@link #configurationRevision}.
+	 *
+	 * @return {@link #configurationRevision}
+	 */
+	public String getConfigurationRevision() {
+		return configurationRevision;
+	}
+
+	/**
+	 * Sets {@link #configurationRevision}.
+	 *
+	 * @param configurationRevision
+	 *            New value for {@link #configurationRevision}
+	 */
+	public void setConfigurationRevision(String configurationRevision) {
+		this.configurationRevision = configurationRevision;
+	}
+
+	/**
+	 * Gets {@link #classPrefilterConfig}.
+	 *
+	 * @return {@link #classPrefilterConfig}
+	 */
+	public ClassPrefilterConfig getClassPrefilterConfig() {
+		return classPrefilterConfig;
+	}
+
+	/**
+	 * Sets {@link #classPrefilterConfig}.
+	 *
+	 * @param classPrefilterConfig
+	 *            New value for {@link #classPrefilterConfig}
+	 */
+	public void setClassPrefilterConfig(ClassPrefilterConfig classPrefilterConfig) {
+		this.classPrefilterConfig = classPrefilterConfig;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -357,7 +407,9 @@ public class AgentConfig {
 		int result = 1;
 		result = (prime * result) + ((this.bufferStrategyConfig == null) ? 0 : this.bufferStrategyConfig.hashCode());
 		result = (prime * result) + (this.classCacheExistsOnCmr ? 1231 : 1237);
+		result = (prime * result) + ((this.classPrefilterConfig == null) ? 0 : this.classPrefilterConfig.hashCode());
 		result = (prime * result) + ((this.configurationInfo == null) ? 0 : this.configurationInfo.hashCode());
+		result = (prime * result) + ((this.configurationRevision == null) ? 0 : this.configurationRevision.hashCode());
 		result = (prime * result) + ((this.exceptionSensorTypeConfig == null) ? 0 : this.exceptionSensorTypeConfig.hashCode());
 		result = (prime * result) + ((this.excludeClassesPatterns == null) ? 0 : this.excludeClassesPatterns.hashCode());
 		result = (prime * result) + ((this.initialInstrumentationResults == null) ? 0 : this.initialInstrumentationResults.hashCode());
@@ -395,6 +447,13 @@ public class AgentConfig {
 		if (this.classCacheExistsOnCmr != other.classCacheExistsOnCmr) {
 			return false;
 		}
+		if (this.classPrefilterConfig == null) {
+			if (other.classPrefilterConfig != null) {
+				return false;
+			}
+		} else if (!this.classPrefilterConfig.equals(other.classPrefilterConfig)) {
+			return false;
+		}
 		if (this.configurationInfo == null) {
 			if (other.configurationInfo != null) {
 				return false;
@@ -402,6 +461,13 @@ public class AgentConfig {
 		} else if (!this.configurationInfo.equals(other.configurationInfo)) {
 			return false;
 		}
+		if (this.configurationRevision == null) {
+			if (other.configurationRevision != null) {
+				return false;
+			}
+		} else if (!this.configurationRevision.equals(other.configurationRevision)) {
+			return false;
+		}
 		if (this.exceptionSensorTypeConfig == null) {
 			if (other.exceptionSensorTypeConfig != null) {
 				return false;
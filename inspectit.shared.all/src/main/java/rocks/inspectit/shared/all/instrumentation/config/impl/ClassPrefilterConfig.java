@@ -0,0 +1,174 @@
+package rocks.inspectit.shared.all.instrumentation.config.impl;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import rocks.inspectit.shared.all.pattern.IMatchPattern;
+
+/**
+ * Compact description of all class sensor assignments the agent has in its configuration. Agent can
+ * use it to decide locally if a class could ever be instrumented. The prefilter is always
+ * conservative: if the class could match any of the assignments it must be matched by the
+ * prefilter.
+ *
+ * @author Ivan Senic
+ *
+ */
+public class ClassPrefilterConfig {
+
+	/**
+	 * Patterns of the class names defined in the assignments that match the class directly.
+	 */
+	private Collection<IMatchPattern> classNamePatterns = Collections.emptyList();
+
+	/**
+	 * Patterns of the super-class names defined in the assignments.
+	 */
+	private Collection<IMatchPattern> superClassNamePatterns = Collections.emptyList();
+
+	/**
+	 * Patterns of the interface names defined in the assignments.
+	 */
+	private Collection<IMatchPattern> interfaceNamePatterns = Collections.emptyList();
+
+	/**
+	 * Patterns of the annotation names defined in the assignments that don't restrict the class
+	 * name. Classes annotated with such annotations, as well as the classes extending or realizing
+	 * the annotated types, could be instrumented.
+	 */
+	private Collection<IMatchPattern> annotationPatterns = Collections.emptyList();
+
+	/**
+	 * No-arg constructor for serialization.
+	 */
+	public ClassPrefilterConfig() {
+	}
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param classNamePatterns
+	 *            Patterns of the class names defined in the assignments that match the class
+	 *            directly.
+	 * @param superClassNamePatterns
+	 *            Patterns of the super-class names defined in the assignments.
+	 * @param interfaceNamePatterns
+	 *            Patterns of the interface names defined in the assignments.
+	 * @param annotationPatterns
+	 *            Patterns of the annotation names defined in the assignments that don't restrict
+	 *            the class name.
+	 */
+	public ClassPrefilterConfig(Collection<IMatchPattern> classNamePatterns, Collection<IMatchPattern> superClassNamePatterns, Collection<IMatchPattern> interfaceNamePatterns,
+			Collection<IMatchPattern> annotationPatterns) {
+		this.classNamePatterns = classNamePatterns;
+		this.superClassNamePatterns = superClassNamePatterns;
+		this.interfaceNamePatterns = interfaceNamePatterns;
+		this.annotationPatterns = annotationPatterns;
+	}
+
+	/**
+	 * Gets {@link #classNamePatterns}.
+	 *
+	 * @return {@link #classNamePatterns}
+	 */
+	public Collection<IMatchPattern> getClassNamePatterns() {
+		return classNamePatterns;
+	}
+
+	/**
+	 * Gets {@link #superClassNamePatterns}.
+	 *
+	 * @return {@link #superClassNamePatterns}
+	 */
+	public Collection<IMatchPattern> getSuperClassNamePatterns() {
+		return superClassNamePatterns;
+	}
+
+	/**
+	 * Gets {@link #interfaceNamePatterns}.
+	 *
+	 * @return {@link #interfaceNamePatterns}
+	 */
+	public Collection<IMatchPattern> getInterfaceNamePatterns() {
+		return interfaceNamePatterns;
+	}
+
+	/**
+	 * Gets {@link #annotationPatterns}.
+	 *
+	 * @return {@link #annotationPatterns}
+	 */
+	public Collection<IMatchPattern> getAnnotationPatterns() {
+		return annotationPatterns;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = (prime * result) + ((this.annotationPatterns == null) ? 0 : this.annotationPatterns.hashCode());
+		result = (prime * result) + ((this.classNamePatterns == null) ? 0 : this.classNamePatterns.hashCode());
+		result = (prime * result) + ((this.interfaceNamePatterns == null) ? 0 : this.interfaceNamePatterns.hashCode());
+		result = (prime * result) + ((this.superClassNamePatterns == null) ? 0 : this.superClassNamePatterns.hashCode());
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null) {
+			return false;
+		}
+		if (getClass() != obj.getClass()) {
+			return false;
+		}
+		ClassPrefilterConfig other = (ClassPrefilterConfig) obj;
+		if (this.annotationPatterns == null) {
+			if (other.annotationPatterns != null) {
+				return false;
+			}
+		} else if (!this.annotationPatterns.equals(other.annotationPatterns)) {
+			return false;
+		}
+		if (this.classNamePatterns == null) {
+			if (other.classNamePatterns != null) {
+				return false;
+			}
+		} else if (!this.classNamePatterns.equals(other.classNamePatterns)) {
+			return false;
+		}
+		if (this.interfaceNamePatterns == null) {
+			if (other.interfaceNamePatterns != null) {
+				return false;
+			}
+		} else if (!this.interfaceNamePatterns.equals(other.interfaceNamePatterns)) {
+			return false;
+		}
+		if (this.superClassNamePatterns == null) {
+			if (other.superClassNamePatterns != null) {
+				return false;
+			}
+		} else if (!this.superClassNamePatterns.equals(other.superClassNamePatterns)) {
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return "ClassPrefilterConfig [classNamePatterns=" + classNamePatterns + ", superClassNamePatterns=" + superClassNamePatterns + , interfaceNamePatterns=" + interfaceNamePatterns + ", annotationPatterns="
+				+ annotationPatterns + "]";
+	}
+
+}
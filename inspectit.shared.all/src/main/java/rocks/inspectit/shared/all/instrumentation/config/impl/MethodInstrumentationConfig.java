@@ -54,6 +54,28 @@ public class MethodInstrumentationConfig implements IMethodInstrumentationConfig
 	public MethodInstrumentationConfig() {
 	}
 
+	/**
+	 * Copy constructor. Creates the deep copy of the given configuration, thus later changes of
+	 * the instrumentation points in the given configuration are not reflected in the copy.
+	 *
+	 * @param other
+	 *            Configuration to copy.
+	 */
+	public MethodInstrumentationConfig(MethodInstrumentationConfig other) {
+		this.targetClassFqn = other.targetClassFqn;
+		this.targetMethodName = other.targetMethodName;
+		this.returnType = other.returnType;
+		if (null != other.parameterTypes) {
+			this.parameterTypes = new ArrayList<String>(other.parameterTypes);
+		}
+		if (null != other.sensorInstrumentationPoint) {
+			this.sensorInstrumentationPoint = new SensorInstrumentationPoint(other.sensorInstrumentationPoint);
+		}
+		if (null != other.specialInstrumentationPoint) {
+			this.specialInstrumentationPoint = new SpecialInstrumentationPoint(other.specialInstrumentationPoint);
+		}
+	}
+
 	/**
 	 * Constructs the method instrumentation config based on the given {@link MethodType}.
 	 *
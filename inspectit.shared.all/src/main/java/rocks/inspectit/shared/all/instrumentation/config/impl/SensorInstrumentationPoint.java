@@ -59,6 +59,64 @@ public class SensorInstrumentationPoint implements IMethodInstrumentationPoint {
 	 */
 	private List<PropertyPathStart> propertyAccessorList;
 
+	/**
+	 * If any of the sensors needs the parameters of the method. If not, the instrumentation does
+	 * not create the parameter array on every call.
+	 */
+	private boolean parametersNeeded = true;
+
+	/**
+	 * If any of the sensors needs the object the method is executed on.
+	 */
+	private boolean objectNeeded = true;
+
+	/**
+	 * If any of the sensors needs the result of the method. If not, the instrumentation does not
+	 * box the primitive results.
+	 */
+	private boolean resultNeeded = true;
+
+	/**
+	 * Ids of the sensors that need the parameters, object and result of the method. Kept so that
+	 * the needed flags can be recomputed when a sensor is removed.
+	 *
+	 * @see #markAllNeeded(long)
+	 * @see #removeSensorId(long)
+	 */
+	private transient long[] allNeededSensorIds = new long[0];
+
+	/**
+	 * No-args constructor.
+	 */
+	public SensorInstrumentationPoint() {
+	}
+
+	/**
+	 * Copy constructor. Creates the instrumentation point with the same values as the given one.
+	 * Sensor ids, settings and property accessor list are copied, thus later changes of the given
+	 * point are not reflected in the copy.
+	 *
+	 * @param other
+	 *            Instrumentation point to copy.
+	 */
+	public SensorInstrumentationPoint(SensorInstrumentationPoint other) {
+		this.id = other.id;
+		this.sensorIds = other.sensorIds.clone();
+		this.sensorPriorities = other.sensorPriorities.clone();
+		this.constructor = other.constructor;
+		this.startsInvocation = other.startsInvocation;
+		if (null != other.settings) {
+			this.settings = new HashMap<String, Object>(other.settings);
+		}
+		if (null != other.propertyAccessorList) {
+			this.propertyAccessorList = new ArrayList<PropertyPathStart>(other.propertyAccessorList);
+		}
+		this.parametersNeeded = other.parametersNeeded;
+		this.objectNeeded = other.objectNeeded;
+		this.resultNeeded = other.resultNeeded;
+		this.allNeededSensorIds = other.allNeededSensorIds.clone();
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -124,6 +182,37 @@ public class SensorInstrumentationPoint implements IMethodInstrumentationPoint {
 		return true;
 	}
 
+	/**
+	 * Removes the sensor id and recomputes if the parameters, object and result of the method are
+	 * needed by the remaining sensors and the property accessors.
+	 *
+	 * @param sensorId
+	 *            id to remove
+	 * @return true if sensor id has been removed, false otherwise
+	 */
+	public boolean removeSensorId(long sensorId) {
+		int index = ArrayUtils.indexOf(sensorIds, sensorId);
+		if (index < 0) {
+			return false;
+		}
+
+		sensorIds = ArrayUtils.remove(sensorIds, index);
+		sensorPriorities = ArrayUtils.remove(sensorPriorities, index);
+		allNeededSensorIds = ArrayUtils.removeElement(allNeededSensorIds, sensorId);
+
+		boolean allNeeded = allNeededSensorIds.length > 0;
+		parametersNeeded = allNeeded;
+		objectNeeded = allNeeded;
+		resultNeeded = allNeeded;
+		if (null != propertyAccessorList) {
+			for (PropertyPathStart propertyPathStart : propertyAccessorList) {
+				markNeeded(propertyPathStart);
+			}
+		}
+
+		return true;
+	}
+
 	/**
 	 * If sensor if is contained in this {@link SensorInstrumentationPoint}.
 	 *
@@ -230,6 +319,31 @@ public class SensorInstrumentationPoint implements IMethodInstrumentationPoint {
 			this.propertyAccessorList = new ArrayList<PropertyPathStart>(1);
 		}
 		this.propertyAccessorList.add(propertyPathStart);
+		markNeeded(propertyPathStart);
+	}
+
+	/**
+	 * Marks what the property accessor needs from the method.
+	 *
+	 * @param propertyPathStart
+	 *            {@link PropertyPathStart} of the property accessor.
+	 */
+	private void markNeeded(PropertyPathStart propertyPathStart) {
+		if (null != propertyPathStart.getContentType()) {
+			switch (propertyPathStart.getContentType()) {
+			case FIELD:
+				objectNeeded = true;
+				break;
+			case PARAM:
+				parametersNeeded = true;
+				break;
+			case RETURN:
+				resultNeeded = true;
+				break;
+			default:
+				break;
+			}
+		}
 	}
 
 	/**
@@ -239,4 +353,150 @@ public class SensorInstrumentationPoint implements IMethodInstrumentationPoint {
 		return CollectionUtils.isNotEmpty(propertyAccessorList);
 	}
 
+	/**
+	 * Gets {@link #parametersNeeded}.
+	 *
+	 * @return {@link #parametersNeeded}
+	 */
+	public boolean isParametersNeeded() {
+		return parametersNeeded;
+	}
+
+	/**
+	 * Sets {@link #parametersNeeded}.
+	 *
+	 * @param parametersNeeded
+	 *            New value for {@link #parametersNeeded}
+	 */
+	public void setParametersNeeded(boolean parametersNeeded) {
+		this.parametersNeeded = parametersNeeded;
+	}
+
+	/**
+	 * Gets {@link #objectNeeded}.
+	 *
+	 * @return {@link #objectNeeded}
+	 */
+	public boolean isObjectNeeded() {
+		return objectNeeded;
+	}
+
+	/**
+	 * Sets {@link #objectNeeded}.
+	 *
+	 * @param objectNeeded
+	 *            New value for {@link #objectNeeded}
+	 */
+	public void setObjectNeeded(boolean objectNeeded) {
+		this.objectNeeded = objectNeeded;
+	}
+
+	/**
+	 * Gets {@link #resultNeeded}.
+	 *
+	 * @return {@link #resultNeeded}
+	 */
+	public boolean isResultNeeded() {
+		return resultNeeded;
+	}
+
+	/**
+	 * Sets {@link #resultNeeded}.
+	 *
+	 * @param resultNeeded
+	 *            New value for {@link #resultNeeded}
+	 */
+	public void setResultNeeded(boolean resultNeeded) {
+		this.resultNeeded = resultNeeded;
+	}
+
+	/**
+	 * Marks that parameters, object and result of the method are all needed by the given sensor.
+	 *
+	 * @param sensorId
+	 *            Id of the sensor that needs them.
+	 */
+	public void markAllNeeded(long sensorId) {
+		if (!ArrayUtils.contains(allNeededSensorIds, sensorId)) {
+			allNeededSensorIds = ArrayUtils.add(allNeededSensorIds, sensorId);
+		}
+		this.parametersNeeded = true;
+		this.objectNeeded = true;
+		this.resultNeeded = true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Sensor priorities are not considered, as they only define the order of the sensor ids.
+	 */
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = (prime * result) + (int) (this.id ^ (this.id >>> 32));
+		result = (prime * result) + Arrays.hashCode(this.sensorIds);
+		result = (prime * result) + (this.constructor ? 1231 : 1237);
+		result = (prime * result) + (this.startsInvocation ? 1231 : 1237);
+		result = (prime * result) + ((this.settings == null) ? 0 : this.settings.hashCode());
+		result = (prime * result) + ((this.propertyAccessorList == null) ? 0 : this.propertyAccessorList.hashCode());
+		result = (prime * result) + (this.parametersNeeded ? 1231 : 1237);
+		result = (prime * result) + (this.objectNeeded ? 1231 : 1237);
+		result = (prime * result) + (this.resultNeeded ? 1231 : 1237);
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null) {
+			return false;
+		}
+		if (getClass() != obj.getClass()) {
+			return false;
+		}
+		SensorInstrumentationPoint other = (SensorInstrumentationPoint) obj;
+		if (this.id != other.id) {
+			return false;
+		}
+		if (!Arrays.equals(this.sensorIds, other.sensorIds)) {
+			return false;
+		}
+		if (this.constructor != other.constructor) {
+			return false;
+		}
+		if (this.startsInvocation != other.startsInvocation) {
+			return false;
+		}
+		if (this.settings == null) {
+			if (other.settings != null) {
+				return false;
+			}
+		} else if (!this.settings.equals(other.settings)) {
+			return false;
+		}
+		if (this.propertyAccessorList == null) {
+			if (other.propertyAccessorList != null) {
+				return false;
+			}
+		} else if (!this.propertyAccessorList.equals(other.propertyAccessorList)) {
+			return false;
+		}
+		if (this.parametersNeeded != other.parametersNeeded) {
+			return false;
+		}
+		if (this.objectNeeded != other.objectNeeded) {
+			return false;
+		}
+		if (this.resultNeeded != other.resultNeeded) {
+			return false;
+		}
+		return true;
+	}
+
 }
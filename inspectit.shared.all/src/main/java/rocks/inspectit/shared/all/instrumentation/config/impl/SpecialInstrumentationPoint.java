@@ -26,6 +26,24 @@ public class SpecialInstrumentationPoint implements IMethodInstrumentationPoint
 	 */
 	private SubstitutionDescriptor substitutionDescriptor;
 
+	/**
+	 * No-args constructor.
+	 */
+	public SpecialInstrumentationPoint() {
+	}
+
+	/**
+	 * Copy constructor. Creates the instrumentation point with the same values as the given one.
+	 *
+	 * @param other
+	 *            Instrumentation point to copy.
+	 */
+	public SpecialInstrumentationPoint(SpecialInstrumentationPoint other) {
+		this.id = other.id;
+		this.sensorId = other.sensorId;
+		this.substitutionDescriptor = other.substitutionDescriptor;
+	}
+
 	/**
 	 * Gets {@link #id}.
 	 *
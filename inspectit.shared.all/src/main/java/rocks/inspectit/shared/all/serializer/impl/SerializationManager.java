@@ -75,6 +75,7 @@ import rocks.inspectit.shared.all.communication.data.ExceptionSensorData;
 import rocks.inspectit.shared.all.communication.data.HttpInfo;
 import rocks.inspectit.shared.all.communication.data.HttpTimerData;
 import rocks.inspectit.shared.all.communication.data.InvocationAwareData.MutableInt;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceChunk;
 import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
 import rocks.inspectit.shared.all.communication.data.JmxSensorValueData;
 import rocks.inspectit.shared.all.communication.data.LoggingData;
@@ -395,6 +396,9 @@ public class SerializationManager implements ISerializer, IKryoProvider, Initial
 
 		// added with INSPECTIT-2226
 		kryo.register(SubstitutionDescriptor.class, new FieldSerializer<SubstitutionDescriptor>(kryo, SubstitutionDescriptor.class));
+
+		// chunked transfer of the large invocation sequences
+		kryo.register(InvocationSequenceChunk.class, new CustomCompatibleFieldSerializer<InvocationSequenceChunk>(kryo, InvocationSequenceChunk.class, schemaManager));
 	}
 
 	/**
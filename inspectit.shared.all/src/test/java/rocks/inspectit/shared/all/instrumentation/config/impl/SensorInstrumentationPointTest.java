@@ -1,11 +1,16 @@
 package rocks.inspectit.shared.all.instrumentation.config.impl;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import java.util.Collections;
 
 import org.mockito.InjectMocks;
 import org.testng.annotations.Test;
 
+import rocks.inspectit.shared.all.communication.data.ParameterContentType;
 import rocks.inspectit.shared.all.instrumentation.config.PriorityEnum;
 import rocks.inspectit.shared.all.testbase.TestBase;
 
@@ -19,7 +24,7 @@ import rocks.inspectit.shared.all.testbase.TestBase;
 public class SensorInstrumentationPointTest extends TestBase {
 
 	@InjectMocks
-	SensorInstrumentationPoint registeredSensorConfig;
+	SensorInstrumentationPoint registeredSensorConfig = new SensorInstrumentationPoint();
 
 	public class ConatinsSensorIds extends SensorInstrumentationPointTest {
 
@@ -75,4 +80,134 @@ public class SensorInstrumentationPointTest extends TestBase {
 			assertThat(sensorIds[1], is(1L));
 		}
 	}
+
+	public class RemoveSensorId extends SensorInstrumentationPointTest {
+
+		@Test
+		public void removed() {
+			registeredSensorConfig.addSensorId(1, PriorityEnum.MIN);
+			registeredSensorConfig.addSensorId(2, PriorityEnum.MAX);
+
+			boolean removed = registeredSensorConfig.removeSensorId(2);
+
+			assertThat(removed, is(true));
+			assertThat(registeredSensorConfig.getSensorIds().length, is(1));
+			assertThat(registeredSensorConfig.getSensorIds()[0], is(1L));
+		}
+
+		@Test
+		public void notContained() {
+			registeredSensorConfig.addSensorId(1, PriorityEnum.MIN);
+
+			boolean removed = registeredSensorConfig.removeSensorId(2);
+
+			assertThat(removed, is(false));
+			assertThat(registeredSensorConfig.getSensorIds().length, is(1));
+		}
+
+		@Test
+		public void priorityKept() {
+			registeredSensorConfig.addSensorId(1, PriorityEnum.MIN);
+			registeredSensorConfig.addSensorId(2, PriorityEnum.NORMAL);
+			registeredSensorConfig.removeSensorId(1);
+
+			registeredSensorConfig.addSensorId(3, PriorityEnum.MAX);
+
+			assertThat(registeredSensorConfig.getSensorIds()[0], is(3L));
+			assertThat(registeredSensorConfig.getSensorIds()[1], is(2L));
+		}
+
+		@Test
+		public void neededRecomputed() {
+			registeredSensorConfig.setParametersNeeded(false);
+			registeredSensorConfig.setObjectNeeded(false);
+			registeredSensorConfig.setResultNeeded(false);
+			registeredSensorConfig.addSensorId(1, PriorityEnum.MIN);
+			registeredSensorConfig.addSensorId(2, PriorityEnum.MAX);
+			registeredSensorConfig.markAllNeeded(2);
+
+			registeredSensorConfig.removeSensorId(2);
+
+			assertThat(registeredSensorConfig.isParametersNeeded(), is(false));
+			assertThat(registeredSensorConfig.isObjectNeeded(), is(false));
+			assertThat(registeredSensorConfig.isResultNeeded(), is(false));
+		}
+
+		@Test
+		public void neededByOtherSensor() {
+			registeredSensorConfig.setParametersNeeded(false);
+			registeredSensorConfig.setObjectNeeded(false);
+			registeredSensorConfig.setResultNeeded(false);
+			registeredSensorConfig.addSensorId(1, PriorityEnum.MIN);
+			registeredSensorConfig.addSensorId(2, PriorityEnum.MAX);
+			registeredSensorConfig.markAllNeeded(1);
+			registeredSensorConfig.markAllNeeded(2);
+
+			registeredSensorConfig.removeSensorId(2);
+
+			assertThat(registeredSensorConfig.isParametersNeeded(), is(true));
+			assertThat(registeredSensorConfig.isObjectNeeded(), is(true));
+			assertThat(registeredSensorConfig.isResultNeeded(), is(true));
+		}
+
+		@Test
+		public void neededByPropertyAccessor() {
+			registeredSensorConfig.setParametersNeeded(false);
+			registeredSensorConfig.setObjectNeeded(false);
+			registeredSensorConfig.setResultNeeded(false);
+			registeredSensorConfig.addSensorId(1, PriorityEnum.MIN);
+			registeredSensorConfig.addSensorId(2, PriorityEnum.MAX);
+			registeredSensorConfig.markAllNeeded(2);
+			PropertyPathStart propertyPathStart = new PropertyPathStart();
+			propertyPathStart.setContentType(ParameterContentType.PARAM);
+			registeredSensorConfig.addPropertyAccessor(propertyPathStart);
+
+			registeredSensorConfig.removeSensorId(2);
+
+			assertThat(registeredSensorConfig.isParametersNeeded(), is(true));
+			assertThat(registeredSensorConfig.isObjectNeeded(), is(false));
+			assertThat(registeredSensorConfig.isResultNeeded(), is(false));
+		}
+	}
+
+	public class Copy extends SensorInstrumentationPointTest {
+
+		@Test
+		public void equalToOriginal() {
+			registeredSensorConfig.setId(1L);
+			registeredSensorConfig.addSensorId(1, PriorityEnum.MIN);
+			registeredSensorConfig.addSettings(Collections.<String, Object> singletonMap("key", "value"));
+			registeredSensorConfig.addPropertyAccessor(new PropertyPathStart());
+
+			SensorInstrumentationPoint copy = new SensorInstrumentationPoint(registeredSensorConfig);
+
+			assertThat(copy, is(equalTo(registeredSensorConfig)));
+			assertThat(copy.hashCode(), is(registeredSensorConfig.hashCode()));
+		}
+
+		@Test
+		public void changesNotReflected() {
+			registeredSensorConfig.addSensorId(1, PriorityEnum.MIN);
+			registeredSensorConfig.addSettings(Collections.<String, Object> singletonMap("key", "value"));
+
+			SensorInstrumentationPoint copy = new SensorInstrumentationPoint(registeredSensorConfig);
+			registeredSensorConfig.addSensorId(2, PriorityEnum.MAX);
+			registeredSensorConfig.addSettings(Collections.<String, Object> singletonMap("key", "otherValue"));
+
+			assertThat(copy.getSensorIds().length, is(1));
+			assertThat(copy.getSettings().get("key"), is((Object) "value"));
+			assertThat(copy, is(not(equalTo(registeredSensorConfig))));
+		}
+
+		@Test
+		public void priorityKept() {
+			registeredSensorConfig.addSensorId(1, PriorityEnum.MIN);
+
+			SensorInstrumentationPoint copy = new SensorInstrumentationPoint(registeredSensorConfig);
+			copy.addSensorId(2, PriorityEnum.MAX);
+
+			assertThat(copy.getSensorIds()[0], is(2L));
+			assertThat(copy.getSensorIds()[1], is(1L));
+		}
+	}
 }
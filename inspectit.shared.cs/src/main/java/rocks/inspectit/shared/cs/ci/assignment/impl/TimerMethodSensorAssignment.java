@@ -42,6 +42,18 @@ public class TimerMethodSensorAssignment extends ChartingMethodSensorAssignment
 	@XmlAttribute(name = "min-invocation-duration")
 	private Long minInvocationDuration = Long.valueOf(0L);
 
+	/**
+	 * Rate between 0 and 1 of the invocations to record.
+	 */
+	@XmlAttribute(name = "invocation-sampling-rate")
+	private Double invocationSamplingRate = Double.valueOf(1.0d);
+
+	/**
+	 * Max invocations to record per second, 0 for no limit.
+	 */
+	@XmlAttribute(name = "invocation-sampling-budget")
+	private Long invocationSamplingBudget = Long.valueOf(0L);
+
 	/**
 	 * List of context captures.
 	 */
@@ -71,6 +83,14 @@ public class TimerMethodSensorAssignment extends ChartingMethodSensorAssignment
 			settings.put("minduration", minInvocationDuration);
 		}
 
+		// sampling
+		if (invocationSamplingRate < 1.0d) {
+			settings.put("samplingrate", invocationSamplingRate);
+		}
+		if (invocationSamplingBudget > 0) {
+			settings.put("samplingbudget", invocationSamplingBudget);
+		}
+
 		return settings;
 	}
 
@@ -112,6 +132,44 @@ public class TimerMethodSensorAssignment extends ChartingMethodSensorAssignment
 		this.minInvocationDuration = Long.valueOf(minInvocationDuration);
 	}
 
+	/**
+	 * Gets {@link #invocationSamplingRate}.
+	 *
+	 * @return {@link #invocationSamplingRate}
+	 */
+	public double getInvocationSamplingRate() {
+		return invocationSamplingRate.doubleValue();
+	}
+
+	/**
+	 * Sets {@link #invocationSamplingRate}.
+	 *
+	 * @param invocationSamplingRate
+	 *            New value for {@link #invocationSamplingRate}
+	 */
+	public void setInvocationSamplingRate(double invocationSamplingRate) {
+		this.invocationSamplingRate = Double.valueOf(invocationSamplingRate);
+	}
+
+	/**
+	 * Gets {@link #invocationSamplingBudget}.
+	 *
+	 * @return {@link #invocationSamplingBudget}
+	 */
+	public long getInvocationSamplingBudget() {
+		return invocationSamplingBudget.longValue();
+	}
+
+	/**
+	 * Sets {@link #invocationSamplingBudget}.
+	 *
+	 * @param invocationSamplingBudget
+	 *            New value for {@link #invocationSamplingBudget}
+	 */
+	public void setInvocationSamplingBudget(long invocationSamplingBudget) {
+		this.invocationSamplingBudget = Long.valueOf(invocationSamplingBudget);
+	}
+
 	/**
 	 * Gets {@link #contextCaptures}.
 	 *
@@ -139,6 +197,8 @@ public class TimerMethodSensorAssignment extends ChartingMethodSensorAssignment
 		final int prime = 31;
 		int result = super.hashCode();
 		result = (prime * result) + ((this.contextCaptures == null) ? 0 : this.contextCaptures.hashCode());
+		result = (prime * result) + ((this.invocationSamplingBudget == null) ? 0 : this.invocationSamplingBudget.hashCode());
+		result = (prime * result) + ((this.invocationSamplingRate == null) ? 0 : this.invocationSamplingRate.hashCode());
 		result = (prime * result) + ((this.minInvocationDuration == null) ? 0 : this.minInvocationDuration.hashCode());
 		result = (prime * result) + ((this.startsInvocation == null) ? 0 : this.startsInvocation.hashCode());
 		return result;
@@ -166,6 +226,20 @@ public class TimerMethodSensorAssignment extends ChartingMethodSensorAssignment
 		} else if (!this.contextCaptures.equals(other.contextCaptures)) {
 			return false;
 		}
+		if (this.invocationSamplingBudget == null) {
+			if (other.invocationSamplingBudget != null) {
+				return false;
+			}
+		} else if (!this.invocationSamplingBudget.equals(other.invocationSamplingBudget)) {
+			return false;
+		}
+		if (this.invocationSamplingRate == null) {
+			if (other.invocationSamplingRate != null) {
+				return false;
+			}
+		} else if (!this.invocationSamplingRate.equals(other.invocationSamplingRate)) {
+			return false;
+		}
 		if (this.minInvocationDuration == null) {
 			if (other.minInvocationDuration != null) {
 				return false;
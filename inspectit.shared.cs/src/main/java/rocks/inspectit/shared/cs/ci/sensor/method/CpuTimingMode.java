@@ -0,0 +1,63 @@
+package rocks.inspectit.shared.cs.ci.sensor.method;
+
+import javax.xml.bind.annotation.XmlEnum;
+import javax.xml.bind.annotation.XmlEnumValue;
+
+/**
+ * Defines how the sensors measuring the duration read the CPU time of the thread.
+ *
+ * @author Ivan Senic
+ *
+ */
+@XmlEnum(String.class)
+public enum CpuTimingMode {
+
+	/**
+	 * No CPU time is measured.
+	 */
+	@XmlEnumValue("off")
+	OFF("off"),
+
+	/**
+	 * CPU time is read with JMX on every measured call.
+	 */
+	@XmlEnumValue("jmx")
+	JMX("jmx"),
+
+	/**
+	 * CPU time is read with JMX only for the outermost measured call of the thread.
+	 */
+	@XmlEnumValue("boundary")
+	BOUNDARY("boundary"),
+
+	/**
+	 * CPU time is sampled periodically per thread and attributed to the running calls.
+	 */
+	@XmlEnumValue("sampled")
+	SAMPLED("sampled");
+
+	/**
+	 * Value passed to the agent as sensor parameter.
+	 */
+	private final String parameterValue;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param parameterValue
+	 *            Value passed to the agent as sensor parameter.
+	 */
+	CpuTimingMode(String parameterValue) {
+		this.parameterValue = parameterValue;
+	}
+
+	/**
+	 * Gets {@link #parameterValue}.
+	 *
+	 * @return {@link #parameterValue}
+	 */
+	public String getParameterValue() {
+		return parameterValue;
+	}
+
+}
@@ -7,6 +7,7 @@ import javax.xml.bind.annotation.XmlRootElement;
 
 import rocks.inspectit.shared.all.instrumentation.config.PriorityEnum;
 import rocks.inspectit.shared.cs.ci.sensor.StringConstraintSensorConfig;
+import rocks.inspectit.shared.cs.ci.sensor.method.CpuTimingMode;
 import rocks.inspectit.shared.cs.ci.sensor.method.IMethodSensorConfig;
 
 /**
@@ -34,6 +35,19 @@ public class HttpSensorConfig extends StringConstraintSensorConfig implements IM
 	@XmlAttribute(name = "sessionCapture")
 	private Boolean sessionCapture = Boolean.FALSE;
 
+	/**
+	 * Duration threshold in milliseconds for capturing the attributes, headers and session
+	 * attributes. Zero means that they are captured for every request.
+	 */
+	@XmlAttribute(name = "detailsCaptureThreshold")
+	private Long detailsCaptureThreshold = Long.valueOf(0L);
+
+	/**
+	 * Defines how the CPU time of the thread is measured.
+	 */
+	@XmlAttribute(name = "cpuTiming")
+	private CpuTimingMode cpuTiming = CpuTimingMode.JMX;
+
 	/**
 	 * No-args constructor.
 	 */
@@ -83,6 +97,12 @@ public class HttpSensorConfig extends StringConstraintSensorConfig implements IM
 		if (sessionCapture) {
 			parameters.put("sessioncapture", "true");
 		}
+		if ((null != detailsCaptureThreshold) && (detailsCaptureThreshold.longValue() > 0)) {
+			parameters.put("detailscapturethreshold", detailsCaptureThreshold.toString());
+		}
+		if ((null != cpuTiming) && (CpuTimingMode.JMX != cpuTiming)) {
+			parameters.put("cputiming", cpuTiming.getParameterValue());
+		}
 
 		return parameters;
 	}
@@ -106,4 +126,42 @@ public class HttpSensorConfig extends StringConstraintSensorConfig implements IM
 		this.sessionCapture = Boolean.valueOf(sessionCapture);
 	}
 
+	/**
+	 * Gets {@link #detailsCaptureThreshold}.
+	 *
+	 * @return {@link #detailsCaptureThreshold}
+	 */
+	public long getDetailsCaptureThreshold() {
+		return (null != detailsCaptureThreshold) ? detailsCaptureThreshold.longValue() : 0L;
+	}
+
+	/**
+	 * Sets {@link #detailsCaptureThreshold}.
+	 *
+	 * @param detailsCaptureThreshold
+	 *            New value for {@link #detailsCaptureThreshold}
+	 */
+	public void setDetailsCaptureThreshold(long detailsCaptureThreshold) {
+		this.detailsCaptureThreshold = Long.valueOf(detailsCaptureThreshold);
+	}
+
+	/**
+	 * Gets {@link #cpuTiming}.
+	 *
+	 * @return {@link #cpuTiming}
+	 */
+	public CpuTimingMode getCpuTiming() {
+		return cpuTiming;
+	}
+
+	/**
+	 * Sets {@link #cpuTiming}.
+	 *
+	 * @param cpuTiming
+	 *            New value for {@link #cpuTiming}
+	 */
+	public void setCpuTiming(CpuTimingMode cpuTiming) {
+		this.cpuTiming = cpuTiming;
+	}
+
 }
@@ -1,5 +1,8 @@
 package rocks.inspectit.shared.cs.ci.sensor.method.impl;
 
+import java.util.Map;
+
+import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlRootElement;
 
 import rocks.inspectit.shared.all.instrumentation.config.PriorityEnum;
@@ -25,6 +28,20 @@ public class InvocationSequenceSensorConfig extends StringConstraintSensorConfig
 	 */
 	public static final String CLASS_NAME = "rocks.inspectit.agent.java.sensor.method.invocationsequence.InvocationSequenceSensor";
 
+	/**
+	 * Max amount of nested nodes in one invocation sequence. Calls above the limit are summarized
+	 * per method. Zero means no limit.
+	 */
+	@XmlAttribute(name = "maxChildren")
+	private Long maxChildren = Long.valueOf(0L);
+
+	/**
+	 * Max depth of the nested nodes in one invocation sequence. Calls below the depth are
+	 * summarized per method. Zero means no limit.
+	 */
+	@XmlAttribute(name = "maxDepth")
+	private Integer maxDepth = Integer.valueOf(0);
+
 	/**
 	 * No-args constructor.
 	 */
@@ -64,4 +81,59 @@ public class InvocationSequenceSensorConfig extends StringConstraintSensorConfig
 		return true;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Map<String, Object> getParameters() {
+		Map<String, Object> parameters = super.getParameters();
+
+		if ((null != maxChildren) && (maxChildren.longValue() > 0)) {
+			parameters.put("maxchildren", maxChildren.toString());
+		}
+		if ((null != maxDepth) && (maxDepth.intValue() > 0)) {
+			parameters.put("maxdepth", maxDepth.toString());
+		}
+
+		return parameters;
+	}
+
+	/**
+	 * Gets {@link #maxChildren}.
+	 *
+	 * @return {@link #maxChildren}
+	 */
+	public long getMaxChildren() {
+		return (null != maxChildren) ? maxChildren.longValue() : 0L;
+	}
+
+	/**
+	 * Sets {@link #maxChildren}.
+	 *
+	 * @param maxChildren
+	 *            New value for {@link #maxChildren}
+	 */
+	public void setMaxChildren(long maxChildren) {
+		this.maxChildren = Long.valueOf(maxChildren);
+	}
+
+	/**
+	 * Gets {@link #maxDepth}.
+	 *
+	 * @return {@link #maxDepth}
+	 */
+	public int getMaxDepth() {
+		return (null != maxDepth) ? maxDepth.intValue() : 0;
+	}
+
+	/**
+	 * Sets {@link #maxDepth}.
+	 *
+	 * @param maxDepth
+	 *            New value for {@link #maxDepth}
+	 */
+	public void setMaxDepth(int maxDepth) {
+		this.maxDepth = Integer.valueOf(maxDepth);
+	}
+
 }
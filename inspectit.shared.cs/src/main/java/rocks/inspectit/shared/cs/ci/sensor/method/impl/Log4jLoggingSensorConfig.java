@@ -1,7 +1,7 @@
 package rocks.inspectit.shared.cs.ci.sensor.method.impl;
 
 import java.util.Arrays;
-import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 
 import javax.xml.bind.annotation.XmlAccessType;
@@ -52,6 +52,23 @@ public class Log4jLoggingSensorConfig extends AbstractMethodSensorConfig impleme
 	@XmlAttribute(name = "minLevel", required = true)
 	private String minLevel = "WARN";
 
+	/**
+	 * Max messages captured per second and logger, <code>0</code> for no limit.
+	 * <p>
+	 * Default value is {@value #rateLimit}.
+	 */
+	@XmlAttribute(name = "rateLimit")
+	private long rateLimit = 100L;
+
+	/**
+	 * Window in milliseconds in which the messages with the same level and pattern logged outside
+	 * of the invocation sequences are aggregated, <code>0</code> for no aggregation.
+	 * <p>
+	 * Default value is {@value #aggregationWindow}.
+	 */
+	@XmlAttribute(name = "aggregationWindow")
+	private long aggregationWindow = 1000L;
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -91,7 +108,11 @@ public class Log4jLoggingSensorConfig extends AbstractMethodSensorConfig impleme
 	 */
 	@Override
 	public Map<String, Object> getParameters() {
-		return Collections.<String, Object> singletonMap("minlevel", minLevel);
+		Map<String, Object> parameters = new HashMap<String, Object>();
+		parameters.put("minlevel", minLevel);
+		parameters.put("ratelimit", rateLimit);
+		parameters.put("aggregationwindow", aggregationWindow);
+		return parameters;
 	}
 
 	/**
@@ -129,4 +150,42 @@ public class Log4jLoggingSensorConfig extends AbstractMethodSensorConfig impleme
 		this.minLevel = minLevel;
 	}
 
+	/**
+	 * Gets {@link #rateLimit}.
+	 *
+	 * @return {@link #rateLimit}
+	 */
+	public long getRateLimit() {
+		return rateLimit;
+	}
+
+	/**
+	 * Sets {@link #rateLimit}.
+	 *
+	 * @param rateLimit
+	 *            New value for {@link #rateLimit}
+	 */
+	public void setRateLimit(long rateLimit) {
+		this.rateLimit = rateLimit;
+	}
+
+	/**
+	 * Gets {@link #aggregationWindow}.
+	 *
+	 * @return {@link #aggregationWindow}
+	 */
+	public long getAggregationWindow() {
+		return aggregationWindow;
+	}
+
+	/**
+	 * Sets {@link #aggregationWindow}.
+	 *
+	 * @param aggregationWindow
+	 *            New value for {@link #aggregationWindow}
+	 */
+	public void setAggregationWindow(long aggregationWindow) {
+		this.aggregationWindow = aggregationWindow;
+	}
+
 }
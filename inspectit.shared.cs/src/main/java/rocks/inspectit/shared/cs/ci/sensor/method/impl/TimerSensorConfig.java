@@ -1,9 +1,13 @@
 package rocks.inspectit.shared.cs.ci.sensor.method.impl;
 
+import java.util.Map;
+
+import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlRootElement;
 
 import rocks.inspectit.shared.all.instrumentation.config.PriorityEnum;
 import rocks.inspectit.shared.cs.ci.sensor.StringConstraintSensorConfig;
+import rocks.inspectit.shared.cs.ci.sensor.method.CpuTimingMode;
 import rocks.inspectit.shared.cs.ci.sensor.method.IMethodSensorConfig;
 
 /**
@@ -25,6 +29,12 @@ public class TimerSensorConfig extends StringConstraintSensorConfig implements I
 	 */
 	public static final String CLASS_NAME = "rocks.inspectit.agent.java.sensor.method.timer.TimerSensor";
 
+	/**
+	 * Defines how the CPU time of the thread is measured.
+	 */
+	@XmlAttribute(name = "cpuTiming")
+	private CpuTimingMode cpuTiming = CpuTimingMode.JMX;
+
 	/**
 	 * No-args constructor.
 	 */
@@ -64,4 +74,37 @@ public class TimerSensorConfig extends StringConstraintSensorConfig implements I
 		return false;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Map<String, Object> getParameters() {
+		Map<String, Object> parameters = super.getParameters();
+
+		if ((null != cpuTiming) && (CpuTimingMode.JMX != cpuTiming)) {
+			parameters.put("cputiming", cpuTiming.getParameterValue());
+		}
+
+		return parameters;
+	}
+
+	/**
+	 * Gets {@link #cpuTiming}.
+	 *
+	 * @return {@link #cpuTiming}
+	 */
+	public CpuTimingMode getCpuTiming() {
+		return cpuTiming;
+	}
+
+	/**
+	 * Sets {@link #cpuTiming}.
+	 *
+	 * @param cpuTiming
+	 *            New value for {@link #cpuTiming}
+	 */
+	public void setCpuTiming(CpuTimingMode cpuTiming) {
+		this.cpuTiming = cpuTiming;
+	}
+
 }
@@ -1,6 +1,7 @@
 package rocks.inspectit.shared.cs.cmr.service;
 
 import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
@@ -62,6 +63,20 @@ public interface IStorageService {
 	 */
 	void deleteStorage(StorageData storageData) throws BusinessException;
 
+	/**
+	 * Deletes the time segments of the storage that hold only data older than the given date. Only
+	 * storages written with time partitioned channels are partitioned in time segments.
+	 *
+	 * @param storageData
+	 *            Storage to delete segments from.
+	 * @param before
+	 *            Segments which newest data is older than this date are deleted.
+	 * @return Number of deleted channel files.
+	 * @throws BusinessException
+	 *             When storage does not exist or is not closed.
+	 */
+	int deleteExpiredSegments(StorageData storageData, Date before) throws BusinessException;
+
 	/**
 	 * Returns if the storage is opened, and thus if the write to the storage can be executed.
 	 *
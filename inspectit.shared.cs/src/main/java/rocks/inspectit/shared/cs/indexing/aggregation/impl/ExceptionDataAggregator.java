@@ -89,6 +89,7 @@ public class ExceptionDataAggregator implements IAggregator<ExceptionSensorData>
 		}
 		if (exceptionAggregationType == ExceptionAggregationType.DISTINCT_STACK_TRACES) {
 			clone.setStackTrace(getCorrectStackTrace(exceptionData.getStackTrace()));
+			clone.setStackTraceFingerprint(exceptionData.getStackTraceFingerprint());
 		}
 		return clone;
 	}
@@ -109,6 +110,16 @@ public class ExceptionDataAggregator implements IAggregator<ExceptionSensorData>
 			result = (prime * result) + ((exceptionSensorData.getErrorMessage() == null) ? 0 : exceptionSensorData.getErrorMessage().hashCode());
 			return result;
 		} else if (exceptionAggregationType == ExceptionAggregationType.DISTINCT_STACK_TRACES) {
+			long fingerprint = exceptionSensorData.getStackTraceFingerprint();
+			if (0 != fingerprint) {
+				// fingerprint identifies the stack trace without the message, thus it can be used
+				// instead of the expensive hashing of the stack trace, long key never equals the
+				// integer keys
+				long result = 0;
+				result = (prime * result) + ((exceptionSensorData.getErrorMessage() == null) ? 0 : exceptionSensorData.getErrorMessage().hashCode());
+				result = (prime * result) + fingerprint;
+				return result;
+			}
 			int result = 0;
 			result = (prime * result) + ((exceptionSensorData.getErrorMessage() == null) ? 0 : exceptionSensorData.getErrorMessage().hashCode());
 			result = (prime * result) + ((exceptionSensorData.getStackTrace() == null) ? 0 : getCorrectStackTrace(exceptionSensorData.getStackTrace()).hashCode());
@@ -0,0 +1,307 @@
+package rocks.inspectit.shared.cs.indexing.indexer.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.indexing.IIndexQuery;
+import rocks.inspectit.shared.cs.indexing.indexer.IBranchIndexer;
+
+/**
+ * {@link IBranchIndexer} that partitions the elements in the time segments of one hour. For every
+ * segment the min and max time-stamp of the indexed elements and the involved platform idents are
+ * kept, so that queries that are bound in time or to a platform can skip the complete segments.
+ * <p>
+ * When used as the first indexer of the storage indexing tree, each segment gets its own channels,
+ * thus segments can also be deleted without touching the data of other segments.
+ * <p>
+ * The indexer holds the state of its branch that changes with every indexed element, thus it
+ * keeps the identity based equals and hash code.
+ *
+ * @author Ivan Senic
+ *
+ * @param <E>
+ */
+public class TimeSegmentIndexer<E extends DefaultData> implements IBranchIndexer<E> {
+
+	/**
+	 * Segment period. Value is {@value #SEGMENT_PERIOD} milliseconds.
+	 */
+	public static final long SEGMENT_PERIOD = 60 * 60 * 1000;
+
+	/**
+	 * Constant for empty keys.
+	 */
+	private static final Object[] EMPTY_KEYS = new Object[0];
+
+	/**
+	 * Key that is returned when no segment matches the query. Empty keys would result in the
+	 * query of all segments, thus a key that is never created is returned instead.
+	 */
+	private static final Object[] NO_SEGMENT_KEYS = new Object[] { Long.valueOf(Long.MIN_VALUE) };
+
+	/**
+	 * Segments mapped by the key. Concurrent map is used for the same reason as in the
+	 * {@link TimestampIndexer}.
+	 */
+	private ConcurrentHashMap<Long, TimeSegment> segmentsMap = new ConcurrentHashMap<>(8, 0.75f, 1);
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object getKey(E element) {
+		if (null == element.getTimeStamp()) {
+			return null;
+		}
+		long time = element.getTimeStamp().getTime();
+		Long key = Long.valueOf(getSegmentKey(time));
+		TimeSegment segment = segmentsMap.get(key);
+		if (null == segment) {
+			segment = new TimeSegment(key.longValue());
+			TimeSegment existing = segmentsMap.putIfAbsent(key, segment);
+			if (null != existing) {
+				segment = existing;
+			}
+		}
+		segment.update(time, element.getPlatformIdent());
+		return key;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object[] getKeys(IIndexQuery query) {
+		boolean platformSet = 0 != query.getPlatformIdent();
+		if (!query.isIntervalSet() && !platformSet) {
+			return EMPTY_KEYS; // NOPMD
+		}
+
+		long from = Long.MIN_VALUE;
+		long to = Long.MAX_VALUE;
+		if (query.isIntervalSet()) {
+			if (null != query.getFromDate()) {
+				from = query.getFromDate().getTime();
+			}
+			if (null != query.getToDate()) {
+				to = query.getToDate().getTime();
+			}
+		}
+
+		List<Object> keys = new ArrayList<>();
+		for (TimeSegment segment : segmentsMap.values()) {
+			if (segment.overlaps(from, to) && (!platformSet || segment.containsPlatform(query.getPlatformIdent()))) {
+				keys.add(Long.valueOf(segment.getKey()));
+			}
+		}
+
+		if (keys.isEmpty()) {
+			return NO_SEGMENT_KEYS; // NOPMD
+		}
+		return keys.toArray(new Object[keys.size()]);
+	}
+
+	/**
+	 * Returns the key of the segment the given time belongs to.
+	 *
+	 * @param time
+	 *            Time in milliseconds.
+	 * @return Segment key.
+	 */
+	private long getSegmentKey(long time) {
+		return time - (time % SEGMENT_PERIOD);
+	}
+
+	/**
+	 * Returns all segments.
+	 *
+	 * @return Returns all segments.
+	 */
+	public Collection<TimeSegment> getSegments() {
+		return segmentsMap.values();
+	}
+
+	/**
+	 * Removes the segment information for the given key.
+	 *
+	 * @param key
+	 *            Segment key.
+	 * @return Removed segment or <code>null</code> if segment with the key does not exist.
+	 */
+	public TimeSegment removeSegment(long key) {
+		return segmentsMap.remove(Long.valueOf(key));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean sharedInstance() {
+		return false;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public IBranchIndexer<E> getNewInstance() {
+		return new TimeSegmentIndexer<>();
+	}
+
+	/**
+	 * Meta-data of one time segment.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	public static class TimeSegment {
+
+		/**
+		 * Segment key, the start of the segment period.
+		 */
+		private long key;
+
+		/**
+		 * Min time-stamp of the elements in the segment.
+		 */
+		private long minTimestamp = Long.MAX_VALUE;
+
+		/**
+		 * Max time-stamp of the elements in the segment.
+		 */
+		private long maxTimestamp = Long.MIN_VALUE;
+
+		/**
+		 * Platform idents of the elements in the segment.
+		 */
+		private ConcurrentHashMap<Long, Boolean> platformIdentsMap = new ConcurrentHashMap<>(4, 0.75f, 1);
+
+		/**
+		 * No-arg constructor for serialization.
+		 */
+		public TimeSegment() {
+		}
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param key
+		 *            Segment key.
+		 */
+		public TimeSegment(long key) {
+			this.key = key;
+		}
+
+		/**
+		 * Updates the segment with the element information.
+		 *
+		 * @param time
+		 *            Element time-stamp.
+		 * @param platformIdent
+		 *            Element platform ident.
+		 */
+		synchronized void update(long time, long platformIdent) {
+			if (time < minTimestamp) {
+				minTimestamp = time;
+			}
+			if (time > maxTimestamp) {
+				maxTimestamp = time;
+			}
+			platformIdentsMap.put(Long.valueOf(platformIdent), Boolean.TRUE);
+		}
+
+		/**
+		 * If the segment holds elements in the given interval.
+		 *
+		 * @param from
+		 *            Interval start.
+		 * @param to
+		 *            Interval end.
+		 * @return <code>true</code> if min and max time-stamp of the segment overlap with the
+		 *         interval.
+		 */
+		public synchronized boolean overlaps(long from, long to) {
+			return (minTimestamp <= to) && (maxTimestamp >= from);
+		}
+
+		/**
+		 * If the segment holds elements of the given platform.
+		 *
+		 * @param platformIdent
+		 *            Platform ident.
+		 * @return <code>true</code> if the segment holds elements of the platform.
+		 */
+		public boolean containsPlatform(long platformIdent) {
+			return platformIdentsMap.containsKey(Long.valueOf(platformIdent));
+		}
+
+		/**
+		 * Gets {@link #key}.
+		 *
+		 * @return {@link #key}
+		 */
+		public long getKey() {
+			return key;
+		}
+
+		/**
+		 * Gets {@link #minTimestamp}.
+		 *
+		 * @return {@link #minTimestamp}
+		 */
+		public synchronized long getMinTimestamp() {
+			return minTimestamp;
+		}
+
+		/**
+		 * Gets {@link #maxTimestamp}.
+		 *
+		 * @return {@link #maxTimestamp}
+		 */
+		public synchronized long getMaxTimestamp() {
+			return maxTimestamp;
+		}
+
+		/**
+		 * Returns the platform idents of the elements in the segment.
+		 *
+		 * @return Returns the platform idents of the elements in the segment.
+		 */
+		public Collection<Long> getPlatformIdents() {
+			return platformIdentsMap.keySet();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = (prime * result) + (int) (key ^ (key >>> 32));
+			return result;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (obj == null) {
+				return false;
+			}
+			if (getClass() != obj.getClass()) {
+				return false;
+			}
+			TimeSegment other = (TimeSegment) obj;
+			return key == other.key;
+		}
+	}
+
+}
@@ -197,6 +197,16 @@ public class LeafWithNoDescriptors<E extends DefaultData> implements IStorageTre
 		return id;
 	}
 
+	/**
+	 * Sets {@link #id}. Used only when the channel ids of a rebuilt indexing tree are remapped.
+	 *
+	 * @param id
+	 *            New value for {@link #id}
+	 */
+	void setId(int id) {
+		this.id = id;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -0,0 +1,69 @@
+package rocks.inspectit.shared.cs.indexing.storage.impl;
+
+import java.util.Map;
+
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.cs.indexing.ITreeComponent;
+import rocks.inspectit.shared.cs.indexing.storage.IStorageDescriptor;
+import rocks.inspectit.shared.cs.indexing.storage.IStorageTreeComponent;
+
+/**
+ * Changes the ids of the leafs in a storage indexing tree. Since the id of the leaf is the id of
+ * the channel its data is written to, this is needed when an indexing tree is rebuilt for the data
+ * that was already written to the channels, as the new leafs always get random ids.
+ *
+ * @author Ivan Senic
+ *
+ */
+public final class StorageLeafChannelRemapper {
+
+	/**
+	 * Private constructor.
+	 */
+	private StorageLeafChannelRemapper() {
+	}
+
+	/**
+	 * Remaps the leaf ids in the given tree.
+	 *
+	 * @param storageTreeComponent
+	 *            Tree to remap.
+	 * @param channelMapping
+	 *            Map with the current leaf id as key and wanted channel id as value. Leafs which id
+	 *            is not in the map are not changed.
+	 * @return Number of remapped leafs.
+	 */
+	public static int remap(IStorageTreeComponent<?> storageTreeComponent, Map<Integer, Integer> channelMapping) {
+		if (storageTreeComponent instanceof StorageBranch) {
+			int count = 0;
+			for (ITreeComponent<IStorageDescriptor, ?> child : ((StorageBranch<?>) storageTreeComponent).getComponentMap().values()) {
+				if (child instanceof IStorageTreeComponent) {
+					count += remap((IStorageTreeComponent<?>) child, channelMapping);
+				}
+			}
+			return count;
+		} else if (storageTreeComponent instanceof CombinedStorageBranch) {
+			int count = 0;
+			for (IStorageTreeComponent<? extends DefaultData> branch : ((CombinedStorageBranch<?>) storageTreeComponent).getBranches()) {
+				count += remap(branch, channelMapping);
+			}
+			return count;
+		} else if (storageTreeComponent instanceof ArrayBasedStorageLeaf) {
+			ArrayBasedStorageLeaf<?> leaf = (ArrayBasedStorageLeaf<?>) storageTreeComponent;
+			Integer channelId = channelMapping.get(leaf.getId());
+			if (null != channelId) {
+				leaf.setId(channelId.intValue());
+				return 1;
+			}
+		} else if (storageTreeComponent instanceof LeafWithNoDescriptors) {
+			LeafWithNoDescriptors<?> leaf = (LeafWithNoDescriptors<?>) storageTreeComponent;
+			Integer channelId = channelMapping.get(leaf.getId());
+			if (null != channelId) {
+				leaf.setId(channelId.intValue());
+				return 1;
+			}
+		}
+		return 0;
+	}
+
+}
@@ -1,6 +1,7 @@
 package rocks.inspectit.shared.cs.indexing.storage.impl;
 
 import org.springframework.beans.factory.FactoryBean;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import rocks.inspectit.shared.all.communication.DefaultData;
@@ -9,6 +10,7 @@ import rocks.inspectit.shared.cs.indexing.indexer.impl.MethodIdentIndexer;
 import rocks.inspectit.shared.cs.indexing.indexer.impl.ObjectTypeIndexer;
 import rocks.inspectit.shared.cs.indexing.indexer.impl.PlatformIdentIndexer;
 import rocks.inspectit.shared.cs.indexing.indexer.impl.SqlStringIndexer;
+import rocks.inspectit.shared.cs.indexing.indexer.impl.TimeSegmentIndexer;
 import rocks.inspectit.shared.cs.indexing.indexer.impl.TimestampIndexer;
 import rocks.inspectit.shared.cs.indexing.storage.IStorageTreeComponent;
 
@@ -21,6 +23,12 @@ import rocks.inspectit.shared.cs.indexing.storage.IStorageTreeComponent;
 @Component("storageRootBranchFactory")
 public class StorageRootBranchFactory implements FactoryBean<IStorageTreeComponent<DefaultData>> {
 
+	/**
+	 * If the storage channels should be partitioned in the time segments.
+	 */
+	@Value("${storage.timePartitionedChannels}")
+	boolean timePartitionedChannels;
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -34,6 +42,11 @@ public class StorageRootBranchFactory implements FactoryBean<IStorageTreeCompone
 		StorageBranchIndexer<DefaultData> objectTypeIndexer = new StorageBranchIndexer<>(new ObjectTypeIndexer<>(), methodIdentIndexer, false);
 		StorageBranchIndexer<DefaultData> invocationChildrenIndexer = new StorageBranchIndexer<>(new InvocationChildrenIndexer<>(), objectTypeIndexer, false);
 		StorageBranchIndexer<DefaultData> platformIndexer = new StorageBranchIndexer<>(new PlatformIdentIndexer<>(), invocationChildrenIndexer, false);
+		if (timePartitionedChannels) {
+			// time segment indexer as the first one, so that every segment has own channels
+			StorageBranchIndexer<DefaultData> timeSegmentIndexer = new StorageBranchIndexer<>(new TimeSegmentIndexer<>(), platformIndexer, false);
+			return new StorageBranch<>(timeSegmentIndexer);
+		}
 		return new StorageBranch<>(platformIndexer);
 	}
 
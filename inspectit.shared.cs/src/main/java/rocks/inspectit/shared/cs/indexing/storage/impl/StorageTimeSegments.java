@@ -0,0 +1,130 @@
+package rocks.inspectit.shared.cs.indexing.storage.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.cs.indexing.ITreeComponent;
+import rocks.inspectit.shared.cs.indexing.indexer.IBranchIndexer;
+import rocks.inspectit.shared.cs.indexing.indexer.impl.TimeSegmentIndexer;
+import rocks.inspectit.shared.cs.indexing.indexer.impl.TimeSegmentIndexer.TimeSegment;
+import rocks.inspectit.shared.cs.indexing.storage.IStorageBranchIndexer;
+import rocks.inspectit.shared.cs.indexing.storage.IStorageDescriptor;
+import rocks.inspectit.shared.cs.indexing.storage.IStorageTreeComponent;
+
+/**
+ * Utility methods for the storage indexing trees that are partitioned in time segments with the
+ * {@link TimeSegmentIndexer}.
+ *
+ * @author Ivan Senic
+ *
+ */
+public final class StorageTimeSegments {
+
+	/**
+	 * Private constructor.
+	 */
+	private StorageTimeSegments() {
+	}
+
+	/**
+	 * Returns the time segments of the given tree.
+	 *
+	 * @param storageTreeComponent
+	 *            Indexing tree.
+	 * @return Time segments or empty collection if tree is not partitioned in time segments.
+	 */
+	public static Collection<TimeSegment> getSegments(IStorageTreeComponent<?> storageTreeComponent) {
+		TimeSegmentIndexer<?> segmentIndexer = getSegmentIndexer(storageTreeComponent);
+		if (null == segmentIndexer) {
+			return Collections.emptyList();
+		}
+		return segmentIndexer.getSegments();
+	}
+
+	/**
+	 * Removes all segments which elements are older than the given time from the tree.
+	 *
+	 * @param storageTreeComponent
+	 *            Indexing tree.
+	 * @param time
+	 *            Segments with max time-stamp before this time are removed.
+	 * @return Ids of the channels of the removed segments. Empty set if tree is not partitioned in
+	 *         time segments or no segment is expired.
+	 */
+	public static Set<Integer> removeSegmentsBefore(IStorageTreeComponent<?> storageTreeComponent, long time) {
+		TimeSegmentIndexer<?> segmentIndexer = getSegmentIndexer(storageTreeComponent);
+		if (null == segmentIndexer) {
+			return Collections.emptySet();
+		}
+
+		List<TimeSegment> expired = new ArrayList<>();
+		for (TimeSegment segment : segmentIndexer.getSegments()) {
+			if (segment.getMaxTimestamp() < time) {
+				expired.add(segment);
+			}
+		}
+
+		Set<Integer> channelIds = new HashSet<>();
+		StorageBranch<?> branch = (StorageBranch<?>) storageTreeComponent;
+		for (TimeSegment segment : expired) {
+			ITreeComponent<IStorageDescriptor, ?> removed = branch.getComponentMap().remove(Long.valueOf(segment.getKey()));
+			if (removed instanceof IStorageTreeComponent) {
+				collectChannelIds((IStorageTreeComponent<?>) removed, channelIds);
+			}
+			segmentIndexer.removeSegment(segment.getKey());
+		}
+		return channelIds;
+	}
+
+	/**
+	 * Collects the ids of all channels the given tree is pointing to.
+	 *
+	 * @param storageTreeComponent
+	 *            Indexing tree.
+	 * @param channelIds
+	 *            Set to add the ids to.
+	 */
+	public static void collectChannelIds(IStorageTreeComponent<?> storageTreeComponent, Set<Integer> channelIds) {
+		if (storageTreeComponent instanceof StorageBranch) {
+			for (ITreeComponent<IStorageDescriptor, ?> child : ((StorageBranch<?>) storageTreeComponent).getComponentMap().values()) {
+				if (child instanceof IStorageTreeComponent) {
+					collectChannelIds((IStorageTreeComponent<?>) child, channelIds);
+				}
+			}
+		} else if (storageTreeComponent instanceof CombinedStorageBranch) {
+			for (IStorageTreeComponent<? extends DefaultData> branch : ((CombinedStorageBranch<?>) storageTreeComponent).getBranches()) {
+				collectChannelIds(branch, channelIds);
+			}
+		} else if (storageTreeComponent instanceof ArrayBasedStorageLeaf) {
+			channelIds.add(Integer.valueOf(((ArrayBasedStorageLeaf<?>) storageTreeComponent).getId()));
+		} else if (storageTreeComponent instanceof LeafWithNoDescriptors) {
+			channelIds.add(Integer.valueOf(((LeafWithNoDescriptors<?>) storageTreeComponent).getId()));
+		}
+	}
+
+	/**
+	 * Returns the {@link TimeSegmentIndexer} of the tree root if the tree is partitioned in time
+	 * segments.
+	 *
+	 * @param storageTreeComponent
+	 *            Indexing tree.
+	 * @return {@link TimeSegmentIndexer} or <code>null</code> if tree is not partitioned.
+	 */
+	private static TimeSegmentIndexer<?> getSegmentIndexer(IStorageTreeComponent<?> storageTreeComponent) {
+		if (storageTreeComponent instanceof StorageBranch) {
+			IStorageBranchIndexer<?> storageBranchIndexer = ((StorageBranch<?>) storageTreeComponent).getStorageBranchIndexer();
+			if (storageBranchIndexer instanceof StorageBranchIndexer) {
+				IBranchIndexer<?> delegateIndexer = ((StorageBranchIndexer<?>) storageBranchIndexer).getDelegateIndexer();
+				if (delegateIndexer instanceof TimeSegmentIndexer) {
+					return (TimeSegmentIndexer<?>) delegateIndexer;
+				}
+			}
+		}
+		return null;
+	}
+}
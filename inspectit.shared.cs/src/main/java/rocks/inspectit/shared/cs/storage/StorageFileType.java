@@ -50,7 +50,12 @@ public enum StorageFileType {
 	/**
 	 * Business context data file.
 	 */
-	BUSINESS_CONTEXT_FILE(".bctx", "business");
+	BUSINESS_CONTEXT_FILE(".bctx", "business"),
+
+	/**
+	 * Write journal file used for the recovery of not finalized storages.
+	 */
+	JOURNAL_FILE(".journal", "write");
 
 	/**
 	 * The LOOKUP map which is used to get an element of the enumeration when passing the full
@@ -1,16 +1,21 @@
 package rocks.inspectit.shared.cs.storage;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import javax.annotation.Resource;
@@ -29,6 +34,7 @@ import rocks.inspectit.shared.all.spring.logger.Log;
 import rocks.inspectit.shared.cs.indexing.impl.IndexingException;
 import rocks.inspectit.shared.cs.indexing.storage.IStorageDescriptor;
 import rocks.inspectit.shared.cs.indexing.storage.IStorageTreeComponent;
+import rocks.inspectit.shared.cs.indexing.storage.impl.StorageLeafChannelRemapper;
 import rocks.inspectit.shared.cs.storage.StorageWriter.WriteTask;
 import rocks.inspectit.shared.cs.storage.util.StorageIndexTreeProvider;
 
@@ -46,6 +52,11 @@ import rocks.inspectit.shared.cs.storage.util.StorageIndexTreeProvider;
  * write there is a put and remove from a {@link HashMap} as an overhead, but since the size of the
  * map is constant (data currently in write can not be greater than the number of threads writing
  * the data, there should not be any serious performance problems.
+ * <p>
+ * Every successful write is also recorded in the {@link StorageJournal}, so that the indexing trees
+ * that were not saved can be rebuilt if the CMR stops without finalizing the storage. Each indexing
+ * tree gets its own generation number and when the tree is saved the journal receives the
+ * checkpoint for the generation.
  *
  * @author Ivan Senic
  *
@@ -103,9 +114,25 @@ public class StorageIndexingTreeHandler {
 	ScheduledExecutorService executorService;
 
 	/**
-	 * Indexing tree of the Storage.
+	 * Indexing tree of the Storage with its generation.
+	 */
+	private AtomicReference<IndexingTreeGeneration> storageIndexingTreeReference;
+
+	/**
+	 * Generation counter for the indexing trees.
+	 */
+	private final AtomicInteger treeGenerationCounter = new AtomicInteger();
+
+	/**
+	 * Journal of the writes. Can be <code>null</code> if journal could not be opened.
 	 */
-	private AtomicReference<IStorageTreeComponent<DefaultData>> storageIndexingTreeReference;
+	private volatile StorageJournal journal;
+
+	/**
+	 * Indexing trees rebuilt during the recovery from the journal, mapped by the generation and
+	 * the channel id.
+	 */
+	private Map<Integer, Map<Integer, RecoveredIndexingTree>> recoveredTrees;
 
 	/**
 	 * Write tasks currently in process.
@@ -134,7 +161,15 @@ public class StorageIndexingTreeHandler {
 	 * asking for the position of the data to be written to.
 	 */
 	public void prepare() {
-		storageIndexingTreeReference = new AtomicReference<>(getNewStorageIndexingTree());
+		storageIndexingTreeReference = new AtomicReference<>(getNewIndexingTreeGeneration());
+		Path journalPath = getJournalPath();
+		if (null != journalPath) {
+			try {
+				journal = new StorageJournal(journalPath);
+			} catch (IOException e) {
+				log.warn("Write journal could not be opened. Storage will not be recoverable if the CMR stops before the storage is finalized.", e);
+			}
+		}
 		indexingTreeSavingFuture = executorService.scheduleWithFixedDelay(new IndexingTreeSavingTask(), TREE_CHECK_DELAY, TREE_CHECK_DELAY, TREE_CHECK_DELAY_TIME_UNIT);
 	}
 
@@ -161,7 +196,11 @@ public class StorageIndexingTreeHandler {
 		writeTasksInProcess.put(writeTask, treeDescriptorPair);
 
 		// get the descriptor from tree
-		IStorageTreeComponent<DefaultData> indexingTree = storageIndexingTreeReference.get();
+		IndexingTreeGeneration treeGeneration = storageIndexingTreeReference.get();
+		if (null == treeGeneration) {
+			throw new IndexingException("Indexing failed. Indexing tree is not available.");
+		}
+		IStorageTreeComponent<DefaultData> indexingTree = treeGeneration.getIndexingTree();
 		IStorageDescriptor storageDescriptor = indexingTree.put(data);
 		if (null == storageDescriptor) {
 			throw new IndexingException("Indexing failed. Storage descriptor was null.");
@@ -170,6 +209,8 @@ public class StorageIndexingTreeHandler {
 		// update the tree-descriptor pair
 		treeDescriptorPair.setIndexingTree(indexingTree);
 		treeDescriptorPair.setStorageDescriptor(storageDescriptor);
+		treeDescriptorPair.setGeneration(treeGeneration.getGeneration());
+		treeDescriptorPair.setElementId(data.getId());
 
 		return storageDescriptor.getChannelId();
 	}
@@ -197,6 +238,7 @@ public class StorageIndexingTreeHandler {
 			// update the descriptor with the information provided
 			if (null != storageDescriptor) {
 				storageDescriptor.setPositionAndSize(position, size);
+				journalWrite(treeDescriptorPair, storageDescriptor.getChannelId(), position, size);
 			}
 		}
 		// remove the entry in map after the data has been updated in indexing tree
@@ -231,7 +273,7 @@ public class StorageIndexingTreeHandler {
 	 * Cancels the {@link #indexingTreeSavingFuture}.
 	 */
 	public void cancelIndexingTreeSavingFuture() {
-		if (!indexingTreeSavingFuture.isDone() && !indexingTreeSavingFuture.isCancelled()) {
+		if ((null != indexingTreeSavingFuture) && !indexingTreeSavingFuture.isDone() && !indexingTreeSavingFuture.isCancelled()) {
 			indexingTreeSavingFuture.cancel(false);
 		}
 	}
@@ -243,16 +285,17 @@ public class StorageIndexingTreeHandler {
 	public void finish() {
 		cancelIndexingTreeSavingFuture();
 
-		IStorageTreeComponent<DefaultData> currentIndexingTree = null;
+		IndexingTreeGeneration currentTreeGeneration = null;
 		while (true) {
 			// try to set the indexing tree to null
-			currentIndexingTree = storageIndexingTreeReference.get();
-			if (storageIndexingTreeReference.compareAndSet(currentIndexingTree, null)) {
+			currentTreeGeneration = storageIndexingTreeReference.get();
+			if (storageIndexingTreeReference.compareAndSet(currentTreeGeneration, null)) {
 				break;
 			}
 		}
 
-		if (null != currentIndexingTree) {
+		boolean allSaved = true;
+		if (null != currentTreeGeneration) {
 			// wait until no more data is there
 			int sleepCount = 0;
 			while (!writeTasksInProcess.isEmpty()) {
@@ -270,10 +313,217 @@ public class StorageIndexingTreeHandler {
 					Thread.interrupted();
 				}
 			}
-			currentIndexingTree.preWriteFinalization();
-			boolean written = storageWriter.writeNonDefaultDataObject(currentIndexingTree, getRandomFileName() + StorageFileType.INDEX_FILE.getExtension());
-			if (!written) {
-				log.error("Indexing tree saving failed. Indexing tree might be lost.");
+			allSaved = saveIndexingTree(currentTreeGeneration.getIndexingTree(), currentTreeGeneration.getGeneration());
+		}
+
+		if (null != recoveredTrees) {
+			for (Map.Entry<Integer, Map<Integer, RecoveredIndexingTree>> entry : recoveredTrees.entrySet()) {
+				boolean generationSaved = true;
+				for (RecoveredIndexingTree recoveredTree : entry.getValue().values()) {
+					StorageLeafChannelRemapper.remap(recoveredTree.getIndexingTree(), recoveredTree.getChannelMapping());
+					generationSaved &= writeIndexingTree(recoveredTree.getIndexingTree());
+				}
+				// checkpoint only when all trees of the generation are saved
+				if (generationSaved) {
+					checkpoint(entry.getKey().intValue());
+				}
+				allSaved &= generationSaved;
+			}
+			recoveredTrees = null; // NOPMD
+		}
+
+		// all trees are saved, journal is not needed any more
+		if (allSaved) {
+			try {
+				if (null != journal) {
+					journal.delete();
+				} else if (null != getJournalPath()) {
+					Files.deleteIfExists(getJournalPath());
+				}
+			} catch (IOException e) {
+				log.warn("Write journal could not be deleted.", e);
+			}
+		} else if (null != journal) {
+			closeJournal();
+		}
+		journal = null; // NOPMD
+	}
+
+	/**
+	 * Signals to the {@link StorageIndexingTreeHandler} that the write was canceled. The journal
+	 * is closed but kept on disk.
+	 */
+	public void cancel() {
+		cancelIndexingTreeSavingFuture();
+		closeJournal();
+	}
+
+	/**
+	 * Prepares the handler for the recovery of the indexing trees from the journal. After
+	 * preparing all journal records should be passed to
+	 * {@link #recoverWrite(int, DefaultData, int, long, long)} and {@link #finish()} should be
+	 * called to save the rebuilt trees.
+	 */
+	public void prepareRecovery() {
+		storageIndexingTreeReference = new AtomicReference<>();
+		recoveredTrees = new TreeMap<>();
+	}
+
+	/**
+	 * Indexes the data that was written before the storage was finalized in the indexing tree for
+	 * the given generation and channel. Every channel gets its own rebuilt tree, as the rebuilt
+	 * tree can place the data written to different channels in the same leaf, while the leaf can
+	 * point only to one channel.
+	 *
+	 * @param generation
+	 *            Generation of the indexing tree data was originally indexed in.
+	 * @param data
+	 *            Written data read from the channel.
+	 * @param channelId
+	 *            Channel data was written to.
+	 * @param position
+	 *            Write position.
+	 * @param size
+	 *            Write size.
+	 * @throws IndexingException
+	 *             If indexing fails.
+	 */
+	public void recoverWrite(int generation, DefaultData data, int channelId, long position, long size) throws IndexingException {
+		Map<Integer, RecoveredIndexingTree> generationTrees = recoveredTrees.get(generation);
+		if (null == generationTrees) {
+			generationTrees = new HashMap<>();
+			recoveredTrees.put(generation, generationTrees);
+		}
+		RecoveredIndexingTree recoveredTree = generationTrees.get(channelId);
+		if (null == recoveredTree) {
+			recoveredTree = new RecoveredIndexingTree(getNewStorageIndexingTree());
+			generationTrees.put(channelId, recoveredTree);
+		}
+
+		IStorageDescriptor storageDescriptor = recoveredTree.getIndexingTree().put(data);
+		if (null == storageDescriptor) {
+			throw new IndexingException("Indexing failed. Storage descriptor was null.");
+		}
+		storageDescriptor.setPositionAndSize(position, size);
+
+		// new tree assigns new channel ids, remember what channel they represent
+		recoveredTree.getChannelMapping().put(Integer.valueOf(storageDescriptor.getChannelId()), Integer.valueOf(channelId));
+	}
+
+	/**
+	 * Returns the path of the journal file.
+	 *
+	 * @return Returns the path of the journal file or <code>null</code> if the writing folder of
+	 *         the storage writer is not known.
+	 */
+	public Path getJournalPath() {
+		Path writingFolderPath = storageWriter.getWritingFolderPath();
+		if (null == writingFolderPath) {
+			return null;
+		}
+		return writingFolderPath.resolve(StorageFileType.JOURNAL_FILE.getDefaultFileName() + StorageFileType.JOURNAL_FILE.getExtension());
+	}
+
+	/**
+	 * Saves the indexing tree and checkpoints its generation in the journal.
+	 *
+	 * @param indexingTree
+	 *            Tree to save.
+	 * @param generation
+	 *            Generation of the tree.
+	 * @return If tree was saved.
+	 */
+	private boolean saveIndexingTree(IStorageTreeComponent<DefaultData> indexingTree, int generation) {
+		if (!writeIndexingTree(indexingTree)) {
+			return false;
+		}
+
+		checkpoint(generation);
+		return true;
+	}
+
+	/**
+	 * Writes the indexing tree to the disk.
+	 *
+	 * @param indexingTree
+	 *            Tree to write.
+	 * @return If tree was written.
+	 */
+	private boolean writeIndexingTree(IStorageTreeComponent<DefaultData> indexingTree) {
+		indexingTree.preWriteFinalization();
+		boolean written = storageWriter.writeNonDefaultDataObject(indexingTree, getRandomFileName() + StorageFileType.INDEX_FILE.getExtension());
+		if (!written) {
+			log.error("Indexing tree saving failed. Indexing tree might be lost.");
+		}
+		return written;
+	}
+
+	/**
+	 * Checkpoints the generation in the journal, so that its records are skipped on the replay.
+	 *
+	 * @param generation
+	 *            Generation of the saved tree.
+	 */
+	private void checkpoint(int generation) {
+		StorageJournal currentJournal = journal;
+		if (null != currentJournal) {
+			try {
+				currentJournal.checkpoint(generation);
+			} catch (IOException e) {
+				log.warn("Checkpoint of the indexing tree generation " + generation + " could not be written to the journal.", e);
+			}
+		}
+	}
+
+	/**
+	 * Records the successful write in the journal.
+	 *
+	 * @param treeDescriptorPair
+	 *            Pair holding the element id and the tree generation.
+	 * @param channelId
+	 *            Channel data was written to.
+	 * @param position
+	 *            Write position.
+	 * @param size
+	 *            Write size.
+	 */
+	private void journalWrite(TreeDescriptorPair treeDescriptorPair, int channelId, long position, long size) {
+		StorageJournal currentJournal = journal;
+		if (null != currentJournal) {
+			try {
+				currentJournal.append(treeDescriptorPair.getElementId(), treeDescriptorPair.getGeneration(), channelId, position, size);
+			} catch (IOException e) {
+				log.warn("Write could not be recorded in the journal. Journal will not be used any more.", e);
+				closeJournal();
+			}
+		}
+	}
+
+	/**
+	 * Flushes the journal so that the records are not lost if CMR stops.
+	 */
+	private void flushJournal() {
+		StorageJournal currentJournal = journal;
+		if (null != currentJournal) {
+			try {
+				currentJournal.flush();
+			} catch (IOException e) {
+				log.warn("Write journal could not be flushed.", e);
+			}
+		}
+	}
+
+	/**
+	 * Closes the journal keeping the file on disk.
+	 */
+	private void closeJournal() {
+		StorageJournal currentJournal = journal;
+		journal = null; // NOPMD
+		if (null != currentJournal) {
+			try {
+				currentJournal.close();
+			} catch (IOException e) {
+				log.warn("Write journal could not be closed.", e);
 			}
 		}
 	}
@@ -315,15 +565,17 @@ public class StorageIndexingTreeHandler {
 			// the complete run block has to be guarded against exceptions, because the executor
 			// service will throw away any rescheduling of the task if exception is thrown
 			try {
+				// records written since the last check are flushed with every run
+				flushJournal();
 				while (true) {
-					final IStorageTreeComponent<DefaultData> currentIndexingTree = storageIndexingTreeReference.get();
-					if (null != currentIndexingTree) {
-						long treeSize = currentIndexingTree.getComponentSize(objectSizes);
+					final IndexingTreeGeneration currentTreeGeneration = storageIndexingTreeReference.get();
+					if (null != currentTreeGeneration) {
+						long treeSize = currentTreeGeneration.getIndexingTree().getComponentSize(objectSizes);
 						// check if the tree has grown enough for saving
 						if (treeSize > maximumIndexingTreeSize) {
-							IStorageTreeComponent<DefaultData> newIndexingTree = getNewStorageIndexingTree();
+							IndexingTreeGeneration newTreeGeneration = getNewIndexingTreeGeneration();
 							// put new fresh tree to the Atomic reference
-							if (storageIndexingTreeReference.compareAndSet(currentIndexingTree, newIndexingTree)) {
+							if (storageIndexingTreeReference.compareAndSet(currentTreeGeneration, newTreeGeneration)) {
 								// collect the information about tasks currently in write
 								final Collection<WriteTask> writeTasksToWait = new HashSet<>(writeTasksInProcess.keySet());
 								// here we are safe to know that when all of the tasks in the
@@ -334,11 +586,7 @@ public class StorageIndexingTreeHandler {
 									public void run() {
 										boolean safeToSave = Collections.disjoint(writeTasksToWait, writeTasksInProcess.keySet());
 										if (safeToSave) {
-											currentIndexingTree.preWriteFinalization();
-											boolean written = storageWriter.writeNonDefaultDataObject(currentIndexingTree, getRandomFileName() + StorageFileType.INDEX_FILE.getExtension());
-											if (!written) {
-												log.error("Indexing tree saving failed. Indexing tree might be lost.");
-											}
+											saveIndexingTree(currentTreeGeneration.getIndexingTree(), currentTreeGeneration.getGeneration());
 										} else {
 											executorService.schedule(this, WAITING_FOR_TREE_TO_BE_READY, TimeUnit.MILLISECONDS);
 										}
@@ -368,6 +616,14 @@ public class StorageIndexingTreeHandler {
 		return storageIndexTreeProvider.getStorageIndexingTree();
 	}
 
+	/**
+	 *
+	 * @return Returns new empty storage indexing tree with the next generation number.
+	 */
+	private IndexingTreeGeneration getNewIndexingTreeGeneration() {
+		return new IndexingTreeGeneration(getNewStorageIndexingTree(), treeGenerationCounter.incrementAndGet());
+	}
+
 	/**
 	 * Registers the {@link StorageWriter} to work with.
 	 *
@@ -397,6 +653,16 @@ public class StorageIndexingTreeHandler {
 		 */
 		private IStorageTreeComponent<DefaultData> indexingTree;
 
+		/**
+		 * Generation of the indexing tree.
+		 */
+		private int generation;
+
+		/**
+		 * Id of the element being written.
+		 */
+		private long elementId;
+
 		/**
 		 * @return the storageDescriptor
 		 */
@@ -427,6 +693,128 @@ public class StorageIndexingTreeHandler {
 			this.indexingTree = indexingTree;
 		}
 
+		/**
+		 * @return the generation
+		 */
+		public int getGeneration() {
+			return generation;
+		}
+
+		/**
+		 * @param generation
+		 *            the generation to set
+		 */
+		public void setGeneration(int generation) {
+			this.generation = generation;
+		}
+
+		/**
+		 * @return the elementId
+		 */
+		public long getElementId() {
+			return elementId;
+		}
+
+		/**
+		 * @param elementId
+		 *            the elementId to set
+		 */
+		public void setElementId(long elementId) {
+			this.elementId = elementId;
+		}
+
+	}
+
+	/**
+	 * Immutable pair of the indexing tree and its generation.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	private static final class IndexingTreeGeneration {
+
+		/**
+		 * {@link IStorageTreeComponent}.
+		 */
+		private final IStorageTreeComponent<DefaultData> indexingTree;
+
+		/**
+		 * Generation of the tree.
+		 */
+		private final int generation;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param indexingTree
+		 *            {@link IStorageTreeComponent}.
+		 * @param generation
+		 *            Generation of the tree.
+		 */
+		IndexingTreeGeneration(IStorageTreeComponent<DefaultData> indexingTree, int generation) {
+			this.indexingTree = indexingTree;
+			this.generation = generation;
+		}
+
+		/**
+		 * @return the indexingTree
+		 */
+		public IStorageTreeComponent<DefaultData> getIndexingTree() {
+			return indexingTree;
+		}
+
+		/**
+		 * @return the generation
+		 */
+		public int getGeneration() {
+			return generation;
+		}
+
+	}
+
+	/**
+	 * Indexing tree rebuilt from the journal with the mapping of its leaf ids to the channels the
+	 * data was originally written to.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	private static final class RecoveredIndexingTree {
+
+		/**
+		 * {@link IStorageTreeComponent}.
+		 */
+		private final IStorageTreeComponent<DefaultData> indexingTree;
+
+		/**
+		 * Leaf id to channel id mapping.
+		 */
+		private final Map<Integer, Integer> channelMapping = new HashMap<>();
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param indexingTree
+		 *            {@link IStorageTreeComponent}.
+		 */
+		RecoveredIndexingTree(IStorageTreeComponent<DefaultData> indexingTree) {
+			this.indexingTree = indexingTree;
+		}
+
+		/**
+		 * @return the indexingTree
+		 */
+		public IStorageTreeComponent<DefaultData> getIndexingTree() {
+			return indexingTree;
+		}
+
+		/**
+		 * @return the channelMapping
+		 */
+		public Map<Integer, Integer> getChannelMapping() {
+			return channelMapping;
+		}
+
 	}
 
 }
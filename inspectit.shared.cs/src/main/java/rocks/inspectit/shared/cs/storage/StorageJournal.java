@@ -0,0 +1,311 @@
+package rocks.inspectit.shared.cs.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Sequential write-ahead journal of the storage writes.
+ * <p>
+ * For every successful write of a data element the {@link StorageIndexingTreeHandler} appends a
+ * compact write record (element id, indexing tree generation, channel id, position, size) to the
+ * journal. When an indexing tree is saved to disk, a checkpoint record for the tree generation is
+ * appended, so that the records of that generation are not needed any more. Every record starts
+ * with its type, thus any element id can be journaled. If the CMR stops without
+ * finalizing the storage, the indexing trees that were not saved can be rebuilt by replaying the
+ * journal with {@link #replay(Path, RecordHandler)}.
+ * <p>
+ * Records are collected in a buffer that is written to the file when full, on {@link #flush()}
+ * and on every checkpoint. All methods that change the journal are thread-safe.
+ *
+ * @author Ivan Senic
+ *
+ */
+public class StorageJournal {
+
+	/**
+	 * Size of one record in bytes (byte type, long id, int generation, int channel, long position,
+	 * int size).
+	 */
+	static final int RECORD_SIZE = 29;
+
+	/**
+	 * Amount of records buffered before the buffer is written to the file.
+	 */
+	private static final int BUFFERED_RECORDS = 1024;
+
+	/**
+	 * Type of the record of a successful write.
+	 */
+	private static final byte WRITE_RECORD = 0;
+
+	/**
+	 * Type of the checkpoint record.
+	 */
+	private static final byte CHECKPOINT_RECORD = 1;
+
+	/**
+	 * Path to the journal file.
+	 */
+	private final Path path;
+
+	/**
+	 * Channel to the journal file.
+	 */
+	private final FileChannel fileChannel;
+
+	/**
+	 * Buffer holding the not yet written records.
+	 */
+	private final ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * BUFFERED_RECORDS);
+
+	/**
+	 * Opens the journal on the given path. If the file exists, records are appended to it.
+	 *
+	 * @param path
+	 *            Path to the journal file.
+	 * @throws IOException
+	 *             If file can not be opened.
+	 */
+	public StorageJournal(Path path) throws IOException {
+		this.path = path;
+		this.fileChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+	}
+
+	/**
+	 * Appends the record of a successful write.
+	 *
+	 * @param elementId
+	 *            Id of the written element.
+	 * @param generation
+	 *            Generation of the indexing tree element was indexed in.
+	 * @param channelId
+	 *            Channel the element was written to.
+	 * @param position
+	 *            Write position.
+	 * @param size
+	 *            Write size.
+	 * @throws IOException
+	 *             If writing of the full buffer fails.
+	 */
+	public synchronized void append(long elementId, int generation, int channelId, long position, long size) throws IOException {
+		appendRecord(WRITE_RECORD, elementId, generation, channelId, position, size);
+	}
+
+	/**
+	 * Appends the checkpoint record that marks the indexing tree of the given generation as saved
+	 * and forces the journal to the disk.
+	 *
+	 * @param generation
+	 *            Generation of the saved indexing tree.
+	 * @throws IOException
+	 *             If {@link IOException} occurs.
+	 */
+	public synchronized void checkpoint(int generation) throws IOException {
+		appendRecord(CHECKPOINT_RECORD, 0, generation, 0, 0, 0);
+		flush();
+	}
+
+	/**
+	 * Appends one record to the buffer and writes the buffer to the file if it's full.
+	 *
+	 * @param type
+	 *            Type of the record.
+	 * @param elementId
+	 *            Id of the written element.
+	 * @param generation
+	 *            Generation of the indexing tree.
+	 * @param channelId
+	 *            Channel the element was written to.
+	 * @param position
+	 *            Write position.
+	 * @param size
+	 *            Write size.
+	 * @throws IOException
+	 *             If writing of the full buffer fails.
+	 */
+	private void appendRecord(byte type, long elementId, int generation, int channelId, long position, long size) throws IOException {
+		buffer.put(type);
+		buffer.putLong(elementId);
+		buffer.putInt(generation);
+		buffer.putInt(channelId);
+		buffer.putLong(position);
+		buffer.putInt((int) size);
+		if (!buffer.hasRemaining()) {
+			writeBuffer();
+		}
+	}
+
+	/**
+	 * Writes all buffered records to the file and forces them to the disk.
+	 *
+	 * @throws IOException
+	 *             If {@link IOException} occurs.
+	 */
+	public synchronized void flush() throws IOException {
+		writeBuffer();
+		fileChannel.force(false);
+	}
+
+	/**
+	 * Flushes and closes the journal.
+	 *
+	 * @throws IOException
+	 *             If {@link IOException} occurs.
+	 */
+	public synchronized void close() throws IOException {
+		if (fileChannel.isOpen()) {
+			try {
+				flush();
+			} finally {
+				fileChannel.close();
+			}
+		}
+	}
+
+	/**
+	 * Closes the journal and deletes the journal file.
+	 *
+	 * @throws IOException
+	 *             If {@link IOException} occurs.
+	 */
+	public synchronized void delete() throws IOException {
+		buffer.clear();
+		fileChannel.close();
+		Files.deleteIfExists(path);
+	}
+
+	/**
+	 * Writes the buffer content to the file channel.
+	 *
+	 * @throws IOException
+	 *             If {@link IOException} occurs.
+	 */
+	private void writeBuffer() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			fileChannel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Gets {@link #path}.
+	 *
+	 * @return {@link #path}
+	 */
+	public Path getPath() {
+		return path;
+	}
+
+	/**
+	 * Replays the journal on the given path by passing every record that belongs to a not saved
+	 * indexing tree generation to the handler. Incomplete record at the end of the file (result of
+	 * the crash during the write) is ignored.
+	 *
+	 * @param path
+	 *            Path to the journal file.
+	 * @param handler
+	 *            Handler to pass records to.
+	 * @return Number of records passed to the handler.
+	 * @throws IOException
+	 *             If {@link IOException} occurs during reading or in the handler.
+	 */
+	public static long replay(Path path, RecordHandler handler) throws IOException {
+		ByteBuffer readBuffer = ByteBuffer.allocate(RECORD_SIZE * BUFFERED_RECORDS);
+
+		// first pass collects the saved generations
+		final Set<Integer> savedGenerations = new HashSet<>();
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			while (readRecords(channel, readBuffer)) {
+				while (readBuffer.remaining() >= RECORD_SIZE) {
+					byte type = readBuffer.get();
+					readBuffer.getLong();
+					int generation = readBuffer.getInt();
+					readBuffer.position(readBuffer.position() + RECORD_SIZE - 13);
+					if (CHECKPOINT_RECORD == type) {
+						savedGenerations.add(generation);
+					}
+				}
+				readBuffer.compact();
+			}
+		}
+
+		// second pass replays the records of not saved generations
+		long count = 0;
+		readBuffer.clear();
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			while (readRecords(channel, readBuffer)) {
+				while (readBuffer.remaining() >= RECORD_SIZE) {
+					byte type = readBuffer.get();
+					long elementId = readBuffer.getLong();
+					int generation = readBuffer.getInt();
+					int channelId = readBuffer.getInt();
+					long position = readBuffer.getLong();
+					int size = readBuffer.getInt();
+					if ((WRITE_RECORD == type) && !savedGenerations.contains(generation)) {
+						handler.handle(elementId, generation, channelId, position, size);
+						count++;
+					}
+				}
+				readBuffer.compact();
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Fills the buffer from the channel and flips it for reading.
+	 *
+	 * @param channel
+	 *            Channel to read from.
+	 * @param readBuffer
+	 *            Buffer in the write mode.
+	 * @return <code>false</code> if end of the channel was reached and no complete record is
+	 *         available.
+	 * @throws IOException
+	 *             If {@link IOException} occurs.
+	 */
+	private static boolean readRecords(FileChannel channel, ByteBuffer readBuffer) throws IOException {
+		while (readBuffer.hasRemaining()) {
+			if (channel.read(readBuffer) < 0) {
+				break;
+			}
+		}
+		readBuffer.flip();
+		return readBuffer.remaining() >= RECORD_SIZE;
+	}
+
+	/**
+	 * Handler of the journal records during the replay.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	public interface RecordHandler {
+
+		/**
+		 * Handles one write record.
+		 *
+		 * @param elementId
+		 *            Id of the written element.
+		 * @param generation
+		 *            Generation of the indexing tree element was indexed in.
+		 * @param channelId
+		 *            Channel the element was written to.
+		 * @param position
+		 *            Write position.
+		 * @param size
+		 *            Write size.
+		 * @throws IOException
+		 *             If {@link IOException} occurs during handling.
+		 */
+		void handle(long elementId, int generation, int channelId, long position, int size) throws IOException;
+	}
+
+}
@@ -1,5 +1,7 @@
 package rocks.inspectit.shared.cs.storage;
 
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -14,9 +16,13 @@ import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Collection;
 import java.util.Enumeration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
 import org.apache.commons.lang.ArrayUtils;
@@ -28,6 +34,7 @@ import org.springframework.scheduling.annotation.Scheduled;
 
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.exception.BusinessException;
@@ -41,6 +48,7 @@ import rocks.inspectit.shared.cs.indexing.aggregation.IAggregator;
 import rocks.inspectit.shared.cs.indexing.storage.IStorageDescriptor;
 import rocks.inspectit.shared.cs.indexing.storage.impl.StorageDescriptor;
 import rocks.inspectit.shared.cs.storage.util.DeleteFileVisitor;
+import rocks.inspectit.shared.cs.storage.util.ParallelGzipCompressor;
 import rocks.inspectit.shared.cs.storage.util.StorageDeleteFileVisitor;
 
 /**
@@ -107,6 +115,19 @@ public abstract class StorageManager {
 	@Value("${storage.stopWriteHardDriveBytesLeft}")
 	private long stopWriteBytesLeft = 104857600;
 
+	/**
+	 * Amount of threads used for the parallel compression of the storage files when the storage is
+	 * zipped.
+	 */
+	@Value("${storage.compressionThreads}")
+	private int compressionThreads = 2;
+
+	/**
+	 * Executor service for the parallel compression of the storage files. Created on the first
+	 * usage.
+	 */
+	private volatile ExecutorService compressionExecutorService;
+
 	/**
 	 * Amount of space left for write in bytes. This value is either {@link #maxHardDriveOccupancy}
 	 * or actual space left on the hard drive if no {@link #maxHardDriveOccupancy} is specified or
@@ -456,6 +477,31 @@ public abstract class StorageManager {
 	 *             If {@link IOException} occurs.
 	 */
 	protected void zipFiles(final Path directory, Path zipPath) throws IOException {
+		// delete zipPath if exists
+		Files.deleteIfExists(zipPath);
+
+		// try with resources
+		try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(zipPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE))) {
+			this.zipFiles(directory, zos);
+		}
+	}
+
+	/**
+	 * Zips all files in the given directory to the provided {@link ZipOutputStream}. The stream is
+	 * not closed or finished, so that the caller can add additional entries.
+	 * <p>
+	 * Content of each file is GZIP compressed in parallel blocks using the
+	 * {@link ParallelGzipCompressor} and stored to the zip entry without additional compression.
+	 * The unzip methods of this class detect the GZIP content and decompress it transparently.
+	 *
+	 * @param directory
+	 *            Directory where files to be zipped are placed.
+	 * @param zos
+	 *            Zip output stream to write entries to.
+	 * @throws IOException
+	 *             If {@link IOException} occurs.
+	 */
+	protected void zipFiles(final Path directory, final ZipOutputStream zos) throws IOException {
 		// check the given directory where the files are
 		if (Files.notExists(directory)) {
 			throw new IOException("Can not create zip file. The directory " + directory.toString() + " does not exist.");
@@ -464,24 +510,48 @@ public abstract class StorageManager {
 			throw new IOException("Can not create zip file. Given path " + directory.toString() + " is not the directory.");
 		}
 
-		// delete zipPath if exists
-		Files.deleteIfExists(zipPath);
-
-		// try with resources
-		try (final ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(zipPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE))) {
-			Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
-				@Override
-				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-					String fileName = directory.relativize(file).toString();
-					ZipEntry zipEntry = new ZipEntry(fileName);
-					zos.putNextEntry(zipEntry);
-					Files.copy(file, zos);
-					zos.closeEntry();
-					return FileVisitResult.CONTINUE;
+		// data is already compressed, so no need for the zip to compress again
+		zos.setLevel(Deflater.NO_COMPRESSION);
+		final ParallelGzipCompressor compressor = new ParallelGzipCompressor(getCompressionExecutorService(), ParallelGzipCompressor.DEFAULT_BLOCK_SIZE, 2 * getCompressionThreads(),
+				Deflater.DEFAULT_COMPRESSION);
+
+		Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+				String fileName = directory.relativize(file).toString();
+				ZipEntry zipEntry = new ZipEntry(fileName);
+				zos.putNextEntry(zipEntry);
+				try (InputStream is = Files.newInputStream(file, StandardOpenOption.READ)) {
+					compressor.compress(is, zos);
 				}
-			});
+				zos.closeEntry();
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
 
+	/**
+	 * Returns the executor service for the parallel compression. Creates one if it does not exist.
+	 *
+	 * @return Returns the executor service for the parallel compression.
+	 */
+	private ExecutorService getCompressionExecutorService() {
+		if (null == compressionExecutorService) {
+			synchronized (this) {
+				if (null == compressionExecutorService) {
+					compressionExecutorService = Executors.newFixedThreadPool(getCompressionThreads(),
+							new ThreadFactoryBuilder().setNameFormat("storage-compression-thread-%d").setDaemon(true).build());
+				}
+			}
 		}
+		return compressionExecutorService;
+	}
+
+	/**
+	 * @return Returns the amount of threads to use for compression, at least one.
+	 */
+	private int getCompressionThreads() {
+		return Math.max(1, compressionThreads);
 	}
 
 	/**
@@ -589,6 +659,59 @@ public abstract class StorageManager {
 		}
 	}
 
+	/**
+	 * Unzips the content of the zip data provided by the input stream to the given destination
+	 * path. The zip is processed entry by entry as it's read, thus no temporary zip file is
+	 * needed. The input stream will not be closed.
+	 *
+	 * @param inputStream
+	 *            Stream providing the zip data.
+	 * @param destinationPath
+	 *            The path where it should be unpacked.
+	 * @throws IOException
+	 *             If {@link IOException} occurs or zip contains an entry pointing outside of the
+	 *             destination path.
+	 */
+	protected void unzipStorageData(InputStream inputStream, final Path destinationPath) throws IOException {
+		Files.createDirectories(destinationPath);
+		Path normalizedDestination = destinationPath.toAbsolutePath().normalize();
+
+		ZipInputStream zis = new ZipInputStream(inputStream);
+		ZipEntry zipEntry = zis.getNextEntry();
+		while (null != zipEntry) {
+			Path path = normalizedDestination.resolve(zipEntry.getName()).normalize();
+			if (!path.startsWith(normalizedDestination)) {
+				throw new IOException("Zip entry " + zipEntry.getName() + " is pointing outside of the destination path " + destinationPath + ".");
+			}
+
+			if (zipEntry.isDirectory()) {
+				Files.createDirectories(path);
+			} else {
+				Path parent = path.getParent();
+				if ((null != parent) && Files.notExists(parent)) {
+					Files.createDirectories(parent);
+				}
+
+				// shield the zip stream from closing, check for GZIP with mark and reset
+				try (InputStream is = new BufferedInputStream(new NonClosingInputStream(zis))) {
+					is.mark(2);
+					int head = is.read() | (is.read() << 8);
+					is.reset();
+					if (GZIPInputStream.GZIP_MAGIC == head) {
+						try (GZIPInputStream gis = new GZIPInputStream(is)) {
+							Files.copy(gis, path, StandardCopyOption.REPLACE_EXISTING);
+						}
+					} else {
+						Files.copy(is, path, StandardCopyOption.REPLACE_EXISTING);
+					}
+				}
+			}
+
+			zis.closeEntry();
+			zipEntry = zis.getNextEntry();
+		}
+	}
+
 	/**
 	 * Returns true if the data stored in the input stream is in a GZIP format. The input stream
 	 * will be closed at the end.
@@ -763,4 +886,32 @@ public abstract class StorageManager {
 		}
 	}
 
+	/**
+	 * Input stream that ignores the {@link #close()} call, used to read a single zip entry without
+	 * closing the complete zip stream.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	private static class NonClosingInputStream extends FilterInputStream {
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param in
+		 *            Stream to delegate to.
+		 */
+		NonClosingInputStream(InputStream in) {
+			super(in);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void close() throws IOException {
+			// ignore
+		}
+	}
+
 }
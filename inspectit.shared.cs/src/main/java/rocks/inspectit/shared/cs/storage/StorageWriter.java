@@ -3,6 +3,8 @@ package rocks.inspectit.shared.cs.storage;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -10,6 +12,7 @@ import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -24,6 +27,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
@@ -32,6 +36,7 @@ import org.apache.commons.lang.builder.ToStringBuilder;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 
 import rocks.inspectit.shared.all.communication.DefaultData;
@@ -69,6 +74,11 @@ public class StorageWriter implements IWriter {
 	 */
 	private static final int FINALIZATION_TASKS_SLEEP_TIME = 500;
 
+	/**
+	 * Weight of the new sample in the {@link #averageWriteLatency} as the power of two (1/8).
+	 */
+	private static final int WRITE_LATENCY_WEIGHT_SHIFT = 3;
+
 	/**
 	 * Total amount of tasks submitted to {@link #writingExecutorService}.
 	 */
@@ -169,6 +179,12 @@ public class StorageWriter implements IWriter {
 	 */
 	private ScheduledFuture<?> checkWritingStatusFuture;
 
+	/**
+	 * Exponentially weighted moving average of the write latency in nanoseconds, measured from the
+	 * write submission to the completion reported by the writing completion handler.
+	 */
+	private final AtomicLong averageWriteLatency = new AtomicLong();
+
 	/**
 	 * The set of the currently active writing tasks represented by {@link FutureTask}. When this
 	 * set is empty, it means that no writing tasks is currently being executed.
@@ -338,6 +354,79 @@ public class StorageWriter implements IWriter {
 		return false;
 	}
 
+	/**
+	 * Recovers the storage that was not finalized by replaying the write journal of the storage.
+	 * <p>
+	 * Every data element recorded in the journal is read back from its channel and indexed in the
+	 * new indexing tree. At the end the storage is finalized in the same way as with
+	 * {@link #closeStorageWriter()}, thus the rebuilt indexing trees are saved. The writer can not be
+	 * used for writing after the recovery.
+	 *
+	 * @param storageData
+	 *            Storage to recover.
+	 * @return <code>true</code> if journal existed and storage was recovered, <code>false</code>
+	 *         otherwise.
+	 * @throws IOException
+	 *             If {@link IOException} occurs reading the journal or the channels.
+	 */
+	public synchronized boolean recoverFromJournal(StorageData storageData) throws IOException {
+		if (writingOn || finalized) {
+			return false;
+		}
+
+		this.storageData = storageData;
+		writingFolderPath = storageManager.getStoragePath(storageData);
+		Path journalPath = indexingTreeHandler.getJournalPath();
+		if (Files.notExists(journalPath)) {
+			return false;
+		}
+
+		ISerializer serializer = null;
+		try {
+			serializer = serializerQueue.take();
+		} catch (InterruptedException e) {
+			Thread.interrupted();
+		}
+		if (null == serializer) {
+			log.error("Serializer instance could not be obtained.");
+			return false;
+		}
+
+		for (AbstractWriteDataProcessor processor : writeDataProcessors) {
+			try {
+				processor.onPrepare(storageManager, this, storageData);
+			} catch (Exception e) {
+				log.error("Exception occurred trying to process onPrepare of the finalization data processor " + processor.getClass().getName(), e);
+			}
+		}
+
+		indexingTreeHandler.prepareRecovery();
+		Map<Integer, FileChannel> channels = new HashMap<>();
+		try {
+			long recovered = StorageJournal.replay(journalPath, new RecoveryRecordHandler(serializer, channels));
+			log.info("Recovered " + recovered + " data element(s) from the write journal of the storage " + storageData + ".");
+		} finally {
+			serializerQueue.add(serializer);
+			for (FileChannel channel : channels.values()) {
+				channel.close();
+			}
+			shutdownWritingExecutorService();
+		}
+
+		finalizeWrite();
+		return true;
+	}
+
+	/**
+	 * Called for every data element recovered from the journal. Sub-classes can override to
+	 * perform same operations as on the write. Default implementation does nothing.
+	 *
+	 * @param defaultData
+	 *            Recovered data.
+	 */
+	protected void onRecoveredData(DefaultData defaultData) {
+	}
+
 	/**
 	 * Cancels the usage of this {@link StorageWriter}.
 	 * <p>
@@ -411,6 +500,8 @@ public class StorageWriter implements IWriter {
 
 			if (doFinalize) {
 				finalizeWrite();
+			} else {
+				indexingTreeHandler.cancel();
 			}
 
 			try {
@@ -487,6 +578,32 @@ public class StorageWriter implements IWriter {
 		return activeWritingTasks.size();
 	}
 
+	/**
+	 * Returns the average latency of the writes in milliseconds. The average is exponentially
+	 * weighted so that it follows the current state of the disk.
+	 *
+	 * @return Returns the average latency of the writes in milliseconds.
+	 */
+	public long getAverageWriteLatencyMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(averageWriteLatency.get());
+	}
+
+	/**
+	 * Updates the {@link #averageWriteLatency} with the new sample.
+	 *
+	 * @param latencyNanos
+	 *            Latency of the completed write in nanoseconds.
+	 */
+	private void updateWriteLatency(long latencyNanos) {
+		while (true) {
+			long current = averageWriteLatency.get();
+			long updated = (0 == current) ? latencyNanos : current + ((latencyNanos - current) >> WRITE_LATENCY_WEIGHT_SHIFT);
+			if (averageWriteLatency.compareAndSet(current, updated)) {
+				return;
+			}
+		}
+	}
+
 	/**
 	 * Writes any object to the file with given file name. Note that this will be a synchronus
 	 * write.
@@ -666,6 +783,7 @@ public class StorageWriter implements IWriter {
 					public void run() {
 						finalOutputStream.close();
 						if (isCompleted()) {
+							updateWriteLatency(getElapsedNanos());
 							indexingTreeHandler.writeSuccessful(WriteTask.this, getAttemptedWriteReadPosition(), getAttemptedWriteReadSize());
 						} else {
 							indexingTreeHandler.writeFailed(WriteTask.this);
@@ -706,6 +824,78 @@ public class StorageWriter implements IWriter {
 
 	}
 
+	/**
+	 * Journal record handler that reads the data back from the channels and passes it to the
+	 * indexing tree handler.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	private class RecoveryRecordHandler implements StorageJournal.RecordHandler {
+
+		/**
+		 * Serializer to deserialize data with.
+		 */
+		private final ISerializer serializer;
+
+		/**
+		 * Opened channels by channel id.
+		 */
+		private final Map<Integer, FileChannel> channels;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param serializer
+		 *            Serializer to deserialize data with.
+		 * @param channels
+		 *            Map to keep opened channels in. Caller is responsible for closing them.
+		 */
+		RecoveryRecordHandler(ISerializer serializer, Map<Integer, FileChannel> channels) {
+			this.serializer = serializer;
+			this.channels = channels;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void handle(long elementId, int generation, int channelId, long position, int size) throws IOException {
+			FileChannel channel = channels.get(channelId);
+			if (null == channel) {
+				Path channelPath = storageManager.getChannelPath(storageData, channelId);
+				if (Files.notExists(channelPath)) {
+					log.warn("Channel " + channelPath + " referenced in the write journal does not exist. Data with id " + elementId + " can not be recovered.");
+					return;
+				}
+				channel = FileChannel.open(channelPath, StandardOpenOption.READ);
+				channels.put(channelId, channel);
+			}
+
+			ByteBuffer buffer = ByteBuffer.allocate(size);
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer, position + buffer.position()) < 0) {
+					log.warn("Data with id " + elementId + " is not completely written to the channel " + channelId + " and can not be recovered.");
+					return;
+				}
+			}
+
+			try {
+				Object deserialized = serializer.deserialize(new Input(buffer.array()));
+				if (deserialized instanceof DefaultData) {
+					DefaultData defaultData = (DefaultData) deserialized;
+					indexingTreeHandler.recoverWrite(generation, defaultData, channelId, position, size);
+					for (AbstractWriteDataProcessor processor : writeDataProcessors) {
+						processor.process(defaultData, Collections.emptyMap());
+					}
+					onRecoveredData(defaultData);
+				}
+			} catch (SerializationException | IndexingException e) {
+				log.warn("Data with id " + elementId + " from the channel " + channelId + " can not be recovered.", e);
+			}
+		}
+	}
+
 	/**
 	 * Writing future task that will remove itself from the {@link StorageWriter#activeWritingTasks}
 	 * set after the completion of runnable it has been assigned.
@@ -0,0 +1,73 @@
+package rocks.inspectit.shared.cs.storage.label.type.impl;
+
+import javax.persistence.DiscriminatorValue;
+import javax.persistence.Entity;
+
+import rocks.inspectit.shared.cs.storage.label.type.AbstractStorageLabelType;
+
+/**
+ * Label type that documents the fidelity changes of the recording. Each time the recording reduces
+ * or restores the amount of the recorded data because of the writing pressure, a label of this type
+ * describing the decision is added to the storage.
+ *
+ * @author Ivan Senic
+ *
+ */
+@Entity
+@DiscriminatorValue("RFLT")
+public class RecordingFidelityLabelType extends AbstractStorageLabelType<String> {
+
+	/**
+	 * Generated UID.
+	 */
+	private static final long serialVersionUID = 3391870413620541745L;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isGroupingEnabled() {
+		return false;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isOnePerStorage() {
+		return false;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isValueReusable() {
+		return false;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isMultiType() {
+		return false;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isEditable() {
+		return false;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Class<String> getValueClass() {
+		return String.class;
+	}
+
+}
@@ -39,6 +39,11 @@ public abstract class WriteReadCompletionRunnable implements Runnable {
 	 */
 	private AtomicInteger failedMarks = new AtomicInteger(0);
 
+	/**
+	 * Time in nanoseconds when the runnable was created, thus when the IO operation was issued.
+	 */
+	private final long creationNanos = System.nanoTime();
+
 	/**
 	 * Default constructor. Sets {@link #completeMarks} to 1.
 	 */
@@ -107,6 +112,16 @@ public abstract class WriteReadCompletionRunnable implements Runnable {
 		return failedMarks.get() > 0;
 	}
 
+	/**
+	 * Returns the nanoseconds elapsed since the IO operation was issued. When called in the
+	 * {@link #run()} this is the latency of the complete IO operation.
+	 *
+	 * @return Returns the nanoseconds elapsed since the IO operation was issued.
+	 */
+	public long getElapsedNanos() {
+		return System.nanoTime() - creationNanos;
+	}
+
 	/**
 	 * Gets {@link #attemptedWriteReadSize}.
 	 *
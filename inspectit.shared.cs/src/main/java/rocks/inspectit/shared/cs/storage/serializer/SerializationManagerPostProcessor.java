@@ -113,6 +113,7 @@ import rocks.inspectit.shared.cs.indexing.indexer.impl.ObjectTypeIndexer;
 import rocks.inspectit.shared.cs.indexing.indexer.impl.PlatformIdentIndexer;
 import rocks.inspectit.shared.cs.indexing.indexer.impl.SensorTypeIdentIndexer;
 import rocks.inspectit.shared.cs.indexing.indexer.impl.SqlStringIndexer;
+import rocks.inspectit.shared.cs.indexing.indexer.impl.TimeSegmentIndexer;
 import rocks.inspectit.shared.cs.indexing.indexer.impl.TimestampIndexer;
 import rocks.inspectit.shared.cs.indexing.storage.impl.ArrayBasedStorageLeaf;
 import rocks.inspectit.shared.cs.indexing.storage.impl.LeafWithNoDescriptors;
@@ -138,6 +139,7 @@ import rocks.inspectit.shared.cs.storage.label.type.impl.CustomStringLabelType;
 import rocks.inspectit.shared.cs.storage.label.type.impl.DataTimeFrameLabelType;
 import rocks.inspectit.shared.cs.storage.label.type.impl.ExploredByLabelType;
 import rocks.inspectit.shared.cs.storage.label.type.impl.RatingLabelType;
+import rocks.inspectit.shared.cs.storage.label.type.impl.RecordingFidelityLabelType;
 import rocks.inspectit.shared.cs.storage.label.type.impl.StatusLabelType;
 import rocks.inspectit.shared.cs.storage.label.type.impl.UseCaseLabelType;
 import rocks.inspectit.shared.cs.storage.processor.impl.AgentFilterDataProcessor;
@@ -389,6 +391,13 @@ public class SerializationManagerPostProcessor implements BeanPostProcessor {
 		kryo.register(EMailListValidator.class, new FieldSerializer<EMailListValidator>(kryo, EMailListValidator.class), nextRegistrationId++);
 		kryo.register(AlertClosingReason.class, new EnumSerializer(AlertClosingReason.class), nextRegistrationId++);
 
+		// adaptive recording
+		kryo.register(RecordingFidelityLabelType.class, new CustomCompatibleFieldSerializer<>(kryo, RecordingFidelityLabelType.class, schemaManager, true), nextRegistrationId++);
+
+		// time partitioned storage channels
+		kryo.register(TimeSegmentIndexer.class, new CustomCompatibleFieldSerializer<TimeSegmentIndexer<?>>(kryo, TimeSegmentIndexer.class, schemaManager), nextRegistrationId++);
+		kryo.register(TimeSegmentIndexer.TimeSegment.class, new CustomCompatibleFieldSerializer<>(kryo, TimeSegmentIndexer.TimeSegment.class, schemaManager), nextRegistrationId++);
+
 	}
 
 }
@@ -0,0 +1,279 @@
+package rocks.inspectit.shared.cs.storage.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Compressor that writes the content of an input stream in the GZIP format to the given output
+ * stream by compressing the blocks of the input in parallel.
+ * <p>
+ * The input is split into the blocks of {@link #blockSize} bytes and each block is deflated
+ * independently on the given executor. All blocks except the last one are finished with the
+ * {@link Deflater#SYNC_FLUSH}, thus the concatenated output forms one valid deflate stream that is
+ * wrapped with a GZIP header and trailer. The result can be read with any
+ * {@link java.util.zip.GZIPInputStream}. At most {@link #maxBlocksInFlight} blocks are read ahead
+ * so the memory needed for the compression is bounded and does not depend on the input size.
+ *
+ * @author Ivan Senic
+ *
+ */
+public class ParallelGzipCompressor {
+
+	/**
+	 * Default size of one block.
+	 */
+	public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+
+	/**
+	 * GZIP header with no file name, no modification time and unknown OS.
+	 */
+	private static final byte[] GZIP_HEADER = new byte[] { (byte) 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+
+	/**
+	 * Executor to compress blocks on.
+	 */
+	private final ExecutorService executorService;
+
+	/**
+	 * Size of one block.
+	 */
+	private final int blockSize;
+
+	/**
+	 * Max amount of blocks that can be read and not yet written to the output.
+	 */
+	private final int maxBlocksInFlight;
+
+	/**
+	 * Compression level to use.
+	 */
+	private final int level;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param executorService
+	 *            Executor to compress blocks on.
+	 * @param blockSize
+	 *            Size of one block.
+	 * @param maxBlocksInFlight
+	 *            Max amount of blocks that can be read and not yet written to the output.
+	 * @param level
+	 *            Compression level to use.
+	 */
+	public ParallelGzipCompressor(ExecutorService executorService, int blockSize, int maxBlocksInFlight, int level) {
+		if (null == executorService) {
+			throw new IllegalArgumentException("Executor service must not be null.");
+		}
+		if (blockSize <= 0) {
+			throw new IllegalArgumentException("Block size must be positive.");
+		}
+		if (maxBlocksInFlight <= 0) {
+			throw new IllegalArgumentException("Max blocks in flight must be positive.");
+		}
+		this.executorService = executorService;
+		this.blockSize = blockSize;
+		this.maxBlocksInFlight = maxBlocksInFlight;
+		this.level = level;
+	}
+
+	/**
+	 * Compresses the complete content of the input stream to the output stream. Neither of the
+	 * streams is closed by this method.
+	 *
+	 * @param inputStream
+	 *            Stream to read data from.
+	 * @param outputStream
+	 *            Stream to write GZIP data to.
+	 * @return Number of uncompressed bytes read from the input stream.
+	 * @throws IOException
+	 *             If {@link IOException} occurs during read, compression or write.
+	 */
+	public long compress(InputStream inputStream, OutputStream outputStream) throws IOException {
+		Deque<Future<byte[]>> inFlight = new ArrayDeque<>(maxBlocksInFlight);
+		CRC32 crc = new CRC32();
+		long totalSize = 0;
+
+		outputStream.write(GZIP_HEADER);
+		try {
+			byte[] block = readBlock(inputStream);
+			while (true) {
+				// read one block ahead to know if the current one is the last
+				byte[] next = (block.length == blockSize) ? readBlock(inputStream) : new byte[0];
+				boolean last = next.length == 0;
+
+				crc.update(block, 0, block.length);
+				totalSize += block.length;
+				inFlight.addLast(executorService.submit(new DeflateBlockCallable(block, last, level)));
+
+				if (inFlight.size() >= maxBlocksInFlight) {
+					outputStream.write(waitFor(inFlight.removeFirst()));
+				}
+
+				if (last) {
+					break;
+				}
+				block = next;
+			}
+
+			while (!inFlight.isEmpty()) {
+				outputStream.write(waitFor(inFlight.removeFirst()));
+			}
+		} finally {
+			for (Future<byte[]> future : inFlight) {
+				future.cancel(true);
+			}
+		}
+
+		writeIntLittleEndian(outputStream, (int) crc.getValue());
+		writeIntLittleEndian(outputStream, (int) totalSize);
+		return totalSize;
+	}
+
+	/**
+	 * Reads one block from the input stream. The returned array is smaller than the
+	 * {@link #blockSize} only if end of stream was reached.
+	 *
+	 * @param inputStream
+	 *            Stream to read from.
+	 * @return Read bytes.
+	 * @throws IOException
+	 *             If {@link IOException} occurs.
+	 */
+	private byte[] readBlock(InputStream inputStream) throws IOException {
+		byte[] block = new byte[blockSize];
+		int read = 0;
+		while (read < blockSize) {
+			int count = inputStream.read(block, read, blockSize - read);
+			if (count < 0) {
+				break;
+			}
+			read += count;
+		}
+		return (read == blockSize) ? block : Arrays.copyOf(block, read);
+	}
+
+	/**
+	 * Waits for the compressed block.
+	 *
+	 * @param future
+	 *            Future holding the compressed block.
+	 * @return Compressed bytes.
+	 * @throws IOException
+	 *             If compression failed or waiting was interrupted.
+	 */
+	private byte[] waitFor(Future<byte[]> future) throws IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for the block to be compressed.");
+		} catch (ExecutionException e) {
+			throw new IOException("Compression of the block failed.", e.getCause());
+		}
+	}
+
+	/**
+	 * Writes integer as 4 bytes in the little endian order as expected by GZIP format.
+	 *
+	 * @param outputStream
+	 *            Stream to write to.
+	 * @param value
+	 *            Value to write.
+	 * @throws IOException
+	 *             If {@link IOException} occurs.
+	 */
+	private void writeIntLittleEndian(OutputStream outputStream, int value) throws IOException {
+		outputStream.write(value & 0xff);
+		outputStream.write((value >> 8) & 0xff);
+		outputStream.write((value >> 16) & 0xff);
+		outputStream.write((value >> 24) & 0xff);
+	}
+
+	/**
+	 * Callable that deflates one block with the raw deflater.
+	 *
+	 * @author Ivan Senic
+	 *
+	 */
+	private static class DeflateBlockCallable implements Callable<byte[]> {
+
+		/**
+		 * Block to compress.
+		 */
+		private final byte[] block;
+
+		/**
+		 * If this is the last block of the stream.
+		 */
+		private final boolean last;
+
+		/**
+		 * Compression level.
+		 */
+		private final int level;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param block
+		 *            Block to compress.
+		 * @param last
+		 *            If this is the last block of the stream.
+		 * @param level
+		 *            Compression level.
+		 */
+		DeflateBlockCallable(byte[] block, boolean last, int level) {
+			this.block = block;
+			this.last = last;
+			this.level = level;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public byte[] call() throws Exception {
+			Deflater deflater = new Deflater(level, true);
+			try {
+				deflater.setInput(block);
+				if (last) {
+					deflater.finish();
+				}
+
+				byte[] out = new byte[Math.max(64, block.length + (block.length >> 3) + 64)];
+				int length = 0;
+				while (true) {
+					if (length == out.length) {
+						out = Arrays.copyOf(out, out.length * 2);
+					}
+					int count = last ? deflater.deflate(out, length, out.length - length) : deflater.deflate(out, length, out.length - length, Deflater.SYNC_FLUSH);
+					length += count;
+					if (last) {
+						if (deflater.finished()) {
+							break;
+						}
+					} else if (length < out.length) {
+						// sync flush is complete when the output buffer was not filled
+						break;
+					}
+				}
+				return Arrays.copyOf(out, length);
+			} finally {
+				deflater.end();
+			}
+		}
+	}
+
+}
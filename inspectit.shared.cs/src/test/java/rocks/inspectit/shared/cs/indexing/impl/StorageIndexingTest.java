@@ -2,6 +2,7 @@ package rocks.inspectit.shared.cs.indexing.impl;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.comparesEqualTo;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
@@ -15,6 +16,7 @@ import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ForkJoinPool;
 
 import org.testng.annotations.BeforeMethod;
@@ -29,6 +31,7 @@ import rocks.inspectit.shared.cs.indexing.indexer.impl.MethodIdentIndexer;
 import rocks.inspectit.shared.cs.indexing.indexer.impl.ObjectTypeIndexer;
 import rocks.inspectit.shared.cs.indexing.indexer.impl.PlatformIdentIndexer;
 import rocks.inspectit.shared.cs.indexing.indexer.impl.SensorTypeIdentIndexer;
+import rocks.inspectit.shared.cs.indexing.indexer.impl.TimeSegmentIndexer;
 import rocks.inspectit.shared.cs.indexing.indexer.impl.TimestampIndexer;
 import rocks.inspectit.shared.cs.indexing.storage.IStorageDescriptor;
 import rocks.inspectit.shared.cs.indexing.storage.IStorageTreeComponent;
@@ -39,6 +42,7 @@ import rocks.inspectit.shared.cs.indexing.storage.impl.StorageBranch;
 import rocks.inspectit.shared.cs.indexing.storage.impl.StorageBranchIndexer;
 import rocks.inspectit.shared.cs.indexing.storage.impl.StorageDescriptor;
 import rocks.inspectit.shared.cs.indexing.storage.impl.StorageIndexQuery;
+import rocks.inspectit.shared.cs.indexing.storage.impl.StorageTimeSegments;
 
 /**
  * Test for checking the {@link IStorageTreeComponent}s.
@@ -557,4 +561,81 @@ public class StorageIndexingTest {
 		List<IStorageDescriptor> results = rootCombinedStoreBranch.query(storageIndexQuery, forkJoinPool);
 		assertThat(results.size(), is(equalTo(4)));
 	}
+
+	/**
+	 * Test that the time segments not matching the interval or platform of the query are skipped.
+	 *
+	 * @throws IndexingException
+	 *             If {@link IndexingException} occurs.
+	 */
+	@Test
+	public void queryTimeSegments() throws IndexingException {
+		long segmentStart = 10 * TimeSegmentIndexer.SEGMENT_PERIOD;
+		IStorageTreeComponent<DefaultData> rootBranch = new StorageBranch<>(new StorageBranchIndexer<>(new TimeSegmentIndexer<>(), new StorageBranchIndexer<>(new PlatformIdentIndexer<>(), false), false));
+
+		DefaultData defaultData1 = mock(DefaultData.class);
+		when(defaultData1.getId()).thenReturn(1L);
+		when(defaultData1.getPlatformIdent()).thenReturn(1L);
+		when(defaultData1.getTimeStamp()).thenReturn(new Timestamp(segmentStart + 1000));
+		rootBranch.put(defaultData1).setPositionAndSize(0L, 100L);
+
+		DefaultData defaultData2 = mock(DefaultData.class);
+		when(defaultData2.getId()).thenReturn(2L);
+		when(defaultData2.getPlatformIdent()).thenReturn(2L);
+		when(defaultData2.getTimeStamp()).thenReturn(new Timestamp(segmentStart + TimeSegmentIndexer.SEGMENT_PERIOD + 1000));
+		rootBranch.put(defaultData2).setPositionAndSize(0L, 200L);
+
+		// interval in the second segment only
+		storageIndexQuery.setFromDate(new Timestamp(segmentStart + TimeSegmentIndexer.SEGMENT_PERIOD));
+		storageIndexQuery.setToDate(new Timestamp(segmentStart + (2 * TimeSegmentIndexer.SEGMENT_PERIOD)));
+		List<IStorageDescriptor> results = rootBranch.query(storageIndexQuery);
+		assertThat(results.size(), is(equalTo(1)));
+		assertThat(results.get(0).getSize(), is(equalTo(200L)));
+		assertThat(rootBranch.query(storageIndexQuery, forkJoinPool).size(), is(equalTo(1)));
+
+		// interval in the first segment, but no data before the first element
+		storageIndexQuery.setFromDate(new Timestamp(segmentStart));
+		storageIndexQuery.setToDate(new Timestamp(segmentStart + 500));
+		assertThat(rootBranch.query(storageIndexQuery), is(empty()));
+		assertThat(rootBranch.query(storageIndexQuery, forkJoinPool), is(empty()));
+
+		// platform only in the first segment
+		storageIndexQuery = new StorageIndexQuery();
+		storageIndexQuery.setPlatformIdent(1L);
+		results = rootBranch.query(storageIndexQuery);
+		assertThat(results.size(), is(equalTo(1)));
+		assertThat(results.get(0).getSize(), is(equalTo(100L)));
+	}
+
+	/**
+	 * Test that expired segments are removed and their channels reported.
+	 *
+	 * @throws IndexingException
+	 *             If {@link IndexingException} occurs.
+	 */
+	@Test
+	public void removeExpiredTimeSegments() throws IndexingException {
+		long segmentStart = 10 * TimeSegmentIndexer.SEGMENT_PERIOD;
+		IStorageTreeComponent<DefaultData> rootBranch = new StorageBranch<>(new StorageBranchIndexer<>(new TimeSegmentIndexer<>(), new StorageBranchIndexer<>(new PlatformIdentIndexer<>(), false), false));
+
+		DefaultData defaultData1 = mock(DefaultData.class);
+		when(defaultData1.getId()).thenReturn(1L);
+		when(defaultData1.getTimeStamp()).thenReturn(new Timestamp(segmentStart + 1000));
+		IStorageDescriptor storageDescriptor1 = rootBranch.put(defaultData1);
+		storageDescriptor1.setPositionAndSize(0L, 100L);
+
+		DefaultData defaultData2 = mock(DefaultData.class);
+		when(defaultData2.getId()).thenReturn(2L);
+		when(defaultData2.getTimeStamp()).thenReturn(new Timestamp(segmentStart + TimeSegmentIndexer.SEGMENT_PERIOD + 1000));
+		IStorageDescriptor storageDescriptor2 = rootBranch.put(defaultData2);
+		storageDescriptor2.setPositionAndSize(0L, 200L);
+
+		Set<Integer> removed = StorageTimeSegments.removeSegmentsBefore(rootBranch, segmentStart + TimeSegmentIndexer.SEGMENT_PERIOD);
+
+		assertThat(removed, contains(storageDescriptor1.getChannelId()));
+		assertThat(StorageTimeSegments.getSegments(rootBranch).size(), is(1));
+		List<IStorageDescriptor> results = rootBranch.query(storageIndexQuery);
+		assertThat(results.size(), is(equalTo(1)));
+		assertThat(results.get(0).getSize(), is(equalTo(200L)));
+	}
 }
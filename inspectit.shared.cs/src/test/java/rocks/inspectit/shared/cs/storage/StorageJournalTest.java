@@ -0,0 +1,138 @@
+package rocks.inspectit.shared.cs.storage;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the {@link StorageJournal}.
+ *
+ * @author Ivan Senic
+ *
+ */
+@SuppressWarnings("PMD")
+public class StorageJournalTest {
+
+	private Path journalPath;
+
+	@BeforeMethod
+	public void init() throws IOException {
+		journalPath = Files.createTempFile("storage", StorageFileType.JOURNAL_FILE.getExtension());
+		Files.delete(journalPath);
+	}
+
+	@AfterMethod
+	public void cleanUp() throws IOException {
+		Files.deleteIfExists(journalPath);
+	}
+
+	/**
+	 * Records of the generations without the checkpoint are replayed.
+	 */
+	@Test
+	public void replayNotSavedGenerations() throws IOException {
+		StorageJournal journal = new StorageJournal(journalPath);
+		journal.append(1L, 1, 10, 0L, 100L);
+		journal.append(2L, 2, 20, 0L, 50L);
+		journal.checkpoint(1);
+		journal.append(3L, 2, 20, 50L, 70L);
+		journal.close();
+
+		final List<Long> replayed = new ArrayList<>();
+		long count = StorageJournal.replay(journalPath, new StorageJournal.RecordHandler() {
+			@Override
+			public void handle(long elementId, int generation, int channelId, long position, int size) {
+				assertThat(generation, is(2));
+				assertThat(channelId, is(20));
+				replayed.add(elementId);
+			}
+		});
+
+		assertThat(count, is(2L));
+		assertThat(replayed, contains(2L, 3L));
+	}
+
+	/**
+	 * Element with the id zero is replayed and not taken as a checkpoint.
+	 */
+	@Test
+	public void replayElementWithIdZero() throws IOException {
+		StorageJournal journal = new StorageJournal(journalPath);
+		journal.append(0L, 1, 10, 0L, 100L);
+		journal.append(1L, 1, 10, 100L, 100L);
+		journal.close();
+
+		final List<Long> replayed = new ArrayList<>();
+		long count = StorageJournal.replay(journalPath, new StorageJournal.RecordHandler() {
+			@Override
+			public void handle(long elementId, int generation, int channelId, long position, int size) {
+				replayed.add(elementId);
+			}
+		});
+
+		assertThat(count, is(2L));
+		assertThat(replayed, contains(0L, 1L));
+	}
+
+	/**
+	 * Incomplete record at the end of the journal is ignored.
+	 */
+	@Test
+	public void incompleteRecordIgnored() throws IOException {
+		StorageJournal journal = new StorageJournal(journalPath);
+		journal.append(1L, 1, 10, 0L, 100L);
+		journal.close();
+		Files.write(journalPath, new byte[StorageJournal.RECORD_SIZE - 1], StandardOpenOption.APPEND);
+
+		final List<Long> replayed = new ArrayList<>();
+		StorageJournal.replay(journalPath, new StorageJournal.RecordHandler() {
+			@Override
+			public void handle(long elementId, int generation, int channelId, long position, int size) {
+				assertThat(position, is(0L));
+				assertThat(size, is(100));
+				replayed.add(elementId);
+			}
+		});
+
+		assertThat(replayed, contains(1L));
+	}
+
+	/**
+	 * Journal is appended when opened again.
+	 */
+	@Test
+	public void reopenAppends() throws IOException {
+		StorageJournal journal = new StorageJournal(journalPath);
+		journal.append(1L, 1, 10, 0L, 100L);
+		journal.close();
+		journal = new StorageJournal(journalPath);
+		journal.append(2L, 1, 10, 100L, 100L);
+		journal.close();
+
+		assertThat(Files.size(journalPath), is(2L * StorageJournal.RECORD_SIZE));
+	}
+
+	/**
+	 * Delete removes the file.
+	 */
+	@Test
+	public void delete() throws IOException {
+		StorageJournal journal = new StorageJournal(journalPath);
+		journal.append(1L, 1, 10, 0L, 100L);
+		journal.delete();
+
+		assertThat(Files.exists(journalPath), is(false));
+	}
+
+}
@@ -3,6 +3,7 @@ package rocks.inspectit.shared.cs.storage;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.anyObject;
@@ -15,6 +16,7 @@ import static org.mockito.Mockito.when;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.reflect.Field;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -25,6 +27,7 @@ import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import org.mockito.Matchers;
@@ -35,6 +38,7 @@ import org.testng.annotations.AfterTest;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 
 import rocks.inspectit.shared.all.communication.DefaultData;
@@ -276,6 +280,57 @@ public class StorageWriterTest {
 		verifyZeroInteractions(writingChannelManager, extendedByteBufferOutputStream);
 	}
 
+	/**
+	 * Storage not finalized because of the crash is recovered from the journal. Data of the saved
+	 * indexing tree generation is not recovered again and element with the id zero is recovered.
+	 */
+	@Test
+	public void recoverFromJournalAfterCrash() throws Exception {
+		Path storagePath = Files.createTempDirectory("storage");
+		StorageJournal journal = null;
+		try {
+			StorageData storageData = new StorageData();
+			Path channelPath = storagePath.resolve("1" + StorageFileType.DATA_FILE.getExtension());
+			Path journalPath = storagePath.resolve("write" + StorageFileType.JOURNAL_FILE.getExtension());
+			when(storageManager.getStoragePath(storageData)).thenReturn(storagePath);
+			when(storageManager.getChannelPath(storageData, 1)).thenReturn(channelPath);
+			when(storageIndexingTreeHandler.getJournalPath()).thenReturn(journalPath);
+			Field field = StorageWriter.class.getDeclaredField("writingExecutorService");
+			field.setAccessible(true);
+			field.set(storageWriter, new ScheduledThreadPoolExecutor(1));
+
+			// three elements written, the indexing tree of the generation 1 saved before the crash
+			Files.write(channelPath, new byte[30]);
+			journal = new StorageJournal(journalPath);
+			journal.append(0L, 2, 1, 0L, 10L);
+			journal.append(1L, 1, 1, 10L, 10L);
+			journal.checkpoint(1);
+			journal.append(2L, 2, 1, 20L, 10L);
+			// crash, journal is never closed or deleted
+			journal.flush();
+
+			TimerData first = new TimerData();
+			first.setId(0L);
+			TimerData second = new TimerData();
+			second.setId(2L);
+			when(serializer.deserialize(Matchers.<Input> anyObject())).thenReturn(first, second);
+
+			boolean recovered = storageWriter.recoverFromJournal(storageData);
+
+			assertThat(recovered, is(true));
+			verify(storageIndexingTreeHandler).prepareRecovery();
+			verify(storageIndexingTreeHandler).recoverWrite(2, first, 1, 0L, 10L);
+			verify(storageIndexingTreeHandler).recoverWrite(2, second, 1, 20L, 10L);
+			verify(storageIndexingTreeHandler, times(2)).recoverWrite(anyInt(), Matchers.<DefaultData> anyObject(), anyInt(), anyLong(), anyLong());
+			verify(storageIndexingTreeHandler).finish();
+		} finally {
+			if (null != journal) {
+				journal.close();
+			}
+			Files.walkFileTree(storagePath, new DeleteFileVisitor());
+		}
+	}
+
 	@AfterTest
 	public void cleanUp() throws IOException {
 		if (Files.exists(testPath)) {
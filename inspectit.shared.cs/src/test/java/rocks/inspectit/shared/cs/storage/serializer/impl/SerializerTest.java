@@ -3,6 +3,7 @@ package rocks.inspectit.shared.cs.storage.serializer.impl;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
@@ -11,6 +12,7 @@ import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.nio.ByteBuffer;
+import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -76,6 +78,8 @@ import rocks.inspectit.shared.cs.indexing.indexer.impl.ObjectTypeIndexer;
 import rocks.inspectit.shared.cs.indexing.indexer.impl.PlatformIdentIndexer;
 import rocks.inspectit.shared.cs.indexing.indexer.impl.SensorTypeIdentIndexer;
 import rocks.inspectit.shared.cs.indexing.indexer.impl.SqlStringIndexer;
+import rocks.inspectit.shared.cs.indexing.indexer.impl.TimeSegmentIndexer;
+import rocks.inspectit.shared.cs.indexing.indexer.impl.TimeSegmentIndexer.TimeSegment;
 import rocks.inspectit.shared.cs.indexing.indexer.impl.TimestampIndexer;
 import rocks.inspectit.shared.cs.indexing.storage.impl.ArrayBasedStorageLeaf;
 import rocks.inspectit.shared.cs.indexing.storage.impl.SimpleStorageDescriptor;
@@ -123,7 +127,7 @@ public class SerializerTest extends TestBase {
 			{ SqlStringIndexer.class }, { BooleanStorageLabel.class }, { DateStorageLabel.class }, { NumberStorageLabel.class }, { StringStorageLabel.class }, { CustomDateLabelType.class },
 			{ CmrStatusData.class }, { AgentStatusData.class }, { RecordingData.class }, { CustomBooleanLabelType.class }, { CustomNumberLabelType.class }, { CustomStringLabelType.class },
 			{ AssigneeLabelType.class }, { RatingLabelType.class }, { ExploredByLabelType.class }, { CreationDateLabelType.class }, { StatusLabelType.class }, { UseCaseLabelType.class },
-			{ AggregatedHttpTimerData.class }, { AggregatedSqlStatementData.class }, { AggregatedTimerData.class }, { ArrayBasedStorageLeaf.class } };
+			{ AggregatedHttpTimerData.class }, { AggregatedSqlStatementData.class }, { AggregatedTimerData.class }, { ArrayBasedStorageLeaf.class }, { TimeSegment.class } };
 
 	/**
 	 * Serializer.
@@ -358,6 +362,26 @@ public class SerializerTest extends TestBase {
 		return returnData;
 	}
 
+	/**
+	 * Tests that the time segment indexer is serialized with its segments.
+	 */
+	@Test
+	public void timeSegmentIndexer() throws SerializationException {
+		TimeSegmentIndexer<DefaultData> indexer = new TimeSegmentIndexer<>();
+		long time = (10 * TimeSegmentIndexer.SEGMENT_PERIOD) + 1000;
+		TimerData timerData = new TimerData(new Timestamp(time), 10L, 1L, 1L);
+		indexer.getKey(timerData);
+
+		TimeSegmentIndexer<DefaultData> deserialized = serializeBackAndForth(indexer);
+
+		assertThat(deserialized.getSegments(), hasSize(1));
+		TimeSegment segment = deserialized.getSegments().iterator().next();
+		assertThat(segment.getKey(), is(10 * TimeSegmentIndexer.SEGMENT_PERIOD));
+		assertThat(segment.getMinTimestamp(), is(time));
+		assertThat(segment.getMaxTimestamp(), is(time));
+		assertThat(segment.containsPlatform(10L), is(true));
+	}
+
 	/**
 	 * Tests serialization of remote exception.
 	 */
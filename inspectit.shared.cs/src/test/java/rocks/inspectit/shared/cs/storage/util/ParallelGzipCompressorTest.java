@@ -0,0 +1,90 @@
+package rocks.inspectit.shared.cs.storage.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the {@link ParallelGzipCompressor}.
+ *
+ * @author Ivan Senic
+ *
+ */
+@SuppressWarnings("PMD")
+public class ParallelGzipCompressorTest {
+
+	private static final int BLOCK_SIZE = 1024;
+
+	private ExecutorService executorService;
+
+	@BeforeClass
+	public void init() {
+		executorService = Executors.newFixedThreadPool(3);
+	}
+
+	@AfterClass
+	public void shutdown() {
+		executorService.shutdownNow();
+	}
+
+	@DataProvider(name = "sizes")
+	public Object[][] sizes() {
+		return new Object[][] { { 0 }, { 1 }, { BLOCK_SIZE - 1 }, { BLOCK_SIZE }, { BLOCK_SIZE + 1 }, { 3 * BLOCK_SIZE }, { (10 * BLOCK_SIZE) + 17 } };
+	}
+
+	/**
+	 * Compressed data must be readable with the standard {@link GZIPInputStream} and be equal to
+	 * the original data.
+	 */
+	@Test(dataProvider = "sizes")
+	public void compressAndDecompress(int size) throws IOException {
+		byte[] data = new byte[size];
+		Random random = new Random(size);
+		// half random, half repeating to have both compressible and not compressible parts
+		for (int i = 0; i < size; i++) {
+			data[i] = (i % 2 == 0) ? (byte) random.nextInt() : (byte) (i % 7);
+		}
+
+		ParallelGzipCompressor compressor = new ParallelGzipCompressor(executorService, BLOCK_SIZE, 2, Deflater.DEFAULT_COMPRESSION);
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		long read = compressor.compress(new ByteArrayInputStream(data), compressed);
+
+		assertThat(read, is((long) size));
+		assertThat(decompress(compressed.toByteArray()), is(data));
+	}
+
+	/**
+	 * Invalid arguments are not allowed.
+	 */
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void invalidBlockSize() {
+		new ParallelGzipCompressor(executorService, 0, 2, Deflater.DEFAULT_COMPRESSION);
+	}
+
+	private byte[] decompress(byte[] compressed) throws IOException {
+		ByteArrayOutputStream result = new ByteArrayOutputStream();
+		try (InputStream is = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+			byte[] buffer = new byte[512];
+			int count;
+			while ((count = is.read(buffer)) > 0) {
+				result.write(buffer, 0, count);
+			}
+		}
+		return result.toByteArray();
+	}
+
+}
@@ -458,7 +458,10 @@ public class InvocDetailInputController extends AbstractTreeInputController {
 			if (InvocationSequenceDataHelper.hasLoggingData(data)) {
 				LoggingData loggingData = data.getLoggingData();
 				styledString.append("[" + loggingData.getLevel().toUpperCase() + "] ");
-				styledString.append(loggingData.getMessage());
+				styledString.append(loggingData.getMessageWithArguments());
+				if (loggingData.getCount() > 1) {
+					styledString.append(" (" + loggingData.getCount() + "x)");
+				}
 			}
 
 			return styledString;
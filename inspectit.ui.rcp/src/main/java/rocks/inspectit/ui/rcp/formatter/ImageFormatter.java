@@ -63,6 +63,7 @@ import rocks.inspectit.shared.cs.storage.label.type.impl.CreationDateLabelType;
 import rocks.inspectit.shared.cs.storage.label.type.impl.DataTimeFrameLabelType;
 import rocks.inspectit.shared.cs.storage.label.type.impl.ExploredByLabelType;
 import rocks.inspectit.shared.cs.storage.label.type.impl.RatingLabelType;
+import rocks.inspectit.shared.cs.storage.label.type.impl.RecordingFidelityLabelType;
 import rocks.inspectit.shared.cs.storage.label.type.impl.StatusLabelType;
 import rocks.inspectit.shared.cs.storage.label.type.impl.UseCaseLabelType;
 import rocks.inspectit.ui.rcp.InspectIT;
@@ -141,6 +142,8 @@ public final class ImageFormatter {
 			return InspectITImages.IMG_USECASE_LABEL_ICON;
 		} else if (DataTimeFrameLabelType.class.equals(labelType.getClass())) {
 			return InspectITImages.IMG_TIMEFRAME;
+		} else if (RecordingFidelityLabelType.class.equals(labelType.getClass())) {
+			return InspectITImages.IMG_WARNING;
 		} else if (labelType instanceof AbstractCustomStorageLabelType) {
 			AbstractCustomStorageLabelType<?> customLabelType = (AbstractCustomStorageLabelType<?>) labelType;
 			if (null != customLabelType.getImageKey()) {
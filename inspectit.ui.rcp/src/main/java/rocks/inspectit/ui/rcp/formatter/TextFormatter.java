@@ -64,6 +64,7 @@ import rocks.inspectit.shared.cs.storage.label.type.impl.CreationDateLabelType;
 import rocks.inspectit.shared.cs.storage.label.type.impl.DataTimeFrameLabelType;
 import rocks.inspectit.shared.cs.storage.label.type.impl.ExploredByLabelType;
 import rocks.inspectit.shared.cs.storage.label.type.impl.RatingLabelType;
+import rocks.inspectit.shared.cs.storage.label.type.impl.RecordingFidelityLabelType;
 import rocks.inspectit.shared.cs.storage.label.type.impl.StatusLabelType;
 import rocks.inspectit.shared.cs.storage.label.type.impl.UseCaseLabelType;
 import rocks.inspectit.ui.rcp.InspectIT;
@@ -459,6 +460,8 @@ public final class TextFormatter {
 			return "Use Case";
 		} else if (DataTimeFrameLabelType.class.equals(labelType.getClass())) {
 			return "Data Timeframe";
+		} else if (RecordingFidelityLabelType.class.equals(labelType.getClass())) {
+			return "Recording Fidelity";
 		} else if (AbstractCustomStorageLabelType.class.isAssignableFrom(labelType.getClass())) {
 			return ((AbstractCustomStorageLabelType<?>) labelType).getName();
 		} else {
@@ -26,10 +26,10 @@ public class CopyLogMessageHandler extends AbstractHandler implements IHandler {
 		Object firstElement = ((StructuredSelection) HandlerUtil.getCurrentSelection(event)).getFirstElement();
 		if (firstElement instanceof LoggingData) {
 			LoggingData loggingData = (LoggingData) firstElement;
-			ClipboardUtil.textToClipboard(HandlerUtil.getActiveShell(event).getDisplay(), loggingData.getMessage());
+			ClipboardUtil.textToClipboard(HandlerUtil.getActiveShell(event).getDisplay(), loggingData.getMessageWithArguments());
 		} else if (firstElement instanceof InvocationSequenceData) {
 			LoggingData loggingData = ((InvocationSequenceData) firstElement).getLoggingData();
-			ClipboardUtil.textToClipboard(HandlerUtil.getActiveShell(event).getDisplay(), loggingData.getMessage());
+			ClipboardUtil.textToClipboard(HandlerUtil.getActiveShell(event).getDisplay(), loggingData.getMessageWithArguments());
 		}
 		return null;
 	}
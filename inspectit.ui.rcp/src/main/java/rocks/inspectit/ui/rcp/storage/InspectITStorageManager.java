@@ -595,6 +595,24 @@ public class InspectITStorageManager extends StorageManager implements CmrReposi
 		dataUploader.uploadFileToStorageUploads(file, relativizePath, tmpDir, cmrRepositoryDefinition, subMonitor);
 	}
 
+	/**
+	 * Imports the zipped storage file to the {@link CmrRepositoryDefinition}. The file is streamed
+	 * to the CMR that unpacks it on the fly, so there is no need for the additional unpack call.
+	 *
+	 * @param fileName
+	 *            Name of file.
+	 * @param cmrRepositoryDefinition
+	 *            {@link CmrRepositoryDefinition}.
+	 * @param subMonitor
+	 *            {@link SubMonitor} to report progress to.
+	 * @throws IOException
+	 *             If upload file does not exist or upload/import fails.
+	 */
+	public void importZippedStorage(String fileName, CmrRepositoryDefinition cmrRepositoryDefinition, SubMonitor subMonitor) throws IOException {
+		subMonitor.setTaskName("Uploading and importing storage file..");
+		dataUploader.uploadStorageArchive(Paths.get(fileName), cmrRepositoryDefinition, subMonitor);
+	}
+
 	/**
 	 * Uploads a complete storage to the {@link CmrRepositoryDefinition} upload folder. All files
 	 * belonging to the local storage data will be uploaded to the temporary directory.
@@ -663,6 +681,10 @@ public class InspectITStorageManager extends StorageManager implements CmrReposi
 	/**
 	 * Zips the remote storage files to the file. File name is provided via given path. If the file
 	 * already exists, it will be deleted first.
+	 * <p>
+	 * Closed storages are exported by the CMR that streams the zip archive, thus the storage files
+	 * don't have to be downloaded and packed on the client. Otherwise the files are downloaded and
+	 * packed at the same time.
 	 *
 	 * @param storageData
 	 *            Remote storage to zip.
@@ -671,7 +693,8 @@ public class InspectITStorageManager extends StorageManager implements CmrReposi
 	 * @param zipFileName
 	 *            Zip file name.
 	 * @param compressBefore
-	 *            Defines if the data should be compressed before downloading.
+	 *            Defines if the data should be compressed before downloading. Not used for the
+	 *            closed storages, as the CMR compresses the archive.
 	 * @param subMonitor
 	 *            {@link SubMonitor} to report to.
 	 * @throws BusinessException
@@ -688,6 +711,17 @@ public class InspectITStorageManager extends StorageManager implements CmrReposi
 			Files.delete(zipPath);
 		}
 
+		if (storageData.isStorageClosed()) {
+			subMonitor.setTaskName("Downloading storage archive..");
+			try {
+				dataRetriever.downloadStorageArchive(cmrRepositoryDefinition, storageData, zipPath, subMonitor);
+			} catch (IOException e) {
+				Files.deleteIfExists(zipPath);
+				throw e;
+			}
+			return;
+		}
+
 		try (final ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(zipPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE))) {
 			// download and pack at the same time
 			subMonitor.setTaskName("Downloading and packing storage files..");
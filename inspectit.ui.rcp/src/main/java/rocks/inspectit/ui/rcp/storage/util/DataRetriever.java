@@ -3,6 +3,7 @@ package rocks.inspectit.ui.rcp.storage.util;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URLEncoder;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
@@ -69,6 +70,11 @@ import rocks.inspectit.ui.rcp.storage.http.TransferDataMonitor;
  */
 public class DataRetriever {
 
+	/**
+	 * Storage archive servlet mapping.
+	 */
+	private static final String STORAGE_ARCHIVE_SERVLET = "/storagearchive";
+
 	/**
 	 * Amount of serializers to be available to this class.
 	 */
@@ -604,6 +610,55 @@ public class DataRetriever {
 		}
 	}
 
+	/**
+	 * Downloads the closed storage as zip archive from the {@link CmrRepositoryDefinition} storage
+	 * archive servlet. The CMR creates the archive while streaming, thus no download of the single
+	 * storage files or zipping on the client side is needed.
+	 *
+	 * @param cmrRepositoryDefinition
+	 *            {@link CmrRepositoryDefinition}.
+	 * @param storageData
+	 *            Closed storage to download.
+	 * @param zipPath
+	 *            Path of the zip file to save the archive to.
+	 * @param subMonitor
+	 *            {@link SubMonitor} for process reporting.
+	 * @throws IOException
+	 *             If {@link IOException} occurs or the CMR fails to export the storage.
+	 */
+	public void downloadStorageArchive(CmrRepositoryDefinition cmrRepositoryDefinition, StorageData storageData, Path zipPath, SubMonitor subMonitor) throws IOException {
+		String fileName = zipPath.getFileName().toString();
+		// archive size is not known in advance, storage size on disk is a good estimation
+		Map<String, Long> files = Collections.singletonMap(fileName, Long.valueOf(storageData.getDiskSize()));
+		final TransferDataMonitor transferDataMonitor = new TransferDataMonitor(subMonitor, files, false);
+
+		DefaultHttpClient httpClient = new DefaultHttpClient();
+		httpClient.addResponseInterceptor(new HttpResponseInterceptor() {
+			@Override
+			public void process(HttpResponse response, HttpContext context) throws HttpException, IOException {
+				response.setEntity(new DownloadHttpEntityWrapper(response.getEntity(), transferDataMonitor));
+			}
+		});
+
+		try {
+			HttpGet httpGet = new HttpGet(getServerUri(cmrRepositoryDefinition) + STORAGE_ARCHIVE_SERVLET + "?storageId=" + URLEncoder.encode(storageData.getId(), "UTF-8"));
+			transferDataMonitor.startTransfer(fileName);
+			HttpResponse response = httpClient.execute(httpGet);
+			StatusLine statusLine = response.getStatusLine();
+			HttpEntity entity = response.getEntity();
+			if (!HttpStatus.valueOf(statusLine.getStatusCode()).series().equals(Series.SUCCESSFUL)) {
+				EntityUtils.consume(entity);
+				throw new IOException("Export of the storage " + storageData + " failed on the CMR (HTTP status " + statusLine.getStatusCode() + ").");
+			}
+			try (InputStream is = entity.getContent()) {
+				Files.copy(is, zipPath, StandardCopyOption.REPLACE_EXISTING);
+			}
+			transferDataMonitor.endTransfer(fileName);
+		} finally {
+			httpClient.getConnectionManager().shutdown();
+		}
+	}
+
 	/**
 	 * Returns the URI of the server in format 'http://ip:port'.
 	 *
@@ -9,11 +9,15 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.FileEntity;
 import org.apache.http.entity.mime.HttpMultipartMode;
 import org.apache.http.entity.mime.MultipartEntity;
 import org.apache.http.entity.mime.content.FileBody;
 import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.util.EntityUtils;
 import org.eclipse.core.runtime.SubMonitor;
 
 import rocks.inspectit.ui.rcp.repository.CmrRepositoryDefinition;
@@ -32,6 +36,11 @@ public class DataUploader {
 	 */
 	private static final String UPLOAD_SERVLET = "/fileupload";
 
+	/**
+	 * Storage archive servlet mapping.
+	 */
+	private static final String STORAGE_ARCHIVE_SERVLET = "/storagearchive";
+
 	/**
 	 * Uploads the file to the {@link CmrRepositoryDefinition} storage upload folder.
 	 * <p>
@@ -122,6 +131,52 @@ public class DataUploader {
 
 	}
 
+	/**
+	 * Uploads the zipped storage to the {@link CmrRepositoryDefinition} storage archive servlet.
+	 * The CMR imports the storage while the file is being uploaded, thus no separate unpack call
+	 * is needed.
+	 *
+	 * @param zipFile
+	 *            Zipped storage file.
+	 * @param cmrRepositoryDefinition
+	 *            {@link CmrRepositoryDefinition}.
+	 * @param subMonitor
+	 *            {@link SubMonitor} to report progress to.
+	 * @throws IOException
+	 *             If file to upload does not exist, exception occurs during the upload or the CMR
+	 *             fails to import the storage.
+	 */
+	public void uploadStorageArchive(Path zipFile, CmrRepositoryDefinition cmrRepositoryDefinition, SubMonitor subMonitor) throws IOException {
+		if (Files.notExists(zipFile)) {
+			throw new IOException("File to upload (" + zipFile + ") does not exist.");
+		}
+		Map<String, Long> files = Collections.singletonMap(zipFile.toString(), Files.size(zipFile));
+		TransferDataMonitor transferDataMonitor = new TransferDataMonitor(subMonitor, files, false);
+
+		String uri = getServerUri(cmrRepositoryDefinition) + STORAGE_ARCHIVE_SERVLET;
+		DefaultHttpClient httpClient = null;
+		try {
+			httpClient = new DefaultHttpClient();
+			HttpPost httpPost = new HttpPost(uri);
+			FileEntity entity = new FileEntity(zipFile.toFile(), "application/zip");
+			httpPost.setEntity(new UploadHttpEntityWrapper(entity, transferDataMonitor));
+
+			transferDataMonitor.startTransfer(zipFile.toString());
+			HttpResponse response = httpClient.execute(httpPost);
+			transferDataMonitor.endTransfer(zipFile.toString());
+
+			int statusCode = response.getStatusLine().getStatusCode();
+			EntityUtils.consume(response.getEntity());
+			if ((statusCode != HttpStatus.SC_OK) && (statusCode != HttpStatus.SC_CREATED)) {
+				throw new IOException("Import of the storage file " + zipFile + " failed on the CMR (HTTP status " + statusCode + ").");
+			}
+		} finally {
+			if (null != httpClient) {
+				httpClient.getConnectionManager().shutdown();
+			}
+		}
+	}
+
 	/**
 	 * Returns the URI of the server in format 'http://ip:port'.
 	 *
@@ -108,7 +108,8 @@ public class ExportStorageWizard extends Wizard implements INewWizard {
 		addPage(exportStorageWizardPage);
 		if (storageData instanceof StorageData) {
 			StorageData remoteStorageData = (StorageData) storageData;
-			if (!InspectIT.getDefault().getInspectITStorageManager().isFullyDownloaded(remoteStorageData)) {
+			// closed storages are streamed by the CMR already compressed
+			if (!remoteStorageData.isStorageClosed() && !InspectIT.getDefault().getInspectITStorageManager().isFullyDownloaded(remoteStorageData)) {
 				String title = "Export Storage";
 				String message = "Options for exporting the storage '" + storageData.getName() + "' (size: " + NumberFormatter.formatBytesToMBytes(storageData.getDiskSize()) + ")";
 				storageCompressionWizardPage = new StorageCompressionWizardPage(title, message);
@@ -161,7 +162,7 @@ public class ExportStorageWizard extends Wizard implements INewWizard {
 			exportStorageJob.schedule();
 		} else {
 			if (cmrRepositoryDefinition.getOnlineStatus() != OnlineStatus.OFFLINE) {
-				final boolean compress = storageCompressionWizardPage.isCompressBefore();
+				final boolean compress = (null != storageCompressionWizardPage) && storageCompressionWizardPage.isCompressBefore();
 				Job downloadAndExportStorageJob = new Job("Download And Export Storage") {
 					@Override
 					protected IStatus run(IProgressMonitor monitor) {
@@ -21,7 +21,6 @@ import org.eclipse.ui.progress.IProgressConstants;
 import rocks.inspectit.shared.all.exception.BusinessException;
 import rocks.inspectit.shared.all.serializer.SerializationException;
 import rocks.inspectit.shared.all.util.ObjectUtils;
-import rocks.inspectit.shared.cs.storage.IStorageData;
 import rocks.inspectit.ui.rcp.InspectIT;
 import rocks.inspectit.ui.rcp.InspectITImages;
 import rocks.inspectit.ui.rcp.repository.CmrRepositoryDefinition;
@@ -159,24 +158,14 @@ public class ImportStorageWizard extends Wizard implements INewWizard {
 				@Override
 				protected IStatus run(IProgressMonitor monitor) {
 					SubMonitor subMonitor = SubMonitor.convert(monitor);
-					subMonitor.setWorkRemaining(10); // 9 units for uploading, 1 for unpacking
 					InspectITStorageManager storageManager = InspectIT.getDefault().getInspectITStorageManager();
 					try {
-						storageManager.uploadZippedStorage(fileName, cmrRepositoryDefinition, subMonitor.newChild(9));
+						// CMR unpacks the data while it's uploaded
+						storageManager.importZippedStorage(fileName, cmrRepositoryDefinition, subMonitor);
 					} catch (final Exception e) {
 						return new Status(IStatus.ERROR, InspectIT.ID, "Storage data was not successfully uploaded to the CMR. Import failed.", e);
 					}
 
-					IProgressMonitor unpackMonitor = subMonitor.newChild(1);
-					unpackMonitor.setTaskName("Unpacking data..");
-					try {
-						IStorageData storageData = storageManager.getStorageDataFromZip(fileName);
-						cmrRepositoryDefinition.getStorageService().unpackUploadedStorage(storageData);
-					} catch (final BusinessException e) {
-						return new Status(IStatus.ERROR, InspectIT.ID, "Storage data was not successfully unpacked on the CMR. Import failed.", e);
-					}
-					unpackMonitor.done();
-
 					Display.getDefault().asyncExec(new Runnable() {
 						@Override
 						public void run() {